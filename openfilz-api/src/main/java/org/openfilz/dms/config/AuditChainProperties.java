@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "openfilz.audit.chain")
@@ -13,7 +15,38 @@ public class AuditChainProperties {
 
     private String algorithm = "SHA-256";
 
+    /**
+     * Cron of the nightly verification, which only verifies the entries added since the last verification.
+     * Default: daily at 3 AM
+     */
     private String verificationCron = "0 0 3 * * ?";
 
+    /**
+     * Cron of the verification of the whole chain. Default: every Sunday at 4 AM
+     */
+    private String fullVerificationCron = "0 0 4 * * SUN";
+
+    /**
+     * Range of ids verified as one segment: the segments of the chain are verified in parallel, then linked.
+     * Default: 100000
+     */
+    private long verificationSegmentSize = 100_000;
+
+    /**
+     * Segments verified in parallel. Default: number of available processors
+     */
+    private int verificationParallelism = Runtime.getRuntime().availableProcessors();
+
     private boolean verificationEnabled = true;
+
+    /**
+     * How long chained entries are collected before being written together, under one acquisition of the chain
+     * lock. Default: 5ms
+     */
+    private Duration batchDelay = Duration.ofMillis(5);
+
+    /**
+     * Entries written at most per statement: a full batch is written without waiting for the delay. Default: 500
+     */
+    private int maxBatchSize = 500;
 }
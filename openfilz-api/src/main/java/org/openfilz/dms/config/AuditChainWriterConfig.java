@@ -0,0 +1,67 @@
+package org.openfilz.dms.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.repository.impl.AuditChainWriter;
+import org.openfilz.dms.service.AuditChainService;
+import org.openfilz.dms.utils.JsonUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.StringUtils;
+
+import static io.r2dbc.spi.ConnectionFactoryOptions.PASSWORD;
+import static io.r2dbc.spi.ConnectionFactoryOptions.USER;
+
+/**
+ * Gives the {@link AuditChainWriter} a connection of its own on the primary database.
+ * <p>
+ * Entries audited within a transaction are written once it commits, while the transaction still holds its pooled
+ * connection: taking the writer's connection from the same pool would deadlock once every pooled connection is
+ * held by a committed transaction waiting for its audit entries. The writer writes one batch at a time, so one
+ * connection is enough. It is not exposed as a bean, so the connection factory of Spring Boot stays the only one.
+ */
+@Slf4j
+@Configuration
+public class AuditChainWriterConfig {
+
+    @Bean
+    public AuditChainWriter auditChainWriter(DatabaseClient databaseClient, TransactionalOperator tx, Environment environment,
+                                             AuditChainService auditChainService, JsonUtils jsonUtils,
+                                             AuditChainProperties properties) {
+        String url = environment.getProperty("spring.r2dbc.url");
+        if (!StringUtils.hasText(url)) {
+            log.warn("spring.r2dbc.url is not set: chained audit entries are written through the shared connection pool");
+            return new AuditChainWriter(databaseClient, tx, auditChainService, jsonUtils, properties, null);
+        }
+        ConnectionPool pool = createWriterPool(url, environment);
+        return new AuditChainWriter(DatabaseClient.create(pool),
+                TransactionalOperator.create(new R2dbcTransactionManager(pool)),
+                auditChainService, jsonUtils, properties, pool);
+    }
+
+    private static ConnectionPool createWriterPool(String url, Environment environment) {
+        String username = environment.getProperty("spring.r2dbc.username");
+        String password = environment.getProperty("spring.r2dbc.password");
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (StringUtils.hasText(username)) {
+            options.option(USER, username);
+        }
+        if (StringUtils.hasText(password)) {
+            options.option(PASSWORD, password);
+        }
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options.build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("audit-chain")
+                .initialSize(0)
+                .maxSize(1)
+                .build());
+    }
+}
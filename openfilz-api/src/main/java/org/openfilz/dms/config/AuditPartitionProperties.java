@@ -0,0 +1,46 @@
+package org.openfilz.dms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the monthly partitions of audit_logs: their creation ahead of time, and the archival of the
+ * closed ones to storage.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "openfilz.audit.partitions")
+public class AuditPartitionProperties {
+
+    /**
+     * Months for which partitions are created ahead of the current one: entries of a month without partition
+     * cannot be inserted. Default: 3
+     */
+    private int monthsAhead = 3;
+
+    /**
+     * Cron of the maintenance job creating the partitions ahead and archiving the closed ones. Partitions are also
+     * created at startup. Default: daily at 2:30 AM
+     */
+    private String maintenanceCron = "0 30 2 * * ?";
+
+    private Archive archive = new Archive();
+
+    /**
+     * Archival of the closed partitions: their entries are written to a compressed file in storage, with their
+     * hashes, then the partition is detached and dropped.
+     */
+    @Data
+    public static class Archive {
+        /**
+         * Archive the partitions older than retention-months. Default: false
+         */
+        private boolean enabled = false;
+
+        /**
+         * Months kept in the database before the current one. Default: 12
+         */
+        private int retentionMonths = 12;
+    }
+}
@@ -0,0 +1,106 @@
+package org.openfilz.dms.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the asynchronous bulk operations (/jobs endpoints).
+ * Maps to openfilz.jobs.* properties in application.yml
+ */
+@Slf4j
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "openfilz.jobs")
+public class BulkJobProperties {
+
+    /**
+     * Whether bulk jobs can be submitted and are executed by this instance.
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of jobs executed concurrently by this instance.
+     * Default: 2
+     */
+    private int maxConcurrentJobs = 2;
+
+    /**
+     * Number of files of a file job handled per checkpoint, with one call to the document service.
+     * Folders are always handled one by one.
+     * Default: 100
+     */
+    private int batchSize = 100;
+
+    /**
+     * Interval in milliseconds between two polls of the pending jobs.
+     * Default: 5000 (5 seconds)
+     */
+    private long pollInterval = 5000L;
+
+    /**
+     * Interval in milliseconds between two heartbeats of the jobs running on this instance.
+     * Default: 30000 (30 seconds)
+     */
+    private long heartbeatInterval = 30000L;
+
+    /**
+     * A running job whose last heartbeat is older than this is considered abandoned (stopped instance)
+     * and is resumed from its last checkpoint by the next instance polling the jobs.
+     * Default: 2 minutes
+     */
+    private Duration staleTimeout = Duration.ofMinutes(2);
+
+    /**
+     * Maximum number of executions of a job: a job abandoned that many times is failed instead of resumed.
+     * Default: 3
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Time finished jobs (and the ZIP archives of download jobs) are kept before being removed.
+     * Default: 7 days
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Cron expression of the removal of the expired jobs.
+     * Default: every hour
+     */
+    private String cleanupCron = "0 0 * * * ?";
+
+    @PostConstruct
+    public void validate() {
+        if (maxConcurrentJobs <= 0) {
+            throw new IllegalArgumentException(
+                    "openfilz.jobs.max-concurrent-jobs must be > 0. Current value: " + maxConcurrentJobs);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException(
+                    "openfilz.jobs.batch-size must be > 0. Current value: " + batchSize);
+        }
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException(
+                    "openfilz.jobs.max-attempts must be > 0. Current value: " + maxAttempts);
+        }
+        if (staleTimeout == null || staleTimeout.toMillis() <= heartbeatInterval) {
+            throw new IllegalArgumentException(
+                    "openfilz.jobs.stale-timeout must be greater than openfilz.jobs.heartbeat-interval. Current value: " + staleTimeout);
+        }
+        if (retention == null || retention.isNegative() || retention.isZero()) {
+            throw new IllegalArgumentException(
+                    "openfilz.jobs.retention must be > 0. Current value: " + retention);
+        }
+
+        if (enabled) {
+            log.info("Bulk jobs enabled: {} concurrent jobs, batches of {} files", maxConcurrentJobs, batchSize);
+        } else {
+            log.info("Bulk jobs disabled");
+        }
+    }
+}
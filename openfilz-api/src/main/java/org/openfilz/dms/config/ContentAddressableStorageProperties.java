@@ -0,0 +1,58 @@
+package org.openfilz.dms.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for content-addressable storage (deduplication).
+ * Maps to storage.content-addressable.* properties in application.yml
+ */
+@Slf4j
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "storage.content-addressable")
+public class ContentAddressableStorageProperties {
+
+    /**
+     * Whether file content is stored once per SHA-256 and shared between documents.
+     * Applies on top of the configured storage.type (local or minio).
+     * Default: false
+     */
+    private boolean enabled = false;
+
+    /**
+     * Minimum time an unreferenced blob is kept before being garbage-collected.
+     * Covers the window between an upload and the creation of the document referencing it.
+     * Default: 1 hour
+     */
+    private Duration gcGracePeriod = Duration.ofHours(1);
+
+    /**
+     * Maximum number of blobs collected per garbage collection run.
+     * Default: 1000
+     */
+    private int gcBatchSize = 1000;
+
+    @PostConstruct
+    public void validate() {
+        if (gcGracePeriod == null || gcGracePeriod.isNegative() || gcGracePeriod.isZero()) {
+            throw new IllegalArgumentException(
+                    "storage.content-addressable.gc-grace-period must be > 0. Current value: " + gcGracePeriod);
+        }
+        if (gcBatchSize <= 0) {
+            throw new IllegalArgumentException(
+                    "storage.content-addressable.gc-batch-size must be > 0. Current value: " + gcBatchSize);
+        }
+
+        if (enabled) {
+            log.info("Content-addressable storage enabled (blobs under cas/ prefix)");
+            log.info("  GC grace period: {}", gcGracePeriod);
+            log.info("  GC batch size: {}", gcBatchSize);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.openfilz.dms.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.repository.DocumentDAO;
+import org.openfilz.dms.repository.impl.CachingDocumentDAO;
+import org.openfilz.dms.repository.impl.DocumentDAOImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
+
+import static io.r2dbc.spi.ConnectionFactoryOptions.PASSWORD;
+import static io.r2dbc.spi.ConnectionFactoryOptions.USER;
+
+/**
+ * Runtime selection of the document DAO (same native-image-safe pattern as {@link StorageConfig}).
+ * <p>
+ * When {@code openfilz.document-cache.enabled=true}, {@link DocumentDAOImpl} is wrapped in a
+ * {@link CachingDocumentDAO}, which listens to the document changes on its own connection to the database,
+ * outside the R2DBC pool.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "openfilz.features.custom-access", matchIfMissing = true, havingValue = "false")
+public class DocumentCacheConfig {
+
+    @Bean
+    @Primary
+    public DocumentDAO documentDAO(
+            DocumentDAOImpl documentDAOImpl,
+            DocumentCacheProperties cacheProperties,
+            @Value("${spring.r2dbc.url:}") String url,
+            @Value("${spring.r2dbc.username:}") String username,
+            @Value("${spring.r2dbc.password:}") String password,
+            ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        if (!cacheProperties.isEnabled()) {
+            return documentDAOImpl;
+        }
+        log.info("Document lookups: in-memory cache invalidated through LISTEN/NOTIFY");
+        CachingDocumentDAO cachingDAO = new CachingDocumentDAO(documentDAOImpl, cacheProperties);
+        meterRegistryProvider.ifAvailable(cachingDAO::bindMetrics);
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (StringUtils.hasText(username)) {
+            options.option(USER, username);
+        }
+        if (StringUtils.hasText(password)) {
+            options.option(PASSWORD, password);
+        }
+        cachingDAO.listen(ConnectionFactories.get(options.build()));
+        return cachingDAO;
+    }
+}
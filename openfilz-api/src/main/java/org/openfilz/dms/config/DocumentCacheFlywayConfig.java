@@ -0,0 +1,59 @@
+package org.openfilz.dms.config;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Installs the triggers notifying the document changes to the document cache only when it is used.
+ * When openfilz.document-cache.enabled=false (default), or with the custom access DAO which is never cached, they are
+ * removed, so that updates and deletes of documents do not capture their changed rows for no listener.
+ * <p>
+ * Run after every migration run, so that changing the setting takes effect on the next startup.
+ */
+@Configuration
+public class DocumentCacheFlywayConfig {
+
+    static final String SET_NOTIFICATIONS = "SELECT set_document_change_notifications(?)";
+
+    @Bean
+    public Callback documentChangeNotificationsCallback(
+            // Runtime property reads (not bean conditions) — native-image safe
+            @Value("${openfilz.document-cache.enabled:false}") boolean cacheEnabled,
+            @Value("${openfilz.features.custom-access:false}") boolean customAccess) {
+        boolean enabled = cacheEnabled && !customAccess;
+        return new Callback() {
+            @Override
+            public boolean supports(Event event, Context context) {
+                return event == Event.AFTER_MIGRATE;
+            }
+
+            @Override
+            public boolean canHandleInTransaction(Event event, Context context) {
+                return true;
+            }
+
+            @Override
+            public void handle(Event event, Context context) {
+                try (PreparedStatement statement = context.getConnection().prepareStatement(SET_NOTIFICATIONS)) {
+                    statement.setBoolean(1, enabled);
+                    statement.execute();
+                } catch (SQLException e) {
+                    throw new FlywayException("Unable to set the document change notifications", e);
+                }
+            }
+
+            @Override
+            public String getCallbackName() {
+                return "documentChangeNotifications";
+            }
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package org.openfilz.dms.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-memory cache of document lookups.
+ * Maps to openfilz.document-cache.* properties in application.yml
+ */
+@Slf4j
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "openfilz.document-cache")
+public class DocumentCacheProperties {
+
+    /**
+     * Whether documents looked up by id, and their ancestors, are kept in memory. Entries are invalidated by the
+     * writes of this instance and, through PostgreSQL LISTEN/NOTIFY, by the writes of every other one.
+     * Default: false
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of cached documents, and of cached ancestor lists.
+     * Default: 10000
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Maximum time an entry stays cached. Bounds how long a missed notification may leave an entry stale.
+     * Default: 5 minutes
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+    @PostConstruct
+    public void validate() {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException(
+                    "openfilz.document-cache.maximum-size must be > 0. Current value: " + maximumSize);
+        }
+        if (expireAfterWrite == null || expireAfterWrite.isNegative() || expireAfterWrite.isZero()) {
+            throw new IllegalArgumentException(
+                    "openfilz.document-cache.expire-after-write must be > 0. Current value: " + expireAfterWrite);
+        }
+
+        if (enabled) {
+            log.info("Document cache enabled");
+            log.info("  Maximum size: {}", maximumSize);
+            log.info("  Expire after write: {}", expireAfterWrite);
+        }
+    }
+}
@@ -1,24 +1,38 @@
 package org.openfilz.dms.config;
 
 import lombok.Data;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.openfilz.dms.enums.PostProcessingEventType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Configuration properties for OpenFilz full-text search.
+ * Configuration properties for OpenFilz full-text search, with OpenSearch ({@code active=true}) or in PostgreSQL
+ * ({@code active=false} and {@code postgres.active=true}).
  * Maps to openfilz.full-text.* properties in application.yml.
  */
 @Data
 @Lazy
 @Configuration
 @ConfigurationProperties(prefix = "openfilz.full-text")
-@ConditionalOnProperty(name = "openfilz.full-text.active", havingValue = "true")
 public class FullTextProperties {
 
+    /**
+     * PostgreSQL text search configuration of each supported content language.
+     */
+    private static final Map<String, String> TEXT_SEARCH_CONFIGURATIONS = Map.ofEntries(
+            Map.entry("ar", "arabic"), Map.entry("da", "danish"), Map.entry("de", "german"),
+            Map.entry("el", "greek"), Map.entry("en", "english"), Map.entry("es", "spanish"),
+            Map.entry("fi", "finnish"), Map.entry("fr", "french"), Map.entry("hu", "hungarian"),
+            Map.entry("id", "indonesian"), Map.entry("it", "italian"), Map.entry("nl", "dutch"),
+            Map.entry("no", "norwegian"), Map.entry("pt", "portuguese"), Map.entry("ro", "romanian"),
+            Map.entry("ru", "russian"), Map.entry("sv", "swedish"), Map.entry("tr", "turkish"));
+
     /**
      * Stemmer languages used by the content analyzer for full-text search.
      * Each language adds a stemmer filter that normalizes words to their root form,
@@ -39,4 +53,110 @@ public class FullTextProperties {
      * </pre>
      */
     private List<String> contentLanguages = List.of("fr", "en");
+
+    /**
+     * How the post-processing of a document change (indexation, thumbnail, embedding) is run:
+     * <ul>
+     *   <li>{@code local}: started in the application once the transaction is committed, and lost if it fails
+     *   or the instance stops before it completes.</li>
+     *   <li>{@code outbox}: recorded in the post_processing_events table in the transaction of the change, then run
+     *   and retried by the workers of every instance (see {@link #outbox}).</li>
+     * </ul>
+     * Default: local.
+     */
+    private String indexationMode = "local";
+
+    /**
+     * Workers of the outbox indexation mode.
+     */
+    private Outbox outbox = new Outbox();
+
+    /**
+     * Search in PostgreSQL, used when OpenSearch is not active.
+     */
+    private Postgres postgres = new Postgres();
+
+    /**
+     * PostgreSQL text search configurations matching {@link #contentLanguages}, in the same order.
+     * Languages without a PostgreSQL stemmer use the {@code simple} configuration (no stemming).
+     */
+    public List<String> getTextSearchConfigurations() {
+        return contentLanguages.stream()
+                .map(language -> TEXT_SEARCH_CONFIGURATIONS.getOrDefault(language.trim().toLowerCase(), "simple"))
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Search in PostgreSQL configuration: names are matched through a trigram index, and the text extracted from
+     * the files is stored as a tsvector and searched with the configurations of the content languages.
+     */
+    @Data
+    public static class Postgres {
+        /**
+         * Extract the text of the uploaded files and rank search results by name and content.
+         * Requires openfilz.full-text.active=false. Default: false.
+         */
+        private boolean active = false;
+
+        /**
+         * Maximum number of characters of extracted text stored per file: the rest of a longer file is not
+         * searchable. PostgreSQL limits a tsvector to 1 MB. Default: 500000.
+         */
+        private int maxContentLength = 500_000;
+    }
+
+    /**
+     * Workers of the outbox indexation mode: each instance polls the pending events of each type and claims them with
+     * {@code FOR UPDATE SKIP LOCKED}, so that the instances share them. The events of a document are run in order.
+     */
+    @Data
+    public static class Outbox {
+        /**
+         * Delay between two polls of the pending events of a type, when the previous poll found none to claim.
+         * Default: 1s.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * Events of a type run concurrently by an instance, when not set in {@link #concurrency}. Default: 4.
+         */
+        private int defaultConcurrency = 4;
+
+        /**
+         * Events run concurrently by an instance, per event type, e.g. {@code generate-thumbnail: 2} to bound the
+         * memory used by the thumbnail generation.
+         */
+        private Map<PostProcessingEventType, Integer> concurrency = new EnumMap<>(PostProcessingEventType.class);
+
+        /**
+         * Attempts of an event before it is marked as FAILED and left in the table. Default: 8.
+         */
+        private int maxAttempts = 8;
+
+        /**
+         * Delay before the first retry of a failed event, doubled on each attempt. Default: 5s.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(5);
+
+        /**
+         * Maximum delay between two attempts of an event. Default: 30m.
+         */
+        private Duration maxBackoff = Duration.ofMinutes(30);
+
+        /**
+         * How long a claimed event is reserved to the instance running it: an event still claimed after that time
+         * (e.g. the instance stopped) is claimed again. Default: 10m.
+         */
+        private Duration lease = Duration.ofMinutes(10);
+
+        /**
+         * Delay between two refreshes of the depth, lag and failed events metrics. Default: 30s.
+         */
+        private Duration metricsInterval = Duration.ofSeconds(30);
+
+        public int getConcurrency(PostProcessingEventType type) {
+            return Math.max(1, concurrency.getOrDefault(type, defaultConcurrency));
+        }
+    }
 }
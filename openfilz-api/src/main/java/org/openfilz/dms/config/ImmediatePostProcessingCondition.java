@@ -0,0 +1,11 @@
+package org.openfilz.dms.config;
+
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+public class ImmediatePostProcessingCondition extends MetadataPostProcessingCondition {
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        return super.matches(context, metadata) && !OutboxPostProcessingCondition.isOutboxMode(context);
+    }
+}
@@ -0,0 +1,19 @@
+package org.openfilz.dms.config;
+
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * OpenSearch indexation run by this application: started after the commit ({@code local} mode), or by the outbox
+ * workers ({@code outbox} mode).
+ */
+public class LocalIndexationCondition implements Condition {
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        Boolean fullTextActive = context.getEnvironment().getProperty("openfilz.full-text.active", Boolean.class, Boolean.FALSE);
+        String indexationMode = context.getEnvironment().getProperty("openfilz.full-text.indexation-mode", "local");
+
+        return fullTextActive && ("local".equalsIgnoreCase(indexationMode) || OutboxPostProcessingCondition.isOutboxMode(context));
+    }
+}
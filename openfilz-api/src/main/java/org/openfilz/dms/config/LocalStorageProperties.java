@@ -0,0 +1,78 @@
+package org.openfilz.dms.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for local filesystem storage.
+ * Maps to storage.local.* properties in application.yml
+ */
+@Slf4j
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "storage.local")
+public class LocalStorageProperties {
+
+    /**
+     * Maximum number of characters of the UUID that can be used for shard directories.
+     */
+    public static final int MAX_SHARD_CHARS = 8;
+
+    /**
+     * Base directory for local storage.
+     * Default: /tmp/dms-storage
+     */
+    private String basePath = "/tmp/dms-storage";
+
+    /**
+     * Number of shard directory levels between the base directory and the files.
+     * Each level is named after the next {@code shard-width} hex characters of the file UUID,
+     * e.g. with 2 levels of 2 characters: {@code {base-path}/3f/2a/3f2a9c1b-...#report.pdf}.
+     * 0 stores all files directly under the base directory (flat layout).
+     * Default: 2
+     */
+    private int shardLevels = 2;
+
+    /**
+     * Number of hex characters per shard directory level (16^width directories per level).
+     * Default: 2
+     */
+    private int shardWidth = 2;
+
+    /**
+     * Whether files stored in the flat layout are moved to their shard directory in the background.
+     * Files are resolved in both layouts whether or not the migration is enabled.
+     * Default: true
+     */
+    private boolean migrationEnabled = true;
+
+    /**
+     * Maximum number of flat files moved per migration run.
+     * Default: 5000
+     */
+    private int migrationBatchSize = 5000;
+
+    public boolean isSharded() {
+        return shardLevels > 0;
+    }
+
+    @PostConstruct
+    public void validate() {
+        if (shardLevels < 0 || shardWidth <= 0 || shardLevels * shardWidth > MAX_SHARD_CHARS) {
+            throw new IllegalArgumentException(
+                    "storage.local.shard-levels * storage.local.shard-width must be between 0 and " + MAX_SHARD_CHARS
+                            + ". Current values: " + shardLevels + " * " + shardWidth);
+        }
+        if (migrationBatchSize <= 0) {
+            throw new IllegalArgumentException(
+                    "storage.local.migration-batch-size must be > 0. Current value: " + migrationBatchSize);
+        }
+
+        if (isSharded()) {
+            log.info("Local storage layout: {} shard level(s) of {} hex character(s)", shardLevels, shardWidth);
+        }
+    }
+}
@@ -9,7 +9,8 @@ public class MetadataPostProcessingCondition implements Condition {
     public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
         Boolean thumbnailsActive = context.getEnvironment().getProperty("openfilz.thumbnail.active", Boolean.class, Boolean.FALSE);
         Boolean fullTextActive = context.getEnvironment().getProperty("openfilz.full-text.active", Boolean.class, Boolean.FALSE);
+        Boolean postgresSearchActive = context.getEnvironment().getProperty("openfilz.full-text.postgres.active", Boolean.class, Boolean.FALSE);
 
-        return thumbnailsActive || fullTextActive;
+        return thumbnailsActive || fullTextActive || postgresSearchActive;
     }
 }
@@ -1,6 +1,8 @@
 package org.openfilz.dms.config;
 
+import jakarta.annotation.PostConstruct;
 import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -8,6 +10,7 @@ import org.springframework.context.annotation.Configuration;
  * Configuration properties for MinIO/S3 storage.
  * Maps to storage.minio.* properties in application.yml
  */
+@Slf4j
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "storage.minio")
@@ -37,4 +40,31 @@ public class MinioProperties {
      * Bucket Versioning enabled status.
      */
     private boolean versioningEnabled = true;
+
+    /**
+     * Part size in bytes for multipart uploads. S3 requires at least 5 MB, and an object has at most
+     * 10000 parts, which caps the object size at 10000 x part size.
+     * Default: 16MB (16777216 bytes)
+     */
+    private int multipartPartSize = 16 * 1024 * 1024;
+
+    /**
+     * Maximum number of parts of a single upload sent concurrently.
+     * Memory used per upload is bounded by (multipart-max-in-flight + 2) x multipart-part-size.
+     * Default: 4
+     */
+    private int multipartMaxInFlight = 4;
+
+    @PostConstruct
+    public void validate() {
+        if (multipartPartSize < 5 * 1024 * 1024) {
+            throw new IllegalArgumentException(
+                    "storage.minio.multipart-part-size must be >= 5242880 (5MB). Current value: " + multipartPartSize);
+        }
+        if (multipartMaxInFlight <= 0) {
+            throw new IllegalArgumentException(
+                    "storage.minio.multipart-max-in-flight must be > 0. Current value: " + multipartMaxInFlight);
+        }
+        log.debug("MinIO multipart uploads: part size {} bytes, {} parts in flight", multipartPartSize, multipartMaxInFlight);
+    }
 }
@@ -0,0 +1,18 @@
+package org.openfilz.dms.config;
+
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+public class OutboxPostProcessingCondition extends MetadataPostProcessingCondition {
+
+    static final String OUTBOX_MODE = "outbox";
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        return super.matches(context, metadata) && isOutboxMode(context);
+    }
+
+    static boolean isOutboxMode(ConditionContext context) {
+        return OUTBOX_MODE.equalsIgnoreCase(context.getEnvironment().getProperty("openfilz.full-text.indexation-mode", "local"));
+    }
+}
@@ -6,6 +6,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Configuration properties for OpenFilz quota settings.
  * Maps to openfilz.quota.* properties in application.yml
@@ -32,6 +34,20 @@ public class QuotaProperties {
      */
     private Integer user = 0;
 
+    /**
+     * Maximum time the bytes of an upload stay reserved on the user quota when the upload neither
+     * completes nor fails (e.g. the instance handling it stopped). TUS uploads keep their reservation
+     * until they expire.
+     * Default: 1 hour
+     */
+    private Duration reservationTimeout = Duration.ofHours(1);
+
+    /**
+     * Interval in milliseconds between two releases of expired reservations.
+     * Default: 300000 (5 minutes)
+     */
+    private long reservationCleanupInterval = 300000L;
+
     @PostConstruct
     public void validate() {
         if (fileUpload < 0) {
@@ -42,6 +58,10 @@ public class QuotaProperties {
             throw new IllegalArgumentException(
                     "openfilz.quota.user must be >= 0 (0 means no limit, > 0 means max total storage per user in MB). Current value: " + user);
         }
+        if (reservationTimeout == null || reservationTimeout.isNegative() || reservationTimeout.isZero()) {
+            throw new IllegalArgumentException(
+                    "openfilz.quota.reservation-timeout must be > 0. Current value: " + reservationTimeout);
+        }
 
         if (fileUpload == 0) {
             log.info("File upload quota is disabled (no size limit per file)");
@@ -0,0 +1,74 @@
+package org.openfilz.dms.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+
+import static io.r2dbc.spi.ConnectionFactoryOptions.PASSWORD;
+import static io.r2dbc.spi.ConnectionFactoryOptions.USER;
+
+/**
+ * When {@code openfilz.read-replica.enabled=true}, wraps the connection factory configured by Spring Boot from
+ * {@code spring.r2dbc.*} (the primary) in a {@link ReadReplicaConnectionFactory}, with a second pool on the
+ * replica. Everything bound to the connection factory (DatabaseClient, repositories, transactions) goes through
+ * the wrapper, so the primary pool keeps its Spring Boot configuration.
+ */
+@Slf4j
+@Configuration
+public class ReadReplicaConfig {
+
+    private static final String CONNECTION_FACTORY = "connectionFactory";
+
+    @Bean
+    public static BeanPostProcessor readReplicaConnectionFactoryPostProcessor(
+            ObjectProvider<ReadReplicaProperties> replicaPropertiesProvider, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!CONNECTION_FACTORY.equals(beanName) || !(bean instanceof ConnectionFactory primary)
+                        || bean instanceof ReadReplicaConnectionFactory) {
+                    return bean;
+                }
+                ReadReplicaProperties properties = replicaPropertiesProvider.getObject();
+                if (!properties.isEnabled()) {
+                    return bean;
+                }
+                log.info("Read-only queries routed to the replica {}", properties.getUrl());
+                return new ReadReplicaConnectionFactory(primary, createReplicaPool(properties, environment));
+            }
+        };
+    }
+
+    private static ConnectionPool createReplicaPool(ReadReplicaProperties properties, Environment environment) {
+        String username = StringUtils.hasText(properties.getUsername())
+                ? properties.getUsername() : environment.getProperty("spring.r2dbc.username");
+        String password = StringUtils.hasText(properties.getPassword())
+                ? properties.getPassword() : environment.getProperty("spring.r2dbc.password");
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate()
+                // Guards against writes when the URL does not point to a standby
+                .option(PostgresqlConnectionFactoryProvider.OPTIONS, Map.of("default_transaction_read_only", "on"));
+        if (StringUtils.hasText(username)) {
+            options.option(USER, username);
+        }
+        if (StringUtils.hasText(password)) {
+            options.option(PASSWORD, password);
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("replica")
+                .initialSize(properties.getInitialSize())
+                .maxSize(properties.getMaxSize())
+                .build());
+    }
+}
@@ -0,0 +1,94 @@
+package org.openfilz.dms.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import org.openfilz.dms.repository.ReadReplica;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Connection factory of the application when a read replica is configured: connections are taken from the replica
+ * pool for the queries marked {@link ReadReplica#readOnly}, and from the primary pool otherwise.
+ * <p>
+ * Transactions are bound to this factory, so the queries run within a transaction keep using its connection
+ * whatever their marking. The replica is skipped while it lags too much behind the primary (see
+ * {@link org.openfilz.dms.scheduler.ReplicaLagScheduler}). Unwraps to the primary pool, for its metrics.
+ */
+public class ReadReplicaConnectionFactory extends AbstractRoutingConnectionFactory implements Wrapped<ConnectionFactory>, Disposable, AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private static final String SELECT_LAG = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END::float8 AS lag""";
+
+    private final ConnectionFactory primary;
+    private final ConnectionFactory replica;
+    private final DatabaseClient replicaClient;
+    private volatile boolean replicaAvailable = true;
+
+    public ReadReplicaConnectionFactory(ConnectionFactory primary, ConnectionFactory replica) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaClient = DatabaseClient.create(replica);
+        setTargetConnectionFactories(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetConnectionFactory(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context ->
+                Mono.just(replicaAvailable && ReadReplica.isReplicaAllowed(context) ? REPLICA : PRIMARY));
+    }
+
+    /**
+     * Time since the last transaction replayed by the replica, in seconds: 0 when it has replayed everything it
+     * received, or when it is not a standby.
+     */
+    public Mono<Double> measureReplicaLag() {
+        return replicaClient.sql(SELECT_LAG)
+                .map(row -> row.get("lag", Double.class))
+                .one();
+    }
+
+    public void setReplicaAvailable(boolean replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    @Override
+    public void dispose() {
+        if (replica instanceof Disposable pool) {
+            pool.dispose();
+        }
+        if (primary instanceof Disposable pool) {
+            pool.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return replica instanceof Disposable pool && pool.isDisposed();
+    }
+
+    @Override
+    public void close() {
+        dispose();
+    }
+}
@@ -0,0 +1,93 @@
+package org.openfilz.dms.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the PostgreSQL read replica serving the query-only traffic.
+ * Maps to openfilz.read-replica.* properties in application.yml
+ */
+@Slf4j
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "openfilz.read-replica")
+public class ReadReplicaProperties {
+
+    /**
+     * Whether the read-only queries (GraphQL listings and counts, search suggestions, dashboard statistics, audit
+     * searches, ancestors and positions) are sent to the replica instead of the primary.
+     * Default: false
+     */
+    private boolean enabled = false;
+
+    /**
+     * R2DBC URL of the replica, e.g. r2dbc:postgresql://replica:5432/dms_db
+     */
+    private String url;
+
+    /**
+     * Username on the replica. Default: spring.r2dbc.username
+     */
+    private String username;
+
+    /**
+     * Password on the replica. Default: spring.r2dbc.password
+     */
+    private String password;
+
+    /**
+     * Initial number of connections of the replica pool.
+     * Default: 2
+     */
+    private int initialSize = 2;
+
+    /**
+     * Maximum number of connections of the replica pool.
+     * Default: 10
+     */
+    private int maxSize = 10;
+
+    /**
+     * Read-only queries fall back to the primary while the replica lags behind it by more than this.
+     * Default: 30 seconds
+     */
+    private Duration maxLag = Duration.ofSeconds(30);
+
+    /**
+     * Interval in milliseconds between two measures of the replica lag.
+     * Default: 10000 (10 seconds)
+     */
+    private long lagCheckInterval = 10000;
+
+    @PostConstruct
+    public void validate() {
+        if (!enabled) {
+            return;
+        }
+        if (!StringUtils.hasText(url)) {
+            throw new IllegalArgumentException("openfilz.read-replica.url is required when openfilz.read-replica.enabled=true");
+        }
+        if (initialSize < 0 || maxSize <= 0 || initialSize > maxSize) {
+            throw new IllegalArgumentException(
+                    "openfilz.read-replica.max-size must be > 0 and >= initial-size. Current values: " + initialSize + ", " + maxSize);
+        }
+        if (maxLag == null || maxLag.isNegative()) {
+            throw new IllegalArgumentException(
+                    "openfilz.read-replica.max-lag must be >= 0. Current value: " + maxLag);
+        }
+        if (lagCheckInterval <= 0) {
+            throw new IllegalArgumentException(
+                    "openfilz.read-replica.lag-check-interval must be > 0. Current value: " + lagCheckInterval);
+        }
+
+        log.info("Read replica enabled: {}", url);
+        log.info("  Pool size: {} to {}", initialSize, maxSize);
+        log.info("  Max lag: {}", maxLag);
+    }
+}
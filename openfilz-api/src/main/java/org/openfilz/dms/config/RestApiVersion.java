@@ -20,4 +20,5 @@ public interface RestApiVersion {
     String ENDPOINT_THUMBNAILS = "/thumbnails";
     String ENDPOINT_TUS = "/tus";
     String ENDPOINT_AI = "/ai";
+    String ENDPOINT_JOBS = "/jobs";
 }
@@ -0,0 +1,75 @@
+package org.openfilz.dms.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the local disk read cache in front of MinIO.
+ * Maps to storage.cache.* properties in application.yml
+ */
+@Slf4j
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "storage.cache")
+public class StorageCacheProperties {
+
+    /**
+     * Whether objects read from MinIO are kept on local disk and served from there on later reads.
+     * Only applies when storage.type=minio.
+     * Default: false
+     */
+    private boolean enabled = false;
+
+    /**
+     * Local directory holding the cached objects. Its content is cleared at startup.
+     * Default: /tmp/openfilz-cache
+     */
+    private String path = "/tmp/openfilz-cache";
+
+    /**
+     * Maximum total size of the cached objects, in bytes. The least valuable objects are evicted beyond it.
+     * Default: 10 GiB
+     */
+    private long maxSize = 10L * 1024 * 1024 * 1024;
+
+    /**
+     * Objects larger than this, in bytes, are always streamed from MinIO and never cached.
+     * Default: 256 MiB
+     */
+    private long maxObjectSize = 256L * 1024 * 1024;
+
+    /**
+     * Maximum time an object stays cached. Bounds how long an instance may serve content
+     * replaced through another instance.
+     * Default: 1 hour
+     */
+    private Duration expireAfterWrite = Duration.ofHours(1);
+
+    @PostConstruct
+    public void validate() {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(
+                    "storage.cache.max-size must be > 0. Current value: " + maxSize);
+        }
+        if (maxObjectSize <= 0 || maxObjectSize > maxSize) {
+            throw new IllegalArgumentException(
+                    "storage.cache.max-object-size must be > 0 and <= storage.cache.max-size. Current value: " + maxObjectSize);
+        }
+        if (expireAfterWrite == null || expireAfterWrite.isNegative() || expireAfterWrite.isZero()) {
+            throw new IllegalArgumentException(
+                    "storage.cache.expire-after-write must be > 0. Current value: " + expireAfterWrite);
+        }
+
+        if (enabled) {
+            log.info("Storage read cache enabled in {}", path);
+            log.info("  Max size: {} bytes", maxSize);
+            log.info("  Max object size: {} bytes", maxObjectSize);
+            log.info("  Expire after write: {}", expireAfterWrite);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package org.openfilz.dms.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.repository.ContentBlobDAO;
 import org.openfilz.dms.service.StorageService;
 import org.openfilz.dms.service.ThumbnailStorageService;
 import org.openfilz.dms.service.ChecksumService;
+import org.openfilz.dms.service.impl.CachingStorageService;
+import org.openfilz.dms.service.impl.ContentAddressableStorageService;
 import org.openfilz.dms.service.impl.FileSystemStorageService;
 import org.openfilz.dms.service.impl.MinioStorageService;
 import org.openfilz.dms.service.impl.FileSystemThumbnailStorageService;
@@ -15,6 +19,7 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
 /**
  * Runtime storage backend selection.
@@ -23,6 +28,9 @@ import org.springframework.context.annotation.Primary;
  * so they are included in the native image but not eagerly initialized.
  * This configuration selects the active implementation at runtime based on {@code storage.type}.
  * The unused implementation is never initialized thanks to {@code @Lazy}.
+ * When {@code storage.cache.enabled=true}, the MinIO backend is wrapped in a {@link CachingStorageService}.
+ * When {@code storage.content-addressable.enabled=true}, the selected backend is wrapped in a
+ * {@link ContentAddressableStorageService}.
  */
 @Slf4j
 @Configuration
@@ -33,13 +41,32 @@ public class StorageConfig {
     public StorageService storageService(
             @Value("${storage.type:local}") String storageType,
             ObjectProvider<FileSystemStorageService> localProvider,
-            ObjectProvider<MinioStorageService> minioProvider) {
+            ObjectProvider<MinioStorageService> minioProvider,
+            ContentAddressableStorageProperties contentAddressableProperties,
+            ObjectProvider<ContentBlobDAO> contentBlobDAOProvider,
+            ObjectProvider<TransactionalOperator> txProvider,
+            StorageCacheProperties cacheProperties,
+            ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        StorageService backend;
         if ("minio".equals(storageType)) {
             log.info("Storage backend: MinIO");
-            return minioProvider.getIfAvailable();
+            backend = minioProvider.getIfAvailable();
+            if (cacheProperties.isEnabled()) {
+                log.info("Storage read cache: local disk ({})", cacheProperties.getPath());
+                CachingStorageService cachingStorage = new CachingStorageService(backend, cacheProperties);
+                meterRegistryProvider.ifAvailable(cachingStorage::bindMetrics);
+                backend = cachingStorage;
+            }
+        } else {
+            log.info("Storage backend: local filesystem");
+            backend = localProvider.getIfAvailable();
+        }
+        if (contentAddressableProperties.isEnabled()) {
+            log.info("Storage mode: content-addressable (deduplicated blobs)");
+            return new ContentAddressableStorageService(backend, contentBlobDAOProvider.getObject(),
+                    txProvider.getObject(), contentAddressableProperties);
         }
-        log.info("Storage backend: local filesystem");
-        return localProvider.getIfAvailable();
+        return backend;
     }
 
     @Bean
@@ -47,6 +47,12 @@ public class TusProperties {
      */
     private long cleanupInterval = 3600000L;
 
+    /**
+     * Maximum number of expired uploads removed by a single cleanup sweep; the rest is left to the next sweep.
+     * Default: 1000
+     */
+    private int cleanupBatchSize = 1000;
+
     @PostConstruct
     public void validate() {
         if (maxUploadSize <= 0) {
@@ -61,6 +67,10 @@ public class TusProperties {
             throw new IllegalArgumentException(
                     "openfilz.tus.upload-expiration-period must be > 0. Current value: " + uploadExpirationPeriod);
         }
+        if (cleanupBatchSize <= 0) {
+            throw new IllegalArgumentException(
+                    "openfilz.tus.cleanup-batch-size must be > 0. Current value: " + cleanupBatchSize);
+        }
 
         if (enabled) {
             log.info("TUS resumable uploads enabled (using StorageService with _tus/ prefix)");
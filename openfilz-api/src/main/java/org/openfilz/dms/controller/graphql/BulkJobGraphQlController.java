@@ -0,0 +1,33 @@
+package org.openfilz.dms.controller.graphql;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import org.openfilz.dms.dto.response.BulkJobInfo;
+import org.openfilz.dms.enums.BulkJobStatus;
+import org.openfilz.dms.service.BulkJobService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Controller
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "openfilz.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkJobGraphQlController {
+
+    private final BulkJobService bulkJobService;
+
+    @QueryMapping
+    public Mono<BulkJobInfo> bulkJob(@Argument @NotNull UUID id) {
+        return bulkJobService.getJob(id);
+    }
+
+    @QueryMapping
+    public Flux<BulkJobInfo> bulkJobs(@Argument BulkJobStatus status, @Argument int limit) {
+        return bulkJobService.listJobs(status, Math.clamp(limit, 1, 1000));
+    }
+}
@@ -13,6 +13,7 @@ import org.openfilz.dms.dto.request.SearchByAuditLogRequest;
 import org.openfilz.dms.enums.SortOrder;
 import org.openfilz.dms.service.AuditService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -30,16 +31,22 @@ import static org.openfilz.dms.config.RestApiVersion.ENDPOINT_AUDIT;
 public class AuditController {
     private final AuditService auditService;
 
-    @GetMapping("/{id}")
-    @Operation(summary = "Get audit trail for a resource", description = "Retrieves the audit trail for a given resource.")
+    @GetMapping(value = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Get audit trail for a resource", description = "Retrieves the audit trail for a given resource. " +
+            "With a page size, returns one page of entries, each with the cursor to request the next ones. " +
+            "Accepting application/x-ndjson streams the entries one per line as they are read.")
     public Flux<AuditLog> getAuditTrail(
             @Parameter(description = "ID of the resource to get the audit trail for") @PathVariable("id") UUID resourceId,
-            @Parameter(description = "Sort order for the audit trail. Can be 'ASC' or 'DESC'. Default is 'DESC'") @RequestParam(required = false) SortOrder sort) {
-        return auditService.getAuditTrail(resourceId, sort);
+            @Parameter(description = "Sort order for the audit trail. Can be 'ASC' or 'DESC'. Default is 'DESC'") @RequestParam(required = false) SortOrder sort,
+            @Parameter(description = "Maximum number of entries returned - if not provided : all the entries are returned") @RequestParam(required = false) Integer pageSize,
+            @Parameter(description = "Cursor of the last entry already received, to get the entries after it") @RequestParam(required = false) String after) {
+        return auditService.getAuditTrail(resourceId, sort, pageSize, after);
     }
 
-    @PostMapping("/search")
-    @Operation(summary = "Search for audit trails", description = "Retrieves the audit trail according to the search parameters")
+    @PostMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Search for audit trails", description = "Retrieves the audit trail according to the search parameters. " +
+            "With a page size, returns one page of entries, each with the cursor to request the next ones. " +
+            "Accepting application/x-ndjson streams the entries one per line as they are read, for exports.")
     public Flux<AuditLog> searchAuditTrail(
             @Valid @org.springframework.web.bind.annotation.RequestBody SearchByAuditLogRequest request) {
         return auditService.searchAuditTrail(request);
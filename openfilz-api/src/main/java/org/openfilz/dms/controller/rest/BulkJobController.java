@@ -0,0 +1,128 @@
+package org.openfilz.dms.controller.rest;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.openfilz.dms.config.RestApiVersion;
+import org.openfilz.dms.dto.request.CopyRequest;
+import org.openfilz.dms.dto.request.DeleteRequest;
+import org.openfilz.dms.dto.request.MoveRequest;
+import org.openfilz.dms.dto.response.BulkJobInfo;
+import org.openfilz.dms.enums.BulkJobStatus;
+import org.openfilz.dms.enums.BulkJobType;
+import org.openfilz.dms.service.BulkJobService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+import static org.openfilz.dms.controller.rest.DocumentController.ATTACHMENT_ZIP;
+
+@RestController
+@RequestMapping(RestApiVersion.API_PREFIX + RestApiVersion.ENDPOINT_JOBS)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "openfilz.jobs.enabled", havingValue = "true", matchIfMissing = true)
+@SecurityRequirement(name = "keycloak_auth")
+@Tag(name = "Bulk Jobs", description = "Asynchronous copy, move, delete and ZIP download of large sets of documents")
+public class BulkJobController {
+
+    private final BulkJobService bulkJobService;
+
+    @PostMapping("/folders/copy")
+    @Operation(summary = "Copy folders asynchronously", description = "Submits a job copying a set of folders (and their contents) into an existing target folder.")
+    public Mono<ResponseEntity<BulkJobInfo>> copyFolders(@Valid @RequestBody CopyRequest request) {
+        return accepted(bulkJobService.submit(BulkJobType.COPY_FOLDERS, request.documentIds(), request.targetFolderId(), request.allowDuplicateFileNames()));
+    }
+
+    @PostMapping("/folders/move")
+    @Operation(summary = "Move folders asynchronously", description = "Submits a job moving a set of folders (and their contents) into an existing target folder.")
+    public Mono<ResponseEntity<BulkJobInfo>> moveFolders(@Valid @RequestBody MoveRequest request) {
+        return accepted(bulkJobService.submit(BulkJobType.MOVE_FOLDERS, request.documentIds(), request.targetFolderId(), request.allowDuplicateFileNames()));
+    }
+
+    @PostMapping("/folders/delete")
+    @Operation(summary = "Delete folders asynchronously", description = "Submits a job deleting a set of folders and their contents.")
+    public Mono<ResponseEntity<BulkJobInfo>> deleteFolders(@Valid @RequestBody DeleteRequest request) {
+        return accepted(bulkJobService.submit(BulkJobType.DELETE_FOLDERS, request.documentIds(), null, null));
+    }
+
+    @PostMapping("/files/copy")
+    @Operation(summary = "Copy files asynchronously", description = "Submits a job copying a set of files into an existing target folder.")
+    public Mono<ResponseEntity<BulkJobInfo>> copyFiles(@Valid @RequestBody CopyRequest request) {
+        return accepted(bulkJobService.submit(BulkJobType.COPY_FILES, request.documentIds(), request.targetFolderId(), request.allowDuplicateFileNames()));
+    }
+
+    @PostMapping("/files/move")
+    @Operation(summary = "Move files asynchronously", description = "Submits a job moving a set of files into an existing target folder.")
+    public Mono<ResponseEntity<BulkJobInfo>> moveFiles(@Valid @RequestBody MoveRequest request) {
+        return accepted(bulkJobService.submit(BulkJobType.MOVE_FILES, request.documentIds(), request.targetFolderId(), request.allowDuplicateFileNames()));
+    }
+
+    @PostMapping("/files/delete")
+    @Operation(summary = "Delete files asynchronously", description = "Submits a job deleting a set of files.")
+    public Mono<ResponseEntity<BulkJobInfo>> deleteFiles(@Valid @RequestBody DeleteRequest request) {
+        return accepted(bulkJobService.submit(BulkJobType.DELETE_FILES, request.documentIds(), null, null));
+    }
+
+    @PostMapping("/documents/download-multiple")
+    @Operation(summary = "Build a ZIP archive of multiple documents asynchronously",
+            description = "Submits a job building the ZIP archive of a set of documents (folders with their whole content), " +
+                    "downloadable from /jobs/{jobId}/archive once the job is completed.")
+    public Mono<ResponseEntity<BulkJobInfo>> downloadMultipleDocumentsAsZip(@RequestBody List<UUID> documentIds) {
+        return accepted(bulkJobService.submit(BulkJobType.DOWNLOAD_ZIP, documentIds, null, null));
+    }
+
+    @GetMapping
+    @Operation(summary = "List jobs", description = "Lists the jobs submitted by the connected user, most recent first.")
+    public Flux<BulkJobInfo> listJobs(
+            @RequestParam(required = false) @Parameter(description = "Only the jobs with this status") BulkJobStatus status,
+            @RequestParam(required = false, defaultValue = "20") @Parameter(description = "Maximum number of jobs") int limit) {
+        return bulkJobService.listJobs(status, Math.clamp(limit, 1, 1000));
+    }
+
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get a job", description = "Retrieves the status, progress and results of a job submitted by the connected user.")
+    public Mono<ResponseEntity<BulkJobInfo>> getJob(@PathVariable UUID jobId) {
+        return bulkJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    @Operation(summary = "Cancel a job", description = "Cancels a pending or running job: a running job stops before its next documents, " +
+            "the documents already handled are not restored.")
+    public Mono<ResponseEntity<BulkJobInfo>> cancelJob(@PathVariable UUID jobId) {
+        return bulkJobService.cancelJob(jobId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{jobId}/archive")
+    @Operation(summary = "Download the ZIP archive of a job", description = "Downloads the ZIP archive built by a completed download job.")
+    public Mono<ResponseEntity<Resource>> downloadArchive(@PathVariable UUID jobId) {
+        return bulkJobService.loadArchive(jobId)
+                .<ResponseEntity<Resource>>map(resource -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ATTACHMENT_ZIP)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .body(resource))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private Mono<ResponseEntity<BulkJobInfo>> accepted(Mono<BulkJobInfo> job) {
+        return job.map(info -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create(RestApiVersion.API_PREFIX + RestApiVersion.ENDPOINT_JOBS + "/" + info.id()))
+                .body(info));
+    }
+}
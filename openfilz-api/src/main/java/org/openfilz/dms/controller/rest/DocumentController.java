@@ -19,15 +19,19 @@ import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.service.DocumentService;
 import org.openfilz.dms.service.DocumentVersionService;
 import org.openfilz.dms.service.OnlyOfficeJwtService;
+import org.openfilz.dms.utils.ByteRangeResponseWriter;
 import org.openfilz.dms.utils.ContentInfo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -39,6 +43,7 @@ import java.util.stream.Collectors;
 
 import static org.openfilz.dms.controller.rest.ApiDescription.ALLOW_DUPLICATE_FILE_NAME_PARAM_DESCRIPTION;
 import static org.openfilz.dms.enums.DocumentType.FILE;
+import static org.openfilz.dms.utils.ByteRangeResponseWriter.ATTACHMENT;
 import static org.openfilz.dms.exception.OpenFilzException.*;
 
 @Slf4j
@@ -253,11 +258,16 @@ public class DocumentController {
     }
 
     @GetMapping("/{documentId}/download")
-    @Operation(summary = "Download a document", description = "Downloads a single file document.")
-    public Mono<ResponseEntity<Resource>> downloadDocument(@PathVariable UUID documentId) {
+    @Operation(summary = "Download a document",
+            description = "Downloads a single file document, or a folder as a ZIP archive. File downloads support HTTP Range requests " +
+                    "(single and multiple ranges, answered with 206 Partial Content) and If-Range validation.")
+    public Mono<Void> downloadDocument(@PathVariable UUID documentId, @Parameter(hidden = true) ServerWebExchange exchange) {
         return documentService.findDocumentToDownloadById(documentId) // First get metadata like name
-                .flatMap(docInfo -> documentService.downloadDocument(docInfo)
-                        .map(resource -> sendDownloadResponse(docInfo, resource))
+                .flatMap(docInfo -> docInfo.getType() == FILE
+                        ? documentService.openDocumentContent(docInfo)
+                                .flatMap(content -> ByteRangeResponseWriter.write(exchange, content, ATTACHMENT,
+                                        documentService.auditDownload(docInfo)))
+                        : writeFolderArchive(exchange, docInfo, documentService.downloadFolderAsZip(docInfo))
                 );
     }
 
@@ -310,11 +320,11 @@ public class DocumentController {
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
-    private ResponseEntity<Resource> sendDownloadResponse(Document document, Resource resource) {
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + document.getName() + (document.getType() == FILE ? "" : ZIP) + "\"")
-                .contentType(document.getType() == FILE && document.getContentType() != null ? MediaType.parseMediaType(document.getContentType()) : MediaType.APPLICATION_OCTET_STREAM)
-                .body(resource);
+    private Mono<Void> writeFolderArchive(ServerWebExchange exchange, Document folder, Flux<DataBuffer> archive) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set(HttpHeaders.CONTENT_DISPOSITION, ATTACHMENT + "; filename=\"" + folder.getName() + ZIP + "\"");
+        response.getHeaders().setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        return response.writeWith(archive);
     }
 
     private ResponseEntity<Resource> sendOnlyOfficeDownloadResponse(Document document, Resource resource) {
@@ -326,14 +336,13 @@ public class DocumentController {
     }
 
     @PostMapping("/download-multiple")
-    @Operation(summary = "Download multiple documents as ZIP", description = "Downloads multiple documents as a single ZIP file.")
-    public Mono<ResponseEntity<Resource>> downloadMultipleDocumentsAsZip(
+    @Operation(summary = "Download multiple documents as ZIP", description = "Downloads multiple documents as a single ZIP file, streamed as it is built.")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> downloadMultipleDocumentsAsZip(
             @org.springframework.web.bind.annotation.RequestBody List<UUID> documentIds) {
-        return documentService.downloadMultipleDocumentsAsZip(documentIds)
-                .map(resource -> ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, ATTACHMENT_ZIP)
-                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                        .body(resource));
+        return Mono.just(ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ATTACHMENT_ZIP)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(documentService.downloadMultipleDocumentsAsZip(documentIds)));
     }
 
     @PostMapping("/search/ids-by-metadata")
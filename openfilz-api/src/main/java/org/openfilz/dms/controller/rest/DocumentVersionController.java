@@ -1,6 +1,7 @@
 package org.openfilz.dms.controller.rest;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,15 +9,14 @@ import org.openfilz.dms.config.RestApiVersion;
 import org.openfilz.dms.dto.response.DocumentVersionInfo;
 import org.openfilz.dms.dto.response.RestoreVersionResponse;
 import org.openfilz.dms.service.DocumentVersionService;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.openfilz.dms.utils.ByteRangeResponseWriter;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -44,13 +44,12 @@ public class DocumentVersionController {
 
     @GetMapping("/{documentId}/versions/{versionId}/download")
     @Operation(summary = "Download a specific document version",
-            description = "Downloads the content of a specific stored version of a file document.")
-    public Mono<ResponseEntity<Resource>> downloadVersion(@PathVariable UUID documentId, @PathVariable String versionId) {
-        return documentVersionService.downloadVersion(documentId, versionId)
-                .map(version -> ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + version.fileName() + "\"")
-                        .contentType(version.contentType() != null ? MediaType.parseMediaType(version.contentType()) : MediaType.APPLICATION_OCTET_STREAM)
-                        .body(version.resource()));
+            description = "Downloads the content of a specific stored version of a file document. Supports HTTP Range requests " +
+                    "(single and multiple ranges, answered with 206 Partial Content) and If-Range validation.")
+    public Mono<Void> downloadVersion(@PathVariable UUID documentId, @PathVariable String versionId,
+                                      @Parameter(hidden = true) ServerWebExchange exchange) {
+        return documentVersionService.openVersionContent(documentId, versionId)
+                .flatMap(content -> ByteRangeResponseWriter.write(exchange, content, ByteRangeResponseWriter.ATTACHMENT));
     }
 
     @PostMapping("/{documentId}/versions/{versionId}/restore")
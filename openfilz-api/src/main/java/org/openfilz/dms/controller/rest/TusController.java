@@ -14,9 +14,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.openfilz.dms.config.CommonProperties;
 import org.openfilz.dms.config.RestApiVersion;
 import org.openfilz.dms.config.TusProperties;
+import org.openfilz.dms.dto.TusUploadMetadata;
 import org.openfilz.dms.dto.request.TusFinalizeRequest;
 import org.openfilz.dms.dto.response.TusUploadInfo;
 import org.openfilz.dms.dto.response.UploadResponse;
+import org.openfilz.dms.exception.FileSizeExceededException;
+import org.openfilz.dms.exception.OperationForbiddenException;
 import org.openfilz.dms.service.TusUploadService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -29,6 +32,8 @@ import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -40,6 +45,11 @@ import java.util.UUID;
  *
  * Protocol reference: https://tus.io/protocols/resumable-upload.html
  *
+ * The concatenation extension lets a client upload the parts of a file in parallel, over separate
+ * connections: each part is a partial upload (Upload-Concat: partial), then a final upload
+ * (Upload-Concat: final;{url1} {url2} ...) assembles the complete partial uploads in storage.
+ * The final upload is complete on creation and is finalized like any other upload.
+ *
  * This implementation is fully reactive and works with WebFlux/Netty.
  *
  * Endpoints:
@@ -59,7 +69,8 @@ import java.util.UUID;
 public class TusController {
 
     private static final String TUS_VERSION = "1.0.0";
-    private static final String TUS_EXTENSION = "creation,termination";
+    private static final String TUS_EXTENSION = "creation,termination,concatenation";
+    private static final String CONCAT_FINAL_PREFIX = TusUploadMetadata.CONCAT_FINAL + ";";
 
     private final TusUploadService tusUploadService;
     private final TusProperties tusProperties;
@@ -85,7 +96,7 @@ public class TusController {
                     headers = {
                             @Header(name = "Tus-Resumable", description = "TUS protocol version", schema = @Schema(type = "string", example = "1.0.0")),
                             @Header(name = "Tus-Version", description = "Supported TUS versions", schema = @Schema(type = "string", example = "1.0.0")),
-                            @Header(name = "Tus-Extension", description = "Supported TUS extensions", schema = @Schema(type = "string", example = "creation,termination")),
+                            @Header(name = "Tus-Extension", description = "Supported TUS extensions", schema = @Schema(type = "string", example = "creation,termination,concatenation")),
                             @Header(name = "Tus-Max-Size", description = "Maximum upload size in bytes", schema = @Schema(type = "integer"))
                     })
     })
@@ -102,12 +113,16 @@ public class TusController {
      * Create a new TUS upload.
      * The client must specify Upload-Length header with the total file size.
      * Upload-Metadata header should contain: filename, parentFolderId (optional), allowDuplicateFileNames (optional)
+     * With an Upload-Concat header, creates a partial upload, or a final upload concatenating partial uploads.
      */
     @PostMapping
     @Operation(summary = "Create new TUS upload",
             description = "Creates a new TUS upload session. Client must provide Upload-Length header. " +
                     "Upload-Metadata header should contain base64-encoded values for: filename (required), " +
-                    "parentFolderId (optional), allowDuplicateFileNames (optional, default false).")
+                    "parentFolderId (optional), allowDuplicateFileNames (optional, default false). " +
+                    "Concatenation extension: 'Upload-Concat: partial' creates a partial upload (filename not required), " +
+                    "'Upload-Concat: final;{url1} {url2}' creates a complete upload from complete partial uploads " +
+                    "(no Upload-Length).")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Upload created",
                     headers = {
@@ -118,13 +133,23 @@ public class TusController {
             @ApiResponse(responseCode = "507", description = "User storage quota exceeded"),
             @ApiResponse(responseCode = "404", description = "Parent folder not found"),
             @ApiResponse(responseCode = "409", description = "Duplicate filename in target folder"),
-            @ApiResponse(responseCode = "400", description = "Missing required headers or filename")
+            @ApiResponse(responseCode = "400", description = "Missing required headers or filename, or partial uploads not complete")
     })
     public Mono<ResponseEntity<Void>> createUpload(
-            @RequestHeader("Upload-Length") Long uploadLength,
+            @RequestHeader(value = "Upload-Length", required = false) Long uploadLength,
             @RequestHeader(value = "Upload-Metadata", required = false) String metadata,
+            @RequestHeader(value = "Upload-Concat", required = false) String concat,
             ServerHttpRequest request) {
 
+        if (concat != null && concat.startsWith(CONCAT_FINAL_PREFIX)) {
+            return createFinalUpload(concat, metadata);
+        }
+        if (uploadLength == null || concat != null && !TusUploadMetadata.CONCAT_PARTIAL.equals(concat)) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .header("Tus-Resumable", TUS_VERSION)
+                    .build());
+        }
+
         log.debug("TUS POST - Creating new upload with length: {}", uploadLength);
 
         // Validate upload length against TUS max size
@@ -134,6 +159,11 @@ public class TusController {
                     .build());
         }
 
+        // A partial upload is only a part of a file: the file is validated when the final upload is created
+        if (concat != null) {
+            return toCreatedResponse(tusUploadService.createPartialUpload(uploadLength, metadata), true);
+        }
+
         // Extract metadata values
         TusMetadataValues metadataValues = parseMetadataHeader(metadata);
 
@@ -146,19 +176,60 @@ public class TusController {
         }
 
         // Validate all preconditions before creating the upload
-        return tusUploadService.validateUploadCreation(
+        return toCreatedResponse(tusUploadService.validateUploadCreation(
                         uploadLength,
                         metadataValues.filename,
                         metadataValues.parentFolderId,
                         metadataValues.allowDuplicateFileNames)
-                .then(tusUploadService.createUpload(uploadLength, metadata))
+                .then(tusUploadService.createUpload(uploadLength, metadata)), true);
+    }
+
+    /**
+     * Create a final upload (concatenation extension) from the partial uploads listed in the Upload-Concat header.
+     * The concatenated file is validated like the file of a regular upload.
+     */
+    private Mono<ResponseEntity<Void>> createFinalUpload(String concat, String metadata) {
+        List<String> partialUploadIds = Arrays.stream(concat.substring(CONCAT_FINAL_PREFIX.length()).trim().split("\\s+"))
+                .filter(url -> !url.isBlank())
+                .map(url -> url.substring(url.lastIndexOf('/') + 1))
+                .toList();
+        TusMetadataValues metadataValues = parseMetadataHeader(metadata);
+
+        log.debug("TUS POST - Creating final upload from partial uploads: {}", partialUploadIds);
+
+        if (partialUploadIds.isEmpty() || metadataValues.filename == null || metadataValues.filename.isBlank()) {
+            log.warn("TUS final upload creation rejected: partial uploads and filename are required");
+            return Mono.just(ResponseEntity.badRequest()
+                    .header("Tus-Resumable", TUS_VERSION)
+                    .build());
+        }
+
+        return toCreatedResponse(tusUploadService.getConcatenatedLength(partialUploadIds)
+                .flatMap(uploadLength -> uploadLength > tusProperties.getMaxUploadSize()
+                        ? Mono.error(new FileSizeExceededException(metadataValues.filename, uploadLength, tusProperties.getMaxUploadSize()))
+                        : tusUploadService.validateUploadCreation(
+                                uploadLength,
+                                metadataValues.filename,
+                                metadataValues.parentFolderId,
+                                metadataValues.allowDuplicateFileNames))
+                .then(tusUploadService.concatenateUploads(partialUploadIds, concat, metadata)), false);
+    }
+
+    /**
+     * 201 response with the location of the created upload; the final upload of a concatenation is already complete,
+     * so no Upload-Offset is returned for it.
+     */
+    private Mono<ResponseEntity<Void>> toCreatedResponse(Mono<String> upload, boolean empty) {
+        return upload
                 .map(uploadId -> {
                     String location = baseUrl + "/" + uploadId;
                     log.info("TUS upload created: {} -> {}", uploadId, location);
-                    return ResponseEntity.created(URI.create(location))
-                            .header("Tus-Resumable", TUS_VERSION)
-                            .header("Upload-Offset", "0")
-                            .<Void>build();
+                    ResponseEntity.BodyBuilder response = ResponseEntity.created(URI.create(location))
+                            .header("Tus-Resumable", TUS_VERSION);
+                    if (empty) {
+                        response.header("Upload-Offset", "0");
+                    }
+                    return response.<Void>build();
                 })
                 .onErrorResume(e -> {
                     log.warn("Failed to create upload: {}", e.getMessage());
@@ -176,6 +247,9 @@ public class TusController {
                         case "DuplicateNameException" -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
                                 .header("Tus-Resumable", TUS_VERSION)
                                 .build());
+                        case "TusUploadException" -> Mono.just(ResponseEntity.badRequest()
+                                .header("Tus-Resumable", TUS_VERSION)
+                                .build());
                         default -> Mono.error(e);
                     };
                 });
@@ -248,6 +322,7 @@ public class TusController {
                     headers = {
                             @Header(name = "Upload-Offset", description = "Current offset in bytes", schema = @Schema(type = "integer")),
                             @Header(name = "Upload-Length", description = "Total file size in bytes", schema = @Schema(type = "integer")),
+                            @Header(name = "Upload-Concat", description = "Concatenation extension: partial or final upload", schema = @Schema(type = "string")),
                             @Header(name = "Tus-Resumable", description = "TUS protocol version", schema = @Schema(type = "string"))
                     }),
             @ApiResponse(responseCode = "404", description = "Upload not found")
@@ -257,16 +332,18 @@ public class TusController {
 
         log.debug("TUS HEAD - Getting offset for upload: {}", uploadId);
 
-        return Mono.zip(
-                tusUploadService.getUploadOffset(uploadId),
-                tusUploadService.getUploadLength(uploadId)
-        ).map(tuple -> ResponseEntity.ok()
-                .header("Tus-Resumable", TUS_VERSION)
-                .header("Upload-Offset", tuple.getT1().toString())
-                .header("Upload-Length", tuple.getT2().toString())
-                .header("Cache-Control", "no-store")
-                .<Void>build()
-        ).onErrorResume(e -> {
+        return tusUploadService.getUploadInfo(uploadId, baseUrl)
+                .map(info -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .header("Tus-Resumable", TUS_VERSION)
+                            .header("Upload-Offset", info.offset().toString())
+                            .header("Upload-Length", info.length().toString())
+                            .header("Cache-Control", "no-store");
+                    if (info.concat() != null) {
+                        response.header("Upload-Concat", info.concat());
+                    }
+                    return response.<Void>build();
+                }).onErrorResume(e -> {
             log.debug("Upload not found: {}", uploadId);
             return Mono.just(ResponseEntity.notFound()
                     .header("Tus-Resumable", TUS_VERSION)
@@ -288,6 +365,7 @@ public class TusController {
                             @Header(name = "Tus-Resumable", description = "TUS protocol version", schema = @Schema(type = "string"))
                     }),
             @ApiResponse(responseCode = "409", description = "Offset mismatch - resume from HEAD request"),
+            @ApiResponse(responseCode = "403", description = "Final upload of the concatenation extension"),
             @ApiResponse(responseCode = "404", description = "Upload not found")
     })
     public Mono<ResponseEntity<Void>> uploadChunk(
@@ -305,6 +383,11 @@ public class TusController {
                         .<Void>build())
                 .onErrorResume(e -> {
                     log.warn("Error uploading chunk for {}: {}", uploadId, e.getMessage());
+                    if (e instanceof OperationForbiddenException) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                                .header("Tus-Resumable", TUS_VERSION)
+                                .build());
+                    }
                     if (e.getMessage() != null && e.getMessage().contains("Offset mismatch")) {
                         return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
                                 .header("Tus-Resumable", TUS_VERSION)
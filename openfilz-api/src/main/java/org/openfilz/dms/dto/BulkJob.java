@@ -0,0 +1,55 @@
+package org.openfilz.dms.dto;
+
+import org.openfilz.dms.dto.response.BulkJobError;
+import org.openfilz.dms.enums.BulkJobStatus;
+import org.openfilz.dms.enums.BulkJobType;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An asynchronous bulk operation, stored in the bulk_jobs table.
+ *
+ * {@code processedItems} is the checkpoint of the job: the first {@code processedItems} entries of
+ * {@code documentIds} have been handled (successfully or in error).
+ */
+public record BulkJob(
+        UUID id,
+        BulkJobType type,
+        BulkJobStatus status,
+        String owner,
+        List<UUID> documentIds,
+        UUID targetFolderId,
+        Boolean allowDuplicateFileNames,
+        int totalItems,
+        int processedItems,
+        int failedItems,
+        List<UUID> resultIds,
+        List<BulkJobError> errors,
+        String error,
+        String archivePath,
+        int attempts,
+        OffsetDateTime createdAt,
+        OffsetDateTime startedAt,
+        OffsetDateTime finishedAt
+) {
+
+    /**
+     * Create a new pending job.
+     */
+    public static BulkJob create(BulkJobType type, String owner, List<UUID> documentIds, UUID targetFolderId,
+                                 Boolean allowDuplicateFileNames) {
+        int totalItems = type == BulkJobType.DOWNLOAD_ZIP ? 1 : documentIds.size();
+        return new BulkJob(UUID.randomUUID(), type, BulkJobStatus.PENDING, owner, List.copyOf(documentIds),
+                targetFolderId, allowDuplicateFileNames, totalItems, 0, 0, List.of(), List.of(), null, null, 0,
+                OffsetDateTime.now(), null, null);
+    }
+
+    /**
+     * Documents not handled yet.
+     */
+    public List<UUID> remainingDocumentIds() {
+        return documentIds.subList(Math.min(processedItems, documentIds.size()), documentIds.size());
+    }
+}
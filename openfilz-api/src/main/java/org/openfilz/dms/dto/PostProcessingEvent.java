@@ -0,0 +1,27 @@
+package org.openfilz.dms.dto;
+
+import io.r2dbc.postgresql.codec.Json;
+import org.openfilz.dms.enums.PostProcessingEventType;
+
+import java.util.UUID;
+
+/**
+ * Post-processing of a document change, stored in the post_processing_events table in the transaction of the change.
+ *
+ * @param attempts attempts of the event, including the current one once claimed
+ */
+public record PostProcessingEvent(
+        long id,
+        PostProcessingEventType type,
+        UUID documentId,
+        Json payload,
+        int attempts
+) {
+
+    /**
+     * Create a new event, to be recorded.
+     */
+    public static PostProcessingEvent create(PostProcessingEventType type, UUID documentId, Json payload) {
+        return new PostProcessingEvent(0, type, documentId, payload, 0);
+    }
+}
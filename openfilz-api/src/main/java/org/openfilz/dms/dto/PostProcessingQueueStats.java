@@ -0,0 +1,11 @@
+package org.openfilz.dms.dto;
+
+import org.openfilz.dms.enums.PostProcessingEventType;
+
+import java.time.Duration;
+
+/**
+ * Outbox of a post-processing event type: pending events, failed events, and age of the oldest pending event.
+ */
+public record PostProcessingQueueStats(PostProcessingEventType type, long pending, long failed, Duration lag) {
+}
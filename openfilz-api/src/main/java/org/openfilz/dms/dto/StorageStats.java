@@ -0,0 +1,8 @@
+package org.openfilz.dms.dto;
+
+/**
+ * Number and total size in bytes of the active documents of a category
+ * ("folders", "documents", "images", "videos", "audio" or "others").
+ */
+public record StorageStats(String category, long count, long size) {
+}
@@ -0,0 +1,16 @@
+package org.openfilz.dms.dto;
+
+/**
+ * Result of writing content to storage: the storage path (or object key) and, when it could be
+ * computed while the content was streamed, its hex-encoded SHA-256 checksum ({@code null} otherwise).
+ */
+public record StoredFile(String storagePath, String checksum) {
+
+    public static StoredFile of(String storagePath) {
+        return new StoredFile(storagePath, null);
+    }
+
+    public boolean hasChecksum() {
+        return checksum != null;
+    }
+}
@@ -0,0 +1,63 @@
+package org.openfilz.dms.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storage side of a TUS upload, persisted with the upload metadata.
+ * <p>
+ * The content is destined to {@code storagePath}, chosen when the upload is created. Backends appending to a
+ * temporary file only track the {@code size} received so far. On MinIO/S3, the content is uploaded as the parts of
+ * a native multipart upload ({@code multipartUploadId}) on {@code storagePath}; the bytes received after the last
+ * part, too small to be a part of their own, are kept aside until more data arrives.
+ *
+ * @param storagePath       final storage path/key of the uploaded content
+ * @param multipartUploadId id of the native multipart upload, null when the backend appends to a temporary file
+ * @param parts             uploaded parts of the multipart upload, in part number order
+ * @param size              number of bytes received so far (the TUS offset)
+ */
+public record TusStorageUpload(String storagePath, String multipartUploadId, List<Part> parts, long size) {
+
+    /**
+     * An uploaded part of a multipart upload.
+     */
+    public record Part(int number, String etag, long size) {
+    }
+
+    public static TusStorageUpload of(String storagePath) {
+        return new TusStorageUpload(storagePath, null, List.of(), 0L);
+    }
+
+    public static TusStorageUpload multipart(String storagePath, String multipartUploadId) {
+        return new TusStorageUpload(storagePath, multipartUploadId, List.of(), 0L);
+    }
+
+    public TusStorageUpload withSize(long newSize) {
+        return new TusStorageUpload(storagePath, multipartUploadId, parts, newSize);
+    }
+
+    public TusStorageUpload withParts(List<Part> addedParts, long newSize) {
+        List<Part> allParts = new ArrayList<>(parts.size() + addedParts.size());
+        allParts.addAll(parts);
+        allParts.addAll(addedParts);
+        return new TusStorageUpload(storagePath, multipartUploadId, List.copyOf(allParts), newSize);
+    }
+
+    /**
+     * Number of bytes stored in the uploaded parts.
+     */
+    public long partsSize() {
+        return parts.stream().mapToLong(Part::size).sum();
+    }
+
+    /**
+     * Number of bytes received after the last uploaded part.
+     */
+    public long pendingSize() {
+        return size - partsSize();
+    }
+
+    public int nextPartNumber() {
+        return parts.isEmpty() ? 1 : parts.getLast().number() + 1;
+    }
+}
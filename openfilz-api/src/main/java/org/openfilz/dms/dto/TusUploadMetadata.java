@@ -7,7 +7,11 @@ import java.util.Map;
 
 /**
  * Metadata for a TUS upload session.
- * Stored as a JSON file alongside the upload data file.
+ * Stored in the tus_uploads table.
+ *
+ * {@code concat} is the Upload-Concat value of the upload (concatenation extension): {@value #CONCAT_PARTIAL}
+ * for a partial upload, {@code final;<partial upload URLs>} for an upload assembled from partial uploads,
+ * null for a regular upload.
  */
 public record TusUploadMetadata(
         String uploadId,
@@ -16,22 +20,37 @@ public record TusUploadMetadata(
         Instant createdAt,
         Instant expiresAt,
         Map<String, String> metadata,
-        String email
+        String email,
+        TusStorageUpload storage,
+        String concat
 ) {
+    public static final String CONCAT_PARTIAL = "partial";
+    public static final String CONCAT_FINAL = "final";
+
     /**
      * Create a new upload metadata with initial values.
      */
     public static TusUploadMetadata create(String uploadId, Long length, long expirationMs, Map<String, String> metadata,
-                                           String email) {
+                                           String email, TusStorageUpload storage) {
+        return create(uploadId, length, expirationMs, metadata, email, storage, null);
+    }
+
+    /**
+     * Create a new upload metadata with initial values, for an upload of the concatenation extension.
+     */
+    public static TusUploadMetadata create(String uploadId, Long length, long expirationMs, Map<String, String> metadata,
+                                           String email, TusStorageUpload storage, String concat) {
         Instant now = Instant.now();
         return new TusUploadMetadata(
                 uploadId,
                 length,
-                0L,
+                storage.size(),
                 now,
                 now.plusMillis(expirationMs),
                 metadata,
-                email
+                email,
+                storage,
+                concat
         );
     }
 
@@ -39,7 +58,14 @@ public record TusUploadMetadata(
      * Create a copy with updated offset.
      */
     public TusUploadMetadata withOffset(Long newOffset) {
-        return new TusUploadMetadata(uploadId, length, newOffset, createdAt, expiresAt, metadata, email);
+        return new TusUploadMetadata(uploadId, length, newOffset, createdAt, expiresAt, metadata, email, storage, concat);
+    }
+
+    /**
+     * Create a copy with updated storage state, whose size is the new offset.
+     */
+    public TusUploadMetadata withStorage(TusStorageUpload newStorage) {
+        return new TusUploadMetadata(uploadId, length, newStorage.size(), createdAt, expiresAt, metadata, email, newStorage, concat);
     }
 
     /**
@@ -50,6 +76,22 @@ public record TusUploadMetadata(
         return offset != null && offset.equals(length);
     }
 
+    /**
+     * Check if this is a partial upload, only meant to be concatenated into a final upload.
+     */
+    @JsonIgnore
+    public boolean isPartial() {
+        return CONCAT_PARTIAL.equals(concat);
+    }
+
+    /**
+     * Check if this upload was assembled from partial uploads.
+     */
+    @JsonIgnore
+    public boolean isFinal() {
+        return concat != null && concat.startsWith(CONCAT_FINAL);
+    }
+
     /**
      * Check if the upload has expired.
      */
@@ -0,0 +1,12 @@
+package org.openfilz.dms.dto.audit;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Last verified entry of the audit chain.
+ * @param lastId id up to which the chain was verified
+ * @param lastHash hash of the last verified entry
+ * @param verifiedEntries number of chained entries up to lastId
+ */
+public record AuditChainCheckpoint(long lastId, String lastHash, long verifiedEntries, OffsetDateTime verifiedAt) {
+}
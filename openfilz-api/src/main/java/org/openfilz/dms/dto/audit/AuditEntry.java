@@ -0,0 +1,17 @@
+package org.openfilz.dms.dto.audit;
+
+import org.openfilz.dms.enums.AuditAction;
+import org.openfilz.dms.enums.DocumentType;
+
+import java.util.UUID;
+
+/**
+ * One audit log entry of a batch written with {@code AuditService.logActions}, e.g. one per document
+ * of a moved, copied or deleted subtree.
+ */
+public record AuditEntry(AuditAction action, DocumentType resourceType, UUID resourceId, IAuditLogDetails details) {
+
+    public AuditEntry(AuditAction action, DocumentType resourceType, UUID resourceId) {
+        this(action, resourceType, resourceId, null);
+    }
+}
@@ -27,5 +27,16 @@ public record AuditLog(
         DocumentType resourceType,
         AuditLogDetails details,
         String previousHash,
-        String hash) {
+        String hash,
+        @Schema(description = "Opaque position of the entry in a paginated search, to request the next entries after it")
+        String cursor) {
+
+    public AuditLog(UUID id, OffsetDateTime timestamp, String username, AuditAction action, DocumentType resourceType,
+                    AuditLogDetails details, String previousHash, String hash) {
+        this(id, timestamp, username, action, resourceType, details, previousHash, hash, null);
+    }
+
+    public AuditLog withCursor(String newCursor) {
+        return new AuditLog(id, timestamp, username, action, resourceType, details, previousHash, hash, newCursor);
+    }
 }
@@ -0,0 +1,12 @@
+package org.openfilz.dms.dto.audit;
+
+/**
+ * Archive of a partition of audit_logs: a gzip-compressed file of its entries, one JSON object per line, in the
+ * order of their ids.
+ * @param firstPreviousHash previous hash of the first chained entry, the hash of the last entry of the previous archive
+ * @param lastHash hash of the last chained entry, the previous hash of the entry following the archive
+ * @param checksum SHA-256 of the archive file
+ */
+public record AuditLogArchive(AuditLogPartition partition, long entries, Long firstId, Long lastId,
+                              String firstPreviousHash, String lastHash, String storagePath, String checksum) {
+}
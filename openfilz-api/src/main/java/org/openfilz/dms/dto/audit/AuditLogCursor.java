@@ -0,0 +1,39 @@
+package org.openfilz.dms.dto.audit;
+
+import org.openfilz.dms.enums.SortOrder;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+
+/**
+ * Position of an entry in a keyset-paginated audit search: its timestamp, then its id as tie-breaker.
+ * Exchanged with clients as an opaque base64url string.
+ *
+ * @param sortOrder order of the timestamps the cursor was produced for
+ * @param timestamp timestamp of the entry
+ * @param id        id of the entry in audit_logs
+ */
+public record AuditLogCursor(SortOrder sortOrder, OffsetDateTime timestamp, Long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode(ObjectMapper objectMapper) {
+        return ENCODER.encodeToString(objectMapper.writeValueAsBytes(this));
+    }
+
+    public static AuditLogCursor decode(String cursor, ObjectMapper objectMapper) {
+        try {
+            AuditLogCursor decoded = objectMapper.readValue(new String(DECODER.decode(cursor), StandardCharsets.UTF_8), AuditLogCursor.class);
+            if (decoded.sortOrder() == null || decoded.timestamp() == null || decoded.id() == null) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return decoded;
+        } catch (IllegalArgumentException | JacksonException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.openfilz.dms.dto.audit;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Partition of audit_logs, holding the entries from {@code fromTimestamp} (null for the first one) to
+ * {@code toTimestamp} excluded.
+ */
+public record AuditLogPartition(String name, OffsetDateTime fromTimestamp, OffsetDateTime toTimestamp) {
+}
@@ -3,9 +3,21 @@ package org.openfilz.dms.dto.request;
 import jakarta.validation.constraints.NotNull;
 import org.openfilz.dms.enums.SortOrder;
 
+/**
+ * Paging of a listing: either a page number, or {@code after}, the cursor of the last element
+ * already received (keyset pagination, which ignores {@code pageNumber}).
+ */
 public record PageCriteria(String sortBy,
                            SortOrder sortOrder,
-                           @NotNull Integer pageNumber,
-                           @NotNull Integer pageSize
+                           Integer pageNumber,
+                           @NotNull Integer pageSize,
+                           String after
                            ) {
+
+    /**
+     * Page-number paging, without cursor.
+     */
+    public PageCriteria(String sortBy, SortOrder sortOrder, Integer pageNumber, Integer pageSize) {
+        this(sortBy, sortOrder, pageNumber, pageSize, null);
+    }
 }
@@ -4,7 +4,9 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.openfilz.dms.enums.AuditAction;
 import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.enums.SortOrder;
 
+import java.time.OffsetDateTime;
 import java.util.Map;
 import java.util.UUID;
 
@@ -20,6 +22,20 @@ public record SearchByAuditLogRequest(
         @Schema(description = "Action to search for - if not provided or null : search all actions")
         AuditAction action,
         @Schema(description = "Audit Metadata key-value pairs to search for")
-        Map<String, Object> details
+        Map<String, Object> details,
+        @Schema(description = "Entries logged at or after this date - only the partitions of the audit log from this date are searched")
+        OffsetDateTime from,
+        @Schema(description = "Entries logged before this date - only the partitions of the audit log up to this date are searched")
+        OffsetDateTime to,
+        @Schema(description = "Order of the entries by timestamp. Can be 'ASC' or 'DESC'. Default is 'DESC'")
+        SortOrder sort,
+        @Schema(description = "Maximum number of entries returned, each with the cursor to request the next ones - if not provided : all the matching entries are returned")
+        Integer pageSize,
+        @Schema(description = "Cursor of the last entry already received, to get the entries after it - requires pageSize and the same sort")
+        String after
 ) {
+
+    public SearchByAuditLogRequest(String username, UUID id, DocumentType type, AuditAction action, Map<String, Object> details) {
+        this(username, id, type, action, details, null, null, null, null, null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package org.openfilz.dms.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+public record BulkJobError(
+        @Schema(description = "ID of the document that could not be handled") UUID documentId,
+        @Schema(description = "Reason of the failure") String message) {
+}
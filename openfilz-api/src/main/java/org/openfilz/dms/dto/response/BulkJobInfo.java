@@ -0,0 +1,33 @@
+package org.openfilz.dms.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.openfilz.dms.dto.BulkJob;
+import org.openfilz.dms.enums.BulkJobStatus;
+import org.openfilz.dms.enums.BulkJobType;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record BulkJobInfo(
+        @Schema(description = "Job ID") UUID id,
+        @Schema(description = "Operation executed by the job") BulkJobType type,
+        @Schema(description = "Status of the job") BulkJobStatus status,
+        @Schema(description = "Number of items of the job (1 for a ZIP download)") int totalItems,
+        @Schema(description = "Number of items already handled, successfully or not") int processedItems,
+        @Schema(description = "Number of items that could not be handled") int failedItems,
+        @Schema(description = "IDs of the copies created by a copy job") List<UUID> resultIds,
+        @Schema(description = "Errors of the items that could not be handled") List<BulkJobError> errors,
+        @Schema(description = "Reason why the job failed") String error,
+        @Schema(description = "true when the ZIP archive of a download job can be downloaded") boolean archiveAvailable,
+        @Schema(description = "Submission date") OffsetDateTime createdAt,
+        @Schema(description = "Date of the first execution") OffsetDateTime startedAt,
+        @Schema(description = "End date") OffsetDateTime finishedAt) {
+
+    public static BulkJobInfo of(BulkJob job) {
+        return new BulkJobInfo(job.id(), job.type(), job.status(), job.totalItems(), job.processedItems(),
+                job.failedItems(), job.resultIds(), job.errors(), job.error(),
+                job.status() == BulkJobStatus.COMPLETED && job.archivePath() != null,
+                job.createdAt(), job.startedAt(), job.finishedAt());
+    }
+}
@@ -26,5 +26,11 @@ public record FullDocumentInfo(
         @Schema(description = "Whether this document is a root share") Boolean rootShare,
         @Schema(description = "Whether this document is shared in edit mode") Boolean sharedEdit,
         @Schema(description = "Whether this document is shared in comment mode") Boolean sharedComment,
-        @Schema(description = "Team ID through which this document is shared, null if shared directly") UUID sharedTeamId) {
+        @Schema(description = "Team ID through which this document is shared, null if shared directly") UUID sharedTeamId,
+        @Schema(description = "Opaque position of the document in a listing, to request the next elements after it") String cursor) {
+
+    public FullDocumentInfo withCursor(String newCursor) {
+        return new FullDocumentInfo(id, type, contentType, name, parentId, metadata, size, createdAt, updatedAt,
+                createdBy, updatedBy, favorite, rootShare, sharedEdit, sharedComment, sharedTeamId, newCursor);
+    }
 }
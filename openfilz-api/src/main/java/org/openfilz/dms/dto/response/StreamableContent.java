@@ -0,0 +1,32 @@
+package org.openfilz.dms.dto.response;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * The content of a file document, ready to be streamed to the client in full or by byte ranges.
+ * Nothing is read from storage until {@link RangeReader#read(long, long)} is subscribed to.
+ *
+ * @param fileName     name sent in the {@code Content-Disposition} header
+ * @param contentType  MIME type (may be null)
+ * @param length       total length of the content in bytes
+ * @param eTag         quoted strong entity tag, used to validate {@code If-Range} requests (may be null)
+ * @param lastModified last modification date, used to validate {@code If-Range} requests (may be null)
+ * @param localFile    local file holding the content, allowing zero-copy transfers (null for remote storage)
+ * @param reader       reads a byte range of the content
+ */
+public record StreamableContent(String fileName, String contentType, long length, String eTag,
+                                Instant lastModified, Path localFile, RangeReader reader) {
+
+    @FunctionalInterface
+    public interface RangeReader {
+
+        /**
+         * Read {@code length} bytes starting at {@code offset}.
+         */
+        Flux<DataBuffer> read(long offset, long length);
+    }
+}
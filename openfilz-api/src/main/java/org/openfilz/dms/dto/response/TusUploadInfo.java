@@ -10,13 +10,21 @@ public record TusUploadInfo(
         Long offset,
         Long length,
         OffsetDateTime expiresAt,
-        String uploadUrl
+        String uploadUrl,
+        String concat
 ) {
     /**
      * Creates a TusUploadInfo with calculated upload URL.
      */
     public static TusUploadInfo of(String uploadId, Long offset, Long length, OffsetDateTime expiresAt, String baseUrl) {
+        return of(uploadId, offset, length, expiresAt, baseUrl, null);
+    }
+
+    /**
+     * Creates a TusUploadInfo with calculated upload URL, for an upload of the concatenation extension.
+     */
+    public static TusUploadInfo of(String uploadId, Long offset, Long length, OffsetDateTime expiresAt, String baseUrl, String concat) {
         String uploadUrl = baseUrl + "/" + uploadId;
-        return new TusUploadInfo(uploadId, offset, length, expiresAt, uploadUrl);
+        return new TusUploadInfo(uploadId, offset, length, expiresAt, uploadUrl, concat);
     }
 }
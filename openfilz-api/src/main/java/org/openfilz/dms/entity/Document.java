@@ -17,7 +17,7 @@ import java.util.UUID;
 import static org.openfilz.dms.entity.SqlTableMapping.DOCUMENT;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(DOCUMENT)
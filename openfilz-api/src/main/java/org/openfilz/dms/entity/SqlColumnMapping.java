@@ -21,5 +21,6 @@ public interface SqlColumnMapping {
     String DELETED_AT = "deleted_at";
     String DELETED_BY = "deleted_by";
     String FAVORITE = "favorite";
+    String PATH = "path";
 
 }
@@ -5,4 +5,11 @@ public interface SqlTableMapping {
     String AUDIT = "audit_logs";
     String RECYCLE_BIN = "recycle_bin";
     String USER_FAVORITES = "user_favorites";
+    String CONTENT_BLOB = "content_blobs";
+    String TUS_UPLOAD = "tus_uploads";
+    String STORAGE_STATS = "storage_stats";
+    String USER_QUOTA_USAGE = "user_quota_usage";
+    String QUOTA_RESERVATION = "quota_reservations";
+    String BULK_JOB = "bulk_jobs";
+    String POST_PROCESSING_EVENT = "post_processing_events";
 }
@@ -0,0 +1,9 @@
+package org.openfilz.dms.enums;
+
+public enum BulkJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED, // all documents handled, some of them possibly in error (failedItems)
+    FAILED,
+    CANCELLED
+}
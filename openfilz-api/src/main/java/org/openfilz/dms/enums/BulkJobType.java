@@ -0,0 +1,11 @@
+package org.openfilz.dms.enums;
+
+public enum BulkJobType {
+    COPY_FILES,
+    COPY_FOLDERS,
+    MOVE_FILES,
+    MOVE_FOLDERS,
+    DELETE_FILES,
+    DELETE_FOLDERS,
+    DOWNLOAD_ZIP // ZIP archive of the documents, kept in storage until the job expires
+}
@@ -0,0 +1,27 @@
+package org.openfilz.dms.enums;
+
+/**
+ * Post-processing of a document change recorded in the outbox, with the target it updates: the events of a document
+ * updating the same target are run in the order they were recorded.
+ */
+public enum PostProcessingEventType {
+    INDEX_DOCUMENT("index"),
+    INDEX_METADATA("index"),
+    COPY_INDEX("index"), // payload: {sourceId}
+    UPDATE_INDEX_FIELD("index"), // payload: {key, value}
+    DELETE_INDEX("index"),
+    GENERATE_THUMBNAIL("thumbnail"),
+    COPY_THUMBNAIL("thumbnail"), // payload: {sourceId}
+    DELETE_THUMBNAIL("thumbnail"),
+    EMBED_DOCUMENT("embedding"); // only when full-text is not active: otherwise embedded when indexed
+
+    private final String target;
+
+    PostProcessingEventType(String target) {
+        this.target = target;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+}
@@ -20,6 +20,7 @@ public abstract class DocumentMapper {
     private JsonUtils jsonUtils;
 
     @Mapping(source = METADATA, target = METADATA, qualifiedByName = "mapMetadataToMap")
+    @Mapping(target = "cursor", ignore = true)
     public abstract FullDocumentInfo toFullDocumentInfo(Document document);
 
     @Named("mapMetadataToMap")
@@ -0,0 +1,50 @@
+package org.openfilz.dms.repository;
+
+import org.openfilz.dms.dto.audit.AuditLogArchive;
+import org.openfilz.dms.dto.audit.AuditLogPartition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Monthly partitions of audit_logs and their archives.
+ */
+public interface AuditArchiveDAO {
+
+    /**
+     * Creates the partition of the month of {@code month}, unless a partition already covers it.
+     *
+     * @return true if the partition was created
+     */
+    Mono<Boolean> createPartition(LocalDate month);
+
+    /**
+     * Partitions whose entries are all before {@code before}, oldest first.
+     */
+    Flux<AuditLogPartition> findPartitionsBefore(OffsetDateTime before);
+
+    /**
+     * Takes the archival lock for the current transaction, unless another instance holds it.
+     *
+     * @return false if the lock is held by another instance, or if the partition no longer exists
+     */
+    Mono<Boolean> lockForArchival(AuditLogPartition partition);
+
+    /**
+     * Archive of the partition, without its file: number of entries, ids and hashes at both ends.
+     */
+    Mono<AuditLogArchive> summarize(AuditLogPartition partition);
+
+    /**
+     * Entries of the partition as JSON objects, in the order of their ids.
+     */
+    Flux<String> findEntries(AuditLogPartition partition);
+
+    /**
+     * Records the archive of its partition, then detaches and drops the partition.
+     * Must be called in a transaction.
+     */
+    Mono<Void> replaceByArchive(AuditLogArchive archive);
+}
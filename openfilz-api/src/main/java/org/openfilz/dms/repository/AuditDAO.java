@@ -1,5 +1,7 @@
 package org.openfilz.dms.repository;
 
+import org.openfilz.dms.dto.audit.AuditChainCheckpoint;
+import org.openfilz.dms.dto.audit.AuditEntry;
 import org.openfilz.dms.dto.audit.AuditLog;
 import org.openfilz.dms.dto.audit.IAuditLogDetails;
 import org.openfilz.dms.dto.request.SearchByAuditLogRequest;
@@ -9,14 +11,32 @@ import org.openfilz.dms.enums.SortOrder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface AuditDAO {
     Mono<Void> logAction(AuditAction action, DocumentType resourceType, UUID resourceId, IAuditLogDetails details);
-    Flux<AuditLog> getAuditTrail(UUID resourceId, SortOrder sort);
+    Mono<Void> logActions(List<AuditEntry> entries);
+    /**
+     * Chains the chained entries staged by committed transactions and not chained yet (e.g. before a restart).
+     */
+    Mono<Void> chainStagedEntries();
+    /**
+     * Entries of a resource by timestamp. With a page size, at most one page of entries after the cursor
+     * {@code after} (null for the first page), each with its own cursor.
+     */
+    Flux<AuditLog> getAuditTrail(UUID resourceId, SortOrder sort, Integer pageSize, String after);
     Flux<AuditLog> searchAuditTrail(SearchByAuditLogRequest request);
     Mono<String> getLastHash();
     Mono<Boolean> isChainInitialized();
     Flux<AuditLog> getChainedEntries();
     Flux<AuditLog> getChainedEntriesInRange(long fromId, long toId);
+    Mono<Long> getFirstChainedId();
+    /**
+     * Hash of the last chained entry archived before the entry {@code id}, empty if none was archived.
+     */
+    Mono<String> getArchivedHashBefore(long id);
+    Mono<Long> getLastChainedId();
+    Mono<AuditChainCheckpoint> getVerificationCheckpoint();
+    Mono<Void> saveVerificationCheckpoint(AuditChainCheckpoint checkpoint);
 }
@@ -0,0 +1,87 @@
+package org.openfilz.dms.repository;
+
+import org.openfilz.dms.dto.BulkJob;
+import org.openfilz.dms.dto.response.BulkJobError;
+import org.openfilz.dms.enums.BulkJobStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Registry of the asynchronous bulk jobs. A running job is owned by the worker that claimed it: the updates
+ * of its progress only apply while the job is still running on that worker, so a job cancelled or taken over
+ * by another instance stops at its next checkpoint.
+ */
+public interface BulkJobDAO {
+
+    Mono<Void> create(BulkJob job);
+
+    Mono<BulkJob> findById(UUID id, String owner);
+
+    /**
+     * Jobs of {@code owner}, most recent first, optionally filtered by status.
+     */
+    Flux<BulkJob> findByOwner(String owner, BulkJobStatus status, int limit);
+
+    /**
+     * Claims for {@code workerId} up to {@code limit} jobs, oldest first: pending jobs, and running jobs without
+     * heartbeat for {@code staleTimeout} that were executed less than {@code maxAttempts} times. Rows locked by
+     * another worker are skipped.
+     */
+    Flux<BulkJob> claim(String workerId, int limit, Duration staleTimeout, int maxAttempts);
+
+    /**
+     * Fails the running jobs without heartbeat for {@code staleTimeout} that were already executed
+     * {@code maxAttempts} times.
+     *
+     * @return the number of failed jobs
+     */
+    Mono<Long> failAbandoned(Duration staleTimeout, int maxAttempts);
+
+    /**
+     * Advances the checkpoint of a running job to {@code processedItems}. Called at the start of the transaction
+     * handling the next items, whose row lock then keeps the job from being claimed by another worker.
+     *
+     * @return false if the job is no longer running on {@code workerId} (cancelled or taken over)
+     */
+    Mono<Boolean> checkpoint(UUID id, String workerId, int processedItems);
+
+    /**
+     * Appends the ids of the copies created by a copy job.
+     */
+    Mono<Void> addResults(UUID id, List<UUID> resultIds);
+
+    /**
+     * Advances the checkpoint of a running job past items that could not be handled, recording their errors.
+     *
+     * @return false if the job is no longer running on {@code workerId}
+     */
+    Mono<Boolean> recordFailures(UUID id, String workerId, int processedItems, List<BulkJobError> errors);
+
+    Mono<Boolean> complete(UUID id, String workerId, String archivePath);
+
+    Mono<Boolean> fail(UUID id, String workerId, String error);
+
+    /**
+     * Cancels a pending or running job of {@code owner}.
+     *
+     * @return the cancelled job, empty if it does not exist or is already finished
+     */
+    Mono<BulkJob> cancel(UUID id, String owner);
+
+    /**
+     * Records the heartbeat of the jobs running on {@code workerId}. Jobs locked by the transaction of their
+     * current items are skipped: they cannot be claimed until it ends anyway.
+     */
+    Mono<Long> heartbeat(String workerId);
+
+    /**
+     * Removes the jobs finished for more than {@code retention}.
+     *
+     * @return the removed jobs
+     */
+    Flux<BulkJob> deleteExpired(Duration retention);
+}
@@ -0,0 +1,40 @@
+package org.openfilz.dms.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Registry of content-addressable blobs. Reference counts are maintained by database triggers
+ * on the documents table; this DAO only registers blobs and garbage-collects unreferenced ones.
+ */
+public interface ContentBlobDAO {
+
+    /**
+     * Marks an already registered blob as freshly uploaded, so that it cannot be garbage-collected
+     * before the document referencing it is created.
+     *
+     * @return true if the blob is registered, false otherwise
+     */
+    Mono<Boolean> touch(String storagePath);
+
+    /**
+     * Registers a newly stored blob (idempotent).
+     */
+    Mono<Void> register(String storagePath);
+
+    /**
+     * Blobs no longer referenced by any document since before {@code before}.
+     */
+    Flux<String> findUnreferenced(OffsetDateTime before, int limit);
+
+    /**
+     * Locks the blob row for the current transaction if it is still unreferenced, skipping rows locked by others.
+     *
+     * @return the storage path if the blob was locked, empty otherwise
+     */
+    Mono<String> lockIfUnreferenced(String storagePath, OffsetDateTime before);
+
+    Mono<Void> delete(String storagePath);
+}
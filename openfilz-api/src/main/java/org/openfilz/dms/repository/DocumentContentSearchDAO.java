@@ -0,0 +1,31 @@
+package org.openfilz.dms.repository;
+
+import org.openfilz.dms.dto.request.FilterInput;
+import org.openfilz.dms.dto.request.SortInput;
+import org.openfilz.dms.dto.response.DocumentSearchResult;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Search in PostgreSQL, by name and by the text extracted from the files (document_contents table).
+ */
+public interface DocumentContentSearchDAO {
+
+    /**
+     * Documents whose name contains the query or whose content matches it, most relevant first unless a sort is given.
+     * @param email user whose favorites the {@code favorite} filter refers to
+     */
+    Mono<DocumentSearchResult> search(String query, List<FilterInput> filters, SortInput sort, int page, int size, String email);
+
+    /**
+     * Stores the text extracted from a file, replacing the previous one.
+     */
+    Mono<Void> saveContent(UUID documentId, String content);
+
+    /**
+     * Gives a copied file the content of its source.
+     */
+    Mono<Void> copyContent(UUID sourceId, UUID targetId);
+}
@@ -1,5 +1,6 @@
 package org.openfilz.dms.repository;
 
+import io.r2dbc.postgresql.codec.Json;
 import jakarta.annotation.Nonnull;
 import org.openfilz.dms.dto.request.SearchByMetadataRequest;
 import org.openfilz.dms.dto.response.AncestorInfo;
@@ -11,8 +12,11 @@ import org.openfilz.dms.enums.AccessType;
 import org.openfilz.dms.enums.DocumentType;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface DocumentDAO {
@@ -44,6 +48,61 @@ public interface DocumentDAO {
 
     Mono<Document> create(Document document);
 
+    /**
+     * Active documents among the given ids, fetched with a single query.
+     */
+    Flux<Document> findByIds(Collection<UUID> documentIds, AccessType accessType);
+
+    /**
+     * Names among the given ones that are already used by an active document of a folder.
+     *
+     * @param parentId the folder, or null for the root
+     */
+    Flux<String> findExistingNames(Collection<String> names, UUID parentId);
+
+    /**
+     * Active documents of the subtree of a folder, the folder included, parents before their children.
+     */
+    Flux<Document> findSubtree(UUID folderId);
+
+    /**
+     * Moves documents to a folder with a single update. The subtrees of moved folders follow through the
+     * path triggers, in the same statement.
+     *
+     * @param targetFolderId the folder, or null for the root
+     * @return the number of moved documents
+     */
+    Mono<Long> moveDocuments(Collection<UUID> documentIds, UUID targetFolderId, String username);
+
+    /**
+     * Copies the active subtree of a folder under another folder with a single INSERT ... SELECT, giving every
+     * copied document a new id.
+     *
+     * @param documentIds  ids of the documents of the subtree to copy, as read before copying their content;
+     *                     documents added to the subtree since are not copied
+     * @param storagePaths storage paths of the copied files by source file id; files not in the map keep the
+     *                     storage path of their source
+     * @param metadata     metadata of the copies by source document id; documents not in the map keep the
+     *                     metadata of their source
+     * @return the source id and the copy of every copied document, parents before their children
+     */
+    Flux<Tuple2<UUID, Document>> copySubtree(UUID sourceFolderId, UUID targetFolderId, Collection<UUID> documentIds,
+                                             Map<UUID, String> storagePaths, Map<UUID, Json> metadata, String username);
+
+    /**
+     * Deletes documents with a single statement.
+     *
+     * @return the deleted documents
+     */
+    Flux<Document> deleteByIds(Collection<UUID> documentIds);
+
+    /**
+     * Deletes the whole subtree of a folder, the folder included, with a single statement.
+     *
+     * @return the deleted documents, children before their parents
+     */
+    Flux<Document> deleteSubtree(UUID folderId);
+
     /**
      * Get all ancestors (parent folders) of a document, ordered from root to immediate parent.
      *
@@ -52,6 +111,23 @@ public interface DocumentDAO {
      */
     Flux<AncestorInfo> getAncestors(UUID documentId);
 
+    /**
+     * Check whether a document is located (at any depth) under another one.
+     *
+     * @param documentId The UUID of the document.
+     * @param ancestorId The UUID of the potential ancestor.
+     * @return A Mono emitting true if {@code ancestorId} is an ancestor of {@code documentId}, or the document itself.
+     */
+    Mono<Boolean> isDescendant(UUID documentId, UUID ancestorId);
+
+    /**
+     * Among the given documents, the ones located (at any depth) under another one of them.
+     *
+     * @param documentIds The UUIDs of the documents.
+     * @return A Flux of the UUIDs of the nested documents.
+     */
+    Flux<UUID> findNestedIds(Collection<UUID> documentIds);
+
     /**
      * Get the position of a document within its parent folder.
      *
@@ -0,0 +1,50 @@
+package org.openfilz.dms.repository;
+
+import org.openfilz.dms.dto.PostProcessingEvent;
+import org.openfilz.dms.dto.PostProcessingQueueStats;
+import org.openfilz.dms.enums.PostProcessingEventType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outbox of the post-processing of the document changes. Events are recorded in the transaction of the change, and
+ * claimed by the workers for the duration of a lease: an event whose lease expired (the instance running it stopped)
+ * is claimed again.
+ */
+public interface PostProcessingOutboxDAO {
+
+    /**
+     * Records the events, in their order, in the current transaction.
+     */
+    Mono<Void> enqueue(List<PostProcessingEvent> events);
+
+    /**
+     * Claims up to {@code limit} pending events of {@code type}, oldest first, for {@code lease}. Rows locked by
+     * another worker are skipped, and so are the events of a document waiting for an earlier pending event of the
+     * document updating the same target.
+     */
+    Flux<PostProcessingEvent> claim(PostProcessingEventType type, int limit, Duration lease);
+
+    /**
+     * Removes an event that was run.
+     */
+    Mono<Void> complete(long id);
+
+    /**
+     * Releases a failed event, to be claimed again after {@code delay}.
+     */
+    Mono<Void> retry(long id, Duration delay, String error);
+
+    /**
+     * Keeps a failed event that will not be retried.
+     */
+    Mono<Void> markFailed(long id, String error);
+
+    /**
+     * Pending and failed events per type, only for the types having some.
+     */
+    Flux<PostProcessingQueueStats> getStats();
+}
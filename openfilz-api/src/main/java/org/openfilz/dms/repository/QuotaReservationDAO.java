@@ -0,0 +1,50 @@
+package org.openfilz.dms.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+/**
+ * Reservations of user quota by uploads in progress. The usage of each user (bytes of its active
+ * files, maintained by database triggers, plus its reservations) is kept in a single row, which
+ * serializes the reservations of a user.
+ */
+public interface QuotaReservationDAO {
+
+    /**
+     * Atomically reserves {@code size} bytes for {@code owner} if its usage stays within {@code maxBytes}.
+     * Reserving again with the id of an existing reservation does nothing.
+     *
+     * @return true if the reservation was created, false if it already existed or the quota would be exceeded
+     */
+    Mono<Boolean> reserve(String id, String owner, long size, long maxBytes, OffsetDateTime expiresAt);
+
+    /**
+     * Whether a reservation with this id exists.
+     */
+    Mono<Boolean> exists(String id);
+
+    /**
+     * Bytes used and reserved by {@code owner} (0 if unknown).
+     */
+    Mono<Long> getUsage(String owner);
+
+    /**
+     * Releases a reservation (idempotent).
+     */
+    Mono<Void> release(String id);
+
+    /**
+     * Replaces the reservations {@code ids} by a single reservation {@code id} of their total size, expiring at
+     * {@code expiresAt}. The reserved bytes of their owner are unchanged, so the quota is not checked again.
+     */
+    Mono<Void> merge(Collection<String> ids, String id, OffsetDateTime expiresAt);
+
+    /**
+     * Releases the reservations that expired before {@code now}.
+     *
+     * @return the number of users whose reservations were released
+     */
+    Mono<Long> releaseExpired(OffsetDateTime now);
+}
@@ -0,0 +1,55 @@
+package org.openfilz.dms.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Routing of the queries to the read replica, when one is configured ({@code openfilz.read-replica.enabled=true}).
+ * <p>
+ * Queries subscribed within {@link #readOnly} go to the replica, and may therefore not see the latest committed
+ * writes, unless an enclosing publisher was pinned to the primary with {@link #primary}: a caller that must read
+ * a write it just committed pins its reads. Queries run within a transaction always use its connection, on the
+ * primary. Without replica, both are no-ops.
+ */
+public final class ReadReplica {
+
+    private static final String READ_ONLY = ReadReplica.class.getName() + ".READ_ONLY";
+    private static final String PRIMARY = ReadReplica.class.getName() + ".PRIMARY";
+
+    private ReadReplica() {
+    }
+
+    /**
+     * Lets the queries of {@code reads} go to the replica.
+     */
+    public static <T> Flux<T> readOnly(Flux<T> reads) {
+        return reads.contextWrite(Context.of(READ_ONLY, true));
+    }
+
+    /**
+     * Lets the queries of {@code reads} go to the replica.
+     */
+    public static <T> Mono<T> readOnly(Mono<T> reads) {
+        return reads.contextWrite(Context.of(READ_ONLY, true));
+    }
+
+    /**
+     * Keeps all the queries of {@code reads} on the primary, including the ones marked {@link #readOnly}.
+     */
+    public static <T> Flux<T> primary(Flux<T> reads) {
+        return reads.contextWrite(Context.of(PRIMARY, true));
+    }
+
+    /**
+     * Keeps all the queries of {@code reads} on the primary, including the ones marked {@link #readOnly}.
+     */
+    public static <T> Mono<T> primary(Mono<T> reads) {
+        return reads.contextWrite(Context.of(PRIMARY, true));
+    }
+
+    public static boolean isReplicaAllowed(ContextView context) {
+        return context.getOrDefault(READ_ONLY, false) && !context.getOrDefault(PRIMARY, false);
+    }
+}
@@ -1,15 +1,19 @@
 package org.openfilz.dms.repository;
 
-import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.dto.StorageStats;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface StatisticsDAO {
 
-    Mono<Long> countFilesByType(DocumentType type);
+    /**
+     * Statistics of every category holding active documents, read from the storage_stats rollup.
+     */
+    Flux<StorageStats> getStorageStatsByCategory();
 
-    Mono<Long> getTotalStorageByContentType(String contentTypePattern);
-
-    Mono<Long> countFilesByContentType(String contentTypePattern);
-
-    Mono<Long> getTotalStorageUsed();
+    /**
+     * Rebuilds the storage_stats rollup from the documents table.
+     * @return the number of rollup rows that had drifted from the documents
+     */
+    Mono<Integer> reconcileStorageStats();
 }
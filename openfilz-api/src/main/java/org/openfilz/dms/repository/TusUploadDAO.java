@@ -0,0 +1,41 @@
+package org.openfilz.dms.repository;
+
+import org.openfilz.dms.dto.TusStorageUpload;
+import org.openfilz.dms.dto.TusUploadMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Registry of in-progress TUS uploads.
+ */
+public interface TusUploadDAO {
+
+    Mono<Void> create(TusUploadMetadata upload);
+
+    Mono<TusUploadMetadata> findById(String uploadId);
+
+    /**
+     * Records the new storage state of an upload, whose size becomes the upload offset, provided the offset
+     * is still {@code expectedOffset}.
+     *
+     * @return true if the upload was updated, false if its offset changed in the meantime (or it no longer exists)
+     */
+    Mono<Boolean> updateProgress(String uploadId, long expectedOffset, TusStorageUpload storage);
+
+    /**
+     * Uploads expired before {@code now}, oldest first.
+     */
+    Flux<TusUploadMetadata> findExpired(Instant now, int limit);
+
+    Mono<Void> delete(String uploadId);
+
+    /**
+     * Deletes uploads, locking them until the end of the transaction.
+     *
+     * @return the number of uploads deleted, less than requested if some were already deleted
+     */
+    Mono<Long> delete(Collection<String> uploadIds);
+}
@@ -4,6 +4,7 @@ import tools.jackson.databind.ObjectMapper;
 import graphql.schema.DataFetchingEnvironment;
 import org.openfilz.dms.dto.request.ListFolderRequest;
 import org.openfilz.dms.mapper.DocumentMapper;
+import org.openfilz.dms.repository.ReadReplica;
 import org.openfilz.dms.utils.SqlUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -59,8 +60,8 @@ public class ListFolderCountDataFetcher  extends AbstractListDataFetcher<Long> {
             sqlQuery = prepareQuery(environment, filter, query);
         }
 
-        return sqlQuery.map(mapCount())
-                .one();
+        return ReadReplica.readOnly(sqlQuery.map(mapCount())
+                .one());
     }
 
     protected void applyFilter(ListFolderRequest filter, String newPrefix, StringBuilder query) {
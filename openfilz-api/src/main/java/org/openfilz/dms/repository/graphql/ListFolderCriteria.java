@@ -200,17 +200,11 @@ public class ListFolderCriteria {
     public boolean appendParentIdFilter(String prefix, StringBuilder query, ListFolderRequest request) {
         if(request.id() != null) {
             if(Boolean.TRUE.equals(request.recursive())) {
-                if(prefix != null) {
-                    query.append(prefix);
-                }
-                query.append(PARENT_ID).append(" IN (")
-                        .append("WITH RECURSIVE descendants AS (")
-                        .append("SELECT id FROM documents WHERE id = :").append(PARENT_ID)
-                        .append(" UNION ALL ")
-                        .append("SELECT d2.id FROM documents d2 ")
-                        .append("INNER JOIN descendants p ON d2.parent_id = p.id ")
-                        .append("WHERE d2.type = 'FOLDER'")
-                        .append(") SELECT id FROM descendants) ");
+                // Every document under the folder, at any depth, through the materialized path
+                String column = prefix != null ? prefix : "";
+                query.append("(").append(column).append(PATH)
+                        .append(" <@ (SELECT path FROM documents WHERE id = :").append(PARENT_ID).append(")")
+                        .append(" AND ").append(column).append(ID).append(" <> :").append(PARENT_ID).append(") ");
             } else {
                 sqlUtils.appendEqualsCriteria(prefix, PARENT_ID, query);
             }
@@ -229,7 +223,7 @@ public class ListFolderCriteria {
         if(request.pageInfo() == null) {
             throw new IllegalArgumentException("page info is required");
         }
-        if(request.pageInfo().pageNumber() == null || request.pageInfo().pageNumber() < 1 ) {
+        if(request.pageInfo().after() == null && (request.pageInfo().pageNumber() == null || request.pageInfo().pageNumber() < 1)) {
             throw new IllegalArgumentException("pageInfo.pageNumber must be greater than 1");
         }
         if(request.pageInfo().pageSize() == null || request.pageInfo().pageSize() > SqlUtils.MAX_PAGE_SIZE) {
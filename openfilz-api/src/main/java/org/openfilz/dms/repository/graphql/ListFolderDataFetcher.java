@@ -6,19 +6,29 @@ import lombok.extern.slf4j.Slf4j;
 import org.openfilz.dms.dto.request.ListFolderRequest;
 import org.openfilz.dms.dto.response.FullDocumentInfo;
 import org.openfilz.dms.entity.SqlColumnMapping;
+import org.openfilz.dms.enums.SortOrder;
 import org.openfilz.dms.mapper.DocumentMapper;
+import org.openfilz.dms.repository.ReadReplica;
 import org.openfilz.dms.utils.SqlUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
+import io.r2dbc.spi.Readable;
 import reactor.core.publisher.Flux;
 
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
 
+import static org.openfilz.dms.entity.SqlColumnMapping.*;
+import static org.openfilz.dms.utils.SqlUtils.AND;
 import static org.openfilz.dms.utils.SqlUtils.FROM_DOCUMENTS;
 import static org.openfilz.dms.utils.SqlUtils.SPACE;
+import static org.openfilz.dms.utils.SqlUtils.WHERE;
 
 @Slf4j
 @Service("defaultListFolderDataFetcher")
@@ -29,6 +39,30 @@ public class ListFolderDataFetcher extends AbstractListDataFetcher<FullDocumentI
     public static final String CASE_FOLDER = ", CASE WHEN type = 'FOLDER' THEN 0 ELSE 1 END as d_type";
     protected static final String D_TYPE = "d_type";
     protected static final String CASE_FAVORITE = ", CASE WHEN uf.doc_id IS NOT NULL THEN TRUE ELSE FALSE END as favorite";
+    protected static final String CURSOR = "cursor";
+    private static final String FOLDER_RANK = "CASE WHEN %stype = 'FOLDER' THEN 0 ELSE 1 END";
+    private static final String ID_EXPRESSION = "%sid";
+    private static final String CURSOR_RANK = "cursorRank";
+    private static final String CURSOR_VALUE = "cursorValue";
+    private static final String CURSOR_ID = "cursorId";
+
+    /**
+     * Sort key of a column usable with keyset pagination: SQL expression (with the table prefix as %s),
+     * SQL type of the cursor value, and value standing for NULL so that the key is never NULL.
+     * Expressions match the composite indexes of V1_11__add_keyset_pagination_indexes.sql.
+     */
+    private record KeysetColumn(String expression, String sqlType, String nullValue) {
+    }
+
+    private static final Map<String, KeysetColumn> KEYSET_COLUMNS = Map.of(
+            NAME, new KeysetColumn("%sname", "text", null),
+            TYPE, new KeysetColumn("%stype", "text", null),
+            CREATED_AT, new KeysetColumn("%screated_at", "timestamptz", null),
+            UPDATED_AT, new KeysetColumn("%supdated_at", "timestamptz", null),
+            SIZE, new KeysetColumn("COALESCE(%ssize, 0)", "bigint", "0"),
+            CONTENT_TYPE, new KeysetColumn("COALESCE(%scontent_type, '')", "text", ""),
+            CREATED_BY, new KeysetColumn("COALESCE(%screated_by, '')", "text", ""),
+            UPDATED_BY, new KeysetColumn("COALESCE(%supdated_by, '')", "text", ""));
 
     protected final ListFolderCriteria criteria;
 
@@ -52,24 +86,45 @@ public class ListFolderDataFetcher extends AbstractListDataFetcher<FullDocumentI
         // Check if isFavorite was requested
         boolean includeIsFavorite = getSelectedFields(environment).anyMatch(f -> f.getName().equals(SqlColumnMapping.FAVORITE));
 
-        if(filter.pageInfo() == null || filter.pageInfo().pageSize() == null || filter.pageInfo().pageNumber() == null) {
+        if(filter.pageInfo() == null || filter.pageInfo().pageSize() == null
+                || (filter.pageInfo().pageNumber() == null && filter.pageInfo().after() == null)) {
             throw new IllegalArgumentException("Paging information must be provided");
         }
+        // Keyset pagination when a cursor is given; page numbers otherwise, also emitting cursors when requested
+        boolean keyset = filter.pageInfo().after() != null;
+        PageCursor after = keyset ? checkCursor(filter) : null;
+        boolean withCursor = keyset || (getSelectedFields(environment).anyMatch(f -> f.getName().equals(CURSOR))
+                && isKeysetSortable(filter));
+        if(withCursor) {
+            sqlFields = withKeysetFields(sqlFields, filter);
+        }
         StringBuilder query = getSelectRequest(sqlFields, includeIsFavorite, filter.favorite());
 
         criteria.checkFilter(filter);
         criteria.checkPageInfo(filter);
         applyFilter(filter, prefix, query);
-        applySort(query, filter);
-        appendOffsetLimit(query, filter);
+        if(keyset) {
+            appendSeekPredicate(query, filter, after);
+            applyKeysetSort(query, filter);
+            query.append(SqlUtils.LIMIT).append(filter.pageInfo().pageSize());
+        } else {
+            applySort(query, filter, withCursor);
+            appendOffsetLimit(query, filter);
+        }
         DatabaseClient.GenericExecuteSpec sqlQuery = prepareQuery(environment, filter, query);
+        if(after != null) {
+            sqlQuery = bindCursor(sqlQuery, after);
+        }
         log.debug("GraphQL - SQL query : {}", query);
+        List<String> fields = sqlFields;
         if(includeIsFavorite) {
-            List<String> newFieldsList = new ArrayList<>(sqlFields);
-            newFieldsList.add(SqlColumnMapping.FAVORITE);
-            return getDocuments(sqlQuery, newFieldsList);
+            fields = new ArrayList<>(sqlFields);
+            fields.add(SqlColumnMapping.FAVORITE);
         }
-        return getDocuments(sqlQuery, sqlFields);
+        if(withCursor) {
+            return ReadReplica.readOnly(sqlQuery.map(mapWithCursor(fields, filter)).all());
+        }
+        return ReadReplica.readOnly(getDocuments(sqlQuery, fields));
     }
 
     private  Flux<FullDocumentInfo> getDocuments(DatabaseClient.GenericExecuteSpec sqlQuery, List<String> newFieldsList) {
@@ -112,6 +167,18 @@ public class ListFolderDataFetcher extends AbstractListDataFetcher<FullDocumentI
         }
     }
 
+    /**
+     * When cursors are emitted, pages are sorted in keyset order (with the id as tie-breaker), so that the cursor
+     * of a page can be passed as {@code after} to continue in the same order.
+     */
+    private void applySort(StringBuilder query, ListFolderRequest request, boolean withCursor) {
+        if(withCursor) {
+            applyKeysetSort(query, request);
+        } else {
+            applySort(query, request);
+        }
+    }
+
     public StringBuilder prepareSort(StringBuilder query) {
         return query.append(SqlUtils.ORDER_BY);
     }
@@ -128,6 +195,126 @@ public class ListFolderDataFetcher extends AbstractListDataFetcher<FullDocumentI
         return prefix == null ? sortBy : prefix + sortBy;
     }
 
+    private String getSortColumn(ListFolderRequest request) {
+        return request.pageInfo().sortBy() == null ? null : documentFields.getDocumentFieldSqlMap().get(request.pageInfo().sortBy());
+    }
+
+    private static SortOrder getSortOrder(ListFolderRequest request) {
+        return request.pageInfo().sortOrder() == null ? SortOrder.ASC : request.pageInfo().sortOrder();
+    }
+
+    private boolean isKeysetSortable(ListFolderRequest request) {
+        String column = getSortColumn(request);
+        return column == null || KEYSET_COLUMNS.containsKey(column);
+    }
+
+    private KeysetColumn getKeysetColumn(ListFolderRequest request) {
+        String column = getSortColumn(request);
+        if(column == null) {
+            return null;
+        }
+        KeysetColumn keysetColumn = KEYSET_COLUMNS.get(column);
+        if(keysetColumn == null) {
+            throw new IllegalArgumentException("Cursor pagination is not supported when sorting by " + request.pageInfo().sortBy());
+        }
+        return keysetColumn;
+    }
+
+    private PageCursor checkCursor(ListFolderRequest request) {
+        getKeysetColumn(request);
+        if(request.pageInfo().after() == null) {
+            return null;
+        }
+        PageCursor cursor = PageCursor.decode(request.pageInfo().after(), objectMapper);
+        if(!cursor.matches(getSortColumn(request), getSortOrder(request))) {
+            throw new IllegalArgumentException("The cursor was produced for another sort order");
+        }
+        return cursor;
+    }
+
+    /**
+     * The id and the sort column are needed to build the cursor of each element, even if not requested.
+     */
+    private List<String> withKeysetFields(List<String> sqlFields, ListFolderRequest request) {
+        List<String> fields = new ArrayList<>(sqlFields);
+        if(!fields.contains(ID)) {
+            fields.add(ID);
+        }
+        String sortColumn = getSortColumn(request);
+        if(sortColumn != null && !fields.contains(sortColumn)) {
+            fields.add(sortColumn);
+        }
+        return fields;
+    }
+
+    private String column(String expression) {
+        return expression.formatted(prefix == null ? "" : prefix);
+    }
+
+    /**
+     * Seek predicate: elements strictly after the cursor in (folder rank ASC, sort key, id) order.
+     * Folders come first whatever the sort order, so a cursor on a folder also lets every file through.
+     */
+    private void appendSeekPredicate(StringBuilder query, ListFolderRequest request, PageCursor after) {
+        if(after == null) {
+            return;
+        }
+        query.append(query.toString().contains(WHERE) ? AND : WHERE);
+        String rank = column(FOLDER_RANK);
+        String comparison = getSortOrder(request) == SortOrder.DESC ? " < " : " > ";
+        KeysetColumn keysetColumn = getKeysetColumn(request);
+        StringBuilder seek = new StringBuilder("(").append(rank).append(" = :").append(CURSOR_RANK).append(" AND ");
+        if(keysetColumn == null) {
+            seek.append(column(ID_EXPRESSION)).append(comparison).append(":").append(CURSOR_ID);
+        } else {
+            seek.append("(").append(column(keysetColumn.expression())).append(", ").append(column(ID_EXPRESSION)).append(")")
+                    .append(comparison)
+                    .append("(CAST(:").append(CURSOR_VALUE).append(" AS ").append(keysetColumn.sqlType()).append("), :")
+                    .append(CURSOR_ID).append(")");
+        }
+        seek.append(")");
+        if(after.folderRank() == 0) {
+            query.append("(").append(seek).append(" OR ").append(rank).append(" = 1) ");
+        } else {
+            query.append(seek).append(SPACE);
+        }
+    }
+
+    public void applyKeysetSort(StringBuilder query, ListFolderRequest request) {
+        String order = SPACE + getSortOrder(request);
+        prepareSort(query).append(D_TYPE);
+        KeysetColumn keysetColumn = getKeysetColumn(request);
+        if(keysetColumn != null) {
+            query.append(", ").append(column(keysetColumn.expression())).append(order);
+        }
+        query.append(", ").append(column(ID_EXPRESSION)).append(order);
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindCursor(DatabaseClient.GenericExecuteSpec query, PageCursor after) {
+        query = query.bind(CURSOR_RANK, after.folderRank()).bind(CURSOR_ID, after.id());
+        if(after.sortBy() != null) {
+            query = after.value() != null ? query.bind(CURSOR_VALUE, after.value()) : query.bindNull(CURSOR_VALUE, String.class);
+        }
+        return query;
+    }
+
+    private Function<Readable, FullDocumentInfo> mapWithCursor(List<String> fields, ListFolderRequest request) {
+        Function<Readable, FullDocumentInfo> mapping = mapFullDocumentInfo(fields);
+        String sortColumn = getSortColumn(request);
+        KeysetColumn keysetColumn = sortColumn == null ? null : KEYSET_COLUMNS.get(sortColumn);
+        SortOrder sortOrder = getSortOrder(request);
+        return row -> {
+            String value = null;
+            if(keysetColumn != null) {
+                Object sortValue = row.get(sortColumn);
+                value = sortValue == null ? keysetColumn.nullValue()
+                        : sortValue instanceof OffsetDateTime date ? date.toString() : sortValue.toString();
+            }
+            PageCursor cursor = new PageCursor(sortColumn, sortOrder, row.get(D_TYPE, Integer.class), value, row.get(ID, UUID.class));
+            return mapping.apply(row).withCursor(cursor.encode(objectMapper));
+        };
+    }
+
     public void appendOffsetLimit(StringBuilder query, ListFolderRequest request) {
         query.append(SqlUtils.LIMIT).append(request.pageInfo().pageSize())
                 .append(SqlUtils.OFFSET).append((request.pageInfo().pageNumber() - 1) * request.pageInfo().pageSize());
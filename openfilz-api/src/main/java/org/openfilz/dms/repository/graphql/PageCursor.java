@@ -0,0 +1,50 @@
+package org.openfilz.dms.repository.graphql;
+
+import org.openfilz.dms.enums.SortOrder;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position of a document in a keyset-paginated listing: the sort key tuple of the document
+ * (folders first, then the sort column, then the id as tie-breaker). Exchanged with clients
+ * as an opaque base64url string.
+ *
+ * @param sortBy     sort column the cursor was produced for, null when sorted by id only
+ * @param sortOrder  sort order the cursor was produced for
+ * @param folderRank 0 for a folder, 1 for a file
+ * @param value      value of the sort column, as text, null when sorted by id only
+ * @param id         id of the document
+ */
+public record PageCursor(String sortBy, SortOrder sortOrder, int folderRank, String value, UUID id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode(ObjectMapper objectMapper) {
+        return ENCODER.encodeToString(objectMapper.writeValueAsBytes(this));
+    }
+
+    public static PageCursor decode(String cursor, ObjectMapper objectMapper) {
+        try {
+            PageCursor decoded = objectMapper.readValue(new String(DECODER.decode(cursor), StandardCharsets.UTF_8), PageCursor.class);
+            if (decoded.id() == null) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return decoded;
+        } catch (IllegalArgumentException | JacksonException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Whether this cursor can resume a listing sorted by the given column and order.
+     */
+    public boolean matches(String column, SortOrder order) {
+        return Objects.equals(sortBy, column) && sortOrder == order;
+    }
+}
@@ -0,0 +1,123 @@
+package org.openfilz.dms.repository.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.openfilz.dms.dto.audit.AuditLogArchive;
+import org.openfilz.dms.dto.audit.AuditLogPartition;
+import org.openfilz.dms.repository.AuditArchiveDAO;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+import static org.openfilz.dms.entity.SqlTableMapping.AUDIT;
+
+@Service
+@RequiredArgsConstructor
+public class AuditArchiveDAOImpl implements AuditArchiveDAO {
+
+    private static final String CREATE_PARTITION = "SELECT create_audit_log_partition(:month)";
+
+    private static final String SELECT_PARTITIONS_BEFORE = """
+            SELECT partition_name, from_timestamp, to_timestamp FROM audit_log_partitions
+            WHERE to_timestamp <= :before
+            ORDER BY to_timestamp""";
+
+    private static final String LOCK_FOR_ARCHIVAL = """
+            SELECT pg_try_advisory_xact_lock(hashtext('audit_log_archives'))
+                   AND EXISTS(SELECT 1 FROM audit_log_partitions WHERE partition_name = :name)""";
+
+    // Partition names come from the catalog, see identifier()
+    private static final String SUMMARIZE = """
+            SELECT count(*) AS entries, MIN(id) AS first_id, MAX(id) AS last_id,
+                   (SELECT previous_hash FROM %1$s WHERE hash IS NOT NULL ORDER BY id ASC LIMIT 1) AS first_previous_hash,
+                   (SELECT hash FROM %1$s WHERE hash IS NOT NULL ORDER BY id DESC LIMIT 1) AS last_hash
+            FROM %1$s""";
+
+    private static final String SELECT_ENTRIES = "SELECT row_to_json(a)::text AS entry FROM %s a ORDER BY a.id";
+
+    private static final String INSERT_ARCHIVE = """
+            INSERT INTO audit_log_archives (partition_name, from_timestamp, to_timestamp, entries, first_id, last_id,
+                                            first_previous_hash, last_hash, storage_path, checksum)
+            VALUES (:name, :from, :to, :entries, :firstId, :lastId, :firstPreviousHash, :lastHash, :storagePath, :checksum)""";
+
+    private static final String DETACH_PARTITION = "ALTER TABLE " + AUDIT + " DETACH PARTITION %s";
+
+    private static final String DROP_PARTITION = "DROP TABLE %s";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Boolean> createPartition(LocalDate month) {
+        return databaseClient.sql(CREATE_PARTITION)
+                .bind("month", month)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    @Override
+    public Flux<AuditLogPartition> findPartitionsBefore(OffsetDateTime before) {
+        return databaseClient.sql(SELECT_PARTITIONS_BEFORE)
+                .bind("before", before)
+                .map(row -> new AuditLogPartition(
+                        row.get("partition_name", String.class),
+                        row.get("from_timestamp", OffsetDateTime.class),
+                        row.get("to_timestamp", OffsetDateTime.class)))
+                .all();
+    }
+
+    @Override
+    public Mono<Boolean> lockForArchival(AuditLogPartition partition) {
+        return databaseClient.sql(LOCK_FOR_ARCHIVAL)
+                .bind("name", partition.name())
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    @Override
+    public Mono<AuditLogArchive> summarize(AuditLogPartition partition) {
+        return databaseClient.sql(SUMMARIZE.formatted(identifier(partition)))
+                .map(row -> new AuditLogArchive(
+                        partition,
+                        row.get("entries", Long.class),
+                        row.get("first_id", Long.class),
+                        row.get("last_id", Long.class),
+                        row.get("first_previous_hash", String.class),
+                        row.get("last_hash", String.class),
+                        null,
+                        null))
+                .one();
+    }
+
+    @Override
+    public Flux<String> findEntries(AuditLogPartition partition) {
+        return databaseClient.sql(SELECT_ENTRIES.formatted(identifier(partition)))
+                .map(row -> row.get("entry", String.class))
+                .all();
+    }
+
+    @Override
+    public Mono<Void> replaceByArchive(AuditLogArchive archive) {
+        AuditLogPartition partition = archive.partition();
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_ARCHIVE)
+                .bind("name", partition.name())
+                .bind("to", partition.toTimestamp())
+                .bind("entries", archive.entries())
+                .bind("storagePath", archive.storagePath())
+                .bind("checksum", archive.checksum());
+        insert = partition.fromTimestamp() != null ? insert.bind("from", partition.fromTimestamp()) : insert.bindNull("from", OffsetDateTime.class);
+        insert = archive.firstId() != null ? insert.bind("firstId", archive.firstId()) : insert.bindNull("firstId", Long.class);
+        insert = archive.lastId() != null ? insert.bind("lastId", archive.lastId()) : insert.bindNull("lastId", Long.class);
+        insert = archive.firstPreviousHash() != null ? insert.bind("firstPreviousHash", archive.firstPreviousHash()) : insert.bindNull("firstPreviousHash", String.class);
+        insert = archive.lastHash() != null ? insert.bind("lastHash", archive.lastHash()) : insert.bindNull("lastHash", String.class);
+        return insert.then()
+                .then(databaseClient.sql(DETACH_PARTITION.formatted(identifier(partition))).then())
+                .then(databaseClient.sql(DROP_PARTITION.formatted(identifier(partition))).then());
+    }
+
+    private static String identifier(AuditLogPartition partition) {
+        return "\"" + partition.name().replace("\"", "\"\"") + "\"";
+    }
+}
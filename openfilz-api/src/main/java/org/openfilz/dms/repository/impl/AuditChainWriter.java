@@ -0,0 +1,303 @@
+package org.openfilz.dms.repository.impl;
+
+import io.r2dbc.postgresql.codec.Json;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.AuditChainProperties;
+import org.openfilz.dms.dto.audit.AuditEntry;
+import org.openfilz.dms.enums.AuditAction;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.service.AuditChainService;
+import org.openfilz.dms.utils.JsonUtils;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Group-commit writer of the hash-chained audit log.
+ * <p>
+ * Entries appended concurrently are collected for up to {@code openfilz.audit.chain.batch-delay}, chained in
+ * memory in the order they were appended, and inserted with one statement in one transaction, under the
+ * advisory lock that serializes the chain across instances. One batch is written at a time.
+ * <p>
+ * The head of the chain (last id and last hash) is kept between batches instead of being read again: the insert
+ * only happens if no other row was added since, otherwise the head is read again and the batch chained anew.
+ * <p>
+ * Entries logged within a transaction are staged in audit_log_pending by that transaction: once it commits,
+ * {@link #chainStaged()} has the next batch claim them, chain them before its own entries and delete them, in the
+ * same transaction. Staged entries left by a failed batch or a crash are claimed by the next batch chaining staged
+ * entries.
+ * <p>
+ * Timestamps never go back along the chain: an entry appended before the last one written (by another instance,
+ * or earlier in the batch) takes its timestamp. Each monthly partition of audit_logs thus holds a contiguous part
+ * of the chain, which can be archived on its own.
+ * <p>
+ * Batches are written on a connection of their own (see {@code AuditChainWriterConfig}), never on the pool of the
+ * transactions waiting for them.
+ */
+@Slf4j
+public class AuditChainWriter implements AutoCloseable {
+
+    private static final String LOCK_CHAIN = "SELECT pg_advisory_xact_lock(1)";
+
+    /**
+     * Last id and hash of the chain, the hash of the last archive when all the chained entries were archived.
+     */
+    private static final String SELECT_HEAD = """
+            SELECT (SELECT COALESCE(MAX(id), 0) FROM audit_logs) AS last_id,
+                   COALESCE((SELECT hash FROM audit_logs WHERE hash IS NOT NULL ORDER BY id DESC LIMIT 1),
+                            (SELECT last_hash FROM audit_log_archives WHERE last_hash IS NOT NULL ORDER BY last_id DESC LIMIT 1)) AS last_hash,
+                   (SELECT timestamp FROM audit_logs WHERE hash IS NOT NULL ORDER BY id DESC LIMIT 1) AS last_timestamp""";
+
+    /**
+     * Inserts a chained batch, unless the chain moved since its head was read. Ids are assigned in the order of
+     * the arrays, which is the order the hashes are computed in.
+     */
+    private static final String INSERT_CHAINED_BATCH = """
+            INSERT INTO audit_logs (timestamp, user_principal, action, resource_type, resource_id, details, previous_hash, hash)
+            SELECT e.ts, e.up, e.action, e.resource_type, e.resource_id, e.details::jsonb, e.previous_hash, e.hash
+            FROM unnest(:timestamps::timestamptz[], :users::varchar[], :actions::varchar[], :types::varchar[],
+                        :ids::uuid[], :details::text[], :previousHashes::varchar[], :hashes::varchar[])
+                 WITH ORDINALITY AS e(ts, up, action, resource_type, resource_id, details, previous_hash, hash, ord)
+            WHERE (SELECT COALESCE(MAX(id), 0) FROM audit_logs) = :lastId
+            ORDER BY e.ord
+            RETURNING id""";
+
+    /**
+     * Claims the oldest staged entries, returned in any order.
+     */
+    private static final String CLAIM_STAGED = """
+            DELETE FROM audit_log_pending
+            WHERE id IN (SELECT id FROM audit_log_pending ORDER BY id LIMIT :limit)
+            RETURNING id, timestamp, user_principal, action, resource_type, resource_id, details""";
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    // Concurrent appends contend for the sink: retry until it is free
+    private static final Sinks.EmitFailureHandler RETRY_CONCURRENT_APPEND = Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1));
+
+    /**
+     * An entry to chain, or with a null {@code entry}, a request to chain the staged entries.
+     * {@code written} is null for the staged entries.
+     */
+    private record PendingEntry(OffsetDateTime timestamp, String userPrincipal, AuditEntry entry, MonoSink<Void> written) {
+    }
+
+    private record StagedEntry(long id, PendingEntry entry) {
+    }
+
+    private record ChainHead(long lastId, String lastHash, OffsetDateTime lastTimestamp) {
+    }
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator tx;
+    private final AuditChainService auditChainService;
+    private final JsonUtils jsonUtils;
+    private final int maxBatchSize;
+    private final Disposable connection;
+
+    private final Sinks.Many<PendingEntry> pending = Sinks.many().unicast().onBackpressureBuffer();
+    private final CompletableFuture<Void> terminated;
+
+    /**
+     * Head of the chain after the last batch written by this instance, null until read.
+     * Only accessed by the batch being written.
+     */
+    private ChainHead head;
+
+    /**
+     * @param connection released when the writer is closed, if not null
+     */
+    public AuditChainWriter(DatabaseClient databaseClient, TransactionalOperator tx, AuditChainService auditChainService,
+                            JsonUtils jsonUtils, AuditChainProperties properties, Disposable connection) {
+        this.databaseClient = databaseClient;
+        this.tx = tx;
+        this.auditChainService = auditChainService;
+        this.jsonUtils = jsonUtils;
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.connection = connection;
+        this.terminated = pending.asFlux()
+                .bufferTimeout(properties.getMaxBatchSize(), properties.getBatchDelay(), true)
+                .concatMap(this::writeBatch)
+                .then()
+                .toFuture();
+    }
+
+    /**
+     * Appends entries to the chain, in their order.
+     * @return completes once every entry is committed, or errors if the batch holding one of them failed
+     */
+    public Mono<Void> append(OffsetDateTime timestamp, String userPrincipal, List<AuditEntry> entries) {
+        return Mono.when(entries.stream()
+                .map(entry -> Mono.<Void>create(written ->
+                        pending.emitNext(new PendingEntry(timestamp, userPrincipal, entry, written), RETRY_CONCURRENT_APPEND)))
+                .toList());
+    }
+
+    /**
+     * Chains the entries staged by the transactions committed so far.
+     * @return completes once a batch claiming them is committed, or errors if it failed (they stay staged)
+     */
+    public Mono<Void> chainStaged() {
+        return Mono.create(written ->
+                pending.emitNext(new PendingEntry(null, null, null, written), RETRY_CONCURRENT_APPEND));
+    }
+
+    private Mono<Void> writeBatch(List<PendingEntry> batch) {
+        boolean chainStaged = batch.stream().anyMatch(entry -> entry.entry() == null);
+        List<PendingEntry> appended = batch.stream().filter(entry -> entry.entry() != null).toList();
+        AtomicReference<ChainHead> written = new AtomicReference<>();
+        AtomicBoolean moreStaged = new AtomicBoolean();
+        return databaseClient.sql(LOCK_CHAIN).then()
+                .then(chainStaged ? claimStaged() : Mono.just(List.<PendingEntry>of()))
+                .doOnNext(staged -> moreStaged.set(staged.size() == maxBatchSize))
+                .map(staged -> {
+                    List<PendingEntry> entries = new ArrayList<>(staged);
+                    entries.addAll(appended);
+                    return entries;
+                })
+                .filter(entries -> !entries.isEmpty())
+                .flatMap(entries -> insert(entries, head, true))
+                .doOnNext(written::set)
+                .then()
+                .as(tx::transactional)
+                // Committed
+                .doOnSuccess(_ -> {
+                    if (written.get() != null) {
+                        head = written.get();
+                    }
+                    batch.forEach(entry -> entry.written().success());
+                    if (moreStaged.get()) {
+                        chainStaged().onErrorComplete().subscribe();
+                    }
+                })
+                .doOnError(e -> {
+                    head = null;
+                    log.error("Failed to write {} chained audit entries: {}", batch.size(), e.getMessage());
+                    batch.forEach(entry -> entry.written().error(e));
+                })
+                .onErrorComplete()
+                .then();
+    }
+
+    /**
+     * Staged entries in the order they were staged, at most {@code maxBatchSize}.
+     */
+    private Mono<List<PendingEntry>> claimStaged() {
+        return databaseClient.sql(CLAIM_STAGED)
+                .bind("limit", maxBatchSize)
+                .map(row -> {
+                    String type = row.get("resource_type", String.class);
+                    AuditEntry entry = new AuditEntry(AuditAction.valueOf(row.get("action", String.class)),
+                            type != null ? DocumentType.valueOf(type) : null,
+                            row.get("resource_id", UUID.class),
+                            jsonUtils.toAudiLogDetails(row.get("details", Json.class)));
+                    return new StagedEntry(row.get("id", Long.class),
+                            new PendingEntry(row.get("timestamp", OffsetDateTime.class), row.get("user_principal", String.class), entry, null));
+                })
+                .all()
+                .sort(Comparator.comparingLong(StagedEntry::id))
+                .map(StagedEntry::entry)
+                .collectList();
+    }
+
+    /**
+     * Chains the batch after {@code from}, the head known before the lock was taken, and inserts it.
+     * If the chain moved in between (or on the first batch), reads the head under the lock and chains again.
+     */
+    private Mono<ChainHead> insert(List<PendingEntry> batch, ChainHead from, boolean retry) {
+        if(from == null) {
+            return readHead().flatMap(current -> insert(batch, current, false));
+        }
+        int size = batch.size();
+        String[] timestamps = new String[size];
+        String[] users = new String[size];
+        String[] actions = new String[size];
+        String[] resourceTypes = new String[size];
+        UUID[] resourceIds = new UUID[size];
+        String[] details = new String[size];
+        String[] previousHashes = new String[size];
+        String[] hashes = new String[size];
+        String previousHash = from.lastHash();
+        OffsetDateTime previousTimestamp = from.lastTimestamp();
+        for (int i = 0; i < size; i++) {
+            PendingEntry pendingEntry = batch.get(i);
+            AuditEntry entry = pendingEntry.entry();
+            OffsetDateTime timestamp = previousTimestamp != null && pendingEntry.timestamp().isBefore(previousTimestamp)
+                    ? previousTimestamp : pendingEntry.timestamp();
+            timestamps[i] = timestamp.toString();
+            users[i] = pendingEntry.userPrincipal();
+            actions[i] = entry.action().toString();
+            resourceTypes[i] = entry.resourceType() != null ? entry.resourceType().toString() : null;
+            resourceIds[i] = entry.resourceId();
+            details[i] = entry.details() != null ? jsonUtils.toJson(entry.details()).asString() : null;
+            previousHashes[i] = previousHash;
+            hashes[i] = auditChainService.computeHash(timestamp, pendingEntry.userPrincipal(), entry.action(),
+                    entry.resourceType(), entry.resourceId(), entry.details(), previousHash);
+            previousHash = hashes[i];
+            previousTimestamp = timestamp;
+        }
+        String lastHash = previousHash;
+        OffsetDateTime lastTimestamp = previousTimestamp;
+        return databaseClient.sql(INSERT_CHAINED_BATCH)
+                .bind("timestamps", timestamps)
+                .bind("users", users)
+                .bind("actions", actions)
+                .bind("types", resourceTypes)
+                .bind("ids", resourceIds)
+                .bind("details", details)
+                .bind("previousHashes", previousHashes)
+                .bind("hashes", hashes)
+                .bind("lastId", from.lastId())
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .reduce(Math::max)
+                .map(lastId -> new ChainHead(lastId, lastHash, lastTimestamp))
+                .switchIfEmpty(Mono.defer(() -> {
+                    if(!retry) {
+                        return Mono.error(new IllegalStateException("Audit chain head moved while holding the chain lock"));
+                    }
+                    log.debug("Audit chain extended by another writer, reading its head again");
+                    return readHead().flatMap(current -> insert(batch, current, false));
+                }));
+    }
+
+    private Mono<ChainHead> readHead() {
+        return databaseClient.sql(SELECT_HEAD)
+                .map(row -> {
+                    String lastHash = row.get("last_hash", String.class);
+                    return new ChainHead(row.get("last_id", Long.class),
+                            lastHash != null ? lastHash : auditChainService.computeGenesisHash(),
+                            row.get("last_timestamp", OffsetDateTime.class));
+                })
+                .one();
+    }
+
+    /**
+     * Writes the entries already appended before returning.
+     */
+    @Override
+    public void close() throws Exception {
+        pending.emitComplete(RETRY_CONCURRENT_APPEND);
+        try {
+            terminated.get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            if (connection != null) {
+                connection.dispose();
+            }
+        }
+    }
+}
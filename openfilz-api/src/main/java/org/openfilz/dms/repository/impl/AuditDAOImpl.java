@@ -6,23 +6,31 @@ import io.r2dbc.postgresql.codec.Json;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.openfilz.dms.config.AuditChainProperties;
+import org.openfilz.dms.dto.audit.AuditChainCheckpoint;
+import org.openfilz.dms.dto.audit.AuditEntry;
 import org.openfilz.dms.dto.audit.AuditLog;
+import org.openfilz.dms.dto.audit.AuditLogCursor;
 import org.openfilz.dms.dto.audit.IAuditLogDetails;
 import org.openfilz.dms.dto.request.SearchByAuditLogRequest;
 import org.openfilz.dms.enums.AuditAction;
 import org.openfilz.dms.enums.DocumentType;
 import org.openfilz.dms.enums.SortOrder;
 import org.openfilz.dms.repository.AuditDAO;
-import org.openfilz.dms.service.AuditChainService;
+import org.openfilz.dms.repository.ReadReplica;
 import org.openfilz.dms.utils.JsonUtils;
+import org.openfilz.dms.utils.SqlUtils;
 import org.openfilz.dms.utils.UserInfoService;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.UUID;
 
 import static org.openfilz.dms.utils.SqlUtils.isFirst;
@@ -32,36 +40,53 @@ import static org.openfilz.dms.utils.SqlUtils.isFirst;
 @Slf4j
 public class AuditDAOImpl implements AuditDAO, UserInfoService {
 
+    /**
+     * Inserts a chunk of entries in one statement, into audit_logs (unchained) or audit_log_pending (staged).
+     * Chained entries are written by {@link AuditChainWriter}.
+     */
+    private static final String INSERT_BATCH = """
+            INSERT INTO %s (timestamp, user_principal, action, resource_type, resource_id, details)
+            SELECT :ts, :up, e.action, e.resource_type, e.resource_id, e.details::jsonb
+            FROM unnest(:actions::varchar[], :types::varchar[], :ids::uuid[], :details::text[])
+                 WITH ORDINALITY AS e(action, resource_type, resource_id, details, ord)
+            ORDER BY e.ord""";
+
+    private static final String INSERT_UNCHAINED = INSERT_BATCH.formatted("audit_logs");
+
+    private static final String INSERT_STAGED = INSERT_BATCH.formatted("audit_log_pending");
+
+    private static final String SELECT_ENTRIES = "SELECT id, resource_id, timestamp, user_principal, action, resource_type, details, previous_hash, hash FROM audit_logs";
+
+    private static final int BATCH_CHUNK_SIZE = 1000;
+
+    /**
+     * Rows fetched at a time when all the matching entries are streamed.
+     */
+    private static final int STREAM_FETCH_SIZE = 1000;
+
     private final DatabaseClient databaseClient;
     private final ObjectMapper objectMapper;
     private final JsonUtils jsonUtils;
     private final AuditChainProperties chainProperties;
-    private final AuditChainService auditChainService;
-    private final TransactionalOperator tx;
+    private final AuditChainWriter auditChainWriter;
 
     @Override
-    public Flux<AuditLog> getAuditTrail(UUID resourceId, SortOrder sort) {
-        String sql = "SELECT timestamp, user_principal, action, resource_type, details, previous_hash, hash FROM audit_logs WHERE resource_id = :resourceId ORDER BY timestamp " + sort.toString();
-        return databaseClient.sql(sql)
-                .bind("resourceId", resourceId)
-                .map(row -> {
-                    String type = row.get("resource_type", String.class);
-                    return new AuditLog(
-                            null,
-                            row.get("timestamp", OffsetDateTime.class),
-                            row.get("user_principal", String.class),
-                            AuditAction.valueOf(row.get("action", String.class)),
-                            type != null ? DocumentType.valueOf(type) : null,
-                            jsonUtils.toAudiLogDetails(row.get("details", Json.class)),
-                            row.get("previous_hash", String.class),
-                            row.get("hash", String.class)
-                    );
-                }).all();
+    public Flux<AuditLog> getAuditTrail(UUID resourceId, SortOrder sort, Integer pageSize, String after) {
+        AuditLogCursor cursor = checkPage(sort, pageSize, after);
+        StringBuilder sql = new StringBuilder(SELECT_ENTRIES).append(" WHERE resource_id = :resourceId ");
+        appendPage(sql, false, sort, pageSize, cursor);
+        DatabaseClient.GenericExecuteSpec query = bindCursor(databaseClient.sql(sql.toString()).bind("resourceId", resourceId), cursor);
+        // The resource is the one requested
+        return readEntries(query, sort, pageSize)
+                .map(entry -> new AuditLog(null, entry.timestamp(), entry.username(), entry.action(), entry.resourceType(),
+                        entry.details(), entry.previousHash(), entry.hash(), entry.cursor()));
     }
 
     @Override
     public Flux<AuditLog> searchAuditTrail(SearchByAuditLogRequest request) {
-        StringBuilder sql = new StringBuilder("SELECT resource_id, timestamp, user_principal, action, resource_type, details, previous_hash, hash FROM audit_logs");
+        SortOrder sort = request.sort() != null ? request.sort() : SortOrder.DESC;
+        AuditLogCursor cursor = checkPage(sort, request.pageSize(), request.after());
+        StringBuilder sql = new StringBuilder(SELECT_ENTRIES);
         boolean first = true;
         boolean idCriteria = request.id() != null;
         if(idCriteria) {
@@ -85,9 +110,21 @@ public class AuditDAOImpl implements AuditDAO, UserInfoService {
         }
         boolean detailsCriteria = request.details() != null && !request.details().isEmpty();
         if(detailsCriteria) {
-            isFirst(first, sql);
+            first = isFirst(first, sql);
             sql.append("details @> :details::jsonb ");
         }
+        // Time bounds restrict the search to the matching partitions
+        boolean fromCriteria = request.from() != null;
+        if(fromCriteria) {
+            first = isFirst(first, sql);
+            sql.append("timestamp >= :from ");
+        }
+        boolean toCriteria = request.to() != null;
+        if(toCriteria) {
+            first = isFirst(first, sql);
+            sql.append("timestamp < :to ");
+        }
+        appendPage(sql, first, sort, request.pageSize(), cursor);
         DatabaseClient.GenericExecuteSpec query = databaseClient.sql(sql.toString());
         if(idCriteria) {
             query = query.bind("id", request.id());
@@ -110,19 +147,72 @@ public class AuditDAOImpl implements AuditDAO, UserInfoService {
             }
         }
 
-        return query.map(row -> {
-                    String type = row.get("resource_type", String.class);
-                    return new AuditLog(
-                        row.get("resource_id", UUID.class),
-                        row.get("timestamp", OffsetDateTime.class),
-                        row.get("user_principal", String.class),
-                        AuditAction.valueOf(row.get("action", String.class)),
-                        type != null ? DocumentType.valueOf(type) : null,
-                        jsonUtils.toAudiLogDetails(row.get("details", Json.class)),
-                        row.get("previous_hash", String.class),
-                        row.get("hash", String.class));
-                })
-                .all();
+        if(fromCriteria) {
+            query = query.bind("from", request.from());
+        }
+        if(toCriteria) {
+            query = query.bind("to", request.to());
+        }
+        return readEntries(bindCursor(query, cursor), sort, request.pageSize());
+    }
+
+    private AuditLogCursor checkPage(SortOrder sort, Integer pageSize, String after) {
+        if(pageSize == null) {
+            if(after != null) {
+                throw new IllegalArgumentException("pageSize is required to request the entries after a cursor");
+            }
+            return null;
+        }
+        if(pageSize < 1 || pageSize > SqlUtils.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("pageSize must be between 1 and " + SqlUtils.MAX_PAGE_SIZE);
+        }
+        if(after == null) {
+            return null;
+        }
+        AuditLogCursor cursor = AuditLogCursor.decode(after, objectMapper);
+        if(cursor.sortOrder() != sort) {
+            throw new IllegalArgumentException("The cursor was produced for another sort order");
+        }
+        return cursor;
+    }
+
+    /**
+     * Seek predicate, order and limit of a page: the entries strictly after the cursor in (timestamp, id) order,
+     * served by the timestamp indexes of the partitions.
+     */
+    private void appendPage(StringBuilder sql, boolean first, SortOrder sort, Integer pageSize, AuditLogCursor cursor) {
+        if(cursor != null) {
+            isFirst(first, sql);
+            sql.append("(timestamp, id) ").append(sort == SortOrder.DESC ? "<" : ">").append(" (:cursorTimestamp, :cursorId) ");
+        }
+        sql.append(SqlUtils.ORDER_BY).append("timestamp ").append(sort).append(", id ").append(sort);
+        if(pageSize != null) {
+            sql.append(SqlUtils.LIMIT).append(pageSize);
+        }
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindCursor(DatabaseClient.GenericExecuteSpec query, AuditLogCursor cursor) {
+        if(cursor == null) {
+            return query;
+        }
+        return query.bind("cursorTimestamp", cursor.timestamp())
+                .bind("cursorId", cursor.id());
+    }
+
+    /**
+     * A page of entries, each with its cursor. Without page size, the rows are fetched by chunks as the response is
+     * consumed (streamed as NDJSON), instead of the whole result set being read into memory.
+     */
+    private Flux<AuditLog> readEntries(DatabaseClient.GenericExecuteSpec query, SortOrder sort, Integer pageSize) {
+        if(pageSize == null) {
+            return ReadReplica.readOnly(query.filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                    .map(this::mapEntry)
+                    .all());
+        }
+        return ReadReplica.readOnly(query.map(row -> mapEntry(row)
+                        .withCursor(new AuditLogCursor(sort, row.get("timestamp", OffsetDateTime.class), row.get("id", Long.class))
+                                .encode(objectMapper)))
+                .all());
     }
 
     @Override
@@ -166,58 +256,94 @@ public class AuditDAOImpl implements AuditDAO, UserInfoService {
     }
 
     private Mono<Void> logActionWithChain(AuditAction action, DocumentType resourceType, UUID resourceId, IAuditLogDetails details) {
+        return getConnectedUserEmail()
+                .flatMap(username -> appendToChain(username != null ? username : "SYSTEM",
+                        List.of(new AuditEntry(action, resourceType, resourceId, details))))
+                .doOnError(e -> log.error("Failed to log chained audit action {}: {}", action, e.getMessage()))
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    /**
+     * Appends the entries to the chain through the group-commit writer. Within a transaction, they are staged by the
+     * transaction, so that they are committed with the change they audit and a rollback logs nothing, and chained
+     * once it commits without the chain lock being held by the transaction; the commit completes once they are
+     * chained. If chaining them fails, they stay staged until the next entries staged are chained.
+     */
+    private Mono<Void> appendToChain(String userPrincipal, List<AuditEntry> entries) {
+        // Precision of timestamptz: the stored timestamp must be the one hashed
+        OffsetDateTime timestamp = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .map(synchronizationManager -> {
+                    synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return auditChainWriter.chainStaged()
+                                    .doOnError(e -> log.error("Failed to chain the staged audit actions, kept staged: {}", e.getMessage()))
+                                    .onErrorResume(e -> Mono.empty());
+                        }
+                    });
+                    return true;
+                })
+                .onErrorReturn(NoTransactionException.class, false)
+                .defaultIfEmpty(false)
+                .flatMap(staged -> staged
+                        ? insertBatches(INSERT_STAGED, timestamp, userPrincipal, entries)
+                        : auditChainWriter.append(timestamp, userPrincipal, entries));
+    }
+
+    @Override
+    public Mono<Void> chainStagedEntries() {
+        return auditChainWriter.chainStaged();
+    }
+
+    @Override
+    public Mono<Void> logActions(List<AuditEntry> entries) {
+        if (entries.isEmpty()) {
+            return Mono.empty();
+        }
         return getConnectedUserEmail()
                 .flatMap(username -> {
                     String userPrincipal = username != null ? username : "SYSTEM";
-                    OffsetDateTime timestamp = OffsetDateTime.now();
-
-                    // Acquire advisory lock, read last hash, compute new hash, insert — all in one transaction
-                    Mono<Void> chainedInsert = databaseClient.sql("SELECT pg_advisory_xact_lock(1)")
-                            .then()
-                            .then(getLastHash()
-                                    .defaultIfEmpty(auditChainService.computeGenesisHash())
-                            )
-                            .flatMap(previousHash -> {
-                                String newHash = auditChainService.computeHash(
-                                        timestamp, userPrincipal, action, resourceType, resourceId, details, previousHash);
-
-                                StringBuilder sql = new StringBuilder(
-                                        "INSERT INTO audit_logs (timestamp, user_principal, action, resource_type, resource_id, previous_hash, hash");
-                                if (details != null) {
-                                    sql.append(", details) VALUES (:ts, :up, :act, :rt, :rid, :ph, :h, :det)");
-                                } else {
-                                    sql.append(") VALUES (:ts, :up, :act, :rt, :rid, :ph, :h)");
-                                }
-
-                                DatabaseClient.GenericExecuteSpec executeSpec = databaseClient.sql(sql.toString())
-                                        .bind("ts", timestamp)
-                                        .bind("up", userPrincipal)
-                                        .bind("act", action.toString())
-                                        .bind("ph", previousHash)
-                                        .bind("h", newHash);
-
-                                if (details != null) {
-                                    executeSpec = executeSpec.bind("det", jsonUtils.toJson(details));
-                                }
-                                if (resourceType != null) {
-                                    executeSpec = executeSpec.bind("rt", resourceType.toString());
-                                } else {
-                                    executeSpec = executeSpec.bindNull("rt", String.class);
-                                }
-                                if (resourceId != null) {
-                                    executeSpec = executeSpec.bind("rid", resourceId);
-                                } else {
-                                    executeSpec = executeSpec.bindNull("rid", UUID.class);
-                                }
-                                return executeSpec.then();
-                            });
-
-                    return chainedInsert.as(tx::transactional);
+                    if (chainProperties.isEnabled()) {
+                        return appendToChain(userPrincipal, entries);
+                    }
+                    return insertBatches(INSERT_UNCHAINED, OffsetDateTime.now(), userPrincipal, entries);
                 })
-                .doOnError(e -> log.error("Failed to log chained audit action {}: {}", action, e.getMessage()))
+                .doOnError(e -> log.error("Failed to log {} audit actions: {}", entries.size(), e.getMessage()))
                 .onErrorResume(e -> Mono.empty());
     }
 
+    private Mono<Void> insertBatches(String sql, OffsetDateTime timestamp, String userPrincipal, List<AuditEntry> entries) {
+        return Flux.fromIterable(entries)
+                .buffer(BATCH_CHUNK_SIZE)
+                .concatMap(chunk -> insertBatch(sql, timestamp, userPrincipal, chunk))
+                .then();
+    }
+
+    private Mono<Void> insertBatch(String sql, OffsetDateTime timestamp, String userPrincipal, List<AuditEntry> chunk) {
+        int size = chunk.size();
+        String[] actions = new String[size];
+        String[] resourceTypes = new String[size];
+        UUID[] resourceIds = new UUID[size];
+        String[] details = new String[size];
+        for (int i = 0; i < size; i++) {
+            AuditEntry entry = chunk.get(i);
+            actions[i] = entry.action().toString();
+            resourceTypes[i] = entry.resourceType() != null ? entry.resourceType().toString() : null;
+            resourceIds[i] = entry.resourceId();
+            details[i] = entry.details() != null ? jsonUtils.toJson(entry.details()).asString() : null;
+        }
+        return databaseClient.sql(sql)
+                .bind("ts", timestamp)
+                .bind("up", userPrincipal)
+                .bind("actions", actions)
+                .bind("types", resourceTypes)
+                .bind("ids", resourceIds)
+                .bind("details", details)
+                .then();
+    }
+
     @Override
     public Mono<String> getLastHash() {
         return databaseClient.sql("SELECT hash FROM audit_logs WHERE hash IS NOT NULL ORDER BY id DESC LIMIT 1")
@@ -227,7 +353,8 @@ public class AuditDAOImpl implements AuditDAO, UserInfoService {
 
     @Override
     public Mono<Boolean> isChainInitialized() {
-        return databaseClient.sql("SELECT EXISTS(SELECT 1 FROM audit_logs WHERE action = 'CHAIN_GENESIS')")
+        // The genesis entry may have been archived with its partition
+        return databaseClient.sql("SELECT EXISTS(SELECT 1 FROM audit_logs WHERE action = 'CHAIN_GENESIS') OR EXISTS(SELECT 1 FROM audit_log_archives WHERE last_hash IS NOT NULL)")
                 .map(row -> row.get(0, Boolean.class))
                 .one()
                 .defaultIfEmpty(false);
@@ -236,7 +363,7 @@ public class AuditDAOImpl implements AuditDAO, UserInfoService {
     @Override
     public Flux<AuditLog> getChainedEntries() {
         return databaseClient.sql("SELECT id, timestamp, user_principal, action, resource_type, resource_id, details, previous_hash, hash FROM audit_logs WHERE hash IS NOT NULL ORDER BY id ASC")
-                .map(this::mapChainedRow)
+                .map(this::mapEntry)
                 .all();
     }
 
@@ -245,11 +372,54 @@ public class AuditDAOImpl implements AuditDAO, UserInfoService {
         return databaseClient.sql("SELECT id, timestamp, user_principal, action, resource_type, resource_id, details, previous_hash, hash FROM audit_logs WHERE hash IS NOT NULL AND id >= :fromId AND id <= :toId ORDER BY id ASC")
                 .bind("fromId", fromId)
                 .bind("toId", toId)
-                .map(this::mapChainedRow)
+                .map(this::mapEntry)
                 .all();
     }
 
-    private AuditLog mapChainedRow(io.r2dbc.spi.Readable row) {
+    @Override
+    public Mono<Long> getFirstChainedId() {
+        return databaseClient.sql("SELECT id FROM audit_logs WHERE hash IS NOT NULL ORDER BY id ASC LIMIT 1")
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    @Override
+    public Mono<String> getArchivedHashBefore(long id) {
+        return databaseClient.sql("SELECT last_hash FROM audit_log_archives WHERE last_id < :id AND last_hash IS NOT NULL ORDER BY last_id DESC LIMIT 1")
+                .bind("id", id)
+                .map(row -> row.get("last_hash", String.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Long> getLastChainedId() {
+        return databaseClient.sql("SELECT id FROM audit_logs WHERE hash IS NOT NULL ORDER BY id DESC LIMIT 1")
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    @Override
+    public Mono<AuditChainCheckpoint> getVerificationCheckpoint() {
+        return databaseClient.sql("SELECT last_id, last_hash, verified_entries, verified_at FROM audit_chain_checkpoints ORDER BY id DESC LIMIT 1")
+                .map(row -> new AuditChainCheckpoint(
+                        row.get("last_id", Long.class),
+                        row.get("last_hash", String.class),
+                        row.get("verified_entries", Long.class),
+                        row.get("verified_at", OffsetDateTime.class)))
+                .one();
+    }
+
+    @Override
+    public Mono<Void> saveVerificationCheckpoint(AuditChainCheckpoint checkpoint) {
+        return databaseClient.sql("INSERT INTO audit_chain_checkpoints (last_id, last_hash, verified_entries, verified_at) VALUES (:lastId, :lastHash, :verifiedEntries, :verifiedAt)")
+                .bind("lastId", checkpoint.lastId())
+                .bind("lastHash", checkpoint.lastHash())
+                .bind("verifiedEntries", checkpoint.verifiedEntries())
+                .bind("verifiedAt", checkpoint.verifiedAt())
+                .then();
+    }
+
+    private AuditLog mapEntry(io.r2dbc.spi.Readable row) {
         String type = row.get("resource_type", String.class);
         UUID resourceId = row.get("resource_id", UUID.class);
         return new AuditLog(
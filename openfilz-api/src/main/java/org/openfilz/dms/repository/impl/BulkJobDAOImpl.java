@@ -0,0 +1,241 @@
+package org.openfilz.dms.repository.impl;
+
+import io.r2dbc.postgresql.codec.Json;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.openfilz.dms.dto.BulkJob;
+import org.openfilz.dms.dto.response.BulkJobError;
+import org.openfilz.dms.enums.BulkJobStatus;
+import org.openfilz.dms.enums.BulkJobType;
+import org.openfilz.dms.repository.BulkJobDAO;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.openfilz.dms.entity.SqlTableMapping.BULK_JOB;
+
+@Service
+@RequiredArgsConstructor
+public class BulkJobDAOImpl implements BulkJobDAO {
+
+    private static final TypeReference<List<BulkJobError>> ERRORS_TYPE = new TypeReference<>() {};
+
+    private static final String COLUMNS = "id, type, status, owner, document_ids, target_folder_id, allow_duplicate_file_names, " +
+            "total_items, processed_items, failed_items, result_ids, errors, error, archive_path, attempts, " +
+            "created_at, started_at, finished_at";
+    private static final String RUNNING_ON_WORKER = " WHERE id = :id AND status = 'RUNNING' AND worker_id = :workerId";
+    private static final String STALE = "status = 'RUNNING' AND heartbeat_at < now() - :staleTimeoutMs * INTERVAL '1 millisecond'";
+
+    private static final String INSERT = "INSERT INTO " + BULK_JOB + " (id, type, status, owner, document_ids, target_folder_id, " +
+            "allow_duplicate_file_names, total_items, created_at) VALUES " +
+            "(:id, :type, :status, :owner, :documentIds, :targetFolderId, :allowDuplicateFileNames, :totalItems, :createdAt)";
+    private static final String FIND_BY_ID = "SELECT " + COLUMNS + " FROM " + BULK_JOB + " WHERE id = :id AND owner = :owner";
+    private static final String FIND_BY_OWNER = "SELECT " + COLUMNS + " FROM " + BULK_JOB + " WHERE owner = :owner";
+    private static final String AND_STATUS = " AND status = :status";
+    private static final String MOST_RECENT_FIRST = " ORDER BY created_at DESC LIMIT :limit";
+    private static final String CLAIM = """
+            UPDATE %1$s j SET status = 'RUNNING', worker_id = :workerId, attempts = j.attempts + 1,
+                started_at = COALESCE(j.started_at, now()), heartbeat_at = now()
+            FROM (SELECT id FROM %1$s
+                  WHERE (status = 'PENDING' OR (%2$s)) AND attempts < :maxAttempts
+                  ORDER BY created_at
+                  LIMIT :limit
+                  FOR UPDATE SKIP LOCKED) c
+            WHERE j.id = c.id
+            RETURNING j.*
+            """.formatted(BULK_JOB, STALE);
+    private static final String FAIL_ABANDONED = "UPDATE " + BULK_JOB + " SET status = 'FAILED', finished_at = now(), " +
+            "error = 'The job was interrupted too many times' WHERE " + STALE + " AND attempts >= :maxAttempts";
+    private static final String CHECKPOINT = "UPDATE " + BULK_JOB + " SET processed_items = :processedItems, heartbeat_at = now()" +
+            RUNNING_ON_WORKER;
+    private static final String ADD_RESULTS = "UPDATE " + BULK_JOB + " SET result_ids = result_ids || :resultIds WHERE id = :id";
+    private static final String RECORD_FAILURES = "UPDATE " + BULK_JOB + " SET processed_items = :processedItems, " +
+            "failed_items = failed_items + :failedItems, errors = errors || CAST(:errors AS jsonb), heartbeat_at = now()" +
+            RUNNING_ON_WORKER;
+    private static final String COMPLETE = "UPDATE " + BULK_JOB + " SET status = 'COMPLETED', processed_items = total_items, " +
+            "archive_path = :archivePath, finished_at = now()" + RUNNING_ON_WORKER;
+    private static final String FAIL = "UPDATE " + BULK_JOB + " SET status = 'FAILED', error = :error, finished_at = now()" +
+            RUNNING_ON_WORKER;
+    private static final String CANCEL = "UPDATE " + BULK_JOB + " SET status = 'CANCELLED', finished_at = now() " +
+            "WHERE id = :id AND owner = :owner AND status IN ('PENDING', 'RUNNING') RETURNING " + COLUMNS;
+    private static final String HEARTBEAT = "UPDATE " + BULK_JOB + " SET heartbeat_at = now() WHERE id IN (SELECT id FROM " + BULK_JOB +
+            " WHERE status = 'RUNNING' AND worker_id = :workerId FOR UPDATE SKIP LOCKED)";
+    private static final String DELETE_EXPIRED = "DELETE FROM " + BULK_JOB +
+            " WHERE finished_at < now() - :retentionMs * INTERVAL '1 millisecond' RETURNING " + COLUMNS;
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> create(BulkJob job) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT)
+                .bind("id", job.id())
+                .bind("type", job.type().name())
+                .bind("status", job.status().name())
+                .bind("owner", job.owner())
+                .bind("documentIds", job.documentIds().toArray(UUID[]::new))
+                .bind("totalItems", job.totalItems())
+                .bind("createdAt", job.createdAt());
+        spec = job.targetFolderId() != null
+                ? spec.bind("targetFolderId", job.targetFolderId())
+                : spec.bindNull("targetFolderId", UUID.class);
+        spec = job.allowDuplicateFileNames() != null
+                ? spec.bind("allowDuplicateFileNames", job.allowDuplicateFileNames())
+                : spec.bindNull("allowDuplicateFileNames", Boolean.class);
+        return spec.then();
+    }
+
+    @Override
+    public Mono<BulkJob> findById(UUID id, String owner) {
+        return databaseClient.sql(FIND_BY_ID)
+                .bind("id", id)
+                .bind("owner", owner)
+                .map(this::toJob)
+                .one();
+    }
+
+    @Override
+    public Flux<BulkJob> findByOwner(String owner, BulkJobStatus status, int limit) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(FIND_BY_OWNER + (status != null ? AND_STATUS : "") + MOST_RECENT_FIRST)
+                .bind("owner", owner)
+                .bind("limit", limit);
+        if (status != null) {
+            spec = spec.bind("status", status.name());
+        }
+        return spec.map(this::toJob).all();
+    }
+
+    @Override
+    public Flux<BulkJob> claim(String workerId, int limit, Duration staleTimeout, int maxAttempts) {
+        return databaseClient.sql(CLAIM)
+                .bind("workerId", workerId)
+                .bind("limit", limit)
+                .bind("staleTimeoutMs", staleTimeout.toMillis())
+                .bind("maxAttempts", maxAttempts)
+                .map(this::toJob)
+                .all();
+    }
+
+    @Override
+    public Mono<Long> failAbandoned(Duration staleTimeout, int maxAttempts) {
+        return databaseClient.sql(FAIL_ABANDONED)
+                .bind("staleTimeoutMs", staleTimeout.toMillis())
+                .bind("maxAttempts", maxAttempts)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @Override
+    public Mono<Boolean> checkpoint(UUID id, String workerId, int processedItems) {
+        return databaseClient.sql(CHECKPOINT)
+                .bind("id", id)
+                .bind("workerId", workerId)
+                .bind("processedItems", processedItems)
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<Void> addResults(UUID id, List<UUID> resultIds) {
+        if (resultIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(ADD_RESULTS)
+                .bind("id", id)
+                .bind("resultIds", resultIds.toArray(UUID[]::new))
+                .then();
+    }
+
+    @Override
+    public Mono<Boolean> recordFailures(UUID id, String workerId, int processedItems, List<BulkJobError> errors) {
+        return databaseClient.sql(RECORD_FAILURES)
+                .bind("id", id)
+                .bind("workerId", workerId)
+                .bind("processedItems", processedItems)
+                .bind("failedItems", errors.size())
+                .bind("errors", objectMapper.writeValueAsString(errors))
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<Boolean> complete(UUID id, String workerId, String archivePath) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(COMPLETE)
+                .bind("id", id)
+                .bind("workerId", workerId);
+        spec = archivePath != null ? spec.bind("archivePath", archivePath) : spec.bindNull("archivePath", String.class);
+        return spec.fetch()
+                .rowsUpdated()
+                .map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<Boolean> fail(UUID id, String workerId, String error) {
+        return databaseClient.sql(FAIL)
+                .bind("id", id)
+                .bind("workerId", workerId)
+                .bind("error", error != null ? error : "Unexpected error")
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<BulkJob> cancel(UUID id, String owner) {
+        return databaseClient.sql(CANCEL)
+                .bind("id", id)
+                .bind("owner", owner)
+                .map(this::toJob)
+                .one();
+    }
+
+    @Override
+    public Mono<Long> heartbeat(String workerId) {
+        return databaseClient.sql(HEARTBEAT)
+                .bind("workerId", workerId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @Override
+    public Flux<BulkJob> deleteExpired(Duration retention) {
+        return databaseClient.sql(DELETE_EXPIRED)
+                .bind("retentionMs", retention.toMillis())
+                .map(this::toJob)
+                .all();
+    }
+
+    private BulkJob toJob(Readable row) {
+        UUID[] documentIds = row.get("document_ids", UUID[].class);
+        UUID[] resultIds = row.get("result_ids", UUID[].class);
+        return new BulkJob(
+                row.get("id", UUID.class),
+                BulkJobType.valueOf(row.get("type", String.class)),
+                BulkJobStatus.valueOf(row.get("status", String.class)),
+                row.get("owner", String.class),
+                documentIds != null ? List.of(documentIds) : List.of(),
+                row.get("target_folder_id", UUID.class),
+                row.get("allow_duplicate_file_names", Boolean.class),
+                row.get("total_items", Integer.class),
+                row.get("processed_items", Integer.class),
+                row.get("failed_items", Integer.class),
+                resultIds != null ? List.of(resultIds) : List.of(),
+                objectMapper.readValue(row.get("errors", Json.class).asString(), ERRORS_TYPE),
+                row.get("error", String.class),
+                row.get("archive_path", String.class),
+                row.get("attempts", Integer.class),
+                row.get("created_at", OffsetDateTime.class),
+                row.get("started_at", OffsetDateTime.class),
+                row.get("finished_at", OffsetDateTime.class));
+    }
+}
@@ -0,0 +1,366 @@
+package org.openfilz.dms.repository.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.codec.Json;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.DocumentCacheProperties;
+import org.openfilz.dms.dto.request.SearchByMetadataRequest;
+import org.openfilz.dms.dto.response.AncestorInfo;
+import org.openfilz.dms.dto.response.ChildElementInfo;
+import org.openfilz.dms.dto.response.DocumentPosition;
+import org.openfilz.dms.dto.response.FolderElementInfo;
+import org.openfilz.dms.entity.Document;
+import org.openfilz.dms.enums.AccessType;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.repository.DocumentDAO;
+import org.openfilz.dms.repository.ReadReplica;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache in front of the document lookups made by the upload, creation, copy and move checks
+ * ({@link #findById}, {@link #existsByIdAndType}, {@link #getAncestors}), selected by
+ * {@link org.openfilz.dms.config.DocumentCacheConfig} when {@code openfilz.document-cache.enabled=true}.
+ * Entries are keyed by document id only: the wrapped DAO ignores the access type.
+ * <p>
+ * Writes going through this DAO invalidate the documents they touch. Every write to the documents table, whatever
+ * its origin and instance, is also notified once committed on the {@value #CHANNEL} channel (see the
+ * {@code notify_document_changes} trigger, installed by {@link org.openfilz.dms.config.DocumentCacheFlywayConfig}
+ * while the cache is enabled), and invalidates the notified documents on every listening instance.
+ * Lookups bypass the cache while the listening connection is down, and the cache is cleared each time it is
+ * established, since notifications may have been missed meanwhile.
+ * <p>
+ * Lookups made within a transaction read the cache but never populate it, as they may see uncommitted writes.
+ * Cached documents are copied on the way out: callers are free to modify them.
+ */
+@Slf4j
+public class CachingDocumentDAO implements DocumentDAO, AutoCloseable {
+
+    public static final String CHANNEL = "document_changes";
+    public static final String DOCUMENTS_CACHE_NAME = "documents.by-id";
+    public static final String ANCESTORS_CACHE_NAME = "documents.ancestors";
+
+    /**
+     * Payload notified instead of the ids when a statement changes too many documents to list them.
+     */
+    static final String ALL_DOCUMENTS = "*";
+
+    private static final Duration MIN_RECONNECT_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofMinutes(1);
+
+    private final DocumentDAO delegate;
+    private final AsyncCache<UUID, Document> documents;
+    private final AsyncCache<UUID, List<AncestorInfo>> ancestors;
+    private final AtomicBoolean listening = new AtomicBoolean();
+    private Disposable listener;
+
+    public CachingDocumentDAO(DocumentDAO delegate, DocumentCacheProperties properties) {
+        this.delegate = delegate;
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .buildAsync();
+        this.ancestors = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Publishes the statistics of both caches (gets by hit/miss result, evictions, size) under the
+     * {@value #DOCUMENTS_CACHE_NAME} and {@value #ANCESTORS_CACHE_NAME} cache names.
+     */
+    public void bindMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, documents.synchronous(), DOCUMENTS_CACHE_NAME);
+        CaffeineCacheMetrics.monitor(registry, ancestors.synchronous(), ANCESTORS_CACHE_NAME);
+    }
+
+    /**
+     * Listens to the document changes on a dedicated connection, reconnecting with a backoff when it is lost.
+     * The cache is only used once the first connection is established.
+     */
+    public void listen(ConnectionFactory connectionFactory) {
+        listener = Flux.usingWhen(
+                        Mono.from(connectionFactory.create()).cast(PostgresqlConnection.class),
+                        // Subscribed to before LISTEN, so that no notification is lost in between
+                        connection -> Flux.merge(
+                                connection.getNotifications(),
+                                connection.createStatement("LISTEN " + CHANNEL).execute()
+                                        .flatMap(PostgresqlResult::getRowsUpdated)
+                                        .then(Mono.<Notification>fromRunnable(this::startListening)))
+                                .concatWith(Mono.error(new IllegalStateException("Connection closed"))),
+                        Connection::close)
+                .doOnError(this::stopListening)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, MIN_RECONNECT_DELAY).maxBackoff(MAX_RECONNECT_DELAY).transientErrors(true))
+                .subscribe(notification -> onNotification(notification.getParameter()));
+    }
+
+    private void startListening() {
+        invalidateAll();
+        listening.set(true);
+        log.info("Document cache listening to the changes notified on {}", CHANNEL);
+    }
+
+    private void stopListening(Throwable error) {
+        if (listening.getAndSet(false)) {
+            log.warn("Document cache disabled until the changes can be listened to again: {}", error.getMessage());
+        }
+        invalidateAll();
+    }
+
+    void onNotification(String payload) {
+        if (payload == null || ALL_DOCUMENTS.equals(payload)) {
+            invalidateAll();
+            return;
+        }
+        try {
+            invalidate(Arrays.stream(payload.split(",")).map(UUID::fromString).toList());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unexpected document change notification '{}', clearing the document cache", payload);
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (listener != null) {
+            listener.dispose();
+        }
+    }
+
+    /**
+     * Invalidates the given documents, and the ancestors of the documents located below them.
+     */
+    public void invalidate(Collection<UUID> documentIds) {
+        Set<UUID> changed = new HashSet<>(documentIds);
+        changed.remove(null);
+        if (changed.isEmpty()) {
+            return;
+        }
+        documents.synchronous().invalidateAll(changed);
+        ancestors.synchronous().invalidateAll(changed);
+        // Documents below a renamed, moved or deleted folder have it among their ancestors
+        ancestors.synchronous().asMap().values()
+                .removeIf(list -> list.stream().anyMatch(ancestor -> changed.contains(ancestor.id())));
+    }
+
+    public void invalidateAll() {
+        documents.synchronous().invalidateAll();
+        ancestors.synchronous().invalidateAll();
+    }
+
+    /**
+     * Looks up a value through the cache. Concurrent loads of a key are shared, and a load completing after the
+     * key was invalidated is not kept. An empty load is not cached.
+     */
+    private <V> Mono<V> cached(AsyncCache<UUID, V> cache, UUID key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            if (key == null || !listening.get()) {
+                return loader.get();
+            }
+            return inTransaction().flatMap(transactional -> {
+                if (transactional) {
+                    CompletableFuture<V> cached = cache.getIfPresent(key);
+                    return cached != null ? Mono.fromFuture(cached, true) : loader.get();
+                }
+                // The load is shared: a cancelled lookup must not cancel it for the others
+                return Mono.fromFuture(cache.get(key, (_, _) -> loader.get().toFuture()), true);
+            });
+        });
+    }
+
+    private static Mono<Boolean> inTransaction() {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .map(TransactionSynchronizationManager::isActualTransactionActive)
+                .onErrorReturn(NoTransactionException.class, false);
+    }
+
+    private Mono<Document> cachedDocument(UUID documentId, AccessType accessType) {
+        // Loads from the primary: a lagging replica would repopulate the cache with the state just invalidated
+        return cached(documents, documentId, () -> ReadReplica.primary(delegate.findById(documentId, accessType)));
+    }
+
+    /**
+     * Invalidates the given documents once the write terminates, whatever its outcome.
+     */
+    private <T> Mono<T> invalidating(Mono<T> write, Collection<UUID> documentIds) {
+        return write
+                .doOnTerminate(() -> invalidate(documentIds))
+                .doOnCancel(() -> invalidate(documentIds));
+    }
+
+    @Override
+    public Mono<Document> findById(UUID documentId, AccessType accessType) {
+        return cachedDocument(documentId, accessType).map(document -> document.toBuilder().build());
+    }
+
+    @Override
+    public Mono<Boolean> existsByIdAndType(UUID id, DocumentType type, AccessType accessType) {
+        return cachedDocument(id, accessType)
+                .map(document -> document.getType() == type)
+                .defaultIfEmpty(false);
+    }
+
+    @Override
+    public Flux<AncestorInfo> getAncestors(UUID documentId) {
+        return cached(ancestors, documentId, () -> ReadReplica.primary(delegate.getAncestors(documentId))
+                        .collectList()
+                        // Documents at the root are not cached, nor documents that may not be created yet
+                        .filter(list -> !list.isEmpty()))
+                .flatMapIterable(Function.identity());
+    }
+
+    @Override
+    public Mono<Document> update(Document document) {
+        return invalidating(delegate.update(document), List.of(document.getId()));
+    }
+
+    @Override
+    public Mono<Void> delete(Document document) {
+        return invalidating(delegate.delete(document), List.of(document.getId()));
+    }
+
+    @Override
+    public Mono<Long> moveDocuments(Collection<UUID> documentIds, UUID targetFolderId, String username) {
+        return invalidating(delegate.moveDocuments(documentIds, targetFolderId, username), documentIds);
+    }
+
+    @Override
+    public Flux<Document> deleteByIds(Collection<UUID> documentIds) {
+        return delegate.deleteByIds(documentIds)
+                .doOnTerminate(() -> invalidate(documentIds))
+                .doOnCancel(() -> invalidate(documentIds));
+    }
+
+    @Override
+    public Flux<Document> deleteSubtree(UUID folderId) {
+        return Flux.defer(() -> {
+            List<UUID> deletedIds = new ArrayList<>(List.of(folderId));
+            return delegate.deleteSubtree(folderId)
+                    .doOnNext(document -> deletedIds.add(document.getId()))
+                    .doOnTerminate(() -> invalidate(deletedIds))
+                    .doOnCancel(() -> invalidate(deletedIds));
+        });
+    }
+
+    @Override
+    public Mono<Document> create(Document document) {
+        return delegate.create(document);
+    }
+
+    @Override
+    public Flux<UUID> listDocumentIds(SearchByMetadataRequest request) {
+        return delegate.listDocumentIds(request);
+    }
+
+    @Override
+    public Flux<ChildElementInfo> getChildren(UUID folderId) {
+        return delegate.getChildren(folderId);
+    }
+
+    @Override
+    public Flux<ChildElementInfo> getElementsAndChildren(List<UUID> documentIds, String connectedUserEmail) {
+        return delegate.getElementsAndChildren(documentIds, connectedUserEmail);
+    }
+
+    @Override
+    public Flux<FolderElementInfo> listDocumentInfoInFolder(UUID parentFolderId, DocumentType type) {
+        return delegate.listDocumentInfoInFolder(parentFolderId, type);
+    }
+
+    @Override
+    public Mono<Long> countDocument(UUID parentId) {
+        return delegate.countDocument(parentId);
+    }
+
+    @Override
+    public Mono<Boolean> existsByNameAndParentId(String name, UUID parentId) {
+        return delegate.existsByNameAndParentId(name, parentId);
+    }
+
+    @Override
+    public Mono<Document> getFolderToDelete(UUID folderId) {
+        return delegate.getFolderToDelete(folderId);
+    }
+
+    @Override
+    public Flux<Document> findDocumentsByParentIdAndType(@Nonnull UUID folderId, @Nonnull DocumentType documentType) {
+        return delegate.findDocumentsByParentIdAndType(folderId, documentType);
+    }
+
+    @Override
+    public Flux<Document> findDocumentsByParentId(@Nonnull UUID folderId) {
+        return delegate.findDocumentsByParentId(folderId);
+    }
+
+    @Override
+    public Flux<Document> findByIds(Collection<UUID> documentIds, AccessType accessType) {
+        return delegate.findByIds(documentIds, accessType);
+    }
+
+    @Override
+    public Flux<String> findExistingNames(Collection<String> names, UUID parentId) {
+        return delegate.findExistingNames(names, parentId);
+    }
+
+    @Override
+    public Flux<Document> findSubtree(UUID folderId) {
+        return delegate.findSubtree(folderId);
+    }
+
+    @Override
+    public Flux<Tuple2<UUID, Document>> copySubtree(UUID sourceFolderId, UUID targetFolderId, Collection<UUID> documentIds,
+                                                    Map<UUID, String> storagePaths, Map<UUID, Json> metadata, String username) {
+        return delegate.copySubtree(sourceFolderId, targetFolderId, documentIds, storagePaths, metadata, username);
+    }
+
+    @Override
+    public Mono<Boolean> isDescendant(UUID documentId, UUID ancestorId) {
+        return delegate.isDescendant(documentId, ancestorId);
+    }
+
+    @Override
+    public Flux<UUID> findNestedIds(Collection<UUID> documentIds) {
+        return delegate.findNestedIds(documentIds);
+    }
+
+    @Override
+    public Mono<DocumentPosition> getDocumentPosition(UUID documentId, String sortBy, String sortOrder) {
+        return delegate.getDocumentPosition(documentId, sortBy, sortOrder);
+    }
+
+    @Override
+    public Mono<Long> getTotalStorageByUser(String username) {
+        return delegate.getTotalStorageByUser(username);
+    }
+}
@@ -0,0 +1,72 @@
+package org.openfilz.dms.repository.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.openfilz.dms.repository.ContentBlobDAO;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+import static org.openfilz.dms.entity.SqlTableMapping.CONTENT_BLOB;
+import static org.openfilz.dms.entity.SqlTableMapping.DOCUMENT;
+
+@Service
+@RequiredArgsConstructor
+public class ContentBlobDAOImpl implements ContentBlobDAO {
+
+    private static final String TOUCH = "UPDATE " + CONTENT_BLOB + " SET updated_at = CURRENT_TIMESTAMP WHERE storage_path = :path";
+    private static final String REGISTER = "INSERT INTO " + CONTENT_BLOB + " (storage_path) VALUES (:path) " +
+            "ON CONFLICT (storage_path) DO UPDATE SET updated_at = CURRENT_TIMESTAMP";
+    private static final String UNREFERENCED = "ref_count <= 0 AND updated_at < :before AND NOT EXISTS (SELECT 1 FROM " + DOCUMENT +
+            " d WHERE d.storage_path = b.storage_path AND d.storage_path LIKE 'cas/%')";
+    private static final String FIND_UNREFERENCED = "SELECT b.storage_path FROM " + CONTENT_BLOB + " b WHERE " + UNREFERENCED +
+            " ORDER BY b.updated_at LIMIT :limit";
+    private static final String LOCK_UNREFERENCED = "SELECT b.storage_path FROM " + CONTENT_BLOB + " b WHERE b.storage_path = :path AND " +
+            UNREFERENCED + " FOR UPDATE SKIP LOCKED";
+    private static final String DELETE = "DELETE FROM " + CONTENT_BLOB + " WHERE storage_path = :path";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Boolean> touch(String storagePath) {
+        return databaseClient.sql(TOUCH)
+                .bind("path", storagePath)
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<Void> register(String storagePath) {
+        return databaseClient.sql(REGISTER)
+                .bind("path", storagePath)
+                .then();
+    }
+
+    @Override
+    public Flux<String> findUnreferenced(OffsetDateTime before, int limit) {
+        return databaseClient.sql(FIND_UNREFERENCED)
+                .bind("before", before)
+                .bind("limit", limit)
+                .map(row -> row.get(0, String.class))
+                .all();
+    }
+
+    @Override
+    public Mono<String> lockIfUnreferenced(String storagePath, OffsetDateTime before) {
+        return databaseClient.sql(LOCK_UNREFERENCED)
+                .bind("path", storagePath)
+                .bind("before", before)
+                .map(row -> row.get(0, String.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Void> delete(String storagePath) {
+        return databaseClient.sql(DELETE)
+                .bind("path", storagePath)
+                .then();
+    }
+}
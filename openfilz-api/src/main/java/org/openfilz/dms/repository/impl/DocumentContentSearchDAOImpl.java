@@ -0,0 +1,209 @@
+package org.openfilz.dms.repository.impl;
+
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.FullTextProperties;
+import org.openfilz.dms.dto.request.FilterInput;
+import org.openfilz.dms.dto.request.ListFolderRequest;
+import org.openfilz.dms.dto.request.SortInput;
+import org.openfilz.dms.dto.response.DocumentSearchInfo;
+import org.openfilz.dms.dto.response.DocumentSearchResult;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.enums.SortOrder;
+import org.openfilz.dms.repository.DocumentContentSearchDAO;
+import org.openfilz.dms.repository.ReadReplica;
+import org.openfilz.dms.repository.graphql.DocumentFields;
+import org.openfilz.dms.repository.graphql.ListAllFolderCriteria;
+import org.openfilz.dms.utils.DocumentSearchUtil;
+import org.openfilz.dms.utils.FileUtils;
+import org.openfilz.dms.utils.SqlUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.openfilz.dms.entity.SqlColumnMapping.*;
+
+@Slf4j
+@Service
+@ConditionalOnProperties(value = {
+        @ConditionalOnProperty(name = "openfilz.full-text.active", havingValue = "false", matchIfMissing = true),
+        @ConditionalOnProperty(name = "openfilz.full-text.postgres.active", havingValue = "true"),
+        @ConditionalOnProperty(name = "openfilz.features.custom-access", matchIfMissing = true, havingValue = "false")
+})
+public class DocumentContentSearchDAOImpl implements DocumentContentSearchDAO {
+
+    private static final String PREFIX = "d.";
+    private static final String QUERY = "query";
+    private static final String NAME_PATTERN = "namePattern";
+    private static final String EMAIL = "email";
+    private static final String DOCUMENT_ID = "documentId";
+    private static final String CONTENT = "content";
+    private static final String SEARCH_RANK = "search_rank";
+
+    private static final String SELECT_FIELDS = """
+            SELECT d.id, d.name, d.type, d.content_type, d.size, d.parent_id,
+                   d.created_at, d.updated_at, d.created_by, d.updated_by, %s AS search_rank""";
+
+    private static final String FROM = " FROM documents d";
+
+    private static final String FAVORITES = " JOIN user_favorites uf ON d.id = uf.doc_id and uf.email = :email ";
+
+    // Ids of the documents whose name contains the query, through the trigram index of V1_16__add_local_search.sql,
+    // united with those whose content matches it, through the GIN index of document_contents: an OR across a join
+    // of the two tables could use neither index
+    private static final String MATCHES = """
+             JOIN (SELECT id, MAX(content_rank) AS content_rank FROM (
+                SELECT id, NULL::real AS content_rank FROM documents WHERE UPPER(name) LIKE :namePattern
+                UNION ALL
+                SELECT document_id, ts_rank_cd(content, %1$s) FROM document_contents WHERE content @@ %1$s
+            ) matches GROUP BY id) m ON m.id = d.id""";
+
+    private static final String RANK = "GREATEST(similarity(d.name, :query), m.content_rank)";
+
+    private static final String INSERT_CONTENT = """
+            INSERT INTO document_contents (document_id, content, indexed_at)
+            VALUES (:documentId, %s, CURRENT_TIMESTAMP)
+            ON CONFLICT (document_id) DO UPDATE SET content = EXCLUDED.content, indexed_at = EXCLUDED.indexed_at""";
+
+    private static final String COPY_CONTENT = """
+            INSERT INTO document_contents (document_id, content, indexed_at)
+            SELECT :targetId, content, CURRENT_TIMESTAMP FROM document_contents WHERE document_id = :sourceId
+            ON CONFLICT (document_id) DO UPDATE SET content = EXCLUDED.content, indexed_at = EXCLUDED.indexed_at""";
+
+    private final DatabaseClient databaseClient;
+    private final DocumentSearchUtil documentSearchUtil;
+    private final ListAllFolderCriteria criteria;
+    private final DocumentFields documentFields;
+
+    /**
+     * Query of the user in every content language, e.g. (websearch_to_tsquery('french', :query) || ...)
+     */
+    private final String tsQuery;
+    private final String insertContent;
+
+    public DocumentContentSearchDAOImpl(DatabaseClient databaseClient, DocumentSearchUtil documentSearchUtil,
+                                        @Qualifier("allFolders") ListAllFolderCriteria criteria, DocumentFields documentFields,
+                                        FullTextProperties fullTextProperties) {
+        this.databaseClient = databaseClient;
+        this.documentSearchUtil = documentSearchUtil;
+        this.criteria = criteria;
+        this.documentFields = documentFields;
+        // Configuration names come from a fixed list, see FullTextProperties
+        List<String> configurations = fullTextProperties.getTextSearchConfigurations();
+        this.tsQuery = configurations.stream()
+                .map(configuration -> "websearch_to_tsquery('" + configuration + "', :query)")
+                .collect(Collectors.joining(" || ", "(", ")"));
+        this.insertContent = INSERT_CONTENT.formatted(configurations.stream()
+                .map(configuration -> "to_tsvector('" + configuration + "', :content)")
+                .collect(Collectors.joining(" || ")));
+        log.info("Search in PostgreSQL with the text search configurations {}", configurations);
+    }
+
+    @Override
+    public Mono<DocumentSearchResult> search(String query, List<FilterInput> filters, SortInput sort, int page, int size, String email) {
+        if(page < 1) {
+            throw new IllegalArgumentException("page must be equals or greater than 1");
+        }
+        if(size < 1 || size > SqlUtils.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + SqlUtils.MAX_PAGE_SIZE);
+        }
+        String text = StringUtils.hasText(query) ? query.trim() : null;
+        // The name is matched below, together with the content
+        ListFolderRequest request = documentSearchUtil.toListFolderRequest(null, documentSearchUtil.toFilterMap(filters), sort, page, size);
+
+        StringBuilder from = new StringBuilder(FROM);
+        if(text != null) {
+            from.append(MATCHES.formatted(tsQuery));
+        }
+        if(request.favorite() != null) {
+            from.append(request.favorite() ? "" : " LEFT").append(FAVORITES);
+        }
+        // Filters built apart, so that the WHERE of the matches is not taken for theirs
+        StringBuilder where = new StringBuilder();
+        criteria.applyFilter(PREFIX, where, request);
+        from.append(where);
+
+        StringBuilder select = new StringBuilder(SELECT_FIELDS.formatted(text != null ? RANK : "0"))
+                .append(from);
+        appendSort(select, sort);
+        select.append(SqlUtils.LIMIT).append(size).append(SqlUtils.OFFSET).append((page - 1) * size);
+
+        Mono<Long> count = bind(databaseClient.sql("SELECT count(*)" + from), request, text, email)
+                .map(row -> row.get(0, Long.class))
+                .one();
+        Mono<List<DocumentSearchInfo>> documents = bind(databaseClient.sql(select.toString()), request, text, email)
+                .map(this::toDocumentSearchInfo)
+                .all()
+                .collectList();
+        return ReadReplica.readOnly(Mono.zip(count, documents)
+                .map(tuple -> new DocumentSearchResult(tuple.getT1(), tuple.getT2())));
+    }
+
+    private void appendSort(StringBuilder query, SortInput sort) {
+        query.append(SqlUtils.ORDER_BY);
+        String column = sort != null && sort.field() != null ? documentFields.getDocumentFieldSqlMap().get(sort.field()) : null;
+        if(column == null) {
+            query.append(SEARCH_RANK).append(" DESC, ").append(PREFIX).append(NAME);
+        } else {
+            query.append(PREFIX).append(column).append(SqlUtils.SPACE).append(sort.order() == SortOrder.DESC ? SortOrder.DESC : SortOrder.ASC);
+        }
+        query.append(", ").append(PREFIX).append(ID);
+    }
+
+    private DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec query, ListFolderRequest request, String text, String email) {
+        query = criteria.bindCriteria(query, request);
+        if(request.favorite() != null) {
+            query = query.bind(EMAIL, email);
+        }
+        if(text != null) {
+            query = query.bind(QUERY, text).bind(NAME_PATTERN, SqlUtils.toContainsPattern(text));
+        }
+        return query;
+    }
+
+    private DocumentSearchInfo toDocumentSearchInfo(Readable row) {
+        String name = row.get(NAME, String.class);
+        OffsetDateTime createdAt = row.get(CREATED_AT, OffsetDateTime.class);
+        OffsetDateTime updatedAt = row.get(UPDATED_AT, OffsetDateTime.class);
+        return new DocumentSearchInfo(
+                row.get(ID, UUID.class),
+                name,
+                FileUtils.getDocumentExtension(DocumentType.valueOf(row.get(TYPE, String.class)), name),
+                row.get(CONTENT_TYPE, String.class),
+                row.get(SIZE, Long.class),
+                row.get(PARENT_ID, UUID.class),
+                createdAt != null ? createdAt.toString() : null,
+                updatedAt != null ? updatedAt.toString() : null,
+                row.get(CREATED_BY, String.class),
+                row.get(UPDATED_BY, String.class));
+    }
+
+    @Override
+    public Mono<Void> saveContent(UUID documentId, String content) {
+        return databaseClient.sql(insertContent)
+                .bind(DOCUMENT_ID, documentId)
+                .bind(CONTENT, content)
+                .then()
+                // The document was deleted while its text was being extracted
+                .onErrorResume(DataIntegrityViolationException.class, _ -> Mono.empty());
+    }
+
+    @Override
+    public Mono<Void> copyContent(UUID sourceId, UUID targetId) {
+        return databaseClient.sql(COPY_CONTENT)
+                .bind("sourceId", sourceId)
+                .bind("targetId", targetId)
+                .then()
+                .onErrorResume(DataIntegrityViolationException.class, _ -> Mono.empty());
+    }
+}
@@ -1,5 +1,6 @@
 package org.openfilz.dms.repository.impl;
 
+import io.r2dbc.postgresql.codec.Json;
 import io.r2dbc.spi.Readable;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.PostConstruct;
@@ -16,6 +17,7 @@ import org.openfilz.dms.enums.AccessType;
 import org.openfilz.dms.enums.DocumentType;
 import org.openfilz.dms.repository.DocumentDAO;
 import org.openfilz.dms.repository.DocumentRepository;
+import org.openfilz.dms.repository.ReadReplica;
 import org.openfilz.dms.repository.SqlQueryUtils;
 import org.openfilz.dms.utils.SqlUtils;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -26,7 +28,11 @@ import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
 
@@ -54,56 +60,29 @@ public class DocumentDAOImpl implements DocumentDAO, SqlQueryUtils {
             FROM Documents d
             WHERE d.active = true and d.parent_id""";
 
-    private static final String SELECT_CHILDREN = """
-            WITH RECURSIVE folder_tree AS (
-              SELECT
-                 id,
-                 name,
-                 type,
-                 size,
-                 storage_path as storage,
-                 name::text as fullpath
-              FROM documents
-              WHERE parent_id = :parentId AND active = true
-             UNION ALL
-              SELECT
-                 d.id,
-                 d.name,
-                 d.type,
-                 d.size,
-                 storage_path,
-                 tree.fullpath || '/' || d.name
-              FROM documents d
-              JOIN folder_tree tree ON d.parent_id = tree.id
-              WHERE d.active = true
-             )
-             SELECT * FROM folder_tree""";
-
-
-    protected static final String SELECT_CHILDREN_2 = """
-            WITH RECURSIVE folder_tree AS (
-              SELECT
-                 id,
-                 name,
-                 type,
-                 size,
-                 storage_path as storage,
-                 :rootFolder || name as fullpath
-              FROM documents
-              WHERE parent_id = :parentId AND active = true
-             UNION ALL
-              SELECT
-                 d.id,
-                 d.name,
-                 d.type,
-                 d.size,
-                 storage_path,
-                 tree.fullpath || '/' || d.name
-              FROM documents d
-              JOIN folder_tree tree ON d.parent_id = tree.id
-              WHERE d.active = true
-             )
-             SELECT * FROM folder_tree""";
+    /**
+     * Active descendants of a folder, with their path (names separated by '/') relative to it, resolved
+     * from the ids of their materialized path. Active documents never have an inactive ancestor
+     * (soft delete and restore apply to whole subtrees), so the active filter is only needed on the rows.
+     */
+    private static final String SELECT_DESCENDANTS = """
+            SELECT
+               d.id,
+               d.name,
+               d.type,
+               d.size,
+               d.storage_path as storage,
+               %s (SELECT string_agg(a.name, '/' ORDER BY p.depth)
+                  FROM unnest(string_to_array(ltree2text(subpath(d.path, nlevel(root.path))), '.'))
+                       WITH ORDINALITY AS p(label, depth)
+                  JOIN documents a ON a.id = p.label::uuid) as fullpath
+            FROM documents root
+            JOIN documents d ON d.path <@ root.path AND d.id <> root.id
+            WHERE root.id = :parentId AND d.active = true""";
+
+    private static final String SELECT_CHILDREN = SELECT_DESCENDANTS.formatted("");
+
+    protected static final String SELECT_CHILDREN_2 = SELECT_DESCENDANTS.formatted(":rootFolder ||");
 
 
 
@@ -112,6 +91,10 @@ public class DocumentDAOImpl implements DocumentDAO, SqlQueryUtils {
     protected static final String PARENT_ID = "parentId";
     protected static final String IDS = "ids";
 
+    /**
+     * Position computed by numbering the whole folder: only used for the sort columns without keyset index,
+     * which extension layers may add through {@link #getSafeSortBy}.
+     */
     private static final String SELECT_POSITION = """
             WITH target_doc AS (
                 SELECT id, parent_id FROM documents WHERE id = :documentId AND active = true
@@ -135,23 +118,131 @@ public class DocumentDAOImpl implements DocumentDAO, SqlQueryUtils {
                 (SELECT COUNT(*) FROM folder_items) as total_items
             """;
 
+    private static final String SELECT_ACTIVE_PARENT = "SELECT parent_id FROM documents WHERE id = :documentId AND active = true";
+
+    /**
+     * Position of a document as the number of items of its folder before it in the order of keyset pagination
+     * (folders first, then the sort key, then the id), plus the size of the folder. Each count is a range scan of
+     * the keyset index of the sort key (V1_11__add_keyset_pagination_indexes.sql) instead of a sort of the
+     * whole folder. Arguments: sort key expression, folder predicate on the documents aliased d, sort key
+     * expression on d, comparison with the target (&lt; or &gt;).
+     */
+    private static final String SELECT_POSITION_BY_KEYSET = """
+            WITH target AS (
+                SELECT CASE WHEN type = 'FOLDER' THEN 0 ELSE 1 END AS folder_rank, %1$s AS sort_key, id
+                FROM documents WHERE id = :documentId
+            )
+            SELECT
+                (SELECT COUNT(*) FROM documents d, target t
+                 WHERE %2$s AND d.active = true
+                   AND CASE WHEN d.type = 'FOLDER' THEN 0 ELSE 1 END < t.folder_rank)
+              + (SELECT COUNT(*) FROM documents d, target t
+                 WHERE %2$s AND d.active = true
+                   AND CASE WHEN d.type = 'FOLDER' THEN 0 ELSE 1 END = t.folder_rank
+                   AND (%3$s, d.id) %4$s (t.sort_key, t.id)) AS position,
+                (SELECT COUNT(*) FROM documents d WHERE %2$s AND d.active = true) AS total_items
+            """;
+
+    private static final String SAME_PARENT = "d.parent_id = :parentId";
+    private static final String ROOT = "d.parent_id IS NULL";
+
+    /**
+     * Sort key expressions of the keyset indexes, with the table prefix as %s. Within a folder rank every item
+     * has the same type, so sorting by type is sorting by id.
+     */
+    private static final Map<String, String> POSITION_SORT_KEYS = Map.of(
+            NAME, "%sname",
+            CREATED_AT, "%screated_at",
+            UPDATED_AT, "%supdated_at",
+            SIZE, "COALESCE(%ssize, 0)",
+            TYPE, "%sid");
+
     public static final String DESC = "DESC";
     public static final String ASC = "ASC";
     private static final String SELECT_ANCESTORS = """
-            WITH RECURSIVE ancestors AS (
-                SELECT id, name, type, parent_id, 1 as depth
-                FROM documents
-                WHERE id = (SELECT parent_id FROM documents WHERE id = :documentId AND active = true)
-                  AND active = true
-                UNION ALL
-                SELECT d.id, d.name, d.type, d.parent_id, a.depth + 1
-                FROM documents d
-                JOIN ancestors a ON d.id = a.parent_id
-                WHERE d.active = true
-            )
-            SELECT id, name, type FROM ancestors
-            ORDER BY depth DESC
+            SELECT a.id, a.name, a.type
+            FROM documents d
+            CROSS JOIN LATERAL unnest(string_to_array(ltree2text(subpath(d.path, 0, -1)), '.'))
+                 WITH ORDINALITY AS p(label, depth)
+            JOIN documents a ON a.id = p.label::uuid
+            WHERE d.id = :documentId AND d.active = true AND a.active = true
+            ORDER BY p.depth
             """;
+    private static final String SELECT_IS_DESCENDANT = """
+            SELECT EXISTS (
+                SELECT 1 FROM documents d
+                JOIN documents a ON a.id = :ancestorId
+                WHERE d.id = :documentId AND d.path <@ a.path
+            ) AS descendant""";
+    private static final String SELECT_NESTED_IDS = """
+            SELECT DISTINCT d.id
+            FROM documents d
+            JOIN documents a ON d.path <@ a.path AND a.id <> d.id
+            WHERE d.id = ANY(:ids) AND a.id = ANY(:ids)""";
+    private static final String SELECT_BY_IDS = "SELECT * FROM documents WHERE id = ANY(:ids) AND active = true";
+
+    private static final String SELECT_EXISTING_NAMES =
+            "SELECT DISTINCT name FROM documents WHERE name = ANY(:names) AND active = true AND parent_id";
+
+    private static final String SELECT_SUBTREE = """
+            SELECT d.*
+            FROM documents root
+            JOIN documents d ON d.path <@ root.path
+            WHERE root.id = :id AND d.active = true
+            ORDER BY d.path""";
+
+    private static final String MOVE_DOCUMENTS = """
+            UPDATE documents
+            SET parent_id = :parentId, updated_at = :updatedAt, updated_by = :username
+            WHERE id = ANY(:ids)""";
+
+    /**
+     * The copies are inserted parents first, so that the path trigger of each copy finds the path of its parent,
+     * inserted earlier by the same statement. Only the documents read before copying the content (:ids) are copied,
+     * so that a file added to the source meanwhile cannot share the storage path of its source. Copies of files not
+     * listed in :fileIds (files without content) keep the storage path of their source, copies of documents not
+     * listed in :metadataIds the metadata of their source.
+     */
+    private static final String COPY_SUBTREE = """
+            WITH source AS MATERIALIZED (
+                SELECT d.*, uuid_generate_v4() AS copy_id
+                FROM documents root
+                JOIN documents d ON d.path <@ root.path
+                WHERE root.id = :id AND d.active = true AND d.id = ANY(:ids)
+            ),
+            copies AS (
+                INSERT INTO documents (id, name, type, content_type, size, parent_id, storage_path, metadata,
+                                       created_at, updated_at, created_by, updated_by)
+                SELECT s.copy_id, s.name, s.type, s.content_type, s.size,
+                       CASE WHEN s.id = :id THEN CAST(:parentId AS uuid) ELSE p.copy_id END,
+                       COALESCE(f.storage_path, s.storage_path),
+                       CASE WHEN m.id IS NULL THEN s.metadata ELSE m.metadata::jsonb END,
+                       :createdAt, :createdAt, :username, :username
+                FROM source s
+                LEFT JOIN source p ON p.id = s.parent_id
+                LEFT JOIN unnest(:fileIds::uuid[], :storagePaths::varchar[]) AS f(id, storage_path) ON f.id = s.id
+                LEFT JOIN unnest(:metadataIds::uuid[], :metadata::text[]) AS m(id, metadata) ON m.id = s.id
+                ORDER BY s.path
+                RETURNING *
+            )
+            SELECT c.*, s.id AS source_id
+            FROM copies c
+            JOIN source s ON s.copy_id = c.id
+            ORDER BY c.path""";
+
+    private static final String DELETE_BY_IDS = "DELETE FROM documents WHERE id = ANY(:ids) RETURNING *";
+
+    private static final String DELETE_SUBTREE = """
+            WITH deleted AS (
+                DELETE FROM documents d
+                USING documents root
+                WHERE root.id = :id AND d.path <@ root.path
+                RETURNING d.*
+            )
+            SELECT * FROM deleted
+            ORDER BY nlevel(path) DESC""";
+
+    private static final String SOURCE_ID = "source_id";
     private static final String DOCUMENT_ID = "documentId";
     private static final String DOCUMENT_ID1 = "document_id";
     private static final String POSITION = "position";
@@ -393,14 +484,129 @@ public class DocumentDAOImpl implements DocumentDAO, SqlQueryUtils {
         return documentRepository.delete(document);
     }
 
+    @Override
+    public Flux<Document> findByIds(Collection<UUID> documentIds, AccessType accessType) {
+        return databaseClient.sql(SELECT_BY_IDS)
+                .bind(IDS, documentIds.toArray(UUID[]::new))
+                .map(this::toDocument)
+                .all();
+    }
+
+    @Override
+    public Flux<String> findExistingNames(Collection<String> names, UUID parentId) {
+        DatabaseClient.GenericExecuteSpec query = databaseClient.sql(SELECT_EXISTING_NAMES + (parentId != null ? EQUALS_ID : IS_NULL))
+                .bind("names", names.toArray(String[]::new));
+        if (parentId != null) {
+            query = query.bind(ID, parentId);
+        }
+        return query.map(row -> row.get(NAME, String.class)).all();
+    }
+
+    @Override
+    public Flux<Document> findSubtree(UUID folderId) {
+        return databaseClient.sql(SELECT_SUBTREE)
+                .bind(ID, folderId)
+                .map(this::toDocument)
+                .all();
+    }
+
+    @Override
+    public Mono<Long> moveDocuments(Collection<UUID> documentIds, UUID targetFolderId, String username) {
+        DatabaseClient.GenericExecuteSpec query = databaseClient.sql(MOVE_DOCUMENTS)
+                .bind(IDS, documentIds.toArray(UUID[]::new))
+                .bind("updatedAt", OffsetDateTime.now())
+                .bind(USERNAME, username);
+        query = targetFolderId != null ? query.bind(PARENT_ID, targetFolderId) : query.bindNull(PARENT_ID, UUID.class);
+        return query.fetch().rowsUpdated();
+    }
+
+    @Override
+    public Flux<Tuple2<UUID, Document>> copySubtree(UUID sourceFolderId, UUID targetFolderId, Collection<UUID> documentIds,
+                                                    Map<UUID, String> storagePaths, Map<UUID, Json> metadata, String username) {
+        UUID[] fileIds = storagePaths.keySet().toArray(UUID[]::new);
+        String[] paths = new String[fileIds.length];
+        for (int i = 0; i < fileIds.length; i++) {
+            paths[i] = storagePaths.get(fileIds[i]);
+        }
+        UUID[] metadataIds = metadata.keySet().toArray(UUID[]::new);
+        String[] metadataValues = new String[metadataIds.length];
+        for (int i = 0; i < metadataIds.length; i++) {
+            Json value = metadata.get(metadataIds[i]);
+            metadataValues[i] = value != null ? value.asString() : null;
+        }
+        DatabaseClient.GenericExecuteSpec query = databaseClient.sql(COPY_SUBTREE)
+                .bind(ID, sourceFolderId)
+                .bind(IDS, documentIds.toArray(UUID[]::new))
+                .bind("fileIds", fileIds)
+                .bind("storagePaths", paths)
+                .bind("metadataIds", metadataIds)
+                .bind("metadata", metadataValues)
+                .bind("createdAt", OffsetDateTime.now())
+                .bind(USERNAME, username);
+        query = targetFolderId != null ? query.bind(PARENT_ID, targetFolderId) : query.bindNull(PARENT_ID, UUID.class);
+        return query.map(row -> Tuples.of(row.get(SOURCE_ID, UUID.class), toDocument(row)))
+                .all();
+    }
+
+    @Override
+    public Flux<Document> deleteByIds(Collection<UUID> documentIds) {
+        return databaseClient.sql(DELETE_BY_IDS)
+                .bind(IDS, documentIds.toArray(UUID[]::new))
+                .map(this::toDocument)
+                .all();
+    }
+
+    @Override
+    public Flux<Document> deleteSubtree(UUID folderId) {
+        return databaseClient.sql(DELETE_SUBTREE)
+                .bind(ID, folderId)
+                .map(this::toDocument)
+                .all();
+    }
+
+    protected Document toDocument(Readable row) {
+        return Document.builder()
+                .id(row.get(ID, UUID.class))
+                .name(row.get(NAME, String.class))
+                .type(DocumentType.valueOf(row.get(TYPE, String.class)))
+                .contentType(row.get(CONTENT_TYPE, String.class))
+                .size(row.get(SIZE, Long.class))
+                .parentId(row.get(SqlColumnMapping.PARENT_ID, UUID.class))
+                .storagePath(row.get(STORAGE_PATH, String.class))
+                .metadata(row.get(METADATA, Json.class))
+                .createdAt(row.get(CREATED_AT, OffsetDateTime.class))
+                .updatedAt(row.get(UPDATED_AT, OffsetDateTime.class))
+                .createdBy(row.get(CREATED_BY, String.class))
+                .updatedBy(row.get(UPDATED_BY, String.class))
+                .active(row.get(ACTIVE, Boolean.class))
+                .build();
+    }
+
     @Override
     public Flux<AncestorInfo> getAncestors(UUID documentId) {
-        return bindDocumentQuery(documentId, SELECT_ANCESTORS)
+        return ReadReplica.readOnly(bindDocumentQuery(documentId, SELECT_ANCESTORS)
                 .map(row -> new AncestorInfo(
                         row.get(ID, UUID.class),
                         row.get(NAME, String.class),
                         row.get(TYPE, String.class)
                 ))
+                .all());
+    }
+
+    @Override
+    public Mono<Boolean> isDescendant(UUID documentId, UUID ancestorId) {
+        return bindDocumentQuery(documentId, SELECT_IS_DESCENDANT)
+                .bind("ancestorId", ancestorId)
+                .map(row -> row.get("descendant", Boolean.class))
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    @Override
+    public Flux<UUID> findNestedIds(Collection<UUID> documentIds) {
+        return databaseClient.sql(SELECT_NESTED_IDS)
+                .bind(IDS, documentIds.toArray(UUID[]::new))
+                .map(row -> row.get(ID, UUID.class))
                 .all();
     }
 
@@ -409,11 +615,37 @@ public class DocumentDAOImpl implements DocumentDAO, SqlQueryUtils {
         String safeSortBy = getSafeSortBy(sortBy);
         String safeSortOrder = getSafeSortOrder(sortOrder);
 
-        String sql = String.format(SELECT_POSITION, safeSortBy, safeSortOrder);
-
-        return bindDocumentQuery(documentId, sql)
-                .map(mapPositionQuery())
-                .one();
+        String sortKey = POSITION_SORT_KEYS.get(safeSortBy);
+        if(sortKey == null) {
+            String sql = String.format(SELECT_POSITION, safeSortBy, safeSortOrder);
+            return ReadReplica.readOnly(bindDocumentQuery(documentId, sql)
+                    .map(mapPositionQuery())
+                    .one());
+        }
+        return ReadReplica.readOnly(bindDocumentQuery(documentId, SELECT_ACTIVE_PARENT)
+                .map(row -> Optional.ofNullable(row.get(SqlColumnMapping.PARENT_ID, UUID.class)))
+                .one()
+                .flatMap(parentId -> {
+                    String sql = String.format(SELECT_POSITION_BY_KEYSET,
+                            sortKey.formatted(""),
+                            parentId.isPresent() ? SAME_PARENT : ROOT,
+                            sortKey.formatted("d."),
+                            DESC.equals(safeSortOrder) ? ">" : "<");
+                    DatabaseClient.GenericExecuteSpec query = bindDocumentQuery(documentId, sql);
+                    if(parentId.isPresent()) {
+                        query = query.bind(PARENT_ID, parentId.get());
+                    }
+                    return query.map(row -> {
+                                Long position = row.get(POSITION, Long.class);
+                                Long totalItems = row.get(TOTAL_ITEMS, Long.class);
+                                return new DocumentPosition(documentId, parentId.orElse(null),
+                                        position != null ? position : 0L,
+                                        totalItems != null ? totalItems : 0L);
+                            })
+                            .one();
+                })
+                // Unknown or deleted document
+                .defaultIfEmpty(new DocumentPosition(documentId, null, 0L, 0L)));
     }
 
     protected DatabaseClient.GenericExecuteSpec bindDocumentQuery(UUID documentId, String sql) {
@@ -452,14 +684,12 @@ public class DocumentDAOImpl implements DocumentDAO, SqlQueryUtils {
 
     @Override
     public Mono<Long> getTotalStorageByUser(String username) {
-        // Optimized query: sum only FILE sizes (folders have no size), filter by created_by and active
-        // Uses COALESCE to return 0 if no files exist for the user
+        // Point read of the user's quota usage row, kept up to date by triggers on documents
+        // Returns 0 if no files exist for the user
         String sql = """
-            SELECT COALESCE(SUM(size), 0) as total_size
-            FROM documents
-            WHERE created_by = :username
-              AND type = 'FILE'
-              AND active = true
+            SELECT used_bytes as total_size
+            FROM user_quota_usage
+            WHERE owner = :username
             """;
         return databaseClient.sql(sql)
                 .bind(USERNAME, username)
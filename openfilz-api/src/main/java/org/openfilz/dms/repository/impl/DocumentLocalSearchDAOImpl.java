@@ -5,6 +5,7 @@ import org.openfilz.dms.dto.request.ListFolderRequest;
 import org.openfilz.dms.dto.request.SortInput;
 import org.openfilz.dms.dto.response.Suggest;
 import org.openfilz.dms.repository.DocumentLocalSearchDAO;
+import org.openfilz.dms.repository.ReadReplica;
 import org.openfilz.dms.repository.graphql.ListAllFolderCriteria;
 import org.openfilz.dms.repository.graphql.ListFolderCriteria;
 import org.openfilz.dms.repository.graphql.ListFolderDataFetcher;
@@ -62,7 +63,7 @@ public class DocumentLocalSearchDAOImpl implements DocumentLocalSearchDAO {
         } else {
             sqlDbQuery = listFolderCriteria.bindCriteria(sqlDbQuery, listFolderRequest);
         }
-        return executeQuery(sqlDbQuery);
+        return ReadReplica.readOnly(executeQuery(sqlDbQuery));
     }
 
     protected boolean applyFilters(Map<String, String> filterMap, StringBuilder sqlQuery, ListFolderRequest listFolderRequest) {
@@ -29,25 +29,14 @@ public class DocumentSoftDeleteDAO implements UserInfoService, SqlQueryUtils {
     public static final String SOFT_DELETE_DOC = "UPDATE documents SET active = false where id = :id";
     public static final String INSERT_INTO_RECYCLE_BIN = "insert into recycle_bin(id, deleted_by) values ($1, $2)";
     public static final String RECURSIVE_SET_DOCS_INACTIVE = """
-            WITH RECURSIVE descendants AS (
-                SELECT id FROM documents WHERE id = :docId
-                UNION ALL
-                SELECT d.id FROM documents d
-                INNER JOIN descendants parent ON d.parent_id = parent.id
-            )
             UPDATE documents
             SET active = false
-            WHERE id IN (SELECT id FROM descendants)""";
+            WHERE path <@ (SELECT path FROM documents WHERE id = :docId)""";
     public static final String RECURSIVE_INSERT_IN_RECYCLE_BIN = """
-            WITH RECURSIVE descendants AS (
-                SELECT id FROM documents WHERE id = :docId and active = true
-                UNION ALL
-                SELECT d.id FROM documents d
-                INNER JOIN descendants parent ON d.parent_id = parent.id
-                WHERE d.active = true
-            )
             INSERT INTO recycle_bin(id, deleted_by)
-            SELECT id, :email FROM descendants""";
+            SELECT id, :email FROM documents
+            WHERE path <@ (SELECT path FROM documents WHERE id = :docId AND active = true)
+              AND active = true""";
     public static final String FIND_DOCS_TO_DELETE = """
             SELECT
                 d.id,
@@ -88,34 +77,17 @@ public class DocumentSoftDeleteDAO implements UserInfoService, SqlQueryUtils {
                 )""";
 
     public static final String RESTORE_DOCS = """
-            WITH RECURSIVE descendants AS (
-                SELECT id FROM documents WHERE id = :docId
-                UNION ALL
-                SELECT d.id FROM documents d
-                INNER JOIN descendants parent ON d.parent_id = parent.id
-            )
             UPDATE documents
             SET active = true
-            WHERE id IN (SELECT id FROM descendants)
+            WHERE path <@ (SELECT path FROM documents WHERE id = :docId)
             """;
     public static final String FIND_DESCENDANT_IDS = """
-            WITH RECURSIVE descendants AS (
-                SELECT id FROM documents WHERE id = :docId
-                UNION ALL
-                SELECT d.id FROM documents d
-                INNER JOIN descendants parent ON d.parent_id = parent.id
-            )
-            SELECT id FROM descendants""";
+            SELECT id FROM documents
+            WHERE path <@ (SELECT path FROM documents WHERE id = :docId)""";
 
     public static final String EMPTY_BIN_WHERE_IDS = """
-            WITH RECURSIVE descendants AS (
-                SELECT id FROM documents WHERE id = :docId
-                UNION ALL
-                SELECT d.id FROM documents d
-                INNER JOIN descendants parent ON d.parent_id = parent.id
-            )
             delete from recycle_bin
-            WHERE id IN (SELECT id FROM descendants)
+            WHERE id IN (SELECT id FROM documents WHERE path <@ (SELECT path FROM documents WHERE id = :docId))
             """;
 
 
@@ -250,13 +222,8 @@ public class DocumentSoftDeleteDAO implements UserInfoService, SqlQueryUtils {
      */
     public Mono<Long> getTotalSizeToRestore(UUID documentId) {
         String sql = """
-                WITH RECURSIVE descendants AS (
-                    SELECT id, type, size FROM documents WHERE id = :docId
-                    UNION ALL
-                    SELECT d.id, d.type, d.size FROM documents d
-                    INNER JOIN descendants parent ON d.parent_id = parent.id
-                )
-                SELECT COALESCE(SUM(size), 0) as total_size FROM descendants WHERE type = 'FILE'
+                SELECT COALESCE(SUM(size), 0) as total_size FROM documents
+                WHERE path <@ (SELECT path FROM documents WHERE id = :docId) AND type = 'FILE'
                 """;
         return databaseClient.sql(sql)
                 .bind("docId", documentId)
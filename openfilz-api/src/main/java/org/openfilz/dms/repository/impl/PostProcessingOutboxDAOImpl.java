@@ -0,0 +1,151 @@
+package org.openfilz.dms.repository.impl;
+
+import io.r2dbc.postgresql.codec.Json;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.openfilz.dms.dto.PostProcessingEvent;
+import org.openfilz.dms.dto.PostProcessingQueueStats;
+import org.openfilz.dms.enums.PostProcessingEventType;
+import org.openfilz.dms.repository.PostProcessingOutboxDAO;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.openfilz.dms.entity.SqlTableMapping.POST_PROCESSING_EVENT;
+
+@Service
+@RequiredArgsConstructor
+public class PostProcessingOutboxDAOImpl implements PostProcessingOutboxDAO {
+
+    private static final int MAX_ERROR_LENGTH = 4000;
+
+    /**
+     * Ids are assigned in the order of the arrays, which is the order the events are run in.
+     */
+    private static final String ENQUEUE = """
+            INSERT INTO %s (event_type, document_id, payload)
+            SELECT e.event_type, e.document_id, e.payload::jsonb
+            FROM unnest(:types::varchar[], :documentIds::uuid[], :payloads::text[])
+                 WITH ORDINALITY AS e(event_type, document_id, payload, ord)
+            ORDER BY e.ord""".formatted(POST_PROCESSING_EVENT);
+    private static final String CLAIM = """
+            UPDATE %1$s e SET attempts = e.attempts + 1, locked_until = now() + :leaseMs * INTERVAL '1 millisecond'
+            FROM (SELECT p.id FROM %1$s p
+                  WHERE p.event_type = :type AND p.status = 'PENDING' AND p.available_at <= now()
+                    AND (p.locked_until IS NULL OR p.locked_until < now())
+                    AND NOT EXISTS (SELECT 1 FROM %1$s o
+                                    WHERE o.document_id = p.document_id AND o.id < p.id AND o.status = 'PENDING'
+                                      AND o.event_type = ANY(:orderedTypes::varchar[]))
+                  ORDER BY p.id
+                  LIMIT :limit
+                  FOR UPDATE SKIP LOCKED) c
+            WHERE e.id = c.id
+            RETURNING e.id, e.event_type, e.document_id, e.payload, e.attempts""".formatted(POST_PROCESSING_EVENT);
+    private static final String COMPLETE = "DELETE FROM " + POST_PROCESSING_EVENT + " WHERE id = :id";
+    private static final String RETRY = "UPDATE " + POST_PROCESSING_EVENT + " SET available_at = now() + :delayMs * INTERVAL '1 millisecond', " +
+            "locked_until = NULL, last_error = :error WHERE id = :id";
+    private static final String MARK_FAILED = "UPDATE " + POST_PROCESSING_EVENT + " SET status = 'FAILED', locked_until = NULL, " +
+            "last_error = :error WHERE id = :id";
+    private static final String STATS = """
+            SELECT event_type,
+                   COUNT(*) FILTER (WHERE status = 'PENDING') AS pending,
+                   COUNT(*) FILTER (WHERE status = 'FAILED') AS failed,
+                   COALESCE((EXTRACT(EPOCH FROM now() - MIN(created_at) FILTER (WHERE status = 'PENDING')) * 1000)::bigint, 0) AS lag_ms
+            FROM %s
+            GROUP BY event_type""".formatted(POST_PROCESSING_EVENT);
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Void> enqueue(List<PostProcessingEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+        int size = events.size();
+        String[] types = new String[size];
+        UUID[] documentIds = new UUID[size];
+        String[] payloads = new String[size];
+        for (int i = 0; i < size; i++) {
+            PostProcessingEvent event = events.get(i);
+            types[i] = event.type().name();
+            documentIds[i] = event.documentId();
+            payloads[i] = event.payload() != null ? event.payload().asString() : null;
+        }
+        return databaseClient.sql(ENQUEUE)
+                .bind("types", types)
+                .bind("documentIds", documentIds)
+                .bind("payloads", payloads)
+                .then();
+    }
+
+    @Override
+    public Flux<PostProcessingEvent> claim(PostProcessingEventType type, int limit, Duration lease) {
+        return databaseClient.sql(CLAIM)
+                .bind("type", type.name())
+                .bind("orderedTypes", Arrays.stream(PostProcessingEventType.values())
+                        .filter(other -> other.getTarget().equals(type.getTarget()))
+                        .map(Enum::name)
+                        .toArray(String[]::new))
+                .bind("limit", limit)
+                .bind("leaseMs", lease.toMillis())
+                .map(this::toEvent)
+                .all();
+    }
+
+    @Override
+    public Mono<Void> complete(long id) {
+        return databaseClient.sql(COMPLETE)
+                .bind("id", id)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> retry(long id, Duration delay, String error) {
+        return databaseClient.sql(RETRY)
+                .bind("id", id)
+                .bind("delayMs", delay.toMillis())
+                .bind("error", truncate(error))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> markFailed(long id, String error) {
+        return databaseClient.sql(MARK_FAILED)
+                .bind("id", id)
+                .bind("error", truncate(error))
+                .then();
+    }
+
+    @Override
+    public Flux<PostProcessingQueueStats> getStats() {
+        return databaseClient.sql(STATS)
+                .map(row -> new PostProcessingQueueStats(
+                        PostProcessingEventType.valueOf(row.get("event_type", String.class)),
+                        row.get("pending", Long.class),
+                        row.get("failed", Long.class),
+                        Duration.ofMillis(row.get("lag_ms", Long.class))))
+                .all();
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return "Unexpected error";
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private PostProcessingEvent toEvent(Readable row) {
+        return new PostProcessingEvent(
+                row.get("id", Long.class),
+                PostProcessingEventType.valueOf(row.get("event_type", String.class)),
+                row.get("document_id", UUID.class),
+                row.get("payload", Json.class),
+                row.get("attempts", Integer.class));
+    }
+}
@@ -0,0 +1,117 @@
+package org.openfilz.dms.repository.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.openfilz.dms.repository.QuotaReservationDAO;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+import static org.openfilz.dms.entity.SqlTableMapping.QUOTA_RESERVATION;
+import static org.openfilz.dms.entity.SqlTableMapping.USER_QUOTA_USAGE;
+
+@Service
+@RequiredArgsConstructor
+public class QuotaReservationDAOImpl implements QuotaReservationDAO {
+
+    private static final String ENSURE_USAGE = "INSERT INTO " + USER_QUOTA_USAGE + " (owner) VALUES (:owner) ON CONFLICT (owner) DO NOTHING";
+    private static final String RESERVE = """
+            WITH reserved AS (
+                UPDATE %1$s SET reserved_bytes = reserved_bytes + :size
+                WHERE owner = :owner
+                  AND used_bytes + reserved_bytes + :size <= :maxBytes
+                  AND NOT EXISTS (SELECT 1 FROM %2$s WHERE id = :id)
+                RETURNING owner
+            )
+            INSERT INTO %2$s (id, owner, size, expires_at)
+            SELECT :id, owner, :size, :expiresAt FROM reserved
+            """.formatted(USER_QUOTA_USAGE, QUOTA_RESERVATION);
+    private static final String EXISTS = "SELECT EXISTS (SELECT 1 FROM " + QUOTA_RESERVATION + " WHERE id = :id)";
+    private static final String USAGE = "SELECT used_bytes + reserved_bytes FROM " + USER_QUOTA_USAGE + " WHERE owner = :owner";
+    private static final String RELEASE = """
+            WITH released AS (
+                DELETE FROM %2$s WHERE id = :id RETURNING owner, size
+            )
+            UPDATE %1$s u SET reserved_bytes = u.reserved_bytes - r.size
+            FROM released r
+            WHERE u.owner = r.owner
+            """.formatted(USER_QUOTA_USAGE, QUOTA_RESERVATION);
+    private static final String MERGE = """
+            WITH merged AS (
+                DELETE FROM %1$s WHERE id = ANY(:ids) RETURNING owner, size
+            )
+            INSERT INTO %1$s (id, owner, size, expires_at)
+            SELECT :id, owner, SUM(size), :expiresAt FROM merged GROUP BY owner
+            """.formatted(QUOTA_RESERVATION);
+    private static final String RELEASE_EXPIRED = """
+            WITH expired AS (
+                DELETE FROM %2$s WHERE expires_at < :now RETURNING owner, size
+            ), totals AS (
+                SELECT owner, SUM(size) AS size FROM expired GROUP BY owner
+            )
+            UPDATE %1$s u SET reserved_bytes = u.reserved_bytes - t.size
+            FROM totals t
+            WHERE u.owner = t.owner
+            """.formatted(USER_QUOTA_USAGE, QUOTA_RESERVATION);
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Boolean> reserve(String id, String owner, long size, long maxBytes, OffsetDateTime expiresAt) {
+        return databaseClient.sql(ENSURE_USAGE)
+                .bind("owner", owner)
+                .then()
+                .then(databaseClient.sql(RESERVE)
+                        .bind("id", id)
+                        .bind("owner", owner)
+                        .bind("size", size)
+                        .bind("maxBytes", maxBytes)
+                        .bind("expiresAt", expiresAt)
+                        .fetch()
+                        .rowsUpdated()
+                        .map(count -> count > 0));
+    }
+
+    @Override
+    public Mono<Boolean> exists(String id) {
+        return databaseClient.sql(EXISTS)
+                .bind("id", id)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Long> getUsage(String owner) {
+        return databaseClient.sql(USAGE)
+                .bind("owner", owner)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .defaultIfEmpty(0L);
+    }
+
+    @Override
+    public Mono<Void> release(String id) {
+        return databaseClient.sql(RELEASE)
+                .bind("id", id)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> merge(Collection<String> ids, String id, OffsetDateTime expiresAt) {
+        return databaseClient.sql(MERGE)
+                .bind("ids", ids.toArray(String[]::new))
+                .bind("id", id)
+                .bind("expiresAt", expiresAt)
+                .then();
+    }
+
+    @Override
+    public Mono<Long> releaseExpired(OffsetDateTime now) {
+        return databaseClient.sql(RELEASE_EXPIRED)
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -1,16 +1,16 @@
 package org.openfilz.dms.repository.impl;
 
 import lombok.RequiredArgsConstructor;
-import org.openfilz.dms.entity.SqlColumnMapping;
-import org.openfilz.dms.entity.SqlTableMapping;
-import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.dto.StorageStats;
+import org.openfilz.dms.repository.ReadReplica;
 import org.openfilz.dms.repository.StatisticsDAO;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import static org.openfilz.dms.entity.SqlColumnMapping.ACTIVE;
+import static org.openfilz.dms.entity.SqlTableMapping.STORAGE_STATS;
 
 @Service
 @RequiredArgsConstructor
@@ -19,51 +19,25 @@ public class StatisticsDAOImpl implements StatisticsDAO {
 
     private final DatabaseClient databaseClient;
 
-    private final static String AND_IS_ACTIVE = " and " + ACTIVE + " = true";
-    private static final String COUNT_BY_TYPE = "SELECT COUNT(*) FROM " + SqlTableMapping.DOCUMENT + " WHERE " + SqlColumnMapping.TYPE + " = :type" + AND_IS_ACTIVE;
-    private static final String STORAGE_BY_TYPE = "SELECT COALESCE(SUM(" + SqlColumnMapping.SIZE + "), 0) FROM " + SqlTableMapping.DOCUMENT +
-            " WHERE " + SqlColumnMapping.CONTENT_TYPE + " LIKE :pattern AND " + SqlColumnMapping.TYPE + " = :type" + AND_IS_ACTIVE;
-    private static final String FILES_BY_TYPE = "SELECT COUNT(*) FROM " + SqlTableMapping.DOCUMENT +
-            " WHERE " + SqlColumnMapping.CONTENT_TYPE + " LIKE :pattern AND " + SqlColumnMapping.TYPE + " = :type" + AND_IS_ACTIVE;
-    private static final String TOTAL_STORAGE = "SELECT COALESCE(SUM(" + SqlColumnMapping.SIZE + "), 0) FROM " + SqlTableMapping.DOCUMENT +
-            " WHERE " + SqlColumnMapping.TYPE + " = :type" + AND_IS_ACTIVE;
+    private static final String STATS_BY_CATEGORY = "SELECT category, SUM(item_count) AS item_count, SUM(total_size) AS total_size FROM " +
+            STORAGE_STATS + " GROUP BY category";
+    private static final String RECONCILE = "SELECT reconcile_storage_stats()";
 
     @Override
-    public Mono<Long> countFilesByType(DocumentType type) {
-        return databaseClient.sql(COUNT_BY_TYPE)
-                .bind("type", type.name())
-                .map(row -> row.get(0, Long.class))
-                .one()
-                .defaultIfEmpty(0L);
+    public Flux<StorageStats> getStorageStatsByCategory() {
+        return ReadReplica.readOnly(databaseClient.sql(STATS_BY_CATEGORY)
+                .map(row -> new StorageStats(
+                        row.get("category", String.class),
+                        row.get("item_count", Long.class),
+                        row.get("total_size", Long.class)))
+                .all());
     }
 
     @Override
-    public Mono<Long> getTotalStorageByContentType(String contentTypePattern) {
-        return databaseClient.sql(STORAGE_BY_TYPE)
-                .bind("pattern", contentTypePattern)
-                .bind("type", DocumentType.FILE.name())
-                .map(row -> row.get(0, Long.class))
-                .one()
-                .defaultIfEmpty(0L);
-    }
-
-    @Override
-    public Mono<Long> countFilesByContentType(String contentTypePattern) {
-        return databaseClient.sql(FILES_BY_TYPE)
-                .bind("pattern", contentTypePattern)
-                .bind("type", DocumentType.FILE.name())
-                .map(row -> row.get(0, Long.class))
-                .one()
-                .defaultIfEmpty(0L);
-    }
-
-    @Override
-    public Mono<Long> getTotalStorageUsed() {
-        return databaseClient.sql(TOTAL_STORAGE)
-                .bind("type", DocumentType.FILE.name())
-                .map(row -> row.get(0, Long.class))
-                .one()
-                .defaultIfEmpty(0L);
+    public Mono<Integer> reconcileStorageStats() {
+        return databaseClient.sql(RECONCILE)
+                .map(row -> row.get(0, Integer.class))
+                .one();
     }
 
 }
@@ -0,0 +1,136 @@
+package org.openfilz.dms.repository.impl;
+
+import io.r2dbc.postgresql.codec.Json;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.openfilz.dms.dto.TusStorageUpload;
+import org.openfilz.dms.dto.TusUploadMetadata;
+import org.openfilz.dms.repository.TusUploadDAO;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.openfilz.dms.entity.SqlTableMapping.TUS_UPLOAD;
+
+@Service
+@RequiredArgsConstructor
+public class TusUploadDAOImpl implements TusUploadDAO {
+
+    private static final TypeReference<Map<String, String>> METADATA_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<TusStorageUpload.Part>> PARTS_TYPE = new TypeReference<>() {};
+
+    private static final String COLUMNS = "upload_id, upload_length, upload_offset, owner, metadata, storage_path, " +
+            "multipart_upload_id, parts, created_at, expires_at, upload_concat";
+    private static final String INSERT = "INSERT INTO " + TUS_UPLOAD + " (" + COLUMNS + ") VALUES " +
+            "(:id, :length, :offset, :owner, :metadata, :storagePath, :multipartUploadId, :parts, :createdAt, :expiresAt, :concat)";
+    private static final String FIND_BY_ID = "SELECT " + COLUMNS + " FROM " + TUS_UPLOAD + " WHERE upload_id = :id";
+    private static final String UPDATE_PROGRESS = "UPDATE " + TUS_UPLOAD + " SET upload_offset = :offset, parts = :parts " +
+            "WHERE upload_id = :id AND upload_offset = :expectedOffset";
+    private static final String FIND_EXPIRED = "SELECT " + COLUMNS + " FROM " + TUS_UPLOAD +
+            " WHERE expires_at < :now ORDER BY expires_at LIMIT :limit";
+    private static final String DELETE = "DELETE FROM " + TUS_UPLOAD + " WHERE upload_id = :id";
+    private static final String DELETE_ALL = "DELETE FROM " + TUS_UPLOAD + " WHERE upload_id = ANY(:ids)";
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> create(TusUploadMetadata upload) {
+        TusStorageUpload storage = upload.storage();
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT)
+                .bind("id", upload.uploadId())
+                .bind("length", upload.length())
+                .bind("offset", upload.offset())
+                .bind("owner", upload.email())
+                .bind("metadata", Json.of(objectMapper.writeValueAsString(upload.metadata() != null ? upload.metadata() : Map.of())))
+                .bind("storagePath", storage.storagePath())
+                .bind("parts", toJson(storage.parts()))
+                .bind("createdAt", upload.createdAt().atOffset(ZoneOffset.UTC))
+                .bind("expiresAt", upload.expiresAt().atOffset(ZoneOffset.UTC));
+        spec = storage.multipartUploadId() != null
+                ? spec.bind("multipartUploadId", storage.multipartUploadId())
+                : spec.bindNull("multipartUploadId", String.class);
+        spec = upload.concat() != null
+                ? spec.bind("concat", upload.concat())
+                : spec.bindNull("concat", String.class);
+        return spec.then();
+    }
+
+    @Override
+    public Mono<TusUploadMetadata> findById(String uploadId) {
+        return databaseClient.sql(FIND_BY_ID)
+                .bind("id", uploadId)
+                .map(this::toUpload)
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> updateProgress(String uploadId, long expectedOffset, TusStorageUpload storage) {
+        return databaseClient.sql(UPDATE_PROGRESS)
+                .bind("id", uploadId)
+                .bind("offset", storage.size())
+                .bind("parts", toJson(storage.parts()))
+                .bind("expectedOffset", expectedOffset)
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count > 0);
+    }
+
+    @Override
+    public Flux<TusUploadMetadata> findExpired(Instant now, int limit) {
+        return databaseClient.sql(FIND_EXPIRED)
+                .bind("now", now.atOffset(ZoneOffset.UTC))
+                .bind("limit", limit)
+                .map(this::toUpload)
+                .all();
+    }
+
+    @Override
+    public Mono<Void> delete(String uploadId) {
+        return databaseClient.sql(DELETE)
+                .bind("id", uploadId)
+                .then();
+    }
+
+    @Override
+    public Mono<Long> delete(Collection<String> uploadIds) {
+        return databaseClient.sql(DELETE_ALL)
+                .bind("ids", uploadIds.toArray(String[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Json toJson(List<TusStorageUpload.Part> parts) {
+        return Json.of(objectMapper.writeValueAsString(parts));
+    }
+
+    private TusUploadMetadata toUpload(Readable row) {
+        Json metadata = row.get("metadata", Json.class);
+        long offset = row.get("upload_offset", Long.class);
+        TusStorageUpload storage = new TusStorageUpload(
+                row.get("storage_path", String.class),
+                row.get("multipart_upload_id", String.class),
+                objectMapper.readValue(row.get("parts", Json.class).asString(), PARTS_TYPE),
+                offset);
+        return new TusUploadMetadata(
+                row.get("upload_id", String.class),
+                row.get("upload_length", Long.class),
+                offset,
+                row.get("created_at", OffsetDateTime.class).toInstant(),
+                row.get("expires_at", OffsetDateTime.class).toInstant(),
+                metadata != null ? objectMapper.readValue(metadata.asString(), METADATA_TYPE) : Map.of(),
+                row.get("owner", String.class),
+                storage,
+                row.get("upload_concat", String.class));
+    }
+}
@@ -0,0 +1,37 @@
+package org.openfilz.dms.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.service.AuditArchiveService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the partitions of the audit log ahead of time, then archives the partitions older than the retention
+ * when archival is enabled.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditPartitionScheduler {
+
+    private final AuditArchiveService auditArchiveService;
+
+    @Scheduled(cron = "${openfilz.audit.partitions.maintenance-cron:0 30 2 * * ?}")
+    public void maintainPartitions() {
+        auditArchiveService.createPartitions()
+                .doOnSuccess(created -> {
+                    if (created != null && created > 0) {
+                        log.info("Created {} audit log partitions", created);
+                    }
+                })
+                .then(auditArchiveService.archiveClosedPartitions())
+                .doOnSuccess(archived -> {
+                    if (archived != null && archived > 0) {
+                        log.info("Archived {} audit log partitions", archived);
+                    }
+                })
+                .doOnError(e -> log.error("Audit log partition maintenance failed", e))
+                .subscribe();
+    }
+}
@@ -7,6 +7,7 @@ import org.openfilz.dms.service.AuditService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 @Slf4j
 @Component
@@ -18,8 +19,18 @@ public class AuditVerificationScheduler {
 
     @Scheduled(cron = "${openfilz.audit.chain.verification-cron:0 0 3 * * ?}")
     public void verifyAuditChain() {
-        log.info("Starting scheduled audit chain verification");
-        auditService.verifyChain()
+        log.info("Starting scheduled audit chain verification of the new entries");
+        report(auditService.verifyNewEntries());
+    }
+
+    @Scheduled(cron = "${openfilz.audit.chain.full-verification-cron:0 0 4 * * SUN}")
+    public void verifyFullAuditChain() {
+        log.info("Starting scheduled audit chain verification of all the entries");
+        report(auditService.verifyChain());
+    }
+
+    private void report(Mono<AuditVerificationResult> verification) {
+        verification
                 .doOnNext(result -> {
                     switch (result.status()) {
                         case VALID -> log.info("Audit chain verification passed: {} entries verified", result.verifiedEntries());
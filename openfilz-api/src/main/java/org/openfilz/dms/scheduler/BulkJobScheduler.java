@@ -0,0 +1,53 @@
+package org.openfilz.dms.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.service.BulkJobService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drives the execution of the bulk jobs on this instance: starts the pending jobs (and the jobs abandoned by
+ * a stopped instance) as workers become free, keeps the running jobs alive with heartbeats, and removes the
+ * expired jobs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "openfilz.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkJobScheduler {
+
+    private final BulkJobService bulkJobService;
+
+    @Scheduled(fixedDelayString = "${openfilz.jobs.poll-interval:5000}")
+    public void dispatchJobs() {
+        bulkJobService.dispatch()
+                .doOnSuccess(started -> {
+                    if (started != null && started > 0) {
+                        log.debug("Started {} bulk jobs", started);
+                    }
+                })
+                .doOnError(e -> log.error("Error starting bulk jobs", e))
+                .subscribe();
+    }
+
+    @Scheduled(fixedDelayString = "${openfilz.jobs.heartbeat-interval:30000}")
+    public void sendHeartbeats() {
+        bulkJobService.heartbeat()
+                .doOnError(e -> log.error("Error sending the heartbeat of the running bulk jobs", e))
+                .subscribe();
+    }
+
+    @Scheduled(cron = "${openfilz.jobs.cleanup-cron:0 0 * * * ?}")
+    public void removeExpiredJobs() {
+        bulkJobService.cleanupExpiredJobs()
+                .doOnSuccess(count -> {
+                    if (count != null && count > 0) {
+                        log.info("Bulk job cleanup completed: {} expired jobs removed", count);
+                    }
+                })
+                .doOnError(e -> log.error("Error during bulk job cleanup", e))
+                .subscribe();
+    }
+}
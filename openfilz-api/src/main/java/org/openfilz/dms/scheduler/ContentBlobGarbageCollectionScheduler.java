@@ -0,0 +1,35 @@
+package org.openfilz.dms.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.ContentAddressableStorageProperties;
+import org.openfilz.dms.service.StorageService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically deletes content-addressable blobs that no document references anymore.
+ *
+ * <p>Registered unconditionally and guarded at runtime (native-image safe, see
+ * {@link StorageVersionCleanupScheduler}): it does real work only when
+ * {@code storage.content-addressable.enabled = true}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContentBlobGarbageCollectionScheduler {
+
+    private final StorageService storageService;
+    private final ContentAddressableStorageProperties properties;
+
+    @Scheduled(cron = "${storage.content-addressable.gc-cron:0 30 3 * * ?}")
+    public void collectUnreferencedBlobs() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        log.info("Starting garbage collection of unreferenced blobs (grace period {})", properties.getGcGracePeriod());
+        storageService.collectUnreferencedBlobs()
+                .doOnError(e -> log.error("Blob garbage collection failed", e))
+                .subscribe();
+    }
+}
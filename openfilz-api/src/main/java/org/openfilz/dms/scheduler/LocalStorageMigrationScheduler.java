@@ -0,0 +1,57 @@
+package org.openfilz.dms.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.LocalStorageProperties;
+import org.openfilz.dms.service.impl.FileSystemStorageService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves files of the flat local storage layout ({@code {base-path}/{UUID}#{filename}}) to their shard directory,
+ * one batch per run, while the storage keeps resolving both layouts.
+ *
+ * <p>Registered unconditionally and guarded at runtime (native-image safe, see
+ * {@link StorageVersionCleanupScheduler}): it does real work only when {@code storage.type = local},
+ * {@code storage.local.shard-levels > 0} and {@code storage.local.migration-enabled = true}.
+ * Once a run finds no flat file left, the scheduler stops looking until the next restart.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalStorageMigrationScheduler {
+
+    private final ObjectProvider<FileSystemStorageService> localStorageProvider;
+    private final LocalStorageProperties properties;
+
+    @Value("${storage.type:local}")
+    private String storageType;
+
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Scheduled(initialDelayString = "${storage.local.migration-initial-delay:60000}",
+            fixedDelayString = "${storage.local.migration-interval:30000}")
+    public void migrateFlatFiles() {
+        if (!"local".equals(storageType) || !properties.isSharded() || !properties.isMigrationEnabled()
+                || completed.get() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        localStorageProvider.getObject().migrateFlatFiles(properties.getMigrationBatchSize())
+                .doOnNext(moved -> {
+                    if (moved > 0) {
+                        log.info("Moved {} file(s) of the flat local storage layout to shard directories", moved);
+                    } else {
+                        log.info("Local storage layout migration complete");
+                        completed.set(true);
+                    }
+                })
+                .doOnError(e -> log.error("Local storage layout migration failed", e))
+                .doFinally(signal -> running.set(false))
+                .subscribe();
+    }
+}
@@ -0,0 +1,244 @@
+package org.openfilz.dms.scheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.FullTextProperties;
+import org.openfilz.dms.config.OutboxPostProcessingCondition;
+import org.openfilz.dms.dto.PostProcessingEvent;
+import org.openfilz.dms.dto.PostProcessingQueueStats;
+import org.openfilz.dms.entity.Document;
+import org.openfilz.dms.enums.PostProcessingEventType;
+import org.openfilz.dms.repository.DocumentRepository;
+import org.openfilz.dms.repository.PostProcessingOutboxDAO;
+import org.openfilz.dms.service.DocumentEmbeddingService;
+import org.openfilz.dms.service.FullTextService;
+import org.openfilz.dms.service.impl.ThumbnailPostProcessor;
+import org.openfilz.dms.utils.JsonUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.openfilz.dms.service.impl.OutboxMetadataPostProcessor.KEY;
+import static org.openfilz.dms.service.impl.OutboxMetadataPostProcessor.SOURCE_ID;
+import static org.openfilz.dms.service.impl.OutboxMetadataPostProcessor.VALUE;
+
+/**
+ * Runs the post-processing events recorded in the outbox ({@code openfilz.full-text.indexation-mode: outbox}).
+ * <p>
+ * Each event type has its own pool of workers on each instance, bounded by
+ * {@code openfilz.full-text.outbox.concurrency}: the pending events are claimed with {@code FOR UPDATE SKIP LOCKED}
+ * and run, batch after batch until the outbox of the type is empty, then polled again after
+ * {@code openfilz.full-text.outbox.poll-interval}. A run event is removed; a failed event is retried with an
+ * exponential backoff, and kept as FAILED once it was attempted {@code openfilz.full-text.outbox.max-attempts} times.
+ * <p>
+ * The outbox is published per event type as the {@value #DEPTH_METRIC}, {@value #LAG_METRIC} and
+ * {@value #FAILED_METRIC} gauges.
+ */
+@Slf4j
+@Component
+@Conditional(OutboxPostProcessingCondition.class)
+public class PostProcessingOutboxWorker implements AutoCloseable {
+
+    public static final String DEPTH_METRIC = "openfilz.post-processing.outbox.depth";
+    public static final String LAG_METRIC = "openfilz.post-processing.outbox.lag";
+    public static final String FAILED_METRIC = "openfilz.post-processing.outbox.failed";
+
+    /**
+     * Doubling of the backoff stops there: the maximum backoff is reached long before.
+     */
+    private static final int MAX_BACKOFF_EXPONENT = 20;
+
+    private final PostProcessingOutboxDAO outboxDAO;
+    private final DocumentRepository documentRepository;
+    private final JsonUtils jsonUtils;
+    private final FullTextProperties.Outbox properties;
+    private final ObjectProvider<FullTextService> fullTextService;
+    private final ObjectProvider<ThumbnailPostProcessor> thumbnailPostProcessor;
+    private final ObjectProvider<DocumentEmbeddingService> documentEmbeddingService;
+
+    private final Map<PostProcessingEventType, PostProcessingQueueStats> stats = new EnumMap<>(PostProcessingEventType.class);
+    private final Disposable.Composite workers = Disposables.composite();
+
+    public PostProcessingOutboxWorker(PostProcessingOutboxDAO outboxDAO, DocumentRepository documentRepository,
+                                      JsonUtils jsonUtils, FullTextProperties fullTextProperties,
+                                      ObjectProvider<FullTextService> fullTextService,
+                                      ObjectProvider<ThumbnailPostProcessor> thumbnailPostProcessor,
+                                      ObjectProvider<DocumentEmbeddingService> documentEmbeddingService,
+                                      ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.outboxDAO = outboxDAO;
+        this.documentRepository = documentRepository;
+        this.jsonUtils = jsonUtils;
+        this.properties = fullTextProperties.getOutbox();
+        this.fullTextService = fullTextService;
+        this.thumbnailPostProcessor = thumbnailPostProcessor;
+        this.documentEmbeddingService = documentEmbeddingService;
+        meterRegistryProvider.ifAvailable(this::registerMetrics);
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        for (PostProcessingEventType type : PostProcessingEventType.values()) {
+            String tag = type.name();
+            Gauge.builder(DEPTH_METRIC, this, worker -> worker.getStats(type).pending())
+                    .description("Post-processing events waiting to be run")
+                    .tag("type", tag)
+                    .register(registry);
+            Gauge.builder(LAG_METRIC, this, worker -> worker.getStats(type).lag().toMillis() / 1000.0)
+                    .description("Age of the oldest post-processing event waiting to be run")
+                    .tag("type", tag)
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder(FAILED_METRIC, this, worker -> worker.getStats(type).failed())
+                    .description("Post-processing events that failed too many times to be retried")
+                    .tag("type", tag)
+                    .register(registry);
+        }
+    }
+
+    private synchronized PostProcessingQueueStats getStats(PostProcessingEventType type) {
+        return stats.getOrDefault(type, new PostProcessingQueueStats(type, 0, 0, Duration.ZERO));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (PostProcessingEventType type : PostProcessingEventType.values()) {
+            workers.add(Flux.interval(properties.getPollInterval())
+                    .onBackpressureDrop()
+                    .concatMap(_ -> drain(type), 1)
+                    .subscribe());
+        }
+        workers.add(Flux.interval(Duration.ZERO, properties.getMetricsInterval())
+                .onBackpressureDrop()
+                .concatMap(_ -> refreshStats(), 1)
+                .subscribe());
+        log.info("Post-processing outbox workers started");
+    }
+
+    /**
+     * Runs the pending events of {@code type}, batch after batch, until a batch is not full.
+     */
+    Mono<Void> drain(PostProcessingEventType type) {
+        int concurrency = properties.getConcurrency(type);
+        return Mono.defer(() -> outboxDAO.claim(type, concurrency, properties.getLease())
+                        .flatMap(this::process, concurrency)
+                        .count())
+                .repeat()
+                .takeUntil(claimed -> claimed < concurrency)
+                .then()
+                .doOnError(e -> log.error("Failed to claim the {} post-processing events: {}", type, e.getMessage()))
+                .onErrorComplete();
+    }
+
+    private Mono<Void> process(PostProcessingEvent event) {
+        return Mono.defer(() -> run(event))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.defer(() -> outboxDAO.complete(event.id())))
+                .onErrorResume(e -> onFailure(event, e));
+    }
+
+    private Mono<Void> onFailure(PostProcessingEvent event, Throwable error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+        Mono<Void> release;
+        if (event.attempts() >= properties.getMaxAttempts()) {
+            log.error("Post-processing event {} {} of document {} failed {} times, giving up: {}",
+                    event.id(), event.type(), event.documentId(), event.attempts(), message);
+            release = outboxDAO.markFailed(event.id(), message);
+        } else {
+            Duration delay = getBackoff(event.attempts(), properties.getInitialBackoff(), properties.getMaxBackoff());
+            log.warn("Post-processing event {} {} of document {} failed (attempt {}), retried in {}: {}",
+                    event.id(), event.type(), event.documentId(), event.attempts(), delay, message);
+            release = outboxDAO.retry(event.id(), delay, message);
+        }
+        // Otherwise the event is claimed again once its lease expires
+        return release
+                .doOnError(e -> log.error("Failed to release the post-processing event {}: {}", event.id(), e.getMessage()))
+                .onErrorComplete();
+    }
+
+    /**
+     * Delay before the next attempt of an event, after its {@code attempts} first attempts failed.
+     */
+    static Duration getBackoff(int attempts, Duration initialBackoff, Duration maxBackoff) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.clamp(attempts - 1, 0, MAX_BACKOFF_EXPONENT));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    Mono<Void> run(PostProcessingEvent event) {
+        UUID documentId = event.documentId();
+        return switch (event.type()) {
+            case INDEX_DOCUMENT -> withDocument(event, document -> fullTextService().indexDocumentMono(document));
+            case INDEX_METADATA -> withDocument(event, document -> fullTextService().indexDocumentMetadataMono(document));
+            case COPY_INDEX -> withDocument(event, document -> fullTextService().copyIndexMono(getSourceId(event), document));
+            case UPDATE_INDEX_FIELD -> {
+                Map<String, Object> field = jsonUtils.toMap(event.payload());
+                yield fullTextService().updateIndexFieldMono(documentId, (String) field.get(KEY), field.get(VALUE));
+            }
+            case DELETE_INDEX -> fullTextService().deleteDocumentsMono(List.of(documentId));
+            case GENERATE_THUMBNAIL -> withDocument(event, document -> thumbnailPostProcessor().generateThumbnail(document));
+            case COPY_THUMBNAIL -> thumbnailPostProcessor().copyThumbnail(getSourceId(event), documentId);
+            case DELETE_THUMBNAIL -> thumbnailPostProcessor().deleteThumbnail(documentId);
+            case EMBED_DOCUMENT -> withDocument(event, document -> documentEmbeddingService().embedDocument(document));
+        };
+    }
+
+    /**
+     * Runs the event on the current state of its document: nothing is left to do for a document deleted since.
+     */
+    private Mono<Void> withDocument(PostProcessingEvent event, Function<Document, Mono<Void>> handler) {
+        return documentRepository.findById(event.documentId())
+                .flatMap(handler)
+                .then();
+    }
+
+    private UUID getSourceId(PostProcessingEvent event) {
+        return UUID.fromString((String) jsonUtils.toMap(event.payload()).get(SOURCE_ID));
+    }
+
+    private FullTextService fullTextService() {
+        return fullTextService.getObject();
+    }
+
+    private ThumbnailPostProcessor thumbnailPostProcessor() {
+        return thumbnailPostProcessor.getObject();
+    }
+
+    private DocumentEmbeddingService documentEmbeddingService() {
+        return documentEmbeddingService.getObject();
+    }
+
+    private Mono<Void> refreshStats() {
+        return outboxDAO.getStats()
+                .collectList()
+                .doOnNext(this::setStats)
+                .doOnError(e -> log.debug("Could not read the post-processing outbox statistics", e))
+                .onErrorComplete()
+                .then();
+    }
+
+    private synchronized void setStats(List<PostProcessingQueueStats> queues) {
+        stats.clear();
+        queues.forEach(queue -> stats.put(queue.type(), queue));
+    }
+
+    /**
+     * Stops claiming events. Events being run when the instance stops are claimed again once their lease expires.
+     */
+    @Override
+    public void close() {
+        workers.dispose();
+    }
+}
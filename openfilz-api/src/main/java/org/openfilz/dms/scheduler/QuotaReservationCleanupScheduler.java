@@ -0,0 +1,39 @@
+package org.openfilz.dms.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.QuotaProperties;
+import org.openfilz.dms.service.UserQuotaService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically releases the user quota reservations of uploads that neither completed nor failed
+ * before their expiration (stopped instance, abandoned TUS upload).
+ *
+ * <p>Registered unconditionally and guarded at runtime: it does real work only when
+ * {@code openfilz.quota.user > 0}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QuotaReservationCleanupScheduler {
+
+    private final UserQuotaService userQuotaService;
+    private final QuotaProperties quotaProperties;
+
+    @Scheduled(fixedDelayString = "${openfilz.quota.reservation-cleanup-interval:300000}")
+    public void releaseExpiredReservations() {
+        if (!quotaProperties.isUserQuotaEnabled()) {
+            return;
+        }
+        userQuotaService.releaseExpiredReservations()
+                .doOnSuccess(users -> {
+                    if (users != null && users > 0) {
+                        log.info("Released expired quota reservations of {} users", users);
+                    }
+                })
+                .doOnError(e -> log.error("Error releasing expired quota reservations", e))
+                .subscribe();
+    }
+}
@@ -19,6 +19,7 @@ import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.openfilz.dms.enums.DocumentType.FILE;
@@ -106,22 +107,18 @@ public class RecycleBinCleanupScheduler {
                     })
                     .then(documentSoftDeleteDAO.permanentDelete(docId))
                     .then(auditService.logAction(action, type, docId))
+                    .then(metadataPostProcessor.deleteDocumentsOnCommit(List.of(docId)))
                     .as(tx::transactional)
-                    .doOnSuccess(_ -> {
-                        log.debug("Permanently deleted file: {}", docId);
-                        metadataPostProcessor.deleteDocument(docId);
-                    });
+                    .doOnSuccess(_ -> log.debug("Permanently deleted file: {}", docId));
         } else {
             // For folders, recursively delete all children first
             return documentDAO.findDocumentsByParentId(docId)
                     .flatMap(this::permanentlyDeleteDocumentRecursive)
                     .then(documentSoftDeleteDAO.permanentDelete(docId))
                     .then(auditService.logAction(action, type, docId))
+                    .then(metadataPostProcessor.deleteDocumentsOnCommit(List.of(docId)))
                     .as(tx::transactional)
-                    .doOnSuccess(_ -> {
-                        log.debug("Permanently deleted folder: {}", docId);
-                        metadataPostProcessor.deleteDocument(docId);
-                    });
+                    .doOnSuccess(_ -> log.debug("Permanently deleted folder: {}", docId));
         }
     }
 }
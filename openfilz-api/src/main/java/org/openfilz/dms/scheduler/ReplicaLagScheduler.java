@@ -0,0 +1,71 @@
+package org.openfilz.dms.scheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.ReadReplicaConnectionFactory;
+import org.openfilz.dms.config.ReadReplicaProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Measures the lag of the read replica, published as the {@value #LAG_METRIC} gauge (seconds, NaN while the
+ * replica cannot be reached). Read-only queries fall back to the primary while the lag exceeds
+ * {@code openfilz.read-replica.max-lag} or the replica cannot be reached.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "openfilz.read-replica.enabled", havingValue = "true")
+public class ReplicaLagScheduler {
+
+    public static final String LAG_METRIC = "openfilz.database.replica.lag";
+
+    private static final Duration MEASURE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final ReadReplicaConnectionFactory connectionFactory;
+    private final ReadReplicaProperties properties;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagScheduler(ConnectionFactory connectionFactory, ReadReplicaProperties properties,
+                               ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.connectionFactory = (ReadReplicaConnectionFactory) connectionFactory;
+        this.properties = properties;
+        meterRegistryProvider.ifAvailable(registry -> Gauge.builder(LAG_METRIC, this, scheduler -> scheduler.lagSeconds)
+                .description("Time since the last transaction replayed by the read replica")
+                .baseUnit("seconds")
+                .register(registry));
+    }
+
+    @Scheduled(fixedDelayString = "${openfilz.read-replica.lag-check-interval:10000}")
+    public void checkReplicaLag() {
+        connectionFactory.measureReplicaLag()
+                .timeout(MEASURE_TIMEOUT)
+                .doOnSuccess(lag -> update(lag != null ? lag : Double.NaN))
+                .doOnError(e -> {
+                    log.debug("Could not measure the read replica lag", e);
+                    update(Double.NaN);
+                })
+                .onErrorComplete()
+                .subscribe();
+    }
+
+    private void update(double lag) {
+        lagSeconds = lag;
+        boolean available = !Double.isNaN(lag) && lag * 1000 <= properties.getMaxLag().toMillis();
+        if (available != connectionFactory.isReplicaAvailable()) {
+            if (available) {
+                log.info("Read replica caught up ({} s behind), read-only queries go to the replica", lag);
+            } else if (Double.isNaN(lag)) {
+                log.warn("Read replica unreachable, read-only queries go to the primary");
+            } else {
+                log.warn("Read replica {} s behind the primary, read-only queries go to the primary", lag);
+            }
+            connectionFactory.setReplicaAvailable(available);
+        }
+    }
+}
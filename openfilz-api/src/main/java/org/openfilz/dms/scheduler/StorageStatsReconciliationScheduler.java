@@ -0,0 +1,36 @@
+package org.openfilz.dms.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.repository.StatisticsDAO;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically rebuilds the storage_stats rollup from the documents table.
+ *
+ * <p>The rollup is maintained by triggers in the same transaction as the documents, so drift is
+ * only expected after manual changes to the database; it is logged when found.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StorageStatsReconciliationScheduler {
+
+    private final StatisticsDAO statisticsDAO;
+
+    @Scheduled(cron = "${openfilz.statistics.reconciliation-cron:0 0 4 * * ?}")
+    public void reconcileStorageStats() {
+        log.debug("Starting storage statistics reconciliation");
+        statisticsDAO.reconcileStorageStats()
+                .doOnSuccess(drifted -> {
+                    if (drifted != null && drifted > 0) {
+                        log.warn("Storage statistics reconciliation corrected {} drifted rows", drifted);
+                    } else {
+                        log.debug("Storage statistics reconciliation completed: no drift found");
+                    }
+                })
+                .doOnError(e -> log.error("Storage statistics reconciliation failed", e))
+                .subscribe();
+    }
+}
@@ -59,6 +59,9 @@ public abstract class AbstractSecurityService implements SecurityService {
             return isGraphQlAuthorized((JwtAuthenticationToken) auth, path);
         }
         path = getContextPath(path, i);
+        if(isJob(path)) {
+            return isJobAuthorized((JwtAuthenticationToken) auth, method, path);
+        }
         if(isThumbnail(method, path) || isQueryOrSearch(method, path))
             return isAuthorized((JwtAuthenticationToken) auth, of(Role.READER.toString(), Role.CONTRIBUTOR.toString()));
         if(isAudit(path)) {
@@ -95,6 +98,33 @@ public abstract class AbstractSecurityService implements SecurityService {
                 && pathStartsWith(path, ENDPOINT_ONLYOFFICE);
     }
 
+    private boolean isJob(String path) {
+        return pathStartsWith(path, RestApiVersion.ENDPOINT_JOBS);
+    }
+
+    /**
+     * Bulk jobs are authorized like the operations they execute: POST /jobs/folders/copy like POST /folders/copy,
+     * deletions for CLEANER only. Following a job, cancelling it and downloading its archive is open to all roles
+     * (users only see their own jobs).
+     */
+    private boolean isJobAuthorized(JwtAuthenticationToken auth, HttpMethod method, String path) {
+        String operationPath = path.substring(RestApiVersion.ENDPOINT_JOBS.length());
+        if (method.equals(HttpMethod.POST) && pathStartsWith(operationPath, RestApiVersion.ENDPOINT_FILES, RestApiVersion.ENDPOINT_FOLDERS)) {
+            if (operationPath.endsWith("/delete")) {
+                return isDeletionAllowed() && isAuthorized(auth, Role.CLEANER.toString());
+            }
+            return isInsertOrUpdateAccess(method, operationPath) && isAuthorized(auth, Role.CONTRIBUTOR.toString());
+        }
+        return isAuthorized(auth, of(Role.READER.toString(), Role.CONTRIBUTOR.toString(), Role.CLEANER.toString()));
+    }
+
+    /**
+     * Whether documents can be deleted at all (through DELETE requests or delete jobs).
+     */
+    protected boolean isDeletionAllowed() {
+        return true;
+    }
+
     protected int getRootContextPathIndex(String path) {
         return path.indexOf(RestApiVersion.API_PREFIX);
     }
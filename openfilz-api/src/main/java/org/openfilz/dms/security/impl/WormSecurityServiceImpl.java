@@ -48,6 +48,11 @@ public class WormSecurityServiceImpl extends AbstractSecurityService {
         return false;
     }
 
+    @Override
+    protected boolean isDeletionAllowed() {
+        return false;
+    }
+
     @Override
     protected boolean isInsertOrUpdateAccess(HttpMethod method, String path) {
         return method.equals(HttpMethod.POST) && (
@@ -0,0 +1,25 @@
+package org.openfilz.dms.service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Maintenance of the monthly partitions of the audit log.
+ */
+public interface AuditArchiveService {
+
+    /**
+     * Creates the partitions of the current month and of the {@code months-ahead} next ones, when missing.
+     *
+     * @return the number of partitions created
+     */
+    Mono<Integer> createPartitions();
+
+    /**
+     * Archives the partitions older than the retention, oldest first: each one is written to a gzip-compressed
+     * file in storage, one JSON object per entry with its hashes, recorded in audit_log_archives, then detached
+     * and dropped. Does nothing unless archival is enabled.
+     *
+     * @return the number of partitions archived
+     */
+    Mono<Integer> archiveClosedPartitions();
+}
@@ -1,5 +1,6 @@
 package org.openfilz.dms.service;
 
+import org.openfilz.dms.dto.audit.AuditEntry;
 import org.openfilz.dms.dto.audit.AuditLog;
 import org.openfilz.dms.dto.audit.AuditVerificationResult;
 import org.openfilz.dms.dto.audit.IAuditLogDetails;
@@ -10,6 +11,7 @@ import org.openfilz.dms.enums.SortOrder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface AuditService {
@@ -17,11 +19,35 @@ public interface AuditService {
 
     Mono<Void> logAction(AuditAction action, DocumentType resourceType, UUID resourceId);
 
+    /**
+     * Logs a batch of entries with one insert per chunk instead of one per entry, in the order given.
+     */
+    Mono<Void> logActions(List<AuditEntry> entries);
+
     Flux<AuditLog> getAuditTrail(UUID resourceId, SortOrder sort);
 
+    /**
+     * Keyset-paginated audit trail of a resource: at most {@code pageSize} entries after the cursor {@code after}
+     * (null for the first page). Every entry is returned when {@code pageSize} is null.
+     */
+    Flux<AuditLog> getAuditTrail(UUID resourceId, SortOrder sort, Integer pageSize, String after);
+
+    /**
+     * Entries matching all the criteria of the request, paginated when it has a page size.
+     */
     Flux<AuditLog> searchAuditTrail(SearchByAuditLogRequest request);
 
+    /**
+     * Verifies the whole chain, its segments in parallel. When older entries were archived, the first entry must
+     * follow the last archived one.
+     */
     Mono<AuditVerificationResult> verifyChain();
 
+    /**
+     * Verifies the entries added since the last successful verification, linked to its last verified entry.
+     * Verifies the whole chain when it was never verified.
+     */
+    Mono<AuditVerificationResult> verifyNewEntries();
+
     Mono<Void> initializeChainIfNeeded();
 }
@@ -0,0 +1,75 @@
+package org.openfilz.dms.service;
+
+import org.openfilz.dms.dto.response.BulkJobInfo;
+import org.openfilz.dms.enums.BulkJobStatus;
+import org.openfilz.dms.enums.BulkJobType;
+import org.springframework.core.io.Resource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Asynchronous bulk operations on large sets of documents: copy, move and delete of files and folders, and
+ * ZIP download, executed in the background with the {@link DocumentService} operations instead of within an
+ * HTTP request.
+ *
+ * <p>Jobs are stored in the database and executed by a bounded pool of workers on each instance, with the
+ * identity of the user who submitted them. The documents of a job are handled in order, one folder or one
+ * batch of files at a time, each in its own transaction together with the checkpoint of the job: a job
+ * interrupted by the stop of its instance is resumed by another one from the first documents not handled.
+ * A document that cannot be handled is recorded in the errors of the job, which goes on with the next ones.
+ */
+public interface BulkJobService {
+
+    /**
+     * Submits a job for the connected user. {@code targetFolderId} and {@code allowDuplicateFileNames} only
+     * apply to copy and move jobs.
+     *
+     * @return the pending job
+     */
+    Mono<BulkJobInfo> submit(BulkJobType type, List<UUID> documentIds, UUID targetFolderId, Boolean allowDuplicateFileNames);
+
+    /**
+     * A job of the connected user, empty if it does not exist.
+     */
+    Mono<BulkJobInfo> getJob(UUID jobId);
+
+    /**
+     * Jobs of the connected user, most recent first, optionally filtered by status.
+     */
+    Flux<BulkJobInfo> listJobs(BulkJobStatus status, int limit);
+
+    /**
+     * Cancels a pending or running job of the connected user. A running job stops before its next documents:
+     * the ones already handled are not restored.
+     *
+     * @return the cancelled job, empty if it does not exist or is already finished
+     */
+    Mono<BulkJobInfo> cancelJob(UUID jobId);
+
+    /**
+     * The ZIP archive built by a completed download job of the connected user, empty if there is none.
+     */
+    Mono<? extends Resource> loadArchive(UUID jobId);
+
+    /**
+     * Claims the jobs to execute on this instance, up to its free workers, and starts them.
+     *
+     * @return the number of started jobs
+     */
+    Mono<Integer> dispatch();
+
+    /**
+     * Records the heartbeat of the jobs running on this instance, so they are not taken over by another one.
+     */
+    Mono<Long> heartbeat();
+
+    /**
+     * Removes the jobs finished for more than the retention period, with their ZIP archives.
+     *
+     * @return the number of removed jobs
+     */
+    Mono<Long> cleanupExpiredJobs();
+}
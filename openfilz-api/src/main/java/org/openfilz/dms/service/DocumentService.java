@@ -6,6 +6,7 @@ import org.openfilz.dms.enums.DocumentTemplateType;
 import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.utils.ContentInfo;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.codec.multipart.FilePart;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -58,7 +59,26 @@ public interface DocumentService {
 
     Mono<? extends Resource> downloadDocument(Document document);
 
-    Mono<Resource> downloadMultipleDocumentsAsZip(List<UUID> documentIds); // Complex: zipping
+    /**
+     * Open a file document's content for streaming, in full or by byte ranges (HTTP Range downloads).
+     * Content is only read from storage once a range is subscribed to; the download is audited by {@link #auditDownload}.
+     */
+    Mono<StreamableContent> openDocumentContent(Document document);
+
+    /**
+     * Audit the download of a file document.
+     */
+    Mono<Void> auditDownload(Document document);
+
+    /**
+     * Stream the given documents (folders with their whole content) as a ZIP archive, without temp file.
+     */
+    Flux<DataBuffer> downloadMultipleDocumentsAsZip(List<UUID> documentIds);
+
+    /**
+     * Stream a folder and its whole content as a ZIP archive, without temp file. The download is audited.
+     */
+    Flux<DataBuffer> downloadFolderAsZip(Document folder);
 
     Flux<UUID> searchDocumentIdsByMetadata(SearchByMetadataRequest request);
 
@@ -3,6 +3,7 @@ package org.openfilz.dms.service;
 import org.openfilz.dms.dto.response.DocumentVersionInfo;
 import org.openfilz.dms.dto.response.DownloadableVersion;
 import org.openfilz.dms.dto.response.RestoreVersionResponse;
+import org.openfilz.dms.dto.response.StreamableContent;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -30,6 +31,11 @@ public interface DocumentVersionService {
      */
     Mono<DownloadableVersion> downloadVersion(UUID documentId, String versionId);
 
+    /**
+     * Open the content of a specific version of a file document for streaming, in full or by byte ranges.
+     */
+    Mono<StreamableContent> openVersionContent(UUID documentId, String versionId);
+
     /**
      * Restore a previous version as the new latest version (history-preserving:
      * a new version is created, nothing is deleted) and log a
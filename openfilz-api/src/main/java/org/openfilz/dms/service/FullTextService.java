@@ -1,7 +1,9 @@
 package org.openfilz.dms.service;
 
 import org.openfilz.dms.entity.Document;
+import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.UUID;
 
 public interface FullTextService {
@@ -17,4 +19,33 @@ public interface FullTextService {
     void updateIndexField(UUID documentId, String openSearchDocumentKey, Object value);
 
     void deleteDocument(UUID id);
+
+    default void deleteDocuments(Collection<UUID> ids) {
+        ids.forEach(this::deleteDocument);
+    }
+
+    /*
+     * Same operations, completing once done with their error if they failed, for the outbox workers which bound
+     * their concurrency and retry them. By default, they complete as soon as the operation is started.
+     */
+
+    default Mono<Void> indexDocumentMono(Document document) {
+        return Mono.fromRunnable(() -> indexDocument(document));
+    }
+
+    default Mono<Void> indexDocumentMetadataMono(Document document) {
+        return Mono.fromRunnable(() -> indexDocumentMetadata(document));
+    }
+
+    default Mono<Void> copyIndexMono(UUID sourceFileId, Document createdDocument) {
+        return Mono.fromRunnable(() -> copyIndex(sourceFileId, createdDocument));
+    }
+
+    default Mono<Void> updateIndexFieldMono(UUID documentId, String openSearchDocumentKey, Object value) {
+        return Mono.fromRunnable(() -> updateIndexField(documentId, openSearchDocumentKey, value));
+    }
+
+    default Mono<Void> deleteDocumentsMono(Collection<UUID> ids) {
+        return Mono.fromRunnable(() -> deleteDocuments(ids));
+    }
 }
@@ -4,6 +4,7 @@ import org.openfilz.dms.entity.Document;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.UUID;
 
@@ -19,6 +20,12 @@ public interface IndexService {
 
     Mono<Void> deleteDocument(UUID id);
 
+    default Mono<Void> deleteDocuments(Collection<UUID> ids) {
+        return Flux.fromIterable(ids)
+                .flatMap(this::deleteDocument)
+                .then();
+    }
+
     Mono<Map<String, Object>> newOpenSearchDocumentMetadata(Document document);
 
     Mono<Void> indexMetadata(UUID documentId, Map<String, Object> metadata);
@@ -1,7 +1,13 @@
 package org.openfilz.dms.service;
 
 import org.openfilz.dms.entity.Document;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface MetadataPostProcessor {
@@ -18,4 +24,55 @@ public interface MetadataPostProcessor {
 
     default void deleteDocument(UUID id) {}
 
+    default void deleteDocuments(Collection<UUID> ids) {
+        ids.forEach(this::deleteDocument);
+    }
+
+    /*
+     * Post-processing of a change made in the current transaction: subscribed inside it, these methods either record
+     * the post-processing in the transaction (outbox mode) or, by default, run it once the transaction is committed.
+     * Without a transaction, the post-processing runs right away.
+     */
+
+    default Mono<Void> processDocumentOnCommit(Document document) {
+        return processDocumentsOnCommit(List.of(document));
+    }
+
+    default Mono<Void> processDocumentsOnCommit(Collection<Document> documents) {
+        return onCommit(() -> documents.forEach(this::processDocument));
+    }
+
+    default Mono<Void> processMetadataOnCommit(Document document) {
+        return onCommit(() -> processMetadata(document));
+    }
+
+    default Mono<Void> copyIndexOnCommit(UUID sourceFileId, Document createdDocument) {
+        return onCommit(() -> copyIndex(sourceFileId, createdDocument));
+    }
+
+    default Mono<Void> updateIndexFieldOnCommit(Collection<UUID> documentIds, String openSearchDocumentKey, Object value) {
+        return onCommit(() -> documentIds.forEach(id -> updateIndexField(id, openSearchDocumentKey, value)));
+    }
+
+    default Mono<Void> deleteDocumentsOnCommit(Collection<UUID> ids) {
+        return onCommit(() -> deleteDocuments(ids));
+    }
+
+    private static Mono<Void> onCommit(Runnable postProcessing) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .map(synchronizationManager -> {
+                    synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(postProcessing);
+                        }
+                    });
+                    return true;
+                })
+                .onErrorReturn(NoTransactionException.class, false)
+                .defaultIfEmpty(false)
+                .flatMap(registered -> registered ? Mono.<Void>empty() : Mono.fromRunnable(postProcessing));
+    }
+
 }
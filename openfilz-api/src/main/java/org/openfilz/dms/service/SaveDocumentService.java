@@ -1,5 +1,6 @@
 package org.openfilz.dms.service;
 
+import org.openfilz.dms.dto.StoredFile;
 import org.openfilz.dms.dto.response.UploadResponse;
 import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.utils.ContentInfo;
@@ -12,7 +13,14 @@ import java.util.function.Function;
 
 public interface SaveDocumentService {
 
-    Mono<UploadResponse> doSaveFile(FilePart filePart, Long contentLength, UUID parentFolderId, Map<String, Object> metadata, String originalFilename, Mono<String> storagePathMono);
+    /**
+     * Writes the uploaded content to storage. Implementations that maintain checksums hash the content
+     * while it is streamed, so that {@link #doSaveFile(FilePart, Long, UUID, Map, String, Mono)} does not
+     * need to read the stored object back.
+     */
+    Mono<StoredFile> storeFile(FilePart filePart);
+
+    Mono<UploadResponse> doSaveFile(FilePart filePart, Long contentLength, UUID parentFolderId, Map<String, Object> metadata, String originalFilename, Mono<StoredFile> storedFileMono);
 
     Mono<Document> saveAndReplaceDocument(FilePart newFilePart, ContentInfo contentInfo, Document document, String oldStoragePath);
 
@@ -1,9 +1,15 @@
 package org.openfilz.dms.service;
 
+import org.openfilz.dms.dto.StoredFile;
+import org.openfilz.dms.dto.TusStorageUpload;
+import org.openfilz.dms.dto.TusUploadMetadata;
 import org.openfilz.dms.dto.response.DocumentVersionInfo;
 import org.openfilz.dms.exception.VersioningDisabledException;
+import org.openfilz.dms.utils.ContentDigest;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.codec.multipart.FilePart;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -11,12 +17,18 @@ import reactor.core.publisher.Mono;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface StorageService {
 
     String FOLDER_SEPARATOR = "/";
     String FILENAME_SEPARATOR = "#";
+    int READ_BUFFER_SIZE = 64 * 1024;
+    int DELETE_CONCURRENCY = 16;
 
     default String getUniqueStorageFileName(String originalFilename) {
         int i = originalFilename.lastIndexOf(FILENAME_SEPARATOR);
@@ -32,10 +44,60 @@ public interface StorageService {
 
     Mono<String> saveFile(FilePart filePart); // Returns storage path/key
 
+    /**
+     * Same as {@link #saveFile(FilePart)}, but also computes the SHA-256 of the content while it is streamed
+     * to storage, so that no second read of the stored object is needed.
+     * Implementations that cannot hash inline return a {@link StoredFile} without checksum.
+     *
+     * @param filePart the content to store
+     * @return the storage path/key and the hex-encoded SHA-256 of the content (may be null)
+     */
+    default Mono<StoredFile> saveFileWithChecksum(FilePart filePart) {
+        return saveFile(filePart).map(StoredFile::of);
+    }
+
     Mono<? extends Resource> loadFile(String storagePath);
 
+    /**
+     * Load {@code length} bytes of a stored file starting at {@code offset} (HTTP Range downloads).
+     * The default implementation reads the content from the beginning and skips to {@code offset};
+     * backends able to read a range natively override it.
+     *
+     * @param storagePath the storage path/key
+     * @param offset the first byte to read
+     * @param length the number of bytes to read
+     * @return the requested bytes
+     */
+    default Flux<DataBuffer> loadFileRange(String storagePath, long offset, long length) {
+        return loadFile(storagePath).flatMapMany(resource -> sliceResource(resource, offset, length));
+    }
+
+    /**
+     * Local file holding the content of {@code storagePath}, when the backend keeps content on the local
+     * filesystem. Downloads use it to send the content with zero-copy transfers. Empty for remote backends.
+     *
+     * @param storagePath the storage path/key
+     * @return the local file, or empty
+     */
+    default Optional<Path> getLocalFile(String storagePath) {
+        return Optional.empty();
+    }
+
     Mono<Void> deleteFile(String storagePath);
 
+    /**
+     * Deletes several files, e.g. the content of a deleted folder.
+     * The default implementation deletes them one by one, {@value #DELETE_CONCURRENCY} at a time.
+     *
+     * @param storagePaths the storage paths/keys to delete
+     * @return empty Mono once every file is deleted
+     */
+    default Mono<Void> deleteFiles(Collection<String> storagePaths) {
+        return Flux.fromIterable(storagePaths)
+                .flatMap(this::deleteFile, DELETE_CONCURRENCY)
+                .then();
+    }
+
     Mono<String> copyFile(String sourceStoragePath); // Returns new storage path/key
 
     Mono<Long> getFileLength(String storagePath);
@@ -61,6 +123,30 @@ public interface StorageService {
         return TUS_PREFIX + uploadId + ".json";
     }
 
+    /**
+     * Bulk job path prefix. Files stored under this prefix are ZIP archives built by download jobs.
+     */
+    String JOBS_PREFIX = "_jobs/";
+
+    /**
+     * Get the storage path of the ZIP archive built by a download job.
+     */
+    default String getJobArchivePath(UUID jobId) {
+        return JOBS_PREFIX + jobId + ".zip";
+    }
+
+    /**
+     * Audit archive path prefix. Files stored under this prefix are archived partitions of the audit log.
+     */
+    String AUDIT_ARCHIVES_PREFIX = "_audit/";
+
+    /**
+     * Get the storage path of the archive of a partition of the audit log.
+     */
+    default String getAuditArchivePath(String partitionName) {
+        return AUDIT_ARCHIVES_PREFIX + partitionName + ".ndjson.gz";
+    }
+
     /**
      * Create an empty file at the specified storage path.
      * Used for initializing TUS uploads.
@@ -81,6 +167,110 @@ public interface StorageService {
      */
     Mono<Long> appendData(String storagePath, Flux<DataBuffer> data, long offset);
 
+    /**
+     * Same as {@link #appendData(String, Flux, long)}, feeding each appended buffer to {@code digest}.
+     * The caller owns the digest and is responsible for discarding it if the append fails.
+     *
+     * @param storagePath the path of the file to append to
+     * @param data the data to append
+     * @param offset the offset at which to write (must match current file size)
+     * @param digest the running digest of the whole upload
+     * @return the new file size after appending
+     */
+    default Mono<Long> appendData(String storagePath, Flux<DataBuffer> data, long offset, ContentDigest digest) {
+        return appendData(storagePath, digest.tee(data), offset);
+    }
+
+    /**
+     * Prepare the storage of a new TUS upload.
+     * The default implementation creates an empty temporary data file, appended to by every chunk.
+     *
+     * @param uploadId the TUS upload id
+     * @param filename name of the uploaded file, used to build the final storage path
+     * @return the storage state of the upload, to persist with the upload metadata
+     */
+    default Mono<TusStorageUpload> createTusUpload(String uploadId, String filename) {
+        return createEmptyFile(getTusDataPath(uploadId))
+                .thenReturn(TusStorageUpload.of(getUniqueStorageFileName(filename)));
+    }
+
+    /**
+     * Prepare the storage of a new TUS partial upload (concatenation extension), whose content is only meant
+     * to be concatenated into a final upload by {@link #concatenateTusUploads}.
+     * The default implementation prepares it like any other upload.
+     *
+     * @param uploadId the TUS upload id
+     * @return the storage state of the upload, to persist with the upload metadata
+     */
+    default Mono<TusStorageUpload> createTusPartialUpload(String uploadId) {
+        return createTusUpload(uploadId, uploadId);
+    }
+
+    /**
+     * Append a chunk to a TUS upload, at offset {@code upload.size()}.
+     *
+     * @param uploadId     the TUS upload id
+     * @param upload       the current storage state of the upload
+     * @param data         the chunk
+     * @param uploadLength the total length of the upload
+     * @param digest       the running digest of the whole upload, or null
+     * @return the new storage state of the upload, whose size is the new offset
+     */
+    default Mono<TusStorageUpload> appendTusData(String uploadId, TusStorageUpload upload, Flux<DataBuffer> data,
+                                                 long uploadLength, ContentDigest digest) {
+        String dataPath = getTusDataPath(uploadId);
+        return (digest != null ? appendData(dataPath, data, upload.size(), digest) : appendData(dataPath, data, upload.size()))
+                .map(upload::withSize);
+    }
+
+    /**
+     * Make the content of a complete TUS upload available at {@code upload.storagePath()}.
+     * The default implementation moves the temporary data file to its final location.
+     *
+     * @param uploadId the TUS upload id
+     * @param upload   the storage state of the upload
+     * @return empty Mono on success
+     */
+    default Mono<Void> completeTusUpload(String uploadId, TusStorageUpload upload) {
+        return moveFile(getTusDataPath(uploadId), upload.storagePath());
+    }
+
+    /**
+     * Assemble complete TUS partial uploads, in order, into the content of the final upload {@code uploadId}.
+     * The data of the partial uploads is discarded once assembled. The returned storage state is the one of a
+     * complete upload, made available at its storage path by {@link #completeTusUpload}.
+     * The default implementation streams the partial data files into the data file of the final upload.
+     *
+     * @param uploadId the id of the final TUS upload
+     * @param filename name of the uploaded file, used to build the final storage path
+     * @param partials the complete partial uploads, in concatenation order
+     * @return the storage state of the final upload
+     */
+    default Mono<TusStorageUpload> concatenateTusUploads(String uploadId, String filename, List<TusUploadMetadata> partials) {
+        String dataPath = getTusDataPath(uploadId);
+        Mono<Long> size = Mono.just(0L);
+        for (TusUploadMetadata partial : partials) {
+            size = size.flatMap(offset -> appendData(dataPath,
+                    loadFileRange(getTusDataPath(partial.uploadId()), 0, partial.length()), offset));
+        }
+        return createEmptyFile(dataPath)
+                .then(size)
+                .flatMap(total -> Flux.fromIterable(partials)
+                        .concatMap(partial -> abortTusUpload(partial.uploadId(), partial.storage()))
+                        .then(Mono.fromSupplier(() -> TusStorageUpload.of(getUniqueStorageFileName(filename)).withSize(total))));
+    }
+
+    /**
+     * Discard the data of a TUS upload.
+     *
+     * @param uploadId the TUS upload id
+     * @param upload   the storage state of the upload
+     * @return empty Mono on success
+     */
+    default Mono<Void> abortTusUpload(String uploadId, TusStorageUpload upload) {
+        return deleteFile(getTusDataPath(uploadId));
+    }
+
     /**
      * Save data to a specific storage path.
      * Unlike saveFile which generates a unique filename, this writes to the exact path specified.
@@ -92,6 +282,20 @@ public interface StorageService {
      */
     Mono<Void> saveData(String storagePath, Flux<DataBuffer> data);
 
+    /**
+     * Same as {@link #saveData(String, Flux)}, computing the SHA-256 of the data while it is written.
+     *
+     * @param storagePath the exact path where the data should be written
+     * @param data the data to write as a Flux of DataBuffers
+     * @return the hex-encoded SHA-256 of the written data
+     */
+    default Mono<String> saveDataWithChecksum(String storagePath, Flux<DataBuffer> data) {
+        return Mono.defer(() -> {
+            ContentDigest digest = ContentDigest.sha256();
+            return saveData(storagePath, digest.tee(data)).then(Mono.fromSupplier(digest::hex));
+        });
+    }
+
     /**
      * Move/rename a file within storage.
      * Used for TUS finalization to move from temp to permanent location.
@@ -114,6 +318,18 @@ public interface StorageService {
         return saveFile(newFilePart);
     }
 
+    /**
+     * Same as {@link #replaceFile(String, FilePart)}, also computing the SHA-256 of the new content inline.
+     *
+     * @param oldStoragePath the storage path of the content being replaced
+     * @param newFilePart the new content
+     * @return the storage path/key of the new content (equal to {@code oldStoragePath} when replaced in place)
+     *         and its hex-encoded SHA-256 (may be null)
+     */
+    default Mono<StoredFile> replaceFileWithChecksum(String oldStoragePath, FilePart newFilePart) {
+        return saveFileWithChecksum(newFilePart);
+    }
+
     /**
      * Delete the latest version of a versioned object, effectively reverting to the previous version.
      * No-op for non-versioned storage implementations.
@@ -149,6 +365,19 @@ public interface StorageService {
         return Mono.error(new VersioningDisabledException());
     }
 
+    /**
+     * Load {@code length} bytes of a specific version of a versioned object starting at {@code offset}.
+     *
+     * @param storagePath the object path
+     * @param versionId   the version identifier
+     * @param offset      the first byte to read
+     * @param length      the number of bytes to read
+     * @return the requested bytes
+     */
+    default Flux<DataBuffer> loadFileVersionRange(String storagePath, String versionId, long offset, long length) {
+        return loadFileVersion(storagePath, versionId).flatMapMany(resource -> sliceResource(resource, offset, length));
+    }
+
     /**
      * Restore a previous version by server-side copying it on top of the object,
      * creating a NEW latest version. History-preserving: no version is deleted
@@ -186,4 +415,19 @@ public interface StorageService {
     default Mono<Long> cleanupExpiredVersions(java.time.Duration retention) {
         return Mono.just(0L);
     }
-}
\ No newline at end of file
+
+    /**
+     * Delete content-addressable blobs no longer referenced by any document (including documents in
+     * the recycle bin). No-op unless content-addressable storage is enabled.
+     *
+     * @return the number of blobs deleted
+     */
+    default Mono<Long> collectUnreferencedBlobs() {
+        return Mono.just(0L);
+    }
+
+    private static Flux<DataBuffer> sliceResource(Resource resource, long offset, long length) {
+        Flux<DataBuffer> content = DataBufferUtils.read(resource, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE);
+        return DataBufferUtils.takeUntilByteCount(DataBufferUtils.skipUntilByteCount(content, offset), length);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.core.io.buffer.DataBuffer;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -39,6 +40,36 @@ public interface TusUploadService {
      */
     Mono<String> createUpload(Long uploadLength, String metadata);
 
+    /**
+     * Create a new TUS partial upload (concatenation extension).
+     * A partial upload cannot be finalized: it is meant to be concatenated into a final upload,
+     * so that the parts of a file can be uploaded in parallel.
+     *
+     * @param uploadLength the size of the part in bytes
+     * @param metadata optional TUS metadata (base64 encoded key-value pairs)
+     * @return the upload ID for the new session
+     */
+    Mono<String> createPartialUpload(Long uploadLength, String metadata);
+
+    /**
+     * Get the total length of the concatenation of partial uploads.
+     *
+     * @param partialUploadIds the partial upload identifiers, in concatenation order
+     * @return the total length in bytes, or error if an upload is not found, is not a partial upload or is not complete
+     */
+    Mono<Long> getConcatenatedLength(List<String> partialUploadIds);
+
+    /**
+     * Create a final TUS upload (concatenation extension) by assembling complete partial uploads in storage.
+     * The partial uploads are consumed; the final upload is complete and can be finalized.
+     *
+     * @param partialUploadIds the partial upload identifiers, in concatenation order
+     * @param concat the Upload-Concat header value of the final upload
+     * @param metadata optional TUS metadata (base64 encoded key-value pairs)
+     * @return the upload ID of the final upload
+     */
+    Mono<String> concatenateUploads(List<String> partialUploadIds, String concat, String metadata);
+
     /**
      * Get information about an ongoing upload.
      *
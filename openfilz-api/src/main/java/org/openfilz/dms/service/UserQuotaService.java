@@ -0,0 +1,52 @@
+package org.openfilz.dms.service;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Enforces the user storage quota ({@code openfilz.quota.user}) with reservations: the bytes of an
+ * upload are reserved on the connected user's quota before it starts, atomically with the check
+ * against the quota, and released once the document is created (its size then counts as used) or
+ * the upload fails. Concurrent uploads of a user therefore cannot exceed the quota together.
+ * All operations do nothing when the user quota is disabled.
+ */
+public interface UserQuotaService {
+
+    /**
+     * Runs {@code operation} with {@code size} bytes reserved on the connected user's quota, and releases
+     * them when it completes, fails or is cancelled. Nothing is reserved when {@code size} is null or not positive.
+     *
+     * @return the result of the operation, or a UserQuotaExceededException error (the operation is then not run)
+     */
+    <T> Mono<T> withReservation(Long size, Mono<T> operation);
+
+    /**
+     * Reserves {@code size} bytes on the connected user's quota until {@code expiresAt}, under an id
+     * chosen by the caller. Does nothing if a reservation with this id already exists.
+     *
+     * @return empty, or a UserQuotaExceededException error
+     */
+    Mono<Void> reserve(String reservationId, long size, Instant expiresAt);
+
+    /**
+     * Releases a reservation (idempotent). To be called in the transaction creating the document
+     * that now accounts for the reserved bytes, or when the upload is abandoned.
+     */
+    Mono<Void> release(String reservationId);
+
+    /**
+     * Replaces the reservations {@code reservationIds} by a single reservation {@code reservationId} of their total
+     * size until {@code expiresAt}, e.g. when the parts of an upload become one upload. The quota is not checked
+     * again, since the reserved bytes do not change.
+     */
+    Mono<Void> merge(Collection<String> reservationIds, String reservationId, Instant expiresAt);
+
+    /**
+     * Releases the reservations that expired without being released.
+     *
+     * @return the number of users whose reservations were released
+     */
+    Mono<Long> releaseExpiredReservations();
+}
@@ -0,0 +1,165 @@
+package org.openfilz.dms.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.AuditPartitionProperties;
+import org.openfilz.dms.dto.audit.AuditLogArchive;
+import org.openfilz.dms.dto.audit.AuditLogPartition;
+import org.openfilz.dms.repository.AuditArchiveDAO;
+import org.openfilz.dms.service.AuditArchiveService;
+import org.openfilz.dms.service.StorageService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditArchiveServiceImpl implements AuditArchiveService {
+
+    /**
+     * Entries compressed together into one buffer of the archive.
+     */
+    private static final int ENTRIES_PER_BUFFER = 500;
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final AuditArchiveDAO auditArchiveDAO;
+    private final StorageService storageService;
+    private final AuditPartitionProperties properties;
+    private final TransactionalOperator tx;
+
+    @Override
+    public Mono<Integer> createPartitions() {
+        LocalDate currentMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        return Flux.range(0, properties.getMonthsAhead() + 1)
+                .concatMap(month -> auditArchiveDAO.createPartition(currentMonth.plusMonths(month)))
+                .filter(Boolean::booleanValue)
+                .count()
+                .map(Long::intValue);
+    }
+
+    @Override
+    public Mono<Integer> archiveClosedPartitions() {
+        if (!properties.getArchive().isEnabled()) {
+            return Mono.just(0);
+        }
+        OffsetDateTime before = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1)
+                .minusMonths(properties.getArchive().getRetentionMonths())
+                .atStartOfDay().atOffset(ZoneOffset.UTC);
+        return auditArchiveDAO.findPartitionsBefore(before)
+                .concatMap(this::archive)
+                .count()
+                .map(Long::intValue);
+    }
+
+    /**
+     * Archives a partition in one transaction, under the archival lock: the partition is dropped only if its archive
+     * was written, and the instances do not archive the same partition.
+     */
+    private Mono<AuditLogArchive> archive(AuditLogPartition partition) {
+        String storagePath = storageService.getAuditArchivePath(partition.name());
+        return auditArchiveDAO.lockForArchival(partition)
+                .filter(Boolean::booleanValue)
+                .flatMap(_ -> auditArchiveDAO.summarize(partition))
+                .flatMap(summary -> storageService.saveDataWithChecksum(storagePath, compress(auditArchiveDAO.findEntries(partition)))
+                        .map(checksum -> new AuditLogArchive(partition, summary.entries(), summary.firstId(), summary.lastId(),
+                                summary.firstPreviousHash(), summary.lastHash(), storagePath, checksum)))
+                .flatMap(archive -> auditArchiveDAO.replaceByArchive(archive).thenReturn(archive))
+                .as(tx::transactional)
+                .doOnSuccess(archive -> {
+                    if (archive != null) {
+                        log.info("Audit log partition {} archived to {}: {} entries", partition.name(), storagePath, archive.entries());
+                    }
+                });
+    }
+
+    /**
+     * Gzip-compressed NDJSON: one entry per line.
+     */
+    private static Flux<DataBuffer> compress(Flux<String> entries) {
+        return Flux.using(GzipLines::new,
+                gzip -> entries.buffer(ENTRIES_PER_BUFFER)
+                        .map(gzip::write)
+                        .concatWith(Mono.fromSupplier(gzip::finish))
+                        // Compressed bytes are only produced once the deflater has enough input
+                        .filter(buffer -> buffer.readableByteCount() > 0),
+                GzipLines::close);
+    }
+
+    /**
+     * Compresses the lines written to it, handing out the compressed bytes produced so far.
+     */
+    private static final class GzipLines {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final GZIPOutputStream gzip;
+
+        GzipLines() throws IOException {
+            this.gzip = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        }
+
+        DataBuffer write(List<String> lines) {
+            try {
+                for (String line : lines) {
+                    gzip.write(line.getBytes(StandardCharsets.UTF_8));
+                    gzip.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return drain();
+        }
+
+        DataBuffer finish() {
+            try {
+                gzip.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return drain();
+        }
+
+        private DataBuffer drain() {
+            DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(out.toByteArray());
+            out.reset();
+            return buffer;
+        }
+
+        void close() {
+            try {
+                gzip.close();
+            } catch (IOException e) {
+                log.debug("Failed to close the gzip stream of an audit archive: {}", e.getMessage());
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        createPartitions()
+                .doOnSuccess(created -> {
+                    if (created != null && created > 0) {
+                        log.info("Created {} audit log partitions", created);
+                    }
+                })
+                .doOnError(e -> log.error("Failed to create the audit log partitions: {}", e.getMessage()))
+                .onErrorComplete()
+                .subscribe();
+    }
+}
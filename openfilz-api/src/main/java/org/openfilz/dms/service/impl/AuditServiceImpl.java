@@ -4,6 +4,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.openfilz.dms.config.AuditChainProperties;
 import org.openfilz.dms.config.AuditProperties;
+import org.openfilz.dms.dto.audit.AuditChainCheckpoint;
+import org.openfilz.dms.dto.audit.AuditEntry;
 import org.openfilz.dms.dto.audit.AuditLog;
 import org.openfilz.dms.dto.audit.AuditVerificationResult;
 import org.openfilz.dms.dto.audit.AuditVerificationResult.AuditVerificationStatus;
@@ -21,11 +23,13 @@ import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
 
 @Slf4j
 @Service
@@ -53,6 +57,17 @@ public class AuditServiceImpl implements AuditService {
         return auditDAO.logAction(action, resourceType, resourceId, null);
     }
 
+    @Override
+    public Mono<Void> logActions(List<AuditEntry> entries) {
+        List<AuditEntry> auditable = entries.stream()
+                .filter(entry -> isAuditable(entry.action()))
+                .toList();
+        if (auditable.isEmpty()) {
+            return Mono.empty();
+        }
+        return auditDAO.logActions(auditable);
+    }
+
     private boolean isAuditable(AuditAction action) {
         var excluded = auditProperties.getExcludedActions();
         return excluded == null || !excluded.contains(action);
@@ -60,7 +75,12 @@ public class AuditServiceImpl implements AuditService {
 
     @Override
     public Flux<AuditLog> getAuditTrail(UUID resourceId, SortOrder sort) {
-        return auditDAO.getAuditTrail(resourceId, sort == null ? SortOrder.DESC : sort);
+        return getAuditTrail(resourceId, sort, null, null);
+    }
+
+    @Override
+    public Flux<AuditLog> getAuditTrail(UUID resourceId, SortOrder sort, Integer pageSize, String after) {
+        return auditDAO.getAuditTrail(resourceId, sort == null ? SortOrder.DESC : sort, pageSize, after);
     }
 
     @Override
@@ -70,56 +90,152 @@ public class AuditServiceImpl implements AuditService {
 
     @Override
     public Mono<AuditVerificationResult> verifyChain() {
-        AtomicLong counter = new AtomicLong(0);
-        AtomicReference<String> expectedPreviousHash = new AtomicReference<>();
-        AtomicReference<BrokenLink> brokenLinkRef = new AtomicReference<>();
-
-        return auditDAO.getChainedEntries()
-                .takeWhile(_ -> brokenLinkRef.get() == null)
-                .doOnNext(entry -> {
-                    long position = counter.incrementAndGet();
-                    String storedPreviousHash = entry.previousHash();
-                    String storedHash = entry.hash();
-
-                    // Check previous_hash linkage (skip for first entry)
-                    if (expectedPreviousHash.get() != null && !expectedPreviousHash.get().equals(storedPreviousHash)) {
-                        brokenLinkRef.set(new BrokenLink(position, expectedPreviousHash.get(), storedPreviousHash));
-                        return;
-                    }
-
-                    // Recompute hash and verify
-                    String recomputedHash = auditChainService.computeHash(
-                            entry.timestamp(), entry.username(), entry.action(),
-                            entry.resourceType(), entry.id(), entry.details(),
-                            storedPreviousHash);
+        return auditDAO.getFirstChainedId()
+                // The first entry must follow the archived ones, if any
+                .flatMap(firstId -> auditDAO.getArchivedHashBefore(firstId)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(archivedHash -> verifyFrom(firstId, archivedHash.orElse(null), 0)))
+                .switchIfEmpty(Mono.fromCallable(() -> new AuditVerificationResult(
+                        AuditVerificationStatus.EMPTY, 0, 0, OffsetDateTime.now(), null)));
+    }
 
-                    if (!recomputedHash.equals(storedHash)) {
-                        brokenLinkRef.set(new BrokenLink(position, recomputedHash, storedHash));
-                        return;
-                    }
+    @Override
+    public Mono<AuditVerificationResult> verifyNewEntries() {
+        return auditDAO.getVerificationCheckpoint()
+                .flatMap(checkpoint -> verifyFrom(checkpoint.lastId() + 1, checkpoint.lastHash(), checkpoint.verifiedEntries()))
+                .switchIfEmpty(Mono.defer(this::verifyChain));
+    }
 
-                    expectedPreviousHash.set(storedHash);
+    /**
+     * Verifies the chain from {@code fromId} to its current end. The id range is split into segments verified in
+     * parallel, then the segments are linked in order: the first entry of each segment must follow the last entry
+     * of the previous one, the first one following {@code previousHash} when given.
+     * @param verifiedEntries number of chained entries before {@code fromId}, already verified
+     */
+    private Mono<AuditVerificationResult> verifyFrom(long fromId, String previousHash, long verifiedEntries) {
+        long segmentSize = chainProperties.getVerificationSegmentSize();
+        return auditDAO.getLastChainedId()
+                .filter(lastId -> lastId >= fromId)
+                .flatMap(lastId -> {
+                    ChainVerification verification = new ChainVerification(previousHash, verifiedEntries);
+                    return Flux.fromStream(LongStream.iterate(fromId, start -> start <= lastId, start -> start + segmentSize).boxed())
+                            .flatMapSequential(start -> verifySegment(start, Math.min(start + segmentSize - 1, lastId)),
+                                    chainProperties.getVerificationParallelism())
+                            // Stops verifying the segments left at the first broken link
+                            .takeWhile(verification::append)
+                            .then(Mono.defer(() -> {
+                                AuditVerificationResult result = verification.result();
+                                if (result.status() != AuditVerificationStatus.VALID || verification.entries == verifiedEntries) {
+                                    return Mono.just(result);
+                                }
+                                return auditDAO.saveVerificationCheckpoint(new AuditChainCheckpoint(
+                                                lastId, verification.lastHash, verification.entries, result.verifiedAt()))
+                                        .doOnError(e -> log.error("Failed to save the audit chain verification checkpoint: {}", e.getMessage()))
+                                        .onErrorResume(_ -> Mono.empty())
+                                        .thenReturn(result);
+                            }));
                 })
-                .then(Mono.fromCallable(() -> {
-                    long total = counter.get();
-                    BrokenLink brokenLink = brokenLinkRef.get();
-
-                    if (total == 0) {
-                        return new AuditVerificationResult(
-                                AuditVerificationStatus.EMPTY, 0, 0,
-                                OffsetDateTime.now(), null);
-                    }
+                // Nothing added since the checkpoint
+                .switchIfEmpty(Mono.fromCallable(() -> previousHash == null
+                        ? new AuditVerificationResult(AuditVerificationStatus.EMPTY, 0, 0, OffsetDateTime.now(), null)
+                        : new AuditVerificationResult(AuditVerificationStatus.VALID, verifiedEntries, verifiedEntries, OffsetDateTime.now(), null)));
+    }
 
-                    if (brokenLink != null) {
-                        return new AuditVerificationResult(
-                                AuditVerificationStatus.BROKEN, total, brokenLink.entryId() - 1,
-                                OffsetDateTime.now(), brokenLink);
-                    }
+    private Mono<ChainSegment> verifySegment(long fromId, long toId) {
+        ChainSegment segment = new ChainSegment();
+        return auditDAO.getChainedEntriesInRange(fromId, toId)
+                // Hashes are recomputed on a parallel worker per segment, not on the connection threads
+                .publishOn(Schedulers.parallel())
+                .takeWhile(segment::verify)
+                .then(Mono.just(segment));
+    }
+
+    /**
+     * Verification of the entries of one segment of the chain, each entry linked to the previous one.
+     */
+    private class ChainSegment {
+
+        private long entries;
+        private String firstPreviousHash;
+        private String lastHash;
+        /**
+         * First broken link, positioned in the segment
+         */
+        private BrokenLink brokenLink;
 
-                    return new AuditVerificationResult(
-                            AuditVerificationStatus.VALID, total, total,
-                            OffsetDateTime.now(), null);
-                }));
+        /**
+         * @return false once the segment is broken
+         */
+        boolean verify(AuditLog entry) {
+            long position = ++entries;
+            String storedPreviousHash = entry.previousHash();
+            if (position == 1) {
+                firstPreviousHash = storedPreviousHash;
+            } else if (!lastHash.equals(storedPreviousHash)) {
+                brokenLink = new BrokenLink(position, lastHash, storedPreviousHash);
+                return false;
+            }
+            String recomputedHash = auditChainService.computeHash(
+                    entry.timestamp(), entry.username(), entry.action(),
+                    entry.resourceType(), entry.id(), entry.details(),
+                    storedPreviousHash);
+            if (!recomputedHash.equals(entry.hash())) {
+                brokenLink = new BrokenLink(position, recomputedHash, entry.hash());
+                return false;
+            }
+            lastHash = entry.hash();
+            return true;
+        }
+    }
+
+    /**
+     * Links the verified segments in the order of the chain.
+     */
+    private static class ChainVerification {
+
+        private String lastHash;
+        private long entries;
+        private BrokenLink brokenLink;
+
+        ChainVerification(String previousHash, long verifiedEntries) {
+            this.lastHash = previousHash;
+            this.entries = verifiedEntries;
+        }
+
+        /**
+         * @return false once the chain is broken
+         */
+        boolean append(ChainSegment segment) {
+            if (segment.entries == 0) {
+                return true;
+            }
+            if (lastHash != null && !lastHash.equals(segment.firstPreviousHash)) {
+                brokenLink = new BrokenLink(entries + 1, lastHash, segment.firstPreviousHash);
+            } else if (segment.brokenLink != null) {
+                brokenLink = new BrokenLink(entries + segment.brokenLink.entryId(),
+                        segment.brokenLink.expectedHash(), segment.brokenLink.actualHash());
+            }
+            entries += segment.entries;
+            lastHash = segment.lastHash;
+            return brokenLink == null;
+        }
+
+        AuditVerificationResult result() {
+            if (brokenLink != null) {
+                return new AuditVerificationResult(
+                        AuditVerificationStatus.BROKEN, entries, brokenLink.entryId() - 1,
+                        OffsetDateTime.now(), brokenLink);
+            }
+            if (entries == 0) {
+                return new AuditVerificationResult(
+                        AuditVerificationStatus.EMPTY, 0, 0,
+                        OffsetDateTime.now(), null);
+            }
+            return new AuditVerificationResult(
+                    AuditVerificationStatus.VALID, entries, entries,
+                    OffsetDateTime.now(), null);
+        }
     }
 
     @Override
@@ -137,7 +253,13 @@ public class AuditServiceImpl implements AuditService {
                     }
                     log.info("Initializing audit chain with CHAIN_GENESIS entry");
                     return auditDAO.logAction(AuditAction.CHAIN_GENESIS, null, null, null);
-                });
+                })
+                // Entries staged before a restart; if this fails, they stay staged for the next commit
+                .then(Mono.defer(auditDAO::chainStagedEntries)
+                        .onErrorResume(e -> {
+                            log.warn("Failed to chain the staged audit entries: {}", e.getMessage());
+                            return Mono.empty();
+                        }));
     }
 
     @EventListener(ApplicationReadyEvent.class)
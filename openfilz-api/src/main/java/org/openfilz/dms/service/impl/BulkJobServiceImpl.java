@@ -0,0 +1,255 @@
+package org.openfilz.dms.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.BulkJobProperties;
+import org.openfilz.dms.dto.BulkJob;
+import org.openfilz.dms.dto.request.CopyRequest;
+import org.openfilz.dms.dto.request.DeleteRequest;
+import org.openfilz.dms.dto.request.MoveRequest;
+import org.openfilz.dms.dto.response.BulkJobError;
+import org.openfilz.dms.dto.response.BulkJobInfo;
+import org.openfilz.dms.dto.response.CopyResponse;
+import org.openfilz.dms.enums.BulkJobStatus;
+import org.openfilz.dms.enums.BulkJobType;
+import org.openfilz.dms.repository.BulkJobDAO;
+import org.openfilz.dms.service.BulkJobService;
+import org.openfilz.dms.service.DocumentService;
+import org.openfilz.dms.service.StorageService;
+import org.openfilz.dms.utils.UserInfoService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "openfilz.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkJobServiceImpl implements BulkJobService, UserInfoService {
+
+    private static final List<UUID> NO_RESULTS = List.of();
+
+    private final BulkJobProperties bulkJobProperties;
+    private final BulkJobDAO bulkJobDAO;
+    private final DocumentService documentService;
+    private final StorageService storageService;
+    private final TransactionalOperator tx;
+
+    /**
+     * Owner of the jobs claimed by this instance. A restarted instance gets a new id: its former jobs are resumed
+     * once stale, by any instance.
+     */
+    private final String workerId = UUID.randomUUID().toString();
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+
+    @Override
+    public Mono<BulkJobInfo> submit(BulkJobType type, List<UUID> documentIds, UUID targetFolderId, Boolean allowDuplicateFileNames) {
+        if (documentIds == null || documentIds.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Document IDs list cannot be empty."));
+        }
+        List<UUID> distinctIds = new ArrayList<>(new LinkedHashSet<>(documentIds));
+        return getConnectedUserEmail()
+                .map(owner -> BulkJob.create(type, owner, distinctIds, targetFolderId, allowDuplicateFileNames))
+                .flatMap(job -> bulkJobDAO.create(job)
+                        .then(dispatch().onErrorReturn(0))
+                        .thenReturn(BulkJobInfo.of(job)));
+    }
+
+    @Override
+    public Mono<BulkJobInfo> getJob(UUID jobId) {
+        return getConnectedUserEmail()
+                .flatMap(owner -> bulkJobDAO.findById(jobId, owner))
+                .map(BulkJobInfo::of);
+    }
+
+    @Override
+    public Flux<BulkJobInfo> listJobs(BulkJobStatus status, int limit) {
+        return getConnectedUserEmail()
+                .flatMapMany(owner -> bulkJobDAO.findByOwner(owner, status, limit))
+                .map(BulkJobInfo::of);
+    }
+
+    @Override
+    public Mono<BulkJobInfo> cancelJob(UUID jobId) {
+        return getConnectedUserEmail()
+                .flatMap(owner -> bulkJobDAO.cancel(jobId, owner))
+                .doOnNext(job -> log.info("Bulk job {} cancelled after {} of {} items", job.id(), job.processedItems(), job.totalItems()))
+                .map(BulkJobInfo::of);
+    }
+
+    @Override
+    public Mono<? extends Resource> loadArchive(UUID jobId) {
+        return getConnectedUserEmail()
+                .flatMap(owner -> bulkJobDAO.findById(jobId, owner))
+                .filter(job -> job.status() == BulkJobStatus.COMPLETED && job.archivePath() != null)
+                .flatMap(job -> storageService.loadFile(job.archivePath()));
+    }
+
+    @Override
+    public Mono<Integer> dispatch() {
+        return Mono.defer(() -> {
+            int freeWorkers = bulkJobProperties.getMaxConcurrentJobs() - runningJobs.get();
+            // Only one dispatch at a time, so that jobs are never claimed beyond the free workers
+            if (freeWorkers <= 0 || !dispatching.compareAndSet(false, true)) {
+                return Mono.just(0);
+            }
+            return bulkJobDAO.failAbandoned(bulkJobProperties.getStaleTimeout(), bulkJobProperties.getMaxAttempts())
+                    .doOnNext(failed -> {
+                        if (failed > 0) {
+                            log.warn("{} bulk jobs interrupted {} times were failed", failed, bulkJobProperties.getMaxAttempts());
+                        }
+                    })
+                    .thenMany(bulkJobDAO.claim(workerId, freeWorkers, bulkJobProperties.getStaleTimeout(), bulkJobProperties.getMaxAttempts()))
+                    .doOnNext(this::start)
+                    .count()
+                    .map(Long::intValue)
+                    .doFinally(_ -> dispatching.set(false));
+        });
+    }
+
+    @Override
+    public Mono<Long> heartbeat() {
+        return runningJobs.get() == 0 ? Mono.just(0L) : bulkJobDAO.heartbeat(workerId);
+    }
+
+    @Override
+    public Mono<Long> cleanupExpiredJobs() {
+        return bulkJobDAO.deleteExpired(bulkJobProperties.getRetention())
+                .collectList()
+                .flatMap(jobs -> {
+                    List<String> archives = jobs.stream().map(BulkJob::archivePath).filter(Objects::nonNull).toList();
+                    return (archives.isEmpty() ? Mono.<Void>empty() : storageService.deleteFiles(archives))
+                            .thenReturn((long) jobs.size());
+                });
+    }
+
+    private void start(BulkJob job) {
+        runningJobs.incrementAndGet();
+        log.info("Starting bulk job {} ({}): {} of {} items already handled, attempt {}",
+                job.id(), job.type(), job.processedItems(), job.totalItems(), job.attempts());
+        execute(job)
+                // The document service audits and authorizes the operations with the identity of the job owner
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        new UsernamePasswordAuthenticationToken(job.owner(), null, List.of())))
+                .doFinally(_ -> runningJobs.decrementAndGet())
+                .subscribe(null, e -> log.error("Bulk job {} stopped", job.id(), e));
+    }
+
+    Mono<Void> execute(BulkJob job) {
+        Mono<Boolean> completion = job.type() == BulkJobType.DOWNLOAD_ZIP
+                ? buildArchive(job).flatMap(archivePath -> bulkJobDAO.complete(job.id(), workerId, archivePath))
+                : processDocuments(job).then(Mono.defer(() -> bulkJobDAO.complete(job.id(), workerId, null)));
+        return completion
+                .doOnNext(completed -> {
+                    if (completed) {
+                        log.info("Bulk job {} completed", job.id());
+                    }
+                })
+                .onErrorResume(JobInterruptedException.class, _ -> {
+                    log.info("Bulk job {} was cancelled or taken over by another instance", job.id());
+                    return Mono.empty();
+                })
+                .onErrorResume(e -> {
+                    log.error("Bulk job {} failed", job.id(), e);
+                    return bulkJobDAO.fail(job.id(), workerId, e.getMessage());
+                })
+                .then();
+    }
+
+    /**
+     * Handles the documents not handled yet, one folder or one batch of files per transaction.
+     */
+    private Mono<Void> processDocuments(BulkJob job) {
+        int total = job.documentIds().size();
+        int batchSize = switch (job.type()) {
+            case COPY_FILES, MOVE_FILES, DELETE_FILES -> bulkJobProperties.getBatchSize();
+            default -> 1;
+        };
+        return Flux.fromStream(IntStream.iterate(job.processedItems(), start -> start < total, start -> start + batchSize).boxed())
+                .concatMap(start -> processBatch(job, start, Math.min(start + batchSize, total)))
+                .then();
+    }
+
+    /**
+     * Handles the documents {@code start} to {@code end} (excluded) in one transaction, starting with the checkpoint
+     * of the job: the documents and the checkpoint are committed together, and the lock on the job row keeps it
+     * from being claimed by another instance meanwhile. When the batch fails, its documents are handled one by one
+     * to isolate the ones in error.
+     */
+    private Mono<Void> processBatch(BulkJob job, int start, int end) {
+        List<UUID> documentIds = job.documentIds().subList(start, end);
+        return checkpoint(job, end)
+                .then(Mono.defer(() -> process(job, documentIds)))
+                .flatMap(resultIds -> bulkJobDAO.addResults(job.id(), resultIds))
+                .as(tx::transactional)
+                .onErrorResume(e -> !(e instanceof JobInterruptedException), e -> documentIds.size() > 1
+                        ? Flux.range(start, end - start).concatMap(i -> processBatch(job, i, i + 1)).then()
+                        : recordFailure(job, end, documentIds.getFirst(), e));
+    }
+
+    private Mono<List<UUID>> process(BulkJob job, List<UUID> documentIds) {
+        return switch (job.type()) {
+            case COPY_FILES -> documentService.copyFiles(new CopyRequest(documentIds, job.targetFolderId(), job.allowDuplicateFileNames()))
+                    .map(CopyResponse::copyId)
+                    .collectList();
+            case COPY_FOLDERS -> documentService.copyFolders(new CopyRequest(documentIds, job.targetFolderId(), job.allowDuplicateFileNames()))
+                    .collectList();
+            case MOVE_FILES -> documentService.moveFiles(new MoveRequest(documentIds, job.targetFolderId(), job.allowDuplicateFileNames()))
+                    .thenReturn(NO_RESULTS);
+            case MOVE_FOLDERS -> documentService.moveFolders(new MoveRequest(documentIds, job.targetFolderId(), job.allowDuplicateFileNames()))
+                    .thenReturn(NO_RESULTS);
+            case DELETE_FILES -> documentService.deleteFiles(new DeleteRequest(documentIds))
+                    .thenReturn(NO_RESULTS);
+            case DELETE_FOLDERS -> documentService.deleteFolders(new DeleteRequest(documentIds))
+                    .thenReturn(NO_RESULTS);
+            case DOWNLOAD_ZIP -> Mono.error(new IllegalStateException("ZIP downloads are not processed by batches"));
+        };
+    }
+
+    /**
+     * Builds the ZIP archive of all the documents of a download job in storage. An interrupted download job is
+     * built again from the start.
+     */
+    private Mono<String> buildArchive(BulkJob job) {
+        String archivePath = storageService.getJobArchivePath(job.id());
+        return checkpoint(job, 0)
+                .then(Mono.defer(() -> storageService.saveData(archivePath, documentService.downloadMultipleDocumentsAsZip(job.documentIds()))))
+                .thenReturn(archivePath);
+    }
+
+    private Mono<Void> checkpoint(BulkJob job, int processedItems) {
+        return bulkJobDAO.checkpoint(job.id(), workerId, processedItems)
+                .flatMap(running -> running ? Mono.<Void>empty() : Mono.error(new JobInterruptedException()));
+    }
+
+    private Mono<Void> recordFailure(BulkJob job, int processedItems, UUID documentId, Throwable error) {
+        log.warn("Bulk job {}: document {} could not be handled: {}", job.id(), documentId, error.getMessage());
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        return bulkJobDAO.recordFailures(job.id(), workerId, processedItems, List.of(new BulkJobError(documentId, message)))
+                .flatMap(running -> running ? Mono.<Void>empty() : Mono.error(new JobInterruptedException()));
+    }
+
+    /**
+     * The job is no longer running on this instance: cancelled by its owner, or taken over by another instance.
+     */
+    private static class JobInterruptedException extends RuntimeException {
+        JobInterruptedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package org.openfilz.dms.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.StorageCacheProperties;
+import org.openfilz.dms.dto.StoredFile;
+import org.openfilz.dms.dto.TusStorageUpload;
+import org.openfilz.dms.dto.TusUploadMetadata;
+import org.openfilz.dms.dto.response.DocumentVersionInfo;
+import org.openfilz.dms.exception.StorageException;
+import org.openfilz.dms.service.StorageService;
+import org.openfilz.dms.utils.ContentDigest;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache on local disk in front of the MinIO backend (selected by
+ * {@link org.openfilz.dms.config.StorageConfig} when {@code storage.cache.enabled=true}).
+ * <p>
+ * Objects read through {@link #loadFile(String)} are copied once to {@code storage.cache.path} and served
+ * from there until they are evicted (W-TinyLFU, bounded by {@code storage.cache.max-size} bytes), expire or
+ * are overwritten. Concurrent reads of an object that is not cached yet share a single download from MinIO.
+ * Ranged reads are served from the cache when the object is already there, but never populate it.
+ * <p>
+ * Every write going through this service invalidates the paths it touches. Writes made by other instances
+ * are only picked up once the entry expires ({@code storage.cache.expire-after-write}).
+ */
+@Slf4j
+public class CachingStorageService implements StorageService {
+
+    public static final String CACHE_NAME = "storage.read";
+
+    private final StorageService delegate;
+    private final StorageCacheProperties properties;
+    private final Path cacheDirectory;
+    private final AsyncCache<String, CachedObject> cache;
+
+    record CachedObject(Path file, long size) {
+    }
+
+    public CachingStorageService(StorageService delegate, StorageCacheProperties properties) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.cacheDirectory = Path.of(properties.getPath()).toAbsolutePath().normalize();
+        clearCacheDirectory();
+        this.cache = Caffeine.newBuilder()
+                // Weights are in KiB so that a large cache does not overflow the int weights
+                .maximumWeight(Math.max(1, properties.getMaxSize() / 1024))
+                .weigher((String _, CachedObject object) -> (int) Math.min(Integer.MAX_VALUE, object.size() / 1024 + 1))
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .removalListener((_, object, _) -> {
+                    if (object != null) {
+                        deleteQuietly(object.file());
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Publishes the cache statistics (gets by hit/miss result, evictions, size) under the {@value #CACHE_NAME} cache name.
+     */
+    public void bindMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), CACHE_NAME);
+    }
+
+    private void clearCacheDirectory() {
+        try {
+            Files.createDirectories(cacheDirectory);
+            try (Stream<Path> files = Files.list(cacheDirectory)) {
+                files.filter(Files::isRegularFile).forEach(CachingStorageService::deleteQuietly);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Could not initialize storage cache directory " + cacheDirectory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void invalidate(String... storagePaths) {
+        for (String storagePath : storagePaths) {
+            if (storagePath != null) {
+                cache.synchronous().invalidate(storagePath);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the given paths once the write terminates, whatever its outcome.
+     */
+    private <T> Mono<T> invalidating(Mono<T> write, String... storagePaths) {
+        return write
+                .doOnTerminate(() -> invalidate(storagePaths))
+                .doOnCancel(() -> invalidate(storagePaths));
+    }
+
+    @Override
+    public Mono<? extends Resource> loadFile(String storagePath) {
+        CompletableFuture<CachedObject> cached = cache.getIfPresent(storagePath);
+        if (cached != null) {
+            return open(storagePath, cached);
+        }
+        return delegate.getFileLength(storagePath)
+                .flatMap(length -> {
+                    if (length > properties.getMaxObjectSize()) {
+                        log.debug("{} is too large to be cached ({} bytes)", storagePath, length);
+                        return delegate.loadFile(storagePath);
+                    }
+                    return open(storagePath, cache.get(storagePath, (key, _) -> download(key).toFuture()));
+                });
+    }
+
+    /**
+     * Copies an object from the backend to a new file of the cache directory.
+     */
+    private Mono<CachedObject> download(String storagePath) {
+        return delegate.loadFile(storagePath)
+                .publishOn(Schedulers.boundedElastic())
+                .map(resource -> {
+                    Path file = cacheDirectory.resolve(UUID.randomUUID().toString());
+                    try (InputStream in = resource.getInputStream()) {
+                        long size = Files.copy(in, file);
+                        log.debug("Cached {} ({} bytes)", storagePath, size);
+                        return new CachedObject(file, size);
+                    } catch (IOException e) {
+                        deleteQuietly(file);
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Opens the cached copy of an object. The stream is opened eagerly so that an eviction happening while
+     * it is read does not affect it. Falls back to the backend if the local copy cannot be written or read.
+     */
+    private Mono<Resource> open(String storagePath, CompletableFuture<CachedObject> cached) {
+        // The load is shared: a cancelled reader must not cancel it for the others
+        return Mono.fromFuture(cached, true)
+                .publishOn(Schedulers.boundedElastic())
+                .<Resource>map(object -> {
+                    try {
+                        return new InputStreamResource(Files.newInputStream(object.file()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .onErrorResume(UncheckedIOException.class, e -> {
+                    log.warn("Storage cache unavailable for {}, reading from backend: {}", storagePath, e.getMessage());
+                    return delegate.loadFile(storagePath);
+                });
+    }
+
+    @Override
+    public Flux<DataBuffer> loadFileRange(String storagePath, long offset, long length) {
+        CompletableFuture<CachedObject> cached = cache.getIfPresent(storagePath);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return delegate.loadFileRange(storagePath, offset, length);
+        }
+        Path file = cached.join().file();
+        Flux<DataBuffer> content = DataBufferUtils.readAsynchronousFileChannel(
+                () -> AsynchronousFileChannel.open(file, StandardOpenOption.READ),
+                offset, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE);
+        return DataBufferUtils.takeUntilByteCount(content, length)
+                // Evicted before the channel was opened
+                .onErrorResume(IOException.class, _ -> delegate.loadFileRange(storagePath, offset, length));
+    }
+
+    @Override
+    public Optional<Path> getLocalFile(String storagePath) {
+        return delegate.getLocalFile(storagePath);
+    }
+
+    @Override
+    public Mono<String> saveFile(FilePart filePart) {
+        return delegate.saveFile(filePart);
+    }
+
+    @Override
+    public Mono<StoredFile> saveFileWithChecksum(FilePart filePart) {
+        return delegate.saveFileWithChecksum(filePart);
+    }
+
+    /**
+     * With bucket versioning the new content is written over the old path, which is invalidated either way.
+     */
+    @Override
+    public Mono<String> replaceFile(String oldStoragePath, FilePart newFilePart) {
+        return invalidating(delegate.replaceFile(oldStoragePath, newFilePart), oldStoragePath)
+                .doOnNext(this::invalidate);
+    }
+
+    @Override
+    public Mono<StoredFile> replaceFileWithChecksum(String oldStoragePath, FilePart newFilePart) {
+        return invalidating(delegate.replaceFileWithChecksum(oldStoragePath, newFilePart), oldStoragePath)
+                .doOnNext(stored -> invalidate(stored.storagePath()));
+    }
+
+    @Override
+    public Mono<Void> deleteFile(String storagePath) {
+        return invalidating(delegate.deleteFile(storagePath), storagePath);
+    }
+
+    @Override
+    public Mono<Void> deleteFiles(Collection<String> storagePaths) {
+        return invalidating(delegate.deleteFiles(storagePaths), storagePaths.toArray(String[]::new));
+    }
+
+    @Override
+    public Mono<String> copyFile(String sourceStoragePath) {
+        return delegate.copyFile(sourceStoragePath);
+    }
+
+    @Override
+    public Mono<Long> getFileLength(String storagePath) {
+        return delegate.getFileLength(storagePath);
+    }
+
+    @Override
+    public Mono<Void> createEmptyFile(String storagePath) {
+        return invalidating(delegate.createEmptyFile(storagePath), storagePath);
+    }
+
+    @Override
+    public Mono<Long> appendData(String storagePath, Flux<DataBuffer> data, long offset) {
+        return invalidating(delegate.appendData(storagePath, data, offset), storagePath);
+    }
+
+    @Override
+    public Mono<Long> appendData(String storagePath, Flux<DataBuffer> data, long offset, ContentDigest digest) {
+        return invalidating(delegate.appendData(storagePath, data, offset, digest), storagePath);
+    }
+
+    @Override
+    public Mono<TusStorageUpload> createTusUpload(String uploadId, String filename) {
+        return delegate.createTusUpload(uploadId, filename);
+    }
+
+    @Override
+    public Mono<TusStorageUpload> createTusPartialUpload(String uploadId) {
+        return delegate.createTusPartialUpload(uploadId);
+    }
+
+    @Override
+    public Mono<TusStorageUpload> appendTusData(String uploadId, TusStorageUpload upload, Flux<DataBuffer> data,
+                                                long uploadLength, ContentDigest digest) {
+        return delegate.appendTusData(uploadId, upload, data, uploadLength, digest);
+    }
+
+    @Override
+    public Mono<Void> completeTusUpload(String uploadId, TusStorageUpload upload) {
+        return invalidating(delegate.completeTusUpload(uploadId, upload), upload.storagePath());
+    }
+
+    @Override
+    public Mono<TusStorageUpload> concatenateTusUploads(String uploadId, String filename, List<TusUploadMetadata> partials) {
+        return delegate.concatenateTusUploads(uploadId, filename, partials)
+                .doOnNext(upload -> invalidate(upload.storagePath()));
+    }
+
+    @Override
+    public Mono<Void> abortTusUpload(String uploadId, TusStorageUpload upload) {
+        return delegate.abortTusUpload(uploadId, upload);
+    }
+
+    @Override
+    public Mono<Void> saveData(String storagePath, Flux<DataBuffer> data) {
+        return invalidating(delegate.saveData(storagePath, data), storagePath);
+    }
+
+    @Override
+    public Mono<String> saveDataWithChecksum(String storagePath, Flux<DataBuffer> data) {
+        return invalidating(delegate.saveDataWithChecksum(storagePath, data), storagePath);
+    }
+
+    @Override
+    public Mono<Void> moveFile(String sourcePath, String destPath) {
+        return invalidating(delegate.moveFile(sourcePath, destPath), sourcePath, destPath);
+    }
+
+    @Override
+    public Flux<String> listFiles(String prefix) {
+        return delegate.listFiles(prefix);
+    }
+
+    @Override
+    public Mono<Void> deleteLatestVersion(String storagePath) {
+        return invalidating(delegate.deleteLatestVersion(storagePath), storagePath);
+    }
+
+    @Override
+    public Flux<DocumentVersionInfo> listFileVersions(String storagePath) {
+        return delegate.listFileVersions(storagePath);
+    }
+
+    @Override
+    public Mono<? extends Resource> loadFileVersion(String storagePath, String versionId) {
+        return delegate.loadFileVersion(storagePath, versionId);
+    }
+
+    @Override
+    public Flux<DataBuffer> loadFileVersionRange(String storagePath, String versionId, long offset, long length) {
+        return delegate.loadFileVersionRange(storagePath, versionId, offset, length);
+    }
+
+    @Override
+    public Mono<String> restoreFileVersion(String storagePath, String versionId) {
+        return invalidating(delegate.restoreFileVersion(storagePath, versionId), storagePath);
+    }
+
+    @Override
+    public Mono<String> getLatestVersionId(String storagePath) {
+        return delegate.getLatestVersionId(storagePath);
+    }
+
+    @Override
+    public Mono<Long> cleanupExpiredVersions(Duration retention) {
+        return delegate.cleanupExpiredVersions(retention);
+    }
+
+    @Override
+    public Mono<Long> collectUnreferencedBlobs() {
+        return delegate.collectUnreferencedBlobs();
+    }
+}
@@ -4,6 +4,7 @@ import tools.jackson.databind.ObjectMapper;
 import io.r2dbc.postgresql.codec.Json;
 import lombok.extern.slf4j.Slf4j;
 import org.openfilz.dms.config.QuotaProperties;
+import org.openfilz.dms.dto.StoredFile;
 import org.openfilz.dms.dto.response.UploadResponse;
 import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.repository.DocumentDAO;
@@ -12,6 +13,7 @@ import org.openfilz.dms.service.AuditService;
 import org.openfilz.dms.service.ChecksumService;
 import org.openfilz.dms.service.MetadataPostProcessor;
 import org.openfilz.dms.service.StorageService;
+import org.openfilz.dms.service.UserQuotaService;
 import org.openfilz.dms.utils.ContentInfo;
 import org.openfilz.dms.utils.FileUtils;
 import org.openfilz.dms.utils.JsonUtils;
@@ -32,21 +34,26 @@ import static org.openfilz.dms.service.ChecksumService.HASH_SHA256_KEY;
 public class ChecksumSaveDocumentServiceImpl extends SaveDocumentServiceImpl {
     private final ChecksumService checksumService;
 
-    public ChecksumSaveDocumentServiceImpl(StorageService storageService, ObjectMapper objectMapper, AuditService auditService, JsonUtils jsonUtils, DocumentDAO documentDAO, MetadataPostProcessor metadataPostProcessor, TransactionalOperator tx, QuotaProperties quotaProperties, ChecksumService checksumService) {
-        super(storageService, objectMapper, auditService, jsonUtils, documentDAO, metadataPostProcessor, tx, quotaProperties);
+    public ChecksumSaveDocumentServiceImpl(StorageService storageService, ObjectMapper objectMapper, AuditService auditService, JsonUtils jsonUtils, DocumentDAO documentDAO, MetadataPostProcessor metadataPostProcessor, TransactionalOperator tx, QuotaProperties quotaProperties, UserQuotaService userQuotaService, ChecksumService checksumService) {
+        super(storageService, objectMapper, auditService, jsonUtils, documentDAO, metadataPostProcessor, tx, quotaProperties, userQuotaService);
         this.checksumService = checksumService;
     }
 
 
     @Override
-    public Mono<UploadResponse> doSaveFile(FilePart filePart, Long contentLength, UUID parentFolderId, Map<String, Object> metadata, String originalFilename, Mono<String> storagePathMono) {
-        return storagePathMono
-                .flatMap(storagePath -> checksumService.calculateChecksum(storagePath, metadata))
+    public Mono<StoredFile> storeFile(FilePart filePart) {
+        return storageService.saveFileWithChecksum(filePart);
+    }
+
+    @Override
+    public Mono<UploadResponse> doSaveFile(FilePart filePart, Long contentLength, UUID parentFolderId, Map<String, Object> metadata, String originalFilename, Mono<StoredFile> storedFileMono) {
+        return storedFileMono
+                .flatMap(storedFile -> getChecksum(storedFile, metadata))
                 .flatMap(checksum -> saveDocumentInDatabase(filePart, contentLength, parentFolderId, checksum.metadataWithChecksum(), originalFilename, checksum.storagePath()))
                 .flatMap(savedDoc -> logUploadAction(savedDoc, parentFolderId, metadata).thenReturn(savedDoc))
+                .flatMap(savedDoc -> postProcessDocument(savedDoc).thenReturn(savedDoc))
                 .as(tx::transactional)
-                .flatMap(savedDoc -> Mono.just(new UploadResponse(savedDoc.getId(), savedDoc.getName(), savedDoc.getContentType(), savedDoc.getSize()))
-                        .doOnSuccess(_ -> postProcessDocument(savedDoc)));
+                .map(savedDoc -> new UploadResponse(savedDoc.getId(), savedDoc.getName(), savedDoc.getContentType(), savedDoc.getSize()));
     }
 
     @Override
@@ -65,21 +72,34 @@ public class ChecksumSaveDocumentServiceImpl extends SaveDocumentServiceImpl {
                 });
     }
 
+    /**
+     * Uses the checksum computed while the content was streamed to storage, and only falls back
+     * to reading the stored object back when none could be computed.
+     */
+    private Mono<Checksum> getChecksum(StoredFile storedFile, Map<String, Object> metadata) {
+        if (storedFile.hasChecksum()) {
+            return checksumService.getChecksumMono(storedFile.storagePath(), metadata, storedFile.checksum());
+        }
+        return checksumService.calculateChecksum(storedFile.storagePath(), metadata);
+    }
+
     @Override
     public Mono<Document> saveAndReplaceDocument(FilePart newFilePart, ContentInfo contentInfo, Document document, String oldStoragePath) {
-        return storageService.replaceFile(oldStoragePath, newFilePart)
-                .flatMap(newStoragePath -> {
+        return replaceFile(newFilePart, contentInfo, oldStoragePath)
+                .flatMap(storedFile -> {
+                    String newStoragePath = storedFile.storagePath();
+                    ContentInfo newContentInfo = withChecksum(contentInfo, storedFile.checksum());
                     if (newStoragePath.equals(oldStoragePath)) {
                         // Versioning mode: file was replaced in-place (new version of same object)
-                        return handleVersionedReplace(newFilePart, contentInfo, document, newStoragePath);
+                        return handleVersionedReplace(newFilePart, newContentInfo, document, newStoragePath);
                     }
                     // Non-versioning mode: a new file was created with a different path
-                    return checkNewFileIsDifferentFromExisting(newStoragePath, contentInfo,
+                    return checkNewFileIsDifferentFromExisting(newStoragePath, newContentInfo,
                             getChecksum(document), oldStoragePath)
                             .flatMap(checksumInfo -> {
                                 if (!checksumInfo.isSame()) {
                                     log.debug("the new file is not the same as the existing one");
-                                    return replaceFileContentAndSave(newFilePart, new ContentInfo(contentInfo.length(), checksumInfo.newValue()), document, newStoragePath, oldStoragePath);
+                                    return replaceFileContentAndSave(newFilePart, new ContentInfo(newContentInfo.length(), checksumInfo.newValue()), document, newStoragePath, oldStoragePath);
                                 }
                                 log.debug("the new file is the same as the existing one");
                                 return storageService.deleteFile(newStoragePath).thenReturn(document);
@@ -87,6 +107,24 @@ public class ChecksumSaveDocumentServiceImpl extends SaveDocumentServiceImpl {
                 });
     }
 
+    /**
+     * When the caller already knows the checksum of the new content (e.g. OnlyOffice callbacks hash while downloading),
+     * the content is stored as is; otherwise it is hashed while being streamed to storage.
+     */
+    private Mono<StoredFile> replaceFile(FilePart newFilePart, ContentInfo contentInfo, String oldStoragePath) {
+        if (contentInfo != null && contentInfo.checksum() != null) {
+            return storageService.replaceFile(oldStoragePath, newFilePart).map(StoredFile::of);
+        }
+        return storageService.replaceFileWithChecksum(oldStoragePath, newFilePart);
+    }
+
+    private ContentInfo withChecksum(ContentInfo contentInfo, String checksum) {
+        if (checksum == null) {
+            return contentInfo;
+        }
+        return new ContentInfo(contentInfo != null ? contentInfo.length() : null, checksum);
+    }
+
     private Mono<Document> handleVersionedReplace(FilePart newFilePart, ContentInfo contentInfo, Document document, String storagePath) {
         // Calculate the new file's checksum (from client-provided value or from storage)
         Mono<String> newChecksumMono = contentInfo != null && contentInfo.checksum() != null
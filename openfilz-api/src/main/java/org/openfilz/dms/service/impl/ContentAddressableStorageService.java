@@ -0,0 +1,308 @@
+package org.openfilz.dms.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.ContentAddressableStorageProperties;
+import org.openfilz.dms.dto.StoredFile;
+import org.openfilz.dms.dto.TusStorageUpload;
+import org.openfilz.dms.dto.TusUploadMetadata;
+import org.openfilz.dms.dto.response.DocumentVersionInfo;
+import org.openfilz.dms.exception.VersioningDisabledException;
+import org.openfilz.dms.repository.ContentBlobDAO;
+import org.openfilz.dms.service.StorageService;
+import org.openfilz.dms.utils.ContentDigest;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Content-addressable layer on top of the configured storage backend (selected by
+ * {@link org.openfilz.dms.config.StorageConfig} when {@code storage.content-addressable.enabled=true}).
+ * <p>
+ * Uploaded content is hashed while it is written, then stored once under {@code cas/{sha256[0..2]}/{sha256}}:
+ * uploading known content only costs a metadata insert, and copying a document reuses its blob.
+ * Blobs are immutable and shared, so {@link #deleteFile(String)} never deletes them: the documents
+ * table triggers maintain a reference count in {@code content_blobs} and unreferenced blobs are
+ * removed by {@link #collectUnreferencedBlobs()} after a grace period.
+ * <p>
+ * Paths outside the {@code cas/} prefix (TUS data, documents stored before the mode was enabled)
+ * are handled by the underlying backend unchanged.
+ */
+@Slf4j
+public class ContentAddressableStorageService implements StorageService {
+
+    public static final String BLOB_PREFIX = "cas/";
+
+    private final StorageService delegate;
+    private final ContentBlobDAO contentBlobDAO;
+    private final TransactionalOperator tx;
+    private final ContentAddressableStorageProperties properties;
+
+    public ContentAddressableStorageService(StorageService delegate, ContentBlobDAO contentBlobDAO,
+                                            TransactionalOperator tx, ContentAddressableStorageProperties properties) {
+        this.delegate = delegate;
+        this.contentBlobDAO = contentBlobDAO;
+        this.tx = tx;
+        this.properties = properties;
+    }
+
+    public static boolean isBlob(String storagePath) {
+        return storagePath != null && storagePath.startsWith(BLOB_PREFIX);
+    }
+
+    static String getBlobPath(String sha256) {
+        return BLOB_PREFIX + sha256.substring(0, 2) + FOLDER_SEPARATOR + sha256;
+    }
+
+    @Override
+    public Mono<String> saveFile(FilePart filePart) {
+        return saveFileWithChecksum(filePart).map(StoredFile::storagePath);
+    }
+
+    @Override
+    public Mono<StoredFile> saveFileWithChecksum(FilePart filePart) {
+        return delegate.saveFileWithChecksum(filePart).flatMap(this::toBlob);
+    }
+
+    /**
+     * Blobs are immutable: new content always gets its own blob, bucket versioning does not apply.
+     */
+    @Override
+    public Mono<String> replaceFile(String oldStoragePath, FilePart newFilePart) {
+        return saveFile(newFilePart);
+    }
+
+    @Override
+    public Mono<StoredFile> replaceFileWithChecksum(String oldStoragePath, FilePart newFilePart) {
+        return saveFileWithChecksum(newFilePart);
+    }
+
+    /**
+     * Turns freshly stored content into a blob: dropped if a blob with the same hash already exists,
+     * moved under its content address otherwise.
+     */
+    private Mono<StoredFile> toBlob(StoredFile stored) {
+        if (!stored.hasChecksum()) {
+            log.warn("No checksum computed for {}, stored outside of content-addressable storage", stored.storagePath());
+            return Mono.just(stored);
+        }
+        String blobPath = getBlobPath(stored.checksum());
+        StoredFile blob = new StoredFile(blobPath, stored.checksum());
+        return contentBlobDAO.touch(blobPath)
+                .flatMap(exists -> {
+                    if (exists) {
+                        log.debug("Content of {} already stored as {}, deduplicated", stored.storagePath(), blobPath);
+                        return delegate.deleteFile(stored.storagePath()).thenReturn(blob);
+                    }
+                    return delegate.moveFile(stored.storagePath(), blobPath)
+                            .then(contentBlobDAO.register(blobPath))
+                            .doOnSuccess(_ -> log.debug("Stored new blob {}", blobPath))
+                            .thenReturn(blob);
+                });
+    }
+
+    @Override
+    public Mono<? extends Resource> loadFile(String storagePath) {
+        return delegate.loadFile(storagePath);
+    }
+
+    /**
+     * No-op for blobs: they are deleted by garbage collection once no document references them.
+     */
+    @Override
+    public Flux<DataBuffer> loadFileRange(String storagePath, long offset, long length) {
+        return delegate.loadFileRange(storagePath, offset, length);
+    }
+
+    @Override
+    public Optional<Path> getLocalFile(String storagePath) {
+        return delegate.getLocalFile(storagePath);
+    }
+
+    @Override
+    public Mono<Void> deleteFile(String storagePath) {
+        if (isBlob(storagePath)) {
+            log.debug("Blob {} left to garbage collection", storagePath);
+            return Mono.empty();
+        }
+        return delegate.deleteFile(storagePath);
+    }
+
+    @Override
+    public Mono<Void> deleteFiles(Collection<String> storagePaths) {
+        List<String> files = storagePaths.stream().filter(storagePath -> !isBlob(storagePath)).toList();
+        return files.isEmpty() ? Mono.empty() : delegate.deleteFiles(files);
+    }
+
+    /**
+     * Copying a blob is a zero-byte operation: the copy references the same blob.
+     */
+    @Override
+    public Mono<String> copyFile(String sourceStoragePath) {
+        if (isBlob(sourceStoragePath)) {
+            return Mono.just(sourceStoragePath);
+        }
+        return delegate.copyFile(sourceStoragePath);
+    }
+
+    @Override
+    public Mono<Long> getFileLength(String storagePath) {
+        return delegate.getFileLength(storagePath);
+    }
+
+    @Override
+    public Mono<Void> createEmptyFile(String storagePath) {
+        return delegate.createEmptyFile(storagePath);
+    }
+
+    @Override
+    public Mono<Long> appendData(String storagePath, Flux<DataBuffer> data, long offset) {
+        return delegate.appendData(storagePath, data, offset);
+    }
+
+    @Override
+    public Mono<Long> appendData(String storagePath, Flux<DataBuffer> data, long offset, ContentDigest digest) {
+        return delegate.appendData(storagePath, data, offset, digest);
+    }
+
+    @Override
+    public Mono<TusStorageUpload> createTusUpload(String uploadId, String filename) {
+        return delegate.createTusUpload(uploadId, filename);
+    }
+
+    @Override
+    public Mono<TusStorageUpload> createTusPartialUpload(String uploadId) {
+        return delegate.createTusPartialUpload(uploadId);
+    }
+
+    @Override
+    public Mono<TusStorageUpload> appendTusData(String uploadId, TusStorageUpload upload, Flux<DataBuffer> data,
+                                                long uploadLength, ContentDigest digest) {
+        return delegate.appendTusData(uploadId, upload, data, uploadLength, digest);
+    }
+
+    @Override
+    public Mono<Void> completeTusUpload(String uploadId, TusStorageUpload upload) {
+        return delegate.completeTusUpload(uploadId, upload);
+    }
+
+    @Override
+    public Mono<TusStorageUpload> concatenateTusUploads(String uploadId, String filename, List<TusUploadMetadata> partials) {
+        return delegate.concatenateTusUploads(uploadId, filename, partials);
+    }
+
+    @Override
+    public Mono<Void> abortTusUpload(String uploadId, TusStorageUpload upload) {
+        return delegate.abortTusUpload(uploadId, upload);
+    }
+
+    @Override
+    public Mono<Void> saveData(String storagePath, Flux<DataBuffer> data) {
+        return delegate.saveData(storagePath, data);
+    }
+
+    @Override
+    public Mono<String> saveDataWithChecksum(String storagePath, Flux<DataBuffer> data) {
+        return delegate.saveDataWithChecksum(storagePath, data);
+    }
+
+    @Override
+    public Mono<Void> moveFile(String sourcePath, String destPath) {
+        return delegate.moveFile(sourcePath, destPath);
+    }
+
+    @Override
+    public Flux<String> listFiles(String prefix) {
+        return delegate.listFiles(prefix);
+    }
+
+    @Override
+    public Mono<Void> deleteLatestVersion(String storagePath) {
+        if (isBlob(storagePath)) {
+            return Mono.empty();
+        }
+        return delegate.deleteLatestVersion(storagePath);
+    }
+
+    @Override
+    public Flux<DocumentVersionInfo> listFileVersions(String storagePath) {
+        if (isBlob(storagePath)) {
+            return Flux.empty();
+        }
+        return delegate.listFileVersions(storagePath);
+    }
+
+    @Override
+    public Mono<? extends Resource> loadFileVersion(String storagePath, String versionId) {
+        if (isBlob(storagePath)) {
+            return Mono.error(new VersioningDisabledException());
+        }
+        return delegate.loadFileVersion(storagePath, versionId);
+    }
+
+    @Override
+    public Flux<DataBuffer> loadFileVersionRange(String storagePath, String versionId, long offset, long length) {
+        if (isBlob(storagePath)) {
+            return Flux.error(new VersioningDisabledException());
+        }
+        return delegate.loadFileVersionRange(storagePath, versionId, offset, length);
+    }
+
+    @Override
+    public Mono<String> restoreFileVersion(String storagePath, String versionId) {
+        if (isBlob(storagePath)) {
+            return Mono.error(new VersioningDisabledException());
+        }
+        return delegate.restoreFileVersion(storagePath, versionId);
+    }
+
+    @Override
+    public Mono<String> getLatestVersionId(String storagePath) {
+        return delegate.getLatestVersionId(storagePath);
+    }
+
+    @Override
+    public Mono<Long> cleanupExpiredVersions(Duration retention) {
+        return delegate.cleanupExpiredVersions(retention);
+    }
+
+    /**
+     * Deletes blobs that have not been referenced by any document (active or in the recycle bin)
+     * for longer than the grace period. Each blob is deleted while its registry row is locked, so
+     * that a concurrent upload of the same content either waits and re-creates the blob, or
+     * refreshes it first and prevents its deletion.
+     */
+    @Override
+    public Mono<Long> collectUnreferencedBlobs() {
+        OffsetDateTime before = OffsetDateTime.now().minus(properties.getGcGracePeriod());
+        return contentBlobDAO.findUnreferenced(before, properties.getGcBatchSize())
+                .concatMap(storagePath -> collectBlob(storagePath, before))
+                .count()
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        log.info("Garbage-collected {} unreferenced blob(s)", count);
+                    }
+                });
+    }
+
+    private Mono<String> collectBlob(String storagePath, OffsetDateTime before) {
+        return contentBlobDAO.lockIfUnreferenced(storagePath, before)
+                .flatMap(locked -> delegate.deleteFile(locked)
+                        .then(contentBlobDAO.delete(locked))
+                        .thenReturn(locked))
+                .as(tx::transactional)
+                .onErrorResume(e -> {
+                    log.warn("Could not garbage-collect blob {}: {}", storagePath, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
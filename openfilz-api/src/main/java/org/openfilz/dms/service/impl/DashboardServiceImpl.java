@@ -2,18 +2,16 @@ package org.openfilz.dms.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.openfilz.dms.config.CommonProperties;
 import org.openfilz.dms.config.QuotaProperties;
+import org.openfilz.dms.dto.StorageStats;
 import org.openfilz.dms.dto.response.DashboardStatisticsResponse;
 import org.openfilz.dms.dto.response.FileTypeStats;
 import org.openfilz.dms.dto.response.StorageBreakdown;
-import org.openfilz.dms.enums.DocumentType;
 import org.openfilz.dms.repository.StatisticsDAO;
 import org.openfilz.dms.service.DashboardService;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -27,109 +25,40 @@ public class DashboardServiceImpl implements DashboardService {
     private final StatisticsDAO statisticsDAO;
     private final QuotaProperties commonProperties;
 
-    // File type patterns for categorization
-    private static final String DOCUMENTS_PATTERN = "application/%";
-    private static final String IMAGES_PATTERN = "image/%";
-    private static final String VIDEOS_PATTERN = "video/%";
-    private static final String AUDIO_PATTERN = "audio/%";
+    // Categories of the storage_stats rollup
+    private static final String FOLDERS = "folders";
+    private static final List<String> FILE_CATEGORIES = List.of("documents", "images", "videos", "audio", "others");
 
     @Override
     public Mono<DashboardStatisticsResponse> getDashboardStatistics() {
         log.debug("Fetching dashboard statistics");
 
-        // Get total file and folder counts
-        Mono<Long> totalFilesMono = statisticsDAO.countFilesByType(DocumentType.FILE);
-        Mono<Long> totalFoldersMono = statisticsDAO.countFilesByType(DocumentType.FOLDER);
-
-        // Get storage statistics
-        Mono<StorageBreakdown> storageMono = getStorageBreakdown();
-
-        // Get file type counts (for now, we'll use the same storage data)
-        Mono<List<FileTypeStats>> fileTypeCountsMono = getFileTypeCounts();
-
-        return Mono.zip(totalFilesMono, totalFoldersMono, storageMono, fileTypeCountsMono)
-                .map(tuple -> {
-                    Long totalFiles = tuple.getT1();
-                    Long totalFolders = tuple.getT2();
-                    StorageBreakdown storage = tuple.getT3();
-                    List<FileTypeStats> fileTypeCounts = tuple.getT4();
+        return statisticsDAO.getStorageStatsByCategory()
+                .collectMap(StorageStats::category)
+                .map(statsByCategory -> {
+                    long totalFolders = statsByCategory.containsKey(FOLDERS) ? statsByCategory.get(FOLDERS).count() : 0L;
+                    List<StorageStats> fileStats = FILE_CATEGORIES.stream()
+                            .map(category -> statsByCategory.getOrDefault(category, new StorageStats(category, 0L, 0L)))
+                            .toList();
+                    long totalFiles = fileStats.stream().mapToLong(StorageStats::count).sum();
+                    long totalStorage = fileStats.stream().mapToLong(StorageStats::size).sum();
+
+                    List<FileTypeStats> breakdown = fileStats.stream()
+                            .map(stats -> new FileTypeStats(stats.category(), null, stats.size()))
+                            .toList();
+                    List<FileTypeStats> fileTypeCounts = fileStats.stream()
+                            .map(stats -> new FileTypeStats(stats.category(), stats.count(), null))
+                            .toList();
 
                     log.debug("Dashboard statistics: {} files, {} folders, {} bytes used",
-                            totalFiles, totalFolders, storage.totalStorageUsed());
+                            totalFiles, totalFolders, totalStorage);
 
                     return new DashboardStatisticsResponse(
                             totalFiles,
                             totalFolders,
-                            storage,
+                            new StorageBreakdown(totalStorage, commonProperties.getUserQuotaInBytes(), breakdown),
                             fileTypeCounts
                     );
                 });
     }
-
-    private Mono<StorageBreakdown> getStorageBreakdown() {
-        // Get total storage used
-        Mono<Long> totalStorageMono = statisticsDAO.getTotalStorageUsed();
-
-        // Get storage by content type
-        Mono<Long> documentsSizeMono = statisticsDAO.getTotalStorageByContentType(DOCUMENTS_PATTERN);
-        Mono<Long> imagesSizeMono = statisticsDAO.getTotalStorageByContentType(IMAGES_PATTERN);
-        Mono<Long> videosSizeMono = statisticsDAO.getTotalStorageByContentType(VIDEOS_PATTERN);
-        Mono<Long> audioSizeMono = statisticsDAO.getTotalStorageByContentType(AUDIO_PATTERN);
-
-        return Mono.zip(totalStorageMono, documentsSizeMono, imagesSizeMono, videosSizeMono, audioSizeMono)
-                .map(tuple -> {
-                    Long totalStorage = tuple.getT1();
-                    Long documentsSize = tuple.getT2();
-                    Long imagesSize = tuple.getT3();
-                    Long videosSize = tuple.getT4();
-                    Long audioSize = tuple.getT5();
-
-                    // Calculate "other" as the difference
-                    Long othersSize = totalStorage - documentsSize - imagesSize - videosSize - audioSize;
-
-                    List<FileTypeStats> breakdown = Arrays.asList(
-                            new FileTypeStats("documents", null, documentsSize),
-                            new FileTypeStats("images", null, imagesSize),
-                            new FileTypeStats("videos", null, videosSize),
-                            new FileTypeStats("audio", null, audioSize),
-                            new FileTypeStats("others", null, Math.max(0, othersSize))
-                    );
-
-                    // For now, set total available to null (no quota system)
-                    return new StorageBreakdown(totalStorage, commonProperties.getUserQuotaInBytes(), breakdown);
-                });
-    }
-
-    private Mono<List<FileTypeStats>> getFileTypeCounts() {
-        // Count files by content type pattern
-        Mono<Long> documentsCountMono = countFilesByContentType(DOCUMENTS_PATTERN);
-        Mono<Long> imagesCountMono = countFilesByContentType(IMAGES_PATTERN);
-        Mono<Long> videosCountMono = countFilesByContentType(VIDEOS_PATTERN);
-        Mono<Long> audioCountMono = countFilesByContentType(AUDIO_PATTERN);
-        Mono<Long> totalFilesMono = statisticsDAO.countFilesByType(DocumentType.FILE);
-
-        return Mono.zip(documentsCountMono, imagesCountMono, videosCountMono, audioCountMono, totalFilesMono)
-                .map(tuple -> {
-                    Long documentsCount = tuple.getT1();
-                    Long imagesCount = tuple.getT2();
-                    Long videosCount = tuple.getT3();
-                    Long audioCount = tuple.getT4();
-                    Long totalFiles = tuple.getT5();
-
-                    // Calculate "others" as the difference
-                    Long othersCount = totalFiles - documentsCount - imagesCount - videosCount - audioCount;
-
-                    return Arrays.asList(
-                            new FileTypeStats("documents", documentsCount, null),
-                            new FileTypeStats("images", imagesCount, null),
-                            new FileTypeStats("videos", videosCount, null),
-                            new FileTypeStats("audio", audioCount, null),
-                            new FileTypeStats("others", Math.max(0, othersCount), null)
-                    );
-                });
-    }
-
-    private Mono<Long> countFilesByContentType(String contentTypePattern) {
-        return statisticsDAO.countFilesByContentType(contentTypePattern);
-    }
 }
@@ -14,6 +14,7 @@ import org.openfilz.dms.repository.graphql.DefaultDocumentQueryService;
 import org.openfilz.dms.service.DocumentSearchService;
 import org.openfilz.dms.utils.DocumentSearchUtil;
 import org.openfilz.dms.utils.FileUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperties;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
@@ -26,7 +27,10 @@ import static org.openfilz.dms.utils.DocumentSearchUtil.FILTER_PARENT_ID;
 @Service
 @Slf4j
 @RequiredArgsConstructor
-@ConditionalOnProperty(name = "openfilz.full-text.active", havingValue = "false", matchIfMissing = true)
+@ConditionalOnProperties(value = {
+        @ConditionalOnProperty(name = "openfilz.full-text.active", havingValue = "false", matchIfMissing = true),
+        @ConditionalOnProperty(name = "openfilz.full-text.postgres.active", havingValue = "false", matchIfMissing = true)
+})
 public class DefaultDocumentSearchService implements DocumentSearchService {
 
     private final AllFoldersDocumentQueryService allFoldersDocumentQueryService;
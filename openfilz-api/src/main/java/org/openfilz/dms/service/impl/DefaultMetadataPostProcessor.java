@@ -2,7 +2,7 @@ package org.openfilz.dms.service.impl;
 
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.openfilz.dms.config.MetadataPostProcessingCondition;
+import org.openfilz.dms.config.ImmediatePostProcessingCondition;
 import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.enums.DocumentType;
 import org.openfilz.dms.service.DocumentEmbeddingService;
@@ -14,12 +14,13 @@ import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.UUID;
 
 @Slf4j
 @Service
 @Lazy
-@Conditional(MetadataPostProcessingCondition.class)
+@Conditional(ImmediatePostProcessingCondition.class)
 public class DefaultMetadataPostProcessor implements MetadataPostProcessor {
 
     @Autowired(required = false)
@@ -42,17 +43,20 @@ public class DefaultMetadataPostProcessor implements MetadataPostProcessor {
     @Value("${openfilz.full-text.active:false}")
     private boolean fullTextProperty;
 
+    @Value("${openfilz.full-text.postgres.active:false}")
+    private boolean postgresSearchProperty;
+
     @Value("${openfilz.ai.active:false}")
     private boolean aiActiveProperty;
 
-    private boolean thumbnails;
-    private boolean fullText;
-    private boolean aiActive;
+    protected boolean thumbnails;
+    protected boolean fullText;
+    protected boolean aiActive;
 
     @PostConstruct
     private void init() {
         thumbnails = thumbnailsProperty && thumbnailPostProcessor != null;
-        fullText = fullTextProperty && fullTextService != null;
+        fullText = (fullTextProperty || postgresSearchProperty) && fullTextService != null;
         aiActive = aiActiveProperty && documentEmbeddingService != null;
         log.info("MetadataPostProcessor: fullText={}, thumbnails={}, aiEmbedding={}", fullText, thumbnails, aiActive);
     }
@@ -66,7 +70,7 @@ public class DefaultMetadataPostProcessor implements MetadataPostProcessor {
             thumbnailPostProcessor.processDocument(document);
         }
         // AI embedding: only when full-text is NOT active (otherwise, embedding
-        // is triggered from LocalFullTextServiceImpl after Tika extraction to share the work)
+        // is triggered from the FullTextService after Tika extraction to share the work)
         if(aiActive && !fullText && document.getType() == DocumentType.FILE) {
             log.debug("[AI-EMBED] Triggering standalone embedding for '{}' (no full-text active)", document.getName());
             documentEmbeddingService.embedDocument(document).subscribe();
@@ -113,4 +117,14 @@ public class DefaultMetadataPostProcessor implements MetadataPostProcessor {
             thumbnailPostProcessor.deleteDocument(id);
         }
     }
+
+    @Override
+    public void deleteDocuments(Collection<UUID> ids) {
+        if(fullText) {
+            fullTextService.deleteDocuments(ids);
+        }
+        if(thumbnails) {
+            ids.forEach(thumbnailPostProcessor::deleteDocument);
+        }
+    }
 }
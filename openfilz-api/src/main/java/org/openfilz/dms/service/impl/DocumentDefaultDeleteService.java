@@ -1,12 +1,12 @@
 package org.openfilz.dms.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.openfilz.dms.dto.audit.AuditEntry;
 import org.openfilz.dms.dto.audit.DeleteAudit;
 import org.openfilz.dms.dto.request.DeleteRequest;
 import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.enums.AccessType;
 import org.openfilz.dms.enums.AuditAction;
-import org.openfilz.dms.enums.DocumentType;
 import org.openfilz.dms.exception.DocumentNotFoundException;
 import org.openfilz.dms.exception.OperationForbiddenException;
 import org.openfilz.dms.repository.DocumentDAO;
@@ -18,9 +18,9 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperties;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.reactive.TransactionalOperator;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.openfilz.dms.enums.AuditAction.DELETE_FILE_CHILD;
@@ -45,51 +45,62 @@ public class DocumentDefaultDeleteService implements DocumentDeleteService {
 
     @Override
     public Mono<Void> deleteFiles(DeleteRequest request) {
-        return Flux.fromIterable(request.documentIds())
-                .flatMap(docId -> documentDAO.findById(docId, AccessType.RWD)
-                        .switchIfEmpty(Mono.error(new DocumentNotFoundException(docId)))
-                        .filter(doc -> doc.getType() == FILE) // Ensure it's a file
-                        .switchIfEmpty(Mono.error(new OperationForbiddenException("ID " + docId + " is a folder. Use delete folders API.")))
-                        .flatMap(document -> storageService.deleteFile(document.getStoragePath())
-                                .then(documentDAO.delete(document)))
-                        .then(auditService.logAction(AuditAction.DELETE_FILE, FILE, docId))
-                        .as(tx::transactional)
-                        .doOnSuccess(_ -> metadataPostProcessor.deleteDocument(docId))
-                )
+        List<UUID> ids = request.documentIds();
+        return documentDAO.findByIds(ids, AccessType.RWD)
+                .collectMap(Document::getId)
+                .flatMap(documents -> {
+                    for (UUID docId : ids) {
+                        Document document = documents.get(docId);
+                        if (document == null) {
+                            return Mono.error(new DocumentNotFoundException(docId));
+                        }
+                        if (document.getType() != FILE) {
+                            return Mono.error(new OperationForbiddenException("ID " + docId + " is a folder. Use delete folders API."));
+                        }
+                    }
+                    return documentDAO.deleteByIds(documents.keySet())
+                            .collectList()
+                            .flatMap(deleted -> deleteStoredFiles(deleted)
+                                    .then(auditService.logActions(deleted.stream()
+                                            .map(file -> new AuditEntry(AuditAction.DELETE_FILE, FILE, file.getId()))
+                                            .toList()))
+                                    .then(deleteIndexedDocuments(deleted)))
+                            .as(tx::transactional);
+                })
                 .then();
     }
 
+    /**
+     * Deletes the folder and its whole subtree with one statement, then removes the content of its files and logs
+     * one audit entry per deleted document, children before their parents.
+     */
     @Override
     public Mono<Void> deleteFolderRecursive(UUID folderId) {
         return documentDAO.getFolderToDelete(folderId)
                 .switchIfEmpty(Mono.error(new DocumentNotFoundException(FOLDER, folderId)))
-                .flatMap(folder -> {
-                    // 1. Delete child files
-                    Mono<Void> deleteChildFiles = getChildrenDocumentsToDelete(folderId, FILE)
-                            .flatMap(file -> storageService.deleteFile(file.getStoragePath())
-                                    .then(documentDAO.delete(file))
-                                    .then(auditService.logAction(DELETE_FILE_CHILD, FILE, file.getId(), new DeleteAudit(folderId)))
-                                    .as(tx::transactional)
-                                    .doOnSuccess(_ -> metadataPostProcessor.deleteDocument(file.getId()))
-                            ).then();
-
-                    // 2. Recursively delete child folders
-                    Mono<Void> deleteChildFolders = getChildrenDocumentsToDelete(folderId, FOLDER)
-                            .flatMap(childFolder -> deleteFolderRecursive(childFolder.getId()))
-                            .then();
+                .flatMap(_ -> documentDAO.deleteSubtree(folderId)
+                        .collectList()
+                        .flatMap(deleted -> deleteStoredFiles(deleted)
+                                .then(auditService.logActions(deleted.stream()
+                                        .map(document -> document.getType() == FILE
+                                                ? new AuditEntry(DELETE_FILE_CHILD, FILE, document.getId(), new DeleteAudit(document.getParentId()))
+                                                : new AuditEntry(AuditAction.DELETE_FOLDER, FOLDER, document.getId()))
+                                        .toList()))
+                                .then(deleteIndexedDocuments(deleted)))
+                        .as(tx::transactional))
+                .then();
+    }
 
-                    // 3. Delete the folder itself from DB (and storage if it had a physical representation)
-                    return Mono.when(deleteChildFiles, deleteChildFolders)
-                            .then(documentDAO.delete(folder))
-                            .then(auditService.logAction(AuditAction.DELETE_FOLDER, FOLDER, folderId))
-                            .as(tx::transactional)
-                            .doOnSuccess(_ -> metadataPostProcessor.deleteDocument(folder.getId()));
-                });
+    private Mono<Void> deleteStoredFiles(List<Document> deleted) {
+        List<String> storagePaths = deleted.stream()
+                .filter(document -> document.getType() == FILE && document.getStoragePath() != null)
+                .map(Document::getStoragePath)
+                .toList();
+        return storagePaths.isEmpty() ? Mono.empty() : storageService.deleteFiles(storagePaths);
     }
 
-    protected Flux<Document> getChildrenDocumentsToDelete(UUID folderId, DocumentType docType) {
-        return documentDAO.findDocumentsByParentIdAndType(folderId, docType);
+    private Mono<Void> deleteIndexedDocuments(List<Document> deleted) {
+        return metadataPostProcessor.deleteDocumentsOnCommit(deleted.stream().map(Document::getId).toList());
     }
 
 }
-
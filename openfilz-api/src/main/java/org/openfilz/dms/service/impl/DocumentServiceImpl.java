@@ -6,13 +6,10 @@ import tools.jackson.databind.node.ObjectNode;
 import io.r2dbc.postgresql.codec.Json;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.openfilz.dms.dto.audit.*;
 import org.openfilz.dms.dto.request.*;
 import org.openfilz.dms.dto.response.*;
 import org.openfilz.dms.entity.Document;
-import org.openfilz.dms.entity.PhysicalDocument;
 import org.openfilz.dms.enums.AccessType;
 import org.openfilz.dms.enums.AuditAction;
 import org.openfilz.dms.enums.DocumentTemplateType;
@@ -23,8 +20,6 @@ import org.openfilz.dms.exception.DocumentNotFoundException;
 import org.openfilz.dms.exception.DuplicateNameException;
 import org.openfilz.dms.exception.FileSizeExceededException;
 import org.openfilz.dms.exception.OperationForbiddenException;
-import org.openfilz.dms.exception.StorageException;
-import org.openfilz.dms.exception.UserQuotaExceededException;
 import org.openfilz.dms.repository.DocumentDAO;
 import org.openfilz.dms.service.*;
 import org.openfilz.dms.utils.BlankDocumentGenerator;
@@ -33,10 +28,15 @@ import org.openfilz.dms.utils.DocumentSearchUtil;
 import org.openfilz.dms.utils.FileUtils;
 import org.openfilz.dms.utils.InMemoryFilePart;
 import org.openfilz.dms.utils.JsonUtils;
+import org.openfilz.dms.utils.StreamingZipWriter;
 import org.openfilz.dms.utils.UserInfoService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.reactive.TransactionalOperator;
@@ -44,21 +44,23 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
-import java.io.FilterInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.openfilz.dms.enums.AuditAction.*;
 import static org.openfilz.dms.enums.DocumentType.FILE;
 import static org.openfilz.dms.enums.DocumentType.FOLDER;
-import static org.openfilz.dms.utils.FileConstants.SLASH;
 
 @Slf4j
 @Service
@@ -77,6 +79,20 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
     protected final DocumentDeleteService documentDeleteService;
     protected final BlankDocumentGenerator blankDocumentGenerator;
     protected final QuotaProperties quotaProperties;
+    protected final UserQuotaService userQuotaService;
+
+    /**
+     * Buffers read ahead per prefetched ZIP entry (64 KB each).
+     */
+    private static final int ZIP_PREFETCH_BUFFERS = 4;
+
+    /**
+     * Files copied at a time when a folder is copied.
+     */
+    private static final int COPY_CONCURRENCY = 16;
+
+    @Value("${openfilz.download.zip-prefetch-entries:4}")
+    private int zipPrefetchEntries;
 
     /**
      * Validates that the file size does not exceed the configured file upload quota.
@@ -95,48 +111,16 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
         return Mono.empty();
     }
 
-    /**
-     * Validates that the user's total storage plus the new file does not exceed the user quota.
-     * @param newFileSize the size of the new file in bytes
-     * @return Mono.empty() if valid, Mono.error(UserQuotaExceededException) if quota exceeded
-     */
-    protected Mono<Void> validateUserQuota(Long newFileSize) {
-        if (!quotaProperties.isUserQuotaEnabled() || newFileSize == null) {
-            return Mono.empty();
-        }
-        Long maxQuota = quotaProperties.getUserQuotaInBytes();
-        return getConnectedUserEmail()
-                .flatMap(username -> documentDAO.getTotalStorageByUser(username)
-                        .flatMap(currentUsage -> {
-                            if (currentUsage + newFileSize > maxQuota) {
-                                return Mono.error(new UserQuotaExceededException(username, currentUsage, newFileSize, maxQuota));
-                            }
-                            return Mono.empty();
-                        }));
-    }
-
-    /**
-     * Validates both file size quota and user quota.
-     * @param contentLength the size of the file in bytes
-     * @param filename the name of the file (for error message)
-     * @return Mono.empty() if valid, Mono.error if any quota exceeded
-     */
-    protected Mono<Void> validateQuotas(Long contentLength, String filename) {
-        return validateFileSize(contentLength, filename)
-                .then(validateUserQuota(contentLength));
-    }
-
     @Override
     public Mono<FolderResponse> createFolder(CreateFolderRequest request) {
         if (request.name().contains(StorageService.FOLDER_SEPARATOR)) {
             return Mono.error(new OperationForbiddenException("Folder name should not contains any '/'"));
         }
-        return doCreateFolder(request, null, false, null)
+        return doCreateFolder(request)
                 .flatMap(savedFolder -> Mono.just(new FolderResponse(savedFolder.getId(), savedFolder.getName(), savedFolder.getParentId())));
     }
 
-    private Mono<Document> doCreateFolder(CreateFolderRequest request, Json folderMetadata,
-                                          boolean copy, UUID sourceFolderId) {
+    private Mono<Document> doCreateFolder(CreateFolderRequest request) {
         log.debug("doCreateFolder folder {}", request);
         return documentExists(request.name(), request.parentId())
                 .flatMap(exists -> {
@@ -148,33 +132,27 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                             if(!folderExists) {
                                 return Mono.error(new DocumentNotFoundException(FOLDER, request.parentId()));
                             }
-                            return saveFolderInRepository(request, folderMetadata);
+                            return saveFolderInRepository(request);
                         });
                     }
-                    return saveFolderInRepository(request, folderMetadata);
-                }).flatMap(savedFolder -> {
-                    if (sourceFolderId == null) {
-                        return auditService.logAction(copy ? AuditAction.COPY_FOLDER : AuditAction.CREATE_FOLDER, FOLDER, savedFolder.getId(), new CreateFolderAudit(request))
-                                .thenReturn(savedFolder);
-                    }
-                    return auditService.logAction(copy ? AuditAction.COPY_FOLDER : AuditAction.CREATE_FOLDER, FOLDER, savedFolder.getId(), new CreateFolderAudit(request, sourceFolderId))
-                            .thenReturn(savedFolder);
-                }).as(tx::transactional)
-                .doOnSuccess(this::postProcessDocument);
+                    return saveFolderInRepository(request);
+                }).flatMap(savedFolder -> auditService.logAction(AuditAction.CREATE_FOLDER, FOLDER, savedFolder.getId(), new CreateFolderAudit(request))
+                        .thenReturn(savedFolder))
+                .flatMap(savedFolder -> postProcessDocument(savedFolder).thenReturn(savedFolder))
+                .as(tx::transactional);
 
     }
 
-    protected void postProcessDocument(Document document) {
-        metadataPostProcessor.processDocument(document);
+    protected Mono<Void> postProcessDocument(Document document) {
+        return metadataPostProcessor.processDocumentOnCommit(document);
     }
 
 
-    private Mono<Document> saveFolderInRepository(CreateFolderRequest request, Json folderMetadata) {
+    private Mono<Document> saveFolderInRepository(CreateFolderRequest request) {
         Document.DocumentBuilder documentBuilder = Document.builder()
                 .name(request.name())
                 .type(FOLDER)
-                .parentId(request.parentId())
-                .metadata(folderMetadata);
+                .parentId(request.parentId());
         return saveDocumentService.doSaveFile(saveDocumentService.saveNewDocumentFunction(documentBuilder));
     }
 
@@ -187,9 +165,9 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
     @Override
     public Mono<UploadResponse> uploadDocument(FilePart filePart, Long contentLength, UUID parentFolderId, Map<String, Object> metadata, Boolean allowDuplicateFileNames) {
         String originalFilename = filePart.filename().replace(StorageService.FILENAME_SEPARATOR, "");
-        // Validate file size and user quotas
-        return validateQuotas(contentLength, originalFilename)
-                .then(Mono.defer(() -> {
+        // Validate file size, then reserve the file on the user quota for the duration of the upload
+        return validateFileSize(contentLength, originalFilename)
+                .then(userQuotaService.withReservation(contentLength, Mono.defer(() -> {
                     if (parentFolderId != null) {
                         return documentDAO.existsByIdAndType(parentFolderId, FOLDER, AccessType.RW)
                                 .flatMap(exists -> {
@@ -200,19 +178,19 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                                 });
                     }
                     return doUploadDocument(filePart, contentLength, null, metadata, originalFilename, allowDuplicateFileNames);
-                }));
+                })));
     }
 
     private Mono<UploadResponse> doUploadDocument(FilePart filePart, Long contentLength, UUID parentFolderId, Map<String, Object> metadata, String originalFilename, Boolean allowDuplicateFileNames) {
         if(allowDuplicateFileNames) {
-            return saveDocumentService.doSaveFile(filePart, contentLength, parentFolderId, metadata, originalFilename, storageService.saveFile(filePart));
+            return saveDocumentService.doSaveFile(filePart, contentLength, parentFolderId, metadata, originalFilename, saveDocumentService.storeFile(filePart));
         }
         Mono<Boolean> duplicateCheck = documentExists(originalFilename, parentFolderId);
         return saveDocumentService.doSaveFile(filePart, contentLength, parentFolderId, metadata, originalFilename, duplicateCheck.flatMap(exists -> {
                     if (exists) {
                         return Mono.error(new DuplicateNameException(FILE, originalFilename));
                     }
-                    return storageService.saveFile(filePart);
+                    return saveDocumentService.storeFile(filePart);
                 })
         );
     }
@@ -268,8 +246,8 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                                         .defaultIfEmpty(new UploadAudit(savedDoc.getName(), parentFolderId, null))
                                         .flatMap(details -> auditService.logAction(AuditAction.UPLOAD_DOCUMENT, FILE, savedDoc.getId(), details))
                                         .thenReturn(savedDoc))
+                                .flatMap(savedDoc -> postProcessDocument(savedDoc).thenReturn(savedDoc))
                                 .as(tx::transactional)
-                                .doOnSuccess(this::postProcessDocument)
                                 .map(doc -> new UploadResponse(doc.getId(), doc.getName(), doc.getContentType(), doc.getSize()));
                     });
             });
@@ -304,40 +282,86 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
     public Mono<? extends Resource> downloadDocument(Document doc) {
         return (doc.getType() == FILE ?
                 storageService.loadFile(doc.getStoragePath())
-                : zipFolder(documentDAO.getChildren(doc.getId())))
+                : Mono.just(new InputStreamResource(() -> DataBufferUtils.subscriberInputStream(zipFolder(doc), ZIP_PREFETCH_BUFFERS))))
                 .flatMap(r -> auditService.logAction(AuditAction.DOWNLOAD_DOCUMENT, FILE, doc.getId())
                         .thenReturn(r));
     }
 
-    private Mono<? extends Resource> zipFolder(Flux<ChildElementInfo> children) {
-        return Mono.deferContextual(contextView ->
-                Mono.fromCallable(() -> Files.createTempFile("openfilz-download-", ".zip"))
-                        .subscribeOn(Schedulers.boundedElastic())
-                        .flatMap(tempFile -> {
-                            try {
-                                ZipArchiveOutputStream zos = new ZipArchiveOutputStream(
-                                        Files.newOutputStream(tempFile));
-                                return children
-                                        .concatMap(element -> addDocumentToZip(element, zos))
-                                        .then(Mono.just(true))
-                                        .doOnTerminate(() -> closeOutputStream(zos))
-                                        .then(Mono.fromCallable(() -> toCleanupResource(tempFile)))
-                                        .doOnError(_ -> deleteTempFile(tempFile))
-                                        .subscribeOn(Schedulers.boundedElastic())
-                                        .contextWrite(contextView);
-                            } catch (IOException e) {
-                                deleteTempFile(tempFile);
-                                return Mono.<Resource>error(new StorageException("Failed to create zip file", e));
-                            }
-                        })
-        );
+    @Override
+    public Flux<DataBuffer> downloadFolderAsZip(Document folder) {
+        return auditService.logAction(AuditAction.DOWNLOAD_DOCUMENT, FILE, folder.getId())
+                .thenMany(zipFolder(folder));
     }
 
-    private Mono<Boolean> addDocumentToZip(ChildElementInfo element, ZipArchiveOutputStream zos) {
-        if(element.getType().equals(FILE)) {
-            return addFileToZip(element, element.getPath(), zos);
+    @Override
+    public Mono<StreamableContent> openDocumentContent(Document doc) {
+        String storagePath = doc.getStoragePath();
+        Mono<Long> length = doc.getSize() != null ? Mono.just(doc.getSize()) : storageService.getFileLength(storagePath);
+        return length
+                .map(size -> new StreamableContent(doc.getName(), doc.getContentType(), size,
+                        entityTag(doc, size), lastModified(doc),
+                        storageService.getLocalFile(storagePath).orElse(null),
+                        (offset, count) -> storageService.loadFileRange(storagePath, offset, count)));
+    }
+
+    @Override
+    public Mono<Void> auditDownload(Document document) {
+        return auditService.logAction(AuditAction.DOWNLOAD_DOCUMENT, FILE, document.getId());
+    }
+
+    /**
+     * Strong validator of the stored content: it changes whenever the content is replaced (updatedAt) or resized.
+     */
+    private static String entityTag(Document doc, long size) {
+        OffsetDateTime updatedAt = doc.getUpdatedAt() != null ? doc.getUpdatedAt() : doc.getCreatedAt();
+        if (updatedAt == null) {
+            return null;
         }
-        return addFolderToZip(element, zos);
+        return "\"" + doc.getId() + "-" + updatedAt.toInstant().toEpochMilli() + "-" + size + "\"";
+    }
+
+    private static Instant lastModified(Document doc) {
+        OffsetDateTime updatedAt = doc.getUpdatedAt() != null ? doc.getUpdatedAt() : doc.getCreatedAt();
+        return updatedAt != null ? updatedAt.toInstant() : null;
+    }
+
+    private Flux<DataBuffer> zipFolder(Document folder) {
+        return zip(documentDAO.getChildren(folder.getId()));
+    }
+
+    /**
+     * Streams the elements as a ZIP archive, prefetching the content of the next entries from storage. A file whose
+     * content is missing from storage is skipped: the response has already started, so failing would truncate it.
+     */
+    private Flux<DataBuffer> zip(Flux<ChildElementInfo> elements) {
+        return new StreamingZipWriter(DefaultDataBufferFactory.sharedInstance, zipPrefetchEntries, ZIP_PREFETCH_BUFFERS)
+                .write(elements.concatMap(this::toZipItem));
+    }
+
+    private Mono<StreamingZipWriter.ZipItem> toZipItem(ChildElementInfo element) {
+        String name = element.getPath() == null ? element.getName() : element.getPath();
+        if (element.getType() == FOLDER) {
+            return Mono.just(StreamingZipWriter.ZipItem.directory(name));
+        }
+        return storageService.loadFile(element.getStoragePath())
+                .subscribeOn(Schedulers.boundedElastic())
+                .filter(resource -> {
+                    if (!resource.exists()) {
+                        log.warn("Skipping missing file in zip: {}", name);
+                        return false;
+                    }
+                    return true;
+                })
+                .map(resource -> StreamingZipWriter.ZipItem.file(name, element.getSize(), () -> readContent(resource)))
+                .onErrorResume(e -> {
+                    log.warn("Skipping unreadable file in zip: {} - {}", name, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Flux<DataBuffer> readContent(Resource resource) {
+        return DataBufferUtils.read(resource, DefaultDataBufferFactory.sharedInstance, StorageService.READ_BUFFER_SIZE)
+                .subscribeOn(Schedulers.boundedElastic());
     }
 
     @Override
@@ -370,23 +394,8 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
     }
 
     private Mono<Void> doMoveFiles(MoveRequest request) {
-        return Flux.fromIterable(request.documentIds())
-                .flatMap(fileId -> documentDAO.findById(fileId, AccessType.RWD)
-                        .switchIfEmpty(Mono.error(new DocumentNotFoundException(FILE, fileId)))
-                        .filter(doc -> doc.getType() == FILE) // Ensure it's a file being moved
-                        .switchIfEmpty(Mono.error(new OperationForbiddenException("Cannot move folder using file move API: " + fileId)))
-                        .flatMap(fileToMove -> {
-                            // Check for name collision in target folder
-                            return moveDocument(request, fileToMove)
-                                    .flatMap(movedFile -> auditService.logAction(MOVE_FILE, FILE, movedFile.getId(),
-                                            new MoveAudit(request.targetFolderId()))
-                                            .thenReturn(movedFile))
-                                    .as(tx::transactional)
-                                    .doOnSuccess(movedDoc -> metadataPostProcessor
-                                            .updateIndexField(movedDoc, OpenSearchDocumentKey.parentId.toString(), request.targetFolderId()));
-                        })
-                )
-                .then();
+        return findDocumentsToMove(request, FILE)
+                .flatMap(files -> moveDocuments(request, files, MOVE_FILE, FILE));
     }
 
     @Override
@@ -396,63 +405,97 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                 .filter(doc -> doc.getType() == DocumentType.FOLDER)
                 .switchIfEmpty(Mono.error(new OperationForbiddenException("Target is not a folder: " + request.targetFolderId())));
 
-        return targetFolderMono.flatMap(targetFolder ->
+        return targetFolderMono.flatMap(_ ->
                 Flux.fromIterable(request.documentIds())
-                        .flatMap(folderIdToMove -> {
+                        .concatMap(folderIdToMove -> {
                             if (folderIdToMove.equals(request.targetFolderId())) {
-                                return Mono.error(new OperationForbiddenException("Cannot move a folder into itself."));
+                                return Mono.<Void>error(new OperationForbiddenException("Cannot move a folder into itself."));
                             }
-                            // Check for moving a parent into its child (cycle) - more complex check needed for full hierarchy
-                            Mono<Boolean> isMovingToDescendant = isDescendant(request.targetFolderId(), folderIdToMove);
-
-                            return isMovingToDescendant.flatMap(isDescendant -> {
-                                if (isDescendant) {
-                                    return Mono.error(new OperationForbiddenException("Cannot move a folder into one of its descendants."));
-                                }
-
-                                return documentDAO.findById(folderIdToMove, AccessType.RWD)
-                                        .switchIfEmpty(Mono.error(new DocumentNotFoundException(FOLDER, folderIdToMove)))
-                                        .filter(doc -> doc.getType() == DocumentType.FOLDER)
-                                        .switchIfEmpty(Mono.error(new OperationForbiddenException("Cannot move file using folder move API: " + folderIdToMove)))
-                                        .flatMap(folderToMove -> {
-                                            // Check for name collision in target folder
-                                            return moveDocument(request, folderToMove)
-                                                    .flatMap(movedFolder -> auditService.logAction(MOVE_FOLDER, FOLDER, movedFolder.getId(),
-                                                            new MoveAudit(request.targetFolderId())).thenReturn(movedFolder))
-                                                    .as(tx::transactional)
-                                                    .doOnSuccess(movedDoc -> metadataPostProcessor
-                                                            .updateIndexField(movedDoc, OpenSearchDocumentKey.parentId.toString(), request.targetFolderId()));
-                                        });
-                            });
+                            // Moving a parent into its child would create a cycle
+                            return isDescendant(request.targetFolderId(), folderIdToMove)
+                                    .flatMap(isDescendant -> isDescendant
+                                            ? Mono.<Void>error(new OperationForbiddenException("Cannot move a folder into one of its descendants."))
+                                            : Mono.<Void>empty());
                         })
-                        .then()
+                        .then(findDocumentsToMove(request, FOLDER))
+                        .flatMap(folders -> checkNotNested(folders).thenReturn(folders))
+                        .flatMap(folders -> moveDocuments(request, folders, MOVE_FOLDER, FOLDER))
         );
     }
 
-    private Mono<Document> moveDocument(MoveRequest request, Document documentToMove) {
-        if(documentToMove.getParentId() == request.targetFolderId()) {
-            return Mono.error(new DuplicateNameException("Impossible to move a document in the same folder : you may want to use /copy instead"));
-        }
-        if(request.allowDuplicateFileNames() != null && request.allowDuplicateFileNames()) {
-            return doMoveDocuments(request, documentToMove);
+    /**
+     * Fails if one of the folders is under another one: the update re-roots the subtrees of the moved folders row
+     * by row, so moving a folder together with one of its descendants would leave paths through the old location.
+     */
+    private Mono<Void> checkNotNested(List<Document> folders) {
+        if (folders.size() < 2) {
+            return Mono.empty();
         }
-        return documentDAO.existsByNameAndParentId(documentToMove.getName(), request.targetFolderId())
-                .flatMap(exists -> {
-                    if (exists) {
-                        return Mono.error(new DuplicateNameException(
-                                "A file/folder with name '" + documentToMove.getName() + "' already exists in the target folder."));
+        return documentDAO.findNestedIds(folders.stream().map(Document::getId).toList())
+                .next()
+                .flatMap(id -> Mono.<Void>error(new OperationForbiddenException(
+                        "Cannot move a folder together with its parent folder: " + id)));
+    }
+
+    /**
+     * Fetches the documents to move with a single query, failing if one of them is missing or of the wrong type.
+     */
+    private Mono<List<Document>> findDocumentsToMove(MoveRequest request, DocumentType type) {
+        return documentDAO.findByIds(request.documentIds(), AccessType.RWD)
+                .collectMap(Document::getId)
+                .flatMap(documents -> {
+                    List<Document> documentsToMove = new ArrayList<>();
+                    for (UUID id : new LinkedHashSet<>(request.documentIds())) {
+                        Document document = documents.get(id);
+                        if (document == null) {
+                            return Mono.error(new DocumentNotFoundException(type, id));
+                        }
+                        if (document.getType() != type) {
+                            return Mono.error(new OperationForbiddenException(type == FILE
+                                    ? "Cannot move folder using file move API: " + id
+                                    : "Cannot move file using folder move API: " + id));
+                        }
+                        documentsToMove.add(document);
                     }
-                    return doMoveDocuments(request, documentToMove);
+                    return Mono.just(documentsToMove);
                 });
     }
 
-    private Mono<Document> doMoveDocuments(MoveRequest request, Document documentToMove) {
-        return saveDocumentService.doSaveFile(username -> {
-            documentToMove.setParentId(request.targetFolderId());
-            documentToMove.setUpdatedAt(OffsetDateTime.now());
-            documentToMove.setUpdatedBy(username);
-            return documentDAO.update(documentToMove);
-        });
+    /**
+     * Moves all the documents with a single update and logs the audit entries in one batch, in one transaction.
+     * The subtrees of moved folders are re-rooted by the path triggers.
+     */
+    private Mono<Void> moveDocuments(MoveRequest request, List<Document> documentsToMove, AuditAction action, DocumentType type) {
+        UUID targetFolderId = request.targetFolderId();
+        if (documentsToMove.stream().anyMatch(document -> Objects.equals(document.getParentId(), targetFolderId))) {
+            return Mono.error(new DuplicateNameException("Impossible to move a document in the same folder : you may want to use /copy instead"));
+        }
+        List<UUID> ids = documentsToMove.stream().map(Document::getId).toList();
+        return checkNameCollisions(request, documentsToMove)
+                .then(getConnectedUserEmail())
+                .flatMap(username -> documentDAO.moveDocuments(ids, targetFolderId, username))
+                .then(auditService.logActions(ids.stream()
+                        .map(id -> new AuditEntry(action, type, id, new MoveAudit(targetFolderId)))
+                        .toList()))
+                .then(metadataPostProcessor.updateIndexFieldOnCommit(ids, OpenSearchDocumentKey.parentId.toString(), targetFolderId))
+                .as(tx::transactional);
+    }
+
+    private Mono<Void> checkNameCollisions(MoveRequest request, List<Document> documentsToMove) {
+        if (request.allowDuplicateFileNames() != null && request.allowDuplicateFileNames()) {
+            return Mono.empty();
+        }
+        Set<String> names = new HashSet<>();
+        for (Document document : documentsToMove) {
+            if (!names.add(document.getName())) {
+                return Mono.error(new DuplicateNameException(
+                        "A file/folder with name '" + document.getName() + "' is moved more than once to the target folder."));
+            }
+        }
+        return documentDAO.findExistingNames(names, request.targetFolderId())
+                .next()
+                .flatMap(name -> Mono.<Void>error(new DuplicateNameException(
+                        "A file/folder with name '" + name + "' already exists in the target folder.")));
     }
 
     // Helper to check if 'potentialChildId' is a descendant of 'potentialParentId'
@@ -464,17 +507,7 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
             return Mono.just(true); // Or false depending on definition, for move, this is an invalid state
         }
 
-        return documentDAO.findById(potentialChildId, null)
-                .flatMap(childDoc -> {
-                    if (childDoc.getParentId() == null) {
-                        return Mono.just(false); // Reached root without finding potentialParentId
-                    }
-                    if (childDoc.getParentId().equals(potentialParentId)) {
-                        return Mono.just(true); // Found potentialParentId as direct parent
-                    }
-                    return isDescendant(childDoc.getParentId(), potentialParentId); // Recurse up
-                })
-                .defaultIfEmpty(false); // Child not found, so not a descendant
+        return documentDAO.isDescendant(potentialChildId, potentialParentId);
     }
 
 
@@ -521,8 +554,8 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                                                 )
                                         )
                                 )
+                                .flatMap(cf -> metadataPostProcessor.copyIndexOnCommit(fileIdToCopy, cf).thenReturn(cf))
                                 .as(tx::transactional)
-                                .doOnSuccess(cf -> metadataPostProcessor.copyIndex(fileIdToCopy, cf))
                                 .flatMap(cf -> Mono.just(new CopyResponse(fileIdToCopy, cf.getId()))
                         )
                 );
@@ -556,62 +589,84 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                 Flux.fromIterable(request.documentIds())
                         .concatMap(folderIdToCopy -> {
                             if (folderIdToCopy.equals(request.targetFolderId())) {
-                                return Flux.error(new OperationForbiddenException("Cannot copy a folder into itself."));
+                                return Mono.<UUID>error(new OperationForbiddenException("Cannot copy a folder into itself."));
                             }
-                            // Add check for copying a parent into its child if needed, similar to move
-                            return copyFolderRecursive(folderIdToCopy, request.targetFolderId(), request.allowDuplicateFileNames());
+                            return copyFolderTree(folderIdToCopy, request.targetFolderId(), request.allowDuplicateFileNames());
                         })
         );
     }
 
-   private Flux<UUID> copyFolderRecursive(UUID sourceFolderId, UUID targetParentFolderId, Boolean allowDuplicateFileNames) {
+    /**
+     * Copies a folder with its whole subtree: the content of the files is copied first, then all the document rows
+     * are copied by a single INSERT ... SELECT and the audit entries are logged in one batch, in one transaction.
+     *
+     * @return the id of the copy of the folder
+     */
+    private Mono<UUID> copyFolderTree(UUID sourceFolderId, UUID targetParentFolderId, Boolean allowDuplicateFileNames) {
         return documentDAO.findById(sourceFolderId, AccessType.RO)
                 .switchIfEmpty(Mono.error(new DocumentNotFoundException(FOLDER, sourceFolderId)))
-                .flatMapMany(sourceFolder -> {
-                    // Generate unique name for the new folder in the target location
-                    return raiseErrorIfExists(sourceFolder.getName(), targetParentFolderId, allowDuplicateFileNames)
-                            .flatMap(_ -> doCreateFolder(new CreateFolderRequest(sourceFolder.getName(), targetParentFolderId),
-                                    jsonUtils.cloneOrNewEmptyJson(sourceFolder.getMetadata()), true, sourceFolderId))
-                            .flatMap(savedNewFolder -> {
-                                UUID newFolderId = savedNewFolder.getId();
-
-                                // 2. Copy child files
-                                Flux<Document> copyChildFiles = documentDAO.findDocumentsByParentIdAndType(sourceFolderId, FILE)
-                                        .flatMap(childFile -> {
-                                            // For each child file, copy physical file and create DB entry under newFolderId
-                                            return raiseErrorIfExists(childFile.getName(), newFolderId, allowDuplicateFileNames)
-                                                    .flatMap(_ -> storageService.copyFile(childFile.getStoragePath())
-                                                            .flatMap(newChildFileName -> {
-                                                                Document.DocumentBuilder documentBuilder = Document.builder()
-                                                                        .name(childFile.getName())
-                                                                        .type(FILE)
-                                                                        .contentType(childFile.getContentType())
-                                                                        .size(childFile.getSize())
-                                                                        .parentId(newFolderId)
-                                                                        .storagePath(newChildFileName)
-                                                                        .metadata(jsonUtils.cloneOrNewEmptyJson(childFile.getMetadata()));
-                                                                return saveDocumentService.doSaveFile(saveDocumentService.saveNewDocumentFunction(documentBuilder));
-                                                            })
-                                                            .flatMap(ccf -> storageService.getLatestVersionId(ccf.getStoragePath())
-                                                                    .map(versionId -> new CopyAudit(childFile.getId(), newFolderId, sourceFolderId, versionId))
-                                                                    .defaultIfEmpty(new CopyAudit(childFile.getId(), newFolderId, sourceFolderId))
-                                                                    .flatMap(details -> auditService.logAction(COPY_FILE_CHILD, FILE, ccf.getId(), details))
-                                                                    .thenReturn(ccf)
-                                                            )
-                                                            .as(tx::transactional)
-                                                            .doOnSuccess(this::postProcessDocument)
-                                                    );
-                                        });
-
-                                // 3. Recursively copy child folders
-                                Flux<UUID> copyChildSubFolders = documentDAO.findDocumentsByParentIdAndType(sourceFolderId, FOLDER)
-                                        .flatMap(childSubFolder -> copyFolderRecursive(childSubFolder.getId(), newFolderId, allowDuplicateFileNames));
-
-                                return Mono.when(copyChildFiles, copyChildSubFolders).thenReturn(newFolderId);
-                            });
+                .flatMap(sourceFolder -> raiseErrorIfExists(sourceFolder.getName(), targetParentFolderId, allowDuplicateFileNames))
+                .flatMap(_ -> documentDAO.findSubtree(sourceFolderId).collectMap(Document::getId))
+                .flatMap(sources -> copyStoredFiles(sources.values())
+                        .flatMap(fileCopies -> getConnectedUserEmail()
+                                .flatMap(username -> documentDAO.copySubtree(sourceFolderId, targetParentFolderId, sources.keySet(),
+                                                fileCopies.values().stream().collect(Collectors.toMap(FileCopy::sourceId, FileCopy::storagePath)),
+                                                cloneMetadata(sources.values()), username)
+                                        .collectList())
+                                .flatMap(copies -> auditService.logActions(copies.stream()
+                                                .map(copy -> toCopyAuditEntry(copy.getT1(), copy.getT2(), sources, fileCopies))
+                                                .toList())
+                                        .thenReturn(copies))
+                                .flatMap(copies -> metadataPostProcessor.processDocumentsOnCommit(copies.stream()
+                                                .map(copy -> copy.getT2())
+                                                .toList())
+                                        .thenReturn(copies))
+                                .as(tx::transactional)
+                                .onErrorResume(e -> deleteStoredCopies(fileCopies.values()).then(Mono.error(e)))))
+                .map(copies -> copies.stream()
+                        .filter(copy -> copy.getT1().equals(sourceFolderId))
+                        .findFirst()
+                        .orElseThrow()
+                        .getT2()
+                        .getId());
+    }
+
+    private record FileCopy(UUID sourceId, String storagePath, String versionId) {}
+
+    private Map<UUID, Json> cloneMetadata(Collection<Document> sources) {
+        Map<UUID, Json> metadata = new HashMap<>();
+        sources.forEach(source -> metadata.put(source.getId(), jsonUtils.cloneOrNewEmptyJson(source.getMetadata())));
+        return metadata;
+    }
+
+    private Mono<Map<UUID, FileCopy>> copyStoredFiles(Collection<Document> sources) {
+        return Flux.fromIterable(sources)
+                .filter(source -> source.getType() == FILE && source.getStoragePath() != null)
+                .flatMap(file -> storageService.copyFile(file.getStoragePath())
+                        .flatMap(storagePath -> storageService.getLatestVersionId(storagePath)
+                                .map(versionId -> new FileCopy(file.getId(), storagePath, versionId))
+                                .defaultIfEmpty(new FileCopy(file.getId(), storagePath, null))), COPY_CONCURRENCY)
+                .collectMap(FileCopy::sourceId);
+    }
+
+    private Mono<Void> deleteStoredCopies(Collection<FileCopy> fileCopies) {
+        return storageService.deleteFiles(fileCopies.stream().map(FileCopy::storagePath).toList())
+                .onErrorResume(e -> {
+                    log.error("Failed to delete the copied files of a failed folder copy: {}", e.getMessage());
+                    return Mono.empty();
                 });
     }
 
+    private AuditEntry toCopyAuditEntry(UUID sourceId, Document copy, Map<UUID, Document> sources, Map<UUID, FileCopy> fileCopies) {
+        if (copy.getType() == FOLDER) {
+            return new AuditEntry(COPY_FOLDER, FOLDER, copy.getId(),
+                    new CreateFolderAudit(new CreateFolderRequest(copy.getName(), copy.getParentId()), sourceId));
+        }
+        FileCopy fileCopy = fileCopies.get(sourceId);
+        return new AuditEntry(COPY_FILE_CHILD, FILE, copy.getId(), new CopyAudit(sourceId, copy.getParentId(),
+                sources.get(sourceId).getParentId(), fileCopy != null ? fileCopy.versionId() : null));
+    }
+
 
     @Override
     public Mono<Document> renameFile(UUID fileId, RenameRequest request) {
@@ -627,12 +682,15 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                 .flatMap(renamedFile -> auditService.logAction(RENAME_FILE, FILE, renamedFile.getId(),
                         new RenameAudit(request.newName()))
                         .thenReturn(renamedFile))
-                .as(tx::transactional)
-                .doOnSuccess(file -> {
-                    metadataPostProcessor.updateIndexField(file, OpenSearchDocumentKey.name.toString(), file.getName());
-                    metadataPostProcessor.updateIndexField(file, OpenSearchDocumentKey.name_suggest.toString(),
-                            DocumentSearchUtil.splitWithSpaces(FileUtils.removeFileExtension(file.getName())));
-                });
+                .flatMap(file -> updateIndexedName(file, DocumentSearchUtil.splitWithSpaces(FileUtils.removeFileExtension(file.getName()))))
+                .as(tx::transactional);
+    }
+
+    private Mono<Document> updateIndexedName(Document document, String nameSuggest) {
+        List<UUID> ids = List.of(document.getId());
+        return metadataPostProcessor.updateIndexFieldOnCommit(ids, OpenSearchDocumentKey.name.toString(), document.getName())
+                .then(metadataPostProcessor.updateIndexFieldOnCommit(ids, OpenSearchDocumentKey.name_suggest.toString(), nameSuggest))
+                .thenReturn(document);
     }
 
     private Mono<Document> saveFileToRename(RenameRequest request, Document fileToRename, Mono<Boolean> duplicateCheck) {
@@ -666,12 +724,8 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                 })
                 .flatMap(renamedFolder -> auditService.logAction(RENAME_FOLDER, FOLDER, renamedFolder.getId(),
                         new RenameAudit(request.newName())).thenReturn(renamedFolder))
-                .as(tx::transactional)
-                .doOnSuccess(folder -> {
-                    metadataPostProcessor.updateIndexField(folder, OpenSearchDocumentKey.name.toString(), folder.getName());
-                    metadataPostProcessor.updateIndexField(folder, OpenSearchDocumentKey.name_suggest.toString(),
-                            DocumentSearchUtil.splitWithSpaces(folder.getName()));
-                });
+                .flatMap(folder -> updateIndexedName(folder, DocumentSearchUtil.splitWithSpaces(folder.getName())))
+                .as(tx::transactional);
     }
 
 
@@ -685,10 +739,9 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                 .filter(doc -> doc.getType() == FILE) // Only files have content to replace
                 .switchIfEmpty(Mono.error(new OperationForbiddenException("Cannot replace content of a folder: " + documentId)))
                 .flatMap(document -> {
-                    // For user quota on replace: check if (current_usage - old_size + new_size) exceeds quota
+                    // For user quota on replace: only the net change (new_size - old_size) is reserved
                     Long oldFileSize = document.getSize() != null ? document.getSize() : 0L;
-                    return validateUserQuotaForReplace(newFileSize, oldFileSize)
-                            .then(Mono.defer(() -> {
+                    return userQuotaService.withReservation(getQuotaIncrease(newFileSize, oldFileSize), Mono.defer(() -> {
                                 String oldStoragePath = document.getStoragePath();
                                 return saveDocumentService.saveAndReplaceDocument(newFilePart, contentInfo, document, oldStoragePath);
                             }));
@@ -696,29 +749,15 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
     }
 
     /**
-     * Validates user quota for content replacement.
-     * Checks if the net change (newSize - oldSize) would cause the user to exceed quota.
+     * Bytes to reserve on the user quota when replacing content: the net change (newSize - oldSize),
+     * or null when the new size is unknown or not larger.
      */
-    private Mono<Void> validateUserQuotaForReplace(Long newFileSize, Long oldFileSize) {
-        if (!quotaProperties.isUserQuotaEnabled() || newFileSize == null) {
-            return Mono.empty();
+    static Long getQuotaIncrease(Long newFileSize, Long oldFileSize) {
+        if (newFileSize == null) {
+            return null;
         }
-        // Calculate the net change in storage
         long netChange = newFileSize - (oldFileSize != null ? oldFileSize : 0L);
-        if (netChange <= 0) {
-            // File is same size or smaller, no quota concern
-            return Mono.empty();
-        }
-        // Only validate if the new file is larger than the old one
-        Long maxQuota = quotaProperties.getUserQuotaInBytes();
-        return getConnectedUserEmail()
-                .flatMap(username -> documentDAO.getTotalStorageByUser(username)
-                        .flatMap(currentUsage -> {
-                            if (currentUsage + netChange > maxQuota) {
-                                return Mono.error(new UserQuotaExceededException(username, currentUsage, netChange, maxQuota));
-                            }
-                            return Mono.empty();
-                        }));
+        return netChange > 0 ? netChange : null;
     }
 
 
@@ -736,8 +775,8 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                 .flatMap(updatedDoc -> auditService.logAction(REPLACE_DOCUMENT_METADATA, updatedDoc.getType(), updatedDoc.getId(),
                         new ReplaceAudit(newMetadata))
                         .thenReturn(updatedDoc))
-                .as(tx::transactional)
-                .doOnSuccess(metadataPostProcessor::processMetadata);
+                .flatMap(updatedDoc -> metadataPostProcessor.processMetadataOnCommit(updatedDoc).thenReturn(updatedDoc))
+                .as(tx::transactional);
     }
 
     @Override
@@ -765,8 +804,8 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                 .flatMap(updatedDoc -> auditService.logAction(UPDATE_DOCUMENT_METADATA, updatedDoc.getType(), updatedDoc.getId(),
                         new UpdateMetadataAudit(request.metadataToUpdate()))
                         .thenReturn(updatedDoc))
-                .as(tx::transactional)
-                .doOnSuccess(metadataPostProcessor::processMetadata);
+                .flatMap(updatedDoc -> metadataPostProcessor.processMetadataOnCommit(updatedDoc).thenReturn(updatedDoc))
+                .as(tx::transactional);
     }
 
 
@@ -792,128 +831,22 @@ public class DocumentServiceImpl implements DocumentService, UserInfoService {
                 }))
                 .flatMap(updatedDoc -> auditService.logAction(DELETE_DOCUMENT_METADATA, updatedDoc.getType(), updatedDoc.getId(),
                         new DeleteMetadataAudit(request.metadataKeysToDelete())).thenReturn(updatedDoc))
-                .as(tx::transactional)
-                .doOnSuccess(metadataPostProcessor::processMetadata)
-                .then();
+                .flatMap(metadataPostProcessor::processMetadataOnCommit)
+                .as(tx::transactional);
     }
 
 
     @Override
-    public Mono<Resource> downloadMultipleDocumentsAsZip(List<UUID> documentIds) {
+    public Flux<DataBuffer> downloadMultipleDocumentsAsZip(List<UUID> documentIds) {
         if (documentIds == null || documentIds.isEmpty()) {
-            return Mono.error(new IllegalArgumentException("Document IDs list cannot be empty."));
-        }
-        return Mono.deferContextual(contextView ->
-                getConnectedUserEmail().flatMap(connectedUserEmail ->
-                        Mono.fromCallable(() -> Files.createTempFile("openfilz-download-", ".zip"))
-                                .subscribeOn(Schedulers.boundedElastic())
-                                .flatMap(tempFile -> {
-                                    try {
-                                        ZipArchiveOutputStream zos = new ZipArchiveOutputStream(
-                                                Files.newOutputStream(tempFile));
-                                        return documentDAO.getElementsAndChildren(documentIds, connectedUserEmail)
-                                                .collectList()
-                                                .flatMap(docs -> {
-                                                    if (docs.isEmpty()) {
-                                                        log.warn("No documents found for the provided IDs. Returning empty zip.");
-                                                        return Mono.just(true);
-                                                    }
-                                                    if (docs.size() != documentIds.size()) {
-                                                        log.warn("Some requested documents were not files or not found. Zipping available files.");
-                                                    }
-                                                    return Flux.fromIterable(docs)
-                                                            .concatMap(doc -> addDocumentToZip(doc, zos))
-                                                            .then(Mono.just(true));
-                                                })
-                                                .doOnTerminate(() -> closeOutputStream(zos))
-                                                .then(Mono.fromCallable(() -> toCleanupResource(tempFile)))
-                                                .doOnError(_ -> deleteTempFile(tempFile))
-                                                .subscribeOn(Schedulers.boundedElastic())
-                                                .contextWrite(contextView);
-                                    } catch (IOException e) {
-                                        deleteTempFile(tempFile);
-                                        return Mono.<Resource>error(new StorageException("Failed to create zip file", e));
-                                    }
-                                })
-                )
-        );
-    }
-
-    private static void closeOutputStream(ZipArchiveOutputStream zos) {
-        try {
-            zos.close();
-        } catch (IOException e) {
-            log.error("Failed to close zip stream", e);
-        }
-    }
-
-    private static Resource toCleanupResource(Path tempFile) {
-        return new FileSystemResource(tempFile) {
-            @Override
-            public String getFilename() {
-                // Return null to prevent Spring's ResourceHttpMessageWriter from
-                // inferring content-type from the .zip temp file extension
-                return null;
-            }
-
-            @Override
-            public InputStream getInputStream() throws IOException {
-                InputStream delegate = super.getInputStream();
-                return new FilterInputStream(delegate) {
-                    @Override
-                    public void close() throws IOException {
-                        try {
-                            super.close();
-                        } finally {
-                            deleteTempFile(tempFile);
-                        }
-                    }
-                };
-            }
-        };
-    }
-
-    private static void deleteTempFile(Path tempFile) {
-        try {
-            Files.deleteIfExists(tempFile);
-        } catch (IOException e) {
-            log.warn("Failed to delete temp file: {}", tempFile, e);
-        }
-    }
-
-    private Mono<Boolean> addFolderToZip(ChildElementInfo folderElement, ZipArchiveOutputStream zos) {
-        try {
-            ZipArchiveEntry zipEntry = new ZipArchiveEntry(folderElement.getPath() + SLASH);
-            zos.putArchiveEntry(zipEntry);
-            zos.closeArchiveEntry();
-            return Mono.just(true);
-        } catch (IOException ioe) {
-            return Mono.error(new StorageException(ioe.getMessage()));
+            return Flux.error(new IllegalArgumentException("Document IDs list cannot be empty."));
         }
-    }
-
-    private Mono<Boolean> addFileToZip(PhysicalDocument doc, String path, ZipArchiveOutputStream zos) {
-        return storageService.loadFile(doc.getStoragePath())
-                .flatMap(resource -> {
-                    if (resource == null || !resource.exists()) {
-                        log.warn("Skipping missing file in zip: {}", doc.getName());
-                        return Mono.just(false);
-                    }
-                    return Mono.fromRunnable(() -> {
-                        try {
-                            ZipArchiveEntry zipEntry = new ZipArchiveEntry(path == null ? doc.getName() : path);
-                            zipEntry.setSize(doc.getSize() != null ? doc.getSize() : resource.contentLength());
-                            zos.putArchiveEntry(zipEntry);
-                            try (InputStream is = resource.getInputStream()) {
-                                is.transferTo(zos);
-                                zos.closeArchiveEntry();
-                            }
-                        } catch (IOException ioe) {
-                            log.error("Exception in addFileToZip", ioe);
-                            throw new StorageException(ioe.getMessage());
-                        }
-                    }).subscribeOn(Schedulers.boundedElastic()).thenReturn(true);
-                });
+        return getConnectedUserEmail()
+                .flatMapMany(connectedUserEmail -> zip(documentDAO.getElementsAndChildren(documentIds, connectedUserEmail)
+                        .switchIfEmpty(Flux.defer(() -> {
+                            log.warn("No documents found for the provided IDs. Returning empty zip.");
+                            return Flux.empty();
+                        }))));
     }
 
 
@@ -19,6 +19,7 @@ import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.openfilz.dms.enums.DocumentType.FILE;
@@ -47,8 +48,8 @@ public class DocumentSoftDeleteService implements DocumentDeleteService, UserInf
                             // Soft delete - keep physical file, just mark as deleted in DB
                             .flatMap(doc -> documentSoftDeleteDAO.softDelete(docId)
                                     .then(auditService.logAction(AuditAction.DELETE_FILE, FILE, docId))
+                                    .then(metadataPostProcessor.updateIndexFieldOnCommit(List.of(doc.getId()), ACTIVE_KEY, false))
                                     .as(tx::transactional)
-                                    .doOnSuccess(_ -> metadataPostProcessor.updateIndexField(doc, ACTIVE_KEY, false))
                             )
                     )
                 .then();
@@ -64,10 +65,10 @@ public class DocumentSoftDeleteService implements DocumentDeleteService, UserInf
                             // This marks the folder and all descendants as deleted without removing physical files
                             documentSoftDeleteDAO.softDeleteRecursive(folderId, userEmail)
                                     .then(auditService.logAction(AuditAction.DELETE_FOLDER, FOLDER, folderId))
-                                    .as(tx::transactional)
                                     .thenMany(documentSoftDeleteDAO.findDescendantIds(folderId))
-                                    .doOnNext(id -> metadataPostProcessor.updateIndexField(id, ACTIVE_KEY, false))
-                                    .then()
+                                    .collectList()
+                                    .flatMap(ids -> metadataPostProcessor.updateIndexFieldOnCommit(ids, ACTIVE_KEY, false))
+                                    .as(tx::transactional)
                         ));
     }
 
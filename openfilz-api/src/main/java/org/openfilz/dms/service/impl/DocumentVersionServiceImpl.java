@@ -5,6 +5,7 @@ import org.openfilz.dms.dto.audit.RestoreVersionAudit;
 import org.openfilz.dms.dto.response.DocumentVersionInfo;
 import org.openfilz.dms.dto.response.DownloadableVersion;
 import org.openfilz.dms.dto.response.RestoreVersionResponse;
+import org.openfilz.dms.dto.response.StreamableContent;
 import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.enums.AccessType;
 import org.openfilz.dms.enums.AuditAction;
@@ -85,6 +86,17 @@ public class DocumentVersionServiceImpl implements DocumentVersionService, UserI
                                 .map(resource -> new DownloadableVersion(document.getName(), document.getContentType(), resource))));
     }
 
+    @Override
+    public Mono<StreamableContent> openVersionContent(UUID documentId, String versionId) {
+        return findFileDocument(documentId, AccessType.RO)
+                .flatMap(document -> requireVersion(document, versionId)
+                        .map(version -> new StreamableContent(document.getName(), document.getContentType(),
+                                version.size(), "\"" + versionId + "\"",
+                                version.lastModified() != null ? version.lastModified().toInstant() : null,
+                                null,
+                                (offset, count) -> storageService.loadFileVersionRange(document.getStoragePath(), versionId, offset, count))));
+    }
+
     @Override
     public Mono<RestoreVersionResponse> restoreVersion(UUID documentId, String versionId) {
         return findFileDocument(documentId, AccessType.RWD)
@@ -109,9 +121,9 @@ public class DocumentVersionServiceImpl implements DocumentVersionService, UserI
                 .flatMap(updatedDoc -> auditService.logAction(AuditAction.RESTORE_DOCUMENT_VERSION, FILE, updatedDoc.getId(),
                                 new RestoreVersionAudit(updatedDoc.getName(), restored.versionId(), restored.lastModified(), newVersionId))
                         .thenReturn(updatedDoc))
-                .as(tx::transactional)
                 // content changed: refresh full-text index / thumbnails like a replace does
-                .doOnSuccess(metadataPostProcessor::processDocument)
+                .flatMap(updatedDoc -> metadataPostProcessor.processDocumentOnCommit(updatedDoc).thenReturn(updatedDoc))
+                .as(tx::transactional)
                 .map(updatedDoc -> new RestoreVersionResponse(updatedDoc.getId(), restored.versionId(), restored.lastModified(), newVersionId));
     }
 
@@ -18,6 +18,7 @@ import java.util.UUID;
 @Service
 @ConditionalOnProperties(value = {
         @ConditionalOnProperty(name = "openfilz.full-text.active", havingValue = "false", matchIfMissing = true),
+        @ConditionalOnProperty(name = "openfilz.full-text.postgres.active", havingValue = "false", matchIfMissing = true),
         @ConditionalOnProperty(name = "openfilz.thumbnail.active", havingValue = "false", matchIfMissing = true)
 })
 public class EmptyMetadataPostProcessor implements MetadataPostProcessor {
@@ -29,19 +29,19 @@ public class FileSystemChecksumService implements ChecksumService {
     @Value("${piped.buffer.size:8192}")
     private Integer bufferSize;
 
-    private final Path rootLocation;
+    private final FileSystemStorageService fileSystemStorageService;
 
     private final DefaultDataBufferFactory bufferFactory;
 
     public FileSystemChecksumService(FileSystemStorageService fileSystemStorageService) {
-        this.rootLocation = fileSystemStorageService.getRootLocation();
+        this.fileSystemStorageService = fileSystemStorageService;
         this.bufferFactory = new DefaultDataBufferFactory();
     }
 
 
     @Override
     public Mono<Checksum> calculateChecksum(String storagePath, Map<String, Object> metadata) {
-        Path file = rootLocation.resolve(storagePath).normalize();
+        Path file = fileSystemStorageService.resolvePath(storagePath);
         return calculateSha256Checksum(file).flatMap(checksum -> getChecksumMono(storagePath, metadata, checksum));
     }
 
@@ -2,15 +2,21 @@ package org.openfilz.dms.service.impl;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.LocalStorageProperties;
+import org.openfilz.dms.dto.StoredFile;
+import org.openfilz.dms.dto.TusStorageUpload;
+import org.openfilz.dms.dto.TusUploadMetadata;
 import org.openfilz.dms.exception.StorageException;
 import org.openfilz.dms.service.StorageService;
-import org.springframework.beans.factory.annotation.Value;
+import org.openfilz.dms.utils.ContentDigest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.core.io.PathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -20,10 +26,25 @@ import reactor.core.scheduler.Schedulers;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Local filesystem storage.
+ * <p>
+ * Storage keys of documents ({@code {UUID}#{filename}}) are layout independent: the file of a key is stored under
+ * {@code storage.local.shard-levels} shard directories named after the first hex characters of its UUID
+ * (e.g. {@code 3f/2a/3f2a9c1b-...#report.pdf}), so that no directory holds millions of entries.
+ * Files written before sharding was enabled stay in the flat layout ({@code {base-path}/{key}}) until
+ * {@link #migrateFlatFiles(int)} moves them; both layouts are resolved in the meantime.
+ * Keys containing a folder (TUS temporary files under {@link #TUS_PREFIX}, content-addressable blobs) are
+ * never sharded.
+ */
 @Slf4j
 @Service
 @Lazy
@@ -33,8 +54,18 @@ public class FileSystemStorageService implements StorageService {
     @Getter
     private final Path rootLocation;
 
-    public FileSystemStorageService(@Value("${storage.local.base-path:/tmp/dms-storage}") String basePath) {
+    private final int shardLevels;
+    private final int shardWidth;
+
+    @Autowired
+    public FileSystemStorageService(LocalStorageProperties properties) {
+        this(properties.getBasePath(), properties.getShardLevels(), properties.getShardWidth());
+    }
+
+    public FileSystemStorageService(String basePath, int shardLevels, int shardWidth) {
         this.rootLocation = Paths.get(basePath);
+        this.shardLevels = shardLevels;
+        this.shardWidth = shardWidth;
         try {
             Files.createDirectories(rootLocation);
             log.info("Local storage initialized at: {}", rootLocation.toAbsolutePath());
@@ -44,20 +75,139 @@ public class FileSystemStorageService implements StorageService {
         }
     }
 
+    /**
+     * Path of the file holding {@code storagePath}: its shard location, or its flat location for files
+     * not migrated yet. Defaults to the shard location when the file exists in neither.
+     */
+    public Path resolvePath(String storagePath) {
+        Path target = targetPath(storagePath);
+        if (!isShardable(storagePath) || Files.exists(target)) {
+            return target;
+        }
+        // When a concurrent migration moves the file between both checks, it is found at the shard location
+        Path flat = rootLocation.resolve(storagePath).normalize();
+        return Files.exists(flat) ? flat : target;
+    }
+
+    /**
+     * Path where {@code storagePath} is written: its shard location, or the key itself for keys that are not sharded.
+     */
+    Path targetPath(String storagePath) {
+        if (!isShardable(storagePath)) {
+            return rootLocation.resolve(storagePath).normalize();
+        }
+        Path dir = rootLocation;
+        for (int level = 0; level < shardLevels; level++) {
+            dir = dir.resolve(storagePath.substring(level * shardWidth, (level + 1) * shardWidth));
+        }
+        return dir.resolve(storagePath).normalize();
+    }
+
+    /**
+     * Whether {@code storagePath} is a document key ({@code {UUID}#{filename}}, no folder) stored under shard directories.
+     */
+    boolean isShardable(String storagePath) {
+        int prefixLength = shardLevels * shardWidth;
+        if (shardLevels == 0 || storagePath.contains(FOLDER_SEPARATOR) || storagePath.contains("\\")
+                || storagePath.indexOf(FILENAME_SEPARATOR) <= prefixLength) {
+            return false;
+        }
+        for (int i = 0; i < prefixLength; i++) {
+            if (!HexFormat.isHexDigit(storagePath.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Path createTargetPath(String storagePath) throws IOException {
+        Path target = targetPath(storagePath);
+        Files.createDirectories(target.getParent());
+        return target;
+    }
+
+    /**
+     * Move up to {@code batchSize} files of the flat layout to their shard directory.
+     * Each move is an atomic rename, so the files stay readable while they are migrated.
+     *
+     * @param batchSize maximum number of files moved
+     * @return the number of files moved (0 once the migration is complete)
+     */
+    public Mono<Integer> migrateFlatFiles(int batchSize) {
+        if (shardLevels == 0) {
+            return Mono.just(0);
+        }
+        return Mono.fromCallable(() -> {
+            int moved = 0;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(rootLocation,
+                    file -> isShardable(file.getFileName().toString()) && Files.isRegularFile(file))) {
+                for (Path file : files) {
+                    if (moved >= batchSize) {
+                        break;
+                    }
+                    if (migrateFlatFile(file)) {
+                        moved++;
+                    }
+                }
+            } catch (IOException e) {
+                throw new StorageException("Could not list files of " + rootLocation, e);
+            }
+            return moved;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private boolean migrateFlatFile(Path file) {
+        String storagePath = file.getFileName().toString();
+        try {
+            Path target = createTargetPath(storagePath);
+            if (Files.exists(target)) {
+                // Overwritten since sharding was enabled: the flat file is stale
+                Files.deleteIfExists(file);
+                return false;
+            }
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Migrated {} to {}", storagePath, target);
+            return true;
+        } catch (NoSuchFileException e) {
+            log.debug("File {} deleted during migration", storagePath);
+        } catch (IOException e) {
+            log.warn("Could not migrate {} to its shard directory: {}", storagePath, e.getMessage());
+        }
+        return false;
+    }
+
     @Override
     public Mono<String> saveFile(FilePart filePart) {
         String originalFilename = filePart.filename();
         String storageFileName = getUniqueStorageFileName(originalFilename);
-        Path destinationFile = this.rootLocation.resolve(storageFileName).normalize();
-        return filePart.transferTo(destinationFile)
-                .thenReturn(storageFileName) // Return relative path to be stored
-                .doOnSuccess(path -> log.info("File saved to: {}", destinationFile));
+        return Mono.fromCallable(() -> createTargetPath(storageFileName))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(destinationFile -> filePart.transferTo(destinationFile)
+                        .doOnSuccess(v -> log.info("File saved to: {}", destinationFile)))
+                .thenReturn(storageFileName); // Return relative path to be stored
+    }
+
+    @Override
+    public Mono<StoredFile> saveFileWithChecksum(FilePart filePart) {
+        return Mono.defer(() -> {
+            String storageFileName = getUniqueStorageFileName(filePart.filename());
+            Path destinationFile;
+            try {
+                destinationFile = createTargetPath(storageFileName);
+            } catch (IOException e) {
+                return Mono.error(new StorageException("Could not create directories for: " + storageFileName, e));
+            }
+            ContentDigest digest = ContentDigest.sha256();
+            return DataBufferUtils.write(digest.tee(filePart.content()), destinationFile)
+                    .then(Mono.fromSupplier(() -> new StoredFile(storageFileName, digest.hex())))
+                    .doOnSuccess(stored -> log.info("File saved to: {} (sha256={})", destinationFile, stored.checksum()));
+        });
     }
 
     @Override
     public Mono<Resource> loadFile(String storagePath) {
         return Mono.fromCallable(() -> {
-            Path file = rootLocation.resolve(storagePath).normalize();
+            Path file = resolvePath(storagePath);
             log.debug("Loading file: {} -> {}", storagePath, file.toAbsolutePath());
             Resource resource = new PathResource(file);
             if (resource.exists() && resource.isReadable()) {
@@ -75,15 +225,31 @@ public class FileSystemStorageService implements StorageService {
         });
     }
 
+    @Override
+    public Flux<DataBuffer> loadFileRange(String storagePath, long offset, long length) {
+        Flux<DataBuffer> content = DataBufferUtils.readAsynchronousFileChannel(
+                () -> AsynchronousFileChannel.open(resolvePath(storagePath), StandardOpenOption.READ),
+                offset, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE);
+        return DataBufferUtils.takeUntilByteCount(content, length);
+    }
+
+    @Override
+    public Optional<Path> getLocalFile(String storagePath) {
+        return Optional.of(resolvePath(storagePath));
+    }
+
     @Override
     public Mono<Void> deleteFile(String storagePath) {
         return Mono.fromRunnable(() -> {
             try {
-                Path filePath = rootLocation.resolve(storagePath).normalize();
-                Files.delete(filePath);
-                log.info("File deleted: {}", storagePath);
-            } catch (NoSuchFileException e) {
-                log.warn("File {} not found in Local Storage for deletion, presumed already deleted.", storagePath);
+                Path target = targetPath(storagePath);
+                Path flat = rootLocation.resolve(storagePath).normalize();
+                // The shard location is tried again in case a concurrent migration moved the flat file
+                if (Files.deleteIfExists(target) || Files.deleteIfExists(flat) || Files.deleteIfExists(target)) {
+                    log.info("File deleted: {}", storagePath);
+                } else {
+                    log.warn("File {} not found in Local Storage for deletion, presumed already deleted.", storagePath);
+                }
             } catch (IOException e) {
                 log.error("Could not delete file: {}", storagePath, e);
                 throw new RuntimeException("Could not delete file: " + storagePath, e);
@@ -93,16 +259,15 @@ public class FileSystemStorageService implements StorageService {
 
     @Override
     public Mono<String> copyFile(String sourceStoragePath) {
-        Path sourceFile = rootLocation.resolve(sourceStoragePath);
         String uniqueFilename = getUniqueStorageFileName(getOriginalFileName(sourceStoragePath));
-        Path destinationFile = this.rootLocation.resolve(uniqueFilename).normalize();
 
         return Mono.fromRunnable(() -> {
             try {
-                Files.copy(sourceFile, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+                Path destinationFile = createTargetPath(uniqueFilename);
+                Files.copy(resolvePath(sourceStoragePath), destinationFile, StandardCopyOption.REPLACE_EXISTING);
                 log.info("File copied from {} to {}", sourceStoragePath, destinationFile);
             } catch (IOException e) {
-                log.error("Could not copy file from {} to {}", sourceStoragePath, destinationFile, e);
+                log.error("Could not copy file from {} to {}", sourceStoragePath, uniqueFilename, e);
                 throw new RuntimeException("Could not copy file", e);
             }
         }).thenReturn(uniqueFilename);
@@ -110,9 +275,8 @@ public class FileSystemStorageService implements StorageService {
 
     @Override
     public Mono<Long> getFileLength(String storagePath) {
-        Path sourceFile = rootLocation.resolve(storagePath);
         try {
-            return Mono.just(Files.size(sourceFile));
+            return Mono.just(Files.size(resolvePath(storagePath)));
         } catch (IOException e) {
             throw new StorageException(e);
         }
@@ -124,9 +288,8 @@ public class FileSystemStorageService implements StorageService {
     public Mono<Void> createEmptyFile(String storagePath) {
         return Mono.fromRunnable(() -> {
             try {
-                Path filePath = rootLocation.resolve(storagePath).normalize();
                 // Create parent directories if they don't exist
-                Files.createDirectories(filePath.getParent());
+                Path filePath = createTargetPath(storagePath);
                 Files.createFile(filePath);
                 log.debug("Created empty file: {}", filePath);
             } catch (FileAlreadyExistsException e) {
@@ -141,7 +304,7 @@ public class FileSystemStorageService implements StorageService {
     @Override
     public Mono<Long> appendData(String storagePath, Flux<DataBuffer> data, long offset) {
         return Mono.defer(() -> {
-            Path filePath = rootLocation.resolve(storagePath).normalize();
+            Path filePath = resolvePath(storagePath);
             AtomicLong bytesWritten = new AtomicLong(0);
             AtomicLong position = new AtomicLong(offset);
 
@@ -190,6 +353,44 @@ public class FileSystemStorageService implements StorageService {
         });
     }
 
+    /**
+     * Concatenates the partial data files with {@link FileChannel#transferTo}, a kernel-side copy
+     * ({@code copy_file_range} on Linux, a reflink on copy-on-write file systems): the content does not
+     * go through the JVM.
+     */
+    @Override
+    public Mono<TusStorageUpload> concatenateTusUploads(String uploadId, String filename, List<TusUploadMetadata> partials) {
+        return Mono.fromCallable(() -> {
+            Path target = createTargetPath(getTusDataPath(uploadId));
+            long size = 0;
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (TusUploadMetadata partial : partials) {
+                    try (FileChannel in = FileChannel.open(resolvePath(getTusDataPath(partial.uploadId())), StandardOpenOption.READ)) {
+                        long length = partial.length();
+                        long position = 0;
+                        while (position < length) {
+                            long transferred = in.transferTo(position, length - position, out);
+                            if (transferred <= 0) {
+                                throw new IOException("Partial upload " + partial.uploadId() + " is shorter than " + length + " bytes");
+                            }
+                            position += transferred;
+                        }
+                        size += length;
+                    }
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(target);
+                throw new StorageException("Could not concatenate TUS uploads into " + uploadId, e);
+            }
+            for (TusUploadMetadata partial : partials) {
+                Files.deleteIfExists(resolvePath(getTusDataPath(partial.uploadId())));
+            }
+            log.debug("Concatenated {} partial uploads into TUS upload {} ({} bytes)", partials.size(), uploadId, size);
+            return TusStorageUpload.of(getUniqueStorageFileName(filename)).withSize(size);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
     private Mono<Void> closeChannel(AsynchronousFileChannel channel) {
         return Mono.fromRunnable(() -> {
             try {
@@ -203,7 +404,7 @@ public class FileSystemStorageService implements StorageService {
     @Override
     public Mono<Void> saveData(String storagePath, Flux<DataBuffer> data) {
         return Mono.defer(() -> {
-            Path filePath = rootLocation.resolve(storagePath).normalize();
+            Path filePath = targetPath(storagePath);
             log.debug("saveData: storagePath={}, filePath={}", storagePath, filePath.toAbsolutePath());
 
             // Create parent directories if needed
@@ -211,8 +412,12 @@ public class FileSystemStorageService implements StorageService {
                 Path parentDir = filePath.getParent();
                 Files.createDirectories(parentDir);
                 log.debug("saveData: created directories for {}", parentDir.toAbsolutePath());
+                if (isShardable(storagePath)) {
+                    // The content now lives in the shard directory: drop the flat file it replaces
+                    Files.deleteIfExists(rootLocation.resolve(storagePath).normalize());
+                }
             } catch (IOException e) {
-                log.error("saveData: failed to create directories for {}", storagePath, e);
+                log.error("saveData: failed to prepare {}", storagePath, e);
                 return Mono.error(new StorageException("Could not create directories for: " + storagePath, e));
             }
 
@@ -270,10 +475,9 @@ public class FileSystemStorageService implements StorageService {
     public Mono<Void> moveFile(String sourcePath, String destPath) {
         return Mono.fromRunnable(() -> {
             try {
-                Path source = rootLocation.resolve(sourcePath).normalize();
-                Path dest = rootLocation.resolve(destPath).normalize();
+                Path source = resolvePath(sourcePath);
                 // Create parent directories if they don't exist
-                Files.createDirectories(dest.getParent());
+                Path dest = createTargetPath(destPath);
                 Files.move(source, dest, StandardCopyOption.REPLACE_EXISTING);
                 log.info("File moved from {} to {}", sourcePath, destPath);
             } catch (IOException e) {
@@ -296,9 +500,10 @@ public class FileSystemStorageService implements StorageService {
                 Files.walkFileTree(prefixPath, new SimpleFileVisitor<>() {
                     @Override
                     public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                        // Return path relative to rootLocation
+                        // Return path relative to rootLocation, or the storage key for sharded files
+                        String fileName = file.getFileName().toString();
                         String relativePath = rootLocation.relativize(file).toString().replace("\\", "/");
-                        sink.next(relativePath);
+                        sink.next(isShardable(fileName) && targetPath(fileName).equals(file) ? fileName : relativePath);
                         return FileVisitResult.CONTINUE;
                     }
                 });
@@ -1,6 +1,7 @@
 package org.openfilz.dms.service.impl;
 
 import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.LocalIndexationCondition;
 import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.enums.DocumentType;
 import org.openfilz.dms.service.DocumentEmbeddingService;
@@ -8,8 +9,7 @@ import org.openfilz.dms.service.FullTextService;
 import org.openfilz.dms.service.IndexService;
 import org.openfilz.dms.service.StorageService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperties;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
@@ -28,10 +29,7 @@ import java.util.function.Function;
 @Slf4j
 @Service
 @Lazy
-@ConditionalOnProperties({
-        @ConditionalOnProperty(name = "openfilz.full-text.active", havingValue = "true"),
-        @ConditionalOnProperty(name = "openfilz.full-text.indexation-mode", havingValue = "local", matchIfMissing = true)
-})
+@Conditional(LocalIndexationCondition.class)
 public class LocalFullTextServiceImpl implements FullTextService {
 
     /**
@@ -79,27 +77,28 @@ public class LocalFullTextServiceImpl implements FullTextService {
     @Override
     public void indexDocument(Document document) {
         if(document.getType() == DocumentType.FILE) {
-            indexFile(document);
+            subscribeAndRetryOnError(indexDocumentMono(document), document, "Retrying indexFile for document {}, attempt {}", "indexFile error for {} : {}");
         } else {
-            indexFolder(document);
+            subscribeAndRetryOnError(indexDocumentMono(document), document, "Retrying indexFolder for document {}, attempt {}", "indexFolder error for {} : {}");
         }
     }
 
-    private void indexFolder(Document document) {
-        doIndexDocMetadataMono(document, "Retrying indexFolder for document {}, attempt {}", "indexFolder error for {} : {}");
-    }
-
-    private void indexFile(Document document) {
-        if(document.getSize() > 0 && isTextExtractable(document.getContentType())) {
-            indexFileWithTextExtraction(document);
-        } else {
-            doIndexDocMetadataMono(document, "Retrying indexFile for document {}, attempt {}", "indexFile error for {} : {}");
+    @Override
+    public Mono<Void> indexDocumentMono(Document document) {
+        if(document.getType() == DocumentType.FILE && document.getSize() > 0 && isTextExtractable(document.getContentType())) {
+            return indexFileWithTextExtraction(document);
         }
+        return indexService.indexDocMetadataMono(document);
     }
 
-    private void indexFileWithTextExtraction(Document document) {
-        try {
-            Path tempFile = Files.createTempFile("upload-opf", ".tmp");
+    private Mono<Void> indexFileWithTextExtraction(Document document) {
+        return Mono.defer(() -> {
+            Path tempFile;
+            try {
+                tempFile = Files.createTempFile("upload-opf", ".tmp");
+            } catch (IOException e) {
+                return Mono.error(e);
+            }
 
             // When AI embedding is active, collect the Tika-extracted text to reuse it
             // for vector embedding — avoids a second Tika pass on the same file.
@@ -113,31 +112,31 @@ public class LocalFullTextServiceImpl implements FullTextService {
                 tikaFlux = tikaFlux.doOnNext(collectedText::append);
             }
 
-            subscribeAndRetryOnError(indexService.indexDocMetadataMono(document)
+            return indexService.indexDocMetadataMono(document)
                     .then(tikaFlux.as(flux -> indexService.indexDocumentStream(flux, document.getId())))
-                    .then(Mono.fromRunnable(() -> {
+                    // After OpenSearch indexing completes, trigger AI embedding with the collected text
+                    .then(Mono.defer(() -> {
+                        if (!shareWithAi || collectedText.isEmpty()) {
+                            return Mono.<Void>empty();
+                        }
+                        log.debug("[AI-EMBED] Sharing Tika-extracted text with AI embedding for '{}' ({} chars)",
+                                document.getName(), collectedText.length());
+                        return documentEmbeddingService.embedFromText(document, collectedText.toString())
+                                .doOnError(e -> log.error("[AI-EMBED] embedding error for {} : {}", document.getId(), e.getMessage()))
+                                .onErrorComplete();
+                    }))
+                    .doFinally(_ -> {
                         try {
                             Files.deleteIfExists(tempFile);
                             log.debug("Cleaned up stable temp file [{}].", tempFile);
                         } catch (Exception e) {
                             log.error("Failed to clean up stable temp file [{}].", tempFile, e);
                         }
-                        // After OpenSearch indexing completes, trigger AI embedding with the collected text
-                        if (shareWithAi && collectedText.length() > 0) {
-                            log.debug("[AI-EMBED] Sharing Tika-extracted text with AI embedding for '{}' ({} chars)",
-                                    document.getName(), collectedText.length());
-                            documentEmbeddingService.embedFromText(document, collectedText.toString()).subscribe();
-                        }
-                    })),
-                    document,
-                    "Retrying indexFile for document {}, attempt {}", "indexFile error for {} : {}"
-            );
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+                    });
+        });
     }
 
-    private static boolean isTextExtractable(String contentType) {
+    static boolean isTextExtractable(String contentType) {
         if (contentType == null) {
             return false;
         }
@@ -150,10 +149,6 @@ public class LocalFullTextServiceImpl implements FullTextService {
         return false;
     }
 
-    private void doIndexDocMetadataMono(Document document, String warningMessage, String errorMessage) {
-        subscribeAndRetryOnError(indexService.indexDocMetadataMono(document), document, warningMessage, errorMessage);
-    }
-
     private void subscribeAndRetryOnError(Mono<Void> indexProcessMono, Document document, String warningMessage, String errorMessage) {
         indexProcessMono.retryWhen(Retry.backoff(3, Duration.ofMillis(100))
                         .filter(this::isRetryableException)
@@ -175,25 +170,35 @@ public class LocalFullTextServiceImpl implements FullTextService {
 
     @Override
     public void indexDocumentMetadata(Document document) {
-        Mono.fromCallable(() -> indexService.updateMetadata(document))
+        indexDocumentMetadataMono(document)
                 .doOnError(err ->
                         log.error("indexDocumentMetadata error for {} : {}", document.getId(), err.getMessage()))
                 .subscribeOn(Schedulers.boundedElastic())
                 .subscribe();
     }
 
+    @Override
+    public Mono<Void> indexDocumentMetadataMono(Document document) {
+        return Mono.defer(() -> indexService.updateMetadata(document));
+    }
+
     @Override
     public void copyIndex(UUID sourceFileId, Document createdDocument) {
-        indexService.copyIndex(sourceFileId, createdDocument)
+        copyIndexMono(sourceFileId, createdDocument)
                 .doOnError(err ->
                         log.error("copyIndex error for {} : {}", createdDocument.getId(), err.getMessage()))
                 .subscribeOn(Schedulers.boundedElastic())
                 .subscribe();
     }
 
+    @Override
+    public Mono<Void> copyIndexMono(UUID sourceFileId, Document createdDocument) {
+        return Mono.defer(() -> indexService.copyIndex(sourceFileId, createdDocument));
+    }
+
     @Override
     public void updateIndexField(Document document, String openSearchDocumentKey, Object value) {
-        Mono.fromCallable(() -> indexService.updateIndexField(document, openSearchDocumentKey, value))
+        Mono.defer(() -> indexService.updateIndexField(document, openSearchDocumentKey, value))
                 .doOnError(err ->
                         log.error("updateIndexField error for {} : {}", document, err.getMessage()))
                 .subscribeOn(Schedulers.boundedElastic())
@@ -202,21 +207,38 @@ public class LocalFullTextServiceImpl implements FullTextService {
 
     @Override
     public void updateIndexField(UUID documentId, String openSearchDocumentKey, Object value) {
-        indexService.updateIndexField(documentId, openSearchDocumentKey, value)
+        updateIndexFieldMono(documentId, openSearchDocumentKey, value)
                 .doOnError(err ->
                         log.error("updateIndexField error for {} : {}", documentId, err.getMessage()))
                 .subscribeOn(Schedulers.boundedElastic())
                 .subscribe();
     }
 
+    @Override
+    public Mono<Void> updateIndexFieldMono(UUID documentId, String openSearchDocumentKey, Object value) {
+        return Mono.defer(() -> indexService.updateIndexField(documentId, openSearchDocumentKey, value));
+    }
+
     @Override
     public void deleteDocument(UUID id) {
-        Mono.fromCallable(() -> indexService.deleteDocument(id))
+        Mono.defer(() -> indexService.deleteDocument(id))
                 .doOnError(err ->
                         log.error("deleteDocument error for {} : {}", id, err.getMessage()))
                 .subscribeOn(Schedulers.boundedElastic())
                 .subscribe();
     }
 
+    @Override
+    public void deleteDocuments(Collection<UUID> ids) {
+        deleteDocumentsMono(ids)
+                .doOnError(err ->
+                        log.error("deleteDocuments error for {} documents : {}", ids.size(), err.getMessage()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+    }
 
+    @Override
+    public Mono<Void> deleteDocumentsMono(Collection<UUID> ids) {
+        return Mono.defer(() -> indexService.deleteDocuments(ids));
+    }
 }
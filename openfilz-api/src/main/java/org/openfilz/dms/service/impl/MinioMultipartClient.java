@@ -0,0 +1,48 @@
+package org.openfilz.dms.service.impl;
+
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.UploadPartResponse;
+import io.minio.messages.Part;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Exposes the low-level S3 multipart operations of {@link MinioAsyncClient}
+ * (create / upload part / complete / abort), which the high-level API only uses internally.
+ */
+public class MinioMultipartClient extends MinioAsyncClient {
+
+    public MinioMultipartClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    /**
+     * @return the upload id
+     */
+    public CompletableFuture<String> createMultipartUpload(String bucket, String objectName,
+                                                          Multimap<String, String> headers) throws Exception {
+        return createMultipartUploadAsync(bucket, null, objectName, headers, null)
+                .thenApply(response -> response.result().uploadId());
+    }
+
+    /**
+     * @return the ETag of the uploaded part
+     */
+    public CompletableFuture<String> uploadPart(String bucket, String objectName, String uploadId,
+                                                int partNumber, byte[] data) throws Exception {
+        return uploadPartAsync(bucket, null, objectName, data, data.length, uploadId, partNumber, null, null)
+                .thenApply(UploadPartResponse::etag);
+    }
+
+    public CompletableFuture<ObjectWriteResponse> completeMultipartUpload(String bucket, String objectName,
+                                                                         String uploadId, Part[] parts) throws Exception {
+        return completeMultipartUploadAsync(bucket, null, objectName, uploadId, parts, null, null);
+    }
+
+    public CompletableFuture<Void> abortMultipartUpload(String bucket, String objectName, String uploadId) throws Exception {
+        return abortMultipartUploadAsync(bucket, null, objectName, uploadId, null, null)
+                .thenApply(_ -> null);
+    }
+}
@@ -0,0 +1,282 @@
+package org.openfilz.dms.service.impl;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.PutObjectArgs;
+import io.minio.messages.Part;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+
+/**
+ * Streams a {@code Flux<DataBuffer>} to a MinIO object without blocking any thread.
+ * <p>
+ * Incoming buffers are assembled into parts of {@code partSize} bytes. Content that fits in a single
+ * part is sent with one PutObject; larger content goes through an S3 multipart upload with up to
+ * {@code maxInFlight} parts uploaded concurrently. The multipart upload is completed once every part
+ * is acknowledged, and aborted if the stream fails or is cancelled, so that no partial object is
+ * ever visible. Memory per upload is bounded by roughly {@code (maxInFlight + 2) * partSize}.
+ */
+@Slf4j
+public class MinioMultipartUploader {
+
+    /**
+     * Minimum size of every part but the last one (S3 limit).
+     */
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private static final String LEGAL_HOLD_HEADER = "x-amz-object-lock-legal-hold";
+
+    private final MinioMultipartClient client;
+    private final String bucket;
+    private final int partSize;
+    private final int maxInFlight;
+
+    public MinioMultipartUploader(MinioMultipartClient client, String bucket, int partSize, int maxInFlight) {
+        this.client = client;
+        this.bucket = bucket;
+        this.partSize = partSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Uploads the data to {@code objectName}.
+     *
+     * @return the number of bytes uploaded
+     */
+    public Mono<Long> upload(String objectName, Flux<DataBuffer> data, String contentType, boolean legalHold) {
+        return Flux.defer(() -> assembleParts(data))
+                .switchOnFirst((first, parts) -> {
+                    if (first.hasValue() && first.get().last()) {
+                        return putObject(objectName, first.get(), contentType, legalHold).flux();
+                    }
+                    return uploadMultipart(objectName, parts, contentType, legalHold).flux();
+                })
+                .next();
+    }
+
+    /**
+     * Starts a multipart upload on {@code objectName}, whose parts are then sent with {@link #uploadParts}.
+     *
+     * @return the upload id
+     */
+    public Mono<String> createMultipartUpload(String objectName, String contentType, boolean legalHold) {
+        return future(() -> client.createMultipartUpload(bucket, objectName, multipartHeaders(contentType, legalHold)))
+                .doOnSuccess(uploadId -> log.debug("Started multipart upload {} of {}", uploadId, objectName));
+    }
+
+    /**
+     * Uploads the data as the next parts of an existing multipart upload, numbered from {@code firstPartNumber}.
+     * S3 requires every part but the last one to be at least {@link #MIN_PART_SIZE} bytes: a smaller last part
+     * is not uploaded but returned as pending, unless it completes the upload, i.e. {@code remaining} bytes were received.
+     *
+     * @return the uploaded parts and the pending bytes
+     */
+    public Mono<AppendedParts> uploadParts(String objectName, String uploadId, int firstPartNumber,
+                                           Flux<DataBuffer> data, long remaining) {
+        return Flux.defer(() -> {
+                    AtomicLong received = new AtomicLong();
+                    return assembleParts(data, firstPartNumber)
+                            .flatMapSequential(part -> {
+                                long end = received.addAndGet(part.bytes().length);
+                                if (part.last() && (part.bytes().length == 0
+                                        || part.bytes().length < MIN_PART_SIZE && end < remaining)) {
+                                    return Mono.just(new AppendedPart(null, part.bytes()));
+                                }
+                                return uploadPart(objectName, uploadId, part).map(uploaded -> new AppendedPart(uploaded, null));
+                            }, maxInFlight, 1);
+                })
+                .collectList()
+                .map(appended -> {
+                    List<UploadedPart> parts = appended.stream().map(AppendedPart::uploaded).filter(Objects::nonNull).toList();
+                    byte[] pending = appended.stream().map(AppendedPart::pending).filter(Objects::nonNull)
+                            .findFirst().orElse(new byte[0]);
+                    return new AppendedParts(parts, pending);
+                });
+    }
+
+    private Flux<PartData> assembleParts(Flux<DataBuffer> data) {
+        return assembleParts(data, 1);
+    }
+
+    private Flux<PartData> assembleParts(Flux<DataBuffer> data, int firstPartNumber) {
+        PartAssembler assembler = new PartAssembler(partSize, firstPartNumber);
+        return Flux.concat(
+                        data.concatMapIterable(assembler::add, 32),
+                        Flux.defer(() -> Flux.fromIterable(assembler.finish())))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private Mono<Long> putObject(String objectName, PartData part, String contentType, boolean legalHold) {
+        return future(() -> client.putObject(PutObjectArgs.builder()
+                        .bucket(bucket)
+                        .object(objectName)
+                        .legalHold(legalHold)
+                        .stream(new ByteArrayInputStream(part.bytes()), part.bytes().length, -1)
+                        .contentType(contentType)
+                        .build()))
+                .doOnSuccess(_ -> log.debug("Uploaded {} ({} bytes) in a single request", objectName, part.bytes().length))
+                .thenReturn((long) part.bytes().length);
+    }
+
+    private static Multimap<String, String> multipartHeaders(String contentType, boolean legalHold) {
+        Multimap<String, String> headers = HashMultimap.create();
+        headers.put(CONTENT_TYPE, contentType);
+        if (legalHold) {
+            headers.put(LEGAL_HOLD_HEADER, "ON");
+        }
+        return headers;
+    }
+
+    private Mono<Long> uploadMultipart(String objectName, Flux<PartData> parts, String contentType, boolean legalHold) {
+        return Mono.usingWhen(
+                createMultipartUpload(objectName, contentType, legalHold),
+                uploadId -> parts
+                        .flatMap(part -> uploadPart(objectName, uploadId, part), maxInFlight, 1)
+                        .collectList()
+                        .flatMap(uploaded -> completeMultipartUpload(objectName, uploadId, uploaded)),
+                _ -> Mono.empty(),
+                (uploadId, e) -> abortMultipartUpload(objectName, uploadId, e.toString()),
+                uploadId -> abortMultipartUpload(objectName, uploadId, "cancelled"));
+    }
+
+    private Mono<UploadedPart> uploadPart(String objectName, String uploadId, PartData part) {
+        return future(() -> client.uploadPart(bucket, objectName, uploadId, part.number(), part.bytes()))
+                .map(etag -> new UploadedPart(part.number(), etag, part.bytes().length));
+    }
+
+    /**
+     * Completes a multipart upload with its parts, which become the content of the object.
+     *
+     * @return the size of the object
+     */
+    public Mono<Long> completeMultipartUpload(String objectName, String uploadId, List<UploadedPart> uploaded) {
+        Part[] parts = uploaded.stream()
+                .sorted(Comparator.comparingInt(UploadedPart::number))
+                .map(part -> new Part(part.number(), part.etag()))
+                .toArray(Part[]::new);
+        long size = uploaded.stream().mapToLong(UploadedPart::length).sum();
+        return future(() -> client.completeMultipartUpload(bucket, objectName, uploadId, parts))
+                .doOnSuccess(_ -> log.debug("Uploaded {} ({} bytes) in {} parts", objectName, size, parts.length))
+                .thenReturn(size);
+    }
+
+    public Mono<Void> abortMultipartUpload(String objectName, String uploadId) {
+        return abortMultipartUpload(objectName, uploadId, "aborted");
+    }
+
+    private Mono<Void> abortMultipartUpload(String objectName, String uploadId, String reason) {
+        log.debug("Aborting multipart upload {} of {}: {}", uploadId, objectName, reason);
+        return future(() -> client.abortMultipartUpload(bucket, objectName, uploadId))
+                .onErrorResume(e -> {
+                    log.warn("Could not abort multipart upload {} of {}: {}", uploadId, objectName, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static <T> Mono<T> future(Callable<CompletableFuture<T>> call) {
+        return Mono.defer(() -> {
+            try {
+                return Mono.fromFuture(call.call());
+            } catch (Exception e) {
+                return Mono.error(e);
+            }
+        });
+    }
+
+    record PartData(int number, byte[] bytes, boolean last) {}
+
+    /**
+     * A part acknowledged by the storage, identified by its ETag.
+     */
+    public record UploadedPart(int number, String etag, long length) {}
+
+    /**
+     * Result of {@link #uploadParts}: the uploaded parts, and the trailing bytes too small to be a part.
+     */
+    public record AppendedParts(List<UploadedPart> parts, byte[] pending) {}
+
+    private record AppendedPart(UploadedPart uploaded, byte[] pending) {}
+
+    /**
+     * Accumulates buffers into parts. A full part is only emitted once more data arrives, so that
+     * the last part is always flagged as such (content fitting in one part skips the multipart protocol).
+     */
+    static final class PartAssembler {
+
+        private final int partSize;
+        private byte[] current = new byte[0];
+        private int position;
+        private byte[] pendingFullPart;
+        private int nextPartNumber;
+
+        PartAssembler(int partSize) {
+            this(partSize, 1);
+        }
+
+        PartAssembler(int partSize, int firstPartNumber) {
+            this.partSize = partSize;
+            this.nextPartNumber = firstPartNumber;
+        }
+
+        List<PartData> add(DataBuffer buffer) {
+            try {
+                List<PartData> ready = new ArrayList<>(1);
+                int remaining = buffer.readableByteCount();
+                while (remaining > 0) {
+                    if (pendingFullPart != null) {
+                        ready.add(new PartData(nextPartNumber++, pendingFullPart, false));
+                        pendingFullPart = null;
+                    }
+                    int count = Math.min(remaining, partSize - position);
+                    ensureCapacity(position + count);
+                    buffer.read(current, position, count);
+                    position += count;
+                    remaining -= count;
+                    if (position == partSize) {
+                        pendingFullPart = current;
+                        current = new byte[0];
+                        position = 0;
+                    }
+                }
+                return ready;
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        List<PartData> finish() {
+            List<PartData> parts = new ArrayList<>(2);
+            if (pendingFullPart != null) {
+                parts.add(new PartData(nextPartNumber++, pendingFullPart, position == 0));
+                pendingFullPart = null;
+            }
+            if (position > 0 || parts.isEmpty()) {
+                parts.add(new PartData(nextPartNumber++, Arrays.copyOf(current, position), true));
+            }
+            return parts;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > current.length) {
+                int newLength = Math.min(partSize, Math.max(capacity, current.length * 2));
+                current = Arrays.copyOf(current, newLength);
+            }
+        }
+    }
+}
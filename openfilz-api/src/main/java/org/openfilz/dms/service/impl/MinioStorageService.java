@@ -2,15 +2,21 @@ package org.openfilz.dms.service.impl;
 
 import io.minio.*;
 import io.minio.errors.ErrorResponseException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
 import io.minio.messages.Item;
 import io.minio.messages.ObjectLockConfiguration;
 import io.minio.messages.VersioningConfiguration;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.openfilz.dms.config.MinioProperties;
+import org.openfilz.dms.dto.StoredFile;
+import org.openfilz.dms.dto.TusStorageUpload;
+import org.openfilz.dms.dto.TusUploadMetadata;
 import org.openfilz.dms.dto.response.DocumentVersionInfo;
 import org.openfilz.dms.exception.StorageException;
 import org.openfilz.dms.service.StorageService;
+import org.openfilz.dms.utils.ContentDigest;
 import org.openfilz.dms.utils.FileUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -19,23 +25,18 @@ import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.io.InputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
 import java.time.Duration;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 
@@ -45,12 +46,13 @@ import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 @Qualifier("minio")
 public class MinioStorageService implements StorageService {
 
+    private static final String TUS_PENDING_SUFFIX = ".pending.";
+
     private final MinioProperties minioProperties;
 
     private MinioClient minioClient;
 
-    @Value("${piped.buffer.size:8192}")
-    private Integer pipedBufferSize;
+    private MinioMultipartUploader uploader;
 
     @Value("${openfilz.security.worm-mode:false}")
     private Boolean wormMode;
@@ -65,6 +67,12 @@ public class MinioStorageService implements StorageService {
                 .endpoint(minioProperties.getEndpoint())
                 .credentials(minioProperties.getAccessKey(), minioProperties.getSecretKey())
                 .build();
+        MinioMultipartClient multipartClient = new MinioMultipartClient(MinioAsyncClient.builder()
+                .endpoint(minioProperties.getEndpoint())
+                .credentials(minioProperties.getAccessKey(), minioProperties.getSecretKey())
+                .build());
+        this.uploader = new MinioMultipartUploader(multipartClient, minioProperties.getBucketName(),
+                minioProperties.getMultipartPartSize(), minioProperties.getMultipartMaxInFlight());
         ensureBucketExists();
     }
 
@@ -115,67 +123,53 @@ public class MinioStorageService implements StorageService {
         return saveFile(newFilePart);
     }
 
+    @Override
+    public Mono<StoredFile> replaceFileWithChecksum(String oldStoragePath, FilePart newFilePart) {
+        if (minioProperties.isVersioningEnabled()) {
+            return uploadToObjectWithChecksum(oldStoragePath, newFilePart);
+        }
+        return saveFileWithChecksum(newFilePart);
+    }
+
     @Override
     public Mono<String> saveFile(FilePart filePart) {
         String objectName = getUniqueStorageFileName(filePart.filename());
         return uploadToObject(objectName, filePart);
     }
 
+    @Override
+    public Mono<StoredFile> saveFileWithChecksum(FilePart filePart) {
+        return uploadToObjectWithChecksum(getUniqueStorageFileName(filePart.filename()), filePart);
+    }
+
     /**
-     * Uploads a FilePart to MinIO using piped streams, storing it under the given objectName.
+     * Uploads a FilePart under the given objectName, hashing the content as it is sent to MinIO.
+     * The upload only completes once every buffer has been consumed, so the digest is complete by then.
      */
-    private Mono<String> uploadToObject(String objectName, FilePart filePart) {
-        PipedInputStream pipedInputStream = new PipedInputStream(pipedBufferSize);
-        PipedOutputStream pipedOutputStream;
-        try {
-            pipedOutputStream = new PipedOutputStream(pipedInputStream);
-        } catch (IOException e) {
-            log.error("Failed to create PipedOutputStream", e);
-            return Mono.error(e);
-        }
+    private Mono<StoredFile> uploadToObjectWithChecksum(String objectName, FilePart filePart) {
+        return Mono.defer(() -> {
+            ContentDigest digest = ContentDigest.sha256();
+            return uploadToObject(objectName, filePart, digest)
+                    .map(name -> new StoredFile(name, digest.hex()));
+        });
+    }
 
-        DataBufferUtils.write(filePart.content(), pipedOutputStream)
-                .doOnError(e -> {
-                    log.error("Error writing file content to PipedOutputStream for {}", objectName, e);
-                    try {
-                        pipedOutputStream.close();
-                    } catch (IOException ignored) {
-                    }
-                })
-                .doOnComplete(() -> {
-                    log.debug("Finished writing file content to PipedOutputStream for {}", objectName);
-                    try {
-                        pipedOutputStream.close();
-                    } catch (IOException e) {
-                        log.warn("Error closing PipedOutputStream for {}: {}", objectName, e.getMessage());
-                    }
-                })
-                .subscribeOn(Schedulers.boundedElastic())
-                .subscribe();
+    private Mono<String> uploadToObject(String objectName, FilePart filePart) {
+        return uploadToObject(objectName, filePart, null);
+    }
 
-        return Mono.fromCallable(() -> {
-                    log.info("Starting MinIO putObject for {}", objectName);
-                    String contentType = FileUtils.getContentType(filePart);
-                    PutObjectArgs args = PutObjectArgs.builder()
-                            .bucket(minioProperties.getBucketName())
-                            .object(objectName)
-                            .legalHold(wormMode)
-                            .stream(pipedInputStream, -1, PutObjectArgs.MIN_MULTIPART_SIZE)
-                            .contentType(contentType != null ? contentType : APPLICATION_OCTET_STREAM_VALUE)
-                            .build();
-                    minioClient.putObject(args);
-                    log.info("Successfully uploaded {} to MinIO bucket {}", objectName, minioProperties.getBucketName());
-                    return objectName;
-                })
-                .subscribeOn(Schedulers.boundedElastic())
-                .doOnTerminate(() -> {
-                    try {
-                        pipedInputStream.close();
-                    } catch (IOException e) {
-                        log.warn("Error closing PipedInputStream for {}: {}", objectName, e.getMessage());
-                    }
-                })
-                .doOnError(e -> log.error("Failed to upload {} to MinIO", objectName, e));
+    /**
+     * Uploads a FilePart to MinIO, storing it under the given objectName.
+     * When a digest is given, every buffer is fed to it before being uploaded.
+     */
+    private Mono<String> uploadToObject(String objectName, FilePart filePart, ContentDigest digest) {
+        Flux<DataBuffer> content = digest != null ? digest.tee(filePart.content()) : filePart.content();
+        String contentType = FileUtils.getContentType(filePart);
+        return uploader.upload(objectName, content, contentType != null ? contentType : APPLICATION_OCTET_STREAM_VALUE, wormMode)
+                .doOnSubscribe(_ -> log.info("Starting MinIO upload for {}", objectName))
+                .doOnSuccess(_ -> log.info("Successfully uploaded {} to MinIO bucket {}", objectName, minioProperties.getBucketName()))
+                .doOnError(e -> log.error("Failed to upload {} to MinIO", objectName, e))
+                .thenReturn(objectName);
     }
 
     @Override
@@ -197,6 +191,34 @@ public class MinioStorageService implements StorageService {
         }).subscribeOn(Schedulers.boundedElastic());
     }
 
+    @Override
+    public Flux<DataBuffer> loadFileRange(String storagePath, long offset, long length) {
+        return getObjectRange(storagePath, null, offset, length);
+    }
+
+    /**
+     * Ranged GetObject: only the requested bytes are transferred from MinIO.
+     */
+    private Flux<DataBuffer> getObjectRange(String storagePath, String versionId, long offset, long length) {
+        if (length <= 0) {
+            return Flux.empty();
+        }
+        return DataBufferUtils.readInputStream(() -> minioClient.getObject(
+                                GetObjectArgs.builder()
+                                        .bucket(minioProperties.getBucketName())
+                                        .object(storagePath)
+                                        .versionId(versionId)
+                                        .offset(offset)
+                                        .length(length)
+                                        .build()),
+                        DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE)
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorMap(e -> !(e instanceof StorageException), e -> {
+                    log.error("Error loading bytes {}-{} of file {} from MinIO", offset, offset + length - 1, storagePath, e);
+                    return new StorageException("MinIO ranged load failed for " + storagePath, e);
+                });
+    }
+
     @Override
     public Mono<Void> deleteFile(String storagePath) { // storagePath is objectName
         return Mono.fromRunnable(() -> {
@@ -219,6 +241,43 @@ public class MinioStorageService implements StorageService {
         }).subscribeOn(Schedulers.boundedElastic()).then();
     }
 
+    /**
+     * Deletes the objects with multi-object delete requests (up to 1000 keys each) instead of one request per object.
+     */
+    @Override
+    public Mono<Void> deleteFiles(Collection<String> storagePaths) {
+        if (storagePaths.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> {
+            List<DeleteObject> objects = storagePaths.stream().map(DeleteObject::new).toList();
+            // The requests are only sent while the results are iterated
+            Iterable<Result<DeleteError>> results = minioClient.removeObjects(
+                    RemoveObjectsArgs.builder()
+                            .bucket(minioProperties.getBucketName())
+                            .objects(objects)
+                            .build());
+            int failed = 0;
+            for (Result<DeleteError> result : results) {
+                try {
+                    DeleteError error = result.get();
+                    if ("NoSuchKey".equals(error.code())) {
+                        log.warn("File {} not found in MinIO for deletion, presumed already deleted.", error.objectName());
+                    } else {
+                        log.error("Error deleting file {} from MinIO: {}", error.objectName(), error.message());
+                        failed++;
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException("MinIO delete files failed", e);
+                }
+            }
+            if (failed > 0) {
+                throw new RuntimeException("MinIO delete files failed for " + failed + " of " + objects.size() + " files");
+            }
+            log.info("{} files deleted from MinIO bucket '{}'", objects.size() - failed, minioProperties.getBucketName());
+        }).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
     @Override
     public Mono<String> copyFile(String sourceStoragePath) {
         String destinationObjectName = getUniqueStorageFileName(getOriginalFileName(sourceStoragePath));
@@ -259,223 +318,217 @@ public class MinioStorageService implements StorageService {
     }
 
     // ==================== TUS Upload Support Methods ====================
-    // For MinIO/S3, we store each chunk as a separate object and compose them at finalization.
-    // Chunk objects are stored as: {storagePath}.chunk.{offset}
-    // This approach works because S3 doesn't support random writes.
+    // S3 doesn't support appending to an object: a TUS upload is mapped onto a native multipart upload
+    // on its final object, every PATCH being uploaded as one or more parts. The trailing bytes of a PATCH
+    // too small to be a part (under 5 MiB) are kept in a pending object and sent with the next PATCH.
+    // Finalization is a single CompleteMultipartUpload, whatever the size of the upload.
+    // Partial uploads (concatenation extension) are multipart uploads on their _tus/ data object; they are
+    // assembled into the final object with a server-side compose (UploadPartCopy), without reading them back.
 
     @Override
     public Mono<Void> createEmptyFile(String storagePath) {
-        // For MinIO, we don't need to create an empty file.
-        // We'll create chunk objects as data arrives.
-        // Just verify the path is valid (no-op for now).
+        // MinIO objects are written whole: no placeholder object is needed
         return Mono.empty();
     }
 
     @Override
     public Mono<Long> appendData(String storagePath, Flux<DataBuffer> data, long offset) {
-        // Store this chunk as a separate object with offset in the name
-        String chunkObjectName = storagePath + ".chunk." + String.format("%020d", offset);
+        return Mono.error(new StorageException(
+                "MinIO objects cannot be appended to, TUS uploads are stored as multipart uploads: " + storagePath));
+    }
 
-        // Use PipedInputStream/PipedOutputStream for streaming without loading all data into memory
-        PipedInputStream pipedInputStream = new PipedInputStream(pipedBufferSize);
-        PipedOutputStream pipedOutputStream;
-        try {
-            pipedOutputStream = new PipedOutputStream(pipedInputStream);
-        } catch (IOException e) {
-            log.error("Failed to create PipedOutputStream for TUS chunk", e);
-            return Mono.error(e);
-        }
+    @Override
+    public Mono<TusStorageUpload> createTusUpload(String uploadId, String filename) {
+        String objectName = getUniqueStorageFileName(filename);
+        return uploader.createMultipartUpload(objectName, APPLICATION_OCTET_STREAM_VALUE, wormMode)
+                .map(multipartUploadId -> TusStorageUpload.multipart(objectName, multipartUploadId))
+                .onErrorMap(e -> !(e instanceof StorageException), e -> {
+                    log.error("Failed to start multipart upload of TUS upload {}", uploadId, e);
+                    return new StorageException("MinIO createTusUpload failed", e);
+                });
+    }
 
-        // Track bytes written
-        AtomicLong bytesWritten = new AtomicLong(0);
+    @Override
+    public Mono<TusStorageUpload> createTusPartialUpload(String uploadId) {
+        String objectName = getTusDataPath(uploadId);
+        return uploader.createMultipartUpload(objectName, APPLICATION_OCTET_STREAM_VALUE, false)
+                .map(multipartUploadId -> TusStorageUpload.multipart(objectName, multipartUploadId))
+                .onErrorMap(e -> !(e instanceof StorageException), e -> {
+                    log.error("Failed to start multipart upload of TUS partial upload {}", uploadId, e);
+                    return new StorageException("MinIO createTusPartialUpload failed", e);
+                });
+    }
 
-        // Write data from Flux to PipedOutputStream (runs in separate thread)
-        DataBufferUtils.write(data, pipedOutputStream)
-                .doOnNext(DataBufferUtils::release)
-                .doOnError(e -> {
-                    log.error("Error writing TUS chunk to PipedOutputStream for {}", chunkObjectName, e);
-                    try {
-                        pipedOutputStream.close();
-                    } catch (IOException ignored) {
-                    }
-                })
-                .doOnComplete(() -> {
-                    log.debug("Finished writing TUS chunk to PipedOutputStream for {}", chunkObjectName);
-                    try {
-                        pipedOutputStream.close();
-                    } catch (IOException e) {
-                        log.warn("Error closing PipedOutputStream for {}: {}", chunkObjectName, e.getMessage());
-                    }
+    @Override
+    public Mono<TusStorageUpload> appendTusData(String uploadId, TusStorageUpload upload, Flux<DataBuffer> data,
+                                                long uploadLength, ContentDigest digest) {
+        Flux<DataBuffer> chunk = digest != null ? digest.tee(data) : data;
+        long pendingSize = upload.pendingSize();
+        Flux<DataBuffer> content = pendingSize > 0
+                ? Flux.concat(getObjectRange(getTusPendingPath(uploadId, upload.size()), null, 0, pendingSize), chunk)
+                : chunk;
+        return uploader.uploadParts(upload.storagePath(), upload.multipartUploadId(), upload.nextPartNumber(),
+                        content, uploadLength - upload.partsSize())
+                .flatMap(appended -> {
+                    List<TusStorageUpload.Part> parts = appended.parts().stream()
+                            .map(part -> new TusStorageUpload.Part(part.number(), part.etag(), part.length()))
+                            .toList();
+                    long newSize = upload.partsSize() + parts.stream().mapToLong(TusStorageUpload.Part::size).sum()
+                            + appended.pending().length;
+                    TusStorageUpload updated = upload.withParts(parts, newSize);
+                    // The pending object is named after the offset it ends at, so that the one of the persisted
+                    // state is never overwritten by a PATCH failing before the new state is persisted
+                    Mono<Void> savePending = appended.pending().length > 0
+                            ? saveData(getTusPendingPath(uploadId, newSize), Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(appended.pending())))
+                            : Mono.empty();
+                    Mono<Void> deletePrevious = pendingSize > 0
+                            ? deleteFile(getTusPendingPath(uploadId, upload.size())).onErrorResume(_ -> Mono.empty())
+                            : Mono.empty();
+                    return savePending.then(deletePrevious).thenReturn(updated);
                 })
-                .subscribeOn(Schedulers.boundedElastic())
-                .subscribe(dataBuffer -> bytesWritten.addAndGet(dataBuffer.readableByteCount()));
-
-        // Upload to MinIO using streaming
-        return Mono.fromCallable(() -> {
-                    log.debug("Starting MinIO putObject for TUS chunk {}", chunkObjectName);
-                    PutObjectArgs args = PutObjectArgs.builder()
-                            .bucket(minioProperties.getBucketName())
-                            .object(chunkObjectName)
-                            .stream(pipedInputStream, -1, PutObjectArgs.MIN_MULTIPART_SIZE)
-                            .contentType(APPLICATION_OCTET_STREAM_VALUE)
-                            .build();
-                    minioClient.putObject(args);
+                .doOnSuccess(updated -> log.debug("TUS upload {}: {} parts, offset {}", uploadId, updated.parts().size(), updated.size()))
+                .onErrorMap(e -> !(e instanceof StorageException), e -> {
+                    log.error("Failed to upload parts of TUS upload {}", uploadId, e);
+                    return new StorageException("MinIO appendTusData failed", e);
+                });
+    }
 
-                    // Get the actual size from MinIO after upload
-                    StatObjectResponse stat = minioClient.statObject(
-                            StatObjectArgs.builder()
-                                    .bucket(minioProperties.getBucketName())
-                                    .object(chunkObjectName)
-                                    .build());
-                    long chunkSize = stat.size();
-                    log.debug("Stored TUS chunk {} ({} bytes) to MinIO", chunkObjectName, chunkSize);
-                    return offset + chunkSize;
-                })
-                .subscribeOn(Schedulers.boundedElastic())
-                .doOnTerminate(() -> {
-                    try {
-                        pipedInputStream.close();
-                    } catch (IOException e) {
-                        log.warn("Error closing PipedInputStream for {}: {}", chunkObjectName, e.getMessage());
-                    }
+    @Override
+    public Mono<Void> completeTusUpload(String uploadId, TusStorageUpload upload) {
+        if (upload.multipartUploadId() == null) {
+            // Concatenated upload: the final object has been composed already
+            return Mono.empty();
+        }
+        if (upload.parts().isEmpty()) {
+            // S3 rejects a multipart upload without parts: an empty upload is stored with a single PutObject
+            return uploader.upload(upload.storagePath(), Flux.empty(), APPLICATION_OCTET_STREAM_VALUE, wormMode)
+                    .then(uploader.abortMultipartUpload(upload.storagePath(), upload.multipartUploadId()))
+                    .onErrorMap(e -> !(e instanceof StorageException), e -> new StorageException("MinIO completeTusUpload failed", e));
+        }
+        List<MinioMultipartUploader.UploadedPart> parts = upload.parts().stream()
+                .map(part -> new MinioMultipartUploader.UploadedPart(part.number(), part.etag(), part.size()))
+                .toList();
+        return uploader.completeMultipartUpload(upload.storagePath(), upload.multipartUploadId(), parts)
+                .doOnSuccess(size -> log.info("Completed TUS upload {} into {} ({} parts, {} bytes)",
+                        uploadId, upload.storagePath(), parts.size(), size))
+                .onErrorMap(e -> !(e instanceof StorageException), e -> {
+                    log.error("Failed to complete multipart upload of TUS upload {}", uploadId, e);
+                    return new StorageException("MinIO completeTusUpload failed", e);
                 })
-                .doOnError(e -> log.error("Failed to store TUS chunk {} to MinIO", chunkObjectName, e));
+                .then();
     }
 
+    /**
+     * Completes the multipart upload of every partial upload, then composes the resulting objects into the final
+     * object. S3 requires every source of a compose but the last one to be at least 5 MiB: when a partial upload
+     * is smaller, the partial objects are streamed into the final object instead.
+     */
     @Override
-    public Mono<Void> saveData(String storagePath, Flux<DataBuffer> data) {
-        // Use PipedInputStream/PipedOutputStream for streaming without loading all data into memory
-        PipedInputStream pipedInputStream = new PipedInputStream(pipedBufferSize);
-        PipedOutputStream pipedOutputStream;
-        try {
-            pipedOutputStream = new PipedOutputStream(pipedInputStream);
-        } catch (IOException e) {
-            log.error("Failed to create PipedOutputStream for saveData", e);
-            return Mono.error(e);
+    public Mono<TusStorageUpload> concatenateTusUploads(String uploadId, String filename, List<TusUploadMetadata> partials) {
+        String objectName = getUniqueStorageFileName(filename);
+        long size = partials.stream().mapToLong(TusUploadMetadata::length).sum();
+        List<TusUploadMetadata> sources = partials.stream().filter(partial -> partial.length() > 0).toList();
+        boolean composable = !sources.isEmpty() && sources.subList(0, sources.size() - 1).stream()
+                .allMatch(partial -> partial.length() >= MinioMultipartUploader.MIN_PART_SIZE);
+        Mono<Void> assemble = composable
+                ? composeObject(objectName, sources.stream().map(partial -> partial.storage().storagePath()).toList(), wormMode)
+                : uploader.upload(objectName, Flux.fromIterable(sources)
+                        .concatMap(partial -> getObjectRange(partial.storage().storagePath(), null, 0, partial.length())),
+                        APPLICATION_OCTET_STREAM_VALUE, wormMode).then();
+        return Flux.fromIterable(partials)
+                .flatMap(partial -> partial.length() > 0
+                        ? completeTusUpload(partial.uploadId(), partial.storage())
+                        : uploader.abortMultipartUpload(partial.storage().storagePath(), partial.storage().multipartUploadId()))
+                .then(assemble)
+                .thenMany(Flux.fromIterable(partials))
+                .flatMap(partial -> deleteFile(partial.storage().storagePath()))
+                .then(Mono.fromSupplier(() -> new TusStorageUpload(objectName, null, List.of(), size)))
+                .doOnSuccess(_ -> log.info("Concatenated {} partial uploads into TUS upload {} ({}, {} bytes)",
+                        partials.size(), uploadId, composable ? "composed" : "copied", size))
+                .onErrorMap(e -> !(e instanceof StorageException), e -> {
+                    log.error("Failed to concatenate partial uploads into TUS upload {}", uploadId, e);
+                    return new StorageException("MinIO concatenateTusUploads failed", e);
+                });
+    }
+
+    @Override
+    public Mono<Void> abortTusUpload(String uploadId, TusStorageUpload upload) {
+        if (upload.multipartUploadId() == null) {
+            // Concatenated upload: discard the composed object
+            return deleteFile(upload.storagePath());
         }
+        // The data object prefix also matches the object of a partial upload completed by a failed concatenation
+        return listFiles(getTusDataPath(uploadId))
+                .flatMap(this::deleteFile)
+                .then(uploader.abortMultipartUpload(upload.storagePath(), upload.multipartUploadId()));
+    }
 
-        // Write data from Flux to PipedOutputStream (runs in separate thread)
-        DataBufferUtils.write(data, pipedOutputStream)
-                .doOnNext(DataBufferUtils::release)
-                .doOnError(e -> {
-                    log.error("Error writing data to PipedOutputStream for {}", storagePath, e);
-                    try {
-                        pipedOutputStream.close();
-                    } catch (IOException ignored) {
-                    }
-                })
-                .doOnComplete(() -> {
-                    log.debug("Finished writing data to PipedOutputStream for {}", storagePath);
-                    try {
-                        pipedOutputStream.close();
-                    } catch (IOException e) {
-                        log.warn("Error closing PipedOutputStream for {}: {}", storagePath, e.getMessage());
-                    }
-                })
-                .subscribeOn(Schedulers.boundedElastic())
-                .subscribe();
+    private String getTusPendingPath(String uploadId, long endOffset) {
+        return getTusDataPath(uploadId) + TUS_PENDING_SUFFIX + endOffset;
+    }
 
-        // Upload to MinIO using streaming
-        return Mono.<Void>fromRunnable(() -> {
-                    try {
-                        log.debug("Starting MinIO putObject for {}", storagePath);
-                        PutObjectArgs args = PutObjectArgs.builder()
-                                .bucket(minioProperties.getBucketName())
-                                .object(storagePath)
-                                .stream(pipedInputStream, -1, PutObjectArgs.MIN_MULTIPART_SIZE)
-                                .contentType(APPLICATION_OCTET_STREAM_VALUE)
-                                .build();
-                        minioClient.putObject(args);
-                        log.debug("Saved data to MinIO: {}", storagePath);
-                    } catch (Exception e) {
-                        log.error("Error saving data to MinIO: {}", storagePath, e);
-                        throw new StorageException("MinIO saveData failed", e);
-                    }
+    @Override
+    public Mono<Void> saveData(String storagePath, Flux<DataBuffer> data) {
+        return uploader.upload(storagePath, data, APPLICATION_OCTET_STREAM_VALUE, false)
+                .doOnSubscribe(_ -> log.debug("Starting MinIO upload for {}", storagePath))
+                .doOnSuccess(_ -> log.debug("Saved data to MinIO: {}", storagePath))
+                .onErrorMap(e -> {
+                    log.error("Error saving data to MinIO: {}", storagePath, e);
+                    return new StorageException("MinIO saveData failed", e);
                 })
-                .subscribeOn(Schedulers.boundedElastic())
-                .doOnTerminate(() -> {
-                    try {
-                        pipedInputStream.close();
-                    } catch (IOException e) {
-                        log.warn("Error closing PipedInputStream for {}: {}", storagePath, e.getMessage());
-                    }
-                });
+                .then();
     }
 
     @Override
     public Mono<Void> moveFile(String sourcePath, String destPath) {
-        // For TUS finalization, sourcePath will be like "_tus/{uploadId}.bin"
-        // We need to compose all chunk objects into the destination
-        String chunkPrefix = sourcePath + ".chunk.";
+        return moveObject(sourcePath, destPath);
+    }
 
+    /**
+     * Moves an object with a server-side copy, then removes the source.
+     * A single-source compose is used so that objects larger than 5 GiB are copied part by part.
+     */
+    private Mono<Void> moveObject(String sourcePath, String destPath) {
         return Mono.fromCallable(() -> {
             try {
-                // List all chunk objects for this upload
-                List<String> chunkObjects = new ArrayList<>();
-                Iterable<Result<Item>> results = minioClient.listObjects(
-                        ListObjectsArgs.builder()
-                                .bucket(minioProperties.getBucketName())
-                                .prefix(chunkPrefix)
-                                .build());
-
-                for (Result<Item> result : results) {
-                    chunkObjects.add(result.get().objectName());
-                }
-
-                if (chunkObjects.isEmpty()) {
-                    // No chunks - this might be an empty file or error
-                    // Create an empty object at destination
-                    try (ByteArrayInputStream emptyStream = new ByteArrayInputStream(new byte[0])) {
-                        minioClient.putObject(PutObjectArgs.builder()
-                                .bucket(minioProperties.getBucketName())
-                                .object(destPath)
-                                .legalHold(wormMode)
-                                .stream(emptyStream, 0, -1)
-                                .build());
-                    }
-                    log.info("Created empty file at {} in MinIO", destPath);
-                    return null;
-                }
-
-                // Sort chunks by offset (extracted from object name)
-                chunkObjects.sort(Comparator.naturalOrder());
-
-                // Compose all chunks into the destination object
-                List<ComposeSource> sources = chunkObjects.stream()
-                        .map(obj -> ComposeSource.builder()
-                                .bucket(minioProperties.getBucketName())
-                                .object(obj)
-                                .build())
-                        .toList();
-
-                minioClient.composeObject(ComposeObjectArgs.builder()
+                minioClient.composeObject(composeObjectArgs(destPath, List.of(sourcePath), false));
+                minioClient.removeObject(RemoveObjectArgs.builder()
                         .bucket(minioProperties.getBucketName())
-                        .object(destPath)
-                        .sources(sources)
+                        .object(sourcePath)
                         .build());
-
-                log.info("Composed {} chunks into {} in MinIO", chunkObjects.size(), destPath);
-
-                // Delete chunk objects
-                for (String chunkObject : chunkObjects) {
-                    try {
-                        minioClient.removeObject(RemoveObjectArgs.builder()
-                                .bucket(minioProperties.getBucketName())
-                                .object(chunkObject)
-                                .build());
-                    } catch (Exception e) {
-                        log.warn("Error deleting chunk object {}: {}", chunkObject, e.getMessage());
-                    }
-                }
-
+                log.debug("Moved {} to {} in MinIO", sourcePath, destPath);
                 return null;
             } catch (Exception e) {
-                log.error("Error moving file from {} to {} in MinIO", sourcePath, destPath, e);
+                log.error("Error moving object from {} to {} in MinIO", sourcePath, destPath, e);
                 throw new StorageException("MinIO moveFile failed", e);
             }
         }).subscribeOn(Schedulers.boundedElastic()).then();
     }
 
+    /**
+     * Server-side concatenation of {@code sourcePaths} into {@code destPath}.
+     */
+    private Mono<Void> composeObject(String destPath, List<String> sourcePaths, boolean legalHold) {
+        return Mono.fromCallable(() -> minioClient.composeObject(composeObjectArgs(destPath, sourcePaths, legalHold)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnSuccess(_ -> log.debug("Composed {} objects into {} in MinIO", sourcePaths.size(), destPath))
+                .then();
+    }
+
+    private ComposeObjectArgs composeObjectArgs(String destPath, List<String> sourcePaths, boolean legalHold) {
+        return ComposeObjectArgs.builder()
+                .bucket(minioProperties.getBucketName())
+                .object(destPath)
+                .sources(sourcePaths.stream()
+                        .map(sourcePath -> ComposeSource.builder()
+                                .bucket(minioProperties.getBucketName())
+                                .object(sourcePath)
+                                .build())
+                        .toList())
+                .legalHold(legalHold)
+                .build();
+    }
+
     @Override
     public Mono<Void> deleteLatestVersion(String storagePath) {
         if (!minioProperties.isVersioningEnabled()) {
@@ -556,6 +609,11 @@ public class MinioStorageService implements StorageService {
         }).subscribeOn(Schedulers.boundedElastic());
     }
 
+    @Override
+    public Flux<DataBuffer> loadFileVersionRange(String storagePath, String versionId, long offset, long length) {
+        return getObjectRange(storagePath, versionId, offset, length);
+    }
+
     @Override
     public Mono<String> restoreFileVersion(String storagePath, String versionId) {
         return Mono.fromCallable(() -> {
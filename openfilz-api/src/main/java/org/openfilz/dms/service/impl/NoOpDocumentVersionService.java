@@ -3,6 +3,7 @@ package org.openfilz.dms.service.impl;
 import org.openfilz.dms.dto.response.DocumentVersionInfo;
 import org.openfilz.dms.dto.response.DownloadableVersion;
 import org.openfilz.dms.dto.response.RestoreVersionResponse;
+import org.openfilz.dms.dto.response.StreamableContent;
 import org.openfilz.dms.exception.VersioningDisabledException;
 import org.openfilz.dms.service.DocumentVersionService;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -33,6 +34,11 @@ public class NoOpDocumentVersionService implements DocumentVersionService {
         return Mono.error(new VersioningDisabledException());
     }
 
+    @Override
+    public Mono<StreamableContent> openVersionContent(UUID documentId, String versionId) {
+        return Mono.error(new VersioningDisabledException());
+    }
+
     @Override
     public Mono<RestoreVersionResponse> restoreVersion(UUID documentId, String versionId) {
         return Mono.error(new VersioningDisabledException());
@@ -10,10 +10,12 @@ import org.openfilz.dms.service.IndexService;
 import org.openfilz.dms.service.OpenSearchMetadataService;
 import org.openfilz.dms.utils.JsonUtils;
 import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.core.BulkRequest;
 import org.opensearch.client.opensearch.core.DeleteRequest;
 import org.opensearch.client.opensearch.core.IndexRequest;
 import org.opensearch.client.opensearch.core.IndexResponse;
 import org.opensearch.client.opensearch.core.UpdateRequest;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperties;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Lazy;
@@ -37,6 +39,7 @@ import java.util.*;
 public class OpenSearchIndexService implements IndexService {
 
     private static final int APPEND_RETRY_NUMBER = 3;
+    private static final int BULK_SIZE = 1000;
     private static final int MAX_INDEXED_CONTENT_LENGTH = 1_000_000; // ~1MB of text per document
 
     protected final OpenSearchAsyncClient openSearchAsyncClient;
@@ -86,6 +89,34 @@ public class OpenSearchIndexService implements IndexService {
     }
 
 
+    /**
+     * Deletes the documents with bulk requests of {@value #BULK_SIZE} operations instead of one request per document.
+     */
+    @Override
+    public Mono<Void> deleteDocuments(Collection<UUID> ids) {
+        return Flux.fromIterable(ids)
+                .map(id -> BulkOperation.of(op -> op.delete(delete -> delete
+                        .index(indexNameProvider.getIndexName(id))
+                        .id(id.toString()))))
+                .buffer(BULK_SIZE)
+                .concatMap(operations -> {
+                    try {
+                        return Mono.fromFuture(openSearchAsyncClient.bulk(BulkRequest.of(bulk -> bulk.operations(operations))));
+                    } catch (IOException e) {
+                        return Mono.error(e);
+                    }
+                })
+                .doOnNext(response -> {
+                    if (response.errors()) {
+                        response.items().stream()
+                                .filter(item -> item.error() != null)
+                                .forEach(item -> log.warn("Failed to delete document {} from the index: {}", item.id(), item.error().reason()));
+                    }
+                })
+                .then();
+    }
+
+
     public Object getValueToIndex(String key, Object value) {
         if(value == null) {
             return null;
@@ -0,0 +1,184 @@
+package org.openfilz.dms.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.OutboxPostProcessingCondition;
+import org.openfilz.dms.dto.PostProcessingEvent;
+import org.openfilz.dms.entity.Document;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.enums.PostProcessingEventType;
+import org.openfilz.dms.repository.PostProcessingOutboxDAO;
+import org.openfilz.dms.utils.JsonUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.openfilz.dms.enums.PostProcessingEventType.*;
+
+/**
+ * Post-processing in the {@code outbox} indexation mode: instead of being started once the transaction is committed,
+ * the post-processing of a change is recorded as events in the transaction of the change, then run and retried by the
+ * {@link org.openfilz.dms.scheduler.PostProcessingOutboxWorker}. It is thus neither lost if the instance stops, nor
+ * run for a change that was rolled back.
+ */
+@Slf4j
+@Service
+@Lazy
+@Conditional(OutboxPostProcessingCondition.class)
+public class OutboxMetadataPostProcessor extends DefaultMetadataPostProcessor {
+
+    /**
+     * Payload of the copy events: id of the copied document.
+     */
+    public static final String SOURCE_ID = "sourceId";
+
+    /**
+     * Payload of the field update events: key of the updated field, and value as JSON.
+     */
+    public static final String KEY = "key";
+    public static final String VALUE = "value";
+
+    @Autowired
+    private PostProcessingOutboxDAO outboxDAO;
+
+    @Autowired
+    private JsonUtils jsonUtils;
+
+    @Override
+    public void processDocument(Document document) {
+        enqueue(documentEvents(List.of(document)));
+    }
+
+    @Override
+    public void processMetadata(Document document) {
+        enqueue(metadataEvents(document));
+    }
+
+    @Override
+    public void copyIndex(UUID sourceFileId, Document createdDocument) {
+        enqueue(copyEvents(sourceFileId, createdDocument));
+    }
+
+    @Override
+    public void updateIndexField(Document document, String openSearchDocumentKey, Object value) {
+        enqueue(updateEvents(List.of(document.getId()), openSearchDocumentKey, value));
+    }
+
+    @Override
+    public void updateIndexField(UUID documentId, String openSearchDocumentKey, Object value) {
+        enqueue(updateEvents(List.of(documentId), openSearchDocumentKey, value));
+    }
+
+    @Override
+    public void deleteDocument(UUID id) {
+        enqueue(deleteEvents(List.of(id)));
+    }
+
+    @Override
+    public void deleteDocuments(Collection<UUID> ids) {
+        enqueue(deleteEvents(ids));
+    }
+
+    @Override
+    public Mono<Void> processDocumentsOnCommit(Collection<Document> documents) {
+        return outboxDAO.enqueue(documentEvents(documents));
+    }
+
+    @Override
+    public Mono<Void> processMetadataOnCommit(Document document) {
+        return outboxDAO.enqueue(metadataEvents(document));
+    }
+
+    @Override
+    public Mono<Void> copyIndexOnCommit(UUID sourceFileId, Document createdDocument) {
+        return outboxDAO.enqueue(copyEvents(sourceFileId, createdDocument));
+    }
+
+    @Override
+    public Mono<Void> updateIndexFieldOnCommit(Collection<UUID> documentIds, String openSearchDocumentKey, Object value) {
+        return outboxDAO.enqueue(updateEvents(documentIds, openSearchDocumentKey, value));
+    }
+
+    @Override
+    public Mono<Void> deleteDocumentsOnCommit(Collection<UUID> ids) {
+        return outboxDAO.enqueue(deleteEvents(ids));
+    }
+
+    /**
+     * Records events outside of a transaction, for the callers not running one.
+     */
+    private void enqueue(List<PostProcessingEvent> events) {
+        outboxDAO.enqueue(events)
+                .doOnError(e -> log.error("Failed to record {} post-processing events: {}", events.size(), e.getMessage()))
+                .onErrorComplete()
+                .subscribe();
+    }
+
+    private List<PostProcessingEvent> documentEvents(Collection<Document> documents) {
+        List<PostProcessingEvent> events = new ArrayList<>();
+        for (Document document : documents) {
+            boolean file = document.getType() == DocumentType.FILE;
+            if(fullText) {
+                events.add(PostProcessingEvent.create(INDEX_DOCUMENT, document.getId(), null));
+            }
+            if(thumbnails && file) {
+                events.add(PostProcessingEvent.create(GENERATE_THUMBNAIL, document.getId(), null));
+            }
+            // AI embedding: only when full-text is NOT active (otherwise, embedding
+            // is triggered from the FullTextService after Tika extraction to share the work)
+            if(aiActive && !fullText && file) {
+                events.add(PostProcessingEvent.create(EMBED_DOCUMENT, document.getId(), null));
+            }
+        }
+        return events;
+    }
+
+    private List<PostProcessingEvent> metadataEvents(Document document) {
+        return fullText ? List.of(PostProcessingEvent.create(INDEX_METADATA, document.getId(), null)) : List.of();
+    }
+
+    private List<PostProcessingEvent> copyEvents(UUID sourceFileId, Document createdDocument) {
+        List<PostProcessingEvent> events = new ArrayList<>();
+        Map<String, Object> source = Map.of(SOURCE_ID, sourceFileId.toString());
+        if(fullText) {
+            events.add(PostProcessingEvent.create(COPY_INDEX, createdDocument.getId(), jsonUtils.toJson(source)));
+        }
+        if(thumbnails) {
+            events.add(PostProcessingEvent.create(COPY_THUMBNAIL, createdDocument.getId(), jsonUtils.toJson(source)));
+        }
+        return events;
+    }
+
+    private List<PostProcessingEvent> updateEvents(Collection<UUID> documentIds, String openSearchDocumentKey, Object value) {
+        if(!fullText) {
+            return List.of();
+        }
+        Map<String, Object> field = new HashMap<>();
+        field.put(KEY, openSearchDocumentKey);
+        field.put(VALUE, value);
+        return documentIds.stream()
+                .map(id -> PostProcessingEvent.create(UPDATE_INDEX_FIELD, id, jsonUtils.toJson(field)))
+                .toList();
+    }
+
+    private List<PostProcessingEvent> deleteEvents(Collection<UUID> ids) {
+        List<PostProcessingEvent> events = new ArrayList<>();
+        for (UUID id : ids) {
+            if(fullText) {
+                events.add(PostProcessingEvent.create(DELETE_INDEX, id, null));
+            }
+            if(thumbnails) {
+                events.add(PostProcessingEvent.create(DELETE_THUMBNAIL, id, null));
+            }
+        }
+        return events;
+    }
+}
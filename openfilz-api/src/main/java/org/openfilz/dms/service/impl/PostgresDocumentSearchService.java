@@ -0,0 +1,37 @@
+package org.openfilz.dms.service.impl;
+
+import graphql.schema.DataFetchingEnvironment;
+import lombok.RequiredArgsConstructor;
+import org.openfilz.dms.dto.request.FilterInput;
+import org.openfilz.dms.dto.request.SortInput;
+import org.openfilz.dms.dto.response.DocumentSearchResult;
+import org.openfilz.dms.repository.DocumentContentSearchDAO;
+import org.openfilz.dms.service.DocumentSearchService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.openfilz.dms.security.JwtTokenParser.EMAIL;
+
+/**
+ * Search without OpenSearch: documents whose name or extracted content match the query, ranked by PostgreSQL.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperties(value = {
+        @ConditionalOnProperty(name = "openfilz.full-text.active", havingValue = "false", matchIfMissing = true),
+        @ConditionalOnProperty(name = "openfilz.full-text.postgres.active", havingValue = "true")
+})
+public class PostgresDocumentSearchService implements DocumentSearchService {
+
+    private final DocumentContentSearchDAO documentContentSearchDAO;
+
+    @Override
+    public Mono<DocumentSearchResult> search(String query, List<FilterInput> filters, SortInput sort, int page, int size, DataFetchingEnvironment environment) {
+        String email = environment != null ? environment.getGraphQlContext().get(EMAIL) : null;
+        return documentContentSearchDAO.search(query, filters, sort, page, size, email);
+    }
+}
@@ -0,0 +1,166 @@
+package org.openfilz.dms.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.FullTextProperties;
+import org.openfilz.dms.entity.Document;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.repository.DocumentContentSearchDAO;
+import org.openfilz.dms.service.DocumentEmbeddingService;
+import org.openfilz.dms.service.FullTextService;
+import org.openfilz.dms.service.StorageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Indexation for the search in PostgreSQL: the text of the uploaded files is extracted by Tika in the background
+ * and stored in document_contents. Names and metadata are searched in the documents table itself, so only the
+ * content needs indexing, and the content of a deleted document goes with its row.
+ */
+@Slf4j
+@Service
+@Lazy
+@ConditionalOnProperties({
+        @ConditionalOnProperty(name = "openfilz.full-text.active", havingValue = "false", matchIfMissing = true),
+        @ConditionalOnProperty(name = "openfilz.full-text.postgres.active", havingValue = "true")
+})
+public class PostgresFullTextServiceImpl implements FullTextService {
+
+    private final DocumentContentSearchDAO documentContentSearchDAO;
+    private final TikaService tikaService;
+    private final StorageService storageService;
+    private final int maxContentLength;
+
+    // @Lazy injection point: the embedding service bean is always defined now (the AI toggle
+    // is runtime-only for native images) but must not be CREATED unless AI is actually active
+    // — its dependency chain needs an EmbeddingModel that only exists when AI is on.
+    @Autowired(required = false)
+    @Lazy
+    private DocumentEmbeddingService documentEmbeddingService;
+
+    @Value("${openfilz.ai.active:false}")
+    private boolean aiActive;
+
+    public PostgresFullTextServiceImpl(DocumentContentSearchDAO documentContentSearchDAO, TikaService tikaService,
+                                       StorageService storageService, FullTextProperties fullTextProperties) {
+        this.documentContentSearchDAO = documentContentSearchDAO;
+        this.tikaService = tikaService;
+        this.storageService = storageService;
+        this.maxContentLength = fullTextProperties.getPostgres().getMaxContentLength();
+    }
+
+    @Override
+    public void indexDocument(Document document) {
+        indexDocumentMono(document)
+                .doOnError(err -> log.error("indexContent error for {} : {}", document.getId(), err.getMessage()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+    }
+
+    @Override
+    public Mono<Void> indexDocumentMono(Document document) {
+        if(document.getType() == DocumentType.FILE && document.getSize() != null && document.getSize() > 0
+                && LocalFullTextServiceImpl.isTextExtractable(document.getContentType())) {
+            return indexContent(document);
+        }
+        return Mono.empty();
+    }
+
+    private Mono<Void> indexContent(Document document) {
+        return Mono.defer(() -> {
+            Path tempFile;
+            try {
+                tempFile = Files.createTempFile("upload-opf", ".tmp");
+            } catch (IOException e) {
+                return Mono.error(e);
+            }
+            // When AI embedding is active, the whole text is kept to reuse it for vector embedding
+            boolean shareWithAi = aiActive && documentEmbeddingService != null;
+            StringBuilder text = new StringBuilder();
+            return tikaService.processResource(tempFile, storageService.loadFile(document.getStoragePath()))
+                    .doOnNext(chunk -> {
+                        if(shareWithAi) {
+                            text.append(chunk);
+                        } else if(text.length() < maxContentLength) {
+                            text.append(chunk, 0, Math.min(chunk.length(), maxContentLength - text.length()));
+                        }
+                    })
+                    .then(Mono.defer(() -> documentContentSearchDAO.saveContent(document.getId(), toContent(text))))
+                    .then(Mono.defer(() -> {
+                        if(!shareWithAi || text.isEmpty()) {
+                            return Mono.<Void>empty();
+                        }
+                        log.debug("[AI-EMBED] Sharing Tika-extracted text with AI embedding for '{}' ({} chars)",
+                                document.getName(), text.length());
+                        return documentEmbeddingService.embedFromText(document, text.toString())
+                                .doOnError(err -> log.error("[AI-EMBED] embedding error for {} : {}", document.getId(), err.getMessage()))
+                                .onErrorComplete();
+                    }))
+                    .doFinally(_ -> {
+                        try {
+                            Files.deleteIfExists(tempFile);
+                        } catch (IOException e) {
+                            log.error("Failed to clean up stable temp file [{}].", tempFile, e);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Text stored for the search: at most max-content-length characters, without the NUL characters PostgreSQL
+     * rejects in text values.
+     */
+    private String toContent(StringBuilder text) {
+        String content = text.length() > maxContentLength ? text.substring(0, maxContentLength) : text.toString();
+        return content.replace("\u0000", "");
+    }
+
+    @Override
+    public void indexDocumentMetadata(Document document) {
+        // Metadata are searched in the documents table
+    }
+
+    @Override
+    public void copyIndex(UUID sourceFileId, Document createdDocument) {
+        copyIndexMono(sourceFileId, createdDocument)
+                .doOnError(err ->
+                        log.error("copyIndex error for {} : {}", createdDocument.getId(), err.getMessage()))
+                .subscribe();
+    }
+
+    @Override
+    public Mono<Void> copyIndexMono(UUID sourceFileId, Document createdDocument) {
+        return documentContentSearchDAO.copyContent(sourceFileId, createdDocument.getId());
+    }
+
+    @Override
+    public void updateIndexField(Document document, String openSearchDocumentKey, Object value) {
+        // Names, parents and metadata are searched in the documents table
+    }
+
+    @Override
+    public void updateIndexField(UUID documentId, String openSearchDocumentKey, Object value) {
+        // Names, parents and metadata are searched in the documents table
+    }
+
+    @Override
+    public void deleteDocument(UUID id) {
+        // document_contents rows are deleted with their document
+    }
+
+    @Override
+    public void deleteDocuments(Collection<UUID> ids) {
+        // document_contents rows are deleted with their document
+    }
+}
@@ -9,7 +9,6 @@ import org.openfilz.dms.enums.AuditAction;
 import org.openfilz.dms.enums.DocumentType;
 import org.openfilz.dms.enums.OpenSearchDocumentKey;
 import org.openfilz.dms.exception.DocumentNotFoundException;
-import org.openfilz.dms.exception.UserQuotaExceededException;
 import org.openfilz.dms.repository.DocumentDAO;
 import org.openfilz.dms.repository.DocumentRepository;
 import org.openfilz.dms.repository.impl.DocumentSoftDeleteDAO;
@@ -17,6 +16,7 @@ import org.openfilz.dms.service.AuditService;
 import org.openfilz.dms.service.MetadataPostProcessor;
 import org.openfilz.dms.service.RecycleBinService;
 import org.openfilz.dms.service.StorageService;
+import org.openfilz.dms.service.UserQuotaService;
 import org.openfilz.dms.utils.UserInfoService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
@@ -46,6 +46,7 @@ public class RecycleBinServiceImpl implements RecycleBinService, UserInfoService
     private final AuditService auditService;
     private final TransactionalOperator tx;
     private final QuotaProperties quotaProperties;
+    private final UserQuotaService userQuotaService;
 
     @Override
     public Flux<FolderElementInfo> listDeletedItems() {
@@ -54,28 +55,14 @@ public class RecycleBinServiceImpl implements RecycleBinService, UserInfoService
 
     @Override
     public Mono<Void> restoreItems(List<UUID> documentIds) {
-        Mono<Void> quotaCheck = Mono.empty();
-
-        if (quotaProperties.isUserQuotaEnabled()) {
-            Long maxQuota = quotaProperties.getUserQuotaInBytes();
-            quotaCheck = getConnectedUserEmail()
-                    .flatMap(username -> Mono.zip(
-                            documentDAO.getTotalStorageByUser(username),
-                            Flux.fromIterable(documentIds)
-                                    .flatMap(documentSoftDeleteDAO::getTotalSizeToRestore)
-                                    .reduce(0L, Long::sum)
-                    ).flatMap(tuple -> {
-                        long currentUsage = tuple.getT1();
-                        long restoreSize = tuple.getT2();
-                        if (currentUsage + restoreSize > maxQuota) {
-                            return Mono.error(new UserQuotaExceededException(
-                                    username, currentUsage, restoreSize, maxQuota));
-                        }
-                        return Mono.empty();
-                    }));
-        }
-
-        return quotaCheck.then(Flux.fromIterable(documentIds)
+        // The restored files are reserved on the user quota until they count as used again
+        Mono<Long> restoreSize = quotaProperties.isUserQuotaEnabled()
+                ? Flux.fromIterable(documentIds)
+                        .flatMap(documentSoftDeleteDAO::getTotalSizeToRestore)
+                        .reduce(0L, Long::sum)
+                : Mono.just(0L);
+
+        return restoreSize.flatMap(size -> userQuotaService.withReservation(size, Flux.fromIterable(documentIds)
                 .flatMap(docId -> documentRepository.findById(docId) // Find even if deleted
                         .switchIfEmpty(Mono.error(new DocumentNotFoundException(docId)))
                         .flatMap(doc -> {
@@ -86,19 +73,19 @@ public class RecycleBinServiceImpl implements RecycleBinService, UserInfoService
                             if (type == FOLDER) {
                                 return documentSoftDeleteDAO.restoreRecursive(docId)
                                         .then(auditService.logAction(action, type, docId))
-                                        .as(tx::transactional)
                                         .thenMany(documentSoftDeleteDAO.findDescendantIds(docId))
-                                        .doOnNext(id -> metadataPostProcessor.updateIndexField(id, ACTIVE_KEY, true))
-                                        .then();
+                                        .collectList()
+                                        .flatMap(ids -> metadataPostProcessor.updateIndexFieldOnCommit(ids, ACTIVE_KEY, true))
+                                        .as(tx::transactional);
                             }
 
                             return documentSoftDeleteDAO.restore(docId)
                                     .then(auditService.logAction(action, type, docId))
-                                    .as(tx::transactional)
-                                    .doOnSuccess(_ -> metadataPostProcessor.updateIndexField(doc, ACTIVE_KEY, true));
+                                    .then(metadataPostProcessor.updateIndexFieldOnCommit(List.of(docId), ACTIVE_KEY, true))
+                                    .as(tx::transactional);
                         })
                 )
-                .then());
+                .then()));
     }
 
     @Override
@@ -123,16 +110,16 @@ public class RecycleBinServiceImpl implements RecycleBinService, UserInfoService
             return storageService.deleteFile(document.getStoragePath())
                     .then(documentSoftDeleteDAO.permanentDelete(docId))
                     .then(auditService.logAction(action, type, docId))
-                    .as(tx::transactional)
-                    .doOnSuccess(_ -> metadataPostProcessor.deleteDocument(docId));
+                    .then(metadataPostProcessor.deleteDocumentsOnCommit(List.of(docId)))
+                    .as(tx::transactional);
         } else {
             // For folders, recursively delete all children first
             return documentRepository.findByParentId(docId)
                     .flatMap(child -> permanentlyDeleteDocumentRecursive(child, userId))
                     .then(documentSoftDeleteDAO.permanentDelete(docId))
                     .then(auditService.logAction(action, type, docId))
-                    .as(tx::transactional)
-                    .doOnSuccess(_ -> metadataPostProcessor.deleteDocument(docId));
+                    .then(metadataPostProcessor.deleteDocumentsOnCommit(List.of(docId)))
+                    .as(tx::transactional);
         }
     }
 
@@ -3,6 +3,7 @@ package org.openfilz.dms.service.impl;
 import tools.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.openfilz.dms.config.QuotaProperties;
+import org.openfilz.dms.dto.StoredFile;
 import org.openfilz.dms.dto.audit.ReplaceAudit;
 import org.openfilz.dms.dto.audit.UploadAudit;
 import org.openfilz.dms.dto.response.UploadResponse;
@@ -15,6 +16,7 @@ import org.openfilz.dms.service.AuditService;
 import org.openfilz.dms.service.MetadataPostProcessor;
 import org.openfilz.dms.service.SaveDocumentService;
 import org.openfilz.dms.service.StorageService;
+import org.openfilz.dms.service.UserQuotaService;
 import org.openfilz.dms.utils.FileUtils;
 import org.openfilz.dms.utils.ContentInfo;
 import org.openfilz.dms.utils.JsonUtils;
@@ -46,14 +48,20 @@ public class SaveDocumentServiceImpl implements SaveDocumentService, UserInfoSer
     protected final MetadataPostProcessor metadataPostProcessor;
     protected final TransactionalOperator tx;
     protected final QuotaProperties quotaProperties;
+    protected final UserQuotaService userQuotaService;
 
 
-   public Mono<UploadResponse> doSaveFile(FilePart filePart, Long contentLength, UUID parentFolderId, Map<String, Object> metadata, String originalFilename, Mono<String> storagePathMono) {
-        return storagePathMono.flatMap(storagePath -> saveDocumentInDatabase(filePart, contentLength, parentFolderId, metadata, originalFilename, storagePath))
+    @Override
+    public Mono<StoredFile> storeFile(FilePart filePart) {
+        return storageService.saveFile(filePart).map(StoredFile::of);
+    }
+
+   public Mono<UploadResponse> doSaveFile(FilePart filePart, Long contentLength, UUID parentFolderId, Map<String, Object> metadata, String originalFilename, Mono<StoredFile> storedFileMono) {
+        return storedFileMono.flatMap(storedFile -> saveDocumentInDatabase(filePart, contentLength, parentFolderId, metadata, originalFilename, storedFile.storagePath()))
                 .flatMap(savedDoc -> logUploadAction(savedDoc, parentFolderId, metadata).thenReturn(savedDoc))
+                .flatMap(savedDoc -> postProcessDocument(savedDoc).thenReturn(savedDoc))
                 .as(tx::transactional)
-                .flatMap(savedDoc -> Mono.just(new UploadResponse(savedDoc.getId(), savedDoc.getName(), savedDoc.getContentType(), savedDoc.getSize()))
-                        .doOnSuccess(_ -> postProcessDocument(savedDoc)));
+                .map(savedDoc -> new UploadResponse(savedDoc.getId(), savedDoc.getName(), savedDoc.getContentType(), savedDoc.getSize()));
     }
 
     /**
@@ -68,21 +76,20 @@ public class SaveDocumentServiceImpl implements SaveDocumentService, UserInfoSer
                 .flatMap(details -> auditService.logAction(AuditAction.UPLOAD_DOCUMENT, FILE, savedDoc.getId(), details));
     }
 
-    protected void postProcessDocument(Document document) {
-        metadataPostProcessor.processDocument(document);
+    protected Mono<Void> postProcessDocument(Document document) {
+        return metadataPostProcessor.processDocumentOnCommit(document);
     }
 
     protected Mono<Document> replaceFileContentAndSave(FilePart newFilePart, ContentInfo contentInfo, Document document, String newStoragePath, String oldStoragePath) {
         if(contentInfo == null || contentInfo.length() == null) {
             // Content-Length was not provided - get actual size from storage and validate quota
             return storageService.getFileLength(newStoragePath)
-                    .flatMap(fileLength -> validateFileSizeAfterStorage(fileLength, newFilePart.filename(), newStoragePath)
-                            .then(replaceDocumentInDB(newFilePart,
-                                    newStoragePath, oldStoragePath, new ContentInfo(fileLength, contentInfo != null ? contentInfo.checksum() : null), document)))
-                    .doOnSuccess(this::postProcessDocument);
+                    .flatMap(fileLength -> validateFileUploadQuota(fileLength, newFilePart.filename(), newStoragePath)
+                            .then(withReservationAfterStorage(DocumentServiceImpl.getQuotaIncrease(fileLength, document.getSize()), newStoragePath,
+                                    Mono.defer(() -> replaceDocumentInDB(newFilePart,
+                                            newStoragePath, oldStoragePath, new ContentInfo(fileLength, contentInfo != null ? contentInfo.checksum() : null), document)))));
         }
-        return replaceDocumentInDB(newFilePart, newStoragePath, oldStoragePath, contentInfo, document)
-                .doOnSuccess(this::postProcessDocument);
+        return replaceDocumentInDB(newFilePart, newStoragePath, oldStoragePath, contentInfo, document);
     }
 
     public Mono<Document> saveAndReplaceDocument(FilePart newFilePart, ContentInfo contentInfo, Document document, String oldStoragePath) {
@@ -97,21 +104,13 @@ public class SaveDocumentServiceImpl implements SaveDocumentService, UserInfoSer
         if(contentLength == null) {
             // Content-Length was not provided - get actual size from storage and validate quota
             return storageService.getFileLength(storagePath)
-                    .flatMap(fileLength -> validateFileSizeAfterStorage(fileLength, originalFilename, storagePath)
-                            .then(saveDocumentInDB(filePart, storagePath, fileLength, parentFolderId, metadata, originalFilename)));
+                    .flatMap(fileLength -> validateFileUploadQuota(fileLength, originalFilename, storagePath)
+                            .then(withReservationAfterStorage(fileLength, storagePath,
+                                    Mono.defer(() -> saveDocumentInDB(filePart, storagePath, fileLength, parentFolderId, metadata, originalFilename)))));
         }
         return saveDocumentInDB(filePart, storagePath, contentLength, parentFolderId, metadata, originalFilename);
     }
 
-    /**
-     * Validates file size and user quota after storage when Content-Length header was not available.
-     * If any quota is exceeded, deletes the stored file and returns an error.
-     */
-    private Mono<Void> validateFileSizeAfterStorage(Long fileLength, String filename, String storagePath) {
-        return validateFileUploadQuota(fileLength, filename, storagePath)
-                .then(validateUserQuotaAfterStorage(fileLength, storagePath));
-    }
-
     /**
      * Validates file upload quota (single file size limit).
      */
@@ -129,23 +128,13 @@ public class SaveDocumentServiceImpl implements SaveDocumentService, UserInfoSer
     }
 
     /**
-     * Validates user quota after storage when Content-Length was not available.
+     * Reserves the stored content on the user quota when Content-Length was not available.
+     * If the user quota is exceeded, deletes the stored file and returns an error.
      */
-    private Mono<Void> validateUserQuotaAfterStorage(Long fileLength, String storagePath) {
-        if (!quotaProperties.isUserQuotaEnabled()) {
-            return Mono.empty();
-        }
-        Long maxQuota = quotaProperties.getUserQuotaInBytes();
-        return getConnectedUserEmail()
-                .flatMap(username -> documentDAO.getTotalStorageByUser(username)
-                        .flatMap(currentUsage -> {
-                            if (currentUsage + fileLength > maxQuota) {
-                                // Delete the file that was already stored, then return error
-                                return storageService.deleteFile(storagePath)
-                                        .then(Mono.error(new UserQuotaExceededException(username, currentUsage, fileLength, maxQuota)));
-                            }
-                            return Mono.empty();
-                        }));
+    private <T> Mono<T> withReservationAfterStorage(Long size, String storagePath, Mono<T> operation) {
+        return userQuotaService.withReservation(size, operation)
+                .onErrorResume(UserQuotaExceededException.class, e -> storageService.deleteFile(storagePath)
+                        .then(Mono.error(e)));
     }
 
     private Mono<Document> saveDocumentInDB(FilePart filePart, String storagePath, Long contentLength, UUID parentFolderId, Map<String, Object> metadata, String originalFilename) {
@@ -198,6 +187,7 @@ public class SaveDocumentServiceImpl implements SaveDocumentService, UserInfoSer
                         .map(versionId -> new ReplaceAudit(newFilePart.filename(), versionId))
                         .defaultIfEmpty(new ReplaceAudit(newFilePart.filename()))
                         .flatMap(details -> auditService.logAction(REPLACE_DOCUMENT_CONTENT, FILE, updatedDoc.getId(), details)))
+                .then(Mono.defer(() -> postProcessDocument(document)))
                 .as(tx::transactional)
                 .thenReturn(document);
 
@@ -6,6 +6,7 @@ import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.service.ThumbnailService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.util.UUID;
 
@@ -36,26 +37,33 @@ public class ThumbnailPostProcessor {
         if (document == null) {
             return;
         }
+        generateThumbnail(document)
+            .onErrorComplete()
+            .subscribe();
+    }
 
+    /**
+     * Generates the thumbnail of the document, completing once it is stored, with the error of the generation if
+     * it failed.
+     *
+     * @param document the uploaded/replaced document
+     */
+    public Mono<Void> generateThumbnail(Document document) {
         if (!thumbnailService.isSupported(document.getContentType())) {
             log.debug("Thumbnail generation not supported for document: {} (type: {})",
                 document.getId(), document.getContentType());
             // The content type can't produce a thumbnail. On a content replace/restore to an
             // unsupported type this must remove any thumbnail left over from a previous version,
             // otherwise the stale image keeps being served. No-op on a fresh upload.
-            thumbnailService.deleteThumbnail(document.getId())
-                .doOnError(e -> log.warn("Failed to delete stale thumbnail for document: {}", document.getId(), e))
-                .subscribe();
-            return;
+            return thumbnailService.deleteThumbnail(document.getId())
+                .doOnError(e -> log.warn("Failed to delete stale thumbnail for document: {}", document.getId(), e));
         }
 
         log.debug("Triggering thumbnail generation for document: {}", document.getId());
 
-        // Fire-and-forget async generation
-        thumbnailService.generateThumbnail(document)
+        return thumbnailService.generateThumbnail(document)
             .doOnSuccess(v -> log.info("Thumbnail generation completed for document: {}", document.getId()))
-            .doOnError(e -> log.error("Thumbnail generation failed for document: {}", document.getId(), e))
-            .subscribe();
+            .doOnError(e -> log.error("Thumbnail generation failed for document: {}", document.getId(), e));
     }
 
     /**
@@ -68,13 +76,22 @@ public class ThumbnailPostProcessor {
         if (documentId == null) {
             return;
         }
+        deleteThumbnail(documentId)
+            .onErrorComplete()
+            .subscribe();
+    }
 
+    /**
+     * Deletes the thumbnail of a deleted document, completing once deleted.
+     *
+     * @param documentId the deleted document ID
+     */
+    public Mono<Void> deleteThumbnail(UUID documentId) {
         log.debug("Deleting thumbnail for document: {}", documentId);
 
-        thumbnailService.deleteThumbnail(documentId)
+        return thumbnailService.deleteThumbnail(documentId)
             .doOnSuccess(v -> log.debug("Thumbnail deleted for document: {}", documentId))
-            .doOnError(e -> log.warn("Failed to delete thumbnail for document: {}", documentId, e))
-            .subscribe();
+            .doOnError(e -> log.warn("Failed to delete thumbnail for document: {}", documentId, e));
     }
 
     /**
@@ -88,12 +105,22 @@ public class ThumbnailPostProcessor {
         if (sourceId == null || targetId == null) {
             return;
         }
+        copyThumbnail(sourceId, targetId)
+            .onErrorComplete()
+            .subscribe();
+    }
 
+    /**
+     * Copies the thumbnail from source to target document, completing once copied.
+     *
+     * @param sourceId source document ID
+     * @param targetId target document ID
+     */
+    public Mono<Void> copyThumbnail(UUID sourceId, UUID targetId) {
         log.debug("Copying thumbnail from {} to {}", sourceId, targetId);
 
-        thumbnailService.copyThumbnail(sourceId, targetId)
+        return thumbnailService.copyThumbnail(sourceId, targetId)
             .doOnSuccess(v -> log.debug("Thumbnail copied from {} to {}", sourceId, targetId))
-            .doOnError(e -> log.warn("Failed to copy thumbnail from {} to {}", sourceId, targetId, e))
-            .subscribe();
+            .doOnError(e -> log.warn("Failed to copy thumbnail from {} to {}", sourceId, targetId, e));
     }
 }
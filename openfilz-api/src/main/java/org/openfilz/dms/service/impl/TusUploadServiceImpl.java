@@ -1,11 +1,11 @@
 package org.openfilz.dms.service.impl;
 
-import tools.jackson.core.JacksonException;
-import tools.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.openfilz.dms.config.QuotaProperties;
 import org.openfilz.dms.config.TusProperties;
+import org.openfilz.dms.dto.Checksum;
+import org.openfilz.dms.dto.TusStorageUpload;
 import org.openfilz.dms.dto.TusUploadMetadata;
 import org.openfilz.dms.dto.audit.UploadAudit;
 import org.openfilz.dms.dto.request.TusFinalizeRequest;
@@ -16,31 +16,35 @@ import org.openfilz.dms.enums.AccessType;
 import org.openfilz.dms.enums.AuditAction;
 import org.openfilz.dms.exception.*;
 import org.openfilz.dms.repository.DocumentDAO;
+import org.openfilz.dms.repository.TusUploadDAO;
 import org.openfilz.dms.service.AuditService;
+import org.openfilz.dms.service.ChecksumService;
 import org.openfilz.dms.service.MetadataPostProcessor;
 import org.openfilz.dms.service.StorageService;
 import org.openfilz.dms.service.TusUploadService;
+import org.openfilz.dms.service.UserQuotaService;
+import org.openfilz.dms.utils.ContentDigest;
 import org.openfilz.dms.utils.ContentTypeMapper;
 import org.openfilz.dms.utils.JsonUtils;
 import org.openfilz.dms.utils.UserInfoService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.openfilz.dms.enums.DocumentType.FILE;
 import static org.openfilz.dms.enums.DocumentType.FOLDER;
@@ -50,9 +54,14 @@ import static org.openfilz.dms.enums.DocumentType.FOLDER;
  * Uses StorageService for all storage operations, making it work with both
  * FileSystem and MinIO/S3 backends.
  *
- * Upload data is stored using StorageService:
- * - _tus/{uploadId}.bin - the actual file data (or chunk objects for MinIO)
- * - _tus/{uploadId}.json - metadata (length, offset, expiration, etc.)
+ * Upload data is stored using StorageService in _tus/{uploadId}.bin (MinIO: parts of a native multipart
+ * upload on the final object). The upload state (length, offset, owner, expiration, storage state) is
+ * kept in the tus_uploads table: reading an upload is a primary key lookup, offsets are advanced with a
+ * compare-and-set on the expected offset, and expired uploads are found through the expires_at index.
+ *
+ * When checksums are enabled, the SHA-256 of the upload is computed chunk by chunk while the data
+ * is appended; the stored object is only read back when the running digest is not available on
+ * this instance (restart, or chunks received by another node).
  */
 @Slf4j
 @Service
@@ -68,13 +77,35 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
     private final JsonUtils jsonUtils;
     private final MetadataPostProcessor metadataPostProcessor;
     private final TransactionalOperator tx;
-    private final ObjectMapper objectMapper;
+    private final TusUploadDAO tusUploadDAO;
+    private final ObjectProvider<ChecksumService> checksumServiceProvider;
+    private final UserQuotaService userQuotaService;
+
+    @Value("${openfilz.calculate-checksum:false}")
+    private Boolean calculateChecksum;
+
+    /**
+     * Running SHA-256 of an upload and the offset it covers up to: chunks of the same upload may be received
+     * by other instances, so a digest is only used while its offset is the offset of the upload.
+     */
+    private record UploadDigest(long offset, ContentDigest digest) {
+    }
+
+    /**
+     * A chunk written to storage, with the running digest of the upload including it (null when not hashed).
+     */
+    private record AppendedChunk(TusStorageUpload storage, ContentDigest digest) {
+    }
+
+    /**
+     * Running SHA-256 of each in-progress upload, keyed by uploadId.
+     */
+    private final Map<String, UploadDigest> uploadDigests = new ConcurrentHashMap<>();
 
     @Override
     public Mono<Void> validateUploadCreation(Long uploadLength, String filename, UUID parentFolderId, Boolean allowDuplicateFileNames) {
         String effectiveFilename = filename != null ? filename : "upload";
         return validateFileUploadQuota(uploadLength, effectiveFilename)
-                .then(validateUserQuota(uploadLength))
                 .then(validateParentFolder(parentFolderId))
                 .then(validateDuplicateName(effectiveFilename, parentFolderId, allowDuplicateFileNames));
     }
@@ -87,32 +118,119 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
         Map<String, String> parsedMetadata = parseMetadataHeader(metadata);
 
         return getConnectedUserEmail().flatMap(email -> {
-            // Create metadata record
-            TusUploadMetadata uploadMetadata = TusUploadMetadata.create(
-                    uploadId,
-                    uploadLength,
-                    tusProperties.getUploadExpirationPeriod(),
-                    parsedMetadata,
-                    email
-            );
-
-            String dataPath = storageService.getTusDataPath(uploadId);
-            String metaPath = storageService.getTusMetadataPath(uploadId);
-
-            log.debug("Creating TUS upload: dataPath={}, metaPath={}", dataPath, metaPath);
-
-            // Create empty data file and write metadata
-            return storageService.createEmptyFile(dataPath)
-                    .doOnSuccess(v -> log.debug("Created empty data file: {}", dataPath))
-                    .doOnError(e -> log.error("Failed to create empty data file: {}", dataPath, e))
-                    .then(storageService.saveData(metaPath, serializeToDataBufferFlux(uploadMetadata)))
-                    .doOnSuccess(v -> log.info("Created TUS upload: {} (dataPath={}, metaPath={})", uploadId, dataPath, metaPath))
-                    .doOnError(e -> log.error("Failed to save TUS metadata: {}", metaPath, e))
+            log.debug("Creating TUS upload: uploadId={}", uploadId);
+
+            // Reserve the upload on the user quota until it is finalized or expires,
+            // prepare the storage of the data, then register the upload
+            return reserveQuota(uploadId, uploadLength)
+                    .then(storageService.createTusUpload(uploadId, getFilename(parsedMetadata)))
+                    .doOnSuccess(storage -> log.debug("Prepared storage of TUS upload {}: {}", uploadId, storage.storagePath()))
+                    .doOnError(e -> log.error("Failed to prepare storage of TUS upload: {}", uploadId, e))
+                    .flatMap(storage -> tusUploadDAO.create(TusUploadMetadata.create(
+                            uploadId,
+                            uploadLength,
+                            tusProperties.getUploadExpirationPeriod(),
+                            parsedMetadata,
+                            email,
+                            storage)))
+                    .doOnSuccess(v -> log.info("Created TUS upload: {}", uploadId))
+                    .doOnError(e -> log.error("Failed to register TUS upload: {}", uploadId, e))
+                    .onErrorResume(e -> releaseQuota(uploadId).then(Mono.error(e)))
                     .thenReturn(uploadId);
         });
 
     }
 
+    @Override
+    public Mono<String> createPartialUpload(Long uploadLength, String metadata) {
+        String uploadId = UUID.randomUUID().toString();
+        Map<String, String> parsedMetadata = parseMetadataHeader(metadata);
+
+        // A part larger than the maximum file size can never be assembled into a valid file. The part is reserved on
+        // the user quota on its own, its reservation being merged into the one of the final upload
+        return validateFileUploadQuota(uploadLength, getFilename(parsedMetadata))
+                .then(getConnectedUserEmail())
+                .flatMap(email -> reserveQuota(uploadId, uploadLength)
+                        .then(storageService.createTusPartialUpload(uploadId))
+                        .flatMap(storage -> tusUploadDAO.create(TusUploadMetadata.create(
+                                uploadId,
+                                uploadLength,
+                                tusProperties.getUploadExpirationPeriod(),
+                                parsedMetadata,
+                                email,
+                                storage,
+                                TusUploadMetadata.CONCAT_PARTIAL)))
+                        .doOnSuccess(v -> log.info("Created TUS partial upload: {}", uploadId))
+                        .doOnError(e -> log.error("Failed to create TUS partial upload: {}", uploadId, e))
+                        .onErrorResume(e -> releaseQuota(uploadId).then(Mono.error(e)))
+                        .thenReturn(uploadId));
+    }
+
+    @Override
+    public Mono<Long> getConcatenatedLength(List<String> partialUploadIds) {
+        return loadPartialUploads(partialUploadIds)
+                .map(partials -> partials.stream().mapToLong(TusUploadMetadata::length).sum());
+    }
+
+    @Override
+    public Mono<String> concatenateUploads(List<String> partialUploadIds, String concat, String metadata) {
+        String uploadId = UUID.randomUUID().toString();
+        Map<String, String> parsedMetadata = parseMetadataHeader(metadata);
+
+        // In one transaction: claim the partial uploads, so that a concurrent request cannot assemble them too,
+        // merge their quota reservations into the one of the final upload, assemble the content in storage,
+        // then register the final upload. Nothing is committed if the content cannot be assembled
+        return loadPartialUploads(partialUploadIds)
+                .zipWith(getConnectedUserEmail())
+                .flatMap(tuple -> {
+                    List<TusUploadMetadata> partials = tuple.getT1();
+                    return tusUploadDAO.delete(partialUploadIds)
+                            .flatMap(deleted -> deleted < partials.size()
+                                    ? Mono.error(new TusUploadException("Partial uploads were already concatenated: " + partialUploadIds))
+                                    : userQuotaService.merge(partialUploadIds, uploadId,
+                                            Instant.now().plusMillis(tusProperties.getUploadExpirationPeriod())))
+                            .then(storageService.concatenateTusUploads(uploadId, getFilename(parsedMetadata), partials))
+                            .flatMap(storage -> tusUploadDAO.create(TusUploadMetadata.create(
+                                            uploadId,
+                                            storage.size(),
+                                            tusProperties.getUploadExpirationPeriod(),
+                                            parsedMetadata,
+                                            tuple.getT2(),
+                                            storage,
+                                            concat))
+                                    // The partial data is gone: do not leave the assembled one behind either
+                                    .onErrorResume(e -> storageService.abortTusUpload(uploadId, storage)
+                                            .onErrorComplete()
+                                            .then(Mono.error(e))))
+                            .as(tx::transactional)
+                            .doOnSuccess(v -> partialUploadIds.forEach(uploadDigests::remove));
+                })
+                .doOnSuccess(v -> log.info("Concatenated {} partial uploads into TUS upload {}", partialUploadIds.size(), uploadId))
+                .thenReturn(uploadId);
+    }
+
+    /**
+     * Partial uploads of the connected user, in the given order, all complete.
+     */
+    private Mono<List<TusUploadMetadata>> loadPartialUploads(List<String> partialUploadIds) {
+        if (partialUploadIds.isEmpty() || partialUploadIds.stream().distinct().count() != partialUploadIds.size()) {
+            return Mono.error(new TusUploadException("A final upload must concatenate distinct partial uploads"));
+        }
+        return Flux.fromIterable(partialUploadIds)
+                .concatMap(this::loadMetadata)
+                .concatMap(meta -> {
+                    if (!meta.isPartial()) {
+                        return Mono.error(new TusUploadException("Upload " + meta.uploadId() + " is not a partial upload"));
+                    }
+                    if (!meta.isComplete()) {
+                        return Mono.error(new TusUploadException("Partial upload " + meta.uploadId() + " is not complete. Offset: "
+                                + meta.offset() + ", Expected: " + meta.length()));
+                    }
+                    return Mono.just(meta);
+                })
+                .collectList();
+    }
+
     @Override
     public Mono<TusUploadInfo> getUploadInfo(String uploadId, String baseUrl) {
         return loadMetadata(uploadId)
@@ -121,7 +239,8 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
                         meta.offset(),
                         meta.length(),
                         OffsetDateTime.ofInstant(meta.expiresAt(), java.time.ZoneOffset.UTC),
-                        baseUrl
+                        baseUrl,
+                        meta.concat()
                 ));
     }
 
@@ -141,6 +260,11 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
     public Mono<Long> uploadChunk(String uploadId, Long expectedOffset, Flux<DataBuffer> data) {
         return loadMetadata(uploadId)
                 .flatMap(meta -> {
+                    // A final upload is assembled from its partial uploads, it does not accept data
+                    if (meta.isFinal()) {
+                        return Mono.error(new OperationForbiddenException("Upload " + uploadId + " is a final upload"));
+                    }
+
                     // Verify offset matches
                     if (!meta.offset().equals(expectedOffset)) {
                         return Mono.error(new TusUploadException(
@@ -152,23 +276,62 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
                         return Mono.error(new TusUploadException("Upload has expired"));
                     }
 
-                    String dataPath = storageService.getTusDataPath(uploadId);
-
-                    // Write chunk using StorageService
-                    return storageService.appendData(dataPath, data, meta.offset())
-                            .flatMap(newOffset -> {
-                                // Update metadata with new offset
-                                TusUploadMetadata updatedMeta = meta.withOffset(newOffset);
-                                return saveMetadata(updatedMeta)
-                                        .thenReturn(newOffset);
-                            });
+                    // Write chunk using StorageService, then advance the offset unless another request did it first
+                    return appendChunk(uploadId, meta, data)
+                            .flatMap(chunk -> tusUploadDAO.updateProgress(uploadId, meta.offset(), chunk.storage())
+                                    .onErrorMap(e -> new TusUploadException("Error saving upload metadata", e))
+                                    .flatMap(updated -> {
+                                        if (!updated) {
+                                            return Mono.error(new TusUploadException(
+                                                    "Offset mismatch. Upload " + uploadId + " was modified by a concurrent request"));
+                                        }
+                                        long offset = chunk.storage().size();
+                                        if (chunk.digest() != null) {
+                                            uploadDigests.put(uploadId, new UploadDigest(offset, chunk.digest()));
+                                        }
+                                        return Mono.just(offset);
+                                    }));
                 });
     }
 
+    /**
+     * Appends the chunk, feeding it to a copy of the upload's running digest. The copy only replaces
+     * the running digest once the offset of the upload has been advanced past the chunk, so that a failed
+     * PATCH retried by the client at the same offset does not hash the same bytes twice.
+     */
+    private Mono<AppendedChunk> appendChunk(String uploadId, TusUploadMetadata meta, Flux<DataBuffer> data) {
+        TusStorageUpload storage = meta.storage();
+        ContentDigest current = Boolean.TRUE.equals(calculateChecksum) ? getRunningDigest(uploadId, meta) : null;
+        if (current == null) {
+            return storageService.appendTusData(uploadId, storage, data, meta.length(), null)
+                    .map(written -> new AppendedChunk(written, null));
+        }
+        ContentDigest digest = current.copy();
+        return storageService.appendTusData(uploadId, storage, data, meta.length(), digest)
+                .map(written -> new AppendedChunk(written, digest));
+    }
+
+    /**
+     * Running digest of the upload up to its current offset, or null when previous chunks were not all hashed
+     * by this instance: the checksum is then computed at finalization.
+     */
+    private ContentDigest getRunningDigest(String uploadId, TusUploadMetadata meta) {
+        if (meta.offset() == 0) {
+            return ContentDigest.sha256();
+        }
+        UploadDigest current = uploadDigests.get(uploadId);
+        return current != null && current.offset() == meta.offset() ? current.digest() : null;
+    }
+
     @Override
     public Mono<UploadResponse> finalizeUpload(String uploadId, TusFinalizeRequest request) {
         return loadMetadata(uploadId)
                 .flatMap(meta -> {
+                    if (meta.isPartial()) {
+                        return Mono.error(new OperationForbiddenException(
+                                "Upload " + uploadId + " is a partial upload, it must be concatenated into a final upload"));
+                    }
+
                     // Verify upload is complete
                     if (!meta.isComplete()) {
                         return Mono.error(new TusUploadException(
@@ -179,8 +342,9 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
                     UUID parentFolderId = request.parentFolderId();
 
                     // Validate and create document
+                    // Uploads created before quota reservations existed are reserved now
                     return validateFileUploadQuota(meta.length(), filename)
-                            .then(validateUserQuota(meta.length()))
+                            .then(userQuotaService.reserve(uploadId, meta.length(), meta.expiresAt()))
                             .then(validateParentFolder(parentFolderId))
                             .then(validateDuplicateName(filename, parentFolderId, request.allowDuplicateFileNames()))
                             .then(moveToStorageAndCreateDocument(uploadId, meta, request));
@@ -198,19 +362,12 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
         return Mono.empty();
     }
 
-    private Mono<Void> validateUserQuota(Long fileSize) {
-        if (!quotaProperties.isUserQuotaEnabled()) {
-            return Mono.empty();
-        }
-        Long maxQuota = quotaProperties.getUserQuotaInBytes();
-        return getConnectedUserEmail()
-                .flatMap(username -> documentDAO.getTotalStorageByUser(username)
-                        .flatMap(currentUsage -> {
-                            if (currentUsage + fileSize > maxQuota) {
-                                return Mono.error(new UserQuotaExceededException(username, currentUsage, fileSize, maxQuota));
-                            }
-                            return Mono.empty();
-                        }));
+    private Mono<Void> reserveQuota(String uploadId, long uploadLength) {
+        return userQuotaService.reserve(uploadId, uploadLength, Instant.now().plusMillis(tusProperties.getUploadExpirationPeriod()));
+    }
+
+    private Mono<Void> releaseQuota(String uploadId) {
+        return userQuotaService.release(uploadId);
     }
 
     private Mono<Void> validateParentFolder(UUID parentFolderId) {
@@ -241,17 +398,39 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
 
     private Mono<UploadResponse> moveToStorageAndCreateDocument(String uploadId, TusUploadMetadata meta,
                                                                  TusFinalizeRequest request) {
-        String filename = request.filename();
-        String storagePath = storageService.getUniqueStorageFileName(filename);
-        String tusDataPath = storageService.getTusDataPath(uploadId);
+        String storagePath = meta.storage().storagePath();
+
+        // Make the uploaded content available at its permanent storage path
+        return storageService.completeTusUpload(uploadId, meta.storage())
+                .then(Mono.defer(() -> getDocumentMetadata(storagePath, request.metadata(), removeDigest(uploadId, meta))))
+                .flatMap(metadata -> createDocumentRecord(storagePath, meta, request, metadata, uploadId));
+    }
 
-        // Move file from TUS temp location to permanent storage
-        return storageService.moveFile(tusDataPath, storagePath)
-                .then(createDocumentRecord(storagePath, meta, request, uploadId));
+    /**
+     * Digest of the whole upload, or null if this instance did not hash all of it.
+     */
+    private ContentDigest removeDigest(String uploadId, TusUploadMetadata meta) {
+        UploadDigest digest = uploadDigests.remove(uploadId);
+        return digest != null && digest.offset() == meta.offset() ? digest.digest() : null;
+    }
+
+    /**
+     * Document metadata, enriched with the SHA-256 of the upload when checksums are enabled.
+     */
+    private Mono<Map<String, Object>> getDocumentMetadata(String storagePath, Map<String, Object> metadata, ContentDigest digest) {
+        if (!Boolean.TRUE.equals(calculateChecksum)) {
+            return Mono.justOrEmpty(metadata).defaultIfEmpty(Map.of());
+        }
+        ChecksumService checksumService = checksumServiceProvider.getObject();
+        return (digest != null
+                ? checksumService.getChecksumMono(storagePath, metadata, digest.hex())
+                : checksumService.calculateChecksum(storagePath, metadata))
+                .map(Checksum::metadataWithChecksum);
     }
 
     private Mono<UploadResponse> createDocumentRecord(String storagePath, TusUploadMetadata meta,
-                                                       TusFinalizeRequest request, String uploadId) {
+                                                       TusFinalizeRequest request, Map<String, Object> metadata,
+                                                       String uploadId) {
         String filename = request.filename();
         String contentType = getContentType(filename);
 
@@ -264,7 +443,7 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
                             .size(meta.length())
                             .parentId(request.parentFolderId())
                             .storagePath(storagePath)
-                            .metadata(jsonUtils.toJson(request.metadata()))
+                            .metadata(jsonUtils.toJson(metadata))
                             .createdAt(OffsetDateTime.now())
                             .updatedAt(OffsetDateTime.now())
                             .createdBy(username)
@@ -276,10 +455,12 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
                                     .map(versionId -> new UploadAudit(savedDoc.getName(), request.parentFolderId(), request.metadata(), versionId))
                                     .defaultIfEmpty(new UploadAudit(savedDoc.getName(), request.parentFolderId(), request.metadata()))
                                     .flatMap(details -> auditService.logAction(AuditAction.UPLOAD_DOCUMENT, FILE, savedDoc.getId(), details))
+                                    // The document now counts in the user's usage
+                                    .then(releaseQuota(uploadId))
+                                    .then(metadataPostProcessor.processDocumentOnCommit(savedDoc))
                                     .thenReturn(savedDoc))
                             .as(tx::transactional)
-                            .doOnSuccess(this::postProcessDocument)
-                            .doOnSuccess(doc -> cleanupTusMetadata(uploadId).subscribe())
+                            .doOnSuccess(doc -> deleteUpload(uploadId).subscribe())
                             .map(savedDoc -> new UploadResponse(
                                     savedDoc.getId(),
                                     savedDoc.getName(),
@@ -289,13 +470,8 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
                 });
     }
 
-    private void postProcessDocument(Document document) {
-        metadataPostProcessor.processDocument(document);
-    }
-
-    private Mono<Void> cleanupTusMetadata(String uploadId) {
-        String metaPath = storageService.getTusMetadataPath(uploadId);
-        return storageService.deleteFile(metaPath)
+    private Mono<Void> deleteUpload(String uploadId) {
+        return tusUploadDAO.delete(uploadId)
                 .doOnSuccess(v -> log.debug("Cleaned up TUS metadata: {}", uploadId))
                 .onErrorResume(e -> {
                     log.warn("Error cleaning up TUS metadata {}: {}", uploadId, e.getMessage());
@@ -317,15 +493,22 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
 
     @Override
     public Mono<Void> cancelUpload(String uploadId) {
-        String dataPath = storageService.getTusDataPath(uploadId);
-        String metaPath = storageService.getTusMetadataPath(uploadId);
-
-        // Delete both data and metadata files
-        // For MinIO, we also need to clean up chunk objects
-        return storageService.listFiles(dataPath + ".chunk.")
-                .flatMap(chunkPath -> storageService.deleteFile(chunkPath))
-                .then(storageService.deleteFile(dataPath))
-                .then(storageService.deleteFile(metaPath))
+        return loadMetadata(false, uploadId)
+                .flatMap(this::cancelUpload)
+                .onErrorResume(e -> {
+                    log.warn("Error cancelling TUS upload {}: {}", uploadId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> cancelUpload(TusUploadMetadata meta) {
+        String uploadId = meta.uploadId();
+        uploadDigests.remove(uploadId);
+
+        // Discard the uploaded data, then the metadata and the quota reservation
+        return storageService.abortTusUpload(uploadId, meta.storage())
+                .then(tusUploadDAO.delete(uploadId))
+                .then(releaseQuota(uploadId))
                 .doOnSuccess(v -> log.debug("Cancelled TUS upload: {}", uploadId))
                 .onErrorResume(e -> {
                     log.warn("Error cancelling TUS upload {}: {}", uploadId, e.getMessage());
@@ -342,20 +525,8 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
 
     @Override
     public Mono<Integer> cleanupExpiredUploads() {
-        String tusPrefix = StorageService.TUS_PREFIX;
-
-        return storageService.listFiles(tusPrefix)
-                .filter(path -> path.endsWith(".json"))
-                .flatMap(metaPath -> {
-                    String uploadId = extractUploadIdFromMetaPath(metaPath);
-                    return loadMetadata(false, uploadId)
-                            .filter(TusUploadMetadata::isExpired)
-                            .flatMap(meta -> cancelUpload(uploadId).thenReturn(1))
-                            .onErrorResume(e -> {
-                                log.warn("Error checking/cleaning expired upload {}: {}", uploadId, e.getMessage());
-                                return Mono.just(0);
-                            });
-                })
+        return tusUploadDAO.findExpired(Instant.now(), tusProperties.getCleanupBatchSize())
+                .concatMap(meta -> cancelUpload(meta).thenReturn(1))
                 .reduce(0, Integer::sum)
                 .doOnSuccess(count -> {
                     if (count > 0) {
@@ -364,79 +535,29 @@ public class TusUploadServiceImpl implements TusUploadService, UserInfoService {
                 });
     }
 
-    private String extractUploadIdFromMetaPath(String metaPath) {
-        // metaPath is like "_tus/{uploadId}.json"
-        String filename = metaPath.substring(metaPath.lastIndexOf('/') + 1);
-        return filename.replace(".json", "");
-    }
-
     private Mono<TusUploadMetadata> loadMetadata(String uploadId) {
         return loadMetadata(true, uploadId);
     }
 
     private Mono<TusUploadMetadata> loadMetadata(boolean checkOwner, String uploadId) {
         return getConnectedUserEmail()
-                .flatMap(email -> {
-                    String metaPath = storageService.getTusMetadataPath(uploadId);
-                    log.debug("Loading TUS metadata: uploadId={}, metaPath={}", uploadId, metaPath);
-                    return storageService.loadFile(metaPath)
-                            .doOnSuccess(r -> log.debug("loadFile succeeded for {}, resource={}", metaPath, r))
-                            .doOnError(e -> log.error("Failed to load TUS metadata file: {} - {}", metaPath, e.getMessage(), e))
-                            .flatMap(resource -> Mono.<TusUploadMetadata>fromCallable(() -> {
-                                log.debug("Reading InputStream from resource: {}", resource);
-                                try (BufferedInputStream bis = new BufferedInputStream(resource.getInputStream(), 1)) {
-                                    bis.mark(1);
-                                    if (bis.read() == -1) {
-                                        log.warn("TUS metadata file is empty (interrupted upload?): {}", metaPath);
-                                        throw new DocumentNotFoundException("Upload metadata is empty: " + uploadId);
-                                    }
-                                    bis.reset();
-                                    TusUploadMetadata meta = objectMapper.readValue(bis, TusUploadMetadata.class);
-                                    if(checkOwner && !email.equals(meta.email())) {
-                                        throw new OperationForbiddenException("Upload email does not match TUS email");
-                                    }
-                                    log.debug("Loaded TUS metadata: uploadId={}, offset={}, length={}", uploadId, meta.offset(), meta.length());
-                                    return meta;
-                                } catch (DocumentNotFoundException | OperationForbiddenException e) {
-                                    throw e;
-                                } catch (Exception e) {
-                                    log.warn("Corrupted TUS metadata file {}: {}", metaPath, e.getMessage());
-                                    throw new DocumentNotFoundException("Upload metadata is corrupted: " + uploadId);
-                                }
-                            }).subscribeOn(Schedulers.boundedElastic()))
-                            .onErrorMap(e -> {
-                                if (e instanceof TusUploadException) {
-                                    return e;
-                                }
-                                log.warn("Upload not found: {} (path={}) - error: {}", uploadId, metaPath, e.getMessage(), e);
-                                return new DocumentNotFoundException("Upload not found: " + uploadId);
-                            });
-                });
-    }
-
-    private Mono<Void> saveMetadata(TusUploadMetadata metadata) {
-        String metaPath = storageService.getTusMetadataPath(metadata.uploadId());
-        return storageService.saveData(metaPath, serializeToDataBufferFlux(metadata))
-                .onErrorMap(e -> new TusUploadException("Error saving upload metadata", e));
+                .flatMap(email -> tusUploadDAO.findById(uploadId)
+                        .switchIfEmpty(Mono.error(() -> new DocumentNotFoundException("Upload not found: " + uploadId)))
+                        .flatMap(meta -> {
+                            if (checkOwner && !email.equals(meta.email())) {
+                                return Mono.error(new OperationForbiddenException("Upload email does not match TUS email"));
+                            }
+                            log.debug("Loaded TUS metadata: uploadId={}, offset={}, length={}", uploadId, meta.offset(), meta.length());
+                            return Mono.just(meta);
+                        }));
     }
 
-    /**
-     * Serialize an object to JSON and wrap in a Flux of DataBuffer.
-     * Uses Jackson's streaming to write directly to a DataBuffer.
-     */
-    private <T> Flux<DataBuffer> serializeToDataBufferFlux(T object) {
-        return Flux.defer(() -> {
-            try {
-                // Use Jackson to serialize to bytes, then wrap in DataBuffer
-                // For small metadata objects, this is efficient
-                byte[] jsonBytes = objectMapper.writeValueAsBytes(object);
-                DataBuffer buffer = new DefaultDataBufferFactory().wrap(jsonBytes);
-                return Flux.just(buffer);
-            } catch (JacksonException e) {
-                // Jackson 3 throws unchecked JacksonException instead of IOException
-                return Flux.error(new TusUploadException("Error serializing metadata to JSON", e));
-            }
-        });
+    private static String getFilename(Map<String, String> metadata) {
+        return metadata.entrySet().stream()
+                .filter(entry -> "filename".equalsIgnoreCase(entry.getKey()) && !entry.getValue().isBlank())
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse("upload");
     }
 
     /**
@@ -0,0 +1,84 @@
+package org.openfilz.dms.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openfilz.dms.config.QuotaProperties;
+import org.openfilz.dms.exception.UserQuotaExceededException;
+import org.openfilz.dms.repository.QuotaReservationDAO;
+import org.openfilz.dms.service.UserQuotaService;
+import org.openfilz.dms.utils.UserInfoService;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserQuotaServiceImpl implements UserQuotaService, UserInfoService {
+
+    private final QuotaProperties quotaProperties;
+    private final QuotaReservationDAO quotaReservationDAO;
+
+    @Override
+    public <T> Mono<T> withReservation(Long size, Mono<T> operation) {
+        if (!quotaProperties.isUserQuotaEnabled() || size == null || size <= 0) {
+            return operation;
+        }
+        return Mono.usingWhen(
+                Mono.fromSupplier(() -> UUID.randomUUID().toString())
+                        .flatMap(reservationId -> reserve(reservationId, size, Instant.now().plus(quotaProperties.getReservationTimeout()))
+                                .thenReturn(reservationId)),
+                _ -> operation,
+                this::release,
+                (reservationId, _) -> release(reservationId),
+                this::release);
+    }
+
+    @Override
+    public Mono<Void> reserve(String reservationId, long size, Instant expiresAt) {
+        if (!quotaProperties.isUserQuotaEnabled()) {
+            return Mono.empty();
+        }
+        Long maxQuota = quotaProperties.getUserQuotaInBytes();
+        return getConnectedUserEmail()
+                .flatMap(username -> quotaReservationDAO.reserve(reservationId, username, size, maxQuota, OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC))
+                        .flatMap(reserved -> reserved
+                                ? Mono.<Void>empty()
+                                : quotaReservationDAO.exists(reservationId)
+                                        .flatMap(exists -> exists
+                                                ? Mono.<Void>empty()
+                                                : quotaReservationDAO.getUsage(username)
+                                                        .flatMap(currentUsage -> Mono.error(new UserQuotaExceededException(username, currentUsage, size, maxQuota))))));
+    }
+
+    @Override
+    public Mono<Void> release(String reservationId) {
+        if (!quotaProperties.isUserQuotaEnabled()) {
+            return Mono.empty();
+        }
+        return quotaReservationDAO.release(reservationId)
+                .onErrorResume(e -> {
+                    // The reservation expires anyway
+                    log.warn("Error releasing quota reservation {}: {}", reservationId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public Mono<Void> merge(Collection<String> reservationIds, String reservationId, Instant expiresAt) {
+        if (!quotaProperties.isUserQuotaEnabled()) {
+            return Mono.empty();
+        }
+        return quotaReservationDAO.merge(reservationIds, reservationId, OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC));
+    }
+
+    @Override
+    public Mono<Long> releaseExpiredReservations() {
+        return quotaReservationDAO.releaseExpired(OffsetDateTime.now());
+    }
+}
@@ -0,0 +1,228 @@
+package org.openfilz.dms.utils;
+
+import lombok.experimental.UtilityClass;
+import org.openfilz.dms.dto.response.StreamableContent;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.*;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a {@link StreamableContent} to the response, honouring the {@code Range} and {@code If-Range} headers:
+ * <ul>
+ *   <li>200 with the whole content when no (valid) range is requested, or when {@code If-Range} does not match</li>
+ *   <li>206 with a {@code Content-Range} header for a single range</li>
+ *   <li>206 with a {@code multipart/byteranges} body for several ranges</li>
+ *   <li>416 when no requested range is satisfiable</li>
+ * </ul>
+ * Content held in a local file is sent with zero-copy transfers when the server supports them; other content is
+ * read range by range from storage (e.g. ranged GetObject on MinIO), so only the requested bytes are fetched.
+ */
+@UtilityClass
+public class ByteRangeResponseWriter {
+
+    public static final String ATTACHMENT = "attachment";
+    public static final String INLINE = "inline";
+
+    private static final String BYTES = "bytes";
+    private static final String CRLF = "\r\n";
+
+    private record Region(long start, long count) {
+
+        long end() {
+            return start + count - 1;
+        }
+    }
+
+    /**
+     * @param exchange        the current exchange
+     * @param content         the content to send
+     * @param dispositionType {@code attachment} or {@code inline}
+     */
+    public static Mono<Void> write(ServerWebExchange exchange, StreamableContent content, String dispositionType) {
+        return write(exchange, content, dispositionType, Mono.empty());
+    }
+
+    /**
+     * Same as {@link #write(ServerWebExchange, StreamableContent, String)}, running {@code onDownload} (e.g. an audit)
+     * before the body is sent when the response starts at the first byte of the content: a whole content, or ranges
+     * starting at offset 0. HEAD requests and ranges resuming a download further in the content do not run it.
+     *
+     * @param exchange        the current exchange
+     * @param content         the content to send
+     * @param dispositionType {@code attachment} or {@code inline}
+     * @param onDownload      run once per download
+     */
+    public static Mono<Void> write(ServerWebExchange exchange, StreamableContent content, String dispositionType,
+                                   Mono<Void> onDownload) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, BYTES);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, dispositionType + "; filename=\"" + content.fileName() + "\"");
+        if (content.eTag() != null) {
+            headers.setETag(content.eTag());
+        }
+        if (content.lastModified() != null) {
+            headers.setLastModified(content.lastModified());
+        }
+        MediaType mediaType = content.contentType() != null
+                ? MediaType.parseMediaType(content.contentType())
+                : MediaType.APPLICATION_OCTET_STREAM;
+
+        List<HttpRange> ranges;
+        try {
+            ranges = isRangeValid(request.getHeaders(), content) ? request.getHeaders().getRange() : List.of();
+        } catch (IllegalArgumentException e) {
+            return notSatisfiable(response, content.length());
+        }
+        if (ranges.isEmpty()) {
+            headers.setContentType(mediaType);
+            headers.setContentLength(content.length());
+            Region region = new Region(0, content.length());
+            return onDownload(request, region, onDownload)
+                    .then(writeRegion(request, response, content, region));
+        }
+
+        List<Region> regions = toRegions(ranges, content.length());
+        if (regions.isEmpty()) {
+            return notSatisfiable(response, content.length());
+        }
+        response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+        if (regions.size() == 1) {
+            Region region = regions.getFirst();
+            headers.setContentType(mediaType);
+            headers.setContentLength(region.count());
+            headers.set(HttpHeaders.CONTENT_RANGE, contentRange(region, content.length()));
+            return onDownload(request, region, onDownload)
+                    .then(writeRegion(request, response, content, region));
+        }
+        return onDownload(request, regions.getFirst(), onDownload)
+                .then(writeMultipartRegions(request, response, content, mediaType, regions));
+    }
+
+    private static Mono<Void> onDownload(ServerHttpRequest request, Region first, Mono<Void> onDownload) {
+        return request.getMethod() != HttpMethod.HEAD && first.start() == 0 ? onDownload : Mono.empty();
+    }
+
+    /**
+     * Unsatisfiable ranges are ignored; an empty result means none was satisfiable. Like Spring's
+     * {@code HttpRange.toResourceRegions}, ranges adding up to more than the content are rejected.
+     */
+    private static List<Region> toRegions(List<HttpRange> ranges, long length) {
+        List<Region> regions = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (HttpRange range : ranges) {
+            if (length == 0) {
+                break;
+            }
+            long start;
+            long end;
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (start >= length || end < start) {
+                continue;
+            }
+            Region region = new Region(start, end - start + 1);
+            total += region.count();
+            regions.add(region);
+        }
+        if (regions.size() > 1 && total > length) {
+            return List.of();
+        }
+        return regions;
+    }
+
+    /**
+     * A range request only applies if the {@code If-Range} validator (when present) still matches the content:
+     * a strong entity tag, or the exact last modification date.
+     */
+    private static boolean isRangeValid(HttpHeaders requestHeaders, StreamableContent content) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Weak entity tags never match If-Range (RFC 9110 13.1.5)
+            return ifRange.equals(content.eTag());
+        }
+        if (content.lastModified() == null) {
+            return false;
+        }
+        try {
+            Instant date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return date.equals(content.lastModified().truncatedTo(ChronoUnit.SECONDS));
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static Mono<Void> writeRegion(ServerHttpRequest request, ServerHttpResponse response,
+                                          StreamableContent content, Region region) {
+        if (request.getMethod() == HttpMethod.HEAD) {
+            return response.setComplete();
+        }
+        if (content.localFile() != null && response instanceof ZeroCopyHttpOutputMessage zeroCopy) {
+            return zeroCopy.writeWith(content.localFile(), region.start(), region.count());
+        }
+        return response.writeWith(content.reader().read(region.start(), region.count()));
+    }
+
+    private static Mono<Void> writeMultipartRegions(ServerHttpRequest request, ServerHttpResponse response,
+                                                    StreamableContent content, MediaType mediaType, List<Region> regions) {
+        String boundary = new String(MimeTypeUtils.generateMultipartBoundary(), StandardCharsets.US_ASCII);
+        List<byte[]> partHeaders = regions.stream()
+                .map(region -> (CRLF + "--" + boundary + CRLF
+                        + HttpHeaders.CONTENT_TYPE + ": " + mediaType + CRLF
+                        + HttpHeaders.CONTENT_RANGE + ": " + contentRange(region, content.length()) + CRLF
+                        + CRLF).getBytes(StandardCharsets.US_ASCII))
+                .toList();
+        byte[] end = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+
+        long contentLength = end.length;
+        for (int i = 0; i < regions.size(); i++) {
+            contentLength += partHeaders.get(i).length + regions.get(i).count();
+        }
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(new MediaType("multipart", "byteranges", Map.of("boundary", boundary)));
+        headers.setContentLength(contentLength);
+        if (request.getMethod() == HttpMethod.HEAD) {
+            return response.setComplete();
+        }
+
+        Flux<DataBuffer> body = Flux.range(0, regions.size())
+                .concatMap(i -> Flux.concat(
+                        Mono.fromSupplier(() -> response.bufferFactory().wrap(partHeaders.get(i))),
+                        content.reader().read(regions.get(i).start(), regions.get(i).count())))
+                .concatWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(end)));
+        return response.writeWith(body);
+    }
+
+    private static String contentRange(Region region, long length) {
+        return BYTES + " " + region.start() + "-" + region.end() + "/" + length;
+    }
+
+    private static Mono<Void> notSatisfiable(ServerHttpResponse response, long length) {
+        response.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        response.getHeaders().set(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,72 @@
+package org.openfilz.dms.utils;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static org.openfilz.dms.service.ChecksumService.SHA_256;
+
+/**
+ * Incremental SHA-256 digest fed with the {@link DataBuffer}s of a content stream while it is written
+ * to storage (a "hashing tee"), so that the checksum is known as soon as the write completes,
+ * without reading the stored object back.
+ * <p>
+ * Buffers are digested through read-only views: their read position is left untouched for the
+ * downstream writer. Not thread-safe — a digest must be fed by a single (serialized) stream.
+ */
+public class ContentDigest {
+
+    private final MessageDigest digest;
+
+    private ContentDigest(MessageDigest digest) {
+        this.digest = digest;
+    }
+
+    public static ContentDigest sha256() {
+        try {
+            return new ContentDigest(MessageDigest.getInstance(SHA_256));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(SHA_256 + " is not available", e);
+        }
+    }
+
+    /**
+     * Returns the given stream, each buffer being digested before it is emitted downstream.
+     */
+    public Flux<DataBuffer> tee(Flux<DataBuffer> data) {
+        return data.doOnNext(this::update);
+    }
+
+    public void update(DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                digest.update(iterator.next());
+            }
+        }
+    }
+
+    /**
+     * Independent copy of the current state, used to roll back a digest when a write fails midway.
+     */
+    public ContentDigest copy() {
+        return new ContentDigest(cloneDigest());
+    }
+
+    /**
+     * Hex-encoded digest of everything fed so far. Does not reset the digest.
+     */
+    public String hex() {
+        return HexFormat.of().formatHex(cloneDigest().digest());
+    }
+
+    private MessageDigest cloneDigest() {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(SHA_256 + " digest cannot be cloned", e);
+        }
+    }
+}
@@ -44,6 +44,18 @@ public class SqlUtils {
         return query.bind(criteria, "%" + value.toUpperCase() + "%");
     }
 
+    /**
+     * Pattern of a case-insensitive {@code UPPER(col) LIKE} matching the values containing {@code value} literally:
+     * its {@code %} and {@code _} are escaped with the default LIKE escape character.
+     */
+    public static String toContainsPattern(String value) {
+        String escaped = value.toUpperCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
     public DatabaseClient.GenericExecuteSpec bindMetadata(Map<String, Object> metadata, DatabaseClient.GenericExecuteSpec query) {
         try {
             String criteriaJson = objectMapper.writeValueAsString(metadata);
@@ -0,0 +1,185 @@
+package org.openfilz.dms.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.openfilz.dms.exception.StorageException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+
+import static org.openfilz.dms.utils.FileConstants.SLASH;
+
+/**
+ * Produces a ZIP archive as a stream of {@link DataBuffer}s, emitted as the entries are written: the first bytes
+ * reach the client immediately and the archive is never materialized on disk.
+ * <p>
+ * The archive is written to a non-seekable stream, so entries carry data descriptors (sizes and CRC after the data),
+ * and ZIP64 records are added as needed for entries over 4 GB or archives over 65535 entries.
+ * The content of the next {@code prefetchEntries} entries is fetched from storage concurrently, each entry buffering
+ * at most {@code prefetchBuffers} buffers ahead, which bounds the memory used per archive.
+ * <p>
+ * Already-compressed formats (images, audio/video, archives, OOXML/ODF documents) are written without compression
+ * (deflate level 0), which costs no CPU and keeps the archive readable by streaming readers such as
+ * {@link java.util.zip.ZipInputStream} (unlike STORED entries followed by a data descriptor).
+ */
+@Slf4j
+public class StreamingZipWriter {
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "jpg", "jpeg", "png", "gif", "webp", "heic", "heif", "avif",
+            "mp4", "m4v", "mov", "mkv", "webm", "avi", "wmv",
+            "mp3", "m4a", "aac", "ogg", "oga", "opus", "flac", "wma",
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "zst", "jar",
+            "docx", "xlsx", "pptx", "odt", "ods", "odp", "epub");
+
+    /**
+     * An entry of the archive: a directory, or a file whose content is read lazily from {@code content}.
+     *
+     * @param name      path of the entry inside the archive
+     * @param directory true for a directory entry
+     * @param size      size of the content when known (used to decide on ZIP64 upfront), may be null
+     * @param content   content of a file entry, subscribed to when the entry is prefetched
+     */
+    public record ZipItem(String name, boolean directory, Long size, Supplier<Flux<DataBuffer>> content) {
+
+        public static ZipItem directory(String name) {
+            return new ZipItem(name.endsWith(SLASH) ? name : name + SLASH, true, 0L, Flux::empty);
+        }
+
+        public static ZipItem file(String name, Long size, Supplier<Flux<DataBuffer>> content) {
+            return new ZipItem(name, false, size, content);
+        }
+    }
+
+    private sealed interface Piece {
+    }
+
+    private record EntryStart(ZipItem item) implements Piece {
+    }
+
+    private record EntryData(DataBuffer buffer) implements Piece {
+    }
+
+    private record EntryEnd() implements Piece {
+    }
+
+    private static final EntryEnd ENTRY_END = new EntryEnd();
+
+    private final DataBufferFactory bufferFactory;
+    private final int prefetchEntries;
+    private final int prefetchBuffers;
+
+    public StreamingZipWriter(DataBufferFactory bufferFactory, int prefetchEntries, int prefetchBuffers) {
+        this.bufferFactory = bufferFactory;
+        this.prefetchEntries = Math.max(1, prefetchEntries);
+        this.prefetchBuffers = Math.max(1, prefetchBuffers);
+    }
+
+    public static boolean isCompressed(String name) {
+        int i = name.lastIndexOf('.');
+        return i > 0 && COMPRESSED_EXTENSIONS.contains(name.substring(i + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Writes the items, in order, as a ZIP archive. Nothing is read before the returned flux is subscribed to.
+     */
+    public Flux<DataBuffer> write(Flux<ZipItem> items) {
+        return Flux.using(ArchiveSink::new,
+                        sink -> items
+                                .flatMapSequential(StreamingZipWriter::toPieces, prefetchEntries, prefetchBuffers)
+                                .concatMap(piece -> Mono.fromCallable(() -> sink.write(piece)))
+                                .concatWith(Mono.fromCallable(sink::finish))
+                                .filter(bytes -> bytes.length > 0)
+                                .map(bufferFactory::wrap),
+                        ArchiveSink::close)
+                .doOnDiscard(EntryData.class, data -> DataBufferUtils.release(data.buffer()))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private static Flux<Piece> toPieces(ZipItem item) {
+        if (item.directory()) {
+            return Flux.just(new EntryStart(item), ENTRY_END);
+        }
+        return Flux.concat(
+                Mono.just(new EntryStart(item)),
+                Flux.defer(item.content()).map(EntryData::new),
+                Mono.just(ENTRY_END));
+    }
+
+    /**
+     * Archive being written: every piece is applied to the ZIP stream, then the bytes it produced are drained.
+     */
+    private static final class ArchiveSink {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        private final ZipArchiveOutputStream zip = new ZipArchiveOutputStream(out);
+
+        ArchiveSink() {
+            zip.setUseZip64(Zip64Mode.AsNeeded);
+        }
+
+        byte[] write(Piece piece) {
+            try {
+                switch (piece) {
+                    case EntryStart(ZipItem item) -> {
+                        ZipArchiveEntry entry = new ZipArchiveEntry(item.name());
+                        if (item.size() != null) {
+                            entry.setSize(item.size());
+                        }
+                        zip.setLevel(!item.directory() && isCompressed(item.name())
+                                ? Deflater.NO_COMPRESSION
+                                : Deflater.DEFAULT_COMPRESSION);
+                        zip.putArchiveEntry(entry);
+                    }
+                    case EntryData(DataBuffer buffer) -> {
+                        try {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            zip.write(bytes);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    }
+                    case EntryEnd() -> zip.closeArchiveEntry();
+                }
+            } catch (IOException e) {
+                throw new StorageException("Failed to write zip entry", e);
+            }
+            return drain();
+        }
+
+        byte[] finish() {
+            try {
+                zip.finish();
+            } catch (IOException e) {
+                throw new StorageException("Failed to finish zip archive", e);
+            }
+            return drain();
+        }
+
+        private byte[] drain() {
+            byte[] bytes = out.toByteArray();
+            out.reset();
+            return bytes;
+        }
+
+        void close() {
+            try {
+                zip.close();
+            } catch (IOException e) {
+                log.debug("Failed to close zip stream", e);
+            }
+        }
+    }
+}
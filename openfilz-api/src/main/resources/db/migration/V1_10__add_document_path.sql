@@ -0,0 +1,71 @@
+-- Materialized path of each document: the ids of its ancestors followed by its own id, from the root
+-- (e.g. 'a0eebc999c0b4ef8bb6d6bb9bd380a11.5b7d2c4e90a14f6b8a2e3f1c0d9e8b7a').
+-- Subtree and ancestor lookups become GiST index scans (path <@ folder.path) instead of walking parent_id
+-- with recursive CTEs. Labels are ids without dashes, so renames never change a path, and a label is cast
+-- back to its id with label::uuid.
+CREATE EXTENSION IF NOT EXISTS ltree;
+
+CREATE OR REPLACE FUNCTION document_path_label(doc_id UUID) RETURNS ltree AS $$
+    SELECT text2ltree(replace(doc_id::text, '-', ''));
+$$ LANGUAGE sql IMMUTABLE STRICT;
+
+ALTER TABLE documents ADD COLUMN path ltree;
+
+WITH RECURSIVE tree AS (
+    SELECT id, document_path_label(id) AS path
+    FROM documents
+    WHERE parent_id IS NULL
+    UNION ALL
+    SELECT d.id, t.path || document_path_label(d.id)
+    FROM documents d
+    JOIN tree t ON d.parent_id = t.id
+)
+UPDATE documents d
+SET path = tree.path
+FROM tree
+WHERE d.id = tree.id;
+
+ALTER TABLE documents ALTER COLUMN path SET NOT NULL;
+
+CREATE INDEX idx_documents_path ON documents USING GIST (path);
+
+-- The path of a new or moved document derives from its parent's
+CREATE OR REPLACE FUNCTION set_document_path() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.parent_id IS NULL THEN
+        NEW.path := document_path_label(NEW.id);
+    ELSE
+        SELECT p.path || document_path_label(NEW.id) INTO NEW.path
+        FROM documents p
+        WHERE p.id = NEW.parent_id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER documents_path_insert
+    BEFORE INSERT ON documents
+    FOR EACH ROW EXECUTE FUNCTION set_document_path();
+
+CREATE TRIGGER documents_path_update
+    BEFORE UPDATE OF parent_id ON documents
+    FOR EACH ROW
+    WHEN (OLD.parent_id IS DISTINCT FROM NEW.parent_id)
+    EXECUTE FUNCTION set_document_path();
+
+-- Moving a folder re-roots its whole subtree in a single statement. Only path is updated,
+-- so the triggers above do not fire again for the descendants.
+CREATE OR REPLACE FUNCTION move_document_subtree() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE documents
+    SET path = NEW.path || subpath(path, nlevel(OLD.path))
+    WHERE path <@ OLD.path AND id <> NEW.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER documents_path_subtree
+    AFTER UPDATE OF parent_id ON documents
+    FOR EACH ROW
+    WHEN (OLD.path IS DISTINCT FROM NEW.path)
+    EXECUTE FUNCTION move_document_subtree();
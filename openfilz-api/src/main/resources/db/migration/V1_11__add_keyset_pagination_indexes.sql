@@ -0,0 +1,20 @@
+-- Keyset (cursor) pagination of GraphQL listings: each index follows the ORDER BY of a sort key
+-- (folders first, then the sort key, then the id as tie-breaker), so that a page is an index range scan
+-- starting right after the cursor instead of an OFFSET that reads and discards every previous row.
+-- Expressions must stay identical to the ones generated by ListFolderDataFetcher.
+
+-- Content of a folder (listFolder), default order and usual sort keys
+CREATE INDEX idx_documents_keyset_id
+    ON documents (parent_id, (CASE WHEN type = 'FOLDER' THEN 0 ELSE 1 END), id) WHERE active = true;
+CREATE INDEX idx_documents_keyset_name
+    ON documents (parent_id, (CASE WHEN type = 'FOLDER' THEN 0 ELSE 1 END), name, id) WHERE active = true;
+CREATE INDEX idx_documents_keyset_created_at
+    ON documents (parent_id, (CASE WHEN type = 'FOLDER' THEN 0 ELSE 1 END), created_at, id) WHERE active = true;
+CREATE INDEX idx_documents_keyset_updated_at
+    ON documents (parent_id, (CASE WHEN type = 'FOLDER' THEN 0 ELSE 1 END), updated_at, id) WHERE active = true;
+CREATE INDEX idx_documents_keyset_size
+    ON documents (parent_id, (CASE WHEN type = 'FOLDER' THEN 0 ELSE 1 END), COALESCE(size, 0), id) WHERE active = true;
+
+-- Whole tree (listAllFolder, listFavorites), most recently updated first
+CREATE INDEX idx_documents_keyset_all_updated_at
+    ON documents ((CASE WHEN type = 'FOLDER' THEN 0 ELSE 1 END), updated_at, id) WHERE active = true;
@@ -0,0 +1,91 @@
+-- Rollup of active documents per owner (created_by, '' when unknown) and category, read by the dashboard
+-- and the user quota checks instead of aggregating documents. Maintained by triggers on documents, like
+-- content_blobs.ref_count, so it changes in the same transaction as the documents it counts.
+-- reconcile_storage_stats() rebuilds it from documents and is run periodically as a safety net.
+CREATE TABLE storage_stats (
+    owner      VARCHAR(255) NOT NULL,
+    category   VARCHAR(16)  NOT NULL, -- 'folders', 'documents', 'images', 'videos', 'audio' or 'others'
+    item_count BIGINT       NOT NULL DEFAULT 0,
+    total_size BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (owner, category)
+);
+
+CREATE OR REPLACE FUNCTION storage_category(doc_type VARCHAR, content_type VARCHAR) RETURNS VARCHAR AS $$
+    SELECT CASE
+        WHEN doc_type = 'FOLDER' THEN 'folders'
+        WHEN content_type LIKE 'application/%' THEN 'documents'
+        WHEN content_type LIKE 'image/%' THEN 'images'
+        WHEN content_type LIKE 'video/%' THEN 'videos'
+        WHEN content_type LIKE 'audio/%' THEN 'audio'
+        ELSE 'others'
+    END;
+$$ LANGUAGE sql IMMUTABLE;
+
+INSERT INTO storage_stats (owner, category, item_count, total_size)
+SELECT COALESCE(created_by, ''), storage_category(type, content_type), COUNT(*), COALESCE(SUM(size), 0)
+FROM documents
+WHERE active = true
+GROUP BY 1, 2;
+
+CREATE OR REPLACE FUNCTION maintain_storage_stats() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.active THEN
+        UPDATE storage_stats
+        SET item_count = item_count - 1, total_size = total_size - COALESCE(OLD.size, 0)
+        WHERE owner = COALESCE(OLD.created_by, '') AND category = storage_category(OLD.type, OLD.content_type);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.active THEN
+        INSERT INTO storage_stats (owner, category, item_count, total_size)
+        VALUES (COALESCE(NEW.created_by, ''), storage_category(NEW.type, NEW.content_type), 1, COALESCE(NEW.size, 0))
+        ON CONFLICT (owner, category) DO UPDATE
+        SET item_count = storage_stats.item_count + 1, total_size = storage_stats.total_size + EXCLUDED.total_size;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER documents_storage_stats
+    AFTER INSERT OR DELETE ON documents
+    FOR EACH ROW EXECUTE FUNCTION maintain_storage_stats();
+
+-- Soft delete, restore, content replacement: only the columns the rollup depends on
+CREATE TRIGGER documents_storage_stats_update
+    AFTER UPDATE OF active, size, type, content_type, created_by ON documents
+    FOR EACH ROW
+    WHEN (OLD.active IS DISTINCT FROM NEW.active
+        OR OLD.size IS DISTINCT FROM NEW.size
+        OR OLD.type IS DISTINCT FROM NEW.type
+        OR OLD.content_type IS DISTINCT FROM NEW.content_type
+        OR OLD.created_by IS DISTINCT FROM NEW.created_by)
+    EXECUTE FUNCTION maintain_storage_stats();
+
+-- Rebuilds the rollup from documents and returns the number of rows that had drifted.
+-- Writers to documents are blocked by the table lock until the function's transaction ends.
+CREATE OR REPLACE FUNCTION reconcile_storage_stats() RETURNS INTEGER AS $$
+DECLARE
+    drifted INTEGER;
+BEGIN
+    LOCK TABLE storage_stats IN SHARE ROW EXCLUSIVE MODE;
+
+    CREATE TEMP TABLE actual_storage_stats AS
+    SELECT COALESCE(created_by, '') AS owner, storage_category(type, content_type) AS category,
+           COUNT(*) AS item_count, COALESCE(SUM(size), 0) AS total_size
+    FROM documents
+    WHERE active = true
+    GROUP BY 1, 2;
+
+    SELECT COUNT(*) INTO drifted
+    FROM storage_stats s
+    FULL JOIN actual_storage_stats a ON a.owner = s.owner AND a.category = s.category
+    WHERE (s.item_count, s.total_size) IS DISTINCT FROM (COALESCE(a.item_count, 0), COALESCE(a.total_size, 0));
+
+    IF drifted > 0 THEN
+        DELETE FROM storage_stats;
+        INSERT INTO storage_stats (owner, category, item_count, total_size)
+        SELECT owner, category, item_count, total_size FROM actual_storage_stats;
+    END IF;
+
+    DROP TABLE actual_storage_stats;
+    RETURN drifted;
+END;
+$$ LANGUAGE plpgsql;
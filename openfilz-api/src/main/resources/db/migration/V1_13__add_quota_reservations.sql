@@ -0,0 +1,100 @@
+-- User quota accounting (openfilz.quota.user > 0). One row per owner holds the bytes of its active files
+-- (used_bytes, maintained by the storage_stats trigger) and the bytes reserved by uploads in progress
+-- (reserved_bytes). A reservation is only granted by
+--   UPDATE user_quota_usage SET reserved_bytes = reserved_bytes + :size WHERE used_bytes + reserved_bytes + :size <= :max
+-- so the row lock serializes concurrent uploads of a user and they cannot exceed the quota together.
+CREATE TABLE user_quota_usage (
+    owner          VARCHAR(255) PRIMARY KEY,
+    used_bytes     BIGINT NOT NULL DEFAULT 0,
+    reserved_bytes BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO user_quota_usage (owner, used_bytes)
+SELECT owner, SUM(total_size)
+FROM storage_stats
+WHERE category <> 'folders'
+GROUP BY owner;
+
+-- Reservations held by uploads in progress: released when the document is created or the upload fails,
+-- or released by the cleanup job once expired (crashed instance, abandoned TUS upload).
+CREATE TABLE quota_reservations (
+    id         VARCHAR(36)              PRIMARY KEY,
+    owner      VARCHAR(255)             NOT NULL,
+    size       BIGINT                   NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_quota_reservations_expires_at ON quota_reservations (expires_at);
+
+CREATE OR REPLACE FUNCTION maintain_storage_stats() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.active THEN
+        UPDATE storage_stats
+        SET item_count = item_count - 1, total_size = total_size - COALESCE(OLD.size, 0)
+        WHERE owner = COALESCE(OLD.created_by, '') AND category = storage_category(OLD.type, OLD.content_type);
+        IF OLD.type <> 'FOLDER' THEN
+            UPDATE user_quota_usage
+            SET used_bytes = used_bytes - COALESCE(OLD.size, 0)
+            WHERE owner = COALESCE(OLD.created_by, '');
+        END IF;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.active THEN
+        INSERT INTO storage_stats (owner, category, item_count, total_size)
+        VALUES (COALESCE(NEW.created_by, ''), storage_category(NEW.type, NEW.content_type), 1, COALESCE(NEW.size, 0))
+        ON CONFLICT (owner, category) DO UPDATE
+        SET item_count = storage_stats.item_count + 1, total_size = storage_stats.total_size + EXCLUDED.total_size;
+        IF NEW.type <> 'FOLDER' THEN
+            INSERT INTO user_quota_usage (owner, used_bytes)
+            VALUES (COALESCE(NEW.created_by, ''), COALESCE(NEW.size, 0))
+            ON CONFLICT (owner) DO UPDATE
+            SET used_bytes = user_quota_usage.used_bytes + EXCLUDED.used_bytes;
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Also rebuilds user_quota_usage.used_bytes; reserved_bytes is left to the reservations.
+CREATE OR REPLACE FUNCTION reconcile_storage_stats() RETURNS INTEGER AS $$
+DECLARE
+    drifted INTEGER;
+    drifted_usage INTEGER;
+BEGIN
+    LOCK TABLE storage_stats IN SHARE ROW EXCLUSIVE MODE;
+
+    CREATE TEMP TABLE actual_storage_stats AS
+    SELECT COALESCE(created_by, '') AS owner, storage_category(type, content_type) AS category,
+           COUNT(*) AS item_count, COALESCE(SUM(size), 0) AS total_size
+    FROM documents
+    WHERE active = true
+    GROUP BY 1, 2;
+
+    SELECT COUNT(*) INTO drifted
+    FROM storage_stats s
+    FULL JOIN actual_storage_stats a ON a.owner = s.owner AND a.category = s.category
+    WHERE (s.item_count, s.total_size) IS DISTINCT FROM (COALESCE(a.item_count, 0), COALESCE(a.total_size, 0));
+
+    IF drifted > 0 THEN
+        DELETE FROM storage_stats;
+        INSERT INTO storage_stats (owner, category, item_count, total_size)
+        SELECT owner, category, item_count, total_size FROM actual_storage_stats;
+    END IF;
+
+    INSERT INTO user_quota_usage (owner)
+    SELECT DISTINCT owner FROM actual_storage_stats
+    ON CONFLICT (owner) DO NOTHING;
+
+    UPDATE user_quota_usage u
+    SET used_bytes = a.used_bytes
+    FROM (SELECT q.owner, COALESCE(SUM(s.total_size), 0) AS used_bytes
+          FROM user_quota_usage q
+          LEFT JOIN actual_storage_stats s ON s.owner = q.owner AND s.category <> 'folders'
+          GROUP BY q.owner) a
+    WHERE u.owner = a.owner AND u.used_bytes <> a.used_bytes;
+    GET DIAGNOSTICS drifted_usage = ROW_COUNT;
+
+    DROP TABLE actual_storage_stats;
+    RETURN drifted + drifted_usage;
+END;
+$$ LANGUAGE plpgsql;
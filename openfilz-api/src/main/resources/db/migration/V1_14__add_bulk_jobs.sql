@@ -0,0 +1,40 @@
+-- Asynchronous bulk operations (copy, move, delete, ZIP download of many documents) submitted through /jobs.
+-- Jobs are claimed by the instances with FOR UPDATE SKIP LOCKED and executed by a bounded worker pool.
+-- processed_items is the checkpoint: the number of document_ids already handled, advanced in the same
+-- transaction as the documents they changed, so a job resumed by another instance (heartbeat_at older than
+-- the stale timeout) continues with the first document that was not handled.
+CREATE TABLE bulk_jobs (
+    id                         UUID PRIMARY KEY,
+    type                       VARCHAR(32)              NOT NULL, -- BulkJobType
+    status                     VARCHAR(16)              NOT NULL, -- PENDING, RUNNING, COMPLETED, FAILED or CANCELLED
+    owner                      VARCHAR(255)             NOT NULL,
+    -- request
+    document_ids               UUID[]                   NOT NULL,
+    target_folder_id           UUID,
+    allow_duplicate_file_names BOOLEAN,
+    -- progress
+    total_items                INTEGER                  NOT NULL,
+    processed_items            INTEGER                  NOT NULL DEFAULT 0,
+    failed_items               INTEGER                  NOT NULL DEFAULT 0,
+    -- results: ids of the copies, per document errors ([{documentId, message}]), ZIP archive in storage
+    result_ids                 UUID[]                   NOT NULL DEFAULT '{}',
+    errors                     JSONB                    NOT NULL DEFAULT '[]',
+    error                      TEXT,
+    archive_path               VARCHAR(255),
+    -- execution
+    worker_id                  VARCHAR(64),
+    attempts                   INTEGER                  NOT NULL DEFAULT 0,
+    created_at                 TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at                 TIMESTAMP WITH TIME ZONE,
+    heartbeat_at               TIMESTAMP WITH TIME ZONE,
+    finished_at                TIMESTAMP WITH TIME ZONE
+);
+
+-- Jobs to claim: pending, or running on an instance that stopped sending heartbeats
+CREATE INDEX idx_bulk_jobs_unfinished ON bulk_jobs (created_at) WHERE status IN ('PENDING', 'RUNNING');
+
+-- Jobs of a user, most recent first
+CREATE INDEX idx_bulk_jobs_owner ON bulk_jobs (owner, created_at DESC);
+
+-- Expired finished jobs cleanup
+CREATE INDEX idx_bulk_jobs_finished_at ON bulk_jobs (finished_at) WHERE finished_at IS NOT NULL;
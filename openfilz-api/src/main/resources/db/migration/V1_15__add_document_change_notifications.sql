@@ -0,0 +1,35 @@
+-- Notifies the ids of the updated and deleted documents on the document_changes channel, read by the
+-- in-memory document cache of every instance (openfilz.document-cache). Notifications are delivered once the
+-- transaction commits, and not at all if it rolls back. Inserted documents are not notified: they cannot be
+-- cached yet.
+-- One trigger run per statement: the ids are sent by chunks that fit the 8000 bytes limit of a payload, and a
+-- statement changing more documents than worth listing (a large subtree move or delete) sends '*' instead,
+-- which clears the caches.
+CREATE OR REPLACE FUNCTION notify_document_changes() RETURNS TRIGGER AS $$
+DECLARE
+    ids TEXT;
+BEGIN
+    IF (SELECT COUNT(*) FROM changed_documents) > 1000 THEN
+        PERFORM pg_notify('document_changes', '*');
+        RETURN NULL;
+    END IF;
+    FOR ids IN
+        SELECT string_agg(id::text, ',')
+        FROM (SELECT id, (row_number() OVER () - 1) / 200 AS chunk FROM changed_documents) c
+        GROUP BY chunk
+    LOOP
+        PERFORM pg_notify('document_changes', ids);
+    END LOOP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER documents_notify_update
+    AFTER UPDATE ON documents
+    REFERENCING OLD TABLE AS changed_documents
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_document_changes();
+
+CREATE TRIGGER documents_notify_delete
+    AFTER DELETE ON documents
+    REFERENCING OLD TABLE AS changed_documents
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_document_changes();
@@ -0,0 +1,18 @@
+-- Search without OpenSearch (openfilz.full-text.active=false).
+-- pg_trgm is a trusted extension: the owner of the database may create it.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Name filters (nameLike, suggestions, search) are generated as UPPER(name) LIKE '%...%' by SqlUtils:
+-- a trigram index on the same expression serves them instead of a sequential scan of documents.
+CREATE INDEX idx_documents_name_trgm ON documents USING gin (UPPER(name) gin_trgm_ops);
+
+-- Text extracted from the files by Tika, as a tsvector built with the text search configurations of
+-- openfilz.full-text.content-languages. Filled asynchronously after upload when
+-- openfilz.full-text.postgres.active=true, removed with the document.
+CREATE TABLE document_contents (
+    document_id UUID PRIMARY KEY REFERENCES documents(id) ON DELETE CASCADE,
+    content TSVECTOR NOT NULL,
+    indexed_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_document_contents_content ON document_contents USING gin (content);
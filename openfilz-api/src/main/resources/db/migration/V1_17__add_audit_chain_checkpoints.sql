@@ -0,0 +1,9 @@
+-- Verified prefix of the audit chain: one row per successful verification, the last one being the checkpoint.
+-- The nightly verification only verifies the entries added after it.
+CREATE TABLE IF NOT EXISTS audit_chain_checkpoints (
+    id SERIAL PRIMARY KEY,
+    last_id BIGINT NOT NULL,
+    last_hash VARCHAR(64) NOT NULL,
+    verified_entries BIGINT NOT NULL,
+    verified_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
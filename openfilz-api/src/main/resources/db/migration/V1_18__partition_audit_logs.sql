@@ -0,0 +1,81 @@
+-- audit_logs becomes partitioned by month of timestamp (UTC months).
+-- The existing table is kept as is, without rewriting its rows, as the partition audit_logs_legacy: it holds all the
+-- entries up to the end of the current month, and is archived as a whole once closed.
+-- Monthly partitions are created ahead of time by create_audit_log_partition, called by the maintenance job.
+
+DROP TRIGGER IF EXISTS audit_log_immutable ON audit_logs;
+ALTER TABLE audit_logs RENAME TO audit_logs_legacy;
+
+CREATE TABLE audit_logs (LIKE audit_logs_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (timestamp);
+-- The ids keep being taken from the same sequence, which must outlive the legacy partition
+ALTER SEQUENCE audit_logs_id_seq OWNED BY audit_logs.id;
+
+DO $$
+DECLARE
+    -- Start of the month after the current one, or after the latest entry, in UTC
+    legacy_bound TIMESTAMP;
+BEGIN
+    SELECT GREATEST(date_trunc('month', now() AT TIME ZONE 'UTC'),
+                    date_trunc('month', MAX(timestamp) AT TIME ZONE 'UTC')) + INTERVAL '1 month'
+    INTO legacy_bound
+    FROM audit_logs_legacy;
+    EXECUTE format('ALTER TABLE audit_logs ATTACH PARTITION audit_logs_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                   legacy_bound AT TIME ZONE 'UTC');
+END $$;
+
+-- Created on the partitioned table, the trigger applies to every partition, current and future
+CREATE TRIGGER audit_log_immutable
+    BEFORE UPDATE OR DELETE ON audit_logs
+    FOR EACH ROW EXECUTE FUNCTION prevent_audit_log_mutation();
+
+-- Partitions of audit_logs with their range of timestamps (from_timestamp is null for MINVALUE)
+CREATE OR REPLACE VIEW audit_log_partitions AS
+SELECT c.relname::TEXT AS partition_name,
+       substring(pg_get_expr(c.relpartbound, c.oid) FROM 'FROM \(''([^'']+)''\)')::TIMESTAMP WITH TIME ZONE AS from_timestamp,
+       substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([^'']+)''\)')::TIMESTAMP WITH TIME ZONE AS to_timestamp
+FROM pg_inherits i
+         JOIN pg_class c ON c.oid = i.inhrelid
+WHERE i.inhparent = 'audit_logs'::regclass;
+
+-- Creates the partition of the month of the given date, unless its range is already covered by a partition.
+-- Returns true when the partition was created.
+CREATE OR REPLACE FUNCTION create_audit_log_partition(month_date DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    lower_bound TIMESTAMP WITH TIME ZONE := date_trunc('month', month_date::TIMESTAMP) AT TIME ZONE 'UTC';
+    upper_bound TIMESTAMP WITH TIME ZONE := (date_trunc('month', month_date::TIMESTAMP) + INTERVAL '1 month') AT TIME ZONE 'UTC';
+    partition_table TEXT := 'audit_logs_' || to_char(month_date, 'YYYY_MM');
+BEGIN
+    -- Serializes the instances creating partitions
+    PERFORM pg_advisory_xact_lock(hashtext('audit_log_partitions'));
+    IF EXISTS (SELECT 1 FROM audit_log_partitions p
+               WHERE COALESCE(p.from_timestamp, '-infinity') < upper_bound AND p.to_timestamp > lower_bound) THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)', partition_table, lower_bound, upper_bound);
+    EXECUTE format('CREATE INDEX %I ON %I (id)', partition_table || '_id_idx', partition_table);
+    EXECUTE format('CREATE INDEX %I ON %I (resource_id)', partition_table || '_resource_id_idx', partition_table);
+    EXECUTE format('CREATE INDEX %I ON %I (timestamp)', partition_table || '_timestamp_idx', partition_table);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_audit_log_partition(((now() AT TIME ZONE 'UTC')::DATE + make_interval(months => m))::DATE)
+FROM generate_series(0, 3) AS m;
+
+-- Closed partitions exported to storage, then detached and dropped. The hashes at both ends link each archive to the
+-- chain kept in audit_logs.
+CREATE TABLE IF NOT EXISTS audit_log_archives (
+    partition_name VARCHAR(63) PRIMARY KEY,
+    from_timestamp TIMESTAMP WITH TIME ZONE,
+    to_timestamp TIMESTAMP WITH TIME ZONE NOT NULL,
+    entries BIGINT NOT NULL,
+    first_id BIGINT,
+    last_id BIGINT,
+    first_previous_hash VARCHAR(64),
+    last_hash VARCHAR(64),
+    storage_path VARCHAR(1024) NOT NULL,
+    checksum VARCHAR(64) NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_audit_log_archives_last_id ON audit_log_archives (last_id);
@@ -0,0 +1,12 @@
+-- Indexes of the audit search, created on the partitioned table: every partition gets them, including the ones
+-- created later by create_audit_log_partition.
+
+-- Containment of audit details (details @> criteria); jsonb_path_ops only supports @>, and is smaller than jsonb_ops
+CREATE INDEX IF NOT EXISTS idx_audit_logs_details ON audit_logs USING GIN (details jsonb_path_ops);
+
+-- Searches by user or action, in timestamp order, page after page
+CREATE INDEX IF NOT EXISTS idx_audit_logs_user_principal_timestamp ON audit_logs (user_principal, timestamp);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_action_timestamp ON audit_logs (action, timestamp);
+
+-- Audit trail of a resource, in timestamp order
+CREATE INDEX IF NOT EXISTS idx_audit_logs_resource_id_timestamp ON audit_logs (resource_id, timestamp);
@@ -0,0 +1,22 @@
+-- Outbox of the post-processing of the document changes (full-text indexation, thumbnails, embeddings), used when
+-- openfilz.full-text.indexation-mode is outbox. Events are inserted in the transaction of the change, claimed by the
+-- workers of the instances with FOR UPDATE SKIP LOCKED, and deleted once run. A failed event is retried after
+-- available_at, and kept as FAILED once it was attempted openfilz.full-text.outbox.max-attempts times.
+CREATE TABLE post_processing_events (
+    id           BIGSERIAL PRIMARY KEY,
+    event_type   VARCHAR(32)              NOT NULL, -- PostProcessingEventType
+    document_id  UUID                     NOT NULL,
+    payload      JSONB,
+    status       VARCHAR(16)              NOT NULL DEFAULT 'PENDING', -- PENDING or FAILED
+    attempts     INTEGER                  NOT NULL DEFAULT 0,
+    available_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until TIMESTAMP WITH TIME ZONE, -- lease of the instance running the event
+    last_error   TEXT,
+    created_at   TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Pending events of a type, in the order they were recorded
+CREATE INDEX idx_post_processing_events_pending ON post_processing_events (event_type, id) WHERE status = 'PENDING';
+
+-- Earlier pending events of a document, run before its later events
+CREATE INDEX idx_post_processing_events_document ON post_processing_events (document_id, id) WHERE status = 'PENDING';
@@ -0,0 +1,29 @@
+-- The document_changes notifications (V1_15) are only read by the document cache, which is disabled by default: the
+-- triggers capture the changed rows of every update and delete of documents, so they are only installed while
+-- openfilz.document-cache.enabled is set. The application calls set_document_change_notifications after each
+-- migration run, with the value of the setting.
+DROP TRIGGER IF EXISTS documents_notify_update ON documents;
+DROP TRIGGER IF EXISTS documents_notify_delete ON documents;
+
+CREATE OR REPLACE FUNCTION set_document_change_notifications(enabled BOOLEAN) RETURNS VOID AS $$
+BEGIN
+    IF enabled = EXISTS (SELECT 1 FROM pg_trigger
+                         WHERE tgrelid = 'documents'::regclass AND tgname = 'documents_notify_update') THEN
+        RETURN;
+    END IF;
+    -- Dropped first in both cases: an instance starting at the same time may have just created them
+    DROP TRIGGER IF EXISTS documents_notify_update ON documents;
+    DROP TRIGGER IF EXISTS documents_notify_delete ON documents;
+    IF enabled THEN
+        CREATE TRIGGER documents_notify_update
+            AFTER UPDATE ON documents
+            REFERENCING OLD TABLE AS changed_documents
+            FOR EACH STATEMENT EXECUTE FUNCTION notify_document_changes();
+
+        CREATE TRIGGER documents_notify_delete
+            AFTER DELETE ON documents
+            REFERENCING OLD TABLE AS changed_documents
+            FOR EACH STATEMENT EXECUTE FUNCTION notify_document_changes();
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
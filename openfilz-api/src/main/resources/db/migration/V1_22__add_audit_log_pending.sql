@@ -0,0 +1,13 @@
+-- Chained audit entries logged within a transaction, staged in that transaction so that they are committed together
+-- with the change they audit. Once it commits, the audit chain writer chains them into audit_logs in id order and
+-- deletes them, in one transaction under the chain lock. Entries left by a failed write or a crash are chained by the
+-- next write of staged entries, at the latest on the next startup.
+CREATE TABLE audit_log_pending (
+    id             BIGSERIAL PRIMARY KEY,
+    timestamp      TIMESTAMP WITH TIME ZONE NOT NULL,
+    user_principal VARCHAR(255),
+    action         VARCHAR(255) NOT NULL,
+    resource_type  VARCHAR(100),
+    resource_id    UUID,
+    details        JSONB
+);
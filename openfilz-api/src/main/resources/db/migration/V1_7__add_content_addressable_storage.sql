@@ -0,0 +1,41 @@
+-- Content-addressable blobs (storage.content-addressable.enabled=true).
+-- A blob is stored once under 'cas/{sha256[0..2]}/{sha256}' and shared by every document whose
+-- storage_path points to it. ref_count is maintained by triggers on documents, so soft-deleted
+-- documents (still present in the table with active = false) keep their blob referenced.
+CREATE TABLE content_blobs (
+    storage_path VARCHAR(255) PRIMARY KEY,
+    ref_count    BIGINT                   NOT NULL DEFAULT 0,
+    created_at   TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- last time the blob was uploaded again or lost a reference: GC grace period starts from here
+    updated_at   TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Garbage collection candidates
+CREATE INDEX idx_content_blobs_unreferenced ON content_blobs (updated_at) WHERE ref_count <= 0;
+
+-- GC double-checks that no document row still points to a blob
+CREATE INDEX idx_documents_cas_storage_path ON documents (storage_path) WHERE storage_path LIKE 'cas/%';
+
+CREATE OR REPLACE FUNCTION maintain_content_blob_ref_count() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.storage_path LIKE 'cas/%' THEN
+        UPDATE content_blobs SET ref_count = ref_count - 1, updated_at = CURRENT_TIMESTAMP
+        WHERE storage_path = OLD.storage_path;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.storage_path LIKE 'cas/%' THEN
+        UPDATE content_blobs SET ref_count = ref_count + 1
+        WHERE storage_path = NEW.storage_path;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER documents_content_blob_refs
+    AFTER INSERT OR DELETE ON documents
+    FOR EACH ROW EXECUTE FUNCTION maintain_content_blob_ref_count();
+
+CREATE TRIGGER documents_content_blob_refs_update
+    AFTER UPDATE OF storage_path ON documents
+    FOR EACH ROW
+    WHEN (OLD.storage_path IS DISTINCT FROM NEW.storage_path)
+    EXECUTE FUNCTION maintain_content_blob_ref_count();
@@ -0,0 +1,21 @@
+-- Registry of in-progress TUS resumable uploads (previously JSON sidecar files under _tus/ in storage).
+-- upload_offset is only advanced with an optimistic check on its previous value (WHERE upload_offset = :expected),
+-- so concurrent PATCH requests at the same offset cannot both succeed.
+CREATE TABLE tus_uploads (
+    upload_id           VARCHAR(36) PRIMARY KEY,
+    upload_length       BIGINT                   NOT NULL,
+    upload_offset       BIGINT                   NOT NULL DEFAULT 0,
+    owner               VARCHAR(255)             NOT NULL,
+    -- decoded Upload-Metadata header
+    metadata            JSONB,
+    -- final storage path/key of the content, chosen when the upload is created
+    storage_path        VARCHAR(255)             NOT NULL,
+    -- native multipart upload (MinIO/S3): upload id and uploaded parts ([{number, etag, size}])
+    multipart_upload_id VARCHAR(1024),
+    parts               JSONB                    NOT NULL DEFAULT '[]',
+    created_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at          TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Expired uploads cleanup
+CREATE INDEX idx_tus_uploads_expires_at ON tus_uploads (expires_at);
@@ -0,0 +1,3 @@
+-- TUS concatenation extension: 'partial' for a partial upload, 'final;<partial upload URLs>' for an upload
+-- assembled from partial uploads, NULL for a regular upload.
+ALTER TABLE tus_uploads ADD COLUMN upload_concat TEXT;
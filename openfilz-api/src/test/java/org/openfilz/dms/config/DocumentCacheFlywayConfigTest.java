@@ -0,0 +1,57 @@
+package org.openfilz.dms.config;
+
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class DocumentCacheFlywayConfigTest {
+
+    private final DocumentCacheFlywayConfig config = new DocumentCacheFlywayConfig();
+
+    @Test
+    void runsAfterMigrateOnly() {
+        Callback callback = config.documentChangeNotificationsCallback(true, false);
+
+        assertTrue(callback.supports(Event.AFTER_MIGRATE, null));
+        assertFalse(callback.supports(Event.BEFORE_MIGRATE, null));
+        assertFalse(callback.supports(Event.AFTER_EACH_MIGRATE, null));
+    }
+
+    @Test
+    void cacheEnabled_installsTheTriggers() throws Exception {
+        assertNotificationsSet(config.documentChangeNotificationsCallback(true, false), true);
+    }
+
+    @Test
+    void cacheDisabled_removesTheTriggers() throws Exception {
+        assertNotificationsSet(config.documentChangeNotificationsCallback(false, false), false);
+    }
+
+    @Test
+    void customAccess_removesTheTriggers() throws Exception {
+        // The custom access DAO is never wrapped in the cache
+        assertNotificationsSet(config.documentChangeNotificationsCallback(true, true), false);
+    }
+
+    private static void assertNotificationsSet(Callback callback, boolean enabled) throws Exception {
+        Context context = mock(Context.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(context.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(DocumentCacheFlywayConfig.SET_NOTIFICATIONS)).thenReturn(statement);
+
+        callback.handle(Event.AFTER_MIGRATE, context);
+
+        verify(statement).setBoolean(1, enabled);
+        verify(statement).execute();
+        verify(statement).close();
+    }
+}
@@ -0,0 +1,30 @@
+package org.openfilz.dms.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FullTextPropertiesTest {
+
+    @Test
+    void getTextSearchConfigurations_withDefaultLanguages_returnsFrenchAndEnglish() {
+        FullTextProperties props = new FullTextProperties();
+        assertEquals(List.of("french", "english"), props.getTextSearchConfigurations());
+    }
+
+    @Test
+    void getTextSearchConfigurations_withUnknownLanguages_fallsBackToSimpleOnce() {
+        FullTextProperties props = new FullTextProperties();
+        props.setContentLanguages(List.of(" DE", "xx", "yy"));
+        assertEquals(List.of("german", "simple"), props.getTextSearchConfigurations());
+    }
+
+    @Test
+    void postgres_withDefaultValues_inactive() {
+        FullTextProperties props = new FullTextProperties();
+        assertFalse(props.getPostgres().isActive());
+        assertEquals(500_000, props.getPostgres().getMaxContentLength());
+    }
+}
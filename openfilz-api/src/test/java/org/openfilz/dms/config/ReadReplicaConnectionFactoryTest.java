@@ -0,0 +1,66 @@
+package org.openfilz.dms.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.repository.ReadReplica;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReplicaConnectionFactoryTest {
+
+    @Mock private ConnectionFactory primary;
+    @Mock private ConnectionFactory replica;
+    @Mock private Connection primaryConnection;
+    @Mock private Connection replicaConnection;
+
+    private ReadReplicaConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doReturn(Mono.just(primaryConnection)).when(primary).create();
+        lenient().doReturn(Mono.just(replicaConnection)).when(replica).create();
+        connectionFactory = new ReadReplicaConnectionFactory(primary, replica);
+    }
+
+    private Mono<Connection> connection() {
+        return Mono.from(connectionFactory.create());
+    }
+
+    @Test
+    void unmarkedQueriesUsePrimary() {
+        StepVerifier.create(connection())
+                .expectNext(primaryConnection)
+                .verifyComplete();
+    }
+
+    @Test
+    void readOnlyQueriesUseReplica() {
+        StepVerifier.create(ReadReplica.readOnly(connection()))
+                .expectNext(replicaConnection)
+                .verifyComplete();
+    }
+
+    @Test
+    void pinnedReadOnlyQueriesUsePrimary() {
+        StepVerifier.create(ReadReplica.primary(ReadReplica.readOnly(connection())))
+                .expectNext(primaryConnection)
+                .verifyComplete();
+    }
+
+    @Test
+    void readOnlyQueriesUsePrimaryWhileReplicaUnavailable() {
+        connectionFactory.setReplicaAvailable(false);
+
+        StepVerifier.create(ReadReplica.readOnly(connection()))
+                .expectNext(primaryConnection)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,32 @@
+package org.openfilz.dms.dto.audit;
+
+import org.junit.jupiter.api.Test;
+import org.openfilz.dms.enums.SortOrder;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogCursorTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Test
+    void encode_decode_roundTrip() {
+        AuditLogCursor cursor = new AuditLogCursor(SortOrder.DESC, OffsetDateTime.of(2026, 1, 2, 10, 15, 30, 123456000, ZoneOffset.UTC), 42L);
+
+        String encoded = cursor.encode(objectMapper);
+
+        assertFalse(encoded.contains("timestamp"), "cursor must be opaque");
+        assertEquals(cursor, AuditLogCursor.decode(encoded, objectMapper));
+    }
+
+    @Test
+    void decode_invalidCursor_throwsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> AuditLogCursor.decode("not a cursor!", objectMapper));
+        assertThrows(IllegalArgumentException.class, () -> AuditLogCursor.decode("e30", objectMapper)); // {}
+    }
+}
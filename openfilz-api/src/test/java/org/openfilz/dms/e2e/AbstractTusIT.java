@@ -169,7 +169,7 @@ public abstract class AbstractTusIT extends TestContainersKeyCloakConfig {
                 .expectStatus().isNoContent()
                 .expectHeader().valueEquals("Tus-Resumable", "1.0.0")
                 .expectHeader().valueEquals("Tus-Version", "1.0.0")
-                .expectHeader().valueEquals("Tus-Extension", "creation,termination")
+                .expectHeader().valueEquals("Tus-Extension", "creation,termination,concatenation")
                 .expectHeader().exists("Tus-Max-Size");
     }
 
@@ -679,6 +679,143 @@ public abstract class AbstractTusIT extends TestContainersKeyCloakConfig {
                         assertThat(value).contains("attachment").contains(filename));
     }
 
+    // =====================================================================
+    // Concatenation extension (parallel uploads)
+    // =====================================================================
+
+    private String createPartialUploadAndGetId(long uploadLength) {
+        String location = getWebTestClient().post().uri(TUS_ENDPOINT)
+                .header("Upload-Length", String.valueOf(uploadLength))
+                .header("Upload-Concat", "partial")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .exchange()
+                .expectStatus().isCreated()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .getFirst("Location");
+        assertThat(location).isNotNull();
+        return location.substring(location.lastIndexOf('/') + 1);
+    }
+
+    private String createFinalUploadAndGetId(String filename, String... partialUploadIds) {
+        String concat = "final;" + String.join(" ", Arrays.stream(partialUploadIds).map(id -> TUS_ENDPOINT + "/" + id).toList());
+        String location = getWebTestClient().post().uri(TUS_ENDPOINT)
+                .header("Upload-Concat", concat)
+                .header("Upload-Metadata", buildUploadMetadata(filename, null, true))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .exchange()
+                .expectStatus().isCreated()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .getFirst("Location");
+        assertThat(location).isNotNull();
+        return location.substring(location.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Uploads {@code content} as partial uploads split at {@code boundaries}, concatenates them, finalizes the
+     * final upload and checks the downloaded content.
+     */
+    private void concatenateFinalizeAndDownload(byte[] content, int... boundaries) {
+        String filename = "concat-" + UUID.randomUUID() + ".bin";
+        List<String> partialUploadIds = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= boundaries.length; i++) {
+            int end = i < boundaries.length ? boundaries[i] : content.length;
+            String partialUploadId = createPartialUploadAndGetId(end - start);
+            byte[] part = Arrays.copyOfRange(content, start, end);
+            for (int offset = 0; offset < part.length; offset += CHUNK_SIZE) {
+                uploadChunk(partialUploadId, offset, Arrays.copyOfRange(part, offset, Math.min(offset + CHUNK_SIZE, part.length)))
+                        .expectStatus().isNoContent();
+            }
+            partialUploadIds.add(partialUploadId);
+            start = end;
+        }
+
+        String uploadId = createFinalUploadAndGetId(filename, partialUploadIds.toArray(String[]::new));
+
+        getWebTestClient().head().uri(TUS_ENDPOINT + "/{uploadId}", uploadId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Upload-Offset", String.valueOf(content.length))
+                .expectHeader().valueEquals("Upload-Length", String.valueOf(content.length))
+                .expectHeader().value("Upload-Concat", value -> assertThat(value).startsWith("final;"));
+
+        // A final upload does not accept data
+        uploadChunk(uploadId, content.length, new byte[1])
+                .expectStatus().isForbidden();
+
+        // The partial uploads are consumed by the concatenation
+        getWebTestClient().head().uri(TUS_ENDPOINT + "/{uploadId}", partialUploadIds.getFirst())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        UploadResponse uploadResponse = getWebTestClient().post().uri(TUS_ENDPOINT + "/{uploadId}/finalize", uploadId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .header("Content-Type", "application/json")
+                .bodyValue(new TusFinalizeRequest(filename, null, null, true))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(UploadResponse.class)
+                .returnResult().getResponseBody();
+        assertThat(uploadResponse).isNotNull();
+        assertThat(uploadResponse.size()).isEqualTo(content.length);
+
+        byte[] downloaded = getWebTestClient().get()
+                .uri(RestApiVersion.API_PREFIX + "/documents/{id}/download", uploadResponse.id())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+        assertThat(downloaded).isEqualTo(content);
+    }
+
+    @Test
+    @Order(85)
+    void concatenation_largePartialUploads_finalizeDownload() {
+        // Parts above the S3 minimum part size: assembled with a server-side compose on MinIO
+        concatenateFinalizeAndDownload(largeFileBytes, 40 * 1024 * 1024, 80 * 1024 * 1024);
+    }
+
+    @Test
+    @Order(86)
+    void concatenation_smallPartialUploads_finalizeDownload() {
+        concatenateFinalizeAndDownload(smallFileBytes, 100, 600);
+    }
+
+    @Test
+    @Order(87)
+    void concatenation_incompletePartialUpload_isRejected() {
+        String partialUploadId = createPartialUploadAndGetId(SMALL_FILE_SIZE);
+        uploadChunk(partialUploadId, 0, Arrays.copyOfRange(smallFileBytes, 0, 100))
+                .expectStatus().isNoContent();
+
+        getWebTestClient().post().uri(TUS_ENDPOINT)
+                .header("Upload-Concat", "final;" + TUS_ENDPOINT + "/" + partialUploadId)
+                .header("Upload-Metadata", buildUploadMetadata("concat-incomplete.bin", null, true))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @Order(88)
+    void concatenation_partialUpload_cannotBeFinalized() {
+        String partialUploadId = createPartialUploadAndGetId(SMALL_FILE_SIZE);
+        uploadChunk(partialUploadId, 0, smallFileBytes)
+                .expectStatus().isNoContent();
+
+        getWebTestClient().post().uri(TUS_ENDPOINT + "/{uploadId}/finalize", partialUploadId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .header("Content-Type", "application/json")
+                .bodyValue(new TusFinalizeRequest("concat-partial.bin", null, null, true))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
     // =====================================================================
     // TusUploadCleanupScheduler tests
     // =====================================================================
@@ -6,7 +6,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openfilz.dms.config.AuditProperties;
 import org.openfilz.dms.config.RestApiVersion;
+import org.openfilz.dms.dto.audit.AuditEntry;
 import org.openfilz.dms.dto.audit.AuditLog;
+import org.openfilz.dms.dto.audit.AuditLogCursor;
 import org.openfilz.dms.dto.audit.AuditVerificationResult;
 import org.openfilz.dms.dto.audit.AuditVerificationResult.AuditVerificationStatus;
 import org.openfilz.dms.dto.request.CreateFolderRequest;
@@ -15,11 +17,14 @@ import org.openfilz.dms.dto.request.SearchByAuditLogRequest;
 import org.openfilz.dms.dto.response.FolderResponse;
 import org.openfilz.dms.dto.response.UploadResponse;
 import org.openfilz.dms.enums.AuditAction;
+import org.openfilz.dms.enums.DocumentType;
 import org.openfilz.dms.enums.SortOrder;
 import org.openfilz.dms.service.AuditChainService;
+import org.openfilz.dms.service.AuditService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.http.codec.json.JacksonJsonEncoder;
 import org.springframework.r2dbc.core.DatabaseClient;
@@ -27,16 +32,23 @@ import org.springframework.test.context.TestConstructor;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static org.openfilz.dms.enums.AuditAction.*;
 import static org.springframework.test.context.TestConstructor.AutowireMode.ALL;
@@ -56,6 +68,9 @@ public class AuditChainIT extends TestContainersBaseConfig {
     @Autowired
     private AuditProperties auditProperties;
 
+    @Autowired
+    private AuditService auditService;
+
     public AuditChainIT(WebTestClient webTestClient, JacksonJsonEncoder customJacksonJsonEncoder) {
         super(webTestClient, customJacksonJsonEncoder);
     }
@@ -440,6 +455,234 @@ public class AuditChainIT extends TestContainersBaseConfig {
         Assertions.assertFalse(trail.isEmpty(), "All actions should be audited when exclusion list is empty");
     }
 
+    // ==================== Entries Staged in Transactions ====================
+
+    private long countStagedEntries() {
+        return databaseClient.sql("SELECT COUNT(*) FROM audit_log_pending")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    private List<AuditLog> getAuditTrail(UUID resourceId) {
+        return getWebTestClient().get()
+                .uri(uri -> uri.path(RestApiVersion.API_PREFIX + "/audit/{id}").build(resourceId))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AuditLog.class)
+                .returnResult().getResponseBody();
+    }
+
+    @Test
+    void entriesLoggedInTransaction_areChainedOnCommit() {
+        // Folders are created in a transaction: the entry is staged, then chained once committed
+        FolderResponse folder = getWebTestClient().post().uri(RestApiVersion.API_PREFIX + "/folders")
+                .body(BodyInserters.fromValue(new CreateFolderRequest("chain-staged-" + UUID.randomUUID(), null)))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(FolderResponse.class)
+                .returnResult().getResponseBody();
+        Assertions.assertNotNull(folder);
+
+        List<AuditLog> trail = getAuditTrail(folder.id());
+        Assertions.assertNotNull(trail);
+        Assertions.assertEquals(1, trail.size());
+        Assertions.assertEquals(CREATE_FOLDER, trail.getFirst().action());
+        Assertions.assertNotNull(trail.getFirst().hash());
+        Assertions.assertEquals(0, countStagedEntries());
+    }
+
+    @Test
+    void stagedEntries_leftBeforeAFailure_areChainedByTheNextCommit() {
+        // An entry committed with its change, but not chained (e.g. the instance stopped right after the commit)
+        UUID resourceId = UUID.randomUUID();
+        databaseClient.sql("""
+                INSERT INTO audit_log_pending (timestamp, user_principal, action, resource_type, resource_id)
+                VALUES (:ts, 'staged@test.com', 'CREATE_FOLDER', 'FOLDER', :rid)
+                """)
+                .bind("ts", OffsetDateTime.now())
+                .bind("rid", resourceId)
+                .then().block();
+
+        getWebTestClient().post().uri(RestApiVersion.API_PREFIX + "/folders")
+                .body(BodyInserters.fromValue(new CreateFolderRequest("chain-staged-next-" + UUID.randomUUID(), null)))
+                .exchange()
+                .expectStatus().isCreated();
+
+        List<AuditLog> trail = getAuditTrail(resourceId);
+        Assertions.assertNotNull(trail);
+        Assertions.assertEquals(1, trail.size());
+        Assertions.assertEquals("staged@test.com", trail.getFirst().username());
+        Assertions.assertNotNull(trail.getFirst().hash());
+        Assertions.assertEquals(0, countStagedEntries());
+
+        AuditVerificationResult result = getWebTestClient().get()
+                .uri(RestApiVersion.API_PREFIX + "/audit/verify")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AuditVerificationResult.class)
+                .returnResult().getResponseBody();
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(AuditVerificationStatus.VALID, result.status());
+    }
+
+    // ==================== Paging on Equal Timestamps ====================
+
+    private static final ObjectMapper CURSOR_MAPPER = JsonMapper.builder().build();
+
+    /**
+     * Logs the entries in one batch: they all share the timestamp of the batch.
+     */
+    private UUID logEntriesWithSameTimestamp(int count) {
+        UUID resourceId = UUID.randomUUID();
+        List<AuditEntry> entries = IntStream.range(0, count)
+                .mapToObj(_ -> new AuditEntry(UPDATE_DOCUMENT_METADATA, DocumentType.FILE, resourceId))
+                .toList();
+        auditService.logActions(entries).block();
+        return resourceId;
+    }
+
+    private List<AuditLog> getAuditTrailPage(UUID resourceId, SortOrder sort, int pageSize, String after) {
+        return getWebTestClient().get()
+                .uri(uri -> uri.path(RestApiVersion.API_PREFIX + "/audit/{id}")
+                        .queryParam("sort", sort)
+                        .queryParam("pageSize", pageSize)
+                        .queryParamIfPresent("after", Optional.ofNullable(after))
+                        .build(resourceId))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AuditLog.class)
+                .returnResult().getResponseBody();
+    }
+
+    private List<AuditLog> searchPage(UUID resourceId, SortOrder sort, int pageSize, String after) {
+        return getWebTestClient().post().uri(RestApiVersion.API_PREFIX + "/audit/search")
+                .body(BodyInserters.fromValue(new SearchByAuditLogRequest(null, resourceId, null, null, null, null, null, sort, pageSize, after)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AuditLog.class)
+                .returnResult().getResponseBody();
+    }
+
+    /**
+     * Follows the cursors page after page and checks the (timestamp, id) order of all the entries read.
+     */
+    private List<AuditLogCursor> readAllPages(SortOrder sort, int pageSize, Function<String, List<AuditLog>> page) {
+        List<AuditLogCursor> cursors = new ArrayList<>();
+        String after = null;
+        List<AuditLog> entries;
+        do {
+            entries = page.apply(after);
+            Assertions.assertNotNull(entries);
+            Assertions.assertTrue(entries.size() <= pageSize);
+            for (AuditLog entry : entries) {
+                Assertions.assertNotNull(entry.cursor(), "Each entry of a page must have a cursor");
+                cursors.add(AuditLogCursor.decode(entry.cursor(), CURSOR_MAPPER));
+            }
+            after = entries.isEmpty() ? null : entries.getLast().cursor();
+        } while (after != null);
+
+        Comparator<AuditLogCursor> order = Comparator.comparing(AuditLogCursor::timestamp).thenComparing(AuditLogCursor::id);
+        for (int i = 1; i < cursors.size(); i++) {
+            int comparison = order.compare(cursors.get(i - 1), cursors.get(i));
+            Assertions.assertTrue(sort == SortOrder.ASC ? comparison < 0 : comparison > 0,
+                    "Entries must be strictly ordered by timestamp then id across pages");
+        }
+        return cursors;
+    }
+
+    @Test
+    void auditTrailPages_onEqualTimestamps_areSeparatedById() {
+        UUID resourceId = logEntriesWithSameTimestamp(5);
+
+        for (SortOrder sort : SortOrder.values()) {
+            List<AuditLogCursor> cursors = readAllPages(sort, 2, after -> getAuditTrailPage(resourceId, sort, 2, after));
+
+            // No entry read twice nor skipped at the page boundaries
+            Assertions.assertEquals(5, cursors.size());
+            Assertions.assertEquals(5, cursors.stream().map(AuditLogCursor::id).distinct().count());
+            Assertions.assertEquals(1, cursors.stream().map(c -> c.timestamp().toInstant()).distinct().count(),
+                    "The entries of a batch share one timestamp");
+            cursors.forEach(cursor -> Assertions.assertEquals(sort, cursor.sortOrder()));
+        }
+    }
+
+    @Test
+    void searchPages_afterCursor_returnOnlyTheFollowingEntries() {
+        UUID resourceId = logEntriesWithSameTimestamp(3);
+
+        List<AuditLogCursor> cursors = readAllPages(SortOrder.DESC, 1, after -> searchPage(resourceId, SortOrder.DESC, 1, after));
+        Assertions.assertEquals(3, cursors.size());
+
+        // Seek predicate: the page after the second entry holds only the last one
+        List<AuditLog> first = searchPage(resourceId, SortOrder.DESC, 2, null);
+        Assertions.assertNotNull(first);
+        Assertions.assertEquals(2, first.size());
+        List<AuditLog> next = searchPage(resourceId, SortOrder.DESC, 2, first.getLast().cursor());
+        Assertions.assertNotNull(next);
+        Assertions.assertEquals(1, next.size());
+        Assertions.assertEquals(cursors.getLast(), AuditLogCursor.decode(next.getFirst().cursor(), CURSOR_MAPPER));
+    }
+
+    @Test
+    void auditPages_withCursorOfAnotherSort_orWithoutPageSize_areRejected() {
+        UUID resourceId = logEntriesWithSameTimestamp(2);
+        List<AuditLog> ascPage = getAuditTrailPage(resourceId, SortOrder.ASC, 1, null);
+        Assertions.assertNotNull(ascPage);
+        String ascCursor = ascPage.getFirst().cursor();
+
+        getWebTestClient().get()
+                .uri(uri -> uri.path(RestApiVersion.API_PREFIX + "/audit/{id}")
+                        .queryParam("sort", SortOrder.DESC)
+                        .queryParam("pageSize", 1)
+                        .queryParam("after", ascCursor)
+                        .build(resourceId))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        getWebTestClient().get()
+                .uri(uri -> uri.path(RestApiVersion.API_PREFIX + "/audit/{id}")
+                        .queryParam("sort", SortOrder.ASC)
+                        .queryParam("after", ascCursor)
+                        .build(resourceId))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        getWebTestClient().post().uri(RestApiVersion.API_PREFIX + "/audit/search")
+                .body(BodyInserters.fromValue(new SearchByAuditLogRequest(null, resourceId, null, null, null, null, null, SortOrder.DESC, 1, ascCursor)))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        getWebTestClient().post().uri(RestApiVersion.API_PREFIX + "/audit/search")
+                .body(BodyInserters.fromValue(new SearchByAuditLogRequest(null, resourceId, null, null, null, null, null, SortOrder.ASC, null, ascCursor)))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void searchAuditTrail_asNdjson_streamsAllMatchingEntries() {
+        UUID resourceId = logEntriesWithSameTimestamp(4);
+
+        List<AuditLog> entries = getWebTestClient().post().uri(RestApiVersion.API_PREFIX + "/audit/search")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(BodyInserters.fromValue(new SearchByAuditLogRequest(null, resourceId, null, null, null, null, null, SortOrder.ASC, null, null)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(AuditLog.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        Assertions.assertNotNull(entries);
+        Assertions.assertEquals(4, entries.size());
+        for (AuditLog entry : entries) {
+            Assertions.assertEquals(resourceId, entry.id());
+            Assertions.assertEquals(UPDATE_DOCUMENT_METADATA, entry.action());
+            Assertions.assertNotNull(entry.hash());
+        }
+    }
+
     // ==================== Concurrent Audit Events ====================
 
     @Test
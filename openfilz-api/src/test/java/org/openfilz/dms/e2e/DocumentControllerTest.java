@@ -16,6 +16,8 @@ import org.openfilz.dms.exception.DocumentNotFoundException;
 import org.openfilz.dms.service.DocumentService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -116,7 +118,8 @@ class DocumentControllerTest {
 
         when(documentService.findDocumentToDownloadById(documentId)).thenReturn(Mono.error(new DocumentNotFoundException(documentId)));
 
-        StepVerifier.create(documentController.downloadDocument(documentId))
+        StepVerifier.create(documentController.downloadDocument(documentId,
+                        MockServerWebExchange.from(MockServerHttpRequest.get("/download"))))
                 .expectError(DocumentNotFoundException.class)
                 .verify();
     }
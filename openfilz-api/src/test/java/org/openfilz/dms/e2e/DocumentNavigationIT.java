@@ -389,6 +389,35 @@ public class DocumentNavigationIT extends TestContainersBaseConfig {
                 "Folders should be positioned before files");
     }
 
+    @Test
+    void getPosition_SortedByName_ShouldFollowListingOrder() {
+        // Given: a folder with three subfolders and a file
+        FolderResponse parent = createFolder("position-order-" + UUID.randomUUID(), null);
+        FolderResponse a = createFolder("a-" + UUID.randomUUID(), parent.id());
+        FolderResponse b = createFolder("b-" + UUID.randomUUID(), parent.id());
+        FolderResponse c = createFolder("c-" + UUID.randomUUID(), parent.id());
+
+        MultipartBodyBuilder builder = newFileBuilder();
+        builder.part("parentFolderId", parent.id().toString());
+        UploadResponse file = uploadDocument(builder);
+
+        // Then: folders come first in both orders, then the file
+        assertEquals(0, getPosition(a.id(), "name", "ASC").position());
+        assertEquals(1, getPosition(b.id(), "name", "ASC").position());
+        assertEquals(2, getPosition(c.id(), "name", "ASC").position());
+        assertEquals(3, getPosition(file.id(), "name", "ASC").position());
+
+        assertEquals(2, getPosition(a.id(), "name", "DESC").position());
+        assertEquals(1, getPosition(b.id(), "name", "DESC").position());
+        assertEquals(0, getPosition(c.id(), "name", "DESC").position());
+        DocumentPosition filePosition = getPosition(file.id(), "name", "DESC");
+        assertEquals(3, filePosition.position());
+        assertEquals(4, filePosition.totalItems());
+
+        assertEquals(3, getPosition(file.id(), "size", "DESC").position());
+        assertEquals(4, getPosition(file.id(), "type", "ASC").totalItems());
+    }
+
     @Test
     void getPosition_DefaultSortParameters_ShouldWork() {
         // Given: a file in a folder
@@ -483,6 +512,19 @@ public class DocumentNavigationIT extends TestContainersBaseConfig {
                 .returnResult().getResponseBody();
     }
 
+    private DocumentPosition getPosition(UUID documentId, String sortBy, String sortOrder) {
+        return getWebTestClient().get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(RestApiVersion.API_PREFIX + "/documents/{documentId}/position")
+                        .queryParam("sortBy", sortBy)
+                        .queryParam("sortOrder", sortOrder)
+                        .build(documentId))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(DocumentPosition.class)
+                .returnResult().getResponseBody();
+    }
+
     private DocumentPosition getPosition(UUID documentId) {
         return getWebTestClient().get()
                 .uri(RestApiVersion.API_PREFIX + "/documents/{documentId}/position", documentId)
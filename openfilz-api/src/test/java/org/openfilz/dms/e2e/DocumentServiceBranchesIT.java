@@ -6,7 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.openfilz.dms.config.RestApiVersion;
 import org.openfilz.dms.dto.request.*;
 import org.openfilz.dms.dto.response.*;
+import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.enums.DocumentTemplateType;
+import org.openfilz.dms.repository.DocumentRepository;
+import org.openfilz.dms.service.StorageService;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.MediaType;
@@ -17,9 +20,14 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static org.springframework.test.context.TestConstructor.AutowireMode.ALL;
 
@@ -33,7 +41,7 @@ import static org.springframework.test.context.TestConstructor.AutowireMode.ALL;
  * - Folder operations: create with slash in name, create in non-existent parent
  * - Move folder: to root (null target), move into self
  * - Copy files: to root (null target)
- * - Download folder as ZIP
+ * - Download folder as ZIP, skipping the files missing from the storage
  */
 @Testcontainers
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -41,8 +49,15 @@ import static org.springframework.test.context.TestConstructor.AutowireMode.ALL;
 @TestConstructor(autowireMode = ALL)
 public class DocumentServiceBranchesIT extends TestContainersBaseConfig {
 
-    public DocumentServiceBranchesIT(WebTestClient webTestClient, JacksonJsonEncoder customJacksonJsonEncoder) {
+    private final DocumentRepository documentRepository;
+
+    private final StorageService storageService;
+
+    public DocumentServiceBranchesIT(WebTestClient webTestClient, JacksonJsonEncoder customJacksonJsonEncoder,
+                                     DocumentRepository documentRepository, StorageService storageService) {
         super(webTestClient, customJacksonJsonEncoder);
+        this.documentRepository = documentRepository;
+        this.storageService = storageService;
     }
 
     // ==================== Metadata CRUD Operations ====================
@@ -583,6 +598,40 @@ public class DocumentServiceBranchesIT extends TestContainersBaseConfig {
                 .expectHeader().contentType(MediaType.APPLICATION_OCTET_STREAM);
     }
 
+    @Test
+    void whenDownloadFolderWithMissingFile_thenFileSkipped() throws IOException {
+        FolderResponse folder = createFolder("dl-missing-" + UUID.randomUUID(), null);
+
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("file", new ClassPathResource("test.txt"));
+        builder.part("parentFolderId", folder.id().toString());
+        uploadDocument(builder);
+        builder = new MultipartBodyBuilder();
+        builder.part("file", new ClassPathResource("test_file_1.sql"));
+        builder.part("parentFolderId", folder.id().toString());
+        UploadResponse missing = uploadDocument(builder);
+
+        // Remove the content of the second file from the storage
+        String storagePath = documentRepository.findById(missing.id()).map(Document::getStoragePath).block();
+        storageService.deleteFile(storagePath).block();
+
+        byte[] zip = getWebTestClient().get()
+                .uri(RestApiVersion.API_PREFIX + "/documents/{id}/download", folder.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        Assertions.assertNotNull(zip);
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            for (ZipEntry entry = zipInputStream.getNextEntry(); entry != null; entry = zipInputStream.getNextEntry()) {
+                entries.add(entry.getName());
+            }
+        }
+        Assertions.assertEquals(List.of("test.txt"), entries);
+    }
+
     @Test
     void whenDownloadNonExistentDocument_thenNotFound() {
         getWebTestClient().get()
@@ -25,8 +25,8 @@ import static org.springframework.test.context.TestConstructor.AutowireMode.ALL;
 /**
  * E2E tests with quota enforcement enabled to cover:
  * - DocumentServiceImpl.validateFileSize() - file upload quota exceeded path
- * - DocumentServiceImpl.validateUserQuota() - user storage quota exceeded path
- * - DocumentServiceImpl.validateUserQuotaForReplace() - replace quota exceeded path
+ * - UserQuotaServiceImpl.withReservation() - user storage quota exceeded path
+ * - DocumentServiceImpl.replaceDocumentContent() - replace quota exceeded path (net change reservation)
  * - GlobalExceptionHandler: FileSizeExceededException → 413
  * - GlobalExceptionHandler: UserQuotaExceededException → 507
  * - TusController: quota validation for TUS uploads
@@ -24,6 +24,7 @@ import static org.springframework.test.context.TestConstructor.AutowireMode.ALL;
  * E2E tests targeting deep folder hierarchy operations:
  * - Move folder into itself → forbidden
  * - Move folder into its descendant → forbidden
+ * - Move folder together with its descendant → forbidden
  * - Move folder to target that is a file → forbidden
  * - Move file using folder API → forbidden
  * - Copy folder into itself → forbidden
@@ -32,6 +33,7 @@ import static org.springframework.test.context.TestConstructor.AutowireMode.ALL;
  * - Move file to non-existent target → not found
  * - Rename folder duplicate name (different from same name)
  * - Deep copy folder with nested children
+ * - Copy folder name collision, with and without allowDuplicateFileNames
  * - Delete folder with nested contents
  */
 @Testcontainers
@@ -77,6 +79,35 @@ public class FolderHierarchyDeepIT extends TestContainersBaseConfig {
                 .expectStatus().isForbidden();
     }
 
+    // ==================== Move folder together with its descendant ====================
+
+    @Test
+    void whenMoveFolderWithItsDescendant_thenForbidden() {
+        FolderResponse parent = createFolder("nested-parent-" + UUID.randomUUID(), null);
+        FolderResponse child = createFolder("nested-child-" + UUID.randomUUID(), parent.id());
+        createFolder("nested-grandchild-" + UUID.randomUUID(), child.id());
+        FolderResponse target = createFolder("nested-target-" + UUID.randomUUID(), null);
+
+        String body = "{\"documentIds\":[\"" + parent.id() + "\",\"" + child.id() + "\"],\"targetFolderId\":\"" + target.id() + "\"}";
+        getWebTestClient().post()
+                .uri(RestApiVersion.API_PREFIX + "/folders/move")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isForbidden();
+
+        // Nothing was moved: the child is still under its parent
+        getWebTestClient().get()
+                .uri(uri -> uri.path(RestApiVersion.API_PREFIX + "/folders/list")
+                        .queryParam("folderId", parent.id())
+                        .queryParam("onlyFolders", true)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(child.id().toString());
+    }
+
     // ==================== Move folder to non-existent target ====================
 
     @Test
@@ -290,6 +321,33 @@ public class FolderHierarchyDeepIT extends TestContainersBaseConfig {
                 .expectStatus().isOk();
     }
 
+    // ==================== Copy folder with name collision ====================
+
+    @Test
+    void whenCopyFolderNameCollision_thenConflictUnlessDuplicatesAllowed() {
+        FolderResponse target = createFolder("copy-collision-target-" + UUID.randomUUID(), null);
+        String sameName = "copy-dup-name-" + UUID.randomUUID();
+        createFolder(sameName, target.id());
+        FolderResponse toCopy = createFolder(sameName, null);
+        createFolder("copy-dup-child-" + UUID.randomUUID(), toCopy.id());
+
+        String body = "{\"documentIds\":[\"" + toCopy.id() + "\"],\"targetFolderId\":\"" + target.id() + "\"}";
+        getWebTestClient().post()
+                .uri(RestApiVersion.API_PREFIX + "/folders/copy")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        String allowDuplicates = "{\"documentIds\":[\"" + toCopy.id() + "\"],\"targetFolderId\":\"" + target.id() + "\",\"allowDuplicateFileNames\":true}";
+        getWebTestClient().post()
+                .uri(RestApiVersion.API_PREFIX + "/folders/copy")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(allowDuplicates)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
     // ==================== Delete folder with nested contents ====================
 
     @Test
@@ -350,6 +350,130 @@ public class GraphQlEdgeCasesIT extends TestContainersBaseConfig {
                 .verify();
     }
 
+    @Test
+    void whenListFolderWithCursor_thenPagesFollowEachOther() {
+        FolderResponse folder = createFolder("graphql-cursor-" + UUID.randomUUID(), null);
+        createFolder("sub-b", folder.id());
+        createFolder("sub-a", folder.id());
+        MultipartBodyBuilder builder = newFileBuilder("test_file_1.sql", "test.txt");
+        MultipleUploadFileParameter param1 = new MultipleUploadFileParameter(
+                "test_file_1.sql", new MultipleUploadFileParameterAttributes(folder.id(), null));
+        MultipleUploadFileParameter param2 = new MultipleUploadFileParameter(
+                "test.txt", new MultipleUploadFileParameterAttributes(folder.id(), null));
+        getUploadMultipleDocumentExchange(param1, param2, builder).expectStatus().isOk();
+
+        String query = """
+                query listFolder($request:ListFolderRequest!) {
+                    listFolder(request:$request) {
+                      name
+                      cursor
+                    }
+                }
+                """.trim();
+
+        List<String> names = new java.util.ArrayList<>();
+        String after = null;
+        for (int page = 0; page < 3; page++) {
+            ListFolderRequest request = new ListFolderRequest(
+                    folder.id(), null, null, null, null, null, null, null, null, null, null, null,
+                    null, null, true, new PageCriteria("name", SortOrder.ASC, null, 3, after), null);
+            ClientGraphQlResponse response = getClient().document(query).variable("request", request).execute().block();
+            Assertions.assertNotNull(response);
+            Assertions.assertTrue(response.getErrors().isEmpty(), () -> response.getErrors().toString());
+            List<Map<String, Object>> items = response.field("listFolder").getValue();
+            Assertions.assertNotNull(items);
+            if (items.isEmpty()) {
+                break;
+            }
+            items.forEach(item -> names.add((String) item.get("name")));
+            after = (String) items.getLast().get("cursor");
+        }
+
+        // Folders first, then files, each sorted by name, without duplicates or gaps
+        Assertions.assertEquals(List.of("sub-a", "sub-b", "test.txt", "test_file_1.sql"), names);
+    }
+
+    @Test
+    void whenListFolderPageNumberWithCursorSelected_thenPageNumberHonoured() {
+        FolderResponse folder = createFolder("graphql-cursor-page-" + UUID.randomUUID(), null);
+        createFolder("sub-b", folder.id());
+        createFolder("sub-a", folder.id());
+        MultipartBodyBuilder builder = newFileBuilder("test_file_1.sql", "test.txt");
+        MultipleUploadFileParameter param1 = new MultipleUploadFileParameter(
+                "test_file_1.sql", new MultipleUploadFileParameterAttributes(folder.id(), null));
+        MultipleUploadFileParameter param2 = new MultipleUploadFileParameter(
+                "test.txt", new MultipleUploadFileParameterAttributes(folder.id(), null));
+        getUploadMultipleDocumentExchange(param1, param2, builder).expectStatus().isOk();
+
+        String query = """
+                query listFolder($request:ListFolderRequest!) {
+                    listFolder(request:$request) {
+                      name
+                      cursor
+                    }
+                }
+                """.trim();
+
+        ListFolderRequest first = new ListFolderRequest(
+                folder.id(), null, null, null, null, null, null, null, null, null, null, null,
+                null, null, true, new PageCriteria("name", SortOrder.ASC, 1, 2), null);
+        ClientGraphQlResponse firstPage = getClient().document(query).variable("request", first).execute().block();
+        Assertions.assertNotNull(firstPage);
+        Assertions.assertTrue(firstPage.getErrors().isEmpty(), () -> firstPage.getErrors().toString());
+        List<Map<String, Object>> firstItems = firstPage.field("listFolder").getValue();
+        Assertions.assertEquals(List.of("sub-a", "sub-b"), firstItems.stream().map(item -> item.get("name")).toList());
+
+        ListFolderRequest second = new ListFolderRequest(
+                folder.id(), null, null, null, null, null, null, null, null, null, null, null,
+                null, null, true, new PageCriteria("name", SortOrder.ASC, 2, 2), null);
+        ClientGraphQlResponse secondPage = getClient().document(query).variable("request", second).execute().block();
+        Assertions.assertNotNull(secondPage);
+        Assertions.assertTrue(secondPage.getErrors().isEmpty(), () -> secondPage.getErrors().toString());
+        List<Map<String, Object>> secondItems = secondPage.field("listFolder").getValue();
+        Assertions.assertEquals(List.of("test.txt", "test_file_1.sql"), secondItems.stream().map(item -> item.get("name")).toList());
+        secondItems.forEach(item -> Assertions.assertNotNull(item.get("cursor")));
+
+        // The cursor of a numbered page continues in the same order
+        ListFolderRequest next = new ListFolderRequest(
+                folder.id(), null, null, null, null, null, null, null, null, null, null, null,
+                null, null, true, new PageCriteria("name", SortOrder.ASC, null, 2, (String) firstItems.getLast().get("cursor")), null);
+        ClientGraphQlResponse nextPage = getClient().document(query).variable("request", next).execute().block();
+        Assertions.assertNotNull(nextPage);
+        Assertions.assertTrue(nextPage.getErrors().isEmpty(), () -> nextPage.getErrors().toString());
+        List<Map<String, Object>> nextItems = nextPage.field("listFolder").getValue();
+        Assertions.assertEquals(secondItems, nextItems);
+    }
+
+    @Test
+    void whenListFolderWithCursorOfAnotherSort_thenBadRequestError() {
+        FolderResponse folder = createFolder("graphql-cursor-sort-" + UUID.randomUUID(), null);
+        createFolder("sub", folder.id());
+
+        String query = """
+                query listFolder($request:ListFolderRequest!) {
+                    listFolder(request:$request) {
+                      cursor
+                    }
+                }
+                """.trim();
+        ListFolderRequest first = new ListFolderRequest(
+                folder.id(), null, null, null, null, null, null, null, null, null, null, null,
+                null, null, true, new PageCriteria("name", SortOrder.ASC, 1, 10), null);
+        ClientGraphQlResponse firstPage = getClient().document(query).variable("request", first).execute().block();
+        Assertions.assertNotNull(firstPage);
+        List<Map<String, Object>> items = firstPage.field("listFolder").getValue();
+        String cursor = (String) items.getFirst().get("cursor");
+
+        ListFolderRequest next = new ListFolderRequest(
+                folder.id(), null, null, null, null, null, null, null, null, null, null, null,
+                null, null, true, new PageCriteria("updatedAt", SortOrder.DESC, null, 10, cursor), null);
+
+        StepVerifier.create(getClient().document(query).variable("request", next).execute())
+                .expectNextMatches(doc -> !doc.getErrors().isEmpty())
+                .expectComplete()
+                .verify();
+    }
+
     @Test
     void whenCountFolderElements_thenOk() {
         String folderName = "graphql-count-" + UUID.randomUUID();
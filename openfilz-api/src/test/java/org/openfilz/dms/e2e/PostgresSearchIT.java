@@ -0,0 +1,147 @@
+package org.openfilz.dms.e2e;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openfilz.dms.dto.response.UploadResponse;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.codec.json.JacksonJsonEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.context.TestConstructor.AutowireMode.ALL;
+
+/**
+ * E2E tests of the search in PostgreSQL (openfilz.full-text.postgres.active, without OpenSearch):
+ * - Match by name, with % and _ taken literally
+ * - Match by the content extracted from the files
+ * - Ranking of the name and content matches together
+ */
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Slf4j
+@TestConstructor(autowireMode = ALL)
+public class PostgresSearchIT extends TestContainersBaseConfig {
+
+    private static final String SEARCH_QUERY = """
+            query search($query: String) {
+              searchDocuments(query: $query, page: 1, size: 100) {
+                totalHits
+                documents {
+                  id
+                  name
+                }
+              }
+            }""";
+
+    public PostgresSearchIT(WebTestClient webTestClient, JacksonJsonEncoder customJacksonJsonEncoder) {
+        super(webTestClient, customJacksonJsonEncoder);
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("openfilz.full-text.active", () -> false);
+        registry.add("openfilz.full-text.postgres.active", () -> true);
+    }
+
+    /**
+     * Letters only, so that the text search parser keeps it as one word.
+     */
+    private static String randomWord() {
+        Random random = new Random();
+        return random.ints(12, 'a', 'z' + 1)
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString();
+    }
+
+    private UploadResponse uploadText(String filename, String content) {
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("file", new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+        });
+        return getUploadResponse(builder, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> search(String query) {
+        ClientGraphQlResponse doc = newGraphQlClient().document(SEARCH_QUERY)
+                .variable("query", query).execute().block();
+        Assertions.assertNotNull(doc);
+        Assertions.assertTrue(doc.getErrors().isEmpty(), () -> "GraphQL errors: " + doc.getErrors());
+        Map<String, Object> result = (Map<String, Object>) ((Map<String, Object>) doc.getData()).get("searchDocuments");
+        List<Map<String, Object>> documents = (List<Map<String, Object>>) result.get("documents");
+        Assertions.assertEquals(documents.size(), ((Number) result.get("totalHits")).intValue());
+        return documents;
+    }
+
+    private static Set<String> names(List<Map<String, Object>> documents) {
+        return documents.stream().map(d -> (String) d.get("name")).collect(Collectors.toSet());
+    }
+
+    @Test
+    void whenSearchByName_thenUnderscoreMatchedLiterally() {
+        String word = randomWord();
+        uploadText("budget_" + word + ".txt", "first");
+        uploadText("budget-" + word + ".txt", "second");
+
+        Assertions.assertEquals(Set.of("budget_" + word + ".txt"), names(search("budget_" + word)));
+        Assertions.assertEquals(Set.of("budget_" + word + ".txt", "budget-" + word + ".txt"), names(search(word)));
+    }
+
+    @Test
+    void whenSearchByName_thenPercentMatchedLiterally() {
+        String word = randomWord();
+        uploadText(word + " 100% done.txt", "first");
+        uploadText(word + " 1000 done.txt", "second");
+
+        Assertions.assertEquals(Set.of(word + " 100% done.txt"), names(search(word + " 100%")));
+    }
+
+    @Test
+    void whenSearchByContent_thenFilesWithTheWordFound() {
+        String word = randomWord();
+        UploadResponse report = uploadText("report.txt", "The " + word + " forecast of the quarter");
+        uploadText("other.txt", "Nothing to see here");
+
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() -> {
+            List<Map<String, Object>> documents = search(word);
+            Assertions.assertEquals(1, documents.size());
+            Assertions.assertEquals(report.id().toString(), documents.getFirst().get("id"));
+        });
+    }
+
+    @Test
+    void whenSearchMatchesNameAndContent_thenEachDocumentReturnedOnce() {
+        String word = randomWord();
+        UploadResponse both = uploadText(word + ".txt", "All about " + word + " and more");
+        UploadResponse byName = uploadText(word + " notes.txt", "Nothing to see here");
+        UploadResponse byContent = uploadText("summary.txt", "A word on " + word);
+
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() -> {
+            List<Map<String, Object>> documents = search(word);
+            Assertions.assertEquals(Set.of(both.id().toString(), byName.id().toString(), byContent.id().toString()),
+                    documents.stream().map(d -> (String) d.get("id")).collect(Collectors.toSet()));
+            Assertions.assertEquals(3, documents.size());
+            // The exact name is the most similar
+            Assertions.assertEquals(both.id().toString(), documents.getFirst().get("id"));
+        });
+    }
+}
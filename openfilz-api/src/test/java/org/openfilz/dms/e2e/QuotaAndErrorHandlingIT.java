@@ -26,7 +26,7 @@ import static org.springframework.test.context.TestConstructor.AutowireMode.ALL;
 /**
  * E2E tests covering:
  * - QuotaProperties: file upload quota and user quota enforcement
- * - DocumentServiceImpl: validateFileSize, validateUserQuota, validateQuotas, validateUserQuotaForReplace
+ * - DocumentServiceImpl: validateFileSize, getQuotaIncrease; UserQuotaServiceImpl: withReservation
  * - GlobalExceptionHandler: FileSizeExceededException (413), UserQuotaExceededException (507),
  *   IllegalArgumentException (400), WebExchangeBindException (400)
  * - FolderController: listFolder with onlyFiles+onlyFolders simultaneously (error path)
@@ -21,7 +21,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.http.codec.json.JacksonJsonEncoder;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.TestConstructor;
@@ -32,6 +32,7 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import org.openfilz.dms.repository.DocumentRepository;
 import org.openfilz.dms.entity.Document;
+import org.openfilz.dms.service.impl.FileSystemStorageService;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -53,8 +54,8 @@ public class SoftDeleteIT extends TestContainersBaseConfig {
 
     private final DocumentRepository documentRepository;
 
-    @Value("${storage.local.base-path:/tmp/dms-storage}")
-    private String storageBasePath;
+    @Autowired
+    private FileSystemStorageService fileSystemStorageService;
 
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
@@ -660,7 +661,7 @@ public class SoftDeleteIT extends TestContainersBaseConfig {
         Assertions.assertEquals(storagePath1, document1AfterDelete.getStoragePath(), "Storage path should remain unchanged after soft delete");
 
         // Verify file still exists in storage
-        Path storagePath1Full = Path.of(storageBasePath, storagePath1);
+        Path storagePath1Full = fileSystemStorageService.resolvePath(storagePath1);
         Assertions.assertTrue(Files.exists(storagePath1Full), "File ID1 should still exist in storage after soft delete: " + storagePath1Full);
         log.info("Verified file ID1 still exists in storage: {}", storagePath1Full);
 
@@ -690,7 +691,7 @@ public class SoftDeleteIT extends TestContainersBaseConfig {
         log.info("Storage path for ID2: {}", storagePath2);
 
         // Verify file ID2 exists in storage
-        Path storagePath2Full = Path.of(storageBasePath, storagePath2);
+        Path storagePath2Full = fileSystemStorageService.resolvePath(storagePath2);
         Assertions.assertTrue(Files.exists(storagePath2Full), "File ID2 should exist in storage: " + storagePath2Full);
         log.info("Verified file ID2 exists in storage: {}", storagePath2Full);
 
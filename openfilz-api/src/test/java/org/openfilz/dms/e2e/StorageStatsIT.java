@@ -0,0 +1,264 @@
+package org.openfilz.dms.e2e;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openfilz.dms.config.RestApiVersion;
+import org.openfilz.dms.dto.request.DeleteRequest;
+import org.openfilz.dms.dto.response.DashboardStatisticsResponse;
+import org.openfilz.dms.dto.response.FileTypeStats;
+import org.openfilz.dms.dto.response.UploadResponse;
+import org.openfilz.dms.repository.StatisticsDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.codec.json.JacksonJsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.context.TestConstructor.AutowireMode.ALL;
+
+/**
+ * E2E tests of the storage_stats rollup read by the dashboard:
+ * - Deltas of the triggers on upload, soft delete, restore, content replacement, change of owner and purge
+ * - Repair of a drift by reconcile_storage_stats()
+ * - Dashboard totals matching the documents table
+ */
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Slf4j
+@TestConstructor(autowireMode = ALL)
+public class StorageStatsIT extends TestContainersBaseConfig {
+
+    private static final String ACTUAL_STATS = """
+            SELECT storage_category(type, content_type) AS category, COUNT(*) AS item_count, COALESCE(SUM(size), 0)::BIGINT AS total_size
+            FROM documents
+            WHERE active = true AND COALESCE(created_by, '') = :owner
+            GROUP BY 1""";
+
+    private static final String ACTUAL_STATS_BY_CATEGORY = """
+            SELECT storage_category(type, content_type) AS category, COUNT(*) AS item_count, COALESCE(SUM(size), 0)::BIGINT AS total_size
+            FROM documents
+            WHERE active = true
+            GROUP BY 1""";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private StatisticsDAO statisticsDAO;
+
+    public StorageStatsIT(WebTestClient webTestClient, JacksonJsonEncoder customJacksonJsonEncoder) {
+        super(webTestClient, customJacksonJsonEncoder);
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("openfilz.soft-delete.active", () -> true);
+    }
+
+    private record Stats(long count, long size) {
+
+        Stats plus(long count, long size) {
+            return new Stats(this.count + count, this.size + size);
+        }
+    }
+
+    /**
+     * The rollup rows of an owner, by category.
+     */
+    private Map<String, Stats> rollup(String owner) {
+        return databaseClient.sql("SELECT category, item_count, total_size FROM storage_stats WHERE owner = :owner AND item_count > 0")
+                .bind("owner", owner)
+                .map(row -> Map.entry(row.get("category", String.class),
+                        new Stats(row.get("item_count", Long.class), row.get("total_size", Long.class))))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+    }
+
+    /**
+     * The active documents of an owner, by category.
+     */
+    private Map<String, Stats> actual(String owner) {
+        return databaseClient.sql(ACTUAL_STATS)
+                .bind("owner", owner)
+                .map(row -> Map.entry(row.get("category", String.class),
+                        new Stats(row.get("item_count", Long.class), row.get("total_size", Long.class))))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+    }
+
+    private static Stats total(Map<String, Stats> stats) {
+        return stats.values().stream().reduce(new Stats(0, 0), (a, b) -> a.plus(b.count(), b.size()));
+    }
+
+    private String getOwner(UUID documentId) {
+        return databaseClient.sql("SELECT COALESCE(created_by, '') AS owner FROM documents WHERE id = :id")
+                .bind("id", documentId)
+                .map(row -> row.get("owner", String.class))
+                .one()
+                .block();
+    }
+
+    private long getSize(UUID documentId) {
+        return databaseClient.sql("SELECT size FROM documents WHERE id = :id")
+                .bind("id", documentId)
+                .map(row -> row.get("size", Long.class))
+                .one()
+                .block();
+    }
+
+    private void deleteFile(UUID id) {
+        getWebTestClient().method(HttpMethod.DELETE).uri(RestApiVersion.API_PREFIX + "/files")
+                .body(BodyInserters.fromValue(new DeleteRequest(List.of(id))))
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    private void assertRollupMatchesDocuments(String owner) {
+        Assertions.assertEquals(actual(owner), rollup(owner));
+    }
+
+    @Test
+    void whenDocumentsChange_thenRollupFollows() {
+        UploadResponse first = uploadDocument(newFileBuilder());
+        String owner = getOwner(first.id());
+        Stats before = total(rollup(owner));
+
+        // Upload
+        UploadResponse file = uploadDocument(newFileBuilder());
+        long size = getSize(file.id());
+        Assertions.assertEquals(before.plus(1, size), total(rollup(owner)));
+        assertRollupMatchesDocuments(owner);
+
+        // Soft delete
+        deleteFile(file.id());
+        Assertions.assertEquals(before, total(rollup(owner)));
+        assertRollupMatchesDocuments(owner);
+
+        // Restore
+        getWebTestClient().method(HttpMethod.POST).uri(RestApiVersion.API_PREFIX + RestApiVersion.ENDPOINT_RECYCLE_BIN + "/restore")
+                .body(BodyInserters.fromValue(new DeleteRequest(List.of(file.id()))))
+                .exchange()
+                .expectStatus().isNoContent();
+        Assertions.assertEquals(before.plus(1, size), total(rollup(owner)));
+        assertRollupMatchesDocuments(owner);
+
+        // Content replacement
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("file", new ClassPathResource("test.txt"));
+        getWebTestClient().put()
+                .uri(RestApiVersion.API_PREFIX + "/documents/{id}/replace-content", file.id())
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                .expectStatus().isOk();
+        long replacedSize = getSize(file.id());
+        Assertions.assertNotEquals(size, replacedSize);
+        Assertions.assertEquals(before.plus(1, replacedSize), total(rollup(owner)));
+        assertRollupMatchesDocuments(owner);
+
+        // Change of owner
+        String newOwner = "stats-owner-" + UUID.randomUUID();
+        databaseClient.sql("UPDATE documents SET created_by = :owner WHERE id = :id")
+                .bind("owner", newOwner)
+                .bind("id", file.id())
+                .then().block();
+        Assertions.assertEquals(before, total(rollup(owner)));
+        Assertions.assertEquals(new Stats(1, replacedSize), total(rollup(newOwner)));
+        assertRollupMatchesDocuments(owner);
+        assertRollupMatchesDocuments(newOwner);
+
+        // Purge: already discounted by the soft delete
+        deleteFile(file.id());
+        Assertions.assertEquals(new Stats(0, 0), total(rollup(newOwner)));
+        getWebTestClient().method(HttpMethod.DELETE).uri(RestApiVersion.API_PREFIX + RestApiVersion.ENDPOINT_RECYCLE_BIN)
+                .body(BodyInserters.fromValue(new DeleteRequest(List.of(file.id()))))
+                .exchange()
+                .expectStatus().isNoContent();
+        Assertions.assertEquals(new Stats(0, 0), total(rollup(newOwner)));
+        Assertions.assertEquals(before, total(rollup(owner)));
+        assertRollupMatchesDocuments(owner);
+    }
+
+    @Test
+    void whenRollupDrifted_thenReconcileRepairsIt() {
+        UploadResponse file = uploadDocument(newFileBuilder());
+        String owner = getOwner(file.id());
+        // Start from a rollup without drift
+        statisticsDAO.reconcileStorageStats().block();
+        Map<String, Stats> expected = rollup(owner);
+
+        databaseClient.sql("""
+                UPDATE storage_stats SET item_count = item_count + 5, total_size = total_size + 1000
+                WHERE owner = :owner AND category = (SELECT storage_category(type, content_type) FROM documents WHERE id = :id)
+                """)
+                .bind("owner", owner)
+                .bind("id", file.id())
+                .then().block();
+        Assertions.assertNotEquals(expected, rollup(owner));
+
+        Assertions.assertEquals(1, statisticsDAO.reconcileStorageStats().block());
+        Assertions.assertEquals(expected, rollup(owner));
+        assertRollupMatchesDocuments(owner);
+
+        // Nothing left to repair
+        Assertions.assertEquals(0, statisticsDAO.reconcileStorageStats().block());
+    }
+
+    @Test
+    void whenGetStatistics_thenTotalsMatchDocuments() {
+        uploadDocument(newFileBuilder());
+        uploadDocument(newFileBuilder("test-image.png"));
+        createFolderAndFile("stats-folder-" + UUID.randomUUID(), null);
+
+        Map<String, Stats> actual = databaseClient.sql(ACTUAL_STATS_BY_CATEGORY)
+                .map(row -> Map.entry(row.get("category", String.class),
+                        new Stats(row.get("item_count", Long.class), row.get("total_size", Long.class))))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+
+        DashboardStatisticsResponse stats = getWebTestClient().method(HttpMethod.GET).uri(RestApiVersion.API_PREFIX + RestApiVersion.ENDPOINT_DASHBOARD + "/statistics")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(DashboardStatisticsResponse.class)
+                .returnResult().getResponseBody();
+
+        Assertions.assertNotNull(stats);
+        Assertions.assertNotNull(actual);
+        Stats none = new Stats(0, 0);
+        Assertions.assertEquals(actual.getOrDefault("folders", none).count(), stats.totalFolders());
+        Map<String, Long> counts = stats.fileTypeCounts().stream()
+                .collect(Collectors.toMap(FileTypeStats::type, FileTypeStats::count));
+        Map<String, Long> sizes = stats.storage().fileTypeBreakdown().stream()
+                .collect(Collectors.toMap(FileTypeStats::type, FileTypeStats::totalSize));
+        long totalFiles = 0;
+        long totalSize = 0;
+        for (String category : List.of("documents", "images", "videos", "audio", "others")) {
+            Stats expected = actual.getOrDefault(category, none);
+            Assertions.assertEquals(expected.count(), counts.get(category), category);
+            Assertions.assertEquals(expected.size(), sizes.get(category), category);
+            totalFiles += expected.count();
+            totalSize += expected.size();
+        }
+        Assertions.assertTrue(counts.get("images") > 0);
+        Assertions.assertEquals(totalFiles, stats.totalFiles());
+        Assertions.assertEquals(totalSize, stats.storage().totalStorageUsed());
+    }
+}
@@ -56,7 +56,7 @@ public class TusProtocolEdgeCasesIT extends TestContainersBaseConfig {
                 .expectStatus().isNoContent()
                 .expectHeader().valueEquals("Tus-Resumable", "1.0.0")
                 .expectHeader().valueEquals("Tus-Version", "1.0.0")
-                .expectHeader().valueEquals("Tus-Extension", "creation,termination")
+                .expectHeader().valueEquals("Tus-Extension", "creation,termination,concatenation")
                 .expectHeader().exists("Tus-Max-Size");
     }
 
@@ -49,7 +49,7 @@ public class TusUploadIT extends TestContainersBaseConfig {
                 .expectStatus().isNoContent()
                 .expectHeader().valueEquals("Tus-Resumable", "1.0.0")
                 .expectHeader().valueEquals("Tus-Version", "1.0.0")
-                .expectHeader().valueEquals("Tus-Extension", "creation,termination")
+                .expectHeader().valueEquals("Tus-Extension", "creation,termination,concatenation")
                 .expectHeader().exists("Tus-Max-Size");
     }
 
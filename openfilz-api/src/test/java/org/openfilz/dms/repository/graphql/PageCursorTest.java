@@ -0,0 +1,40 @@
+package org.openfilz.dms.repository.graphql;
+
+import org.junit.jupiter.api.Test;
+import org.openfilz.dms.enums.SortOrder;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Test
+    void encode_decode_roundTrip() {
+        PageCursor cursor = new PageCursor("updated_at", SortOrder.DESC, 1, "2026-01-02T10:15:30.123456Z", UUID.randomUUID());
+
+        String encoded = cursor.encode(objectMapper);
+
+        assertFalse(encoded.contains("updated_at"), "cursor must be opaque");
+        assertEquals(cursor, PageCursor.decode(encoded, objectMapper));
+    }
+
+    @Test
+    void decode_invalidCursor_throwsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor!", objectMapper));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("e30", objectMapper)); // {}
+    }
+
+    @Test
+    void matches_sameSortOnly() {
+        PageCursor cursor = new PageCursor("name", SortOrder.ASC, 0, "a", UUID.randomUUID());
+
+        assertTrue(cursor.matches("name", SortOrder.ASC));
+        assertFalse(cursor.matches("name", SortOrder.DESC));
+        assertFalse(cursor.matches(null, SortOrder.ASC));
+    }
+}
@@ -0,0 +1,363 @@
+package org.openfilz.dms.repository.impl;
+
+import io.r2dbc.spi.Readable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.config.AuditChainProperties;
+import org.openfilz.dms.dto.audit.AuditEntry;
+import org.openfilz.dms.enums.AuditAction;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.service.AuditChainService;
+import org.openfilz.dms.utils.JsonUtils;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditChainWriterTest {
+
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.of(2026, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+    private static final String USER = "user@test.com";
+
+    @Mock
+    private DatabaseClient databaseClient;
+
+    @Mock
+    private TransactionalOperator tx;
+
+    @Mock
+    private JsonUtils jsonUtils;
+
+    private AuditChainService auditChainService;
+    private AuditChainWriter writer;
+
+    /*
+     * The chain as stored in the database: last id, hash and timestamp
+     */
+    private long lastId;
+    private String lastHash;
+    private OffsetDateTime lastTimestamp;
+
+    private int headReads;
+    private int locks;
+    private RuntimeException insertFailure;
+    private final List<Map<String, Object>> inserts = new ArrayList<>();
+    private final List<Map<String, Object>> staged = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        AuditChainProperties properties = new AuditChainProperties();
+        properties.setBatchDelay(Duration.ofMillis(50));
+        properties.setMaxBatchSize(3);
+        auditChainService = new AuditChainService(properties);
+        lenient().when(tx.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        lenient().when(databaseClient.sql(anyString())).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            if (sql.startsWith("SELECT pg_advisory_xact_lock")) {
+                return lockStatement();
+            }
+            if (sql.startsWith("DELETE FROM audit_log_pending")) {
+                return claimStatement();
+            }
+            return sql.startsWith("INSERT INTO audit_logs") ? insertStatement() : headStatement();
+        });
+        writer = new AuditChainWriter(databaseClient, tx, auditChainService, jsonUtils, properties, null);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.close();
+    }
+
+    private GenericExecuteSpec lockStatement() {
+        GenericExecuteSpec spec = mock(GenericExecuteSpec.class);
+        lenient().when(spec.then()).thenReturn(Mono.fromRunnable(() -> locks++));
+        return spec;
+    }
+
+    private GenericExecuteSpec headStatement() {
+        return statement(new HashMap<>(), _ -> {
+            headReads++;
+            Map<String, Object> head = new HashMap<>();
+            head.put("last_id", lastId);
+            head.put("last_hash", lastHash);
+            head.put("last_timestamp", lastTimestamp);
+            return Flux.just(head);
+        });
+    }
+
+    /**
+     * Claims at most the bound limit of staged entries, returned newest first.
+     */
+    private GenericExecuteSpec claimStatement() {
+        Map<String, Object> binds = new HashMap<>();
+        return statement(binds, _ -> {
+            List<Map<String, Object>> claimed = new ArrayList<>(staged.subList(0, Math.min((int) binds.get("limit"), staged.size())));
+            staged.removeAll(claimed);
+            return Flux.fromIterable(claimed.reversed());
+        });
+    }
+
+    private void stage(long id, UUID resourceId) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("timestamp", TIMESTAMP);
+        row.put("user_principal", USER);
+        row.put("action", AuditAction.CREATE_FOLDER.name());
+        row.put("resource_type", DocumentType.FOLDER.name());
+        row.put("resource_id", resourceId);
+        staged.add(row);
+    }
+
+    /**
+     * Inserts the batch unless the chain moved since the bound last id, as the guarded insert does.
+     */
+    private GenericExecuteSpec insertStatement() {
+        Map<String, Object> binds = new HashMap<>();
+        return statement(binds, _ -> {
+            inserts.add(binds);
+            if (insertFailure != null) {
+                return Flux.error(insertFailure);
+            }
+            if ((long) binds.get("lastId") != lastId) {
+                return Flux.empty();
+            }
+            String[] hashes = (String[]) binds.get("hashes");
+            String[] timestamps = (String[]) binds.get("timestamps");
+            long firstId = lastId + 1;
+            lastId += hashes.length;
+            lastHash = hashes[hashes.length - 1];
+            lastTimestamp = OffsetDateTime.parse(timestamps[timestamps.length - 1]);
+            return Flux.fromStream(LongStream.rangeClosed(firstId, lastId).mapToObj(id -> Map.<String, Object>of("id", id)));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private GenericExecuteSpec statement(Map<String, Object> binds, Function<Map<String, Object>, Flux<Map<String, Object>>> execute) {
+        GenericExecuteSpec spec = mock(GenericExecuteSpec.class);
+        lenient().when(spec.bind(anyString(), any())).thenAnswer(inv -> {
+            binds.put(inv.getArgument(0), inv.getArgument(1));
+            return spec;
+        });
+        lenient().when(spec.map(any(Function.class))).thenAnswer(inv -> {
+            Function<Readable, Object> mapper = inv.getArgument(0);
+            Flux<Object> rows = Flux.defer(() -> execute.apply(binds)).map(values -> mapper.apply(row(values)));
+            RowsFetchSpec<Object> fetchSpec = mock(RowsFetchSpec.class);
+            lenient().when(fetchSpec.all()).thenReturn(rows);
+            lenient().when(fetchSpec.one()).thenReturn(rows.single());
+            return fetchSpec;
+        });
+        return spec;
+    }
+
+    private static Readable row(Map<String, Object> values) {
+        return new Readable() {
+            @Override
+            public <T> T get(int index, Class<T> type) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public <T> T get(String name, Class<T> type) {
+                return type.cast(values.get(name));
+            }
+        };
+    }
+
+    private static List<AuditEntry> entries(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(_ -> new AuditEntry(AuditAction.CREATE_FOLDER, DocumentType.FOLDER, UUID.randomUUID()))
+                .toList();
+    }
+
+    /**
+     * Checks that the inserted batch is chained after {@code previousHash}, and returns its last hash.
+     */
+    private String assertChained(Map<String, Object> insert, String previousHash) {
+        String[] timestamps = (String[]) insert.get("timestamps");
+        String[] actions = (String[]) insert.get("actions");
+        UUID[] resourceIds = (UUID[]) insert.get("ids");
+        String[] previousHashes = (String[]) insert.get("previousHashes");
+        String[] hashes = (String[]) insert.get("hashes");
+        for (int i = 0; i < hashes.length; i++) {
+            assertEquals(previousHash, previousHashes[i]);
+            assertEquals(auditChainService.computeHash(OffsetDateTime.parse(timestamps[i]), USER,
+                    AuditAction.valueOf(actions[i]), DocumentType.FOLDER, resourceIds[i], null, previousHash), hashes[i]);
+            previousHash = hashes[i];
+        }
+        return previousHash;
+    }
+
+    @Test
+    void append_writesConcurrentEntriesInOneBatch() {
+        List<AuditEntry> first = entries(1);
+        List<AuditEntry> second = entries(1);
+
+        StepVerifier.create(Mono.when(writer.append(TIMESTAMP, USER, first), writer.append(TIMESTAMP, USER, second)))
+                .verifyComplete();
+
+        assertEquals(1, inserts.size());
+        assertEquals(1, locks);
+        assertEquals(0L, inserts.getFirst().get("lastId"));
+        assertArrayEquals(new UUID[]{first.getFirst().resourceId(), second.getFirst().resourceId()},
+                (UUID[]) inserts.getFirst().get("ids"));
+        assertEquals(lastHash, assertChained(inserts.getFirst(), auditChainService.computeGenesisHash()));
+    }
+
+    @Test
+    void append_moreThanMaxBatchSize_writesSeveralBatchesInOrder() {
+        List<AuditEntry> entries = entries(5);
+
+        StepVerifier.create(writer.append(TIMESTAMP, USER, entries)).verifyComplete();
+
+        assertEquals(2, inserts.size());
+        assertEquals(3, ((UUID[]) inserts.get(0).get("ids")).length);
+        assertEquals(2, ((UUID[]) inserts.get(1).get("ids")).length);
+        assertEquals(3L, inserts.get(1).get("lastId"));
+        String hash = assertChained(inserts.get(0), auditChainService.computeGenesisHash());
+        assertEquals(lastHash, assertChained(inserts.get(1), hash));
+        assertEquals(5, lastId);
+        // The head is kept between batches
+        assertEquals(1, headReads);
+    }
+
+    @Test
+    void append_entryBeforeLastTimestamp_takesItsTimestamp() {
+        lastTimestamp = TIMESTAMP.plusSeconds(1);
+
+        StepVerifier.create(writer.append(TIMESTAMP, USER, entries(1))).verifyComplete();
+
+        assertEquals(TIMESTAMP.plusSeconds(1), OffsetDateTime.parse(((String[]) inserts.getFirst().get("timestamps"))[0]));
+    }
+
+    @Test
+    void append_chainExtendedByAnotherInstance_readsHeadAgainAndChainsAnew() {
+        StepVerifier.create(writer.append(TIMESTAMP, USER, entries(1))).verifyComplete();
+        // Another instance appends an entry
+        lastId++;
+        lastHash = "other-instance-hash";
+
+        StepVerifier.create(writer.append(TIMESTAMP, USER, entries(1))).verifyComplete();
+
+        assertEquals(3, inserts.size());
+        assertEquals(1L, inserts.get(1).get("lastId"));
+        assertEquals(2L, inserts.get(2).get("lastId"));
+        assertChained(inserts.get(2), "other-instance-hash");
+        assertEquals(2, headReads);
+        assertEquals(3, lastId);
+    }
+
+    @Test
+    void append_chainMovedUnderTheLock_failsTheBatch() {
+        // The head read under the lock must hold: the second, guarded insert is not retried
+        doAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            if (sql.startsWith("SELECT pg_advisory_xact_lock")) {
+                return lockStatement();
+            }
+            if (sql.startsWith("INSERT INTO audit_logs")) {
+                lastId++;
+                return insertStatement();
+            }
+            return headStatement();
+        }).when(databaseClient).sql(anyString());
+
+        StepVerifier.create(writer.append(TIMESTAMP, USER, entries(1)))
+                .verifyError(IllegalStateException.class);
+
+        assertEquals(1, inserts.size());
+    }
+
+    @Test
+    void append_failedBatch_failsItsCallersAndReadsHeadAgain() {
+        StepVerifier.create(writer.append(TIMESTAMP, USER, entries(1))).verifyComplete();
+        insertFailure = new IllegalStateException("connection lost");
+
+        StepVerifier.create(Mono.when(writer.append(TIMESTAMP, USER, entries(1)), writer.append(TIMESTAMP, USER, entries(1))))
+                .verifyErrorMessage("connection lost");
+
+        insertFailure = null;
+        StepVerifier.create(writer.append(TIMESTAMP, USER, entries(1))).verifyComplete();
+
+        // Read on the first batch, then again after the failure
+        assertEquals(2, headReads);
+        assertEquals(2, lastId);
+        assertEquals(1L, inserts.getLast().get("lastId"));
+    }
+
+    @Test
+    void chainStaged_chainsStagedEntriesInOrderBeforeAppendedOnes() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        stage(1, first);
+        stage(2, second);
+        List<AuditEntry> appended = entries(1);
+
+        StepVerifier.create(Mono.when(writer.chainStaged(), writer.append(TIMESTAMP, USER, appended)))
+                .verifyComplete();
+
+        assertEquals(1, inserts.size());
+        assertArrayEquals(new UUID[]{first, second, appended.getFirst().resourceId()}, (UUID[]) inserts.getFirst().get("ids"));
+        assertEquals(lastHash, assertChained(inserts.getFirst(), auditChainService.computeGenesisHash()));
+        assertTrue(staged.isEmpty());
+    }
+
+    @Test
+    void chainStaged_moreThanMaxBatchSize_chainsTheRestInANextBatch() {
+        LongStream.rangeClosed(1, 4).forEach(id -> stage(id, UUID.randomUUID()));
+
+        StepVerifier.create(writer.chainStaged()).verifyComplete();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertEquals(4, lastId));
+        assertEquals(2, inserts.size());
+        assertEquals(3, ((UUID[]) inserts.get(0).get("ids")).length);
+        assertTrue(staged.isEmpty());
+    }
+
+    @Test
+    void chainStaged_nothingStaged_insertsNothing() {
+        StepVerifier.create(writer.chainStaged()).verifyComplete();
+
+        assertTrue(inserts.isEmpty());
+        assertEquals(0, headReads);
+    }
+
+    @Test
+    void close_writesPendingEntries() throws Exception {
+        Mono<Void> written = writer.append(TIMESTAMP, USER, entries(1)).cache();
+        written.subscribe();
+
+        writer.close();
+
+        StepVerifier.create(written).verifyComplete();
+        assertEquals(1, lastId);
+    }
+}
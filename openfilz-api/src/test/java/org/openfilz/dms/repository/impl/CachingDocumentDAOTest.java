@@ -0,0 +1,151 @@
+package org.openfilz.dms.repository.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.config.DocumentCacheProperties;
+import org.openfilz.dms.dto.response.AncestorInfo;
+import org.openfilz.dms.entity.Document;
+import org.openfilz.dms.enums.AccessType;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.repository.DocumentDAO;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingDocumentDAOTest {
+
+    private static final UUID FOLDER_ID = UUID.randomUUID();
+    private static final UUID FILE_ID = UUID.randomUUID();
+
+    @Mock private DocumentDAO delegate;
+
+    private CachingDocumentDAO dao;
+
+    @BeforeEach
+    void setUp() {
+        dao = new CachingDocumentDAO(delegate, new DocumentCacheProperties());
+        ReflectionTestUtils.invokeMethod(dao, "startListening");
+    }
+
+    private static Document folder() {
+        return Document.builder().id(FOLDER_ID).name("folder").type(DocumentType.FOLDER).build();
+    }
+
+    @Test
+    void findById_isLoadedOnce_andCopiedForEachCaller() {
+        when(delegate.findById(FOLDER_ID, AccessType.RO)).thenReturn(Mono.fromSupplier(CachingDocumentDAOTest::folder));
+
+        Document first = dao.findById(FOLDER_ID, AccessType.RO).block();
+        first.setName("renamed by the caller");
+        Document second = dao.findById(FOLDER_ID, AccessType.RO).block();
+
+        assertThat(second.getName()).isEqualTo("folder");
+        verify(delegate, times(1)).findById(FOLDER_ID, AccessType.RO);
+    }
+
+    @Test
+    void existsByIdAndType_readsTheCachedDocument() {
+        when(delegate.findById(FOLDER_ID, AccessType.RW)).thenReturn(Mono.fromSupplier(CachingDocumentDAOTest::folder));
+
+        StepVerifier.create(dao.existsByIdAndType(FOLDER_ID, DocumentType.FOLDER, AccessType.RW)).expectNext(true).verifyComplete();
+        StepVerifier.create(dao.existsByIdAndType(FOLDER_ID, DocumentType.FILE, AccessType.RW)).expectNext(false).verifyComplete();
+
+        verify(delegate, times(1)).findById(FOLDER_ID, AccessType.RW);
+        verify(delegate, never()).existsByIdAndType(any(), any(), any());
+    }
+
+    @Test
+    void missingDocument_isNotCached() {
+        when(delegate.findById(FOLDER_ID, AccessType.RW)).thenReturn(Mono.empty());
+
+        StepVerifier.create(dao.existsByIdAndType(FOLDER_ID, DocumentType.FOLDER, AccessType.RW)).expectNext(false).verifyComplete();
+        StepVerifier.create(dao.existsByIdAndType(FOLDER_ID, DocumentType.FOLDER, AccessType.RW)).expectNext(false).verifyComplete();
+
+        verify(delegate, times(2)).findById(FOLDER_ID, AccessType.RW);
+    }
+
+    @Test
+    void notifiedDocument_isLoadedAgain() {
+        when(delegate.findById(FOLDER_ID, AccessType.RO)).thenReturn(Mono.fromSupplier(CachingDocumentDAOTest::folder));
+
+        dao.findById(FOLDER_ID, AccessType.RO).block();
+        dao.onNotification(UUID.randomUUID() + "," + FOLDER_ID);
+        dao.findById(FOLDER_ID, AccessType.RO).block();
+
+        verify(delegate, times(2)).findById(FOLDER_ID, AccessType.RO);
+    }
+
+    @Test
+    void changedFolder_invalidatesTheAncestorsOfItsDescendants() {
+        when(delegate.getAncestors(FILE_ID)).thenReturn(Flux.just(new AncestorInfo(FOLDER_ID, "folder", "FOLDER")));
+
+        dao.getAncestors(FILE_ID).collectList().block();
+        dao.getAncestors(FILE_ID).collectList().block();
+        verify(delegate, times(1)).getAncestors(FILE_ID);
+
+        dao.onNotification(FOLDER_ID.toString());
+
+        StepVerifier.create(dao.getAncestors(FILE_ID))
+                .expectNext(new AncestorInfo(FOLDER_ID, "folder", "FOLDER"))
+                .verifyComplete();
+        verify(delegate, times(2)).getAncestors(FILE_ID);
+    }
+
+    @Test
+    void update_invalidatesTheDocument() {
+        Document folder = folder();
+        when(delegate.findById(FOLDER_ID, AccessType.RO)).thenReturn(Mono.fromSupplier(CachingDocumentDAOTest::folder));
+        when(delegate.update(folder)).thenReturn(Mono.just(folder));
+
+        dao.findById(FOLDER_ID, AccessType.RO).block();
+        dao.update(folder).block();
+        dao.findById(FOLDER_ID, AccessType.RO).block();
+
+        verify(delegate, times(2)).findById(FOLDER_ID, AccessType.RO);
+    }
+
+    @Test
+    void deleteSubtree_invalidatesEveryDeletedDocument() {
+        Document file = Document.builder().id(FILE_ID).type(DocumentType.FILE).build();
+        when(delegate.findById(FILE_ID, AccessType.RO)).thenReturn(Mono.just(file));
+        when(delegate.deleteSubtree(FOLDER_ID)).thenReturn(Flux.just(file, folder()));
+
+        dao.findById(FILE_ID, AccessType.RO).block();
+        dao.deleteSubtree(FOLDER_ID).blockLast();
+        dao.findById(FILE_ID, AccessType.RO).block();
+
+        verify(delegate, times(2)).findById(FILE_ID, AccessType.RO);
+    }
+
+    @Test
+    void lookups_bypassTheCache_whileNotListening() {
+        CachingDocumentDAO notListening = new CachingDocumentDAO(delegate, new DocumentCacheProperties());
+        when(delegate.findById(FOLDER_ID, AccessType.RO)).thenReturn(Mono.fromSupplier(CachingDocumentDAOTest::folder));
+
+        notListening.findById(FOLDER_ID, AccessType.RO).block();
+        notListening.findById(FOLDER_ID, AccessType.RO).block();
+
+        verify(delegate, times(2)).findById(FOLDER_ID, AccessType.RO);
+    }
+
+    @Test
+    void unexpectedNotification_clearsTheCache() {
+        when(delegate.findById(FOLDER_ID, AccessType.RO)).thenReturn(Mono.fromSupplier(CachingDocumentDAOTest::folder));
+
+        dao.findById(FOLDER_ID, AccessType.RO).block();
+        dao.onNotification("not-a-uuid");
+        dao.findById(FOLDER_ID, AccessType.RO).block();
+
+        verify(delegate, times(2)).findById(FOLDER_ID, AccessType.RO);
+    }
+}
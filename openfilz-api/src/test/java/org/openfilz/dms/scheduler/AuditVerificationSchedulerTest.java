@@ -31,11 +31,11 @@ class AuditVerificationSchedulerTest {
     void verifyAuditChain_validResult_logsAndCompletes() {
         AuditVerificationResult result = new AuditVerificationResult(
                 AuditVerificationStatus.VALID, 10, 10, OffsetDateTime.now(), null);
-        when(auditService.verifyChain()).thenReturn(Mono.just(result));
+        when(auditService.verifyNewEntries()).thenReturn(Mono.just(result));
 
         scheduler.verifyAuditChain();
 
-        verify(auditService).verifyChain();
+        verify(auditService).verifyNewEntries();
     }
 
     @Test
@@ -43,30 +43,42 @@ class AuditVerificationSchedulerTest {
         AuditVerificationResult result = new AuditVerificationResult(
                 AuditVerificationStatus.BROKEN, 10, 4, OffsetDateTime.now(),
                 new AuditVerificationResult.BrokenLink(5L, "expected", "actual"));
-        when(auditService.verifyChain()).thenReturn(Mono.just(result));
+        when(auditService.verifyNewEntries()).thenReturn(Mono.just(result));
 
         scheduler.verifyAuditChain();
 
-        verify(auditService).verifyChain();
+        verify(auditService).verifyNewEntries();
     }
 
     @Test
     void verifyAuditChain_emptyResult_logsNoEntries() {
         AuditVerificationResult result = new AuditVerificationResult(
                 AuditVerificationStatus.EMPTY, 0, 0, OffsetDateTime.now(), null);
-        when(auditService.verifyChain()).thenReturn(Mono.just(result));
+        when(auditService.verifyNewEntries()).thenReturn(Mono.just(result));
 
         scheduler.verifyAuditChain();
 
-        verify(auditService).verifyChain();
+        verify(auditService).verifyNewEntries();
     }
 
     @Test
     void verifyAuditChain_error_isHandled() {
-        when(auditService.verifyChain()).thenReturn(Mono.error(new RuntimeException("boom")));
+        when(auditService.verifyNewEntries()).thenReturn(Mono.error(new RuntimeException("boom")));
 
         scheduler.verifyAuditChain();
 
+        verify(auditService).verifyNewEntries();
+    }
+
+    @Test
+    void verifyFullAuditChain_verifiesWholeChain() {
+        AuditVerificationResult result = new AuditVerificationResult(
+                AuditVerificationStatus.VALID, 10, 10, OffsetDateTime.now(), null);
+        when(auditService.verifyChain()).thenReturn(Mono.just(result));
+
+        scheduler.verifyFullAuditChain();
+
         verify(auditService).verifyChain();
+        verify(auditService, never()).verifyNewEntries();
     }
 }
@@ -0,0 +1,150 @@
+package org.openfilz.dms.scheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.config.FullTextProperties;
+import org.openfilz.dms.dto.PostProcessingEvent;
+import org.openfilz.dms.entity.Document;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.enums.PostProcessingEventType;
+import org.openfilz.dms.repository.DocumentRepository;
+import org.openfilz.dms.repository.PostProcessingOutboxDAO;
+import org.openfilz.dms.service.DocumentEmbeddingService;
+import org.openfilz.dms.service.FullTextService;
+import org.openfilz.dms.service.impl.ThumbnailPostProcessor;
+import org.openfilz.dms.utils.JsonUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostProcessingOutboxWorkerTest {
+
+    @Mock private PostProcessingOutboxDAO outboxDAO;
+    @Mock private DocumentRepository documentRepository;
+    @Mock private JsonUtils jsonUtils;
+    @Mock private FullTextService fullTextService;
+    @Mock private ObjectProvider<FullTextService> fullTextServiceProvider;
+    @Mock private ObjectProvider<ThumbnailPostProcessor> thumbnailPostProcessorProvider;
+    @Mock private ObjectProvider<DocumentEmbeddingService> documentEmbeddingServiceProvider;
+    @Mock private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private FullTextProperties properties;
+    private PostProcessingOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FullTextProperties();
+        properties.getOutbox().setInitialBackoff(Duration.ofSeconds(5));
+        properties.getOutbox().setMaxAttempts(3);
+        worker = new PostProcessingOutboxWorker(outboxDAO, documentRepository, jsonUtils, properties,
+                fullTextServiceProvider, thumbnailPostProcessorProvider, documentEmbeddingServiceProvider, meterRegistryProvider);
+        lenient().when(fullTextServiceProvider.getObject()).thenReturn(fullTextService);
+        lenient().when(outboxDAO.complete(anyLong())).thenReturn(Mono.empty());
+        lenient().when(outboxDAO.retry(anyLong(), any(), anyString())).thenReturn(Mono.empty());
+        lenient().when(outboxDAO.markFailed(anyLong(), anyString())).thenReturn(Mono.empty());
+    }
+
+    private static PostProcessingEvent event(long id, PostProcessingEventType type, UUID documentId, int attempts) {
+        return new PostProcessingEvent(id, type, documentId, null, attempts);
+    }
+
+    @Test
+    void drain_runsClaimedEventsAndRemovesThem() {
+        Document file = Document.builder().id(UUID.randomUUID()).type(DocumentType.FILE).build();
+        Document folder = Document.builder().id(UUID.randomUUID()).type(DocumentType.FOLDER).build();
+        when(outboxDAO.claim(eq(PostProcessingEventType.INDEX_DOCUMENT), eq(4), any()))
+                .thenReturn(Flux.just(event(1, PostProcessingEventType.INDEX_DOCUMENT, file.getId(), 1),
+                        event(2, PostProcessingEventType.INDEX_DOCUMENT, folder.getId(), 1)));
+        when(documentRepository.findById(file.getId())).thenReturn(Mono.just(file));
+        when(documentRepository.findById(folder.getId())).thenReturn(Mono.just(folder));
+        when(fullTextService.indexDocumentMono(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(worker.drain(PostProcessingEventType.INDEX_DOCUMENT)).verifyComplete();
+
+        verify(fullTextService).indexDocumentMono(file);
+        verify(fullTextService).indexDocumentMono(folder);
+        verify(outboxDAO).complete(1);
+        verify(outboxDAO).complete(2);
+        // Batch not full: the outbox is empty
+        verify(outboxDAO, times(1)).claim(any(), anyInt(), any());
+    }
+
+    @Test
+    void drain_fullBatch_claimsAgain() {
+        properties.getOutbox().getConcurrency().put(PostProcessingEventType.DELETE_INDEX, 1);
+        UUID documentId = UUID.randomUUID();
+        when(outboxDAO.claim(eq(PostProcessingEventType.DELETE_INDEX), eq(1), any()))
+                .thenReturn(Flux.just(event(1, PostProcessingEventType.DELETE_INDEX, documentId, 1)), Flux.empty());
+        when(fullTextService.deleteDocumentsMono(List.of(documentId))).thenReturn(Mono.empty());
+
+        StepVerifier.create(worker.drain(PostProcessingEventType.DELETE_INDEX)).verifyComplete();
+
+        verify(outboxDAO, times(2)).claim(eq(PostProcessingEventType.DELETE_INDEX), eq(1), any());
+        verify(outboxDAO).complete(1);
+    }
+
+    @Test
+    void drain_deletedDocument_isRemovedWithoutRunning() {
+        UUID documentId = UUID.randomUUID();
+        when(outboxDAO.claim(eq(PostProcessingEventType.INDEX_DOCUMENT), anyInt(), any()))
+                .thenReturn(Flux.just(event(1, PostProcessingEventType.INDEX_DOCUMENT, documentId, 1)));
+        when(documentRepository.findById(documentId)).thenReturn(Mono.empty());
+
+        StepVerifier.create(worker.drain(PostProcessingEventType.INDEX_DOCUMENT)).verifyComplete();
+
+        verify(fullTextService, never()).indexDocumentMono(any());
+        verify(outboxDAO).complete(1);
+    }
+
+    @Test
+    void drain_failedEvent_isRetriedWithBackoff() {
+        UUID documentId = UUID.randomUUID();
+        when(outboxDAO.claim(eq(PostProcessingEventType.DELETE_INDEX), anyInt(), any()))
+                .thenReturn(Flux.just(event(1, PostProcessingEventType.DELETE_INDEX, documentId, 2)));
+        when(fullTextService.deleteDocumentsMono(List.of(documentId))).thenReturn(Mono.error(new IllegalStateException("unavailable")));
+
+        StepVerifier.create(worker.drain(PostProcessingEventType.DELETE_INDEX)).verifyComplete();
+
+        verify(outboxDAO).retry(1, Duration.ofSeconds(10), "unavailable");
+        verify(outboxDAO, never()).complete(anyLong());
+        verify(outboxDAO, never()).markFailed(anyLong(), anyString());
+    }
+
+    @Test
+    void drain_lastAttemptFailed_isMarkedFailed() {
+        UUID documentId = UUID.randomUUID();
+        when(outboxDAO.claim(eq(PostProcessingEventType.DELETE_INDEX), anyInt(), any()))
+                .thenReturn(Flux.just(event(1, PostProcessingEventType.DELETE_INDEX, documentId, 3)));
+        when(fullTextService.deleteDocumentsMono(List.of(documentId))).thenReturn(Mono.error(new IllegalStateException("unavailable")));
+
+        StepVerifier.create(worker.drain(PostProcessingEventType.DELETE_INDEX)).verifyComplete();
+
+        verify(outboxDAO).markFailed(1, "unavailable");
+        verify(outboxDAO, never()).retry(anyLong(), any(), anyString());
+    }
+
+    @Test
+    void getBackoff_doublesUpToMaxBackoff() {
+        Duration initial = Duration.ofSeconds(5);
+        Duration max = Duration.ofMinutes(1);
+
+        assertEquals(Duration.ofSeconds(5), PostProcessingOutboxWorker.getBackoff(1, initial, max));
+        assertEquals(Duration.ofSeconds(20), PostProcessingOutboxWorker.getBackoff(3, initial, max));
+        assertEquals(max, PostProcessingOutboxWorker.getBackoff(5, initial, max));
+        assertEquals(max, PostProcessingOutboxWorker.getBackoff(Integer.MAX_VALUE, initial, max));
+    }
+}
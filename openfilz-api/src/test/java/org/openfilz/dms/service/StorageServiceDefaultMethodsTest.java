@@ -8,10 +8,15 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class StorageServiceDefaultMethodsTest {
 
+    private final List<String> deletedPaths = new CopyOnWriteArrayList<>();
+
     /**
      * Minimal implementation to test default methods only.
      */
@@ -28,7 +33,7 @@ class StorageServiceDefaultMethodsTest {
 
         @Override
         public Mono<Void> deleteFile(String storagePath) {
-            return Mono.empty();
+            return Mono.fromRunnable(() -> deletedPaths.add(storagePath));
         }
 
         @Override
@@ -113,6 +118,15 @@ class StorageServiceDefaultMethodsTest {
         assertEquals("_tus/upload-123.json", storageService.getTusMetadataPath("upload-123"));
     }
 
+    @Test
+    void deleteFiles_deletesEveryFile() {
+        StepVerifier.create(storageService.deleteFiles(List.of("a#1.txt", "b#2.txt", "c#3.txt")))
+                .verifyComplete();
+
+        assertEquals(3, deletedPaths.size());
+        assertTrue(deletedPaths.containsAll(List.of("a#1.txt", "b#2.txt", "c#3.txt")));
+    }
+
     @Test
     void deleteLatestVersion_returnsEmptyMono() {
         StepVerifier.create(storageService.deleteLatestVersion("any/path"))
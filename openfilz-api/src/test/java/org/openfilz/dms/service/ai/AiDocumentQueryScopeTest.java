@@ -89,11 +89,11 @@ class AiDocumentQueryScopeTest {
     }
 
     @Test
-    @DisplayName("a folder searched recursively keeps the GraphQL contract's descendants CTE")
+    @DisplayName("a folder searched recursively keeps the GraphQL contract's subtree scope")
     void recursiveWithinAFolderIsUnchanged() {
         ListFolderRequest deep = request(FOLDER, true, null);
 
-        assertThat(sql(deep)).contains("WITH RECURSIVE descendants");
+        assertThat(sql(deep)).contains("d.path <@ (SELECT path FROM documents WHERE id = :parent_id)");
     }
 
     /**
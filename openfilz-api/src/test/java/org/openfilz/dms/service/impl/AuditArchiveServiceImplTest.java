@@ -0,0 +1,135 @@
+package org.openfilz.dms.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.config.AuditPartitionProperties;
+import org.openfilz.dms.dto.audit.AuditLogArchive;
+import org.openfilz.dms.dto.audit.AuditLogPartition;
+import org.openfilz.dms.repository.AuditArchiveDAO;
+import org.openfilz.dms.service.StorageService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditArchiveServiceImplTest {
+
+    private static final AuditLogPartition PARTITION = new AuditLogPartition("audit_logs_2025_01",
+            OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+            OffsetDateTime.of(2025, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+    @Mock
+    private AuditArchiveDAO auditArchiveDAO;
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private TransactionalOperator tx;
+
+    private AuditPartitionProperties properties;
+    private AuditArchiveServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuditPartitionProperties();
+        service = new AuditArchiveServiceImpl(auditArchiveDAO, storageService, properties, tx);
+    }
+
+    @Test
+    void createPartitions_createsCurrentAndNextMonths() {
+        when(auditArchiveDAO.createPartition(any())).thenReturn(Mono.just(true), Mono.just(false));
+
+        StepVerifier.create(service.createPartitions())
+                .expectNext(1)
+                .verifyComplete();
+
+        LocalDate currentMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        verify(auditArchiveDAO).createPartition(currentMonth);
+        verify(auditArchiveDAO).createPartition(currentMonth.plusMonths(properties.getMonthsAhead()));
+        verify(auditArchiveDAO, times(properties.getMonthsAhead() + 1)).createPartition(any());
+    }
+
+    @Test
+    void archiveClosedPartitions_disabled_doesNothing() {
+        StepVerifier.create(service.archiveClosedPartitions())
+                .expectNext(0)
+                .verifyComplete();
+
+        verifyNoInteractions(auditArchiveDAO, storageService);
+    }
+
+    @Test
+    void archiveClosedPartitions_writesCompressedEntriesThenReplacesPartition() throws IOException {
+        properties.getArchive().setEnabled(true);
+        List<String> entries = IntStream.rangeClosed(1, 1200)
+                .mapToObj(id -> "{\"id\":" + id + ",\"hash\":\"h" + id + "\"}")
+                .toList();
+        when(tx.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(auditArchiveDAO.findPartitionsBefore(any())).thenReturn(Flux.just(PARTITION));
+        when(auditArchiveDAO.lockForArchival(PARTITION)).thenReturn(Mono.just(true));
+        when(auditArchiveDAO.summarize(PARTITION)).thenReturn(Mono.just(
+                new AuditLogArchive(PARTITION, 1200, 1L, 1200L, "h0", "h1200", null, null)));
+        when(auditArchiveDAO.findEntries(PARTITION)).thenReturn(Flux.fromIterable(entries));
+        when(storageService.getAuditArchivePath(PARTITION.name())).thenReturn("_audit/audit_logs_2025_01.ndjson.gz");
+        AtomicReference<byte[]> written = new AtomicReference<>();
+        when(storageService.saveDataWithChecksum(eq("_audit/audit_logs_2025_01.ndjson.gz"), any()))
+                .thenAnswer(inv -> DataBufferUtils.join(inv.<Flux<DataBuffer>>getArgument(1))
+                        .map(buffer -> {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            written.set(bytes);
+                            return "checksum";
+                        }));
+        when(auditArchiveDAO.replaceByArchive(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.archiveClosedPartitions())
+                .expectNext(1)
+                .verifyComplete();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(written.get()))) {
+            assertEquals(String.join("\n", entries) + "\n", new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        ArgumentCaptor<AuditLogArchive> archive = ArgumentCaptor.forClass(AuditLogArchive.class);
+        verify(auditArchiveDAO).replaceByArchive(archive.capture());
+        assertEquals("_audit/audit_logs_2025_01.ndjson.gz", archive.getValue().storagePath());
+        assertEquals("checksum", archive.getValue().checksum());
+        assertEquals("h1200", archive.getValue().lastHash());
+    }
+
+    @Test
+    void archiveClosedPartitions_lockedByAnotherInstance_skipsPartition() {
+        properties.getArchive().setEnabled(true);
+        when(tx.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(auditArchiveDAO.findPartitionsBefore(any())).thenReturn(Flux.just(PARTITION));
+        when(auditArchiveDAO.lockForArchival(PARTITION)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.archiveClosedPartitions())
+                .expectNext(0)
+                .verifyComplete();
+
+        verify(auditArchiveDAO, never()).replaceByArchive(any());
+        verify(storageService, never()).saveDataWithChecksum(any(), any());
+    }
+}
@@ -0,0 +1,215 @@
+package org.openfilz.dms.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.config.AuditChainProperties;
+import org.openfilz.dms.config.AuditProperties;
+import org.openfilz.dms.dto.audit.AuditChainCheckpoint;
+import org.openfilz.dms.dto.audit.AuditLog;
+import org.openfilz.dms.dto.audit.AuditVerificationResult.AuditVerificationStatus;
+import org.openfilz.dms.enums.AuditAction;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.repository.AuditDAO;
+import org.openfilz.dms.service.AuditChainService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditServiceImplVerificationTest {
+
+    private static final int CHAIN_LENGTH = 7;
+
+    @Mock
+    private AuditDAO auditDAO;
+
+    private AuditChainService auditChainService;
+    private AuditServiceImpl auditService;
+
+    /**
+     * Chained entries by id, starting at 1
+     */
+    private List<AuditLog> chain;
+
+    @BeforeEach
+    void setUp() {
+        AuditChainProperties chainProperties = new AuditChainProperties();
+        chainProperties.setVerificationSegmentSize(2);
+        chainProperties.setVerificationParallelism(3);
+        auditChainService = new AuditChainService(chainProperties);
+        auditService = new AuditServiceImpl(auditDAO, new AuditProperties(), chainProperties, auditChainService);
+
+        chain = new ArrayList<>();
+        String previousHash = auditChainService.computeGenesisHash();
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            AuditLog entry = entry(i, previousHash, null);
+            chain.add(entry);
+            previousHash = entry.hash();
+        }
+        lenient().when(auditDAO.getFirstChainedId()).thenReturn(Mono.just(1L));
+        lenient().when(auditDAO.getLastChainedId()).thenAnswer(_ -> Mono.just((long) chain.size()));
+        lenient().when(auditDAO.getChainedEntriesInRange(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long fromId = invocation.getArgument(0);
+            long toId = invocation.getArgument(1);
+            return Flux.fromIterable(chain.subList((int) fromId - 1, (int) Math.min(toId, chain.size())));
+        });
+        lenient().when(auditDAO.saveVerificationCheckpoint(any())).thenReturn(Mono.empty());
+        lenient().when(auditDAO.getArchivedHashBefore(anyLong())).thenReturn(Mono.empty());
+    }
+
+    private AuditLog entry(int index, String previousHash, String hash) {
+        OffsetDateTime timestamp = OffsetDateTime.of(2026, 1, 1, 10, 0, index, 0, ZoneOffset.UTC);
+        UUID resourceId = UUID.nameUUIDFromBytes(("resource-" + index).getBytes());
+        String computedHash = auditChainService.computeHash(timestamp, "user@test.com", AuditAction.CREATE_FOLDER,
+                DocumentType.FOLDER, resourceId, null, previousHash);
+        return new AuditLog(resourceId, timestamp, "user@test.com", AuditAction.CREATE_FOLDER, DocumentType.FOLDER,
+                null, previousHash, hash != null ? hash : computedHash);
+    }
+
+    @Test
+    void verifyChain_validChainInSegments_isValidAndCheckpointed() {
+        StepVerifier.create(auditService.verifyChain())
+                .assertNext(result -> {
+                    assertEquals(AuditVerificationStatus.VALID, result.status());
+                    assertEquals(CHAIN_LENGTH, result.totalEntries());
+                    assertEquals(CHAIN_LENGTH, result.verifiedEntries());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<AuditChainCheckpoint> checkpoint = ArgumentCaptor.forClass(AuditChainCheckpoint.class);
+        verify(auditDAO).saveVerificationCheckpoint(checkpoint.capture());
+        assertEquals(CHAIN_LENGTH, checkpoint.getValue().lastId());
+        assertEquals(chain.getLast().hash(), checkpoint.getValue().lastHash());
+        assertEquals(CHAIN_LENGTH, checkpoint.getValue().verifiedEntries());
+    }
+
+    @Test
+    void verifyChain_tamperedHash_isBrokenAtItsPosition() {
+        AuditLog original = chain.get(4);
+        chain.set(4, entry(4, original.previousHash(), "tampered"));
+
+        StepVerifier.create(auditService.verifyChain())
+                .assertNext(result -> {
+                    assertEquals(AuditVerificationStatus.BROKEN, result.status());
+                    assertEquals(5, result.brokenLink().entryId());
+                    assertEquals("tampered", result.brokenLink().actualHash());
+                    assertEquals(4, result.verifiedEntries());
+                })
+                .verifyComplete();
+        verify(auditDAO, never()).saveVerificationCheckpoint(any());
+    }
+
+    @Test
+    void verifyChain_brokenLinkBetweenSegments_isBroken() {
+        // First entry of the third segment, consistent with itself but not linked to the second segment
+        chain.set(4, entry(4, "unlinked", null));
+
+        StepVerifier.create(auditService.verifyChain())
+                .assertNext(result -> {
+                    assertEquals(AuditVerificationStatus.BROKEN, result.status());
+                    assertEquals(5, result.brokenLink().entryId());
+                    assertEquals(chain.get(3).hash(), result.brokenLink().expectedHash());
+                    assertEquals("unlinked", result.brokenLink().actualHash());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void verifyChain_afterArchivedEntries_followsLastArchivedHash() {
+        when(auditDAO.getArchivedHashBefore(1L)).thenReturn(Mono.just(auditChainService.computeGenesisHash()));
+
+        StepVerifier.create(auditService.verifyChain())
+                .assertNext(result -> assertEquals(AuditVerificationStatus.VALID, result.status()))
+                .verifyComplete();
+    }
+
+    @Test
+    void verifyChain_notLinkedToArchivedEntries_isBroken() {
+        when(auditDAO.getArchivedHashBefore(1L)).thenReturn(Mono.just("archived"));
+
+        StepVerifier.create(auditService.verifyChain())
+                .assertNext(result -> {
+                    assertEquals(AuditVerificationStatus.BROKEN, result.status());
+                    assertEquals(1, result.brokenLink().entryId());
+                    assertEquals("archived", result.brokenLink().expectedHash());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void verifyChain_noChainedEntry_isEmpty() {
+        when(auditDAO.getFirstChainedId()).thenReturn(Mono.empty());
+
+        StepVerifier.create(auditService.verifyChain())
+                .assertNext(result -> assertEquals(AuditVerificationStatus.EMPTY, result.status()))
+                .verifyComplete();
+    }
+
+    @Test
+    void verifyNewEntries_fromCheckpoint_verifiesOnlyNewEntries() {
+        when(auditDAO.getVerificationCheckpoint())
+                .thenReturn(Mono.just(new AuditChainCheckpoint(5, chain.get(4).hash(), 5, OffsetDateTime.now())));
+
+        StepVerifier.create(auditService.verifyNewEntries())
+                .assertNext(result -> {
+                    assertEquals(AuditVerificationStatus.VALID, result.status());
+                    assertEquals(CHAIN_LENGTH, result.verifiedEntries());
+                })
+                .verifyComplete();
+
+        verify(auditDAO).getChainedEntriesInRange(6, 7);
+        verify(auditDAO, never()).getChainedEntriesInRange(eq(1L), anyLong());
+    }
+
+    @Test
+    void verifyNewEntries_notLinkedToCheckpoint_isBroken() {
+        when(auditDAO.getVerificationCheckpoint())
+                .thenReturn(Mono.just(new AuditChainCheckpoint(5, "rewritten", 5, OffsetDateTime.now())));
+
+        StepVerifier.create(auditService.verifyNewEntries())
+                .assertNext(result -> {
+                    assertEquals(AuditVerificationStatus.BROKEN, result.status());
+                    assertEquals(6, result.brokenLink().entryId());
+                    assertEquals("rewritten", result.brokenLink().expectedHash());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void verifyNewEntries_nothingNew_isValidWithoutNewCheckpoint() {
+        when(auditDAO.getVerificationCheckpoint())
+                .thenReturn(Mono.just(new AuditChainCheckpoint(CHAIN_LENGTH, chain.getLast().hash(), CHAIN_LENGTH, OffsetDateTime.now())));
+
+        StepVerifier.create(auditService.verifyNewEntries())
+                .assertNext(result -> {
+                    assertEquals(AuditVerificationStatus.VALID, result.status());
+                    assertEquals(CHAIN_LENGTH, result.verifiedEntries());
+                })
+                .verifyComplete();
+        verify(auditDAO, never()).getChainedEntriesInRange(anyLong(), anyLong());
+        verify(auditDAO, never()).saveVerificationCheckpoint(any());
+    }
+
+    @Test
+    void verifyNewEntries_withoutCheckpoint_verifiesWholeChain() {
+        when(auditDAO.getVerificationCheckpoint()).thenReturn(Mono.empty());
+
+        StepVerifier.create(auditService.verifyNewEntries())
+                .assertNext(result -> assertEquals(CHAIN_LENGTH, result.verifiedEntries()))
+                .verifyComplete();
+        verify(auditDAO).getChainedEntriesInRange(1, 2);
+    }
+}
@@ -0,0 +1,195 @@
+package org.openfilz.dms.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.config.BulkJobProperties;
+import org.openfilz.dms.dto.BulkJob;
+import org.openfilz.dms.dto.request.CopyRequest;
+import org.openfilz.dms.dto.request.DeleteRequest;
+import org.openfilz.dms.dto.response.BulkJobError;
+import org.openfilz.dms.dto.response.CopyResponse;
+import org.openfilz.dms.enums.BulkJobStatus;
+import org.openfilz.dms.enums.BulkJobType;
+import org.openfilz.dms.exception.DocumentNotFoundException;
+import org.openfilz.dms.repository.BulkJobDAO;
+import org.openfilz.dms.service.DocumentService;
+import org.openfilz.dms.service.StorageService;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkJobServiceImplTest {
+
+    @Mock private BulkJobDAO bulkJobDAO;
+    @Mock private DocumentService documentService;
+    @Mock private StorageService storageService;
+    @Mock private TransactionalOperator tx;
+
+    private BulkJobProperties properties;
+    private BulkJobServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BulkJobProperties();
+        service = new BulkJobServiceImpl(properties, bulkJobDAO, documentService, storageService, tx);
+    }
+
+    private static BulkJob runningJob(BulkJobType type, List<UUID> documentIds, int processedItems) {
+        return new BulkJob(UUID.randomUUID(), type, BulkJobStatus.RUNNING, "owner", documentIds, UUID.randomUUID(), null,
+                documentIds.size(), processedItems, 0, List.of(), List.of(), null, null, 1,
+                OffsetDateTime.now(), OffsetDateTime.now(), null);
+    }
+
+    private static List<UUID> ids(int count) {
+        return Stream.generate(UUID::randomUUID).limit(count).toList();
+    }
+
+    private void stubBatches(BulkJob job) {
+        when(tx.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(bulkJobDAO.checkpoint(eq(job.id()), anyString(), anyInt())).thenReturn(Mono.just(true));
+        when(bulkJobDAO.addResults(eq(job.id()), anyList())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void execute_resumesAfterCheckpoint_byBatchesOfFiles() {
+        properties.setBatchSize(2);
+        List<UUID> ids = ids(5);
+        BulkJob job = runningJob(BulkJobType.DELETE_FILES, ids, 1);
+        stubBatches(job);
+        when(documentService.deleteFiles(any())).thenReturn(Mono.empty());
+        when(bulkJobDAO.complete(eq(job.id()), anyString(), isNull())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.execute(job)).verifyComplete();
+
+        verify(documentService).deleteFiles(new DeleteRequest(ids.subList(1, 3)));
+        verify(documentService).deleteFiles(new DeleteRequest(ids.subList(3, 5)));
+        verifyNoMoreInteractions(documentService);
+        verify(bulkJobDAO).checkpoint(eq(job.id()), anyString(), eq(3));
+        verify(bulkJobDAO).checkpoint(eq(job.id()), anyString(), eq(5));
+        verify(bulkJobDAO, never()).fail(any(), anyString(), any());
+    }
+
+    @Test
+    void execute_foldersAreHandledOneByOne() {
+        List<UUID> ids = ids(2);
+        BulkJob job = runningJob(BulkJobType.COPY_FOLDERS, ids, 0);
+        stubBatches(job);
+        UUID copy1 = UUID.randomUUID();
+        UUID copy2 = UUID.randomUUID();
+        when(documentService.copyFolders(any()))
+                .thenReturn(Flux.just(copy1))
+                .thenReturn(Flux.just(copy2));
+        when(bulkJobDAO.complete(eq(job.id()), anyString(), isNull())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.execute(job)).verifyComplete();
+
+        verify(documentService).copyFolders(new CopyRequest(List.of(ids.get(0)), job.targetFolderId(), null));
+        verify(documentService).copyFolders(new CopyRequest(List.of(ids.get(1)), job.targetFolderId(), null));
+        verify(bulkJobDAO).addResults(job.id(), List.of(copy1));
+        verify(bulkJobDAO).addResults(job.id(), List.of(copy2));
+    }
+
+    @Test
+    void execute_failedBatch_isRetriedOneByOne_andErrorsRecorded() {
+        List<UUID> ids = ids(3);
+        UUID missing = ids.get(1);
+        BulkJob job = runningJob(BulkJobType.COPY_FILES, ids, 0);
+        stubBatches(job);
+        when(documentService.copyFiles(any())).thenAnswer(inv -> {
+            CopyRequest request = inv.getArgument(0);
+            return request.documentIds().contains(missing)
+                    ? Flux.error(new DocumentNotFoundException(missing))
+                    : Flux.fromIterable(request.documentIds()).map(id -> new CopyResponse(id, UUID.randomUUID()));
+        });
+        when(bulkJobDAO.recordFailures(eq(job.id()), anyString(), anyInt(), anyList())).thenReturn(Mono.just(true));
+        when(bulkJobDAO.complete(eq(job.id()), anyString(), isNull())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.execute(job)).verifyComplete();
+
+        verify(documentService).copyFiles(new CopyRequest(ids, job.targetFolderId(), null));
+        verify(documentService).copyFiles(new CopyRequest(List.of(ids.get(0)), job.targetFolderId(), null));
+        verify(documentService).copyFiles(new CopyRequest(List.of(ids.get(2)), job.targetFolderId(), null));
+        verify(bulkJobDAO).recordFailures(eq(job.id()), anyString(), eq(2),
+                eq(List.of(new BulkJobError(missing, "Document not found : " + missing))));
+        verify(bulkJobDAO).complete(eq(job.id()), anyString(), isNull());
+    }
+
+    @Test
+    void execute_cancelledJob_stopsWithoutCompleting() {
+        List<UUID> ids = ids(2);
+        BulkJob job = runningJob(BulkJobType.DELETE_FOLDERS, ids, 0);
+        when(tx.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(bulkJobDAO.checkpoint(eq(job.id()), anyString(), anyInt())).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.execute(job)).verifyComplete();
+
+        verifyNoInteractions(documentService);
+        verify(bulkJobDAO, never()).complete(any(), anyString(), any());
+        verify(bulkJobDAO, never()).fail(any(), anyString(), any());
+    }
+
+    @Test
+    void execute_downloadJob_buildsArchiveInStorage() {
+        List<UUID> ids = ids(3);
+        BulkJob job = runningJob(BulkJobType.DOWNLOAD_ZIP, ids, 0);
+        String archivePath = "_jobs/" + job.id() + ".zip";
+        when(storageService.getJobArchivePath(job.id())).thenReturn(archivePath);
+        when(bulkJobDAO.checkpoint(eq(job.id()), anyString(), eq(0))).thenReturn(Mono.just(true));
+        when(documentService.downloadMultipleDocumentsAsZip(ids)).thenReturn(Flux.empty());
+        when(storageService.saveData(eq(archivePath), any())).thenReturn(Mono.empty());
+        when(bulkJobDAO.complete(eq(job.id()), anyString(), eq(archivePath))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.execute(job)).verifyComplete();
+
+        verify(storageService).saveData(eq(archivePath), any());
+        verify(bulkJobDAO).complete(eq(job.id()), anyString(), eq(archivePath));
+    }
+
+    @Test
+    void execute_unexpectedError_failsJob() {
+        List<UUID> ids = ids(1);
+        BulkJob job = runningJob(BulkJobType.DOWNLOAD_ZIP, ids, 0);
+        when(storageService.getJobArchivePath(job.id())).thenReturn("_jobs/archive.zip");
+        when(bulkJobDAO.checkpoint(eq(job.id()), anyString(), eq(0))).thenReturn(Mono.just(true));
+        when(documentService.downloadMultipleDocumentsAsZip(ids)).thenReturn(Flux.empty());
+        when(storageService.saveData(anyString(), any())).thenReturn(Mono.error(new IllegalStateException("storage down")));
+        when(bulkJobDAO.fail(eq(job.id()), anyString(), eq("storage down"))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.execute(job)).verifyComplete();
+
+        verify(bulkJobDAO, never()).complete(any(), anyString(), any());
+    }
+
+    @Test
+    void dispatch_claimsUpToFreeWorkers() {
+        when(bulkJobDAO.failAbandoned(properties.getStaleTimeout(), properties.getMaxAttempts())).thenReturn(Mono.just(0L));
+        when(bulkJobDAO.claim(anyString(), anyInt(), any(), anyInt())).thenReturn(Flux.empty());
+
+        StepVerifier.create(service.dispatch())
+                .expectNext(0)
+                .verifyComplete();
+
+        verify(bulkJobDAO).claim(anyString(), eq(properties.getMaxConcurrentJobs()), eq(properties.getStaleTimeout()), eq(properties.getMaxAttempts()));
+    }
+
+    @Test
+    void submit_emptyDocumentIds_isRejected() {
+        StepVerifier.create(service.submit(BulkJobType.DELETE_FILES, List.of(), null, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verifyNoInteractions(bulkJobDAO);
+    }
+}
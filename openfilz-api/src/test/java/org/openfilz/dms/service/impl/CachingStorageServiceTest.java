@@ -0,0 +1,185 @@
+package org.openfilz.dms.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.config.StorageCacheProperties;
+import org.openfilz.dms.service.StorageService;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingStorageServiceTest {
+
+    private static final String PATH = "uuid#doc.txt";
+    private static final byte[] CONTENT = "hello cached world".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path cacheDir;
+
+    @Mock private StorageService delegate;
+
+    private StorageCacheProperties properties;
+    private CachingStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageCacheProperties();
+        properties.setEnabled(true);
+        properties.setPath(cacheDir.toString());
+        properties.setMaxObjectSize(1024);
+        service = new CachingStorageService(delegate, properties);
+    }
+
+    private static String read(Resource resource) throws IOException {
+        try (var in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String join(Flux<DataBuffer> content) {
+        return DataBufferUtils.join(content)
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .block();
+    }
+
+    private void stubBackend() {
+        when(delegate.getFileLength(PATH)).thenReturn(Mono.just((long) CONTENT.length));
+        doReturn(Mono.fromSupplier(() -> new ByteArrayResource(CONTENT))).when(delegate).loadFile(PATH);
+    }
+
+    @Test
+    void constructor_clearsCacheDirectory() throws IOException {
+        Path leftover = Files.writeString(cacheDir.resolve("stale"), "stale");
+
+        new CachingStorageService(delegate, properties);
+
+        assertThat(leftover).doesNotExist();
+    }
+
+    @Test
+    void loadFile_secondRead_isServedFromCache() throws IOException {
+        stubBackend();
+
+        assertThat(read(service.loadFile(PATH).block())).isEqualTo("hello cached world");
+        assertThat(read(service.loadFile(PATH).block())).isEqualTo("hello cached world");
+
+        verify(delegate, times(1)).loadFile(PATH);
+        verify(delegate, times(1)).getFileLength(PATH);
+    }
+
+    @Test
+    void loadFile_concurrentColdReads_shareOneDownload() {
+        when(delegate.getFileLength(PATH)).thenReturn(Mono.just((long) CONTENT.length));
+        doReturn(Mono.fromSupplier(() -> new ByteArrayResource(CONTENT)).delayElement(Duration.ofMillis(100)))
+                .when(delegate).loadFile(PATH);
+
+        StepVerifier.create(Mono.zip(service.loadFile(PATH), service.loadFile(PATH)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(delegate, times(1)).loadFile(PATH);
+    }
+
+    @Test
+    void loadFile_largeObject_bypassesCache() {
+        when(delegate.getFileLength(PATH)).thenReturn(Mono.just(4096L));
+        doReturn(Mono.fromSupplier(() -> new ByteArrayResource(CONTENT))).when(delegate).loadFile(PATH);
+
+        service.loadFile(PATH).block();
+        service.loadFile(PATH).block();
+
+        verify(delegate, times(2)).loadFile(PATH);
+    }
+
+    @Test
+    void deleteFile_invalidatesCachedObject() {
+        stubBackend();
+        when(delegate.deleteFile(PATH)).thenReturn(Mono.empty());
+        service.loadFile(PATH).block();
+
+        StepVerifier.create(service.deleteFile(PATH)).verifyComplete();
+        service.loadFile(PATH).block();
+
+        verify(delegate, times(2)).loadFile(PATH);
+    }
+
+    @Test
+    void deleteFiles_invalidatesCachedObjects() {
+        stubBackend();
+        when(delegate.deleteFiles(List.of(PATH))).thenReturn(Mono.empty());
+        service.loadFile(PATH).block();
+
+        StepVerifier.create(service.deleteFiles(List.of(PATH))).verifyComplete();
+        service.loadFile(PATH).block();
+
+        verify(delegate, times(2)).loadFile(PATH);
+    }
+
+    @Test
+    void replaceFile_invalidatesOldAndNewPaths() {
+        stubBackend();
+        when(delegate.replaceFile(PATH, null)).thenReturn(Mono.just(PATH));
+        service.loadFile(PATH).block();
+
+        StepVerifier.create(service.replaceFile(PATH, null)).expectNext(PATH).verifyComplete();
+        service.loadFile(PATH).block();
+
+        verify(delegate, times(2)).loadFile(PATH);
+    }
+
+    @Test
+    void restoreFileVersion_invalidatesCachedObject() {
+        stubBackend();
+        when(delegate.restoreFileVersion(PATH, "v1")).thenReturn(Mono.just("v3"));
+        service.loadFile(PATH).block();
+
+        StepVerifier.create(service.restoreFileVersion(PATH, "v1")).expectNext("v3").verifyComplete();
+        service.loadFile(PATH).block();
+
+        verify(delegate, times(2)).loadFile(PATH);
+    }
+
+    @Test
+    void loadFileRange_cachedObject_isReadFromDisk() {
+        stubBackend();
+        service.loadFile(PATH).block();
+
+        assertThat(join(service.loadFileRange(PATH, 6, 6))).isEqualTo("cached");
+
+        verify(delegate, never()).loadFileRange(eq(PATH), anyLong(), anyLong());
+    }
+
+    @Test
+    void loadFileRange_uncachedObject_isDelegatedWithoutCaching() {
+        when(delegate.loadFileRange(PATH, 0, 5)).thenReturn(Flux.empty());
+
+        StepVerifier.create(service.loadFileRange(PATH, 0, 5)).verifyComplete();
+
+        verify(delegate, never()).loadFile(PATH);
+    }
+}
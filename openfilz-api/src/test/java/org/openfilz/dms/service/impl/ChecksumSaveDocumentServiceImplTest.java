@@ -9,6 +9,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.openfilz.dms.config.QuotaProperties;
 import org.openfilz.dms.dto.Checksum;
+import org.openfilz.dms.dto.StoredFile;
 import org.openfilz.dms.entity.Document;
 import org.openfilz.dms.enums.DocumentType;
 import org.openfilz.dms.repository.DocumentDAO;
@@ -16,6 +17,7 @@ import org.openfilz.dms.service.AuditService;
 import org.openfilz.dms.service.ChecksumService;
 import org.openfilz.dms.service.MetadataPostProcessor;
 import org.openfilz.dms.service.StorageService;
+import org.openfilz.dms.service.UserQuotaService;
 import org.openfilz.dms.utils.ContentInfo;
 import org.openfilz.dms.utils.JsonUtils;
 import org.springframework.http.codec.multipart.FilePart;
@@ -44,6 +46,7 @@ class ChecksumSaveDocumentServiceImplTest {
     @Mock private MetadataPostProcessor metadataPostProcessor;
     @Mock private TransactionalOperator tx;
     @Mock private QuotaProperties quotaProperties;
+    @Mock private UserQuotaService userQuotaService;
     @Mock private ChecksumService checksumService;
 
     private ChecksumSaveDocumentServiceImpl service;
@@ -52,7 +55,7 @@ class ChecksumSaveDocumentServiceImplTest {
     void setUp() {
         service = new ChecksumSaveDocumentServiceImpl(
                 storageService, objectMapper, auditService, jsonUtils,
-                documentDAO, metadataPostProcessor, tx, quotaProperties, checksumService);
+                documentDAO, metadataPostProcessor, tx, quotaProperties, userQuotaService, checksumService);
     }
 
     @Test
@@ -151,8 +154,8 @@ class ChecksumSaveDocumentServiceImplTest {
         Map<String, Object> metadataMap = Map.of("sha256", "old-hash");
         lenient().when(jsonUtils.toMap(any(Json.class))).thenReturn(metadataMap);
 
-        when(storageService.replaceFile(eq(oldPath), eq(newFilePart)))
-                .thenReturn(Mono.just("new/path.txt")); // Different path = non-versioning
+        when(storageService.replaceFileWithChecksum(eq(oldPath), eq(newFilePart)))
+                .thenReturn(Mono.just(StoredFile.of("new/path.txt"))); // Different path = non-versioning
 
         Checksum newChecksum = new Checksum("new/path.txt", Map.of("sha256", "new-hash"));
         when(checksumService.calculateChecksum(eq("new/path.txt"), any()))
@@ -214,7 +217,7 @@ class ChecksumSaveDocumentServiceImplTest {
                 .build();
 
         FilePart newFilePart = mock(FilePart.class);
-        // No client checksum - forces server-side calculation
+        // No client checksum and no inline checksum - forces server-side calculation
         ContentInfo contentInfo = new ContentInfo(100L, null);
         String oldPath = "versioned/path.txt";
 
@@ -222,8 +225,8 @@ class ChecksumSaveDocumentServiceImplTest {
         when(jsonUtils.toMap(any(Json.class))).thenReturn(metadataMap);
 
         // Same path returned = versioning mode
-        when(storageService.replaceFile(eq(oldPath), eq(newFilePart)))
-                .thenReturn(Mono.just("versioned/path.txt"));
+        when(storageService.replaceFileWithChecksum(eq(oldPath), eq(newFilePart)))
+                .thenReturn(Mono.just(StoredFile.of("versioned/path.txt")));
 
         // Server calculates new checksum = same as existing → revert
         Checksum newChecksum = new Checksum("versioned/path.txt", Map.of("sha256", "existing-hash"));
@@ -292,8 +295,8 @@ class ChecksumSaveDocumentServiceImplTest {
         String oldPath = "old/path.txt";
 
         // Different path returned = non-versioning mode
-        when(storageService.replaceFile(eq(oldPath), eq(newFilePart)))
-                .thenReturn(Mono.just("new/path.txt"));
+        when(storageService.replaceFileWithChecksum(eq(oldPath), eq(newFilePart)))
+                .thenReturn(Mono.just(StoredFile.of("new/path.txt")));
 
         // Calculates checksum for new file
         Checksum newChecksum = new Checksum("new/path.txt", Map.of("sha256", "hash-a"));
@@ -355,4 +358,49 @@ class ChecksumSaveDocumentServiceImplTest {
         verify(checksumService).calculateChecksum(eq("old/path.txt"), any());
         verify(storageService).deleteFile("new/path.txt");
     }
+
+    @Test
+    void saveAndReplaceDocument_nonVersioning_inlineChecksum_doesNotReadStorage() {
+        UUID docId = UUID.randomUUID();
+        Document doc = Document.builder()
+                .id(docId)
+                .type(DocumentType.FILE)
+                .name("file.txt")
+                .storagePath("old/path.txt")
+                .metadata(Json.of("{\"sha256\":\"same-hash\"}"))
+                .build();
+
+        FilePart newFilePart = mock(FilePart.class);
+        ContentInfo contentInfo = new ContentInfo(100L, null);
+        String oldPath = "old/path.txt";
+
+        when(jsonUtils.toMap(any(Json.class))).thenReturn(Map.of("sha256", "same-hash"));
+        // Checksum computed while the content was streamed to storage
+        when(storageService.replaceFileWithChecksum(eq(oldPath), eq(newFilePart)))
+                .thenReturn(Mono.just(new StoredFile("new/path.txt", "same-hash")));
+        when(storageService.deleteFile("new/path.txt")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.saveAndReplaceDocument(newFilePart, contentInfo, doc, oldPath))
+                .expectNext(doc)
+                .verifyComplete();
+
+        verify(storageService).deleteFile("new/path.txt");
+        verifyNoInteractions(checksumService);
+    }
+
+    @Test
+    void doSaveFile_inlineChecksum_usesItInsteadOfReadingStorage() {
+        FilePart filePart = mock(FilePart.class);
+        Map<String, Object> metadata = Map.of("key", "value");
+        when(checksumService.getChecksumMono("stored/path", metadata, "inline-hash"))
+                .thenReturn(Mono.error(new IllegalStateException("stop")));
+        when(tx.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        StepVerifier.create(service.doSaveFile(filePart, 10L, null, metadata, "file.txt",
+                        Mono.just(new StoredFile("stored/path", "inline-hash"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(checksumService, never()).calculateChecksum(anyString(), any());
+    }
 }
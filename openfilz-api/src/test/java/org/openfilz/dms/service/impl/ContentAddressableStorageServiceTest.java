@@ -0,0 +1,163 @@
+package org.openfilz.dms.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.config.ContentAddressableStorageProperties;
+import org.openfilz.dms.dto.StoredFile;
+import org.openfilz.dms.exception.VersioningDisabledException;
+import org.openfilz.dms.repository.ContentBlobDAO;
+import org.openfilz.dms.service.StorageService;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContentAddressableStorageServiceTest {
+
+    private static final String HASH = "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9";
+    private static final String BLOB = "cas/b9/" + HASH;
+
+    @Mock private StorageService delegate;
+    @Mock private ContentBlobDAO contentBlobDAO;
+    @Mock private TransactionalOperator tx;
+    @Mock private FilePart filePart;
+
+    private ContentAddressableStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ContentAddressableStorageService(delegate, contentBlobDAO, tx, new ContentAddressableStorageProperties());
+    }
+
+    @Test
+    void saveFile_newContent_movesItUnderItsContentAddress() {
+        when(delegate.saveFileWithChecksum(filePart)).thenReturn(Mono.just(new StoredFile("uuid#doc.txt", HASH)));
+        when(contentBlobDAO.touch(BLOB)).thenReturn(Mono.just(false));
+        when(delegate.moveFile("uuid#doc.txt", BLOB)).thenReturn(Mono.empty());
+        when(contentBlobDAO.register(BLOB)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.saveFile(filePart))
+                .expectNext(BLOB)
+                .verifyComplete();
+
+        verify(delegate, never()).deleteFile(any());
+    }
+
+    @Test
+    void saveFile_knownContent_dropsUploadedCopy() {
+        when(delegate.saveFileWithChecksum(filePart)).thenReturn(Mono.just(new StoredFile("uuid#doc.txt", HASH)));
+        when(contentBlobDAO.touch(BLOB)).thenReturn(Mono.just(true));
+        when(delegate.deleteFile("uuid#doc.txt")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.saveFileWithChecksum(filePart))
+                .expectNext(new StoredFile(BLOB, HASH))
+                .verifyComplete();
+
+        verify(delegate, never()).moveFile(any(), any());
+        verify(contentBlobDAO, never()).register(any());
+    }
+
+    @Test
+    void saveFile_withoutChecksum_keepsBackendPath() {
+        when(delegate.saveFileWithChecksum(filePart)).thenReturn(Mono.just(StoredFile.of("uuid#doc.txt")));
+
+        StepVerifier.create(service.saveFile(filePart))
+                .expectNext("uuid#doc.txt")
+                .verifyComplete();
+
+        verifyNoInteractions(contentBlobDAO);
+    }
+
+    @Test
+    void copyFile_blob_isZeroCopy() {
+        StepVerifier.create(service.copyFile(BLOB))
+                .expectNext(BLOB)
+                .verifyComplete();
+
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void copyFile_legacyPath_delegates() {
+        when(delegate.copyFile("uuid#doc.txt")).thenReturn(Mono.just("uuid2#doc.txt"));
+
+        StepVerifier.create(service.copyFile("uuid#doc.txt"))
+                .expectNext("uuid2#doc.txt")
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteFile_blob_isLeftToGarbageCollection() {
+        StepVerifier.create(service.deleteFile(BLOB))
+                .verifyComplete();
+
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void deleteFile_legacyPath_delegates() {
+        when(delegate.deleteFile("uuid#doc.txt")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.deleteFile("uuid#doc.txt"))
+                .verifyComplete();
+
+        verify(delegate).deleteFile("uuid#doc.txt");
+    }
+
+    @Test
+    void deleteFiles_deletesLegacyPathsOnly() {
+        when(delegate.deleteFiles(List.of("uuid#doc.txt"))).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.deleteFiles(List.of(BLOB, "uuid#doc.txt")))
+                .verifyComplete();
+
+        verify(delegate).deleteFiles(List.of("uuid#doc.txt"));
+    }
+
+    @Test
+    void deleteFiles_blobsOnly_isLeftToGarbageCollection() {
+        StepVerifier.create(service.deleteFiles(List.of(BLOB)))
+                .verifyComplete();
+
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void restoreFileVersion_blob_isRejected() {
+        StepVerifier.create(service.restoreFileVersion(BLOB, "v1"))
+                .expectError(VersioningDisabledException.class)
+                .verify();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void collectUnreferencedBlobs_deletesLockedBlobsOnly() {
+        String other = "cas/aa/" + "a".repeat(64);
+        when(tx.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(contentBlobDAO.findUnreferenced(any(OffsetDateTime.class), anyInt())).thenReturn(Flux.just(BLOB, other));
+        when(contentBlobDAO.lockIfUnreferenced(eq(BLOB), any(OffsetDateTime.class))).thenReturn(Mono.just(BLOB));
+        // referenced again (or locked by another node) in the meantime
+        when(contentBlobDAO.lockIfUnreferenced(eq(other), any(OffsetDateTime.class))).thenReturn(Mono.empty());
+        when(delegate.deleteFile(BLOB)).thenReturn(Mono.empty());
+        when(contentBlobDAO.delete(BLOB)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.collectUnreferencedBlobs())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(delegate, never()).deleteFile(other);
+    }
+}
@@ -0,0 +1,151 @@
+package org.openfilz.dms.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.dto.audit.AuditEntry;
+import org.openfilz.dms.dto.audit.DeleteAudit;
+import org.openfilz.dms.dto.request.DeleteRequest;
+import org.openfilz.dms.entity.Document;
+import org.openfilz.dms.enums.AccessType;
+import org.openfilz.dms.enums.AuditAction;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.exception.DocumentNotFoundException;
+import org.openfilz.dms.exception.OperationForbiddenException;
+import org.openfilz.dms.repository.DocumentDAO;
+import org.openfilz.dms.service.AuditService;
+import org.openfilz.dms.service.MetadataPostProcessor;
+import org.openfilz.dms.service.StorageService;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentDefaultDeleteServiceTest {
+
+    @Mock private DocumentDAO documentDAO;
+    @Mock private TransactionalOperator tx;
+    @Mock private StorageService storageService;
+    @Mock private AuditService auditService;
+    @Mock private MetadataPostProcessor metadataPostProcessor;
+
+    private DocumentDefaultDeleteService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DocumentDefaultDeleteService(documentDAO, tx, storageService, auditService, metadataPostProcessor);
+    }
+
+    private static Document document(UUID id, DocumentType type, UUID parentId) {
+        return Document.builder()
+                .id(id)
+                .name(id.toString())
+                .type(type)
+                .parentId(parentId)
+                .storagePath(type == DocumentType.FILE ? id + "#file.txt" : null)
+                .build();
+    }
+
+    private void stubSideEffects() {
+        when(tx.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(storageService.deleteFiles(anyCollection())).thenReturn(Mono.empty());
+        when(auditService.logActions(anyList())).thenReturn(Mono.empty());
+        when(metadataPostProcessor.deleteDocumentsOnCommit(anyCollection())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void deleteFiles_deletesAllFilesInOneBatch() {
+        Document file1 = document(UUID.randomUUID(), DocumentType.FILE, null);
+        Document file2 = document(UUID.randomUUID(), DocumentType.FILE, null);
+        List<UUID> ids = List.of(file1.getId(), file2.getId());
+        when(documentDAO.findByIds(ids, AccessType.RWD)).thenReturn(Flux.just(file1, file2));
+        when(documentDAO.deleteByIds(anyCollection())).thenReturn(Flux.just(file1, file2));
+        stubSideEffects();
+
+        StepVerifier.create(service.deleteFiles(new DeleteRequest(ids))).verifyComplete();
+
+        verify(documentDAO, times(1)).deleteByIds(anyCollection());
+        verify(storageService).deleteFiles(List.of(file1.getStoragePath(), file2.getStoragePath()));
+        verify(auditService).logActions(List.of(
+                new AuditEntry(AuditAction.DELETE_FILE, DocumentType.FILE, file1.getId()),
+                new AuditEntry(AuditAction.DELETE_FILE, DocumentType.FILE, file2.getId())));
+        verify(metadataPostProcessor).deleteDocumentsOnCommit(ids);
+    }
+
+    @Test
+    void deleteFiles_missingFile_deletesNothing() {
+        Document file = document(UUID.randomUUID(), DocumentType.FILE, null);
+        UUID missing = UUID.randomUUID();
+        List<UUID> ids = List.of(file.getId(), missing);
+        when(documentDAO.findByIds(ids, AccessType.RWD)).thenReturn(Flux.just(file));
+
+        StepVerifier.create(service.deleteFiles(new DeleteRequest(ids)))
+                .expectError(DocumentNotFoundException.class)
+                .verify();
+
+        verify(documentDAO, never()).deleteByIds(anyCollection());
+        verifyNoInteractions(storageService, auditService, metadataPostProcessor);
+    }
+
+    @Test
+    void deleteFiles_folder_isRejected() {
+        Document folder = document(UUID.randomUUID(), DocumentType.FOLDER, null);
+        List<UUID> ids = List.of(folder.getId());
+        when(documentDAO.findByIds(ids, AccessType.RWD)).thenReturn(Flux.just(folder));
+
+        StepVerifier.create(service.deleteFiles(new DeleteRequest(ids)))
+                .expectError(OperationForbiddenException.class)
+                .verify();
+
+        verify(documentDAO, never()).deleteByIds(anyCollection());
+    }
+
+    @Test
+    void deleteFolderRecursive_deletesSubtreeInOneStatement() {
+        UUID rootId = UUID.randomUUID();
+        Document root = document(rootId, DocumentType.FOLDER, null);
+        Document subFolder = document(UUID.randomUUID(), DocumentType.FOLDER, rootId);
+        Document nestedFile = document(UUID.randomUUID(), DocumentType.FILE, subFolder.getId());
+        Document file = document(UUID.randomUUID(), DocumentType.FILE, rootId);
+        when(documentDAO.getFolderToDelete(rootId)).thenReturn(Mono.just(root));
+        // Children before their parents
+        when(documentDAO.deleteSubtree(rootId)).thenReturn(Flux.just(nestedFile, subFolder, file, root));
+        stubSideEffects();
+
+        StepVerifier.create(service.deleteFolderRecursive(rootId)).verifyComplete();
+
+        verify(storageService).deleteFiles(List.of(nestedFile.getStoragePath(), file.getStoragePath()));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AuditEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(auditService).logActions(entries.capture());
+        List<AuditEntry> logged = entries.getValue();
+        assertEquals(List.of(AuditAction.DELETE_FILE_CHILD, AuditAction.DELETE_FOLDER, AuditAction.DELETE_FILE_CHILD, AuditAction.DELETE_FOLDER),
+                logged.stream().map(AuditEntry::action).toList());
+        assertEquals(subFolder.getId(), ((DeleteAudit) logged.get(0).details()).getDeletedParentFolderId());
+        assertEquals(rootId, logged.get(3).resourceId());
+        verify(metadataPostProcessor).deleteDocumentsOnCommit(List.of(nestedFile.getId(), subFolder.getId(), file.getId(), rootId));
+    }
+
+    @Test
+    void deleteFolderRecursive_unknownFolder_isNotFound() {
+        UUID folderId = UUID.randomUUID();
+        when(documentDAO.getFolderToDelete(folderId)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.deleteFolderRecursive(folderId))
+                .expectError(DocumentNotFoundException.class)
+                .verify();
+
+        verify(documentDAO, never()).deleteSubtree(any());
+    }
+}
@@ -5,30 +5,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.openfilz.dms.config.QuotaProperties;
 import org.openfilz.dms.dto.request.CreateFolderRequest;
 import org.openfilz.dms.dto.response.ChildElementInfo;
 import org.openfilz.dms.exception.FileSizeExceededException;
 import org.openfilz.dms.exception.OperationForbiddenException;
-import org.openfilz.dms.exception.StorageException;
-import org.openfilz.dms.exception.UserQuotaExceededException;
 import org.openfilz.dms.repository.DocumentDAO;
 import org.openfilz.dms.service.*;
 import org.openfilz.dms.utils.BlankDocumentGenerator;
 import org.openfilz.dms.utils.JsonUtils;
-import org.springframework.core.io.Resource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import tools.jackson.databind.ObjectMapper;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.ByteArrayInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -51,6 +48,7 @@ class DocumentServiceImplQuotaTest {
     @Mock private DocumentDeleteService documentDeleteService;
     @Mock private BlankDocumentGenerator blankDocumentGenerator;
     @Mock private QuotaProperties quotaProperties;
+    @Mock private UserQuotaService userQuotaService;
 
     @InjectMocks
     private DocumentServiceImpl service;
@@ -85,41 +83,6 @@ class DocumentServiceImplQuotaTest {
         StepVerifier.create(service.validateFileSize(100L, "ok.bin")).verifyComplete();
     }
 
-    @Test
-    void validateUserQuota_disabled_completes() {
-        when(quotaProperties.isUserQuotaEnabled()).thenReturn(false);
-        StepVerifier.create(service.validateUserQuota(100L)).verifyComplete();
-    }
-
-    @Test
-    void validateUserQuota_overQuota_errors() {
-        // No security context -> getConnectedUserEmail() resolves to anonymousUser.
-        when(quotaProperties.isUserQuotaEnabled()).thenReturn(true);
-        when(quotaProperties.getUserQuotaInBytes()).thenReturn(10L);
-        when(documentDAO.getTotalStorageByUser(anyString())).thenReturn(Mono.just(5L));
-
-        StepVerifier.create(service.validateUserQuota(100L))
-                .expectError(UserQuotaExceededException.class)
-                .verify();
-    }
-
-    @Test
-    void validateUserQuota_withinQuota_completes() {
-        when(quotaProperties.isUserQuotaEnabled()).thenReturn(true);
-        when(quotaProperties.getUserQuotaInBytes()).thenReturn(10_000L);
-        when(documentDAO.getTotalStorageByUser(anyString())).thenReturn(Mono.just(5L));
-
-        StepVerifier.create(service.validateUserQuota(100L)).verifyComplete();
-    }
-
-    @Test
-    void validateQuotas_combinesFileAndUserChecks() {
-        when(quotaProperties.isFileUploadQuotaEnabled()).thenReturn(false);
-        when(quotaProperties.isUserQuotaEnabled()).thenReturn(false);
-
-        StepVerifier.create(service.validateQuotas(100L, "f.bin")).verifyComplete();
-    }
-
     @Test
     void createFolder_nameWithSlash_isForbidden() {
         StepVerifier.create(service.createFolder(new CreateFolderRequest("bad/name", null)))
@@ -127,86 +90,23 @@ class DocumentServiceImplQuotaTest {
                 .verify();
     }
 
-    // ==================== validateUserQuotaForReplace (net-change based) ====================
-
-    private Mono<Void> replaceQuota(Long newSize, Long oldSize) {
-        return ReflectionTestUtils.invokeMethod(service, "validateUserQuotaForReplace", newSize, oldSize);
-    }
+    // ==================== getQuotaIncrease (net-change based replace reservation) ====================
 
     @Test
-    void validateUserQuotaForReplace_disabled_completes() {
-        when(quotaProperties.isUserQuotaEnabled()).thenReturn(false);
-        StepVerifier.create(replaceQuota(1000L, 0L)).verifyComplete();
+    void getQuotaIncrease_unknownNewSize_reservesNothing() {
+        assertNull(DocumentServiceImpl.getQuotaIncrease(null, 100L));
     }
 
     @Test
-    void validateUserQuotaForReplace_smallerOrEqualFile_completes() {
-        when(quotaProperties.isUserQuotaEnabled()).thenReturn(true);
-        // net change <= 0 -> no quota concern
-        StepVerifier.create(replaceQuota(50L, 100L)).verifyComplete();
+    void getQuotaIncrease_smallerOrEqualFile_reservesNothing() {
+        assertNull(DocumentServiceImpl.getQuotaIncrease(50L, 100L));
+        assertNull(DocumentServiceImpl.getQuotaIncrease(100L, 100L));
     }
 
     @Test
-    void validateUserQuotaForReplace_netIncreaseOverQuota_errors() {
-        when(quotaProperties.isUserQuotaEnabled()).thenReturn(true);
-        when(quotaProperties.getUserQuotaInBytes()).thenReturn(10L);
-        when(documentDAO.getTotalStorageByUser(anyString())).thenReturn(Mono.just(5L));
-
-        StepVerifier.create(replaceQuota(1000L, 0L))
-                .expectError(UserQuotaExceededException.class)
-                .verify();
-    }
-
-    @Test
-    void validateUserQuotaForReplace_netIncreaseWithinQuota_completes() {
-        when(quotaProperties.isUserQuotaEnabled()).thenReturn(true);
-        when(quotaProperties.getUserQuotaInBytes()).thenReturn(1_000_000L);
-        when(documentDAO.getTotalStorageByUser(anyString())).thenReturn(Mono.just(0L));
-
-        StepVerifier.create(replaceQuota(1000L, 0L)).verifyComplete();
-    }
-
-    // ==================== ZIP helper methods ====================
-
-    @Test
-    void closeOutputStream_swallowsCloseException() throws Exception {
-        ZipArchiveOutputStream zos = mock(ZipArchiveOutputStream.class);
-        doThrow(new IOException("close fail")).when(zos).close();
-
-        assertDoesNotThrow(() -> ReflectionTestUtils.invokeMethod(service, "closeOutputStream", zos));
-    }
-
-    @Test
-    void deleteTempFile_removesExistingFile() throws Exception {
-        Path tmp = Files.createTempFile("zip-helper", ".tmp");
-        assertTrue(Files.exists(tmp));
-
-        ReflectionTestUtils.invokeMethod(service, "deleteTempFile", tmp);
-
-        assertFalse(Files.exists(tmp));
-    }
-
-    @Test
-    void addFolderToZip_writesDirectoryEntry() throws Exception {
-        ZipArchiveOutputStream zos = mock(ZipArchiveOutputStream.class);
-        ChildElementInfo folder = ChildElementInfo.builder().path("docs").build();
-
-        Mono<Boolean> result = ReflectionTestUtils.invokeMethod(service, "addFolderToZip", folder, zos);
-
-        StepVerifier.create(result).expectNext(true).verifyComplete();
-        verify(zos).putArchiveEntry(any(ZipArchiveEntry.class));
-        verify(zos).closeArchiveEntry();
-    }
-
-    @Test
-    void addFolderToZip_onIoError_emitsStorageException() throws Exception {
-        ZipArchiveOutputStream zos = mock(ZipArchiveOutputStream.class);
-        doThrow(new IOException("disk full")).when(zos).putArchiveEntry(any(ZipArchiveEntry.class));
-        ChildElementInfo folder = ChildElementInfo.builder().path("docs").build();
-
-        Mono<Boolean> result = ReflectionTestUtils.invokeMethod(service, "addFolderToZip", folder, zos);
-
-        StepVerifier.create(result).expectError(StorageException.class).verify();
+    void getQuotaIncrease_largerFile_reservesNetChange() {
+        assertEquals(900L, DocumentServiceImpl.getQuotaIncrease(1000L, 100L));
+        assertEquals(1000L, DocumentServiceImpl.getQuotaIncrease(1000L, null));
     }
 
     @Test
@@ -220,82 +120,57 @@ class DocumentServiceImplQuotaTest {
     }
 
     @Test
-    void addFileToZip_missingResource_returnsFalse() {
-        org.openfilz.dms.entity.Document doc = org.openfilz.dms.entity.Document.builder()
-                .name("missing.txt").storagePath("path/missing").size(10L).build();
-        Resource resource = mock(Resource.class);
-        when(resource.exists()).thenReturn(false);
-        doReturn(Mono.just(resource)).when(storageService).loadFile("path/missing");
+    void isDescendant_distinctIds_singlePathLookup() {
+        java.util.UUID child = java.util.UUID.randomUUID();
+        java.util.UUID ancestor = java.util.UUID.randomUUID();
+        when(documentDAO.isDescendant(child, ancestor)).thenReturn(Mono.just(true));
 
-        Mono<Boolean> result = ReflectionTestUtils.invokeMethod(service, "addFileToZip", doc, "missing.txt",
-                mock(ZipArchiveOutputStream.class));
+        Mono<Boolean> result = ReflectionTestUtils.invokeMethod(service, "isDescendant", child, ancestor);
+        StepVerifier.create(result).expectNext(true).verifyComplete();
 
-        StepVerifier.create(result).expectNext(false).verifyComplete();
+        verify(documentDAO, never()).findById(any(), any());
     }
 
-    @Test
-    void addFileToZip_writesEntry() throws Exception {
-        org.openfilz.dms.entity.Document doc = org.openfilz.dms.entity.Document.builder()
-                .name("a.txt").storagePath("path/a").size(4L).build();
-        Resource resource = mock(Resource.class);
-        when(resource.exists()).thenReturn(true);
-        when(resource.getInputStream()).thenReturn(new java.io.ByteArrayInputStream("data".getBytes()));
-        doReturn(Mono.just(resource)).when(storageService).loadFile("path/a");
-        ZipArchiveOutputStream zos = mock(ZipArchiveOutputStream.class);
-
-        Mono<Boolean> result = ReflectionTestUtils.invokeMethod(service, "addFileToZip", doc, "a.txt", zos);
-
-        StepVerifier.create(result).expectNext(true).verifyComplete();
-        verify(zos).putArchiveEntry(any(ZipArchiveEntry.class));
-    }
+    // ==================== ZIP downloads ====================
 
     @Test
-    void addFileToZip_ioError_emitsStorageException() throws Exception {
-        org.openfilz.dms.entity.Document doc = org.openfilz.dms.entity.Document.builder()
-                .name("a.txt").storagePath("path/a").size(4L).build();
-        Resource resource = mock(Resource.class);
-        when(resource.exists()).thenReturn(true);
-        doReturn(Mono.just(resource)).when(storageService).loadFile("path/a");
-        ZipArchiveOutputStream zos = mock(ZipArchiveOutputStream.class);
-        doThrow(new IOException("zip fail")).when(zos).putArchiveEntry(any(ZipArchiveEntry.class));
-
-        Mono<Boolean> result = ReflectionTestUtils.invokeMethod(service, "addFileToZip", doc, "a.txt", zos);
-
-        StepVerifier.create(result).expectError(StorageException.class).verify();
+    void downloadMultipleDocumentsAsZip_emptyIds_emitsIllegalArgument() {
+        StepVerifier.create(service.downloadMultipleDocumentsAsZip(java.util.List.of()))
+                .expectError(IllegalArgumentException.class)
+                .verify();
     }
 
     @Test
-    void addDocumentToZip_dispatchesByType() throws Exception {
-        ZipArchiveOutputStream zos = mock(ZipArchiveOutputStream.class);
-        // Folder element -> addFolderToZip
-        ChildElementInfo folder = ChildElementInfo.builder()
-                .type(org.openfilz.dms.enums.DocumentType.FOLDER).path("dir").build();
-        Mono<Boolean> folderResult = ReflectionTestUtils.invokeMethod(service, "addDocumentToZip", folder, zos);
-        StepVerifier.create(folderResult).expectNext(true).verifyComplete();
-
-        // File element -> addFileToZip (missing resource -> false)
+    void downloadFolderAsZip_streamsEntriesFromStorage() throws Exception {
+        java.util.UUID folderId = java.util.UUID.randomUUID();
+        org.openfilz.dms.entity.Document folder = org.openfilz.dms.entity.Document.builder()
+                .id(folderId).name("docs").type(org.openfilz.dms.enums.DocumentType.FOLDER).build();
+        ChildElementInfo sub = ChildElementInfo.builder()
+                .type(org.openfilz.dms.enums.DocumentType.FOLDER).name("sub").path("docs/sub").build();
         ChildElementInfo file = ChildElementInfo.builder()
-                .type(org.openfilz.dms.enums.DocumentType.FILE).path("dir/a.txt").storagePath("path/a").build();
-        Resource resource = mock(Resource.class);
-        when(resource.exists()).thenReturn(false);
-        doReturn(Mono.just(resource)).when(storageService).loadFile("path/a");
-        Mono<Boolean> fileResult = ReflectionTestUtils.invokeMethod(service, "addDocumentToZip", file, zos);
-        StepVerifier.create(fileResult).expectNext(false).verifyComplete();
-    }
-
-    @Test
-    void toCleanupResource_hidesFilenameAndDeletesOnClose() throws Exception {
-        Path tmp = Files.createTempFile("cleanup", ".zip");
-        Files.write(tmp, "zipdata".getBytes());
-
-        Resource resource = ReflectionTestUtils.invokeMethod(service, "toCleanupResource", tmp);
-
-        assertNotNull(resource);
-        assertNull(resource.getFilename());
-        try (InputStream is = resource.getInputStream()) {
-            is.readAllBytes();
+                .type(org.openfilz.dms.enums.DocumentType.FILE).name("a.txt").path("docs/sub/a.txt")
+                .storagePath("path/a").size(4L).build();
+        when(auditService.logAction(any(), any(), any())).thenReturn(Mono.empty());
+        when(documentDAO.getChildren(folderId)).thenReturn(Flux.just(sub, file));
+        doReturn(Mono.just(new ByteArrayResource("data".getBytes()))).when(storageService).loadFile("path/a");
+
+        byte[] zip = DataBufferUtils.join(service.downloadFolderAsZip(folder))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .block();
+
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry = in.getNextEntry();
+            assertEquals("docs/sub/", entry.getName());
+            assertTrue(entry.isDirectory());
+            entry = in.getNextEntry();
+            assertEquals("docs/sub/a.txt", entry.getName());
+            assertEquals("data", new String(in.readAllBytes()));
+            assertNull(in.getNextEntry());
         }
-        // closing the stream deletes the temp file
-        assertFalse(Files.exists(tmp));
     }
 }
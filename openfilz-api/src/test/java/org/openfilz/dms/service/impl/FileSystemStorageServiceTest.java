@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.codec.multipart.FilePart;
@@ -12,12 +13,18 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import org.openfilz.dms.dto.StoredFile;
+import org.openfilz.dms.dto.TusStorageUpload;
+import org.openfilz.dms.dto.TusUploadMetadata;
 import org.openfilz.dms.exception.StorageException;
+import org.openfilz.dms.service.StorageService;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,7 +39,7 @@ class FileSystemStorageServiceTest {
     @BeforeEach
     void setUp() throws IOException {
         tempDir = Files.createTempDirectory("fs-storage-test");
-        service = new FileSystemStorageService(tempDir.toString());
+        service = new FileSystemStorageService(tempDir.toString(), 0, 0);
     }
 
     @AfterEach
@@ -73,6 +80,21 @@ class FileSystemStorageServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void saveFileWithChecksum_writesFileAndReturnsSha256() throws IOException {
+        FilePart filePart = mockFilePart("test.txt", "hello world");
+        when(filePart.content()).thenReturn(Flux.just(
+                DefaultDataBufferFactory.sharedInstance.wrap("hello ".getBytes(StandardCharsets.UTF_8)),
+                DefaultDataBufferFactory.sharedInstance.wrap("world".getBytes(StandardCharsets.UTF_8))));
+
+        StoredFile stored = service.saveFileWithChecksum(filePart).block();
+
+        assertNotNull(stored);
+        assertTrue(stored.storagePath().endsWith("test.txt"));
+        assertEquals("hello world", Files.readString(tempDir.resolve(stored.storagePath())));
+        assertEquals("b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9", stored.checksum());
+    }
+
     @Test
     void loadFile_whenExists_returnsResource() throws IOException {
         String filename = "loadable.txt";
@@ -87,6 +109,21 @@ class FileSystemStorageServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void loadFileRange_readsOnlyRequestedBytes() throws IOException {
+        Files.write(tempDir.resolve("range.txt"), "0123456789".getBytes());
+
+        StepVerifier.create(DataBufferUtils.join(service.loadFileRange("range.txt", 2, 4))
+                        .map(buffer -> buffer.toString(StandardCharsets.UTF_8)))
+                .expectNext("2345")
+                .verifyComplete();
+    }
+
+    @Test
+    void getLocalFile_resolvesAgainstRoot() {
+        assertEquals(tempDir.resolve("file.txt").normalize(), service.getLocalFile("file.txt").orElseThrow());
+    }
+
     @Test
     void loadFile_whenNotExists_returnsError() {
         StepVerifier.create(service.loadFile("non-existent.txt"))
@@ -280,7 +317,7 @@ class FileSystemStorageServiceTest {
         Path blocker = Files.createTempFile("fs-blocker", ".txt");
         try {
             String badPath = blocker.resolve("sub").toString();
-            assertThrows(RuntimeException.class, () -> new FileSystemStorageService(badPath));
+            assertThrows(RuntimeException.class, () -> new FileSystemStorageService(badPath, 0, 0));
         } finally {
             Files.deleteIfExists(blocker);
         }
@@ -319,6 +356,127 @@ class FileSystemStorageServiceTest {
         StepVerifier.create(result).verifyComplete();
     }
 
+    @Test
+    void sharded_saveFile_writesUnderShardDirectories() throws IOException {
+        FileSystemStorageService sharded = new FileSystemStorageService(tempDir.toString(), 2, 2);
+        FilePart filePart = mockFilePart("report.pdf", "content");
+
+        String storagePath = sharded.saveFile(filePart).block();
+
+        assertNotNull(storagePath);
+        assertFalse(storagePath.contains("/"));
+        Path expected = tempDir.resolve(storagePath.substring(0, 2)).resolve(storagePath.substring(2, 4)).resolve(storagePath);
+        assertTrue(Files.exists(expected));
+        assertEquals(expected, sharded.resolvePath(storagePath));
+        assertFalse(Files.exists(tempDir.resolve(storagePath)));
+    }
+
+    @Test
+    void sharded_resolvesFlatFilesUntilMigrated() throws IOException {
+        FileSystemStorageService sharded = new FileSystemStorageService(tempDir.toString(), 2, 2);
+        String storagePath = "3f2a9c1b-0000-0000-0000-000000000000#old.txt";
+        Files.write(tempDir.resolve(storagePath), "old".getBytes());
+
+        assertEquals(tempDir.resolve(storagePath), sharded.resolvePath(storagePath));
+        StepVerifier.create(sharded.getFileLength(storagePath)).expectNext(3L).verifyComplete();
+
+        StepVerifier.create(sharded.migrateFlatFiles(100)).expectNext(1).verifyComplete();
+
+        Path migrated = tempDir.resolve("3f").resolve("2a").resolve(storagePath);
+        assertTrue(Files.exists(migrated));
+        assertFalse(Files.exists(tempDir.resolve(storagePath)));
+        assertEquals(migrated, sharded.resolvePath(storagePath));
+        StepVerifier.create(sharded.migrateFlatFiles(100)).expectNext(0).verifyComplete();
+    }
+
+    @Test
+    void sharded_migrateFlatFiles_movesAtMostOneBatch() throws IOException {
+        FileSystemStorageService sharded = new FileSystemStorageService(tempDir.toString(), 2, 2);
+        for (int i = 0; i < 3; i++) {
+            Files.write(tempDir.resolve("a" + i + "000000-0000-0000-0000-000000000000#f.txt"), "x".getBytes());
+        }
+
+        StepVerifier.create(sharded.migrateFlatFiles(2)).expectNext(2).verifyComplete();
+        StepVerifier.create(sharded.migrateFlatFiles(2)).expectNext(1).verifyComplete();
+        StepVerifier.create(sharded.migrateFlatFiles(2)).expectNext(0).verifyComplete();
+    }
+
+    @Test
+    void sharded_deleteFile_removesFlatOrShardedFile() throws IOException {
+        FileSystemStorageService sharded = new FileSystemStorageService(tempDir.toString(), 2, 2);
+        String flatPath = "3f2a9c1b-0000-0000-0000-000000000000#old.txt";
+        Files.write(tempDir.resolve(flatPath), "old".getBytes());
+        String shardedPath = sharded.saveFile(mockFilePart("new.txt", "new")).block();
+
+        StepVerifier.create(sharded.deleteFile(flatPath)).verifyComplete();
+        StepVerifier.create(sharded.deleteFile(shardedPath)).verifyComplete();
+
+        assertFalse(Files.exists(sharded.resolvePath(flatPath)));
+        assertFalse(Files.exists(sharded.resolvePath(shardedPath)));
+    }
+
+    @Test
+    void sharded_tusAndFolderPathsAreNotSharded() throws IOException {
+        FileSystemStorageService sharded = new FileSystemStorageService(tempDir.toString(), 2, 2);
+        String tusPath = sharded.getTusDataPath("3f2a9c1b-0000-0000-0000-000000000000");
+
+        StepVerifier.create(sharded.createEmptyFile(tusPath)).verifyComplete();
+
+        assertTrue(Files.exists(tempDir.resolve(tusPath)));
+        assertEquals(tempDir.resolve("cas/ab/abcdef"), sharded.resolvePath("cas/ab/abcdef"));
+        StepVerifier.create(sharded.listFiles(FileSystemStorageService.TUS_PREFIX))
+                .expectNext(tusPath)
+                .verifyComplete();
+    }
+
+    @Test
+    void sharded_moveFile_fromTusToDocumentKey_writesUnderShardDirectories() throws IOException {
+        FileSystemStorageService sharded = new FileSystemStorageService(tempDir.toString(), 2, 2);
+        String tusPath = sharded.getTusDataPath("upload-1");
+        Files.createDirectories(tempDir.resolve(tusPath).getParent());
+        Files.write(tempDir.resolve(tusPath), "data".getBytes());
+        String storagePath = sharded.getUniqueStorageFileName("doc.txt");
+
+        StepVerifier.create(sharded.moveFile(tusPath, storagePath)).verifyComplete();
+
+        assertTrue(Files.exists(tempDir.resolve(storagePath.substring(0, 2)).resolve(storagePath.substring(2, 4)).resolve(storagePath)));
+        assertFalse(Files.exists(tempDir.resolve(tusPath)));
+    }
+
+    @Test
+    void concatenateTusUploads_concatenatesPartialDataFilesAndDeletesThem() throws IOException {
+        Files.createDirectories(tempDir.resolve(StorageService.TUS_PREFIX));
+        Files.write(tempDir.resolve(service.getTusDataPath("p1")), "hello ".getBytes());
+        Files.write(tempDir.resolve(service.getTusDataPath("p2")), "world".getBytes());
+        List<TusUploadMetadata> partials = List.of(partialUpload("p1", 6L), partialUpload("p2", 5L));
+
+        StepVerifier.create(service.concatenateTusUploads("u1", "doc.txt", partials))
+                .expectNextMatches(upload -> upload.size() == 11L && upload.storagePath().endsWith("#doc.txt"))
+                .verifyComplete();
+
+        assertEquals("hello world", Files.readString(tempDir.resolve(service.getTusDataPath("u1"))));
+        assertFalse(Files.exists(tempDir.resolve(service.getTusDataPath("p1"))));
+        assertFalse(Files.exists(tempDir.resolve(service.getTusDataPath("p2"))));
+    }
+
+    @Test
+    void concatenateTusUploads_truncatedPartialDataFile_keepsPartialUploads() throws IOException {
+        Files.createDirectories(tempDir.resolve(StorageService.TUS_PREFIX));
+        Files.write(tempDir.resolve(service.getTusDataPath("p1")), "hello".getBytes());
+
+        StepVerifier.create(service.concatenateTusUploads("u1", "doc.txt", List.of(partialUpload("p1", 6L))))
+                .expectError(StorageException.class)
+                .verify();
+
+        assertTrue(Files.exists(tempDir.resolve(service.getTusDataPath("p1"))));
+        assertFalse(Files.exists(tempDir.resolve(service.getTusDataPath("u1"))));
+    }
+
+    private static TusUploadMetadata partialUpload(String uploadId, long length) {
+        return TusUploadMetadata.create(uploadId, length, 60000L, Map.of(), "user@openfilz.org",
+                TusStorageUpload.of(uploadId).withSize(length), TusUploadMetadata.CONCAT_PARTIAL);
+    }
+
     private FilePart mockFilePart(String filename, String content) {
         FilePart filePart = mock(FilePart.class);
         when(filePart.filename()).thenReturn(filename);
@@ -0,0 +1,159 @@
+package org.openfilz.dms.service.impl;
+
+import io.minio.ObjectWriteResponse;
+import io.minio.PutObjectArgs;
+import io.minio.messages.Part;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MinioMultipartUploaderTest {
+
+    @Mock
+    private MinioMultipartClient client;
+
+    private MinioMultipartUploader uploader;
+
+    @BeforeEach
+    void setUp() {
+        // tiny parts to exercise the multipart path; real uploads use at least 5MB
+        uploader = new MinioMultipartUploader(client, "bucket", 4, 2);
+    }
+
+    private static Flux<DataBuffer> data(String... chunks) {
+        return Flux.fromArray(chunks)
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void partAssembler_splitsBuffersIntoPartsAndFlagsLastOne() {
+        MinioMultipartUploader.PartAssembler assembler = new MinioMultipartUploader.PartAssembler(4);
+
+        List<MinioMultipartUploader.PartData> parts = new java.util.ArrayList<>();
+        data("hel", "lo wor", "ld").toIterable().forEach(buffer -> parts.addAll(assembler.add(buffer)));
+        parts.addAll(assembler.finish());
+
+        assertEquals(List.of("hell", "o wo", "rld"),
+                parts.stream().map(p -> new String(p.bytes(), StandardCharsets.UTF_8)).toList());
+        assertEquals(List.of(1, 2, 3), parts.stream().map(MinioMultipartUploader.PartData::number).toList());
+        assertEquals(List.of(false, false, true), parts.stream().map(MinioMultipartUploader.PartData::last).toList());
+    }
+
+    @Test
+    void partAssembler_exactMultipleOfPartSize_flagsLastFullPart() {
+        MinioMultipartUploader.PartAssembler assembler = new MinioMultipartUploader.PartAssembler(4);
+
+        List<MinioMultipartUploader.PartData> parts = new java.util.ArrayList<>();
+        data("abcdefgh").toIterable().forEach(buffer -> parts.addAll(assembler.add(buffer)));
+        parts.addAll(assembler.finish());
+
+        assertEquals(2, parts.size());
+        assertTrue(parts.get(1).last());
+        assertEquals(4, parts.get(1).bytes().length);
+    }
+
+    @Test
+    void uploadParts_numbersPartsFromFirstPartNumberAndKeepsSmallLastPartPending() throws Exception {
+        when(client.uploadPart(eq("bucket"), eq("obj"), eq("up-1"), anyInt(), any(byte[].class)))
+                .thenAnswer(inv -> CompletableFuture.completedFuture("etag-" + inv.getArgument(3)));
+
+        StepVerifier.create(uploader.uploadParts("obj", "up-1", 3, data("hello wor"), 100L))
+                .assertNext(appended -> {
+                    assertEquals(List.of(3, 4), appended.parts().stream().map(MinioMultipartUploader.UploadedPart::number).toList());
+                    assertEquals("etag-4", appended.parts().get(1).etag());
+                    assertEquals("r", new String(appended.pending(), StandardCharsets.UTF_8));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void uploadParts_lastPartCompletingUpload_isUploaded() throws Exception {
+        when(client.uploadPart(eq("bucket"), eq("obj"), eq("up-1"), anyInt(), any(byte[].class)))
+                .thenAnswer(inv -> CompletableFuture.completedFuture("etag-" + inv.getArgument(3)));
+
+        StepVerifier.create(uploader.uploadParts("obj", "up-1", 1, data("hello"), 5L))
+                .assertNext(appended -> {
+                    assertEquals(2, appended.parts().size());
+                    assertEquals(1L, appended.parts().get(1).length());
+                    assertEquals(0, appended.pending().length);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void upload_singlePart_usesPutObject() throws Exception {
+        when(client.putObject(any(PutObjectArgs.class))).thenReturn(CompletableFuture.completedFuture(mock(ObjectWriteResponse.class)));
+
+        StepVerifier.create(uploader.upload("obj", data("abc"), "text/plain", false))
+                .expectNext(3L)
+                .verifyComplete();
+
+        verify(client, never()).createMultipartUpload(any(), any(), any());
+    }
+
+    @Test
+    void upload_multipleParts_uploadsPartsAndCompletes() throws Exception {
+        when(client.createMultipartUpload(eq("bucket"), eq("obj"), any())).thenReturn(CompletableFuture.completedFuture("up-1"));
+        when(client.uploadPart(eq("bucket"), eq("obj"), eq("up-1"), anyInt(), any(byte[].class)))
+                .thenAnswer(inv -> CompletableFuture.completedFuture("etag-" + inv.getArgument(3)));
+        when(client.completeMultipartUpload(eq("bucket"), eq("obj"), eq("up-1"), any(Part[].class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(ObjectWriteResponse.class)));
+
+        StepVerifier.create(uploader.upload("obj", data("hello ", "world"), "text/plain", true))
+                .expectNext(11L)
+                .verifyComplete();
+
+        ArgumentCaptor<Part[]> parts = ArgumentCaptor.forClass(Part[].class);
+        verify(client).completeMultipartUpload(eq("bucket"), eq("obj"), eq("up-1"), parts.capture());
+        assertEquals(3, parts.getValue().length);
+        assertEquals(1, parts.getValue()[0].partNumber());
+        assertEquals("etag-3", parts.getValue()[2].etag());
+        verify(client, never()).abortMultipartUpload(any(), any(), any());
+    }
+
+    @Test
+    void upload_partFailure_abortsMultipartUpload() throws Exception {
+        when(client.createMultipartUpload(eq("bucket"), eq("obj"), any())).thenReturn(CompletableFuture.completedFuture("up-1"));
+        when(client.uploadPart(eq("bucket"), eq("obj"), eq("up-1"), anyInt(), any(byte[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("network down")));
+        when(client.abortMultipartUpload("bucket", "obj", "up-1")).thenReturn(CompletableFuture.completedFuture(null));
+
+        StepVerifier.create(uploader.upload("obj", data("hello world"), "text/plain", false))
+                .expectErrorMessage("network down")
+                .verify();
+
+        verify(client).abortMultipartUpload("bucket", "obj", "up-1");
+        verify(client, never()).completeMultipartUpload(any(), any(), any(), any());
+    }
+
+    @Test
+    void upload_cancelled_abortsMultipartUpload() throws Exception {
+        when(client.createMultipartUpload(eq("bucket"), eq("obj"), any())).thenReturn(CompletableFuture.completedFuture("up-1"));
+        when(client.uploadPart(eq("bucket"), eq("obj"), eq("up-1"), anyInt(), any(byte[].class)))
+                .thenReturn(new CompletableFuture<>()); // never acknowledged
+        when(client.abortMultipartUpload("bucket", "obj", "up-1")).thenReturn(CompletableFuture.completedFuture(null));
+
+        StepVerifier.create(uploader.upload("obj", data("hello world"), "text/plain", false))
+                .thenAwait()
+                .thenCancel()
+                .verify();
+
+        verify(client).abortMultipartUpload("bucket", "obj", "up-1");
+    }
+}
@@ -11,8 +11,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.openfilz.dms.config.MinioProperties;
+import org.openfilz.dms.dto.TusStorageUpload;
+import org.openfilz.dms.dto.TusUploadMetadata;
 import org.openfilz.dms.exception.StorageException;
+import org.openfilz.dms.utils.ContentDigest;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.codec.multipart.FilePart;
@@ -21,8 +25,13 @@ import org.mockito.ArgumentCaptor;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -38,6 +47,9 @@ class MinioStorageServiceTest {
     @Mock
     private MinioClient minioClient;
 
+    @Mock
+    private MinioMultipartClient multipartClient;
+
     private MinioStorageService service;
 
     @BeforeEach
@@ -46,7 +58,8 @@ class MinioStorageServiceTest {
 
         service = new MinioStorageService(minioProperties);
         ReflectionTestUtils.setField(service, "minioClient", minioClient);
-        ReflectionTestUtils.setField(service, "pipedBufferSize", 8192);
+        ReflectionTestUtils.setField(service, "uploader",
+                new MinioMultipartUploader(multipartClient, "test-bucket", MinioMultipartUploader.MIN_PART_SIZE, 2));
         ReflectionTestUtils.setField(service, "wormMode", false);
     }
 
@@ -73,6 +86,23 @@ class MinioStorageServiceTest {
                 .verify();
     }
 
+    @Test
+    void loadFileRange_issuesRangedGetObject() throws Exception {
+        GetObjectResponse rangeResponse = new GetObjectResponse(okhttp3.Headers.of(), "test-bucket", null, "test-object",
+                new ByteArrayInputStream("2345".getBytes(StandardCharsets.UTF_8)));
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(rangeResponse);
+
+        StepVerifier.create(DataBufferUtils.join(service.loadFileRange("test-object", 2, 4))
+                        .map(buffer -> buffer.toString(StandardCharsets.UTF_8)))
+                .expectNext("2345")
+                .verifyComplete();
+
+        ArgumentCaptor<GetObjectArgs> captor = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient).getObject(captor.capture());
+        assertEquals(2L, captor.getValue().offset());
+        assertEquals(4L, captor.getValue().length());
+    }
+
     @Test
     void deleteFile_success_completes() throws Exception {
         doNothing().when(minioClient).removeObject(any(RemoveObjectArgs.class));
@@ -248,6 +278,10 @@ class MinioStorageServiceTest {
 
     // ==================== Upload / replace ====================
 
+    private static <T> CompletableFuture<T> completed(T value) {
+        return CompletableFuture.completedFuture(value);
+    }
+
     private static FilePart filePart(String name, String content) {
         DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
         DataBuffer buffer = factory.wrap(content.getBytes());
@@ -260,19 +294,19 @@ class MinioStorageServiceTest {
 
     @Test
     void saveFile_uploadsAndReturnsUniqueObjectName() throws Exception {
-        when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(mock(ObjectWriteResponse.class));
+        when(multipartClient.putObject(any(PutObjectArgs.class))).thenReturn(completed(mock(ObjectWriteResponse.class)));
 
         StepVerifier.create(service.saveFile(filePart("doc.txt", "hello world")))
                 .expectNextMatches(name -> name.endsWith("doc.txt") && name.contains("#"))
                 .verifyComplete();
 
-        verify(minioClient).putObject(any(PutObjectArgs.class));
+        verify(multipartClient).putObject(any(PutObjectArgs.class));
     }
 
     @Test
     void replaceFile_whenVersioningDisabled_savesAsNewObject() throws Exception {
         when(minioProperties.isVersioningEnabled()).thenReturn(false);
-        when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(mock(ObjectWriteResponse.class));
+        when(multipartClient.putObject(any(PutObjectArgs.class))).thenReturn(completed(mock(ObjectWriteResponse.class)));
 
         StepVerifier.create(service.replaceFile("old#doc.txt", filePart("doc.txt", "data")))
                 .expectNextMatches(name -> name.endsWith("doc.txt"))
@@ -282,13 +316,33 @@ class MinioStorageServiceTest {
     @Test
     void replaceFile_whenVersioningEnabled_overwritesSameObject() throws Exception {
         when(minioProperties.isVersioningEnabled()).thenReturn(true);
-        when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(mock(ObjectWriteResponse.class));
+        when(multipartClient.putObject(any(PutObjectArgs.class))).thenReturn(completed(mock(ObjectWriteResponse.class)));
 
         StepVerifier.create(service.replaceFile("same#doc.txt", filePart("doc.txt", "data")))
                 .expectNext("same#doc.txt")
                 .verifyComplete();
     }
 
+    @Test
+    void saveFileWithChecksum_hashesContentWhileUploading() throws Exception {
+        when(multipartClient.putObject(any(PutObjectArgs.class))).thenReturn(completed(mock(ObjectWriteResponse.class)));
+
+        StepVerifier.create(service.saveFileWithChecksum(filePart("doc.txt", "hello world")))
+                .expectNextMatches(stored -> stored.storagePath().endsWith("doc.txt")
+                        && "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9".equals(stored.checksum()))
+                .verifyComplete();
+    }
+
+    @Test
+    void replaceFileWithChecksum_whenVersioningEnabled_overwritesSameObject() throws Exception {
+        when(minioProperties.isVersioningEnabled()).thenReturn(true);
+        when(multipartClient.putObject(any(PutObjectArgs.class))).thenReturn(completed(mock(ObjectWriteResponse.class)));
+
+        StepVerifier.create(service.replaceFileWithChecksum("same#doc.txt", filePart("doc.txt", "hello world")))
+                .expectNextMatches(stored -> "same#doc.txt".equals(stored.storagePath()) && stored.hasChecksum())
+                .verifyComplete();
+    }
+
     // ==================== TUS chunk support ====================
 
     private static Flux<DataBuffer> dataFlux(String content) {
@@ -297,30 +351,25 @@ class MinioStorageServiceTest {
     }
 
     @Test
-    void appendData_storesChunkAndReturnsNewOffset() throws Exception {
-        when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(mock(ObjectWriteResponse.class));
-        StatObjectResponse stat = mock(StatObjectResponse.class);
-        when(stat.size()).thenReturn(5L);
-        when(minioClient.statObject(any(StatObjectArgs.class))).thenReturn(stat);
-
+    void appendData_isNotSupported() {
         StepVerifier.create(service.appendData("_tus/u1.bin", dataFlux("hello"), 10L))
-                .expectNext(15L)
-                .verifyComplete();
+                .expectError(StorageException.class)
+                .verify();
     }
 
     @Test
     void saveData_success_completes() throws Exception {
-        when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(mock(ObjectWriteResponse.class));
+        when(multipartClient.putObject(any(PutObjectArgs.class))).thenReturn(completed(mock(ObjectWriteResponse.class)));
 
         StepVerifier.create(service.saveData("_tus/u1.bin", dataFlux("payload")))
                 .verifyComplete();
 
-        verify(minioClient).putObject(any(PutObjectArgs.class));
+        verify(multipartClient).putObject(any(PutObjectArgs.class));
     }
 
     @Test
     void saveData_putObjectFails_throwsStorageException() throws Exception {
-        when(minioClient.putObject(any(PutObjectArgs.class))).thenThrow(new RuntimeException("boom"));
+        when(multipartClient.putObject(any(PutObjectArgs.class))).thenReturn(CompletableFuture.failedFuture(new RuntimeException("boom")));
 
         StepVerifier.create(service.saveData("_tus/u1.bin", dataFlux("payload")))
                 .expectError(StorageException.class)
@@ -328,55 +377,166 @@ class MinioStorageServiceTest {
     }
 
     @Test
-    void moveFile_composesChunksAndDeletesThem() throws Exception {
-        Item item1 = mock(Item.class);
-        when(item1.objectName()).thenReturn("_tus/u1.bin.chunk.00000000000000000000");
-        Result<Item> r1 = mock(Result.class);
-        when(r1.get()).thenReturn(item1);
-        when(minioClient.listObjects(any(ListObjectsArgs.class))).thenReturn(java.util.List.of(r1));
-        when(minioClient.composeObject(any(ComposeObjectArgs.class))).thenReturn(mock(ObjectWriteResponse.class));
-        doNothing().when(minioClient).removeObject(any(RemoveObjectArgs.class));
+    void createTusUpload_startsMultipartUploadOnFinalObject() throws Exception {
+        when(multipartClient.createMultipartUpload(eq("test-bucket"), anyString(), any())).thenReturn(completed("mp-1"));
 
-        StepVerifier.create(service.moveFile("_tus/u1.bin", "final#doc.txt"))
+        StepVerifier.create(service.createTusUpload("u1", "doc.txt"))
+                .expectNextMatches(upload -> "mp-1".equals(upload.multipartUploadId())
+                        && upload.storagePath().endsWith("#doc.txt")
+                        && upload.parts().isEmpty() && upload.size() == 0L)
                 .verifyComplete();
+    }
 
-        verify(minioClient).composeObject(any(ComposeObjectArgs.class));
+    @Test
+    void appendTusData_smallChunkNotCompletingUpload_isKeptPending() throws Exception {
+        when(multipartClient.putObject(any(PutObjectArgs.class))).thenReturn(completed(mock(ObjectWriteResponse.class)));
+
+        StepVerifier.create(service.appendTusData("u1", TusStorageUpload.multipart("k#doc.txt", "mp-1"), dataFlux("hello"), 100L, null))
+                .expectNextMatches(upload -> upload.parts().isEmpty() && upload.size() == 5L && upload.pendingSize() == 5L)
+                .verifyComplete();
+
+        ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(multipartClient).putObject(captor.capture());
+        assertEquals("_tus/u1.bin.pending.5", captor.getValue().object());
+        verify(multipartClient, never()).uploadPart(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void appendTusData_pendingBytesAreUploadedWithLastChunk() throws Exception {
+        GetObjectResponse pending = new GetObjectResponse(okhttp3.Headers.of(), "test-bucket", null, "_tus/u1.bin.pending.5",
+                new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8)));
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(pending);
+        ArgumentCaptor<byte[]> partData = ArgumentCaptor.forClass(byte[].class);
+        when(multipartClient.uploadPart(eq("test-bucket"), eq("k#doc.txt"), eq("mp-1"), eq(1), partData.capture()))
+                .thenReturn(completed("etag-1"));
+        ContentDigest digest = ContentDigest.sha256();
+        TusStorageUpload upload = TusStorageUpload.multipart("k#doc.txt", "mp-1").withSize(5L);
+
+        StepVerifier.create(service.appendTusData("u1", upload, dataFlux(" world"), 11L, digest))
+                .expectNextMatches(updated -> updated.parts().equals(List.of(new TusStorageUpload.Part(1, "etag-1", 11L)))
+                        && updated.size() == 11L && updated.pendingSize() == 0L)
+                .verifyComplete();
+
+        assertEquals("hello world", new String(partData.getValue(), StandardCharsets.UTF_8));
+        ArgumentCaptor<RemoveObjectArgs> removed = ArgumentCaptor.forClass(RemoveObjectArgs.class);
+        verify(minioClient).removeObject(removed.capture());
+        assertEquals("_tus/u1.bin.pending.5", removed.getValue().object());
+        // Only the chunk itself is hashed: the pending bytes were hashed with the previous chunk
+        ContentDigest expected = ContentDigest.sha256();
+        expected.tee(dataFlux(" world")).blockLast();
+        assertEquals(expected.hex(), digest.hex());
+    }
+
+    @Test
+    void completeTusUpload_completesMultipartUploadWithPersistedParts() throws Exception {
+        when(multipartClient.completeMultipartUpload(eq("test-bucket"), eq("k#doc.txt"), eq("mp-1"), any()))
+                .thenReturn(completed(mock(ObjectWriteResponse.class)));
+        TusStorageUpload upload = TusStorageUpload.multipart("k#doc.txt", "mp-1").withParts(List.of(
+                new TusStorageUpload.Part(1, "etag-1", MinioMultipartUploader.MIN_PART_SIZE),
+                new TusStorageUpload.Part(2, "etag-2", 10L)), MinioMultipartUploader.MIN_PART_SIZE + 10L);
+
+        StepVerifier.create(service.completeTusUpload("u1", upload))
+                .verifyComplete();
+
+        ArgumentCaptor<io.minio.messages.Part[]> parts = ArgumentCaptor.forClass(io.minio.messages.Part[].class);
+        verify(multipartClient).completeMultipartUpload(eq("test-bucket"), eq("k#doc.txt"), eq("mp-1"), parts.capture());
+        assertEquals(2, parts.getValue().length);
+        assertEquals("etag-2", parts.getValue()[1].etag());
+        verify(minioClient, never()).composeObject(any(ComposeObjectArgs.class));
+    }
+
+    @Test
+    void completeTusUpload_emptyUpload_putsEmptyObjectAndAbortsMultipartUpload() throws Exception {
+        when(multipartClient.putObject(any(PutObjectArgs.class))).thenReturn(completed(mock(ObjectWriteResponse.class)));
+        when(multipartClient.abortMultipartUpload("test-bucket", "k#empty.txt", "mp-1")).thenReturn(completed(null));
+
+        StepVerifier.create(service.completeTusUpload("u1", TusStorageUpload.multipart("k#empty.txt", "mp-1")))
+                .verifyComplete();
+
+        verify(multipartClient).putObject(any(PutObjectArgs.class));
+        verify(multipartClient).abortMultipartUpload("test-bucket", "k#empty.txt", "mp-1");
+    }
+
+    @Test
+    void abortTusUpload_abortsMultipartUploadAndDeletesPendingObjects() throws Exception {
+        when(multipartClient.abortMultipartUpload("test-bucket", "k#doc.txt", "mp-1")).thenReturn(completed(null));
+        Item item = mock(Item.class);
+        when(item.objectName()).thenReturn("_tus/u1.bin.pending.5");
+        Result<Item> result = mock(Result.class);
+        when(result.get()).thenReturn(item);
+        when(minioClient.listObjects(any(ListObjectsArgs.class))).thenReturn(List.of(result));
+
+        StepVerifier.create(service.abortTusUpload("u1", TusStorageUpload.multipart("k#doc.txt", "mp-1").withSize(5L)))
+                .verifyComplete();
+
+        verify(multipartClient).abortMultipartUpload("test-bucket", "k#doc.txt", "mp-1");
         verify(minioClient).removeObject(any(RemoveObjectArgs.class));
     }
 
     @Test
-    void moveFile_chunkDeleteFailure_isSwallowed() throws Exception {
-        Item item1 = mock(Item.class);
-        when(item1.objectName()).thenReturn("_tus/u1.bin.chunk.00000000000000000000");
-        Result<Item> r1 = mock(Result.class);
-        when(r1.get()).thenReturn(item1);
-        when(minioClient.listObjects(any(ListObjectsArgs.class))).thenReturn(java.util.List.of(r1));
+    void concatenateTusUploads_completesPartialUploadsAndComposesThem() throws Exception {
+        when(multipartClient.completeMultipartUpload(eq("test-bucket"), anyString(), anyString(), any()))
+                .thenReturn(completed(mock(ObjectWriteResponse.class)));
         when(minioClient.composeObject(any(ComposeObjectArgs.class))).thenReturn(mock(ObjectWriteResponse.class));
-        doThrow(new RuntimeException("cannot delete")).when(minioClient).removeObject(any(RemoveObjectArgs.class));
+        List<TusUploadMetadata> partials = List.of(
+                partialUpload("p1", MinioMultipartUploader.MIN_PART_SIZE),
+                partialUpload("p2", 10L));
 
-        StepVerifier.create(service.moveFile("_tus/u1.bin", "final#doc.txt"))
+        StepVerifier.create(service.concatenateTusUploads("u1", "doc.txt", partials))
+                .expectNextMatches(upload -> upload.storagePath().endsWith("#doc.txt") && upload.multipartUploadId() == null
+                        && upload.size() == MinioMultipartUploader.MIN_PART_SIZE + 10L)
                 .verifyComplete();
+
+        verify(multipartClient).completeMultipartUpload(eq("test-bucket"), eq("_tus/p1.bin"), eq("mp-p1"), any());
+        verify(multipartClient).completeMultipartUpload(eq("test-bucket"), eq("_tus/p2.bin"), eq("mp-p2"), any());
+        ArgumentCaptor<ComposeObjectArgs> composed = ArgumentCaptor.forClass(ComposeObjectArgs.class);
+        verify(minioClient).composeObject(composed.capture());
+        assertEquals(List.of("_tus/p1.bin", "_tus/p2.bin"), composed.getValue().sources().stream().map(ComposeSource::object).toList());
+        verify(minioClient, times(2)).removeObject(any(RemoveObjectArgs.class));
     }
 
     @Test
-    void moveFile_noChunks_createsEmptyObject() throws Exception {
-        when(minioClient.listObjects(any(ListObjectsArgs.class))).thenReturn(java.util.List.of());
-        when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(mock(ObjectWriteResponse.class));
+    void concatenateTusUploads_smallLeadingPartialUpload_copiesInsteadOfComposing() throws Exception {
+        when(multipartClient.completeMultipartUpload(eq("test-bucket"), anyString(), anyString(), any()))
+                .thenReturn(completed(mock(ObjectWriteResponse.class)));
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(inv -> new GetObjectResponse(okhttp3.Headers.of(),
+                "test-bucket", null, "_tus/p.bin", new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8))));
+        when(multipartClient.putObject(any(PutObjectArgs.class))).thenReturn(completed(mock(ObjectWriteResponse.class)));
 
-        StepVerifier.create(service.moveFile("_tus/empty.bin", "final#empty.txt"))
+        StepVerifier.create(service.concatenateTusUploads("u1", "doc.txt", List.of(partialUpload("p1", 5L), partialUpload("p2", 5L))))
+                .expectNextMatches(upload -> upload.size() == 10L)
                 .verifyComplete();
 
-        verify(minioClient).putObject(any(PutObjectArgs.class));
+        verify(minioClient, never()).composeObject(any(ComposeObjectArgs.class));
+        verify(multipartClient).putObject(any(PutObjectArgs.class));
     }
 
     @Test
-    void moveFile_listFails_throwsStorageException() throws Exception {
-        when(minioClient.listObjects(any(ListObjectsArgs.class)))
-                .thenThrow(new RuntimeException("list failed"));
+    void completeTusUpload_concatenatedUpload_isAlreadyComplete() {
+        StepVerifier.create(service.completeTusUpload("u1", new TusStorageUpload("k#doc.txt", null, List.of(), 10L)))
+                .verifyComplete();
 
-        StepVerifier.create(service.moveFile("_tus/u1.bin", "final#doc.txt"))
-                .expectError(StorageException.class)
-                .verify();
+        verifyNoInteractions(multipartClient, minioClient);
+    }
+
+    private static TusUploadMetadata partialUpload(String uploadId, long length) {
+        TusStorageUpload storage = TusStorageUpload.multipart("_tus/" + uploadId + ".bin", "mp-" + uploadId)
+                .withParts(List.of(new TusStorageUpload.Part(1, "etag-" + uploadId, length)), length);
+        return TusUploadMetadata.create(uploadId, length, 60000L, Map.of(), "user@openfilz.org", storage,
+                TusUploadMetadata.CONCAT_PARTIAL);
+    }
+
+    @Test
+    void moveFile_plainObject_copiesServerSideAndRemovesSource() throws Exception {
+        when(minioClient.composeObject(any(ComposeObjectArgs.class))).thenReturn(mock(ObjectWriteResponse.class));
+        doNothing().when(minioClient).removeObject(any(RemoveObjectArgs.class));
+
+        StepVerifier.create(service.moveFile("uuid#doc.txt", "cas/ab/abcdef"))
+                .verifyComplete();
+
+        verify(minioClient).composeObject(any(ComposeObjectArgs.class));
+        verify(minioClient).removeObject(any(RemoveObjectArgs.class));
+        verify(minioClient, never()).listObjects(any(ListObjectsArgs.class));
     }
 
     // ==================== Versioning support ====================
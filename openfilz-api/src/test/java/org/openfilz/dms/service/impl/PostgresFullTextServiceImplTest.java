@@ -0,0 +1,139 @@
+package org.openfilz.dms.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.config.FullTextProperties;
+import org.openfilz.dms.entity.Document;
+import org.openfilz.dms.enums.DocumentType;
+import org.openfilz.dms.repository.DocumentContentSearchDAO;
+import org.openfilz.dms.service.DocumentEmbeddingService;
+import org.openfilz.dms.service.StorageService;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresFullTextServiceImplTest {
+
+    @Mock
+    private DocumentContentSearchDAO documentContentSearchDAO;
+
+    @Mock
+    private TikaService tikaService;
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private DocumentEmbeddingService documentEmbeddingService;
+
+    private PostgresFullTextServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        FullTextProperties properties = new FullTextProperties();
+        properties.getPostgres().setMaxContentLength(10);
+        service = new PostgresFullTextServiceImpl(documentContentSearchDAO, tikaService, storageService, properties);
+    }
+
+    private static Document file(String contentType, Long size) {
+        return Document.builder()
+                .id(UUID.randomUUID())
+                .type(DocumentType.FILE)
+                .name("file")
+                .contentType(contentType)
+                .size(size)
+                .storagePath("path/file")
+                .build();
+    }
+
+    /**
+     * Tika extracting the given chunks, checking the temporary file it was given exists while it runs.
+     */
+    private void stubExtraction(String... chunks) {
+        doReturn(Mono.just(new ByteArrayResource(new byte[0]))).when(storageService).loadFile("path/file");
+        when(tikaService.processResource(any(Path.class), any())).thenAnswer(inv -> {
+            Path tempFile = inv.getArgument(0);
+            return Flux.fromArray(chunks).doOnSubscribe(_ -> {
+                if (!Files.exists(tempFile)) {
+                    throw new IllegalStateException("Missing temporary file " + tempFile);
+                }
+            });
+        });
+    }
+
+    @Test
+    void indexDocumentMono_textFile_savesExtractedContent() {
+        Document document = file("text/plain", 8L);
+        stubExtraction("hello ", "world");
+        when(documentContentSearchDAO.saveContent(document.getId(), "hello worl")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.indexDocumentMono(document)).verifyComplete();
+
+        // Cut at max-content-length
+        verify(documentContentSearchDAO).saveContent(document.getId(), "hello worl");
+    }
+
+    @Test
+    void indexDocumentMono_removesNulCharacters() {
+        Document document = file("text/plain", 8L);
+        stubExtraction("a\u0000b");
+        when(documentContentSearchDAO.saveContent(document.getId(), "ab")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.indexDocumentMono(document)).verifyComplete();
+
+        verify(documentContentSearchDAO).saveContent(document.getId(), "ab");
+    }
+
+    @Test
+    void indexDocumentMono_folderEmptyOrNotExtractableFile_indexesNothing() {
+        Document folder = Document.builder().id(UUID.randomUUID()).type(DocumentType.FOLDER).name("folder").build();
+
+        for (Document document : List.of(folder, file("text/plain", 0L), file("image/png", 8L))) {
+            StepVerifier.create(service.indexDocumentMono(document)).verifyComplete();
+        }
+
+        verifyNoInteractions(tikaService, storageService, documentContentSearchDAO);
+    }
+
+    @Test
+    void indexDocumentMono_aiActive_sharesTheWholeTextWithEmbedding() {
+        ReflectionTestUtils.setField(service, "aiActive", true);
+        ReflectionTestUtils.setField(service, "documentEmbeddingService", documentEmbeddingService);
+        Document document = file("text/plain", 8L);
+        stubExtraction("hello ", "world");
+        when(documentContentSearchDAO.saveContent(eq(document.getId()), any())).thenReturn(Mono.empty());
+        when(documentEmbeddingService.embedFromText(document, "hello world")).thenReturn(Mono.error(new IllegalStateException("no model")));
+
+        // An embedding failure does not fail the indexation
+        StepVerifier.create(service.indexDocumentMono(document)).verifyComplete();
+
+        verify(documentContentSearchDAO).saveContent(document.getId(), "hello worl");
+        verify(documentEmbeddingService).embedFromText(document, "hello world");
+    }
+
+    @Test
+    void copyIndexMono_copiesTheContentOfTheSource() {
+        UUID sourceId = UUID.randomUUID();
+        Document copy = file("text/plain", 8L);
+        when(documentContentSearchDAO.copyContent(sourceId, copy.getId())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.copyIndexMono(sourceId, copy)).verifyComplete();
+
+        verify(documentContentSearchDAO).copyContent(sourceId, copy.getId());
+    }
+}
@@ -3,26 +3,43 @@ package org.openfilz.dms.service.impl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.openfilz.dms.config.QuotaProperties;
 import org.openfilz.dms.config.TusProperties;
+import org.openfilz.dms.dto.TusStorageUpload;
+import org.openfilz.dms.dto.TusUploadMetadata;
+import org.openfilz.dms.exception.DocumentNotFoundException;
 import org.openfilz.dms.exception.FileSizeExceededException;
+import org.openfilz.dms.exception.TusUploadException;
 import org.openfilz.dms.repository.DocumentDAO;
+import org.openfilz.dms.repository.TusUploadDAO;
 import org.openfilz.dms.service.AuditService;
+import org.openfilz.dms.service.ChecksumService;
 import org.openfilz.dms.service.MetadataPostProcessor;
 import org.openfilz.dms.service.StorageService;
+import org.openfilz.dms.service.UserQuotaService;
+import org.openfilz.dms.utils.ContentDigest;
 import org.openfilz.dms.utils.JsonUtils;
+import org.openfilz.dms.utils.UserInfoService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
-import tools.jackson.databind.ObjectMapper;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,14 +53,16 @@ class TusUploadServiceImplTest {
     @Mock private JsonUtils jsonUtils;
     @Mock private MetadataPostProcessor metadataPostProcessor;
     @Mock private TransactionalOperator tx;
-    @Mock private ObjectMapper objectMapper;
+    @Mock private TusUploadDAO tusUploadDAO;
+    @Mock private ObjectProvider<ChecksumService> checksumServiceProvider;
+    @Mock private UserQuotaService userQuotaService;
 
     private TusUploadServiceImpl service;
 
     @BeforeEach
     void setUp() {
         service = new TusUploadServiceImpl(tusProperties, quotaProperties, storageService,
-                documentDAO, auditService, jsonUtils, metadataPostProcessor, tx, objectMapper);
+                documentDAO, auditService, jsonUtils, metadataPostProcessor, tx, tusUploadDAO, checksumServiceProvider, userQuotaService);
     }
 
     @SuppressWarnings("unchecked")
@@ -94,7 +113,6 @@ class TusUploadServiceImplTest {
     @Test
     void validateUploadCreation_allQuotasDisabled_completes() {
         when(quotaProperties.isFileUploadQuotaEnabled()).thenReturn(false);
-        when(quotaProperties.isUserQuotaEnabled()).thenReturn(false);
 
         // null filename -> "upload" fallback; null parent + allowDuplicates -> no DB checks.
         StepVerifier.create(service.validateUploadCreation(100L, null, null, true))
@@ -113,4 +131,325 @@ class TusUploadServiceImplTest {
                 .expectError(FileSizeExceededException.class)
                 .verify();
     }
+
+    /**
+     * Storage appending the chunk, fed to the given digest.
+     */
+    @SuppressWarnings("unchecked")
+    private void stubHashedAppend() {
+        when(storageService.appendTusData(eq("u1"), any(TusStorageUpload.class), any(Flux.class), eq(11L), any(ContentDigest.class)))
+                .thenAnswer(inv -> {
+                    TusStorageUpload storage = inv.getArgument(1);
+                    Flux<DataBuffer> data = inv.getArgument(2);
+                    ContentDigest digest = inv.getArgument(4);
+                    return digest.tee(data).map(DataBuffer::readableByteCount).reduce(storage.size(), (a, b) -> a + b)
+                            .map(storage::withSize);
+                });
+    }
+
+    private static String sha256(String content) {
+        ContentDigest digest = ContentDigest.sha256();
+        digest.tee(chunk(content)).blockLast();
+        return digest.hex();
+    }
+
+    private ContentDigest removeDigest(long offset) {
+        return ReflectionTestUtils.invokeMethod(service, "removeDigest", "u1", upload(offset));
+    }
+
+    @Test
+    void uploadChunk_checksumEnabled_keepsRunningDigestAcrossChunks() {
+        ReflectionTestUtils.setField(service, "calculateChecksum", true);
+        stubHashedAppend();
+        when(tusUploadDAO.findById("u1")).thenReturn(
+                Mono.just(upload(0L, UserInfoService.ANONYMOUS_USER)), Mono.just(upload(6L, UserInfoService.ANONYMOUS_USER)));
+        when(tusUploadDAO.updateProgress(eq("u1"), anyLong(), any(TusStorageUpload.class))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.uploadChunk("u1", 0L, chunk("hello "))).expectNext(6L).verifyComplete();
+        StepVerifier.create(service.uploadChunk("u1", 6L, chunk("world"))).expectNext(11L).verifyComplete();
+
+        assertEquals(sha256("hello world"), removeDigest(11L).hex());
+    }
+
+    @Test
+    void uploadChunk_failedWrite_keepsPreviousDigest() {
+        ReflectionTestUtils.setField(service, "calculateChecksum", true);
+        stubHashedAppend();
+        when(tusUploadDAO.findById("u1")).thenReturn(
+                Mono.just(upload(0L, UserInfoService.ANONYMOUS_USER)), Mono.just(upload(6L, UserInfoService.ANONYMOUS_USER)));
+        when(tusUploadDAO.updateProgress(eq("u1"), anyLong(), any(TusStorageUpload.class))).thenReturn(Mono.just(true));
+        StepVerifier.create(service.uploadChunk("u1", 0L, chunk("hello "))).expectNext(6L).verifyComplete();
+        when(storageService.appendTusData(eq("u1"), any(TusStorageUpload.class), any(), anyLong(), any(ContentDigest.class)))
+                .thenAnswer(inv -> ((ContentDigest) inv.getArgument(4)).tee(inv.getArgument(2))
+                        .then(Mono.error(new RuntimeException("disk full"))));
+
+        StepVerifier.create(service.uploadChunk("u1", 6L, chunk("lost"))).expectError(RuntimeException.class).verify();
+
+        assertEquals(sha256("hello "), removeDigest(6L).hex());
+    }
+
+    @Test
+    void uploadChunk_offsetNotAdvanced_keepsPreviousDigest() {
+        ReflectionTestUtils.setField(service, "calculateChecksum", true);
+        stubHashedAppend();
+        when(tusUploadDAO.findById("u1")).thenReturn(
+                Mono.just(upload(0L, UserInfoService.ANONYMOUS_USER)), Mono.just(upload(6L, UserInfoService.ANONYMOUS_USER)));
+        when(tusUploadDAO.updateProgress(eq("u1"), anyLong(), any(TusStorageUpload.class))).thenReturn(Mono.just(true), Mono.just(false));
+        StepVerifier.create(service.uploadChunk("u1", 0L, chunk("hello "))).expectNext(6L).verifyComplete();
+
+        // Another request advanced the offset first: its chunk, not this one, follows the hashed bytes
+        StepVerifier.create(service.uploadChunk("u1", 6L, chunk("world"))).expectError(TusUploadException.class).verify();
+
+        assertEquals(sha256("hello "), removeDigest(6L).hex());
+    }
+
+    @Test
+    void uploadChunk_chunkReceivedByAnotherInstance_stopsHashing() {
+        ReflectionTestUtils.setField(service, "calculateChecksum", true);
+        stubHashedAppend();
+        when(tusUploadDAO.findById("u1")).thenReturn(
+                Mono.just(upload(0L, UserInfoService.ANONYMOUS_USER)), Mono.just(upload(8L, UserInfoService.ANONYMOUS_USER)));
+        when(tusUploadDAO.updateProgress(eq("u1"), anyLong(), any(TusStorageUpload.class))).thenReturn(Mono.just(true));
+        StepVerifier.create(service.uploadChunk("u1", 0L, chunk("hello "))).expectNext(6L).verifyComplete();
+        // Bytes 6 to 8 were received by another instance
+        when(storageService.appendTusData(eq("u1"), any(TusStorageUpload.class), any(), eq(11L), isNull()))
+                .thenAnswer(inv -> Mono.just(((TusStorageUpload) inv.getArgument(1)).withSize(11L)));
+
+        StepVerifier.create(service.uploadChunk("u1", 8L, chunk("rld"))).expectNext(11L).verifyComplete();
+
+        // The checksum is computed from the stored content at finalization
+        assertNull(removeDigest(11L));
+    }
+
+    @Test
+    void uploadChunk_checksumDisabled_appendsWithoutDigest() {
+        ReflectionTestUtils.setField(service, "calculateChecksum", false);
+        TusUploadMetadata meta = upload(0L, UserInfoService.ANONYMOUS_USER);
+        TusStorageUpload written = meta.storage().withSize(5L);
+        when(tusUploadDAO.findById("u1")).thenReturn(Mono.just(meta));
+        when(storageService.appendTusData(eq("u1"), eq(meta.storage()), any(), eq(11L), isNull()))
+                .thenReturn(Mono.just(written));
+        when(tusUploadDAO.updateProgress("u1", 0L, written)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.uploadChunk("u1", 0L, chunk("hello"))).expectNext(5L).verifyComplete();
+
+        assertNull(removeDigest(5L));
+    }
+
+    @Test
+    void uploadChunk_advancesOffsetFromExpectedOffset() {
+        TusUploadMetadata meta = upload(6L, UserInfoService.ANONYMOUS_USER);
+        TusStorageUpload written = meta.storage().withSize(11L);
+        when(tusUploadDAO.findById("u1")).thenReturn(Mono.just(meta));
+        when(storageService.appendTusData(eq("u1"), eq(meta.storage()), any(), eq(11L), isNull())).thenReturn(Mono.just(written));
+        when(tusUploadDAO.updateProgress("u1", 6L, written)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.uploadChunk("u1", 6L, chunk("world")))
+                .expectNext(11L)
+                .verifyComplete();
+    }
+
+    @Test
+    void uploadChunk_concurrentlyAdvancedOffset_errors() {
+        TusUploadMetadata meta = upload(6L, UserInfoService.ANONYMOUS_USER);
+        TusStorageUpload written = meta.storage().withSize(11L);
+        when(tusUploadDAO.findById("u1")).thenReturn(Mono.just(meta));
+        when(storageService.appendTusData(eq("u1"), eq(meta.storage()), any(), eq(11L), isNull())).thenReturn(Mono.just(written));
+        when(tusUploadDAO.updateProgress("u1", 6L, written)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.uploadChunk("u1", 6L, chunk("world")))
+                .expectError(TusUploadException.class)
+                .verify();
+    }
+
+    @Test
+    void uploadChunk_wrongOffset_errorsWithoutWriting() {
+        when(tusUploadDAO.findById("u1")).thenReturn(Mono.just(upload(6L, UserInfoService.ANONYMOUS_USER)));
+
+        StepVerifier.create(service.uploadChunk("u1", 0L, chunk("hello")))
+                .expectError(TusUploadException.class)
+                .verify();
+        verifyNoInteractions(storageService);
+    }
+
+    @Test
+    void getUploadOffset_unknownUpload_errorsWithNotFound() {
+        when(tusUploadDAO.findById("u1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.getUploadOffset("u1"))
+                .expectError(DocumentNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void cleanupExpiredUploads_abortsStorageAndDeletesExpiredUploads() {
+        TusUploadMetadata expired = upload(4L);
+        when(tusProperties.getCleanupBatchSize()).thenReturn(100);
+        when(tusUploadDAO.findExpired(any(Instant.class), eq(100))).thenReturn(Flux.just(expired));
+        when(storageService.abortTusUpload("u1", expired.storage())).thenReturn(Mono.empty());
+        when(tusUploadDAO.delete("u1")).thenReturn(Mono.empty());
+        when(userQuotaService.release("u1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.cleanupExpiredUploads())
+                .expectNext(1)
+                .verifyComplete();
+        verify(tusUploadDAO).delete("u1");
+        verify(userQuotaService).release("u1");
+    }
+
+    @Test
+    void createPartialUpload_reservesThePartOnTheUserQuota() {
+        when(quotaProperties.isFileUploadQuotaEnabled()).thenReturn(false);
+        when(tusProperties.getUploadExpirationPeriod()).thenReturn(60000L);
+        when(userQuotaService.reserve(anyString(), eq(6L), any(Instant.class))).thenReturn(Mono.empty());
+        when(storageService.createTusPartialUpload(anyString())).thenAnswer(inv -> Mono.just(TusStorageUpload.of(inv.getArgument(0))));
+        when(tusUploadDAO.create(any(TusUploadMetadata.class))).thenReturn(Mono.empty());
+
+        String uploadId = service.createPartialUpload(6L, null).block();
+
+        verify(userQuotaService).reserve(eq(uploadId), eq(6L), any(Instant.class));
+        ArgumentCaptor<TusUploadMetadata> created = ArgumentCaptor.forClass(TusUploadMetadata.class);
+        verify(tusUploadDAO).create(created.capture());
+        assertTrue(created.getValue().isPartial());
+        assertEquals(uploadId, created.getValue().uploadId());
+    }
+
+    @Test
+    void createPartialUpload_overFileSizeLimit_errorsWithoutReserving() {
+        when(quotaProperties.isFileUploadQuotaEnabled()).thenReturn(true);
+        when(quotaProperties.getFileUploadQuotaInBytes()).thenReturn(10L);
+
+        StepVerifier.create(service.createPartialUpload(100L, null))
+                .expectError(FileSizeExceededException.class)
+                .verify();
+        verifyNoInteractions(userQuotaService, storageService, tusUploadDAO);
+    }
+
+    @Test
+    void createPartialUpload_registrationFails_releasesTheReservation() {
+        when(quotaProperties.isFileUploadQuotaEnabled()).thenReturn(false);
+        when(tusProperties.getUploadExpirationPeriod()).thenReturn(60000L);
+        when(userQuotaService.reserve(anyString(), eq(6L), any(Instant.class))).thenReturn(Mono.empty());
+        when(storageService.createTusPartialUpload(anyString())).thenAnswer(inv -> Mono.just(TusStorageUpload.of(inv.getArgument(0))));
+        when(tusUploadDAO.create(any(TusUploadMetadata.class))).thenReturn(Mono.error(new IllegalStateException("db down")));
+        when(userQuotaService.release(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.createPartialUpload(6L, null))
+                .expectErrorMessage("db down")
+                .verify();
+        verify(userQuotaService).release(anyString());
+    }
+
+    /**
+     * Partial uploads p1 (6 bytes) and p2 (5 bytes), both complete, concatenated in a pass-through transaction.
+     */
+    @SuppressWarnings("unchecked")
+    private List<TusUploadMetadata> stubPartialUploads() {
+        TusUploadMetadata p1 = partialUpload("p1", 6L, 6L);
+        TusUploadMetadata p2 = partialUpload("p2", 5L, 5L);
+        when(tusUploadDAO.findById("p1")).thenReturn(Mono.just(p1));
+        when(tusUploadDAO.findById("p2")).thenReturn(Mono.just(p2));
+        when(tx.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        return List.of(p1, p2);
+    }
+
+    @Test
+    void concatenateUploads_assemblesPartialUploadsAndReplacesThemByFinalUpload() {
+        List<TusUploadMetadata> partials = stubPartialUploads();
+        when(tusUploadDAO.delete(List.of("p1", "p2"))).thenReturn(Mono.just(2L));
+        when(tusProperties.getUploadExpirationPeriod()).thenReturn(60000L);
+        when(userQuotaService.merge(eq(List.of("p1", "p2")), anyString(), any(Instant.class))).thenReturn(Mono.empty());
+        when(storageService.concatenateTusUploads(anyString(), eq("doc.txt"), eq(partials)))
+                .thenReturn(Mono.just(TusStorageUpload.of("k#doc.txt").withSize(11L)));
+        when(tusUploadDAO.create(any(TusUploadMetadata.class))).thenReturn(Mono.empty());
+        String metadata = "filename " + Base64.getEncoder().encodeToString("doc.txt".getBytes(StandardCharsets.UTF_8));
+
+        String uploadId = service.concatenateUploads(List.of("p1", "p2"), "final;/tus/p1 /tus/p2", metadata).block();
+
+        ArgumentCaptor<TusUploadMetadata> created = ArgumentCaptor.forClass(TusUploadMetadata.class);
+        verify(tusUploadDAO).create(created.capture());
+        assertTrue(created.getValue().isFinal());
+        assertTrue(created.getValue().isComplete());
+        assertEquals(11L, created.getValue().length());
+        assertEquals(uploadId, created.getValue().uploadId());
+        // The reservations of the parts become the one of the final upload, without checking the quota again
+        verify(userQuotaService).merge(eq(List.of("p1", "p2")), eq(uploadId), any(Instant.class));
+        verify(userQuotaService, never()).reserve(anyString(), anyLong(), any(Instant.class));
+    }
+
+    @Test
+    void concatenateUploads_partialUploadsAlreadyConcatenated_errorsWithoutAssembling() {
+        stubPartialUploads();
+        // A concurrent request claimed p1 first
+        when(tusUploadDAO.delete(List.of("p1", "p2"))).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(service.concatenateUploads(List.of("p1", "p2"), "final;/tus/p1 /tus/p2", null))
+                .expectError(TusUploadException.class)
+                .verify();
+        verify(storageService, never()).concatenateTusUploads(anyString(), anyString(), anyList());
+        verifyNoInteractions(userQuotaService);
+    }
+
+    @Test
+    void concatenateUploads_registrationFails_discardsAssembledContent() {
+        List<TusUploadMetadata> partials = stubPartialUploads();
+        TusStorageUpload assembled = TusStorageUpload.of("k#upload").withSize(11L);
+        when(tusUploadDAO.delete(List.of("p1", "p2"))).thenReturn(Mono.just(2L));
+        when(tusProperties.getUploadExpirationPeriod()).thenReturn(60000L);
+        when(userQuotaService.merge(anyList(), anyString(), any(Instant.class))).thenReturn(Mono.empty());
+        when(storageService.concatenateTusUploads(anyString(), eq("upload"), eq(partials))).thenReturn(Mono.just(assembled));
+        when(tusUploadDAO.create(any(TusUploadMetadata.class))).thenReturn(Mono.error(new IllegalStateException("db down")));
+        when(storageService.abortTusUpload(anyString(), eq(assembled))).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.concatenateUploads(List.of("p1", "p2"), "final;/tus/p1 /tus/p2", null))
+                .expectErrorMessage("db down")
+                .verify();
+        verify(storageService).abortTusUpload(anyString(), eq(assembled));
+    }
+
+    @Test
+    void getConcatenatedLength_incompletePartialUpload_errors() {
+        when(tusUploadDAO.findById("p1")).thenReturn(Mono.just(partialUpload("p1", 6L, 6L)));
+        when(tusUploadDAO.findById("p2")).thenReturn(Mono.just(partialUpload("p2", 5L, 2L)));
+
+        StepVerifier.create(service.getConcatenatedLength(List.of("p1", "p2")))
+                .expectError(TusUploadException.class)
+                .verify();
+    }
+
+    @Test
+    void getConcatenatedLength_regularUpload_errors() {
+        when(tusUploadDAO.findById("u1")).thenReturn(Mono.just(upload(11L, UserInfoService.ANONYMOUS_USER)));
+
+        StepVerifier.create(service.getConcatenatedLength(List.of("u1")))
+                .expectError(TusUploadException.class)
+                .verify();
+    }
+
+    @Test
+    void getConcatenatedLength_duplicatePartialUpload_errors() {
+        StepVerifier.create(service.getConcatenatedLength(List.of("p1", "p1")))
+                .expectError(TusUploadException.class)
+                .verify();
+        verifyNoInteractions(tusUploadDAO);
+    }
+
+    private static TusUploadMetadata partialUpload(String uploadId, long length, long offset) {
+        return TusUploadMetadata.create(uploadId, length, 60000L, Map.of(), UserInfoService.ANONYMOUS_USER,
+                TusStorageUpload.of(uploadId).withSize(offset), TusUploadMetadata.CONCAT_PARTIAL);
+    }
+
+    private static TusUploadMetadata upload(long offset) {
+        return upload(offset, "user@openfilz.org");
+    }
+
+    private static TusUploadMetadata upload(long offset, String email) {
+        return TusUploadMetadata.create("u1", 11L, 60000L, Map.of(), email,
+                        TusStorageUpload.of("3f2a9c1b-0000-0000-0000-000000000000#doc.txt"))
+                .withStorage(TusStorageUpload.of("3f2a9c1b-0000-0000-0000-000000000000#doc.txt").withSize(offset));
+    }
+
+    private static Flux<DataBuffer> chunk(String content) {
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8)));
+    }
 }
@@ -0,0 +1,129 @@
+package org.openfilz.dms.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openfilz.dms.config.QuotaProperties;
+import org.openfilz.dms.exception.UserQuotaExceededException;
+import org.openfilz.dms.repository.QuotaReservationDAO;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserQuotaServiceImplTest {
+
+    // No security context -> getConnectedUserEmail() resolves to anonymousUser.
+    private static final String USER = "anonymousUser";
+
+    @Mock private QuotaProperties quotaProperties;
+    @Mock private QuotaReservationDAO quotaReservationDAO;
+
+    private UserQuotaServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserQuotaServiceImpl(quotaProperties, quotaReservationDAO);
+    }
+
+    private void enableQuota(long maxBytes) {
+        when(quotaProperties.isUserQuotaEnabled()).thenReturn(true);
+        lenient().when(quotaProperties.getUserQuotaInBytes()).thenReturn(maxBytes);
+        lenient().when(quotaProperties.getReservationTimeout()).thenReturn(Duration.ofHours(1));
+    }
+
+    @Test
+    void withReservation_quotaDisabled_runsOperationWithoutReserving() {
+        when(quotaProperties.isUserQuotaEnabled()).thenReturn(false);
+
+        StepVerifier.create(service.withReservation(100L, Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+        verifyNoInteractions(quotaReservationDAO);
+    }
+
+    @Test
+    void withReservation_nothingToReserve_runsOperationWithoutReserving() {
+        when(quotaProperties.isUserQuotaEnabled()).thenReturn(true);
+
+        StepVerifier.create(service.withReservation(null, Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+        verifyNoInteractions(quotaReservationDAO);
+    }
+
+    @Test
+    void withReservation_withinQuota_reservesThenReleasesAfterOperation() {
+        enableQuota(1000L);
+        when(quotaReservationDAO.reserve(anyString(), eq(USER), eq(100L), eq(1000L), any(OffsetDateTime.class)))
+                .thenReturn(Mono.just(true));
+        when(quotaReservationDAO.release(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.withReservation(100L, Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+
+        ArgumentCaptor<String> reserved = ArgumentCaptor.forClass(String.class);
+        verify(quotaReservationDAO).reserve(reserved.capture(), eq(USER), eq(100L), eq(1000L), any(OffsetDateTime.class));
+        verify(quotaReservationDAO).release(reserved.getValue());
+    }
+
+    @Test
+    void withReservation_failedOperation_releasesReservation() {
+        enableQuota(1000L);
+        when(quotaReservationDAO.reserve(anyString(), eq(USER), eq(100L), eq(1000L), any(OffsetDateTime.class)))
+                .thenReturn(Mono.just(true));
+        when(quotaReservationDAO.release(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.withReservation(100L, Mono.error(new IllegalStateException("storage down"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        verify(quotaReservationDAO).release(anyString());
+    }
+
+    @Test
+    void withReservation_overQuota_errorsWithoutRunningOperation() {
+        enableQuota(1000L);
+        when(quotaReservationDAO.reserve(anyString(), eq(USER), eq(100L), eq(1000L), any(OffsetDateTime.class)))
+                .thenReturn(Mono.just(false));
+        when(quotaReservationDAO.exists(anyString())).thenReturn(Mono.just(false));
+        when(quotaReservationDAO.getUsage(USER)).thenReturn(Mono.just(950L));
+        AtomicBoolean ran = new AtomicBoolean();
+
+        StepVerifier.create(service.withReservation(100L, Mono.fromSupplier(() -> ran.getAndSet(true))))
+                .expectError(UserQuotaExceededException.class)
+                .verify();
+        assertFalse(ran.get());
+        verify(quotaReservationDAO, never()).release(anyString());
+    }
+
+    @Test
+    void reserve_existingReservation_completes() {
+        enableQuota(1000L);
+        when(quotaReservationDAO.reserve(eq("u1"), eq(USER), eq(100L), eq(1000L), any(OffsetDateTime.class)))
+                .thenReturn(Mono.just(false));
+        when(quotaReservationDAO.exists("u1")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.reserve("u1", 100L, Instant.now())).verifyComplete();
+        verify(quotaReservationDAO, never()).getUsage(anyString());
+    }
+
+    @Test
+    void release_daoError_isIgnored() {
+        when(quotaProperties.isUserQuotaEnabled()).thenReturn(true);
+        when(quotaReservationDAO.release("u1")).thenReturn(Mono.error(new IllegalStateException("db down")));
+
+        StepVerifier.create(service.release("u1")).verifyComplete();
+    }
+}
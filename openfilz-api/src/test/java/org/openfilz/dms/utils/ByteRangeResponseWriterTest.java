@@ -0,0 +1,158 @@
+package org.openfilz.dms.utils;
+
+import org.junit.jupiter.api.Test;
+import org.openfilz.dms.dto.response.StreamableContent;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.openfilz.dms.utils.ByteRangeResponseWriter.ATTACHMENT;
+
+class ByteRangeResponseWriterTest {
+
+    private static final String DATA = "0123456789";
+    private static final String ETAG = "\"doc-1\"";
+    private static final Instant LAST_MODIFIED = Instant.parse("2026-01-15T10:00:00Z");
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    private StreamableContent content() {
+        return new StreamableContent("file.txt", "text/plain", DATA.length(), ETAG, LAST_MODIFIED, null,
+                (offset, length) -> {
+                    reads.incrementAndGet();
+                    byte[] bytes = DATA.substring((int) offset, (int) (offset + length)).getBytes(StandardCharsets.UTF_8);
+                    return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes));
+                });
+    }
+
+    private MockServerHttpResponse write(MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        StepVerifier.create(ByteRangeResponseWriter.write(exchange, content(), ATTACHMENT,
+                Mono.fromRunnable(downloads::incrementAndGet))).verifyComplete();
+        return exchange.getResponse();
+    }
+
+    @Test
+    void noRange_writesWholeContent() {
+        MockServerHttpResponse response = write(MockServerHttpRequest.get("/download").build());
+
+        assertNotEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertEquals(10, response.getHeaders().getContentLength());
+        assertEquals("attachment; filename=\"file.txt\"", response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        StepVerifier.create(response.getBodyAsString()).expectNext(DATA).verifyComplete();
+    }
+
+    @Test
+    void singleRange_writesPartialContent() {
+        MockServerHttpResponse response = write(MockServerHttpRequest.get("/download").header(HttpHeaders.RANGE, "bytes=2-5").build());
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 2-5/10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(4, response.getHeaders().getContentLength());
+        StepVerifier.create(response.getBodyAsString()).expectNext("2345").verifyComplete();
+    }
+
+    @Test
+    void suffixAndOpenEndedRanges_areResolvedAgainstLength() {
+        MockServerHttpResponse suffix = write(MockServerHttpRequest.get("/download").header(HttpHeaders.RANGE, "bytes=-3").build());
+        assertEquals("bytes 7-9/10", suffix.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        StepVerifier.create(suffix.getBodyAsString()).expectNext("789").verifyComplete();
+
+        MockServerHttpResponse openEnded = write(MockServerHttpRequest.get("/download").header(HttpHeaders.RANGE, "bytes=8-").build());
+        assertEquals("bytes 8-9/10", openEnded.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        StepVerifier.create(openEnded.getBodyAsString()).expectNext("89").verifyComplete();
+    }
+
+    @Test
+    void multipleRanges_writeMultipartByteranges() {
+        MockServerHttpResponse response = write(MockServerHttpRequest.get("/download").header(HttpHeaders.RANGE, "bytes=0-1,6-7").build());
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("multipart", response.getHeaders().getContentType().getType());
+        assertEquals("byteranges", response.getHeaders().getContentType().getSubtype());
+        String boundary = response.getHeaders().getContentType().getParameter("boundary");
+        String body = response.getBodyAsString().block();
+        assertNotNull(body);
+        assertEquals(response.getHeaders().getContentLength(), body.getBytes(StandardCharsets.US_ASCII).length);
+        assertTrue(body.contains("Content-Range: bytes 0-1/10\r\n\r\n01\r\n--" + boundary));
+        assertTrue(body.contains("Content-Range: bytes 6-7/10\r\n\r\n67\r\n--" + boundary + "--"));
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void unsatisfiableRange_returns416() {
+        MockServerHttpResponse response = write(MockServerHttpRequest.get("/download").header(HttpHeaders.RANGE, "bytes=20-30").build());
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, reads.get());
+    }
+
+    @Test
+    void ifRange_matchingEntityTag_honoursRange() {
+        MockServerHttpResponse response = write(MockServerHttpRequest.get("/download")
+                .header(HttpHeaders.RANGE, "bytes=0-0").header(HttpHeaders.IF_RANGE, ETAG).build());
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        StepVerifier.create(response.getBodyAsString()).expectNext("0").verifyComplete();
+    }
+
+    @Test
+    void ifRange_matchingDate_honoursRange() {
+        MockServerHttpResponse response = write(MockServerHttpRequest.get("/download")
+                .header(HttpHeaders.RANGE, "bytes=0-0").header(HttpHeaders.IF_RANGE, "Thu, 15 Jan 2026 10:00:00 GMT").build());
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+    }
+
+    @Test
+    void ifRange_staleValidator_writesWholeContent() {
+        MockServerHttpResponse response = write(MockServerHttpRequest.get("/download")
+                .header(HttpHeaders.RANGE, "bytes=0-0").header(HttpHeaders.IF_RANGE, "\"other\"").build());
+
+        assertNotEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        StepVerifier.create(response.getBodyAsString()).expectNext(DATA).verifyComplete();
+    }
+
+    @Test
+    void headRequest_writesHeadersOnly() {
+        MockServerHttpResponse response = write(MockServerHttpRequest.head("/download").header(HttpHeaders.RANGE, "bytes=2-5").build());
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals(4, response.getHeaders().getContentLength());
+        assertEquals(0, reads.get());
+    }
+
+    @Test
+    void onDownload_runForWholeContentAndRangesFromFirstByte() {
+        write(MockServerHttpRequest.get("/download").build());
+        write(MockServerHttpRequest.get("/download").header(HttpHeaders.RANGE, "bytes=0-3").build());
+        write(MockServerHttpRequest.get("/download").header(HttpHeaders.RANGE, "bytes=0-1,6-7").build());
+
+        assertEquals(3, downloads.get());
+    }
+
+    @Test
+    void onDownload_notRunForResumedRangesNorHead() {
+        write(MockServerHttpRequest.get("/download").header(HttpHeaders.RANGE, "bytes=4-").build());
+        write(MockServerHttpRequest.get("/download").header(HttpHeaders.RANGE, "bytes=-3").build());
+        write(MockServerHttpRequest.get("/download").header(HttpHeaders.RANGE, "bytes=20-30").build());
+        write(MockServerHttpRequest.head("/download").build());
+
+        assertEquals(0, downloads.get());
+    }
+}
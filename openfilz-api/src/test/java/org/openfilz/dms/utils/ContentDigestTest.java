@@ -0,0 +1,52 @@
+package org.openfilz.dms.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentDigestTest {
+
+    private static final String HELLO_WORLD_SHA256 = "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9";
+    private static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static DataBuffer buffer(String content) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void tee_digestsAllBuffersAndLeavesThemReadable() {
+        ContentDigest digest = ContentDigest.sha256();
+
+        String written = digest.tee(Flux.just(buffer("hello "), buffer("world")))
+                .map(b -> b.toString(StandardCharsets.UTF_8))
+                .reduce(String::concat)
+                .block();
+
+        assertEquals("hello world", written);
+        assertEquals(HELLO_WORLD_SHA256, digest.hex());
+    }
+
+    @Test
+    void hex_isIdempotent() {
+        ContentDigest digest = ContentDigest.sha256();
+        assertEquals(EMPTY_SHA256, digest.hex());
+        assertEquals(EMPTY_SHA256, digest.hex());
+    }
+
+    @Test
+    void copy_isIndependentOfOriginal() {
+        ContentDigest digest = ContentDigest.sha256();
+        digest.update(buffer("hello "));
+
+        ContentDigest copy = digest.copy();
+        copy.update(buffer("world"));
+
+        assertEquals(HELLO_WORLD_SHA256, copy.hex());
+        assertNotEquals(HELLO_WORLD_SHA256, digest.hex());
+    }
+}
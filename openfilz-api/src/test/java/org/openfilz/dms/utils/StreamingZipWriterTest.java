@@ -0,0 +1,121 @@
+package org.openfilz.dms.utils;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.junit.jupiter.api.Test;
+import org.openfilz.dms.utils.StreamingZipWriter.ZipItem;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingZipWriterTest {
+
+    private final StreamingZipWriter writer = new StreamingZipWriter(DefaultDataBufferFactory.sharedInstance, 2, 2);
+
+    private static Flux<DataBuffer> content(String... chunks) {
+        return Flux.fromArray(chunks)
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] collect(Flux<DataBuffer> archive) {
+        return DataBufferUtils.join(archive)
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .block();
+    }
+
+    @Test
+    void write_producesArchiveReadableByStreamingReader() throws IOException {
+        byte[] zip = collect(writer.write(Flux.just(
+                ZipItem.directory("dir"),
+                ZipItem.file("dir/a.txt", 11L, () -> content("hello ", "world")),
+                ZipItem.file("photo.JPG", 3L, () -> content("jpg")),
+                ZipItem.file("b.txt", null, () -> content("b")))));
+
+        List<String> names = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                names.add(entry.getName());
+                contents.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(List.of("dir/", "dir/a.txt", "photo.JPG", "b.txt"), names);
+        assertEquals(List.of("", "hello world", "jpg", "b"), contents);
+    }
+
+    @Test
+    void write_centralDirectoryHasSizesAndCrc() throws IOException {
+        byte[] zip = collect(writer.write(Flux.just(ZipItem.file("a.txt", 5L, () -> content("abcde")))));
+
+        try (ZipFile zipFile = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(zip)).get()) {
+            ZipArchiveEntry entry = zipFile.getEntry("a.txt");
+            assertEquals(5, entry.getSize());
+            assertNotEquals(-1, entry.getCrc());
+            assertEquals("abcde", new String(zipFile.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void write_emptyInput_producesEmptyArchive() throws IOException {
+        byte[] zip = collect(writer.write(Flux.empty()));
+
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            assertNull(in.getNextEntry());
+        }
+    }
+
+    @Test
+    void write_prefetchesAtMostConfiguredEntries() {
+        AtomicInteger subscribed = new AtomicInteger();
+        Flux<ZipItem> items = Flux.range(0, 10)
+                .map(i -> ZipItem.file("f" + i, 1L, () -> {
+                    subscribed.incrementAndGet();
+                    return Flux.never();
+                }));
+
+        StepVerifier.create(writer.write(items))
+                .expectSubscription()
+                .thenAwait()
+                .then(() -> assertEquals(2, subscribed.get()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void write_contentError_propagates() {
+        StepVerifier.create(writer.write(Flux.just(ZipItem.file("a", 1L, () -> Flux.error(new IllegalStateException("gone"))))))
+                .thenConsumeWhile(buffer -> {
+                    DataBufferUtils.release(buffer);
+                    return true;
+                })
+                .expectErrorMessage("gone")
+                .verify();
+    }
+
+    @Test
+    void isCompressed_detectsAlreadyCompressedExtensions() {
+        assertTrue(StreamingZipWriter.isCompressed("movie.mp4"));
+        assertTrue(StreamingZipWriter.isCompressed("report.DOCX"));
+        assertFalse(StreamingZipWriter.isCompressed("notes.txt"));
+        assertFalse(StreamingZipWriter.isCompressed("README"));
+    }
+}